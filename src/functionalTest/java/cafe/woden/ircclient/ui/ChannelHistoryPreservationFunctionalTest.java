@@ -29,6 +29,7 @@ import cafe.woden.ircclient.irc.roster.UserListStore;
 import cafe.woden.ircclient.irc.roster.UserhostQueryService;
 import cafe.woden.ircclient.logging.ChatLogRepository;
 import cafe.woden.ircclient.logging.LogLineFactory;
+import cafe.woden.ircclient.logging.archive.ChatLogArchive;
 import cafe.woden.ircclient.logging.history.ChatHistoryIngestBus;
 import cafe.woden.ircclient.logging.history.ChatHistoryTranscriptPort;
 import cafe.woden.ircclient.logging.history.DbChatHistoryService;
@@ -232,6 +233,7 @@ class ChannelHistoryPreservationFunctionalTest {
     DbChatHistoryService historyService =
         new DbChatHistoryService(
             repo,
+            ChatLogArchive.disabled(),
             new LogProperties(true, true, false, true, true, true, 0, null, null, null),
             new FixedHistoryTranscriptPort(transcripts, 100, 200),
             irc,
@@ -0,0 +1,119 @@
+package cafe.woden.ircclient.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Shared input for the microbenchmarks: about 1,600 raw server lines shaped like a busy network
+ * (several channels, tags, CTCP, mIRC colors, numerics, batches, services, wide Unicode).
+ *
+ * <p>The resource keeps control characters readable as {@code \xNN}; they are decoded on load.
+ */
+public final class BenchmarkCorpus {
+
+  private static final String RESOURCE = "/corpus/irc-lines.txt";
+
+  private static final List<String> RAW_LINES = load();
+
+  private BenchmarkCorpus() {}
+
+  /** Raw lines as the server sent them, including the IRCv3 tag prefix. */
+  public static List<String> rawLines() {
+    return RAW_LINES;
+  }
+
+  /** Trailing text of every PRIVMSG/NOTICE line, i.e. what users actually typed. */
+  public static List<String> messages() {
+    List<String> out = new ArrayList<>();
+    for (String line : RAW_LINES) {
+      String command = command(line);
+      if (!"PRIVMSG".equals(command) && !"NOTICE".equals(command)) continue;
+      int trailing = line.indexOf(" :", line.indexOf(command));
+      if (trailing >= 0) out.add(line.substring(trailing + 2));
+    }
+    return List.copyOf(out);
+  }
+
+  /** {@code nick!user@host} prefixes of every line that has one. */
+  public static List<String> hostmasks() {
+    List<String> out = new ArrayList<>();
+    for (String line : RAW_LINES) {
+      String prefix = prefix(line);
+      if (prefix.indexOf('!') > 0) out.add(prefix);
+    }
+    return List.copyOf(out);
+  }
+
+  /** Nick part of {@link #hostmasks()}, in the same order. */
+  public static List<String> nicks() {
+    return hostmasks().stream().map(h -> h.substring(0, h.indexOf('!'))).toList();
+  }
+
+  private static String prefix(String line) {
+    String rest = stripTags(line);
+    if (!rest.startsWith(":")) return "";
+    int space = rest.indexOf(' ');
+    return space > 1 ? rest.substring(1, space) : "";
+  }
+
+  private static String command(String line) {
+    String rest = stripTags(line);
+    if (rest.startsWith(":")) {
+      int space = rest.indexOf(' ');
+      if (space < 0) return "";
+      rest = rest.substring(space + 1);
+    }
+    int space = rest.indexOf(' ');
+    return space < 0 ? rest : rest.substring(0, space);
+  }
+
+  private static String stripTags(String line) {
+    if (!line.startsWith("@")) return line;
+    int space = line.indexOf(' ');
+    return space < 0 ? "" : line.substring(space + 1);
+  }
+
+  private static List<String> load() {
+    InputStream in =
+        Objects.requireNonNull(
+            BenchmarkCorpus.class.getResourceAsStream(RESOURCE), "missing " + RESOURCE);
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank() || line.startsWith("#")) continue;
+        lines.add(decodeEscapes(line));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return List.copyOf(lines);
+  }
+
+  private static String decodeEscapes(String line) {
+    if (line.indexOf("\\x") < 0) return line;
+    StringBuilder sb = new StringBuilder(line.length());
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '\\' && i + 3 < line.length() && line.charAt(i + 1) == 'x') {
+        int hi = Character.digit(line.charAt(i + 2), 16);
+        int lo = Character.digit(line.charAt(i + 3), 16);
+        if (hi >= 0 && lo >= 0) {
+          sb.append((char) (hi * 16 + lo));
+          i += 3;
+          continue;
+        }
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+}
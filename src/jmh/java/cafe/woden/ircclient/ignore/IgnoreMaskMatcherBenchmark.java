@@ -0,0 +1,51 @@
+package cafe.woden.ircclient.ignore;
+
+import cafe.woden.ircclient.bench.BenchmarkCorpus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Ignore-list check for every inbound sender; almost always a miss, so the whole list is walked.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IgnoreMaskMatcherBenchmark {
+
+  @Param({"10", "200"})
+  public int maskCount;
+
+  private final List<String> hostmasks = BenchmarkCorpus.hostmasks();
+  private List<String> masks;
+
+  @Setup
+  public void setUp() {
+    List<String> out = new ArrayList<>(maskCount);
+    for (int i = 0; i < maskCount; i++) {
+      out.add(
+          switch (i % 4) {
+            case 0 -> "*!*@spam" + i + ".example.org";
+            case 1 -> "troll" + i + "!*@*";
+            case 2 -> "*!~bot" + i + "@*";
+            default -> "*!*@gateway/web/irccloud.com/x-" + i;
+          });
+    }
+    // One real hit at the end keeps the match path honest without short-circuiting early.
+    out.add("*!*@spam.example.org");
+    masks = List.copyOf(out);
+  }
+
+  @Benchmark
+  public void checkCorpusSenders(Blackhole bh) {
+    for (String hostmask : hostmasks) {
+      bh.consume(IgnoreMaskMatcher.hostmaskTargetedByAny(masks, hostmask));
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package cafe.woden.ircclient.irc.ircv3;
+
+import cafe.woden.ircclient.bench.BenchmarkCorpus;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-line tag work done by the inbound parser: split the tag prefix, then read the handful of
+ * tags every message handler asks for.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Ircv3TagsBenchmark {
+
+  private static final int LINES = 28;
+
+  private final List<String> lines = BenchmarkCorpus.rawLines();
+
+  @Benchmark
+  @OperationsPerInvocation(LINES)
+  public void parseTags(Blackhole bh) {
+    for (int i = 0; i < LINES; i++) {
+      bh.consume(Ircv3Tags.fromRawLine(lines.get(i % lines.size())));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LINES)
+  public void parseAndReadCommonTags(Blackhole bh) {
+    for (int i = 0; i < LINES; i++) {
+      Map<String, String> tags = Ircv3Tags.fromRawLine(lines.get(i % lines.size()));
+      bh.consume(Ircv3Tags.firstTagValue(tags, "msgid", "draft/msgid"));
+      bh.consume(Ircv3Tags.firstTagValue(tags, "time"));
+      bh.consume(Ircv3Tags.firstTagValue(tags, "+draft/reply", "+reply"));
+      bh.consume(Ircv3Tags.firstTagValue(tags, "batch"));
+    }
+  }
+}
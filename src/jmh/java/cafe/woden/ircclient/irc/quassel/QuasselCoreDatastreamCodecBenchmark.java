@@ -0,0 +1,58 @@
+package cafe.woden.ircclient.irc.quassel;
+
+import cafe.woden.ircclient.bench.BenchmarkCorpus;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Decoding {@code displayMsg} SignalProxy frames, which dominate Quassel backlog replay. */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuasselCoreDatastreamCodecBenchmark {
+
+  private List<byte[]> payloads;
+
+  @Setup
+  public void setUp() throws IOException {
+    QuasselCoreDatastreamCodec codec = new QuasselCoreDatastreamCodec();
+    QuasselCoreDatastreamCodec.BufferInfoValue buffer =
+        new QuasselCoreDatastreamCodec.BufferInfoValue(11, 3, 0x02, 0, "#ircafe");
+    List<String> hostmasks = BenchmarkCorpus.hostmasks();
+    List<String> messages = BenchmarkCorpus.messages();
+    List<byte[]> out = new ArrayList<>(messages.size());
+    long ts = 1_771_245_296L;
+    for (int i = 0; i < messages.size(); i++) {
+      QuasselCoreDatastreamCodec.MessageValue message =
+          new QuasselCoreDatastreamCodec.MessageValue(
+              10_000L + i,
+              ts + i,
+              0x0001,
+              0,
+              buffer,
+              hostmasks.get(i % hostmasks.size()),
+              messages.get(i));
+      ByteArrayOutputStream frame = new ByteArrayOutputStream();
+      codec.writeSignalProxyRpcCall(frame, "2displayMsg(Message)", List.of(message));
+      byte[] bytes = frame.toByteArray();
+      // Drop the 4-byte length prefix; decodeSignalProxyPayload takes the frame body.
+      out.add(Arrays.copyOfRange(bytes, 4, bytes.length));
+    }
+    payloads = List.copyOf(out);
+  }
+
+  @Benchmark
+  public void decodeDisplayMsgFrames(Blackhole bh) throws IOException {
+    for (byte[] payload : payloads) {
+      bh.consume(QuasselCoreDatastreamCodec.decodeSignalProxyPayload(payload));
+    }
+  }
+}
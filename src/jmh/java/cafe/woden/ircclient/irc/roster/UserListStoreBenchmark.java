@@ -0,0 +1,78 @@
+package cafe.woden.ircclient.irc.roster;
+
+import cafe.woden.ircclient.irc.IrcEvent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Join flood into a large channel: one roster delta per JOIN, then the matching PARTs. */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserListStoreBenchmark {
+
+  private static final String SERVER = "libera";
+  private static final String CHANNEL = "#ircafe";
+  private static final String PREFIX_ORDER = "~&@%+";
+
+  @Param({"2000"})
+  public int rosterSize;
+
+  @Param({"500"})
+  public int joins;
+
+  private List<IrcEvent.NickInfo> roster;
+  private List<IrcEvent.RosterDelta> joinDeltas;
+  private List<IrcEvent.RosterDelta> partDeltas;
+  private UserListStore store;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    List<IrcEvent.NickInfo> nicks = new ArrayList<>(rosterSize);
+    for (int i = 0; i < rosterSize; i++) {
+      String prefix = i % 50 == 0 ? "@" : i % 10 == 0 ? "+" : "";
+      nicks.add(new IrcEvent.NickInfo("member" + i, prefix, "member" + i + "!~u@host" + i));
+    }
+    roster = List.copyOf(nicks);
+
+    Instant at = Instant.parse("2026-02-16T12:00:00Z");
+    List<IrcEvent.RosterDelta> in = new ArrayList<>(joins);
+    List<IrcEvent.RosterDelta> out = new ArrayList<>(joins);
+    for (int i = 0; i < joins; i++) {
+      String nick = "joiner" + i;
+      IrcEvent.NickInfo info = new IrcEvent.NickInfo(nick, "", nick + "!~j@flood" + i);
+      in.add(
+          new IrcEvent.RosterDelta(
+              at, CHANNEL, IrcEvent.RosterChange.ADDED, nick, info, PREFIX_ORDER));
+      out.add(
+          new IrcEvent.RosterDelta(
+              at, CHANNEL, IrcEvent.RosterChange.REMOVED, nick, null, PREFIX_ORDER));
+    }
+    joinDeltas = List.copyOf(in);
+    partDeltas = List.copyOf(out);
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    store = new UserListStore();
+    store.put(SERVER, CHANNEL, roster);
+  }
+
+  @Benchmark
+  public void joinFloodThenPart(Blackhole bh) {
+    for (IrcEvent.RosterDelta delta : joinDeltas) {
+      bh.consume(store.applyDelta(SERVER, delta));
+    }
+    for (IrcEvent.RosterDelta delta : partDeltas) {
+      bh.consume(store.applyDelta(SERVER, delta));
+    }
+  }
+}
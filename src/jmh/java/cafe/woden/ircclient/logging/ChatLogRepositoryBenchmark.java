@@ -0,0 +1,83 @@
+package cafe.woden.ircclient.logging;
+
+import cafe.woden.ircclient.bench.BenchmarkCorpus;
+import cafe.woden.ircclient.model.TargetRef;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Batched chat-log inserts against a file-backed HSQLDB, the same shape the log writer flushes.
+ *
+ * <p>A file database is used on purpose: the migrations switch {@code chat_log} to a CACHED table,
+ * so an in-memory database would measure a different storage path.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChatLogRepositoryBenchmark {
+
+  @Param({"250"})
+  public int batchSize;
+
+  private Path dir;
+  private JdbcTemplate jdbc;
+  private ChatLogRepository repository;
+  private List<LogLine> batch;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("ircafe-jmh-chatlog");
+    DriverManagerDataSource ds = new DriverManagerDataSource();
+    ds.setDriverClassName("org.hsqldb.jdbc.JDBCDriver");
+    ds.setUrl("jdbc:hsqldb:file:" + dir.resolve("chatlog").toAbsolutePath() + ";hsqldb.tx=mvcc");
+    ds.setUsername("SA");
+    ds.setPassword("");
+    Flyway.configure().dataSource(ds).locations("classpath:db/migration/chatlog").load().migrate();
+    jdbc = new JdbcTemplate(ds);
+    repository = new ChatLogRepository(jdbc);
+
+    LogLineFactory factory = new LogLineFactory();
+    TargetRef target = new TargetRef("libera", "#ircafe");
+    List<String> nicks = BenchmarkCorpus.nicks();
+    List<String> messages = BenchmarkCorpus.messages();
+    List<LogLine> lines = new ArrayList<>(batchSize);
+    long ts = 1_771_245_296_000L;
+    for (int i = 0; i < batchSize; i++) {
+      String from = nicks.get(i % nicks.size());
+      lines.add(factory.chatAt(target, from, messages.get(i % messages.size()), false, ts + i));
+    }
+    batch = List.copyOf(lines);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    jdbc.execute("SHUTDOWN");
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(p);
+      }
+    }
+  }
+
+  @Benchmark
+  public void insertBatch(Blackhole bh) {
+    bh.consume(repository.insertBatch(batch));
+  }
+}
@@ -0,0 +1,65 @@
+package cafe.woden.ircclient.logging;
+
+import cafe.woden.ircclient.bench.BenchmarkCorpus;
+import cafe.woden.ircclient.irc.ircv3.Ircv3Tags;
+import cafe.woden.ircclient.model.TargetRef;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Building persisted lines (including IRCv3 meta JSON) for every logged chat message. */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogLineFactoryBenchmark {
+
+  private final LogLineFactory factory = new LogLineFactory();
+  private final TargetRef target = new TargetRef("libera", "#ircafe");
+
+  private List<String> nicks;
+  private List<String> messages;
+  private List<Map<String, String>> tags;
+
+  @Setup
+  public void setUp() {
+    nicks = BenchmarkCorpus.nicks();
+    messages = BenchmarkCorpus.messages();
+    List<Map<String, String>> out = new ArrayList<>();
+    for (String line : BenchmarkCorpus.rawLines()) {
+      // Copy so the benchmark measures the factory, not the lazy tag view.
+      out.add(Map.copyOf(Ircv3Tags.fromRawLine(line)));
+    }
+    tags = List.copyOf(out);
+  }
+
+  @Benchmark
+  public void chatWithoutTags(Blackhole bh) {
+    long ts = 1_771_245_296_000L;
+    for (int i = 0; i < messages.size(); i++) {
+      bh.consume(factory.chatAt(target, nicks.get(i % nicks.size()), messages.get(i), false, ts));
+    }
+  }
+
+  @Benchmark
+  public void chatWithIrcv3Meta(Blackhole bh) {
+    long ts = 1_771_245_296_000L;
+    for (int i = 0; i < messages.size(); i++) {
+      Map<String, String> lineTags = tags.get(i % tags.size());
+      bh.consume(
+          factory.chatAt(
+              target,
+              nicks.get(i % nicks.size()),
+              messages.get(i),
+              false,
+              ts + i,
+              lineTags.get("msgid"),
+              lineTags));
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package cafe.woden.ircclient.notifications;
+
+import cafe.woden.ircclient.app.api.UiSettingsPort;
+import cafe.woden.ircclient.app.api.UiSettingsSnapshot;
+import cafe.woden.ircclient.bench.BenchmarkCorpus;
+import cafe.woden.ircclient.config.NotificationRule;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Highlight-rule matching for every inbound message, word and regex rules mixed. */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NotificationRuleMatcherBenchmark {
+
+  @Param({"5", "40"})
+  public int ruleCount;
+
+  private final List<String> messages = BenchmarkCorpus.messages();
+  private NotificationRuleMatcher matcher;
+
+  @Setup
+  public void setUp() {
+    List<NotificationRule> rules = new ArrayList<>(ruleCount);
+    rules.add(rule(NotificationRule.Type.WORD, "alice", false, true));
+    rules.add(rule(NotificationRule.Type.WORD, "release", false, true));
+    rules.add(rule(NotificationRule.Type.REGEX, "\\b(outage|deploy)\\b", false, false));
+    for (int i = rules.size(); i < ruleCount; i++) {
+      rules.add(
+          i % 2 == 0
+              ? rule(NotificationRule.Type.WORD, "keyword" + i, i % 4 == 0, true)
+              : rule(NotificationRule.Type.REGEX, "issue[-/#]" + i + "\\d*", false, false));
+    }
+    UiSettingsSnapshot snapshot =
+        new UiSettingsSnapshot(List.copyOf(rules), 15, 30, true, true, true, true, true);
+    matcher = new NotificationRuleMatcher(new FixedSettings(snapshot));
+  }
+
+  @Benchmark
+  public void matchCorpus(Blackhole bh) {
+    for (String message : messages) {
+      bh.consume(matcher.matchAll(message));
+    }
+  }
+
+  private static NotificationRule rule(
+      NotificationRule.Type type, String pattern, boolean caseSensitive, boolean wholeWord) {
+    return new NotificationRule(pattern, type, pattern, true, caseSensitive, wholeWord, null);
+  }
+
+  private record FixedSettings(UiSettingsSnapshot snapshot) implements UiSettingsPort {
+    @Override
+    public UiSettingsSnapshot get() {
+      return snapshot;
+    }
+
+    @Override
+    public void addListener(PropertyChangeListener listener) {}
+
+    @Override
+    public void removeListener(PropertyChangeListener listener) {}
+  }
+}
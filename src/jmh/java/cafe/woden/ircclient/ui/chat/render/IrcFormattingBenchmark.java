@@ -0,0 +1,36 @@
+package cafe.woden.ircclient.ui.chat.render;
+
+import cafe.woden.ircclient.bench.BenchmarkCorpus;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.text.SimpleAttributeSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** mIRC formatting parse for every appended transcript line, plain and colored. */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IrcFormattingBenchmark {
+
+  private final List<String> messages = BenchmarkCorpus.messages();
+  private final List<String> formatted =
+      messages.stream().filter(m -> m.chars().anyMatch(c -> c < 0x20)).toList();
+  private final SimpleAttributeSet base = new SimpleAttributeSet();
+
+  @Benchmark
+  public void parseCorpus(Blackhole bh) {
+    for (String message : messages) {
+      bh.consume(IrcFormatting.parse(message, base));
+    }
+  }
+
+  @Benchmark
+  public void parseFormattedOnly(Blackhole bh) {
+    for (String message : formatted) {
+      bh.consume(IrcFormatting.parse(message, base));
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package cafe.woden.ircclient.ui.filter;
+
+import cafe.woden.ircclient.bench.BenchmarkCorpus;
+import cafe.woden.ircclient.model.FilterAction;
+import cafe.woden.ircclient.model.FilterDirection;
+import cafe.woden.ircclient.model.FilterRule;
+import cafe.woden.ircclient.model.LogDirection;
+import cafe.woden.ircclient.model.LogKind;
+import cafe.woden.ircclient.model.RegexFlag;
+import cafe.woden.ircclient.model.RegexSpec;
+import cafe.woden.ircclient.model.TagSpec;
+import cafe.woden.ircclient.model.TargetRef;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Filter evaluation for every rendered line against a realistic mix of scoped rules. */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterEngineBenchmark {
+
+  @Param({"5", "50"})
+  public int ruleCount;
+
+  private FilterEngine engine;
+  private List<FilterContext> contexts;
+
+  @Setup
+  public void setUp() {
+    List<FilterRule> rules = new ArrayList<>(ruleCount);
+    for (int i = 0; i < ruleCount; i++) {
+      rules.add(
+          switch (i % 3) {
+            case 0 ->
+                rule(
+                    "links " + i,
+                    "libera/#ircafe",
+                    List.of(),
+                    new RegexSpec("hxxp://spam" + i, EnumSet.of(RegexFlag.I)));
+            case 1 -> rule("bots " + i, "*", List.of("*bot" + i), null);
+            default ->
+                rule(
+                    "words " + i,
+                    "libera/*",
+                    List.of(),
+                    new RegexSpec(
+                        "\\b(outage|deploy)" + i + "\\b", EnumSet.noneOf(RegexFlag.class)));
+          });
+    }
+    FilterSettingsBus bus = new FilterSettingsBus(null);
+    bus.set(
+        new FilterSettings(true, true, true, 3, 250, 12, 10, true, List.copyOf(rules), List.of()));
+    engine = new FilterEngine(bus);
+
+    TargetRef target = new TargetRef("libera", "#ircafe");
+    List<String> nicks = BenchmarkCorpus.nicks();
+    List<String> messages = BenchmarkCorpus.messages();
+    List<FilterContext> out = new ArrayList<>(messages.size());
+    for (int i = 0; i < messages.size(); i++) {
+      out.add(
+          new FilterContext(
+              target,
+              LogKind.CHAT,
+              LogDirection.IN,
+              nicks.get(i % nicks.size()),
+              messages.get(i),
+              Set.of()));
+    }
+    contexts = List.copyOf(out);
+  }
+
+  @Benchmark
+  public void firstMatchCorpus(Blackhole bh) {
+    for (FilterContext ctx : contexts) {
+      bh.consume(engine.firstMatch(ctx));
+    }
+  }
+
+  private static FilterRule rule(String name, String scope, List<String> from, RegexSpec regex) {
+    return new FilterRule(
+        null,
+        name,
+        true,
+        scope,
+        FilterAction.HIDE,
+        FilterDirection.ANY,
+        EnumSet.of(LogKind.CHAT),
+        from,
+        regex,
+        TagSpec.empty());
+  }
+}
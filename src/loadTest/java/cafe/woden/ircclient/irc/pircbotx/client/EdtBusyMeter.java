@@ -0,0 +1,56 @@
+package cafe.woden.ircclient.irc.pircbotx.client;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures wall-clock time the EDT spends dispatching events.
+ *
+ * <p>Installs itself on top of the system event queue so every dispatch is timed, including work
+ * that blocks rather than burns CPU. {@link #close} restores the previous queue.
+ */
+final class EdtBusyMeter extends EventQueue implements AutoCloseable {
+
+  private final LongAdder busyNanos = new LongAdder();
+  private final LongAdder dispatched = new LongAdder();
+  private volatile long maxDispatchNanos;
+
+  static EdtBusyMeter install() {
+    EdtBusyMeter meter = new EdtBusyMeter();
+    Toolkit.getDefaultToolkit().getSystemEventQueue().push(meter);
+    return meter;
+  }
+
+  long busyNanos() {
+    return busyNanos.sum();
+  }
+
+  long dispatched() {
+    return dispatched.sum();
+  }
+
+  long maxDispatchNanos() {
+    return maxDispatchNanos;
+  }
+
+  @Override
+  protected void dispatchEvent(AWTEvent event) {
+    long start = System.nanoTime();
+    try {
+      super.dispatchEvent(event);
+    } finally {
+      long took = System.nanoTime() - start;
+      busyNanos.add(took);
+      dispatched.increment();
+      // Only the EDT writes this field.
+      if (took > maxDispatchNanos) maxDispatchNanos = took;
+    }
+  }
+
+  @Override
+  public void close() {
+    pop();
+  }
+}
@@ -0,0 +1,350 @@
+package cafe.woden.ircclient.irc.pircbotx.client;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process IRC server that speaks just enough IRCv3 to drive {@code PircbotxIrcClientService}.
+ *
+ * <p>Handles CAP LS/REQ/END, registration, PING, JOIN/NAMES, WHO and MODE queries, and {@code
+ * CHATHISTORY LATEST/BEFORE} (timestamp selectors) answered as a {@code chathistory} batch from
+ * per-channel history. Each server line carries a {@code time} tag once {@code server-time} is
+ * acked. One client at a time; traffic is pushed with {@link #replay}.
+ */
+@Slf4j
+final class FakeIrcd implements AutoCloseable {
+
+  static final String SERVER_NAME = "fake.ircd";
+  static final List<String> ADVERTISED =
+      List.of(
+          "server-time",
+          "message-tags",
+          "batch",
+          "draft/chathistory",
+          "chathistory",
+          "echo-message",
+          "multi-prefix",
+          "userhost-in-names",
+          "draft/no-implicit-names");
+
+  private final ServerSocket listener;
+  private final Thread acceptThread;
+  private final Map<String, List<String>> historyByChannel = new ConcurrentHashMap<>();
+  private final Set<String> ackedCaps = ConcurrentHashMap.newKeySet();
+  private final CountDownLatch registered = new CountDownLatch(1);
+  private final AtomicInteger batchIds = new AtomicInteger();
+  private volatile Socket client;
+  private volatile BufferedWriter out;
+  private volatile String clientNick = "*";
+  private volatile boolean capNegotiating;
+  private volatile boolean registeredOnce;
+  private volatile LongConsumer historySentListener = seq -> {};
+
+  FakeIrcd() throws IOException {
+    listener = new ServerSocket();
+    listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    acceptThread = new Thread(this::acceptLoop, "fake-ircd-accept");
+    acceptThread.setDaemon(true);
+    acceptThread.start();
+  }
+
+  int port() {
+    return listener.getLocalPort();
+  }
+
+  String clientNick() {
+    return clientNick;
+  }
+
+  boolean capAcked(String cap) {
+    return ackedCaps.contains(cap);
+  }
+
+  boolean awaitRegistered(Duration timeout) throws InterruptedException {
+    return registered.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** Seeds stored history for {@code CHATHISTORY}; lines are full {@code PRIVMSG} messages. */
+  void seedHistory(String channel, List<String> lines) {
+    history(channel).addAll(lines);
+  }
+
+  /** Called with the sequence number of each measured line flushed inside a history batch. */
+  void onHistoryLineSent(LongConsumer listener) {
+    this.historySentListener = Objects.requireNonNull(listener, "listener");
+  }
+
+  /**
+   * Pushes {@code lines} to the client at {@code linesPerSecond} (0 = unpaced), calling {@code
+   * onSent} with each measured line's sequence number right after it is flushed.
+   */
+  void replay(List<TrafficProfile.ScriptLine> lines, int linesPerSecond, LongConsumer onSent)
+      throws IOException {
+    long intervalNanos = linesPerSecond <= 0 ? 0L : TimeUnit.SECONDS.toNanos(1) / linesPerSecond;
+    long next = System.nanoTime();
+    for (TrafficProfile.ScriptLine line : lines) {
+      if (intervalNanos > 0) {
+        long wait = next - System.nanoTime();
+        if (wait > 0) LockSupport.parkNanos(wait);
+        next += intervalNanos;
+      }
+      if (line.raw().contains(" PRIVMSG ")) {
+        history(line.channel()).add(line.raw());
+      }
+      boolean flush = intervalNanos > 0 || line.seq() >= 0;
+      write(line.raw(), flush);
+      if (line.seq() >= 0) onSent.accept(line.seq());
+    }
+    flush();
+  }
+
+  void send(String line) throws IOException {
+    write(line, true);
+  }
+
+  private void acceptLoop() {
+    while (!listener.isClosed()) {
+      try (Socket socket = listener.accept()) {
+        socket.setTcpNoDelay(true);
+        client = socket;
+        out =
+            new BufferedWriter(
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8),
+                64 * 1024);
+        serve(
+            new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)));
+      } catch (IOException e) {
+        if (!listener.isClosed()) log.debug("[fake-ircd] client connection ended", e);
+      }
+    }
+  }
+
+  private void serve(BufferedReader in) throws IOException {
+    String line;
+    while ((line = in.readLine()) != null) {
+      handle(line);
+    }
+  }
+
+  private void handle(String line) throws IOException {
+    List<String> args = parse(line);
+    if (args.isEmpty()) return;
+    String command = args.get(0).toUpperCase(Locale.ROOT);
+    switch (command) {
+      case "CAP" -> handleCap(args);
+      case "NICK" -> clientNick = arg(args, 1);
+      case "USER" -> {
+        if (!capNegotiating) register();
+      }
+      case "PING" -> send(":" + SERVER_NAME + " PONG " + SERVER_NAME + " :" + arg(args, 1));
+      case "JOIN" -> handleJoin(arg(args, 1));
+      case "NAMES" -> sendNames(arg(args, 1));
+      case "WHO" -> numeric("315", arg(args, 1) + " :End of /WHO list.");
+      case "MODE" -> {
+        String target = arg(args, 1);
+        if (target.startsWith("#") && args.size() == 2) numeric("324", target + " +nt");
+      }
+      case "CHATHISTORY" -> handleChatHistory(args);
+      case "QUIT" -> client.close();
+      default -> {
+        // Everything else (PRIVMSG echoes, TAGMSG, WHOIS, ...) is not needed by the harness.
+      }
+    }
+  }
+
+  private void handleCap(List<String> args) throws IOException {
+    String sub = arg(args, 1).toUpperCase(Locale.ROOT);
+    switch (sub) {
+      case "LS" -> {
+        capNegotiating = true;
+        send(":" + SERVER_NAME + " CAP " + clientNick + " LS :" + String.join(" ", ADVERTISED));
+      }
+      case "REQ" -> {
+        List<String> acked = new ArrayList<>();
+        for (String cap : arg(args, 2).trim().split("\\s+")) {
+          if (ADVERTISED.contains(cap)) acked.add(cap);
+        }
+        ackedCaps.addAll(acked);
+        send(":" + SERVER_NAME + " CAP " + clientNick + " ACK :" + String.join(" ", acked));
+      }
+      case "END" -> {
+        capNegotiating = false;
+        register();
+      }
+      default -> {}
+    }
+  }
+
+  private void register() throws IOException {
+    if (registeredOnce || "*".equals(clientNick)) return;
+    registeredOnce = true;
+    numeric("001", ":Welcome to the load test network " + clientNick);
+    numeric("002", ":Your host is " + SERVER_NAME);
+    numeric("003", ":This server was created for load testing");
+    numeric("004", SERVER_NAME + " fake-1.0 iowx bklmnopstv bkloveh");
+    numeric(
+        "005",
+        "CHANTYPES=# PREFIX=(ov)@+ NETWORK=LoadNet CASEMAPPING=rfc1459 CHATHISTORY=1000"
+            + " TARGMAX=JOIN:10,PRIVMSG:4 CHANLIMIT=#:500 :are supported by this server");
+    numeric("422", ":MOTD File is missing");
+    registered.countDown();
+  }
+
+  private void handleJoin(String channels) throws IOException {
+    for (String channel : channels.split(",")) {
+      if (channel.isBlank()) continue;
+      send(":" + clientNick + "!load@localhost JOIN " + channel);
+      if (!capAcked("draft/no-implicit-names")) sendNames(channel);
+    }
+  }
+
+  private void sendNames(String channel) throws IOException {
+    numeric("353", "= " + channel + " :@" + clientNick);
+    numeric("366", channel + " :End of /NAMES list.");
+  }
+
+  private void handleChatHistory(List<String> args) throws IOException {
+    // CHATHISTORY LATEST|BEFORE <target> <selector> <limit>
+    String sub = arg(args, 1).toUpperCase(Locale.ROOT);
+    String target = arg(args, 2);
+    Instant before = "BEFORE".equals(sub) ? selectorTime(arg(args, 3)) : null;
+    int limit;
+    try {
+      limit = Integer.parseInt(arg(args, 4));
+    } catch (NumberFormatException e) {
+      limit = 100;
+    }
+    List<String> window = new ArrayList<>();
+    List<String> stored = history(target);
+    synchronized (stored) {
+      for (int i = stored.size() - 1; i >= 0 && window.size() < limit; i--) {
+        String line = stored.get(i);
+        if (before != null && !timeOf(line).isBefore(before)) continue;
+        window.add(0, line);
+      }
+    }
+    String batchId = "h" + batchIds.incrementAndGet();
+    write(":" + SERVER_NAME + " BATCH +" + batchId + " chathistory " + target, false);
+    for (String line : window) {
+      write(withBatchTag(batchId, line), false);
+    }
+    write(":" + SERVER_NAME + " BATCH -" + batchId, true);
+    for (String line : window) {
+      long seq = TrafficProfile.sequenceOf(line);
+      if (seq >= 0) historySentListener.accept(seq);
+    }
+  }
+
+  private static Instant selectorTime(String selector) {
+    String s = Objects.toString(selector, "");
+    return s.startsWith("timestamp=") ? Instant.parse(s.substring("timestamp=".length())) : null;
+  }
+
+  /** The {@code time} tag of a stored line; untagged lines sort as oldest. */
+  private static Instant timeOf(String line) {
+    if (!line.startsWith("@")) return Instant.EPOCH;
+    int end = line.indexOf(' ');
+    for (String tag : line.substring(1, end < 0 ? line.length() : end).split(";")) {
+      if (tag.startsWith("time=")) return Instant.parse(tag.substring("time=".length()));
+    }
+    return Instant.EPOCH;
+  }
+
+  private void numeric(String code, String rest) throws IOException {
+    send(":" + SERVER_NAME + " " + code + " " + clientNick + " " + rest);
+  }
+
+  private synchronized void write(String line, boolean flush) throws IOException {
+    BufferedWriter w = out;
+    if (w == null) throw new IOException("no client connected");
+    String tagged = line;
+    if (capAcked("server-time") && !line.startsWith("@")) {
+      tagged = "@time=" + DateTimeFormatter.ISO_INSTANT.format(Instant.now()) + " " + line;
+    }
+    w.write(tagged);
+    w.write("\r\n");
+    if (flush) w.flush();
+  }
+
+  private synchronized void flush() throws IOException {
+    BufferedWriter w = out;
+    if (w != null) w.flush();
+  }
+
+  private List<String> history(String channel) {
+    return historyByChannel.computeIfAbsent(
+        channel.toLowerCase(Locale.ROOT), k -> Collections.synchronizedList(new ArrayList<>()));
+  }
+
+  /** Stored lines keep their own tags (notably {@code time}); the batch tag is merged in front. */
+  private static String withBatchTag(String batchId, String line) {
+    return line.startsWith("@")
+        ? "@batch=" + batchId + ";" + line.substring(1)
+        : "@batch=" + batchId + " " + line;
+  }
+
+  /** Splits a client line into command + params, dropping any tags or prefix. */
+  private static List<String> parse(String line) {
+    String s = Objects.toString(line, "").trim();
+    if (s.startsWith("@")) {
+      int sp = s.indexOf(' ');
+      s = sp < 0 ? "" : s.substring(sp + 1).trim();
+    }
+    if (s.startsWith(":")) {
+      int sp = s.indexOf(' ');
+      s = sp < 0 ? "" : s.substring(sp + 1).trim();
+    }
+    List<String> out = new ArrayList<>();
+    while (!s.isEmpty()) {
+      if (s.startsWith(":")) {
+        out.add(s.substring(1));
+        break;
+      }
+      int sp = s.indexOf(' ');
+      if (sp < 0) {
+        out.add(s);
+        break;
+      }
+      out.add(s.substring(0, sp));
+      s = s.substring(sp + 1).stripLeading();
+    }
+    return out;
+  }
+
+  private static String arg(List<String> args, int index) {
+    return index < args.size() ? args.get(index) : "";
+  }
+
+  @Override
+  public void close() throws IOException {
+    listener.close();
+    Socket s = client;
+    if (s != null) s.close();
+  }
+}
@@ -0,0 +1,96 @@
+package cafe.woden.ircclient.irc.pircbotx.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cafe.woden.ircclient.util.RxVirtualSchedulers;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * End-to-end load runs against {@link FakeIrcd}. Reports land in {@code build/reports/load-test}.
+ *
+ * <p>Sizes and pacing come from system properties so CI and local runs can differ:
+ *
+ * <ul>
+ *   <li>{@code ircafe.load.messages} (default 5000) and {@code ircafe.load.users} (default 2000)
+ *   <li>{@code ircafe.load.rate} lines per second, 0 for unpaced (default 0)
+ *   <li>{@code ircafe.load.p99-budget-ms} fails a run whose transcript p99 exceeds it (default off)
+ *   <li>{@code ircafe.load.recorded} path to a raw capture for {@link #recordedCapture}
+ * </ul>
+ */
+class IrcClientLoadTest {
+
+  private static final String CHANNEL = "#load";
+  private static final Duration RUN_TIMEOUT = Duration.ofMinutes(2);
+  private static final Path REPORT_DIR = Path.of("build", "reports", "load-test");
+
+  @TempDir Path workDir;
+
+  @AfterEach
+  void tearDownSchedulers() {
+    RxVirtualSchedulers.shutdown();
+  }
+
+  @Test
+  void busyChannel() throws Exception {
+    run(TrafficProfile.busyChannel(CHANNEL, 200, intProperty("ircafe.load.messages", 5_000)));
+  }
+
+  @Test
+  void netsplit() throws Exception {
+    run(TrafficProfile.netsplit(CHANNEL, intProperty("ircafe.load.users", 2_000), 10));
+  }
+
+  @Test
+  void joinFlood() throws Exception {
+    run(TrafficProfile.joinFlood(CHANNEL, intProperty("ircafe.load.users", 2_000), 10));
+  }
+
+  @Test
+  void bouncerPlayback() throws Exception {
+    run(TrafficProfile.bouncerPlayback(CHANNEL, intProperty("ircafe.load.messages", 5_000)));
+  }
+
+  @Test
+  void chatHistoryPaging() throws Exception {
+    run(TrafficProfile.chatHistory(CHANNEL, intProperty("ircafe.load.messages", 5_000)));
+  }
+
+  @Test
+  void recordedCapture() throws Exception {
+    String file = System.getProperty("ircafe.load.recorded", "");
+    Assumptions.assumeFalse(file.isBlank(), "Set -Dircafe.load.recorded=<capture> to replay.");
+    run(TrafficProfile.recorded(Path.of(file), CHANNEL));
+  }
+
+  private void run(TrafficProfile profile) throws Exception {
+    LoadReport report;
+    try (LoadHarness harness = new LoadHarness(workDir)) {
+      report = harness.run(profile, intProperty("ircafe.load.rate", 0), RUN_TIMEOUT);
+    }
+    report.writeTo(REPORT_DIR);
+    System.out.println(report.format());
+
+    assertEquals(report.transcript().expected(), report.transcript().count());
+    assertEquals(report.writerLag().expected(), report.writerLag().count());
+    long budgetMs = intProperty("ircafe.load.p99-budget-ms", 0);
+    if (budgetMs > 0) {
+      assertTrue(
+          report.transcript().p99Nanos() <= Duration.ofMillis(budgetMs).toNanos(),
+          () -> "transcript p99 over budget: " + report.format());
+    }
+  }
+
+  private static int intProperty(String name, int fallback) {
+    try {
+      return Integer.parseInt(System.getProperty(name, "").trim());
+    } catch (NumberFormatException e) {
+      return fallback;
+    }
+  }
+}
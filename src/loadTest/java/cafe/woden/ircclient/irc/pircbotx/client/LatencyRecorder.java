@@ -0,0 +1,88 @@
+package cafe.woden.ircclient.irc.pircbotx.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Start/finish timestamps for a fixed set of sequence-numbered samples.
+ *
+ * <p>{@link #start} and {@link #finish} may be called from different threads; a sample counts once,
+ * on its first finish. Samples finished before they were started (or never started) are ignored.
+ */
+final class LatencyRecorder {
+
+  private final String name;
+  private final AtomicLongArray startedAt;
+  private final long[] samples;
+  private final AtomicInteger finished = new AtomicInteger();
+
+  LatencyRecorder(String name, int expected) {
+    this.name = name;
+    this.startedAt = new AtomicLongArray(expected);
+    this.samples = new long[expected];
+  }
+
+  int expected() {
+    return samples.length;
+  }
+
+  int finished() {
+    return finished.get();
+  }
+
+  void start(long seq) {
+    if (seq < 0 || seq >= samples.length) return;
+    startedAt.compareAndSet((int) seq, 0L, System.nanoTime());
+  }
+
+  void finish(long seq) {
+    if (seq < 0 || seq >= samples.length) return;
+    long started = startedAt.getAndSet((int) seq, -1L);
+    if (started <= 0L) return;
+    int slot = finished.getAndIncrement();
+    samples[slot] = System.nanoTime() - started;
+  }
+
+  /** Waits until every expected sample finished; false on timeout. */
+  boolean await(Duration timeout) {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (finished.get() < samples.length) {
+      if (System.nanoTime() - deadline > 0) return false;
+      LockSupport.parkNanos(1_000_000L);
+    }
+    return true;
+  }
+
+  Summary summary() {
+    int n = finished.get();
+    long[] sorted = Arrays.copyOf(samples, n);
+    Arrays.sort(sorted);
+    return new Summary(
+        name,
+        n,
+        samples.length,
+        percentile(sorted, 0.50),
+        percentile(sorted, 0.99),
+        n == 0 ? 0L : sorted[n - 1]);
+  }
+
+  private static long percentile(long[] sorted, double p) {
+    if (sorted.length == 0) return 0L;
+    int idx = (int) Math.ceil(p * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+  }
+
+  /** Latency distribution in nanoseconds. */
+  record Summary(
+      String name, int count, int expected, long p50Nanos, long p99Nanos, long maxNanos) {
+
+    String format() {
+      return String.format(
+          "%-18s n=%d/%d p50=%.2fms p99=%.2fms max=%.2fms",
+          name, count, expected, p50Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6);
+    }
+  }
+}
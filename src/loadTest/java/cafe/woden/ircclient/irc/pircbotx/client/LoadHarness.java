@@ -0,0 +1,357 @@
+package cafe.woden.ircclient.irc.pircbotx.client;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import cafe.woden.ircclient.app.api.PresenceEvent;
+import cafe.woden.ircclient.bouncer.BouncerBackendRegistry;
+import cafe.woden.ircclient.bouncer.BouncerDiscoveryEventPort;
+import cafe.woden.ircclient.config.IrcProperties;
+import cafe.woden.ircclient.config.LogProperties;
+import cafe.woden.ircclient.config.RuntimeConfigStore;
+import cafe.woden.ircclient.config.ServerCatalog;
+import cafe.woden.ircclient.config.SojuProperties;
+import cafe.woden.ircclient.config.ZncProperties;
+import cafe.woden.ircclient.config.api.ChatCommandRuntimeConfigPort;
+import cafe.woden.ircclient.config.api.CtcpReplyRuntimeConfigPort;
+import cafe.woden.ircclient.irc.ChatHistoryEntry;
+import cafe.woden.ircclient.irc.IrcEvent;
+import cafe.woden.ircclient.irc.ServerIrcEvent;
+import cafe.woden.ircclient.irc.ircv3.Ircv3StsPolicyService;
+import cafe.woden.ircclient.irc.pircbotx.listener.PircbotxBridgeListenerFactory;
+import cafe.woden.ircclient.irc.pircbotx.parse.PircbotxInputParserHookInstaller;
+import cafe.woden.ircclient.irc.playback.NoOpPlaybackCursorProvider;
+import cafe.woden.ircclient.logging.ChatLogRepository;
+import cafe.woden.ircclient.logging.ChatLogService;
+import cafe.woden.ircclient.logging.LogLine;
+import cafe.woden.ircclient.logging.LogLineFactory;
+import cafe.woden.ircclient.model.TargetRef;
+import cafe.woden.ircclient.net.ServerProxyResolver;
+import cafe.woden.ircclient.state.ServerIsupportState;
+import cafe.woden.ircclient.ui.chat.ChatStyles;
+import cafe.woden.ircclient.ui.chat.ChatTranscriptStore;
+import cafe.woden.ircclient.ui.chat.render.ChatRichTextRenderer;
+import io.reactivex.rxjava3.disposables.Disposable;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drives a real {@link PircbotxIrcClientService} against a {@link FakeIrcd} and measures the path
+ * from the wire to the transcript and the chat log.
+ *
+ * <p>Events are relayed the way the UI port does it: off the PircBotX input thread onto the EDT,
+ * into {@link ChatTranscriptStore}, with each chat line also handed to a real {@link
+ * ChatLogService} backed by an HSQLDB file in {@code workDir}. One harness serves one run.
+ */
+final class LoadHarness implements AutoCloseable {
+
+  private static final String SERVER_ID = "load";
+  private static final String NICK = "loadbot";
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(20);
+  private static final int HISTORY_PAGE = 200;
+
+  private final FakeIrcd ircd;
+  private final ServiceFixture client;
+  private final ChatTranscriptStore transcripts;
+  private final LogLineFactory logLines = new LogLineFactory();
+  private final JdbcTemplate jdbc;
+  private final ChatLogService chatLog;
+  private final EdtBusyMeter edt;
+  private final Disposable relay;
+  private volatile LatencyRecorder transcriptLatency = new LatencyRecorder("transcript", 0);
+  private volatile LatencyRecorder writerLag = new LatencyRecorder("chatlog-writer", 0);
+  private volatile CountDownLatch joined = new CountDownLatch(1);
+  private final Semaphore historyPages = new Semaphore(0);
+  private volatile Instant oldestHistory;
+  private volatile int lastHistoryPageSize;
+
+  LoadHarness(Path workDir) throws Exception {
+    ircd = new FakeIrcd();
+    client = newService(ircd.port());
+
+    ChatStyles styles = new ChatStyles(null);
+    ChatRichTextRenderer renderer = new ChatRichTextRenderer(null, null, styles, null);
+    transcripts =
+        new ChatTranscriptStore(styles, renderer, null, null, null, null, null, null, null, null);
+
+    DriverManagerDataSource ds = new DriverManagerDataSource();
+    ds.setDriverClassName("org.hsqldb.jdbc.JDBCDriver");
+    Path db = workDir.resolve("chatlog").toAbsolutePath();
+    ds.setUrl("jdbc:hsqldb:file:" + db + ";hsqldb.tx=mvcc");
+    ds.setUsername("SA");
+    ds.setPassword("");
+    Flyway.configure().dataSource(ds).locations("classpath:db/migration/chatlog").load().migrate();
+    jdbc = new JdbcTemplate(ds);
+    chatLog =
+        new ChatLogService(
+            new LagMeasuringRepository(jdbc),
+            new TransactionTemplate(new DataSourceTransactionManager(ds)),
+            new LogProperties(true, true, false, true, true, true, 0, 50_000, 250, null));
+
+    edt = EdtBusyMeter.install();
+    relay = client.service().events().subscribe(this::onEvent, err -> {});
+  }
+
+  LoadReport run(TrafficProfile profile, int linesPerSecond, Duration timeout) throws Exception {
+    int measured = Math.toIntExact(profile.measuredCount());
+    transcriptLatency = new LatencyRecorder("transcript", measured);
+    writerLag = new LatencyRecorder("chatlog-writer", measured);
+    joined = new CountDownLatch(1);
+    ircd.seedHistory(profile.channel(), profile.history());
+    ircd.onHistoryLineSent(transcriptLatency::start);
+
+    client.service().connect(SERVER_ID).blockingAwait();
+    if (!ircd.awaitRegistered(CONNECT_TIMEOUT)) {
+      throw new AssertionError("client did not register with the fake ircd");
+    }
+    client.service().joinChannel(SERVER_ID, profile.channel()).blockingAwait();
+    if (!joined.await(CONNECT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+      throw new AssertionError("client did not join " + profile.channel());
+    }
+    SwingUtilities.invokeAndWait(() -> {});
+
+    var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long allocStart = threads.getTotalThreadAllocatedBytes();
+    long edtStart = edt.busyNanos();
+    long edtEventsStart = edt.dispatched();
+    long start = System.nanoTime();
+
+    if (!profile.live().isEmpty()) {
+      ircd.replay(profile.live(), linesPerSecond, transcriptLatency::start);
+    }
+    if (!profile.history().isEmpty()) {
+      pageThroughHistory(profile.channel(), timeout);
+    }
+    boolean delivered = transcriptLatency.await(timeout);
+    chatLog.flushNow();
+    boolean persisted = writerLag.await(timeout);
+    SwingUtilities.invokeAndWait(() -> {});
+
+    long elapsed = System.nanoTime() - start;
+    long allocated = threads.getTotalThreadAllocatedBytes() - allocStart;
+    if (!delivered || !persisted) {
+      throw new AssertionError(
+          "timed out: "
+              + transcriptLatency.summary().format()
+              + " / "
+              + writerLag.summary().format());
+    }
+    return new LoadReport(
+        profile.name(),
+        linesPerSecond,
+        Duration.ofNanos(elapsed),
+        transcriptLatency.summary(),
+        writerLag.summary(),
+        Duration.ofNanos(edt.busyNanos() - edtStart),
+        edt.dispatched() - edtEventsStart,
+        Duration.ofNanos(edt.maxDispatchNanos()),
+        allocated);
+  }
+
+  /** Pages back with LATEST then BEFORE the oldest line seen, until a page comes back short. */
+  private void pageThroughHistory(String channel, Duration timeout) throws InterruptedException {
+    client
+        .service()
+        .requestChatHistoryLatest(SERVER_ID, channel, "*", HISTORY_PAGE)
+        .blockingAwait();
+    while (historyPages.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      if (lastHistoryPageSize < HISTORY_PAGE || oldestHistory == null) return;
+      client
+          .service()
+          .requestChatHistoryBefore(SERVER_ID, channel, oldestHistory, HISTORY_PAGE)
+          .blockingAwait();
+    }
+  }
+
+  private void onEvent(ServerIrcEvent event) {
+    if (event == null || !SERVER_ID.equals(event.serverId())) return;
+    switch (event.event()) {
+      case IrcEvent.JoinedChannel ignored -> joined.countDown();
+      case IrcEvent.ChannelMessage m ->
+          SwingUtilities.invokeLater(
+              () -> appendChat(m.channel(), m.from(), m.text(), m.at(), m.messageId(), false));
+      case IrcEvent.ChatHistoryBatchReceived batch ->
+          SwingUtilities.invokeLater(
+              () -> {
+                for (ChatHistoryEntry e : batch.entries()) {
+                  appendChat(batch.target(), e.from(), e.text(), e.at(), e.messageId(), true);
+                  if (oldestHistory == null || e.at().isBefore(oldestHistory)) {
+                    oldestHistory = e.at();
+                  }
+                }
+                lastHistoryPageSize = batch.entries().size();
+                historyPages.release();
+              });
+      case IrcEvent.UserJoinedChannel j ->
+          SwingUtilities.invokeLater(
+              () -> transcripts.appendPresence(target(j.channel()), PresenceEvent.join(j.nick())));
+      case IrcEvent.UserQuitChannel q ->
+          SwingUtilities.invokeLater(
+              () ->
+                  transcripts.appendPresence(
+                      target(q.channel()), PresenceEvent.quit(q.nick(), q.reason())));
+      default -> {
+        // Not part of the measured path.
+      }
+    }
+  }
+
+  private void appendChat(
+      String channel, String from, String text, Instant at, String msgId, boolean history) {
+    TargetRef target = target(channel);
+    long ts = at == null ? System.currentTimeMillis() : at.toEpochMilli();
+    if (history) {
+      transcripts.appendChatFromHistory(target, from, text, false, ts, msgId, Map.of());
+    } else {
+      transcripts.appendChatAt(target, from, text, false, ts, msgId, Map.of());
+    }
+    long seq = TrafficProfile.sequenceOf(text);
+    transcriptLatency.finish(seq);
+    writerLag.start(seq);
+    chatLog.log(logLines.chatAt(target, from, text, false, ts, msgId, Map.of()));
+  }
+
+  private static TargetRef target(String channel) {
+    return new TargetRef(SERVER_ID, channel);
+  }
+
+  /** Times each line from {@code ChatLogWriter.log} to the insert that persisted it. */
+  private final class LagMeasuringRepository extends ChatLogRepository {
+
+    LagMeasuringRepository(JdbcTemplate jdbc) {
+      super(jdbc);
+    }
+
+    @Override
+    public int[] insertBatch(List<LogLine> lines) {
+      int[] result = super.insertBatch(lines);
+      for (LogLine line : lines) {
+        writerLag.finish(TrafficProfile.sequenceOf(line.text()));
+      }
+      return result;
+    }
+  }
+
+  private static ServiceFixture newService(int port) {
+    IrcProperties.Server server =
+        new IrcProperties.Server(
+            SERVER_ID,
+            "127.0.0.1",
+            port,
+            false,
+            "",
+            NICK,
+            NICK,
+            "IRCafe Load",
+            null,
+            null,
+            List.of(),
+            List.of(),
+            new IrcProperties.Proxy(false, "", 0, "", "", true, 20_000, 30_000),
+            IrcProperties.Server.Backend.IRC);
+
+    ServerCatalog serverCatalog = mock(ServerCatalog.class);
+    when(serverCatalog.require(anyString())).thenReturn(server);
+    when(serverCatalog.find(anyString())).thenReturn(Optional.of(server));
+    when(serverCatalog.containsId(anyString())).thenReturn(true);
+
+    IrcProperties props =
+        new IrcProperties(
+            new IrcProperties.Client(
+                "IRCafe Load",
+                new IrcProperties.Reconnect(false, 250, 1_000, 1.5, 0, 3),
+                null,
+                null,
+                null),
+            List.of(server));
+
+    Ircv3StsPolicyService stsPolicies = new Ircv3StsPolicyService();
+    SojuProperties sojuProps = new SojuProperties(Map.of(), new SojuProperties.Discovery(false));
+    ZncProperties zncProps = new ZncProperties(Map.of(), new ZncProperties.Discovery(false));
+    BouncerBackendRegistry bouncerBackends = mock(BouncerBackendRegistry.class);
+    BouncerDiscoveryEventPort bouncerDiscoveryEvents = mock(BouncerDiscoveryEventPort.class);
+    RuntimeConfigStore runtimeConfig = mock(RuntimeConfigStore.class);
+    when(bouncerBackends.backendIds()).thenReturn(Set.of());
+
+    ScheduledExecutorService heartbeatExec = Executors.newSingleThreadScheduledExecutor();
+    ScheduledExecutorService reconnectExec = Executors.newSingleThreadScheduledExecutor();
+    PircbotxConnectionTimersRx timers =
+        new PircbotxConnectionTimersRx(props, serverCatalog, heartbeatExec, reconnectExec);
+    ServerIsupportState isupport = new ServerIsupportState();
+
+    PircbotxIrcClientService service =
+        new PircbotxIrcClientService(
+            props,
+            serverCatalog,
+            new PircbotxInputParserHookInstaller(stsPolicies),
+            new PircbotxBotFactory(new ServerProxyResolver(serverCatalog), sojuProps, null),
+            new PircbotxBridgeListenerFactory(
+                bouncerBackends,
+                bouncerDiscoveryEvents,
+                new NoOpPlaybackCursorProvider(),
+                isupport,
+                sojuProps,
+                zncProps),
+            (CtcpReplyRuntimeConfigPort) runtimeConfig,
+            (ChatCommandRuntimeConfigPort) runtimeConfig,
+            stsPolicies,
+            bouncerBackends,
+            bouncerDiscoveryEvents,
+            timers,
+            isupport);
+    return new ServiceFixture(service, timers, heartbeatExec, reconnectExec);
+  }
+
+  @Override
+  public void close() throws Exception {
+    relay.dispose();
+    client.close();
+    ircd.close();
+    chatLog.close();
+    edt.close();
+    try {
+      jdbc.execute("SHUTDOWN");
+    } catch (Exception ignored) {
+    }
+  }
+
+  private record ServiceFixture(
+      PircbotxIrcClientService service,
+      PircbotxConnectionTimersRx timers,
+      ScheduledExecutorService heartbeatExec,
+      ScheduledExecutorService reconnectExec)
+      implements AutoCloseable {
+
+    @Override
+    public void close() {
+      try {
+        service.shutdownNow();
+      } catch (Exception ignored) {
+      }
+      try {
+        timers.shutdown();
+      } catch (Exception ignored) {
+      }
+      heartbeatExec.shutdownNow();
+      reconnectExec.shutdownNow();
+    }
+  }
+}
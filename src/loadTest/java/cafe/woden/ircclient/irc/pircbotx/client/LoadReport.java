@@ -0,0 +1,63 @@
+package cafe.woden.ircclient.irc.pircbotx.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Result of one {@link LoadHarness} run.
+ *
+ * @param transcript server flush to {@code ChatTranscriptStore} append
+ * @param writerLag {@code ChatLogWriter.log} to the batch insert that persisted the line
+ * @param edtBusy wall-clock time the EDT spent dispatching events during the run
+ * @param allocatedBytes bytes allocated by all JVM threads during the run, fake server included
+ */
+record LoadReport(
+    String profile,
+    int linesPerSecond,
+    Duration elapsed,
+    LatencyRecorder.Summary transcript,
+    LatencyRecorder.Summary writerLag,
+    Duration edtBusy,
+    long edtEvents,
+    Duration edtMaxDispatch,
+    long allocatedBytes) {
+
+  double edtBusyPercent() {
+    long wall = Math.max(1L, elapsed.toNanos());
+    return 100.0 * edtBusy.toNanos() / wall;
+  }
+
+  double allocationMbPerSecond() {
+    double seconds = Math.max(1e-9, elapsed.toNanos() / 1e9);
+    return allocatedBytes / (1024.0 * 1024.0) / seconds;
+  }
+
+  String format() {
+    return String.join(
+        System.lineSeparator(),
+        String.format(
+            "profile=%s rate=%s elapsed=%dms",
+            profile,
+            linesPerSecond <= 0 ? "unpaced" : linesPerSecond + "/s",
+            elapsed.toMillis()),
+        "  " + transcript.format(),
+        "  " + writerLag.format(),
+        String.format(
+            "  edt busy=%dms (%.1f%%) events=%d maxDispatch=%.2fms",
+            edtBusy.toMillis(), edtBusyPercent(), edtEvents, edtMaxDispatch.toNanos() / 1e6),
+        String.format(
+            "  alloc=%.1fMB (%.1fMB/s)",
+            allocatedBytes / (1024.0 * 1024.0), allocationMbPerSecond()));
+  }
+
+  /** Writes {@link #format()} to {@code <dir>/<profile>.txt} for CI artifact collection. */
+  Path writeTo(Path dir) throws IOException {
+    Files.createDirectories(dir);
+    Path file = dir.resolve(profile.replaceAll("[^A-Za-z0-9._-]", "_") + ".txt");
+    Files.writeString(file, format() + System.lineSeparator(), StandardCharsets.UTF_8);
+    return file;
+  }
+}
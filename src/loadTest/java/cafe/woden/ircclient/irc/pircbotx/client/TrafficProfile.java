@@ -0,0 +1,174 @@
+package cafe.woden.ircclient.irc.pircbotx.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Server-to-client traffic the fake ircd pushes during a load run.
+ *
+ * <p>Measured lines are {@code PRIVMSG}s whose text carries a {@code load#<seq>} marker; the
+ * harness times each one from the moment the server flushes it to the moment its text is appended
+ * to the transcript. Unmeasured lines (joins, quits, playback framing) still go through the client
+ * and count toward EDT and allocation load.
+ *
+ * @param name short label used in reports
+ * @param channel channel the client joins before the replay starts
+ * @param live lines pushed by {@link FakeIrcd#replay}
+ * @param history lines stored server-side and fetched by the client via {@code CHATHISTORY}
+ */
+record TrafficProfile(String name, String channel, List<ScriptLine> live, List<String> history) {
+
+  private static final Pattern SEQ = Pattern.compile("load#(\\d+)");
+  private static final String SPLIT_REASON = "*.net *.split";
+
+  /**
+   * One raw server line.
+   *
+   * @param seq sequence number of a measured line, or {@code -1}
+   */
+  record ScriptLine(String raw, String channel, long seq) {}
+
+  TrafficProfile {
+    live = List.copyOf(live);
+    history = List.copyOf(history);
+  }
+
+  long measuredCount() {
+    long n = 0;
+    for (ScriptLine line : live) {
+      if (line.seq() >= 0) n++;
+    }
+    for (String line : history) {
+      if (sequenceOf(line) >= 0) n++;
+    }
+    return n;
+  }
+
+  /** Many speakers in one channel, every line measured. */
+  static TrafficProfile busyChannel(String channel, int speakers, int messages) {
+    List<ScriptLine> live = new ArrayList<>(messages);
+    SplittableRandom random = new SplittableRandom(31);
+    for (int i = 0; i < messages; i++) {
+      live.add(privmsg(channel, "user" + random.nextInt(Math.max(1, speakers)), i, null));
+    }
+    return new TrafficProfile("busy-channel", channel, live, List.of());
+  }
+
+  /**
+   * {@code users} nicks quit with a netsplit reason and rejoin, while the rest of the channel keeps
+   * talking every {@code chatterEvery} lines.
+   */
+  static TrafficProfile netsplit(String channel, int users, int chatterEvery) {
+    List<ScriptLine> live = new ArrayList<>();
+    long seq = 0;
+    int every = Math.max(1, chatterEvery);
+    for (int i = 0; i < users; i++) {
+      live.add(join(channel, "split" + i));
+    }
+    for (int i = 0; i < users; i++) {
+      live.add(unmeasured(channel, ":" + mask("split" + i) + " QUIT :" + SPLIT_REASON));
+      if (i % every == 0) live.add(privmsg(channel, "stayer", seq++, null));
+    }
+    for (int i = 0; i < users; i++) {
+      live.add(join(channel, "split" + i));
+      if (i % every == 0) live.add(privmsg(channel, "stayer", seq++, null));
+    }
+    return new TrafficProfile("netsplit", channel, live, List.of());
+  }
+
+  /** {@code users} distinct nicks join the channel, chatting every {@code chatterEvery} joins. */
+  static TrafficProfile joinFlood(String channel, int users, int chatterEvery) {
+    List<ScriptLine> live = new ArrayList<>();
+    long seq = 0;
+    int every = Math.max(1, chatterEvery);
+    for (int i = 0; i < users; i++) {
+      live.add(join(channel, "flood" + i));
+      if (i % every == 0) live.add(privmsg(channel, "flood" + i, seq++, null));
+    }
+    return new TrafficProfile("join-flood", channel, live, List.of());
+  }
+
+  /**
+   * Bouncer-style playback: {@code messages} lines with past {@code time} tags pushed right after
+   * join, the way ZNC and soju replay a buffer to a client without {@code chathistory}.
+   */
+  static TrafficProfile bouncerPlayback(String channel, int messages) {
+    List<ScriptLine> live = new ArrayList<>(messages);
+    Instant start = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(messages);
+    for (int i = 0; i < messages; i++) {
+      live.add(privmsg(channel, "backlog" + (i % 7), i, start.plusSeconds(i)));
+    }
+    return new TrafficProfile("bouncer-playback", channel, live, List.of());
+  }
+
+  /**
+   * {@code messages} stored lines the client pages through with {@code CHATHISTORY LATEST} and
+   * {@code BEFORE}, one {@code chathistory} batch per page.
+   */
+  static TrafficProfile chatHistory(String channel, int messages) {
+    List<String> history = new ArrayList<>(messages);
+    Instant start = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(messages);
+    for (int i = 0; i < messages; i++) {
+      history.add(privmsg(channel, "backlog" + (i % 7), i, start.plusSeconds(i)).raw());
+    }
+    return new TrafficProfile("chathistory", channel, List.of(), history);
+  }
+
+  /**
+   * Replays a recorded capture verbatim, one raw server line per file line. Blank lines and lines
+   * starting with {@code #!} are skipped; {@code PRIVMSG}s with a {@code load#<seq>} marker are
+   * measured.
+   */
+  static TrafficProfile recorded(Path file, String channel) throws IOException {
+    List<ScriptLine> live = new ArrayList<>();
+    for (String raw : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      if (raw.isBlank() || raw.startsWith("#!")) continue;
+      live.add(new ScriptLine(raw, channel, sequenceOf(raw)));
+    }
+    return new TrafficProfile(
+        "recorded:" + Objects.toString(file.getFileName(), ""), channel, live, List.of());
+  }
+
+  /** Sequence number carried in a line's text, or {@code -1}. */
+  static long sequenceOf(String text) {
+    Matcher m = SEQ.matcher(Objects.toString(text, ""));
+    return m.find() ? Long.parseLong(m.group(1)) : -1L;
+  }
+
+  private static ScriptLine privmsg(String channel, String nick, long seq, Instant at) {
+    String tags = at == null ? "" : "@time=" + DateTimeFormatter.ISO_INSTANT.format(at) + " ";
+    String raw =
+        tags
+            + ":"
+            + mask(nick)
+            + " PRIVMSG "
+            + channel
+            + " :load#"
+            + seq
+            + " the quick brown fox jumps over the lazy dog";
+    return new ScriptLine(raw, channel, seq);
+  }
+
+  private static ScriptLine join(String channel, String nick) {
+    return unmeasured(channel, ":" + mask(nick) + " JOIN " + channel);
+  }
+
+  private static ScriptLine unmeasured(String channel, String raw) {
+    return new ScriptLine(raw, channel, -1L);
+  }
+
+  private static String mask(String nick) {
+    return nick + "!" + nick + "@load.test";
+  }
+}
@@ -2,10 +2,12 @@ package cafe.woden.ircclient;
 
 import cafe.woden.ircclient.app.api.MediatorControlPort;
 import cafe.woden.ircclient.app.api.UiPort;
+import cafe.woden.ircclient.config.EventStreamProperties;
 import cafe.woden.ircclient.config.IgnoreProperties;
 import cafe.woden.ircclient.config.IrcProperties;
 import cafe.woden.ircclient.config.LogProperties;
 import cafe.woden.ircclient.config.PushyProperties;
+import cafe.woden.ircclient.config.QuasselProperties;
 import cafe.woden.ircclient.config.SojuProperties;
 import cafe.woden.ircclient.config.UiProperties;
 import cafe.woden.ircclient.config.ZncProperties;
@@ -17,6 +19,7 @@ import cafe.woden.ircclient.ui.settings.theme.ThemeManager;
 import cafe.woden.ircclient.ui.shell.MainFrame;
 import cafe.woden.ircclient.ui.terminal.ConsoleTeeHub;
 import cafe.woden.ircclient.ui.tray.TrayService;
+import cafe.woden.ircclient.util.StartupTimeline;
 import cafe.woden.ircclient.util.VirtualThreads;
 import java.awt.Desktop;
 import java.awt.Frame;
@@ -28,9 +31,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.modulith.Modulithic;
 
@@ -45,12 +50,23 @@ import org.springframework.modulith.Modulithic;
   IgnoreProperties.class,
   LogProperties.class,
   SojuProperties.class,
-  ZncProperties.class
+  ZncProperties.class,
+  QuasselProperties.class,
+  EventStreamProperties.class
 })
 public class IrcSwingApp {
   private static final Logger log = LoggerFactory.getLogger(IrcSwingApp.class);
 
+  /**
+   * Set by the packaging AOT training run: skip auto-connect and exit once startup has settled, so
+   * the JVM writes its AOT cache from a representative but offline launch.
+   */
+  static final String AOT_TRAINING_PROPERTY = "ircafe.startup.aotTraining";
+
+  private static final long AOT_TRAINING_SETTLE_MS = 8_000L;
+
   public static void main(String[] args) {
+    StartupTimeline.mark(StartupTimeline.MAIN_ENTERED);
     ConsoleTeeHub.install();
     installSwingSafetyDefaults();
 
@@ -73,8 +89,11 @@ public class IrcSwingApp {
       UiSettingsBus settingsBus,
       UiSettingsRuntimeConfigPort runtimeConfig,
       TrayService trayService,
-      UiPort ui) {
+      UiPort ui,
+      ConfigurableApplicationContext context) {
     return args -> {
+      StartupTimeline.mark(StartupTimeline.CONTEXT_READY);
+      boolean aotTraining = Boolean.getBoolean(AOT_TRAINING_PROPERTY);
       String startupTheme = determineStartupTheme(settingsBus, runtimeConfig);
       runtimeConfig.rememberStartupThemePending(startupTheme);
 
@@ -86,6 +105,7 @@ public class IrcSwingApp {
 
               // Install theme before showing UI.
               themeManager.installLookAndFeel(startupTheme);
+              StartupTimeline.mark(StartupTimeline.LOOK_AND_FEEL);
 
               MainFrame frame = frames.getObject();
               SwingUtilities.updateComponentTreeUI(frame);
@@ -96,13 +116,20 @@ public class IrcSwingApp {
               installDesktopHandlers(frame, ui);
               // Show the window before any optional native integrations that may block.
               frame.setVisible(true);
+              StartupTimeline.mark(StartupTimeline.MAIN_WINDOW_VISIBLE);
+              log.info(
+                  "[ircafe] Main window visible {} ms after JVM start (context ready at {} ms)",
+                  StartupTimeline.millisTo(StartupTimeline.MAIN_WINDOW_VISIBLE),
+                  StartupTimeline.millisTo(StartupTimeline.CONTEXT_READY));
 
               boolean startMinimizedRequested =
                   trayService.isEnabled() && trayService.startMinimized();
               installTrayAsync(frame, trayService, startMinimizedRequested);
 
               MediatorControlPort mediator = mediatorProvider.getObject();
-              if (settingsBus.get().autoConnectOnStart()) {
+              if (aotTraining) {
+                exitAfterAotTraining(context);
+              } else if (settingsBus.get().autoConnectOnStart()) {
                 mediator.connectAutoConnectOnStartServers();
               }
               startupCompleted = true;
@@ -122,6 +149,7 @@ public class IrcSwingApp {
         () -> {
           try {
             trayService.installIfEnabled();
+            StartupTimeline.mark(StartupTimeline.TRAY_INSTALLED);
           } catch (Throwable t) {
             log.warn("[ircafe] tray install failed during startup", t);
           }
@@ -142,6 +170,20 @@ public class IrcSwingApp {
         });
   }
 
+  private static void exitAfterAotTraining(ConfigurableApplicationContext context) {
+    VirtualThreads.start(
+        "ircafe-aot-training-exit",
+        () -> {
+          try {
+            Thread.sleep(AOT_TRAINING_SETTLE_MS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          log.info("[ircafe] AOT training run finished; exiting");
+          System.exit(SpringApplication.exit(context));
+        });
+  }
+
   private static String determineStartupTheme(
       UiSettingsBus settingsBus, UiSettingsRuntimeConfigPort runtimeConfig) {
     var current = settingsBus != null ? settingsBus.get() : null;
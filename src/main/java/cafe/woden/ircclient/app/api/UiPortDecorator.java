@@ -2,6 +2,7 @@ package cafe.woden.ircclient.app.api;
 
 import cafe.woden.ircclient.irc.IrcEvent.NickInfo;
 import cafe.woden.ircclient.irc.quassel.control.QuasselCoreControlPort;
+import cafe.woden.ircclient.irc.roster.UserListStore;
 import cafe.woden.ircclient.model.TargetRef;
 import java.time.Instant;
 import java.util.List;
@@ -140,6 +141,11 @@ public abstract class UiPortDecorator implements UiPort {
     delegate.setUsersNicks(nicks);
   }
 
+  @Override
+  public void applyUsersNickDelta(UserListStore.RosterPatch patch) {
+    delegate.applyUsersNickDelta(patch);
+  }
+
   @Override
   public void refreshMatrixTranscriptDisplayName(String serverId, String matrixUserId) {
     delegate.refreshMatrixTranscriptDisplayName(serverId, matrixUserId);
@@ -193,6 +199,11 @@ public abstract class UiPortDecorator implements UiPort {
     delegate.setStatusBarCounts(users, ops);
   }
 
+  @Override
+  public void setStatusBarUserInfoCoverage(int enriched, int members) {
+    delegate.setStatusBarUserInfoCoverage(enriched, members);
+  }
+
   @Override
   public void setStatusBarServer(String serverText) {
     delegate.setStatusBarServer(serverText);
@@ -2,6 +2,7 @@ package cafe.woden.ircclient.app.api;
 
 import cafe.woden.ircclient.irc.IrcEvent.NickInfo;
 import cafe.woden.ircclient.irc.quassel.control.QuasselCoreControlPort;
+import cafe.woden.ircclient.irc.roster.UserListStore;
 import cafe.woden.ircclient.model.TargetRef;
 import java.time.Instant;
 import java.util.List;
@@ -71,6 +72,15 @@ public interface UiViewStatePort {
 
   void setUsersNicks(List<NickInfo> nicks);
 
+  /**
+   * Patch the visible user list with one roster change: the row that left and the row that
+   * arrived. Views that cannot patch their rows reload {@link UserListStore.RosterPatch#nicks()},
+   * the only step that copies the roster.
+   */
+  default void applyUsersNickDelta(UserListStore.RosterPatch patch) {
+    setUsersNicks(patch.nicks());
+  }
+
   default void syncQuasselNetworks(
       String serverId, List<QuasselCoreControlPort.QuasselCoreNetworkSummary> networks) {}
 
@@ -78,6 +88,12 @@ public interface UiViewStatePort {
 
   void setStatusBarCounts(int users, int ops);
 
+  /**
+   * Show how many of the active channel's {@code members} have hostmask, away state and account
+   * known from WHOX enrichment; {@code members < 0} when no coverage has been recorded.
+   */
+  default void setStatusBarUserInfoCoverage(int enriched, int members) {}
+
   void setStatusBarServer(String serverText);
 
   default void enqueueStatusNotice(String text, TargetRef clickTarget) {}
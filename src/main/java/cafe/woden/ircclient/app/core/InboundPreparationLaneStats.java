@@ -0,0 +1,109 @@
+package cafe.woden.ircclient.app.core;
+
+import cafe.woden.ircclient.util.ExecutorTelemetry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-server counters for the inbound event preparation lanes in {@link IrcMediator}.
+ *
+ * <p>Each lane tracks how many events are waiting to be prepared and how long preparation took.
+ * All updates are lock-free. When constructed with a telemetry name, every server lane also reports
+ * into an {@link ExecutorTelemetry} lane ({@code <name>:<serverId>}), so its queue depth and
+ * preparation time show up with the executor lanes in diagnostics and the periodic lane log.
+ */
+public final class InboundPreparationLaneStats {
+
+  /** Point-in-time view of one lane. Latencies are in microseconds. */
+  public record Lane(
+      String serverId,
+      long queueDepth,
+      long maxQueueDepth,
+      long prepared,
+      long lastPrepMicros,
+      long avgPrepMicros,
+      long maxPrepMicros) {}
+
+  private static final class Counters {
+    final AtomicLong depth = new AtomicLong();
+    final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0L);
+    final LongAdder prepared = new LongAdder();
+    final LongAdder totalNanos = new LongAdder();
+    final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    volatile long lastNanos;
+    final ExecutorTelemetry.Lane telemetry;
+
+    Counters(ExecutorTelemetry.Lane telemetry) {
+      this.telemetry = telemetry;
+    }
+  }
+
+  private final String telemetryName;
+  private final ConcurrentHashMap<String, Counters> lanes = new ConcurrentHashMap<>();
+
+  /** Stats kept only in this instance. */
+  public InboundPreparationLaneStats() {
+    this(null);
+  }
+
+  /** Stats that also report each server lane into {@link ExecutorTelemetry} under {@code name}. */
+  public InboundPreparationLaneStats(String telemetryName) {
+    String name = Objects.toString(telemetryName, "").trim();
+    this.telemetryName = name.isEmpty() ? null : name;
+  }
+
+  void enqueued(String serverId) {
+    Counters c = lane(serverId);
+    c.maxDepth.accumulate(c.depth.incrementAndGet());
+    if (c.telemetry != null) c.telemetry.submitted();
+  }
+
+  void prepared(String serverId, long elapsedNanos, boolean ok) {
+    Counters c = lane(serverId);
+    c.depth.decrementAndGet();
+    long nanos = Math.max(0L, elapsedNanos);
+    if (c.telemetry != null) c.telemetry.ran(nanos, 1, ok);
+    c.prepared.increment();
+    c.totalNanos.add(nanos);
+    c.maxNanos.accumulate(nanos);
+    c.lastNanos = nanos;
+  }
+
+  /** Current lanes, ordered by server id. */
+  public List<Lane> snapshot() {
+    List<Lane> out = new ArrayList<>(lanes.size());
+    lanes.forEach(
+        (sid, c) -> {
+          long prepared = c.prepared.sum();
+          long avgNanos = prepared == 0L ? 0L : c.totalNanos.sum() / prepared;
+          out.add(
+              new Lane(
+                  sid,
+                  Math.max(0L, c.depth.get()),
+                  c.maxDepth.get(),
+                  prepared,
+                  c.lastNanos / 1_000L,
+                  avgNanos / 1_000L,
+                  c.maxNanos.get() / 1_000L));
+        });
+    out.sort(Comparator.comparing(Lane::serverId));
+    return List.copyOf(out);
+  }
+
+  private Counters lane(String serverId) {
+    return lanes.computeIfAbsent(Objects.toString(serverId, ""), this::newCounters);
+  }
+
+  private Counters newCounters(String serverId) {
+    if (telemetryName == null) return new Counters(null);
+    Counters c = new Counters(ExecutorTelemetry.lane(telemetryName + ":" + serverId));
+    c.telemetry.queueDepthProbe(() -> (int) Math.min(Integer.MAX_VALUE, c.depth.get()));
+    return c;
+  }
+}
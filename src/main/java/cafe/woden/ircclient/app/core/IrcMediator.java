@@ -14,6 +14,7 @@ import cafe.woden.ircclient.irc.ServerIrcEvent;
 import cafe.woden.ircclient.irc.port.IrcMediatorInteractionPort;
 import cafe.woden.ircclient.model.IrcEventNotificationRule;
 import cafe.woden.ircclient.model.TargetRef;
+import cafe.woden.ircclient.util.PipelineJfrEvents;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.core.Single;
@@ -23,6 +24,7 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.util.Objects;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -42,6 +44,10 @@ public class IrcMediator implements MediatorControlPort {
 
   private static final Scheduler IRC_EVENT_PREPARE_SCHEDULER = Schedulers.computation();
 
+  // Also reported as executor lanes: the diagnostics panel and periodic lane log show each server.
+  private final InboundPreparationLaneStats preparationLaneStats =
+      new InboundPreparationLaneStats("ircafe-inbound-prepare");
+
   @Qualifier("ircMediatorInteractionPort")
   private final IrcMediatorInteractionPort irc;
 
@@ -529,10 +535,12 @@ public class IrcMediator implements MediatorControlPort {
     disposables.add(
         offloadSelectedEventProcessing(
                 irc.events(),
+                ServerIrcEvent::serverId,
                 eventPreparationService::shouldPrepareOffEdt,
                 eventPreparationService::prepare,
                 IRC_EVENT_PREPARE_SCHEDULER,
-                AppSchedulers.edt())
+                AppSchedulers.edt(),
+                preparationLaneStats)
             .subscribe(
                 this::onServerIrcEvent,
                 err ->
@@ -546,21 +554,61 @@ public class IrcMediator implements MediatorControlPort {
       Function<T, R> mapper,
       Scheduler offloadScheduler,
       Scheduler observeScheduler) {
+    return offloadSelectedEventProcessing(
+        events,
+        event -> "",
+        shouldOffload,
+        mapper,
+        offloadScheduler,
+        observeScheduler,
+        new InboundPreparationLaneStats());
+  }
+
+  /**
+   * Prepares events in one lane per {@code laneKey} (server id). Each lane keeps its source order,
+   * while different lanes prepare concurrently on {@code offloadScheduler}; results are merged back
+   * onto {@code observeScheduler}.
+   */
+  static <T, R> Flowable<R> offloadSelectedEventProcessing(
+      Flowable<T> events,
+      Function<T, String> laneKey,
+      Predicate<T> shouldOffload,
+      Function<T, R> mapper,
+      Scheduler offloadScheduler,
+      Scheduler observeScheduler,
+      InboundPreparationLaneStats stats) {
     Objects.requireNonNull(events, "events");
+    Objects.requireNonNull(laneKey, "laneKey");
     Objects.requireNonNull(shouldOffload, "shouldOffload");
     Objects.requireNonNull(mapper, "mapper");
     Objects.requireNonNull(offloadScheduler, "offloadScheduler");
     Objects.requireNonNull(observeScheduler, "observeScheduler");
+    Objects.requireNonNull(stats, "stats");
+    Function<T, String> key = event -> Objects.toString(laneKey.apply(event), "");
     return events
-        .concatMap(
-            event ->
-                shouldOffload.test(event)
-                    ? Single.fromCallable(
-                            () -> Objects.requireNonNull(mapper.apply(event), "mapped"))
-                        .subscribeOn(offloadScheduler)
-                        .toFlowable()
-                    : Flowable.fromCallable(
-                        () -> Objects.requireNonNull(mapper.apply(event), "mapped")))
+        .doOnNext(event -> stats.enqueued(key.apply(event)))
+        .groupBy(key::apply)
+        .flatMap(
+            lane ->
+                lane.concatMap(
+                    event -> {
+                      Callable<R> prepare =
+                          () -> {
+                            long start = System.nanoTime();
+                            boolean ok = false;
+                            try {
+                              R prepared = Objects.requireNonNull(mapper.apply(event), "mapped");
+                              ok = true;
+                              return prepared;
+                            } finally {
+                              stats.prepared(lane.getKey(), System.nanoTime() - start, ok);
+                            }
+                          };
+                      return shouldOffload.test(event)
+                          ? Single.fromCallable(prepare).subscribeOn(offloadScheduler).toFlowable()
+                          : Flowable.fromCallable(prepare);
+                    }),
+            Integer.MAX_VALUE)
         .observeOn(observeScheduler);
   }
 
@@ -647,6 +695,23 @@ public class IrcMediator implements MediatorControlPort {
   }
 
   private void onServerIrcEvent(PreparedServerIrcEvent prepared) {
+    PipelineJfrEvents.EdtDispatch jfr = new PipelineJfrEvents.EdtDispatch();
+    jfr.begin();
+    try {
+      dispatchPrepared(prepared);
+    } finally {
+      ServerIrcEvent se = prepared != null ? prepared.event() : null;
+      boolean recorded = jfr.isEnabled() && se != null;
+      if (recorded) {
+        jfr.eventType = MediatorInboundEventPreparationService.jfrEventType(se.event());
+      }
+      jfr.commit(
+          recorded ? se.serverId() : "",
+          recorded ? MediatorInboundEventPreparationService.jfrTarget(se.event()) : "");
+    }
+  }
+
+  private void dispatchPrepared(PreparedServerIrcEvent prepared) {
     if (prepared == null) return;
     ServerIrcEvent se = prepared.event();
     if (se == null) return;
@@ -803,6 +868,10 @@ public class IrcMediator implements MediatorControlPort {
         handleNickListUpdated(sid, ev);
       }
 
+      case IrcEvent.RosterDelta ev -> {
+        handleRosterDelta(sid, ev);
+      }
+
       case IrcEvent.UserHostmaskObserved ev -> {
         handleUserHostmaskObserved(sid, ev);
       }
@@ -907,6 +976,10 @@ public class IrcMediator implements MediatorControlPort {
     mediatorChannelStateEventHandler.handleNickListUpdated(sid, ev);
   }
 
+  private void handleRosterDelta(String sid, IrcEvent.RosterDelta ev) {
+    mediatorChannelStateEventHandler.handleRosterDelta(sid, ev);
+  }
+
   private void handleUserHostmaskObserved(String sid, IrcEvent.UserHostmaskObserved ev) {
     mediatorChannelStateEventHandler.handleUserHostmaskObserved(sid, ev);
   }
@@ -354,7 +354,11 @@ public class MediatorChannelMembershipEventHandler {
       targetCoordinator.syncRuntimeAutoJoinForReconnect(sid);
     }
     inboundModeEventHandler.onJoinedChannel(sid, event.channel());
-    userInfoEnrichmentService.enqueueWhoChannelPrioritized(sid, event.channel());
+    // Without implicit NAMES, background channels defer both roster and WHO scan to first focus.
+    if (!event.rosterDeferred()
+        || targetCoordinator.requestDeferredRosterIfActive(sid, event.channel())) {
+      userInfoEnrichmentService.enqueueWhoChannelPrioritized(sid, event.channel());
+    }
 
     ui.ensureTargetExists(channel);
     ui.appendStatus(channel, "(join)", "Joined " + event.channel());
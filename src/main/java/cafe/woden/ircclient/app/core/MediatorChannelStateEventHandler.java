@@ -93,6 +93,12 @@ public class MediatorChannelStateEventHandler {
     targetCoordinator.onNickListUpdated(sid, event);
   }
 
+  public void handleRosterDelta(String sid, IrcEvent.RosterDelta event) {
+    observeChannelActivity(sid, event.channel());
+    inboundModeEventHandler.onNickListUpdated(sid, event.channel());
+    targetCoordinator.onRosterDelta(sid, event);
+  }
+
   public void handleUserHostmaskObserved(String sid, IrcEvent.UserHostmaskObserved event) {
     targetCoordinator.onUserHostmaskObserved(sid, event);
   }
@@ -59,6 +59,10 @@ public class MediatorHistoryIngestOrchestrator {
           .build();
 
   public void onChatHistoryBatchReceived(String sid, IrcEvent.ChatHistoryBatchReceived ev) {
+    if (ev.isPrefetch()) {
+      onPrefetchedHistoryBatch(sid, ev);
+      return;
+    }
     String target = normalizeTarget(ev.target());
     final TargetRef dest = new TargetRef(sid, target);
     ensureTargetExists(dest);
@@ -116,22 +120,58 @@ public class MediatorHistoryIngestOrchestrator {
             msg = "Persisted " + result.inserted() + "/" + result.total() + " history lines.";
           }
           appendStatus(dest, HISTORY_STATUS_TAG, msg);
+          publishIngestEvent(sid, target, ev.batchId(), result);
+        });
+  }
 
-          try {
-            chatHistoryIngestEventsPort.publish(
-                new ChatHistoryIngestEventsPort.IngestEvent(
-                    sid,
-                    target,
-                    ev.batchId(),
-                    result.total(),
-                    result.inserted(),
-                    result.earliestInsertedEpochMs(),
-                    result.latestInsertedEpochMs()));
-          } catch (Exception ignored) {
-          }
+  /**
+   * Background prefetch (e.g. Quassel backlog for every buffer on connect) is persisted for
+   * scrollback without creating targets or posting status lines; it only renders into a transcript
+   * that already exists and is waiting for history.
+   */
+  private void onPrefetchedHistoryBatch(String sid, IrcEvent.ChatHistoryBatchReceived ev) {
+    String target = normalizeTarget(ev.target());
+    TargetRef dest = new TargetRef(sid, target);
+    try {
+      chatHistoryBatchEventsPort.publish(
+          new ChatHistoryBatchEventsPort.BatchEvent(
+              sid,
+              target,
+              ev.batchId(),
+              ev.entries(),
+              earliestEpochMs(ev.entries()),
+              latestEpochMs(ev.entries())));
+    } catch (Exception ignored) {
+    }
+
+    if (ui.hasTarget(dest)) renderRequestedBatchIfAny(sid, target, dest, ev.entries());
+
+    chatHistoryIngestionPort.ingestAsync(
+        sid,
+        target,
+        ev.batchId(),
+        ev.entries(),
+        result -> {
+          if (result != null) publishIngestEvent(sid, target, ev.batchId(), result);
         });
   }
 
+  private void publishIngestEvent(
+      String sid, String target, String batchId, ChatHistoryIngestionPort.IngestResult result) {
+    try {
+      chatHistoryIngestEventsPort.publish(
+          new ChatHistoryIngestEventsPort.IngestEvent(
+              sid,
+              target,
+              batchId,
+              result.total(),
+              result.inserted(),
+              result.earliestInsertedEpochMs(),
+              result.latestInsertedEpochMs()));
+    } catch (Exception ignored) {
+    }
+  }
+
   public void onZncPlaybackBatchReceived(String sid, IrcEvent.ZncPlaybackBatchReceived ev) {
     String target = normalizeTarget(ev.target());
     final TargetRef dest = new TargetRef(sid, target);
@@ -7,6 +7,7 @@ import cafe.woden.ircclient.irc.IrcEvent;
 import cafe.woden.ircclient.irc.ServerIrcEvent;
 import cafe.woden.ircclient.irc.port.IrcMediatorInteractionPort;
 import cafe.woden.ircclient.model.TargetRef;
+import cafe.woden.ircclient.util.PipelineJfrEvents;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -41,6 +42,35 @@ public class MediatorInboundEventPreparationService {
   }
 
   PreparedServerIrcEvent prepare(ServerIrcEvent se) {
+    PipelineJfrEvents.EventPrep jfr = new PipelineJfrEvents.EventPrep();
+    jfr.begin();
+    try {
+      return prepareEvent(se);
+    } finally {
+      boolean recorded = jfr.isEnabled() && se != null;
+      if (recorded) jfr.eventType = jfrEventType(se.event());
+      jfr.commit(recorded ? se.serverId() : "", recorded ? jfrTarget(se.event()) : "");
+    }
+  }
+
+  /** Buffer name for pipeline JFR events; empty for events that are not tied to one. */
+  static String jfrTarget(IrcEvent event) {
+    if (event instanceof IrcEvent.ChannelMessage ev) return ev.channel();
+    if (event instanceof IrcEvent.ChannelAction ev) return ev.channel();
+    if (event instanceof IrcEvent.PrivateMessage ev) return ev.from();
+    if (event instanceof IrcEvent.PrivateAction ev) return ev.from();
+    if (event instanceof IrcEvent.Notice ev) return ev.target();
+    if (event instanceof IrcEvent.CtcpRequestReceived ev) {
+      return ev.channel() != null ? ev.channel() : ev.from();
+    }
+    return "";
+  }
+
+  static String jfrEventType(IrcEvent event) {
+    return event == null ? "" : event.getClass().getSimpleName();
+  }
+
+  private PreparedServerIrcEvent prepareEvent(ServerIrcEvent se) {
     if (se == null) return PreparedServerIrcEvent.empty();
 
     String sid = se.serverId();
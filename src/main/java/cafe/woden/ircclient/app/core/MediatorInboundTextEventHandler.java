@@ -30,6 +30,7 @@ import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import org.jmolecules.architecture.layered.ApplicationLayer;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /** Coordinates inbound text/event transcript updates extracted from {@link IrcMediator}. */
@@ -95,7 +96,7 @@ public class MediatorInboundTextEventHandler {
   private final TargetCoordinator targetCoordinator;
   private final UserInfoEnrichmentService userInfoEnrichmentService;
   private final PendingEchoMessagePort pendingEchoMessageState;
-  private final OutboundDccCommandService outboundDccCommandService;
+  @Lazy private final OutboundDccCommandService outboundDccCommandService;
   private final TrayNotificationsPort trayNotificationService;
   private final UiSettingsPort uiSettingsPort;
   private final IrcEventNotifierPort ircEventNotifierPort;
@@ -132,13 +133,14 @@ public class MediatorInboundTextEventHandler {
       String sid,
       PreparedServerIrcEvent prepared,
       IrcEvent.ChannelMessage event) {
+    Instant at = event.at();
     callbacks.observeChannelActivity(sid, event.channel());
     TargetRef channel = new TargetRef(sid, event.channel());
     TargetRef active = targetCoordinator.getActiveTarget();
     PreparedChannelText channelText = prepared.channelText();
     NotificationRuleMatch ruleMatch = channelText.ruleMatch();
 
-    userInfoEnrichmentService.noteUserActivity(sid, event.from(), event.at());
+    userInfoEnrichmentService.noteUserActivity(sid, event.from(), at);
 
     InboundIgnorePolicyPort.Decision decision = channelText.decision();
     if (decision == InboundIgnorePolicyPort.Decision.HARD_DROP) {
@@ -150,13 +152,7 @@ public class MediatorInboundTextEventHandler {
     }
 
     if (maybeApplyMessageEditFromTaggedLine(
-        sid,
-        channel,
-        event.at(),
-        event.from(),
-        event.text(),
-        event.messageId(),
-        event.ircv3Tags())) {
+        sid, channel, at, event.from(), event.text(), event.messageId(), event.ircv3Tags())) {
       return;
     }
     if (shouldSuppressInboundDuplicateByMsgId(
@@ -173,12 +169,7 @@ public class MediatorInboundTextEventHandler {
           true,
           dest ->
               ui.appendSpoilerChatAt(
-                  dest,
-                  event.at(),
-                  event.from(),
-                  event.text(),
-                  event.messageId(),
-                  event.ircv3Tags()));
+                  dest, at, event.from(), event.text(), event.messageId(), event.ircv3Tags()));
     } else {
       callbacks.postTo(
           channel,
@@ -187,7 +178,7 @@ public class MediatorInboundTextEventHandler {
           dest ->
               ui.appendChatAt(
                   dest,
-                  event.at(),
+                  at,
                   event.from(),
                   event.text(),
                   false,
@@ -233,13 +224,14 @@ public class MediatorInboundTextEventHandler {
       String sid,
       PreparedServerIrcEvent prepared,
       IrcEvent.ChannelAction event) {
+    Instant at = event.at();
     callbacks.observeChannelActivity(sid, event.channel());
     TargetRef channel = new TargetRef(sid, event.channel());
     TargetRef active = targetCoordinator.getActiveTarget();
     PreparedChannelText channelText = prepared.channelText();
     NotificationRuleMatch ruleMatch = channelText.ruleMatch();
 
-    userInfoEnrichmentService.noteUserActivity(sid, event.from(), event.at());
+    userInfoEnrichmentService.noteUserActivity(sid, event.from(), at);
 
     InboundIgnorePolicyPort.Decision decision = channelText.decision();
     if (decision == InboundIgnorePolicyPort.Decision.HARD_DROP) {
@@ -260,7 +252,7 @@ public class MediatorInboundTextEventHandler {
           dest ->
               ui.appendSpoilerChatAt(
                   dest,
-                  event.at(),
+                  at,
                   event.from(),
                   "* " + event.action(),
                   event.messageId(),
@@ -273,7 +265,7 @@ public class MediatorInboundTextEventHandler {
           dest ->
               ui.appendActionAt(
                   dest,
-                  event.at(),
+                  at,
                   event.from(),
                   event.action(),
                   false,
@@ -320,6 +312,7 @@ public class MediatorInboundTextEventHandler {
       String sid,
       PreparedServerIrcEvent prepared,
       IrcEvent.PrivateMessage event) {
+    Instant at = event.at();
     PreparedPrivateMessage privateMessage = prepared.privateMessage();
     boolean fromSelf = privateMessage.fromSelf();
     String peer = privateMessage.peer();
@@ -334,7 +327,7 @@ public class MediatorInboundTextEventHandler {
     }
 
     if (!fromSelf) {
-      userInfoEnrichmentService.noteUserActivity(sid, event.from(), event.at());
+      userInfoEnrichmentService.noteUserActivity(sid, event.from(), at);
       callbacks.markPrivateMessagePeerOnline(sid, event.from());
     }
 
@@ -347,7 +340,7 @@ public class MediatorInboundTextEventHandler {
 
       boolean dccHandled =
           outboundDccCommandService.handleInboundDccOffer(
-              event.at(),
+              at,
               sid,
               event.from(),
               ctcp.arg(),
@@ -367,7 +360,7 @@ public class MediatorInboundTextEventHandler {
     }
 
     if (maybeApplyMessageEditFromTaggedLine(
-        sid, pm, event.at(), event.from(), event.text(), event.messageId(), event.ircv3Tags())) {
+        sid, pm, at, event.from(), event.text(), event.messageId(), event.ircv3Tags())) {
       return;
     }
     if (shouldSuppressInboundDuplicateByMsgId(
@@ -386,15 +379,10 @@ public class MediatorInboundTextEventHandler {
             true,
             dest ->
                 ui.appendSpoilerChatAt(
-                    dest,
-                    event.at(),
-                    event.from(),
-                    event.text(),
-                    event.messageId(),
-                    event.ircv3Tags()));
+                    dest, at, event.from(), event.text(), event.messageId(), event.ircv3Tags()));
       } else {
         ui.appendSpoilerChatAt(
-            pm, event.at(), event.from(), event.text(), event.messageId(), event.ircv3Tags());
+            pm, at, event.from(), event.text(), event.messageId(), event.ircv3Tags());
       }
     } else if (allowAutoOpen) {
       callbacks.postTo(
@@ -403,7 +391,7 @@ public class MediatorInboundTextEventHandler {
           dest ->
               ui.appendChatAt(
                   dest,
-                  event.at(),
+                  at,
                   event.from(),
                   event.text(),
                   fromSelf,
@@ -411,13 +399,7 @@ public class MediatorInboundTextEventHandler {
                   event.ircv3Tags()));
     } else {
       ui.appendChatAt(
-          pm,
-          event.at(),
-          event.from(),
-          event.text(),
-          fromSelf,
-          event.messageId(),
-          event.ircv3Tags());
+          pm, at, event.from(), event.text(), fromSelf, event.messageId(), event.ircv3Tags());
     }
 
     String interceptorMessageId = effectiveMessageIdForDedup(event.messageId(), event.ircv3Tags());
@@ -447,6 +429,7 @@ public class MediatorInboundTextEventHandler {
       String sid,
       PreparedServerIrcEvent prepared,
       IrcEvent.PrivateAction event) {
+    Instant at = event.at();
     PreparedPrivateAction privateAction = prepared.privateAction();
     boolean fromSelf = privateAction.fromSelf();
     String peer = privateAction.peer();
@@ -454,7 +437,7 @@ public class MediatorInboundTextEventHandler {
     boolean allowAutoOpen = targetCoordinator.allowPrivateAutoOpenFromInbound(pm, fromSelf);
 
     if (!fromSelf) {
-      userInfoEnrichmentService.noteUserActivity(sid, event.from(), event.at());
+      userInfoEnrichmentService.noteUserActivity(sid, event.from(), at);
       callbacks.markPrivateMessagePeerOnline(sid, event.from());
     }
 
@@ -479,19 +462,14 @@ public class MediatorInboundTextEventHandler {
             dest ->
                 ui.appendSpoilerChatAt(
                     dest,
-                    event.at(),
+                    at,
                     event.from(),
                     "* " + event.action(),
                     event.messageId(),
                     event.ircv3Tags()));
       } else {
         ui.appendSpoilerChatAt(
-            pm,
-            event.at(),
-            event.from(),
-            "* " + event.action(),
-            event.messageId(),
-            event.ircv3Tags());
+            pm, at, event.from(), "* " + event.action(), event.messageId(), event.ircv3Tags());
       }
     } else if (allowAutoOpen) {
       callbacks.postTo(
@@ -500,7 +478,7 @@ public class MediatorInboundTextEventHandler {
           dest ->
               ui.appendActionAt(
                   dest,
-                  event.at(),
+                  at,
                   event.from(),
                   event.action(),
                   fromSelf,
@@ -508,13 +486,7 @@ public class MediatorInboundTextEventHandler {
                   event.ircv3Tags()));
     } else {
       ui.appendActionAt(
-          pm,
-          event.at(),
-          event.from(),
-          event.action(),
-          fromSelf,
-          event.messageId(),
-          event.ircv3Tags());
+          pm, at, event.from(), event.action(), fromSelf, event.messageId(), event.ircv3Tags());
     }
 
     String interceptorMessageId = effectiveMessageIdForDedup(event.messageId(), event.ircv3Tags());
@@ -541,6 +513,7 @@ public class MediatorInboundTextEventHandler {
       TargetRef status,
       PreparedServerIrcEvent prepared,
       IrcEvent.Notice event) {
+    Instant at = event.at();
     PreparedNotice notice = prepared.notice();
     boolean fromSelf = notice.fromSelf();
     callbacks.markPrivateMessagePeerOnline(sid, event.from());
@@ -550,7 +523,7 @@ public class MediatorInboundTextEventHandler {
     TargetRef dest = resolveNoticeDestination(callbacks, sid, status, event);
 
     if (maybeApplyMessageEditFromTaggedLine(
-        sid, dest, event.at(), event.from(), event.text(), event.messageId(), event.ircv3Tags())) {
+        sid, dest, at, event.from(), event.text(), event.messageId(), event.ircv3Tags())) {
       return;
     }
     if (shouldSuppressInboundDuplicateByMsgId(
@@ -562,7 +535,7 @@ public class MediatorInboundTextEventHandler {
         callbacks,
         sid,
         dest,
-        event.at(),
+        at,
         event.from(),
         event.text(),
         spoiler,
@@ -911,6 +884,7 @@ public class MediatorInboundTextEventHandler {
     }
 
     var entry = pending.get();
+    Instant at = event.at();
     callbacks.postTo(
         channel,
         active,
@@ -920,20 +894,14 @@ public class MediatorInboundTextEventHandler {
               ui.resolvePendingOutgoingChat(
                   dest,
                   entry.pendingId(),
-                  event.at(),
+                  at,
                   event.from(),
                   event.text(),
                   event.messageId(),
                   event.ircv3Tags());
           if (!replaced) {
             ui.appendChatAt(
-                dest,
-                event.at(),
-                event.from(),
-                event.text(),
-                true,
-                event.messageId(),
-                event.ircv3Tags());
+                dest, at, event.from(), event.text(), true, event.messageId(), event.ircv3Tags());
           }
         });
     return true;
@@ -959,6 +927,7 @@ public class MediatorInboundTextEventHandler {
     }
 
     var entry = pending.get();
+    Instant at = event.at();
     TargetRef dest = entry.target() != null ? entry.target() : fallbackPm;
     if (allowAutoOpen) {
       callbacks.postTo(
@@ -969,7 +938,7 @@ public class MediatorInboundTextEventHandler {
                 ui.resolvePendingOutgoingChat(
                     target,
                     entry.pendingId(),
-                    event.at(),
+                    at,
                     event.from(),
                     event.text(),
                     event.messageId(),
@@ -977,7 +946,7 @@ public class MediatorInboundTextEventHandler {
             if (!replaced) {
               ui.appendChatAt(
                   target,
-                  event.at(),
+                  at,
                   event.from(),
                   event.text(),
                   true,
@@ -990,20 +959,14 @@ public class MediatorInboundTextEventHandler {
           ui.resolvePendingOutgoingChat(
               dest,
               entry.pendingId(),
-              event.at(),
+              at,
               event.from(),
               event.text(),
               event.messageId(),
               event.ircv3Tags());
       if (!replaced) {
         ui.appendChatAt(
-            dest,
-            event.at(),
-            event.from(),
-            event.text(),
-            true,
-            event.messageId(),
-            event.ircv3Tags());
+            dest, at, event.from(), event.text(), true, event.messageId(), event.ircv3Tags());
       }
     }
     return true;
@@ -84,6 +84,7 @@ public class TargetCoordinator implements ActiveTargetPort {
   private final ScheduledExecutorService usersRefreshExec;
 
   private final AtomicBoolean usersRefreshScheduled = new AtomicBoolean(false);
+  private final Set<String> enrichmentSnapshotPending = ConcurrentHashMap.newKeySet();
 
   private final CompositeDisposable disposables = new CompositeDisposable();
   private final Set<TargetRef> closedPrivateTargetsByUser = ConcurrentHashMap.newKeySet();
@@ -253,6 +254,7 @@ public class TargetCoordinator implements ActiveTargetPort {
     closedPrivateTargetsByUser.removeIf(t -> t != null && Objects.equals(t.serverId(), sid));
     if (activeTarget != null && Objects.equals(activeTarget.serverId(), sid)) {
       ui.setStatusBarCounts(0, 0);
+      ui.setStatusBarUserInfoCoverage(0, -1);
       ui.setUsersNicks(List.of());
     }
   }
@@ -274,12 +276,47 @@ public class TargetCoordinator implements ActiveTargetPort {
         && activeTarget.matches(ev.channel())) {
       ui.setUsersNicks(ev.nicks());
       ui.setStatusBarCounts(ev.totalUsers(), ev.operatorCount());
+      refreshStatusBarUserInfoCoverage(sid, ev.channel());
 
       // If hostmask-based ignores exist, opportunistically resolve missing hostmasks.
       maybeRequestMissingHostmasks(sid, ev.nicks());
     }
   }
 
+  /**
+   * Applies an incremental roster change. The cached roster is patched in place and, for the active
+   * channel, the user list gets a single-row update instead of a full reload. Enrichment only looks
+   * at the changed nick; the server-wide roster snapshot it plans against is refreshed on a short
+   * debounce so join floods do not rebuild it per event.
+   */
+  public void onRosterDelta(String serverId, IrcEvent.RosterDelta ev) {
+    if (ev == null) return;
+    String sid = Objects.toString(serverId, "").trim();
+    if (sid.isEmpty()) return;
+
+    UserListStore.RosterPatch patch = userListStore.applyDelta(sid, ev);
+    if (!patch.changed()) return;
+
+    List<IrcEvent.NickInfo> changed =
+        patch.inserted() == null ? List.of() : List.of(patch.inserted());
+    scheduleEnrichmentRosterSnapshot(sid);
+    enqueueEnrichmentProbes(sid, ev.channel(), changed, patch.size());
+
+    if (activeTarget != null
+        && Objects.equals(activeTarget.serverId(), sid)
+        && activeTarget.matches(ev.channel())) {
+      // A single-row change goes out as just that row; the roster is only copied when the view
+      // must reload. Counts come from the store's counters either way.
+      if (patch.isReload()) {
+        ui.setUsersNicks(patch.nicks());
+      } else {
+        ui.applyUsersNickDelta(patch);
+      }
+      ui.setStatusBarCounts(patch.size(), patch.operatorCount());
+      maybeRequestMissingHostmasks(sid, changed);
+    }
+  }
+
   /**
    * Passive hostmask capture: when we observe a user's hostmask from a server prefix, enrich the
    * cached roster so ignore markers can reflect hostmask-based ignores even if NAMES didn't provide
@@ -759,6 +796,25 @@ public class TargetCoordinator implements ActiveTargetPort {
     }
   }
 
+  /**
+   * Requests NAMES for a channel joined without an implicit roster, but only if it is on screen.
+   * Background channels load theirs when first focused (see {@link #applyTargetContext}).
+   *
+   * @return true if the channel is the active target and NAMES was requested
+   */
+  public boolean requestDeferredRosterIfActive(String serverId, String channel) {
+    TargetRef target = new TargetRef(serverId, channel);
+    if (!Objects.equals(activeTarget, target)) return false;
+    if (!userListStore.get(target.serverId(), target.target()).isEmpty()) return false;
+    disposables.add(
+        targetMembership
+            .requestNames(target.serverId(), target.target())
+            .subscribe(
+                () -> {},
+                err -> ui.appendError(safeStatusTarget(), "(names-error)", String.valueOf(err))));
+    return true;
+  }
+
   /**
    * @return true when we should treat this join as active membership; false means we intentionally
    *     remain detached and immediately part again.
@@ -941,6 +997,7 @@ public class TargetCoordinator implements ActiveTargetPort {
     if (target.isChannel()) {
       if (ui.isChannelDisconnected(target)) {
         ui.setStatusBarCounts(0, 0);
+        ui.setStatusBarUserInfoCoverage(0, -1);
         ui.setUsersNicks(List.of());
       } else {
         List<IrcEvent.NickInfo> cached = userListStore.get(target.serverId(), target.target());
@@ -949,6 +1006,7 @@ public class TargetCoordinator implements ActiveTargetPort {
             cached.size(), (int) cached.stream().filter(TargetCoordinator::isOperatorLike).count());
         maybeRequestMissingHostmasks(target.serverId(), cached);
         updateEnrichmentFromRoster(target.serverId(), target.target(), cached);
+        refreshStatusBarUserInfoCoverage(target.serverId(), target.target());
         if (cached.isEmpty() && connectionCoordinator.isConnected(target.serverId())) {
           disposables.add(
               targetMembership
@@ -962,6 +1020,7 @@ public class TargetCoordinator implements ActiveTargetPort {
       }
     } else {
       ui.setStatusBarCounts(0, 0);
+      ui.setStatusBarUserInfoCoverage(0, -1);
       ui.setUsersNicks(List.of());
     }
     targetMembership
@@ -972,6 +1031,15 @@ public class TargetCoordinator implements ActiveTargetPort {
     refreshInputEnabledForActiveTarget();
   }
 
+  /** Mirrors the channel's last WHOX coverage (recorded by enrichment) into the status bar. */
+  private void refreshStatusBarUserInfoCoverage(String serverId, String channel) {
+    userInfoEnrichmentService
+        .channelCoverage(serverId, channel)
+        .ifPresentOrElse(
+            c -> ui.setStatusBarUserInfoCoverage(c.enriched(), c.members()),
+            () -> ui.setStatusBarUserInfoCoverage(0, -1));
+  }
+
   private void updateEnrichmentFromRoster(
       String serverId, String channel, List<IrcEvent.NickInfo> nicks) {
     String sid = Objects.toString(serverId, "").trim();
@@ -979,12 +1047,37 @@ public class TargetCoordinator implements ActiveTargetPort {
     userInfoEnrichmentService.setRosterSnapshot(sid, userListStore.getServerNicks(sid));
 
     if (nicks == null || nicks.isEmpty()) return;
+    if (userInfoEnrichmentService.shouldUseWhoxForChannelScan(sid)) {
+      // WHOX mode: one staleness-scheduled channel scan replaces per-nick USERHOST/WHOIS probes,
+      // and it is only issued for the channel the user is looking at.
+      userInfoEnrichmentService.enrichChannelWithWhox(
+          sid, channel, nicks, isActiveChannel(sid, channel));
+      return;
+    }
+    enqueueEnrichmentProbes(sid, channel, nicks, nicks.size());
+  }
+
+  private void scheduleEnrichmentRosterSnapshot(String sid) {
+    if (!enrichmentSnapshotPending.add(sid)) return;
+    usersRefreshExec.schedule(
+        () -> {
+          enrichmentSnapshotPending.remove(sid);
+          try {
+            userInfoEnrichmentService.setRosterSnapshot(sid, userListStore.getServerNicks(sid));
+          } catch (Throwable t) {
+            log.debug("Failed to refresh enrichment roster snapshot (coalesced)", t);
+          }
+        },
+        200,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /** Queues USERHOST/WHO/WHOIS probes for {@code nicks} out of a roster of {@code rosterSize}. */
+  private void enqueueEnrichmentProbes(
+      String sid, String channel, List<IrcEvent.NickInfo> nicks, int rosterSize) {
+    if (nicks == null || nicks.isEmpty()) return;
 
-    boolean isActiveChannel =
-        activeTarget != null
-            && Objects.equals(activeTarget.serverId(), sid)
-            && activeTarget.isChannel()
-            && activeTarget.matches(Objects.toString(channel, "").trim());
+    boolean isActiveChannel = isActiveChannel(sid, channel);
 
     java.util.ArrayList<String> userhostCandidates = new java.util.ArrayList<>();
     java.util.ArrayList<String> whoisUnknownAccountCandidates = new java.util.ArrayList<>();
@@ -1009,19 +1102,18 @@ public class TargetCoordinator implements ActiveTargetPort {
       }
     }
 
-    boolean whoxForAccountEnabled =
-        isActiveChannel && userInfoEnrichmentService.shouldUseWhoxForChannelScan(sid);
-    boolean wantWhoxForAccount =
-        whoxForAccountEnabled
-            && !whoisUnknownAccountCandidates.isEmpty()
-            && shouldWhoChannelScan(nicks.size(), whoisUnknownAccountCandidates.size());
+    if (userInfoEnrichmentService.shouldUseWhoxForChannelScan(sid)) {
+      // Joiners are left to the channel's WHOX scan unless they arrived after it settled.
+      userInfoEnrichmentService.enqueueWhoxStragglers(sid, channel, userhostCandidates);
+      return;
+    }
 
     boolean wantWhoChannelForUserhost =
         isActiveChannel
             && !userhostCandidates.isEmpty()
-            && shouldWhoChannelScan(nicks.size(), userhostCandidates.size());
+            && shouldWhoChannelScan(rosterSize, userhostCandidates.size());
 
-    if (wantWhoxForAccount || wantWhoChannelForUserhost) {
+    if (wantWhoChannelForUserhost) {
       userInfoEnrichmentService.enqueueWhoChannelPrioritized(sid, channel);
     } else if (!userhostCandidates.isEmpty()) {
       userInfoEnrichmentService.enqueueUserhost(sid, userhostCandidates);
@@ -1029,7 +1121,6 @@ public class TargetCoordinator implements ActiveTargetPort {
 
     if (whoisUnknownAccountCandidates.isEmpty()) return;
 
-    if (wantWhoxForAccount) return;
     final int MAX_WHOIS_ENQUEUE = 10;
     final int MIN_WHOIS_TRICKLE = 2;
     final java.time.Duration RECENT_WINDOW = java.time.Duration.ofMinutes(30);
@@ -1070,6 +1161,13 @@ public class TargetCoordinator implements ActiveTargetPort {
     }
   }
 
+  private boolean isActiveChannel(String sid, String channel) {
+    return activeTarget != null
+        && Objects.equals(activeTarget.serverId(), sid)
+        && activeTarget.isChannel()
+        && activeTarget.matches(Objects.toString(channel, "").trim());
+  }
+
   private static boolean shouldWhoChannelScan(int rosterSize, int missingCount) {
     if (rosterSize <= 0) return false;
     if (missingCount <= 0) return false;
@@ -10,6 +10,7 @@ import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.jmolecules.architecture.layered.ApplicationLayer;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /** Registers ignore/filter and CTCP/DCC command handlers. */
@@ -21,7 +22,7 @@ final class IgnoreCtcpOutboundCommandRegistrar implements OutboundCommandRegistr
   @NonNull private final OutboundIgnoreCommandService outboundIgnoreCommandService;
   @NonNull private final LocalFilterCommandHandler localFilterCommandService;
   @NonNull private final OutboundCtcpWhoisCommandService outboundCtcpWhoisCommandService;
-  @NonNull private final OutboundDccCommandService outboundDccCommandService;
+  @NonNull @Lazy private final OutboundDccCommandService outboundDccCommandService;
 
   @Override
   public void registerCommands(OutboundCommandRegistry registry) {
@@ -19,11 +19,13 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.jmolecules.architecture.layered.ApplicationLayer;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /** Shared active DCC chat session lifecycle support. */
 @Component
 @ApplicationLayer
+@Lazy
 @RequiredArgsConstructor
 final class DccChatSessionSupport {
 
@@ -10,11 +10,13 @@ import java.util.Objects;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.jmolecules.architecture.layered.ApplicationLayer;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /** Shared DCC target, transfer-tracking, and formatting support. */
 @Component
 @ApplicationLayer
+@Lazy
 @RequiredArgsConstructor
 final class DccCommandSupport {
 
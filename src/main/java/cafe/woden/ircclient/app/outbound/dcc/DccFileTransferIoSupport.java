@@ -15,11 +15,13 @@ import java.nio.file.StandardOpenOption;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.jmolecules.architecture.layered.ApplicationLayer;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /** Shared DCC file-transfer socket I/O and progress reporting support. */
 @Component
 @ApplicationLayer
+@Lazy
 @RequiredArgsConstructor
 final class DccFileTransferIoSupport {
 
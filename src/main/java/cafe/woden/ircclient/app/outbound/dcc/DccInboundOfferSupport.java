@@ -11,11 +11,13 @@ import java.util.Objects;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.jmolecules.architecture.layered.ApplicationLayer;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /** Shared inbound DCC offer and control-message handling support. */
 @Component
 @ApplicationLayer
+@Lazy
 @RequiredArgsConstructor
 final class DccInboundOfferSupport {
 
@@ -26,11 +26,13 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.jmolecules.architecture.layered.ApplicationLayer;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /** Shared outgoing-offer, pending-acceptance, and DCC state-reporting support. */
 @Component
 @ApplicationLayer
+@Lazy
 @RequiredArgsConstructor
 final class DccOfferCommandSupport {
 
@@ -4,11 +4,13 @@ import java.net.ServerSocket;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import org.jmolecules.architecture.layered.ApplicationLayer;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /** Shared in-memory DCC runtime state for pending offers, active chats, and listeners. */
 @Component
 @ApplicationLayer
+@Lazy
 final class DccRuntimeRegistry {
 
   private final ConcurrentMap<String, PendingChatOffer> pendingChatOffers =
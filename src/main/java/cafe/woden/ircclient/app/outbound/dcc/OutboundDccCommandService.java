@@ -11,6 +11,7 @@ import java.util.Objects;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.jmolecules.architecture.layered.ApplicationLayer;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /**
@@ -22,6 +23,7 @@ import org.springframework.stereotype.Component;
  */
 @Component
 @ApplicationLayer
+@Lazy
 @RequiredArgsConstructor
 public class OutboundDccCommandService {
   private static final String DCC_TAG = "(dcc)";
@@ -0,0 +1,35 @@
+package cafe.woden.ircclient.config;
+
+import org.jmolecules.architecture.layered.InfrastructureLayer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Inbound backend event stream settings. */
+@ConfigurationProperties(prefix = "ircafe.events")
+@InfrastructureLayer
+public record EventStreamProperties(Backpressure backpressure) {
+
+  public EventStreamProperties {
+    if (backpressure == null) backpressure = Backpressure.defaults();
+  }
+
+  public static EventStreamProperties defaults() {
+    return new EventStreamProperties(null);
+  }
+
+  /**
+   * Per-server limits on events queued for a consumer that has fallen behind (usually the UI).
+   *
+   * <p>Past either limit, queued typing and read-marker events are dropped; chat lines never are,
+   * but further ones wait in a temporary file instead of memory until the consumer catches up.
+   */
+  public record Backpressure(int maxEventsPerServer, long maxBytesPerServer) {
+    public Backpressure {
+      if (maxEventsPerServer <= 0) maxEventsPerServer = 10_000;
+      if (maxBytesPerServer <= 0) maxBytesPerServer = 16L * 1024 * 1024;
+    }
+
+    public static Backpressure defaults() {
+      return new Backpressure(10_000, 16L * 1024 * 1024);
+    }
+  }
+}
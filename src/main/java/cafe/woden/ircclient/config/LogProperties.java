@@ -2,6 +2,7 @@ package cafe.woden.ircclient.config;
 
 import org.jmolecules.architecture.layered.InfrastructureLayer;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 
 @ConfigurationProperties(prefix = "ircafe.logging")
 @InfrastructureLayer
@@ -25,7 +26,10 @@ public record LogProperties(
     Integer retentionDays,
     Integer writerQueueMax,
     Integer writerBatchSize,
-    Hsqldb hsqldb) {
+    Hsqldb hsqldb,
+
+    /** Optional cold archive for rows that have aged out of the hot {@code chat_log} table. */
+    Archive archive) {
 
   public record Hsqldb(String fileBaseName, Boolean nextToRuntimeConfig) {
 
@@ -39,6 +43,25 @@ public record LogProperties(
     }
   }
 
+  /**
+   * Cold archive settings.
+   *
+   * <p>When enabled, rows older than {@code afterDays} are moved out of the HSQLDB table into
+   * immutable per-server, per-month segment files under {@code directoryName} (resolved next to the
+   * chat log DB). History paging and the log viewer continue into archived segments transparently.
+   */
+  public record Archive(Boolean enabled, Integer afterDays, String directoryName) {
+
+    public Archive {
+      if (enabled == null) enabled = Boolean.FALSE;
+      if (afterDays == null || afterDays <= 0) afterDays = 180;
+      if (directoryName == null || directoryName.isBlank()) {
+        directoryName = "ircafe-chatlog-archive";
+      }
+    }
+  }
+
+  @ConstructorBinding
   public LogProperties {
     if (enabled == null) enabled = Boolean.FALSE;
     if (logSoftIgnoredLines == null) logSoftIgnoredLines = Boolean.TRUE;
@@ -50,5 +73,32 @@ public record LogProperties(
     if (writerQueueMax == null || writerQueueMax <= 0) writerQueueMax = 50_000;
     if (writerBatchSize == null || writerBatchSize <= 0) writerBatchSize = 250;
     if (hsqldb == null) hsqldb = new Hsqldb("ircafe-chatlog", Boolean.TRUE);
+    if (archive == null) archive = new Archive(Boolean.FALSE, 180, "ircafe-chatlog-archive");
+  }
+
+  // Legacy constructor kept for call sites that don't configure the cold archive.
+  public LogProperties(
+      Boolean enabled,
+      Boolean logSoftIgnoredLines,
+      Boolean redactionAuditEnabled,
+      Boolean logPrivateMessages,
+      Boolean savePrivateMessageList,
+      Boolean keepForever,
+      Integer retentionDays,
+      Integer writerQueueMax,
+      Integer writerBatchSize,
+      Hsqldb hsqldb) {
+    this(
+        enabled,
+        logSoftIgnoredLines,
+        redactionAuditEnabled,
+        logPrivateMessages,
+        savePrivateMessageList,
+        keepForever,
+        retentionDays,
+        writerQueueMax,
+        writerBatchSize,
+        hsqldb,
+        null);
   }
 }
@@ -0,0 +1,39 @@
+package cafe.woden.ircclient.config;
+
+import org.jmolecules.architecture.layered.InfrastructureLayer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Quassel Core backend settings. */
+@ConfigurationProperties(prefix = "ircafe.quassel")
+@InfrastructureLayer
+public record QuasselProperties(BacklogPrefetch backlogPrefetch) {
+
+  public QuasselProperties {
+    if (backlogPrefetch == null) backlogPrefetch = BacklogPrefetch.defaults();
+  }
+
+  public static QuasselProperties defaults() {
+    return new QuasselProperties(null);
+  }
+
+  /**
+   * Initial scrollback fetched for every channel/query buffer once a Quassel session is synced.
+   *
+   * <p>{@code maxInFlight} bounds how many per-buffer backlog requests are outstanding at once; a
+   * request that gets no reply within {@code requestTimeoutMs} stops counting against the window.
+   */
+  public record BacklogPrefetch(
+      boolean enabled, int messagesPerBuffer, int maxInFlight, long requestTimeoutMs) {
+    public BacklogPrefetch {
+      if (messagesPerBuffer <= 0) messagesPerBuffer = 50;
+      if (messagesPerBuffer > 200) messagesPerBuffer = 200;
+      if (maxInFlight <= 0) maxInFlight = 4;
+      if (maxInFlight > 32) maxInFlight = 32;
+      if (requestTimeoutMs <= 0) requestTimeoutMs = 15_000;
+    }
+
+    public static BacklogPrefetch defaults() {
+      return new BacklogPrefetch(true, 50, 4, 15_000);
+    }
+  }
+}
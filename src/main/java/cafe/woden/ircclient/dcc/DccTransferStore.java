@@ -10,11 +10,13 @@ import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import org.jmolecules.architecture.layered.ApplicationLayer;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /** In-memory store of per-server DCC transfer/chat state for UI rendering. */
 @Component
 @ApplicationLayer
+@Lazy
 public class DccTransferStore {
 
   public enum ActionHint {
@@ -4,7 +4,10 @@ import cafe.woden.ircclient.config.ExecutorConfig;
 import cafe.woden.ircclient.config.api.DiagnosticsRuntimeConfigPort;
 import cafe.woden.ircclient.config.api.InstalledPluginProblem;
 import cafe.woden.ircclient.config.api.InstalledPluginsPort;
+import cafe.woden.ircclient.util.ExecutorTelemetry;
 import cafe.woden.ircclient.util.InstalledPluginDescriptor;
+import cafe.woden.ircclient.util.PipelineJfrEvents;
+import cafe.woden.ircclient.util.StartupTimeline;
 import cafe.woden.ircclient.util.VirtualThreads;
 import com.sun.management.HotSpotDiagnosticMXBean;
 import jakarta.annotation.PostConstruct;
@@ -32,12 +35,15 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -47,6 +53,9 @@ import java.util.zip.ZipOutputStream;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 import jdk.jfr.Recording;
 import jdk.jfr.ValueDescriptor;
 import jdk.jfr.consumer.RecordedEvent;
@@ -73,6 +82,9 @@ public class JfrRuntimeEventsService {
   private static final Duration GC_WINDOW = Duration.ofMinutes(2);
   private static final double GC_ALERT_EVENTS_PER_MINUTE = 10.0d;
   private static final Duration CPU_SAMPLE_PERIOD = Duration.ofSeconds(5);
+  private static final long EXECUTOR_LOG_PERIOD_SECONDS = 60L;
+  private static final int EXECUTOR_LOG_MAX_LANES = 6;
+  private static final long EXECUTOR_WAIT_ALERT_MICROS = 250_000L;
   private static final Duration EXPORT_JFR_CAPTURE_DURATION = Duration.ofSeconds(1);
   private static final String HOTSPOT_DIAGNOSTIC_BEAN = "com.sun.management:type=HotSpotDiagnostic";
   private static final String DIAGNOSTIC_COMMAND_BEAN = "com.sun.management:type=DiagnosticCommand";
@@ -90,7 +102,12 @@ public class JfrRuntimeEventsService {
   private final Deque<RuntimeDiagnosticEvent> events = new ArrayDeque<>();
   private final Deque<Instant> gcEventsInWindow = new ArrayDeque<>();
   private final PropertyChangeSupport stateChanges = new PropertyChangeSupport(this);
+  private final PipelineStageHistograms pipelineStages =
+      new PipelineStageHistograms(
+          PipelineJfrEvents.ALL.stream().map(JfrRuntimeEventsService::stageLabel).toList());
   private final ScheduledExecutorService samplerExec;
+  private final Map<String, Long> executorSubmittedAtLastLog = new HashMap<>();
+  private final Consumer<StartupTimeline.Phase> startupPhaseListener = this::onStartupPhase;
 
   private volatile RecordingStream recordingStream;
   private volatile boolean started;
@@ -166,6 +183,7 @@ public class JfrRuntimeEventsService {
           true);
     }
     startPeriodicSampler();
+    StartupTimeline.addListener(startupPhaseListener);
     synchronized (this) {
       if (enabled) {
         startRecordingStreamLocked();
@@ -185,6 +203,7 @@ public class JfrRuntimeEventsService {
 
   @PreDestroy
   public void stop() {
+    StartupTimeline.removeListener(startupPhaseListener);
     try {
       samplerExec.shutdownNow();
     } catch (Exception ignored) {
@@ -393,6 +412,91 @@ public class JfrRuntimeEventsService {
 
   private void startPeriodicSampler() {
     samplerExec.scheduleAtFixedRate(this::captureRuntimeSample, 1L, 5L, TimeUnit.SECONDS);
+    samplerExec.scheduleAtFixedRate(
+        this::logExecutorLanes,
+        EXECUTOR_LOG_PERIOD_SECONDS,
+        EXECUTOR_LOG_PERIOD_SECONDS,
+        TimeUnit.SECONDS);
+  }
+
+  /**
+   * Logs one line naming the busiest executor lanes. It goes to INFO when a lane is backed up,
+   * dropped work, or kept tasks waiting long, and to DEBUG otherwise.
+   */
+  private void logExecutorLanes() {
+    try {
+      List<ExecutorTelemetry.LaneStats> lanes = ExecutorTelemetry.snapshot();
+      String line;
+      synchronized (executorSubmittedAtLastLog) {
+        line = summarizeExecutorLanes(lanes, executorSubmittedAtLastLog, EXECUTOR_LOG_MAX_LANES);
+        for (ExecutorTelemetry.LaneStats lane : lanes) {
+          executorSubmittedAtLastLog.put(lane.name(), lane.submitted());
+        }
+      }
+      if (line.isEmpty()) return;
+      boolean saturated =
+          lanes.stream()
+              .anyMatch(
+                  l ->
+                      l.queueDepth() > 0
+                          || l.rejected() > 0L
+                          || l.waitP99Micros() >= EXECUTOR_WAIT_ALERT_MICROS);
+      if (saturated) {
+        log.info("[ircafe] Executor lanes: {}", line);
+      } else if (log.isDebugEnabled()) {
+        log.debug("[ircafe] Executor lanes: {}", line);
+      }
+    } catch (Throwable t) {
+      log.debug("[ircafe] Executor lane summary failed", t);
+    }
+  }
+
+  /**
+   * Formats the lanes that saw work since the previous summary or still have a backlog, busiest
+   * (deepest queue, then slowest p99 wait) first. Returns an empty string when every lane is idle.
+   */
+  static String summarizeExecutorLanes(
+      List<ExecutorTelemetry.LaneStats> lanes, Map<String, Long> submittedAtLastLog, int maxLanes) {
+    if (lanes == null || lanes.isEmpty()) return "";
+    Map<String, Long> previous = Objects.requireNonNullElse(submittedAtLastLog, Map.of());
+    List<ExecutorTelemetry.LaneStats> active =
+        lanes.stream()
+            .filter(
+                l ->
+                    l.queueDepth() > 0
+                        || l.running() > 0
+                        || l.submitted() > previous.getOrDefault(l.name(), 0L))
+            .sorted(
+                Comparator.comparingInt(ExecutorTelemetry.LaneStats::queueDepth)
+                    .thenComparingLong(ExecutorTelemetry.LaneStats::waitP99Micros)
+                    .reversed())
+            .toList();
+    if (active.isEmpty()) return "";
+    StringBuilder out = new StringBuilder();
+    int shown = Math.min(Math.max(1, maxLanes), active.size());
+    for (int i = 0; i < shown; i++) {
+      ExecutorTelemetry.LaneStats l = active.get(i);
+      if (i > 0) out.append("; ");
+      out.append(l.name())
+          .append(" +")
+          .append(l.submitted() - Math.min(l.submitted(), previous.getOrDefault(l.name(), 0L)))
+          .append(" q=")
+          .append(l.queueDepth())
+          .append(" wait p99=")
+          .append(formatMicros(l.waitP99Micros()))
+          .append(" run p99=")
+          .append(formatMicros(l.runP99Micros()));
+      if (l.rejected() > 0L) out.append(" rejected=").append(l.rejected());
+      if (l.failed() > 0L) out.append(" failed=").append(l.failed());
+    }
+    if (active.size() > shown) out.append("; +").append(active.size() - shown).append(" more");
+    return out.toString();
+  }
+
+  private static String formatMicros(long micros) {
+    if (micros < 1_000L) return micros + "us";
+    if (micros < 1_000_000L) return String.format(Locale.ROOT, "%.1fms", micros / 1_000.0d);
+    return String.format(Locale.ROOT, "%.2fs", micros / 1_000_000.0d);
   }
 
   private void captureRuntimeSample() {
@@ -438,6 +542,13 @@ public class JfrRuntimeEventsService {
       stream.enable("jdk.CPULoad").withPeriod(CPU_SAMPLE_PERIOD);
       stream.onEvent("jdk.GarbageCollection", this::onGarbageCollection);
       stream.onEvent("jdk.CPULoad", this::onCpuLoad);
+      // Pipeline stage events only cost anything while this stream has them enabled; they feed the
+      // per-stage histograms and are too frequent for the event table.
+      for (Class<? extends PipelineJfrEvents.StageEvent> type : PipelineJfrEvents.ALL) {
+        String stage = stageLabel(type);
+        stream.enable(type).withoutStackTrace();
+        stream.onEvent(eventName(type), event -> onPipelineStage(stage, event));
+      }
       stream.onError(
           err -> {
             synchronized (JfrRuntimeEventsService.this) {
@@ -476,7 +587,7 @@ public class JfrRuntimeEventsService {
           "INFO",
           "jdk.RecordingStream",
           "JFR recording stream started.",
-          "Enabled events: jdk.GarbageCollection, jdk.CPULoad.",
+          "Enabled events: jdk.GarbageCollection, jdk.CPULoad, IRCafe pipeline stages.",
           true);
     } catch (Throwable t) {
       log.warn("[ircafe] Failed to start JFR recording stream", t);
@@ -501,6 +612,59 @@ public class JfrRuntimeEventsService {
     }
   }
 
+  /** Per-stage latency histograms from the pipeline JFR events, in pipeline order. */
+  public List<PipelineStageStats> pipelineStageStats() {
+    return pipelineStages.snapshot();
+  }
+
+  public void clearPipelineStageStats() {
+    pipelineStages.clear();
+    fireStateChanged();
+  }
+
+  /** Queue depth, counters and wait/run latency of every executor lane, sorted by name. */
+  public List<ExecutorTelemetry.LaneStats> executorLaneStats() {
+    return ExecutorTelemetry.snapshot();
+  }
+
+  public void clearExecutorLaneStats() {
+    ExecutorTelemetry.reset();
+    synchronized (executorSubmittedAtLastLog) {
+      executorSubmittedAtLastLog.clear();
+    }
+    fireStateChanged();
+  }
+
+  private void onStartupPhase(StartupTimeline.Phase phase) {
+    if (phase == null) return;
+    synchronized (this) {
+      appendEventAtLocked(
+          phase.at(),
+          "INFO",
+          "Startup",
+          phase.name() + " (+" + phase.sinceJvmStartMillis() + " ms)",
+          "Reached " + phase.sinceJvmStartMillis() + " ms after JVM start.",
+          true);
+    }
+    fireStateChanged();
+  }
+
+  private void onPipelineStage(String stage, RecordedEvent event) {
+    if (event == null || !enabled) return;
+    Duration duration = event.getDuration();
+    pipelineStages.record(stage, duration == null ? 0L : duration.toNanos() / 1_000L);
+  }
+
+  private static String stageLabel(Class<? extends Event> type) {
+    Label label = type.getAnnotation(Label.class);
+    return label != null ? label.value() : type.getSimpleName();
+  }
+
+  private static String eventName(Class<? extends Event> type) {
+    Name name = type.getAnnotation(Name.class);
+    return name != null ? name.value() : type.getName();
+  }
+
   private void onGarbageCollection(RecordedEvent event) {
     if (event == null) return;
     Instant at = safeInstant(event);
@@ -590,6 +754,16 @@ public class JfrRuntimeEventsService {
     out.append("Input Args: ").append(runtime.getInputArguments()).append('\n');
     out.append('\n');
 
+    out.append("Startup Timeline:\n");
+    for (StartupTimeline.Phase phase : StartupTimeline.phases()) {
+      out.append("- +")
+          .append(phase.sinceJvmStartMillis())
+          .append(" ms ")
+          .append(phase.name())
+          .append('\n');
+    }
+    out.append('\n');
+
     out.append("Heap: ").append(formatMemoryUsage(memory.getHeapMemoryUsage())).append('\n');
     out.append("Non-Heap: ").append(formatMemoryUsage(memory.getNonHeapMemoryUsage())).append('\n');
     out.append('\n');
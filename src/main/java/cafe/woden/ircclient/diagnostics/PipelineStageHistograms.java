@@ -0,0 +1,91 @@
+package cafe.woden.ircclient.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fixed-bucket latency histograms per pipeline stage, fed from the custom pipeline JFR events.
+ *
+ * <p>Buckets are log-spaced so one layout covers microsecond parses and multi-second preview
+ * fetches; percentiles are reported as the upper bound of the bucket they fall into.
+ */
+final class PipelineStageHistograms {
+
+  /** Inclusive upper bound of each bucket in microseconds; the last bucket is open-ended. */
+  private static final long[] UPPER_MICROS = {
+    50L, 100L, 250L, 500L, 1_000L, 2_500L, 5_000L, 10_000L, 25_000L, 50_000L, 100_000L, 250_000L,
+    1_000_000L, Long.MAX_VALUE
+  };
+
+  static final List<Long> BUCKET_UPPER_MICROS = Arrays.stream(UPPER_MICROS).boxed().toList();
+
+  private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+  PipelineStageHistograms(List<String> stageOrder) {
+    for (String stage : Objects.requireNonNullElse(stageOrder, List.<String>of())) {
+      stages.put(stage, new Stage());
+    }
+  }
+
+  synchronized void record(String stage, long micros) {
+    Stage s = stages.computeIfAbsent(Objects.toString(stage, ""), k -> new Stage());
+    long v = Math.max(0L, micros);
+    s.buckets[bucketOf(v)]++;
+    s.count++;
+    s.max = Math.max(s.max, v);
+  }
+
+  synchronized void clear() {
+    for (Stage s : stages.values()) {
+      Arrays.fill(s.buckets, 0L);
+      s.count = 0L;
+      s.max = 0L;
+    }
+  }
+
+  synchronized List<PipelineStageStats> snapshot() {
+    List<PipelineStageStats> out = new ArrayList<>(stages.size());
+    for (Map.Entry<String, Stage> e : stages.entrySet()) {
+      Stage s = e.getValue();
+      List<Long> buckets = new ArrayList<>(s.buckets.length);
+      for (long b : s.buckets) buckets.add(b);
+      out.add(
+          new PipelineStageStats(
+              e.getKey(),
+              s.count,
+              percentile(s, 0.50d),
+              percentile(s, 0.99d),
+              s.max,
+              List.copyOf(buckets)));
+    }
+    return List.copyOf(out);
+  }
+
+  static int bucketOf(long micros) {
+    for (int i = 0; i < UPPER_MICROS.length; i++) {
+      if (micros <= UPPER_MICROS[i]) return i;
+    }
+    return UPPER_MICROS.length - 1;
+  }
+
+  private static long percentile(Stage s, double q) {
+    if (s.count == 0L) return 0L;
+    long rank = (long) Math.ceil(q * s.count);
+    long seen = 0L;
+    for (int i = 0; i < s.buckets.length; i++) {
+      seen += s.buckets[i];
+      if (seen >= rank) return Math.min(UPPER_MICROS[i], s.max);
+    }
+    return s.max;
+  }
+
+  private static final class Stage {
+    private final long[] buckets = new long[UPPER_MICROS.length];
+    private long count;
+    private long max;
+  }
+}
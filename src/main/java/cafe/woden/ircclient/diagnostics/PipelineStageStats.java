@@ -0,0 +1,28 @@
+package cafe.woden.ircclient.diagnostics;
+
+import java.util.List;
+import org.jmolecules.ddd.annotation.ValueObject;
+
+/**
+ * Latency summary of one pipeline stage since the JFR stream started (or was last reset).
+ *
+ * @param bucketCounts counts per bucket of {@link #bucketUpperMicros()}
+ */
+@ValueObject
+public record PipelineStageStats(
+    String stage,
+    long count,
+    long p50Micros,
+    long p99Micros,
+    long maxMicros,
+    List<Long> bucketCounts) {
+
+  public PipelineStageStats {
+    bucketCounts = bucketCounts == null ? List.of() : List.copyOf(bucketCounts);
+  }
+
+  /** Inclusive upper bound of each histogram bucket in microseconds; the last is open-ended. */
+  public static List<Long> bucketUpperMicros() {
+    return PipelineStageHistograms.BUCKET_UPPER_MICROS;
+  }
+}
@@ -318,6 +318,14 @@ public interface IrcClientService {
     return OptionalLong.empty();
   }
 
+  /**
+   * @return events from a server that are queued waiting on a slow consumer (usually the UI), if
+   *     this service buffers its event stream.
+   */
+  default Optional<ServerEventBuffer.Backlog> eventBacklog(String serverId) {
+    return Optional.empty();
+  }
+
   /**
    * Send an IRCv3 typing state signal for a target using {@code TAGMSG}.
    *
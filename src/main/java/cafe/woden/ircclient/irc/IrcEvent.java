@@ -1,5 +1,6 @@
 package cafe.woden.ircclient.irc;
 
+import cafe.woden.ircclient.irc.ircv3.Ircv3Tags;
 import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -36,6 +37,7 @@ public sealed interface IrcEvent
         IrcEvent.ChannelRedirected,
         IrcEvent.JoinFailed,
         IrcEvent.NickListUpdated,
+        IrcEvent.RosterDelta,
         IrcEvent.UserHostmaskObserved,
         IrcEvent.UserHostChanged,
         IrcEvent.UserAwayStateObserved,
@@ -96,6 +98,14 @@ public sealed interface IrcEvent
     LOGGED_IN
   }
 
+  /** Kind of incremental roster change carried by {@link RosterDelta}. */
+  enum RosterChange {
+    ADDED,
+    REMOVED,
+    RENAMED,
+    PREFIX_CHANGED
+  }
+
   record Connected(Instant at, String serverHost, int serverPort, String nick)
       implements IrcEvent {}
 
@@ -119,7 +129,7 @@ public sealed interface IrcEvent
   record NickChanged(Instant at, String oldNick, String newNick) implements IrcEvent {}
 
   record ChannelMessage(
-      Instant at,
+      long atEpochMs,
       String channel,
       String from,
       String text,
@@ -127,17 +137,33 @@ public sealed interface IrcEvent
       Map<String, String> ircv3Tags)
       implements IrcEvent {
     public ChannelMessage {
+      channel = IrcEventNames.intern(channel);
+      from = IrcEventNames.intern(from);
       messageId = normalizeMessageId(messageId);
       ircv3Tags = normalizeIrcv3Tags(ircv3Tags);
     }
 
+    public ChannelMessage(
+        Instant at,
+        String channel,
+        String from,
+        String text,
+        String messageId,
+        Map<String, String> ircv3Tags) {
+      this(epochMs(at), channel, from, text, messageId, ircv3Tags);
+    }
+
     public ChannelMessage(Instant at, String channel, String from, String text) {
       this(at, channel, from, text, "", Map.of());
     }
+
+    public Instant at() {
+      return instant(atEpochMs);
+    }
   }
 
   record ChannelAction(
-      Instant at,
+      long atEpochMs,
       String channel,
       String from,
       String action,
@@ -145,13 +171,29 @@ public sealed interface IrcEvent
       Map<String, String> ircv3Tags)
       implements IrcEvent {
     public ChannelAction {
+      channel = IrcEventNames.intern(channel);
+      from = IrcEventNames.intern(from);
       messageId = normalizeMessageId(messageId);
       ircv3Tags = normalizeIrcv3Tags(ircv3Tags);
     }
 
+    public ChannelAction(
+        Instant at,
+        String channel,
+        String from,
+        String action,
+        String messageId,
+        Map<String, String> ircv3Tags) {
+      this(epochMs(at), channel, from, action, messageId, ircv3Tags);
+    }
+
     public ChannelAction(Instant at, String channel, String from, String action) {
       this(at, channel, from, action, "", Map.of());
     }
+
+    public Instant at() {
+      return instant(atEpochMs);
+    }
   }
 
   enum ChannelModeKind {
@@ -187,33 +229,53 @@ public sealed interface IrcEvent
   record ChannelTopicUpdated(Instant at, String channel, String topic) implements IrcEvent {}
 
   record PrivateMessage(
-      Instant at, String from, String text, String messageId, Map<String, String> ircv3Tags)
+      long atEpochMs, String from, String text, String messageId, Map<String, String> ircv3Tags)
       implements IrcEvent {
     public PrivateMessage {
+      from = IrcEventNames.intern(from);
       messageId = normalizeMessageId(messageId);
       ircv3Tags = normalizeIrcv3Tags(ircv3Tags);
     }
 
+    public PrivateMessage(
+        Instant at, String from, String text, String messageId, Map<String, String> ircv3Tags) {
+      this(epochMs(at), from, text, messageId, ircv3Tags);
+    }
+
     public PrivateMessage(Instant at, String from, String text) {
       this(at, from, text, "", Map.of());
     }
+
+    public Instant at() {
+      return instant(atEpochMs);
+    }
   }
 
   record PrivateAction(
-      Instant at, String from, String action, String messageId, Map<String, String> ircv3Tags)
+      long atEpochMs, String from, String action, String messageId, Map<String, String> ircv3Tags)
       implements IrcEvent {
     public PrivateAction {
+      from = IrcEventNames.intern(from);
       messageId = normalizeMessageId(messageId);
       ircv3Tags = normalizeIrcv3Tags(ircv3Tags);
     }
 
+    public PrivateAction(
+        Instant at, String from, String action, String messageId, Map<String, String> ircv3Tags) {
+      this(epochMs(at), from, action, messageId, ircv3Tags);
+    }
+
     public PrivateAction(Instant at, String from, String action) {
       this(at, from, action, "", Map.of());
     }
+
+    public Instant at() {
+      return instant(atEpochMs);
+    }
   }
 
   record Notice(
-      Instant at,
+      long atEpochMs,
       String from,
       String target,
       String text,
@@ -221,13 +283,29 @@ public sealed interface IrcEvent
       Map<String, String> ircv3Tags)
       implements IrcEvent {
     public Notice {
+      from = IrcEventNames.intern(from);
+      target = IrcEventNames.intern(target);
       messageId = normalizeMessageId(messageId);
       ircv3Tags = normalizeIrcv3Tags(ircv3Tags);
     }
 
+    public Notice(
+        Instant at,
+        String from,
+        String target,
+        String text,
+        String messageId,
+        Map<String, String> ircv3Tags) {
+      this(epochMs(at), from, target, text, messageId, ircv3Tags);
+    }
+
     public Notice(Instant at, String from, String target, String text) {
       this(at, from, target, text, "", Map.of());
     }
+
+    public Instant at() {
+      return instant(atEpochMs);
+    }
   }
 
   record WallopsReceived(Instant at, String from, String text) implements IrcEvent {}
@@ -326,10 +404,19 @@ public sealed interface IrcEvent
   /** Warns the UI once when IRCv3 {@code server-time} is not negotiated on this connection. */
   record ServerTimeNotNegotiated(Instant at, String message) implements IrcEvent {}
 
-  /** A collected IRCv3 {@code CHATHISTORY} batch. */
+  /**
+   * A collected IRCv3 {@code CHATHISTORY} batch. Batch ids starting with {@link
+   * #PREFETCH_BATCH_ID_PREFIX} mark backlog fetched in the background rather than on request.
+   */
   record ChatHistoryBatchReceived(
       Instant at, String target, String batchId, List<ChatHistoryEntry> entries)
-      implements IrcEvent {}
+      implements IrcEvent {
+    public static final String PREFETCH_BATCH_ID_PREFIX = "prefetch:";
+
+    public boolean isPrefetch() {
+      return batchId != null && batchId.startsWith(PREFETCH_BATCH_ID_PREFIX);
+    }
+  }
 
   /**
    * A collected ZNC playback window.
@@ -352,10 +439,20 @@ public sealed interface IrcEvent
 
   record AwayStatusChanged(Instant at, boolean away, String message) implements IrcEvent {}
 
-  record UserJoinedChannel(Instant at, String channel, String nick) implements IrcEvent {}
+  record UserJoinedChannel(Instant at, String channel, String nick) implements IrcEvent {
+    public UserJoinedChannel {
+      channel = IrcEventNames.intern(channel);
+      nick = IrcEventNames.intern(nick);
+    }
+  }
 
   record UserPartedChannel(Instant at, String channel, String nick, String reason)
-      implements IrcEvent {}
+      implements IrcEvent {
+    public UserPartedChannel {
+      channel = IrcEventNames.intern(channel);
+      nick = IrcEventNames.intern(nick);
+    }
+  }
 
   /** Local user parted a channel (server-confirmed). */
   record LeftChannel(Instant at, String channel, String reason) implements IrcEvent {}
@@ -390,12 +487,25 @@ public sealed interface IrcEvent
   }
 
   record UserQuitChannel(Instant at, String channel, String nick, String reason)
-      implements IrcEvent {}
+      implements IrcEvent {
+    public UserQuitChannel {
+      channel = IrcEventNames.intern(channel);
+      nick = IrcEventNames.intern(nick);
+    }
+  }
 
   record UserNickChangedChannel(Instant at, String channel, String oldNick, String newNick)
       implements IrcEvent {}
 
-  record JoinedChannel(Instant at, String channel) implements IrcEvent {}
+  /**
+   * We joined {@code channel}. {@code rosterDeferred} means the server sends no implicit NAMES
+   * ({@code draft/no-implicit-names}), so the roster must be requested when it is needed.
+   */
+  record JoinedChannel(Instant at, String channel, boolean rosterDeferred) implements IrcEvent {
+    public JoinedChannel(Instant at, String channel) {
+      this(at, channel, false);
+    }
+  }
 
   /**
    * Server redirected a channel join attempt to another channel (typically numeric 470 / +L).
@@ -478,6 +588,30 @@ public sealed interface IrcEvent
       Instant at, String channel, List<NickInfo> nicks, int totalUsers, int operatorCount)
       implements IrcEvent {}
 
+  /**
+   * One incremental change to a channel roster (join/part/kick/quit, nick change, status mode).
+   *
+   * <p>Full {@link NickListUpdated} snapshots are still sent on NAMES completion and resync; these
+   * cover the traffic in between. {@code nick} is the entry the change applies to (the old nick for
+   * {@link RosterChange#RENAMED}) and {@code info} is the resulting entry, null for {@link
+   * RosterChange#REMOVED}. {@code prefixOrder} is the server's status prefix order, highest first,
+   * so consumers can keep the roster sorted the same way snapshots are.
+   */
+  record RosterDelta(
+      Instant at,
+      String channel,
+      RosterChange change,
+      String nick,
+      NickInfo info,
+      String prefixOrder)
+      implements IrcEvent {
+    public RosterDelta {
+      channel = IrcEventNames.intern(channel);
+      nick = IrcEventNames.intern(Objects.toString(nick, "").trim());
+      prefixOrder = Objects.toString(prefixOrder, "");
+    }
+  }
+
   /** Opportunistically observed a user's hostmask in the wild (e.g. */
   record UserHostmaskObserved(Instant at, String channel, String nick, String hostmask)
       implements IrcEvent {}
@@ -568,11 +702,22 @@ public sealed interface IrcEvent
 
   /** Observed IRCv3 typing indicator (typically from +typing tag). */
   record UserTypingObserved(Instant at, String from, String target, String state)
-      implements IrcEvent {}
+      implements IrcEvent {
+    public UserTypingObserved {
+      from = IrcEventNames.intern(from);
+      target = IrcEventNames.intern(target);
+      state = IrcEventNames.intern(state);
+    }
+  }
 
   /** Observed IRCv3 read marker signal (draft/read-marker or MARKREAD). */
   record ReadMarkerObserved(Instant at, String from, String target, String marker)
-      implements IrcEvent {}
+      implements IrcEvent {
+    public ReadMarkerObserved {
+      from = IrcEventNames.intern(from);
+      target = IrcEventNames.intern(target);
+    }
+  }
 
   /** Observed IRCv3 draft/reply tag. */
   record MessageReplyObserved(Instant at, String from, String target, String replyToMsgId)
@@ -645,24 +790,21 @@ public sealed interface IrcEvent
   }
 
   private static Map<String, String> normalizeIrcv3Tags(Map<String, String> raw) {
-    if (raw == null || raw.isEmpty()) return Map.of();
-    LinkedHashMap<String, String> out = new LinkedHashMap<>();
-    for (Map.Entry<String, String> e : raw.entrySet()) {
-      String key = normalizeTagKey(e.getKey());
-      if (key.isEmpty()) continue;
-      String val = (e.getValue() == null) ? "" : e.getValue();
-      out.put(key, val);
-    }
-    if (out.isEmpty()) return Map.of();
-    return java.util.Collections.unmodifiableMap(out);
-  }
-
-  private static String normalizeTagKey(String rawKey) {
-    String k = (rawKey == null) ? "" : rawKey.trim();
-    if (k.startsWith("@")) k = k.substring(1).trim();
-    if (k.startsWith("+")) k = k.substring(1).trim();
-    if (k.isEmpty()) return "";
-    return k.toLowerCase(Locale.ROOT);
+    // Keeps the lazy raw-line views and shared tag sets from Ircv3Tags instead of copying them.
+    return Ircv3Tags.normalizeTags(raw);
+  }
+
+  /**
+   * Chat-line records keep their timestamp as epoch millis rather than an {@link Instant} object,
+   * which buffered playback bursts would otherwise carry once per line. {@code null} maps to {@link
+   * Long#MIN_VALUE} so {@code at()} still answers {@code null}.
+   */
+  private static long epochMs(Instant at) {
+    return at == null ? Long.MIN_VALUE : at.toEpochMilli();
+  }
+
+  private static Instant instant(long epochMs) {
+    return epochMs == Long.MIN_VALUE ? null : Instant.ofEpochMilli(epochMs);
   }
 
   private static List<String> normalizeNickList(List<String> rawNicks) {
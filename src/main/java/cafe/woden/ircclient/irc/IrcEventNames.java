@@ -0,0 +1,25 @@
+package cafe.woden.ircclient.irc;
+
+import cafe.woden.ircclient.util.BoundedInterner;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pool for the server ids, channel names and nicks carried by {@link IrcEvent} records.
+ *
+ * <p>Every backend builds its events through the record constructors, so interning there covers
+ * the PircBotX, Quassel and Matrix paths alike: a buffered burst from one channel holds one copy of
+ * the channel name and of each sender's nick instead of one per line.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class IrcEventNames {
+
+  private static final int MAX_POOLED_LENGTH = 64;
+  private static final BoundedInterner<String> NAMES = new BoundedInterner<>(8_192);
+
+  /** Pooled instance of {@code name}; long or absent values are returned unchanged. */
+  static String intern(String name) {
+    if (name == null || name.isEmpty() || name.length() > MAX_POOLED_LENGTH) return name;
+    return NAMES.intern(name);
+  }
+}
@@ -0,0 +1,558 @@
+package cafe.woden.ircclient.irc;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.FlowableSubscriber;
+import io.reactivex.rxjava3.core.FlowableTransformer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded per-server buffer for backend event streams, used instead of an unbounded {@code
+ * onBackpressureBuffer()} between a backend and slower consumers (ultimately the EDT).
+ *
+ * <p>While the consumer keeps up nothing is queued. When it falls behind, each server's queue
+ * applies an overload policy instead of growing without limit:
+ *
+ * <ul>
+ *   <li>roster snapshots, typing, read markers and presence observations are coalesced: a newer
+ *       event for the same channel or nick replaces the queued one, and a roster snapshot also
+ *       drops the roster deltas queued before it;
+ *   <li>once a server is over its event or byte limit, its queued typing and read-marker events
+ *       are shed, and new ones are dropped until the queue drains;
+ *   <li>everything else, chat lines in particular, is always delivered. While a server is over
+ *       its limits, newly queued chat lines and history batches are written to a temporary spill
+ *       file (see {@link ServerEventSpill}) and only a small placeholder stays in memory; they are
+ *       read back in order when their turn comes.
+ * </ul>
+ *
+ * <p>The memory a stalled server can pin is therefore bounded by its limits, plus non-chat events
+ * that cannot be coalesced and a small placeholder per spilled line. Each subscriber gets its own
+ * queue and spill file; {@link #backlog} reports the most delayed one.
+ */
+public final class ServerEventBuffer
+    implements FlowableTransformer<ServerIrcEvent, ServerIrcEvent> {
+  private static final Logger log = LoggerFactory.getLogger(ServerEventBuffer.class);
+
+  private static final long BASE_EVENT_BYTES = 160L;
+  private static final long ENTRY_BYTES = 96L;
+  private static final int MIN_TOMBSTONES_TO_COMPACT = 256;
+  private static final long SPILLED_SLOT_BYTES = 64L;
+
+  /** Per-server queue limits; reaching either one starts shedding low-value events. */
+  public record Limits(int maxEvents, long maxBytes) {
+    public Limits {
+      if (maxEvents <= 0) maxEvents = 10_000;
+      if (maxBytes <= 0) maxBytes = 16L * 1024 * 1024;
+    }
+
+    public static Limits defaults() {
+      return new Limits(10_000, 16L * 1024 * 1024);
+    }
+  }
+
+  /**
+   * Point-in-time view of one server's queue. {@code oldestQueuedMs} is how long the event at the
+   * head of the queue has been waiting; the counters are totals since the subscription started.
+   */
+  public record Backlog(
+      String serverId,
+      int queuedEvents,
+      long queuedBytes,
+      long oldestQueuedMs,
+      long shedEvents,
+      long coalescedEvents,
+      int spilledEvents) {
+    public boolean isEmpty() {
+      return queuedEvents == 0;
+    }
+  }
+
+  private final Limits limits;
+  private final LongSupplier nanoClock;
+  private final Path spillDir;
+  private final Set<BufferSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+  public ServerEventBuffer(Limits limits) {
+    this(limits, System::nanoTime, null);
+  }
+
+  /** {@code spillDir} is where overflow chat lines go; null uses the system temp directory. */
+  ServerEventBuffer(Limits limits, LongSupplier nanoClock, Path spillDir) {
+    this.limits = Objects.requireNonNullElseGet(limits, Limits::defaults);
+    this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock");
+    this.spillDir = spillDir;
+  }
+
+  @Override
+  public Publisher<ServerIrcEvent> apply(Flowable<ServerIrcEvent> upstream) {
+    return upstream.lift(BufferSubscriber::new);
+  }
+
+  /** The most delayed subscriber's queue for {@code serverId}, if that server has sent events. */
+  public Optional<Backlog> backlog(String serverId) {
+    String sid = Objects.toString(serverId, "").trim();
+    if (sid.isEmpty()) return Optional.empty();
+    long now = nanoClock.getAsLong();
+    Backlog worst = null;
+    for (BufferSubscriber subscriber : subscribers) {
+      Backlog backlog = subscriber.backlog(sid, now);
+      if (backlog == null) continue;
+      if (worst == null
+          || backlog.oldestQueuedMs() > worst.oldestQueuedMs()
+          || (backlog.oldestQueuedMs() == worst.oldestQueuedMs()
+              && backlog.queuedEvents() > worst.queuedEvents())) {
+        worst = backlog;
+      }
+    }
+    return Optional.ofNullable(worst);
+  }
+
+  static boolean isSheddable(IrcEvent event) {
+    return event instanceof IrcEvent.UserTypingObserved
+        || event instanceof IrcEvent.ReadMarkerObserved;
+  }
+
+  /** Key under which a newer event supersedes a queued one, or null if the event never does. */
+  static String coalesceKey(IrcEvent event) {
+    return switch (event) {
+      case IrcEvent.NickListUpdated e -> key("roster", e.channel());
+      case IrcEvent.UserTypingObserved e -> key("typing", e.from(), e.target());
+      case IrcEvent.ReadMarkerObserved e -> key("read", e.from(), e.target());
+      case IrcEvent.UserAwayStateObserved e -> key("away", e.nick());
+      case IrcEvent.UserAccountStateObserved e -> key("account", e.nick());
+      case IrcEvent.UserHostmaskObserved e -> key("hostmask", e.channel(), e.nick());
+      case IrcEvent.UserSetNameObserved e -> key("realname", e.nick());
+      default -> null;
+    };
+  }
+
+  /** Rough retained size of an event, dominated by message text and list payloads. */
+  static long estimateBytes(IrcEvent event) {
+    return BASE_EVENT_BYTES
+        + switch (event) {
+          case IrcEvent.ChannelMessage e -> chars(e.text());
+          case IrcEvent.ChannelAction e -> chars(e.action());
+          case IrcEvent.PrivateMessage e -> chars(e.text());
+          case IrcEvent.PrivateAction e -> chars(e.action());
+          case IrcEvent.Notice e -> chars(e.text());
+          case IrcEvent.ServerResponseLine e -> chars(e.message()) + chars(e.rawLine());
+          case IrcEvent.NickListUpdated e -> entries(e.nicks()) * ENTRY_BYTES;
+          case IrcEvent.ChatHistoryBatchReceived e -> historyBytes(e.entries());
+          case IrcEvent.ZncPlaybackBatchReceived e -> historyBytes(e.entries());
+          default -> 0L;
+        };
+  }
+
+  private static String key(String kind, String... parts) {
+    StringBuilder sb = new StringBuilder(kind);
+    for (String part : parts) {
+      sb.append('\u0000').append(Objects.toString(part, "").toLowerCase(Locale.ROOT));
+    }
+    return sb.toString();
+  }
+
+  private static long chars(String value) {
+    return value == null ? 0L : value.length();
+  }
+
+  private static long entries(List<?> list) {
+    return list == null ? 0L : list.size();
+  }
+
+  private static long historyBytes(List<ChatHistoryEntry> entries) {
+    if (entries == null) return 0L;
+    long bytes = 0L;
+    for (ChatHistoryEntry entry : entries) {
+      bytes += ENTRY_BYTES + (entry == null ? 0L : chars(entry.text()));
+    }
+    return bytes;
+  }
+
+  private static final class Slot {
+    ServerIrcEvent event;
+    ServerEventSpill.Ref spilled;
+    final ServerQueue server;
+    final String key;
+    final boolean sheddable;
+    final boolean rosterDelta;
+    long bytes;
+    final long enqueuedNanos;
+    boolean live = true;
+
+    Slot(ServerIrcEvent event, ServerQueue server, String key, long enqueuedNanos) {
+      this.event = event;
+      this.server = server;
+      this.key = key;
+      this.sheddable = isSheddable(event.event());
+      this.rosterDelta = event.event() instanceof IrcEvent.RosterDelta;
+      this.bytes = estimateBytes(event.event());
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+
+  private static final class ServerQueue {
+    final String serverId;
+    final ArrayDeque<Slot> slots = new ArrayDeque<>();
+    final Map<String, Slot> latestByKey = new HashMap<>();
+    int events;
+    long bytes;
+    int sheddableQueued;
+    int rosterDeltasQueued;
+    int spilledQueued;
+    long shed;
+    long coalesced;
+    boolean overloaded;
+
+    ServerQueue(String serverId) {
+      this.serverId = serverId;
+    }
+  }
+
+  private final class BufferSubscriber
+      implements FlowableSubscriber<ServerIrcEvent>, Subscription {
+    private final Subscriber<? super ServerIrcEvent> downstream;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // Guarded by this.
+    private final ArrayDeque<Slot> queue = new ArrayDeque<>();
+    private final Map<String, ServerQueue> servers = new HashMap<>();
+    private final ServerEventSpill spill = new ServerEventSpill(spillDir);
+    private boolean spillFailed;
+    private int tombstones;
+
+    private Subscription upstream;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private Throwable error;
+
+    BufferSubscriber(Subscriber<? super ServerIrcEvent> downstream) {
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+      if (upstream != null) {
+        s.cancel();
+        return;
+      }
+      upstream = s;
+      subscribers.add(this);
+      downstream.onSubscribe(this);
+      s.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(ServerIrcEvent event) {
+      if (done || event == null) return;
+      synchronized (this) {
+        enqueueLocked(event);
+      }
+      drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      if (done) return;
+      error = t;
+      done = true;
+      drain();
+    }
+
+    @Override
+    public void onComplete() {
+      if (done) return;
+      done = true;
+      drain();
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0L) return;
+      requested.getAndUpdate(r -> r + n < 0L ? Long.MAX_VALUE : r + n);
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      if (cancelled) return;
+      cancelled = true;
+      upstream.cancel();
+      subscribers.remove(this);
+      if (wip.getAndIncrement() == 0) clear();
+    }
+
+    synchronized Backlog backlog(String serverId, long nowNanos) {
+      ServerQueue server = servers.get(serverId);
+      if (server == null) return null;
+      Slot head = firstLiveLocked(server);
+      long oldestMs =
+          head == null ? 0L : TimeUnit.NANOSECONDS.toMillis(nowNanos - head.enqueuedNanos);
+      return new Backlog(
+          server.serverId,
+          server.events,
+          server.bytes,
+          Math.max(0L, oldestMs),
+          server.shed,
+          server.coalesced,
+          server.spilledQueued);
+    }
+
+    private void enqueueLocked(ServerIrcEvent event) {
+      ServerQueue server = servers.computeIfAbsent(event.serverId(), ServerQueue::new);
+      IrcEvent payload = event.event();
+      if (isSheddable(payload) && isOver(server)) {
+        server.shed++;
+        return;
+      }
+
+      String key = coalesceKey(payload);
+      if (key != null) {
+        Slot previous = server.latestByKey.get(key);
+        if (previous != null && previous.live) {
+          removeLocked(previous);
+          server.coalesced++;
+        }
+      }
+      if (payload instanceof IrcEvent.NickListUpdated snapshot && server.rosterDeltasQueued > 0) {
+        dropRosterDeltasLocked(server, snapshot.channel());
+      }
+
+      Slot slot = new Slot(event, server, key, nanoClock.getAsLong());
+      queue.addLast(slot);
+      server.slots.addLast(slot);
+      server.events++;
+      server.bytes += slot.bytes;
+      if (slot.sheddable) server.sheddableQueued++;
+      if (slot.rosterDelta) server.rosterDeltasQueued++;
+      if (key != null) server.latestByKey.put(key, slot);
+
+      if (isOver(server)) {
+        shedLocked(server);
+        if (isOver(server)) spillLocked(slot);
+      }
+      if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones > queue.size() / 2) {
+        compactLocked();
+      }
+    }
+
+    private void shedLocked(ServerQueue server) {
+      if (server.sheddableQueued > 0) {
+        for (Slot slot : server.slots) {
+          if (!slot.live || !slot.sheddable) continue;
+          removeLocked(slot);
+          server.shed++;
+        }
+      }
+      if (!server.overloaded && isOver(server)) {
+        server.overloaded = true;
+        log.warn(
+            "[{}] Event stream is behind: {} events ({} KiB) queued; typing and read markers are"
+                + " being dropped",
+            server.serverId,
+            server.events,
+            server.bytes / 1024L);
+      }
+    }
+
+    /** Moves a chat line of an over-limit server out to the spill file, keeping its place. */
+    private void spillLocked(Slot slot) {
+      if (spillFailed || !ServerEventSpill.canSpill(slot.event.event())) return;
+      try {
+        slot.spilled = spill.write(slot.event.event());
+      } catch (IOException | RuntimeException e) {
+        spillFailed = true;
+        log.warn(
+            "[{}] Could not spill queued chat lines to disk; keeping them in memory",
+            slot.server.serverId,
+            e);
+        return;
+      }
+      slot.event = null;
+      ServerQueue server = slot.server;
+      server.bytes -= slot.bytes - SPILLED_SLOT_BYTES;
+      slot.bytes = SPILLED_SLOT_BYTES;
+      server.spilledQueued++;
+    }
+
+    private ServerIrcEvent eventOf(Slot slot) {
+      if (slot.spilled == null) return slot.event;
+      try {
+        return new ServerIrcEvent(slot.server.serverId, spill.read(slot.spilled));
+      } catch (IOException | RuntimeException e) {
+        log.error("[{}] Lost a spilled chat line", slot.server.serverId, e);
+        return null;
+      }
+    }
+
+    private void dropRosterDeltasLocked(ServerQueue server, String channel) {
+      for (Slot slot : server.slots) {
+        if (!slot.live || !slot.rosterDelta) continue;
+        IrcEvent.RosterDelta delta = (IrcEvent.RosterDelta) slot.event.event();
+        if (!Objects.toString(delta.channel(), "").equalsIgnoreCase(channel)) continue;
+        removeLocked(slot);
+        server.coalesced++;
+      }
+    }
+
+    private Slot pollLocked() {
+      Slot slot;
+      while ((slot = queue.pollFirst()) != null && !slot.live) {
+        tombstones--;
+      }
+      if (slot == null) return null;
+
+      ServerQueue server = slot.server;
+      // Anything ahead of the delivered slot in its server's queue was already removed.
+      Slot head = server.slots.pollFirst();
+      while (head != null && head != slot) {
+        head = server.slots.pollFirst();
+      }
+      unaccountLocked(slot);
+      if (server.overloaded
+          && server.events <= limits.maxEvents() / 2
+          && server.bytes <= limits.maxBytes() / 2) {
+        server.overloaded = false;
+        log.info(
+            "[{}] Event stream caught up ({} events shed so far)", server.serverId, server.shed);
+      }
+      return slot;
+    }
+
+    private void removeLocked(Slot slot) {
+      unaccountLocked(slot);
+      tombstones++;
+      if (slot.spilled != null) {
+        try {
+          spill.release();
+        } catch (IOException e) {
+          log.debug("[{}] Could not truncate the event spill file", slot.server.serverId, e);
+        }
+      }
+    }
+
+    private void unaccountLocked(Slot slot) {
+      slot.live = false;
+      ServerQueue server = slot.server;
+      server.events--;
+      server.bytes -= slot.bytes;
+      if (slot.sheddable) server.sheddableQueued--;
+      if (slot.rosterDelta) server.rosterDeltasQueued--;
+      if (slot.key != null && server.latestByKey.get(slot.key) == slot) {
+        server.latestByKey.remove(slot.key);
+      }
+      if (slot.spilled != null) server.spilledQueued--;
+    }
+
+    private Slot firstLiveLocked(ServerQueue server) {
+      Slot head;
+      while ((head = server.slots.peekFirst()) != null && !head.live) {
+        server.slots.pollFirst();
+      }
+      return head;
+    }
+
+    private void compactLocked() {
+      queue.removeIf(slot -> !slot.live);
+      for (ServerQueue server : servers.values()) {
+        server.slots.removeIf(slot -> !slot.live);
+      }
+      tombstones = 0;
+    }
+
+    private boolean isOver(ServerQueue server) {
+      return server.events >= limits.maxEvents() || server.bytes >= limits.maxBytes();
+    }
+
+    private synchronized boolean isEmpty() {
+      return queue.size() == tombstones;
+    }
+
+    private synchronized void clear() {
+      queue.clear();
+      servers.clear();
+      tombstones = 0;
+      spill.close();
+    }
+
+    private void drain() {
+      if (wip.getAndIncrement() != 0) return;
+      int missed = 1;
+      for (; ; ) {
+        long r = requested.get();
+        long e = 0L;
+        while (e != r) {
+          if (cancelled) {
+            clear();
+            return;
+          }
+          boolean d = done;
+          ServerIrcEvent next;
+          synchronized (this) {
+            Slot slot = pollLocked();
+            if (slot == null) {
+              next = null;
+            } else {
+              next = eventOf(slot);
+              if (next == null) continue;
+            }
+          }
+          if (next == null) {
+            if (d) {
+              terminate();
+              return;
+            }
+            break;
+          }
+          downstream.onNext(next);
+          e++;
+        }
+
+        if (e == r) {
+          if (cancelled) {
+            clear();
+            return;
+          }
+          if (done && isEmpty()) {
+            terminate();
+            return;
+          }
+        }
+
+        if (e != 0L && r != Long.MAX_VALUE) requested.addAndGet(-e);
+        missed = wip.addAndGet(-missed);
+        if (missed == 0) break;
+      }
+    }
+
+    private void terminate() {
+      cancelled = true;
+      subscribers.remove(this);
+      clear();
+      Throwable t = error;
+      if (t != null) {
+        downstream.onError(t);
+      } else {
+        downstream.onComplete();
+      }
+    }
+  }
+}
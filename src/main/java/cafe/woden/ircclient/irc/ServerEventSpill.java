@@ -0,0 +1,314 @@
+package cafe.woden.ircclient.irc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Temporary file holding chat lines that a {@link ServerEventBuffer} queue cannot keep in memory.
+ *
+ * <p>Only chat-line and history events are written here: they are the events the buffer never
+ * drops, and the only ones whose payload grows with the traffic. Records are appended and read
+ * back by offset; the file is truncated whenever nothing spilled is left queued, and deleted on
+ * {@link #close()}.
+ */
+final class ServerEventSpill implements AutoCloseable {
+
+  private static final int CHANNEL_MESSAGE = 1;
+  private static final int CHANNEL_ACTION = 2;
+  private static final int PRIVATE_MESSAGE = 3;
+  private static final int PRIVATE_ACTION = 4;
+  private static final int NOTICE = 5;
+  private static final int CHAT_HISTORY = 6;
+  private static final int ZNC_PLAYBACK = 7;
+
+  /** Where a spilled event lives in the file. */
+  record Ref(long offset, int length) {}
+
+  private final Path dir;
+  private FileChannel channel;
+  private Path file;
+  private long writePos;
+  private int live;
+
+  ServerEventSpill(Path dir) {
+    this.dir = dir;
+  }
+
+  static boolean canSpill(IrcEvent event) {
+    return event instanceof IrcEvent.ChannelMessage
+        || event instanceof IrcEvent.ChannelAction
+        || event instanceof IrcEvent.PrivateMessage
+        || event instanceof IrcEvent.PrivateAction
+        || event instanceof IrcEvent.Notice
+        || event instanceof IrcEvent.ChatHistoryBatchReceived
+        || event instanceof IrcEvent.ZncPlaybackBatchReceived;
+  }
+
+  /** Appends {@code event}, which must satisfy {@link #canSpill}. */
+  Ref write(IrcEvent event) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      encode(event, out);
+    }
+    ByteBuffer buf = ByteBuffer.wrap(bytes.toByteArray());
+    FileChannel ch = channel();
+    Ref ref = new Ref(writePos, buf.remaining());
+    long pos = writePos;
+    while (buf.hasRemaining()) {
+      pos += ch.write(buf, pos);
+    }
+    writePos = pos;
+    live++;
+    return ref;
+  }
+
+  /** Reads a spilled event back; once the last live one is read the file is truncated. */
+  IrcEvent read(Ref ref) throws IOException {
+    ByteBuffer buf = ByteBuffer.allocate(ref.length());
+    long pos = ref.offset();
+    while (buf.hasRemaining()) {
+      int n = channel.read(buf, pos);
+      if (n < 0) throw new IOException("Event spill file is truncated");
+      pos += n;
+    }
+    IrcEvent event;
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(buf.array()))) {
+      event = decode(in);
+    }
+    release();
+    return event;
+  }
+
+  /** Forgets a spilled event that will never be read (dropped or coalesced away). */
+  void release() throws IOException {
+    if (--live > 0) return;
+    live = 0;
+    writePos = 0L;
+    if (channel != null) channel.truncate(0L);
+  }
+
+  int liveCount() {
+    return live;
+  }
+
+  @Override
+  public void close() {
+    live = 0;
+    writePos = 0L;
+    try {
+      if (channel != null) channel.close();
+      if (file != null) Files.deleteIfExists(file);
+    } catch (IOException ignored) {
+    } finally {
+      channel = null;
+      file = null;
+    }
+  }
+
+  private FileChannel channel() throws IOException {
+    if (channel == null) {
+      Path f =
+          dir == null
+              ? Files.createTempFile("ircafe-events-", ".spill")
+              : Files.createTempFile(Files.createDirectories(dir), "ircafe-events-", ".spill");
+      channel =
+          FileChannel.open(
+              f,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.DELETE_ON_CLOSE);
+      file = f;
+    }
+    return channel;
+  }
+
+  private static void encode(IrcEvent event, DataOutputStream out) throws IOException {
+    switch (event) {
+      case IrcEvent.ChannelMessage e -> {
+        out.writeByte(CHANNEL_MESSAGE);
+        out.writeLong(e.atEpochMs());
+        writeStrings(out, e.channel(), e.from(), e.text(), e.messageId());
+        writeTags(out, e.ircv3Tags());
+      }
+      case IrcEvent.ChannelAction e -> {
+        out.writeByte(CHANNEL_ACTION);
+        out.writeLong(e.atEpochMs());
+        writeStrings(out, e.channel(), e.from(), e.action(), e.messageId());
+        writeTags(out, e.ircv3Tags());
+      }
+      case IrcEvent.PrivateMessage e -> {
+        out.writeByte(PRIVATE_MESSAGE);
+        out.writeLong(e.atEpochMs());
+        writeStrings(out, e.from(), e.text(), e.messageId());
+        writeTags(out, e.ircv3Tags());
+      }
+      case IrcEvent.PrivateAction e -> {
+        out.writeByte(PRIVATE_ACTION);
+        out.writeLong(e.atEpochMs());
+        writeStrings(out, e.from(), e.action(), e.messageId());
+        writeTags(out, e.ircv3Tags());
+      }
+      case IrcEvent.Notice e -> {
+        out.writeByte(NOTICE);
+        out.writeLong(e.atEpochMs());
+        writeStrings(out, e.from(), e.target(), e.text(), e.messageId());
+        writeTags(out, e.ircv3Tags());
+      }
+      case IrcEvent.ChatHistoryBatchReceived e -> {
+        out.writeByte(CHAT_HISTORY);
+        writeInstant(out, e.at());
+        writeStrings(out, e.target(), e.batchId());
+        writeEntries(out, e.entries());
+      }
+      case IrcEvent.ZncPlaybackBatchReceived e -> {
+        out.writeByte(ZNC_PLAYBACK);
+        writeInstant(out, e.at());
+        writeStrings(out, e.target());
+        writeInstant(out, e.fromInclusive());
+        writeInstant(out, e.toInclusive());
+        writeEntries(out, e.entries());
+      }
+      default ->
+          throw new IllegalArgumentException(
+              "Event cannot be spilled: " + event.getClass().getSimpleName());
+    }
+  }
+
+  private static IrcEvent decode(DataInputStream in) throws IOException {
+    int kind = in.readUnsignedByte();
+    return switch (kind) {
+      case CHANNEL_MESSAGE ->
+          new IrcEvent.ChannelMessage(
+              in.readLong(),
+              readString(in),
+              readString(in),
+              readString(in),
+              readString(in),
+              readTags(in));
+      case CHANNEL_ACTION ->
+          new IrcEvent.ChannelAction(
+              in.readLong(),
+              readString(in),
+              readString(in),
+              readString(in),
+              readString(in),
+              readTags(in));
+      case PRIVATE_MESSAGE ->
+          new IrcEvent.PrivateMessage(
+              in.readLong(), readString(in), readString(in), readString(in), readTags(in));
+      case PRIVATE_ACTION ->
+          new IrcEvent.PrivateAction(
+              in.readLong(), readString(in), readString(in), readString(in), readTags(in));
+      case NOTICE ->
+          new IrcEvent.Notice(
+              in.readLong(),
+              readString(in),
+              readString(in),
+              readString(in),
+              readString(in),
+              readTags(in));
+      case CHAT_HISTORY ->
+          new IrcEvent.ChatHistoryBatchReceived(
+              readInstant(in), readString(in), readString(in), readEntries(in));
+      case ZNC_PLAYBACK ->
+          new IrcEvent.ZncPlaybackBatchReceived(
+              readInstant(in), readString(in), readInstant(in), readInstant(in), readEntries(in));
+      default -> throw new IOException("Unknown spilled event kind " + kind);
+    };
+  }
+
+  private static void writeEntries(DataOutputStream out, List<ChatHistoryEntry> entries)
+      throws IOException {
+    List<ChatHistoryEntry> list = entries == null ? List.of() : entries;
+    out.writeInt(list.size());
+    for (ChatHistoryEntry entry : list) {
+      writeInstant(out, entry.at());
+      out.writeByte(entry.kind().ordinal());
+      writeStrings(out, entry.target(), entry.from(), entry.text(), entry.messageId());
+      writeTags(out, entry.ircv3Tags());
+    }
+  }
+
+  private static List<ChatHistoryEntry> readEntries(DataInputStream in) throws IOException {
+    int n = in.readInt();
+    ArrayList<ChatHistoryEntry> out = new ArrayList<>(n);
+    ChatHistoryEntry.Kind[] kinds = ChatHistoryEntry.Kind.values();
+    for (int i = 0; i < n; i++) {
+      out.add(
+          new ChatHistoryEntry(
+              readInstant(in),
+              kinds[in.readUnsignedByte()],
+              readString(in),
+              readString(in),
+              readString(in),
+              readString(in),
+              readTags(in)));
+    }
+    return List.copyOf(out);
+  }
+
+  private static void writeTags(DataOutputStream out, Map<String, String> tags)
+      throws IOException {
+    Map<String, String> map = tags == null ? Map.of() : tags;
+    out.writeInt(map.size());
+    for (Map.Entry<String, String> e : map.entrySet()) {
+      writeStrings(out, e.getKey(), e.getValue());
+    }
+  }
+
+  private static Map<String, String> readTags(DataInputStream in) throws IOException {
+    int n = in.readInt();
+    if (n == 0) return Map.of();
+    LinkedHashMap<String, String> out = new LinkedHashMap<>();
+    for (int i = 0; i < n; i++) {
+      out.put(readString(in), readString(in));
+    }
+    return out;
+  }
+
+  private static void writeInstant(DataOutputStream out, Instant at) throws IOException {
+    out.writeBoolean(at != null);
+    if (at != null) {
+      out.writeLong(at.getEpochSecond());
+      out.writeInt(at.getNano());
+    }
+  }
+
+  private static Instant readInstant(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) return null;
+    return Instant.ofEpochSecond(in.readLong(), in.readInt());
+  }
+
+  private static void writeStrings(DataOutputStream out, String... values) throws IOException {
+    for (String value : values) {
+      out.writeBoolean(value != null);
+      // writeUTF caps at 64 KiB of modified UTF-8, which a long history line could exceed.
+      if (value != null) {
+        byte[] b = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+      }
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) return null;
+    byte[] b = new byte[in.readInt()];
+    in.readFully(b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+}
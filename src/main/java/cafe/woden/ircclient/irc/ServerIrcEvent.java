@@ -10,5 +10,6 @@ public record ServerIrcEvent(String serverId, IrcEvent event) {
     serverId = Objects.requireNonNull(serverId, "serverId").trim();
     Objects.requireNonNull(event, "event");
     if (serverId.isEmpty()) throw new IllegalArgumentException("serverId is blank");
+    serverId = IrcEventNames.intern(serverId);
   }
 }
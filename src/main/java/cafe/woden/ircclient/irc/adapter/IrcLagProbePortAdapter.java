@@ -47,4 +47,9 @@ public class IrcLagProbePortAdapter implements IrcLagProbePort {
   public OptionalLong lastMeasuredLagMs(String serverId) {
     return delegate.lastMeasuredLagMs(serverId);
   }
+
+  @Override
+  public Optional<ServerEventBuffer.Backlog> eventBacklog(String serverId) {
+    return delegate.eventBacklog(serverId);
+  }
 }
@@ -1,6 +1,7 @@
 package cafe.woden.ircclient.irc.backend;
 
 import cafe.woden.ircclient.config.BackendDescriptorCatalog;
+import cafe.woden.ircclient.config.EventStreamProperties;
 import cafe.woden.ircclient.config.InstalledPluginServices;
 import cafe.woden.ircclient.config.IrcProperties;
 import cafe.woden.ircclient.config.ServerCatalog;
@@ -10,6 +11,7 @@ import cafe.woden.ircclient.irc.DisconnectRequestSource;
 import cafe.woden.ircclient.irc.IrcClientService;
 import cafe.woden.ircclient.irc.IrcDisconnectWithSourcePort;
 import cafe.woden.ircclient.irc.IrcEvent;
+import cafe.woden.ircclient.irc.ServerEventBuffer;
 import cafe.woden.ircclient.irc.ServerIrcEvent;
 import cafe.woden.ircclient.irc.playback.IrcBouncerPlaybackPort;
 import cafe.woden.ircclient.irc.quassel.control.QuasselCoreControlPort;
@@ -65,6 +67,7 @@ public class BackendRoutingIrcClientService
   private final List<IrcBackendClientService> backends;
   private final List<URLClassLoader> pluginClassLoaders;
   private final Map<String, String> activeBackendByServer = new ConcurrentHashMap<>();
+  private final ServerEventBuffer eventBuffer;
   private final Flowable<ServerIrcEvent> mergedEvents;
   private final Flowable<QuasselCoreNetworkSnapshotEvent> mergedQuasselNetworkEvents;
 
@@ -73,13 +76,15 @@ public class BackendRoutingIrcClientService
       ServerCatalog serverCatalog,
       InstalledPluginServices installedPluginServices,
       ObjectProvider<BackendMetadataPort> backendMetadataProvider,
+      ObjectProvider<EventStreamProperties> eventStreamPropertiesProvider,
       List<IrcBackendClientService> backendServices) {
     this(
         serverCatalog,
         backendMetadataProvider.getIfAvailable(),
         loadInstalledBackendServices(
             List.copyOf(Objects.requireNonNullElse(backendServices, List.of())),
-            installedPluginServices));
+            installedPluginServices),
+        eventBufferLimits(eventStreamPropertiesProvider.getIfAvailable()));
   }
 
   public BackendRoutingIrcClientService(
@@ -96,32 +101,41 @@ public class BackendRoutingIrcClientService
                 runtimeConfigPathPort == null ? null : runtimeConfigPathPort::runtimeConfigPath,
                 log),
             PluginServiceLoaderSupport.defaultApplicationClassLoader(
-                BackendRoutingIrcClientService.class)));
+                BackendRoutingIrcClientService.class)),
+        ServerEventBuffer.Limits.defaults());
   }
 
   public BackendRoutingIrcClientService(
       ServerCatalog serverCatalog,
       BackendMetadataPort backendMetadata,
       List<IrcBackendClientService> backendServices) {
-    this(serverCatalog, backendMetadata, backendServices, List.of());
+    this(
+        serverCatalog,
+        backendMetadata,
+        backendServices,
+        List.of(),
+        ServerEventBuffer.Limits.defaults());
   }
 
   private BackendRoutingIrcClientService(
       ServerCatalog serverCatalog,
       BackendMetadataPort backendMetadata,
-      LoadedBackendServices loadedBackendServices) {
+      LoadedBackendServices loadedBackendServices,
+      ServerEventBuffer.Limits eventBufferLimits) {
     this(
         serverCatalog,
         backendMetadata,
         Objects.requireNonNull(loadedBackendServices, "loadedBackendServices").services(),
-        loadedBackendServices.pluginClassLoaders());
+        loadedBackendServices.pluginClassLoaders(),
+        eventBufferLimits);
   }
 
   private BackendRoutingIrcClientService(
       ServerCatalog serverCatalog,
       BackendMetadataPort backendMetadata,
       List<IrcBackendClientService> backendServices,
-      List<URLClassLoader> pluginClassLoaders) {
+      List<URLClassLoader> pluginClassLoaders,
+      ServerEventBuffer.Limits eventBufferLimits) {
     this.serverCatalog = Objects.requireNonNull(serverCatalog, "serverCatalog");
     this.backendMetadata =
         Objects.requireNonNullElseGet(backendMetadata, BackendMetadataPort::builtInsOnly);
@@ -165,7 +179,10 @@ public class BackendRoutingIrcClientService
       streams.add(backend.events().doOnNext(event -> noteBackendOwnership(backendId, event)));
       quasselNetworkStreams.add(backend.quasselCoreNetworkEvents());
     }
-    this.mergedEvents = Flowable.merge(streams).onBackpressureBuffer();
+    // The only bounded queue on the event path: the buffer requests everything upstream, so the
+    // backends' own buffers never hold more than what merge has in flight.
+    this.eventBuffer = new ServerEventBuffer(eventBufferLimits);
+    this.mergedEvents = Flowable.merge(streams).compose(eventBuffer);
     this.mergedQuasselNetworkEvents = Flowable.merge(quasselNetworkStreams).onBackpressureBuffer();
   }
 
@@ -187,7 +204,8 @@ public class BackendRoutingIrcClientService
         loadInstalledBackendServices(
             List.copyOf(Objects.requireNonNullElse(builtInBackendServices, List.of())),
             pluginDirectory,
-            applicationClassLoader));
+            applicationClassLoader),
+        ServerEventBuffer.Limits.defaults());
   }
 
   static BackendRoutingIrcClientService installed(
@@ -564,6 +582,11 @@ public class BackendRoutingIrcClientService
     return routeActiveOrConfigured(serverId).lastMeasuredLagMs(serverId);
   }
 
+  @Override
+  public Optional<ServerEventBuffer.Backlog> eventBacklog(String serverId) {
+    return eventBuffer.backlog(serverId);
+  }
+
   @Override
   public Completable sendTyping(String serverId, String target, String state) {
     return routeActiveOrConfigured(serverId).sendTyping(serverId, target, state);
@@ -757,6 +780,13 @@ public class BackendRoutingIrcClientService
         List.of());
   }
 
+  private static ServerEventBuffer.Limits eventBufferLimits(EventStreamProperties properties) {
+    EventStreamProperties.Backpressure backpressure =
+        (properties == null ? EventStreamProperties.defaults() : properties).backpressure();
+    return new ServerEventBuffer.Limits(
+        backpressure.maxEventsPerServer(), backpressure.maxBytesPerServer());
+  }
+
   private record LoadedBackendServices(
       List<IrcBackendClientService> services, List<URLClassLoader> pluginClassLoaders) {}
 }
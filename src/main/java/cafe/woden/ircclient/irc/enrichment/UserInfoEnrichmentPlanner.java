@@ -10,9 +10,11 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -43,6 +45,13 @@ public final class UserInfoEnrichmentPlanner {
   private static final Duration WHO_CHANNEL_MIN_CMD_INTERVAL = Duration.ofSeconds(30);
   private static final int WHO_CHANNEL_MAX_COMMANDS_PER_MINUTE = 2;
   private static final Duration WHO_CHANNEL_TARGET_COOLDOWN = Duration.ofMinutes(10);
+  // WHOX mode: a focused channel is rescanned once its last scan is this old (sooner while its
+  // coverage is still poor), and members a scan left incomplete become USERHOST stragglers once
+  // the replies have had time to arrive.
+  private static final Duration WHOX_RESCAN_AFTER = Duration.ofMinutes(30);
+  private static final Duration WHOX_RESCAN_AFTER_LOW_COVERAGE = WHO_CHANNEL_TARGET_COOLDOWN;
+  private static final int WHOX_LOW_COVERAGE_PERCENT = 90;
+  private static final Duration WHOX_STRAGGLER_GRACE = Duration.ofSeconds(30);
   private static final Duration PROBE_STATE_TTL = Duration.ofHours(24);
   private static final int MAX_TRACKED_TARGET_STATE_PER_KIND = 8_192;
   private static final long NO_WAKE_NEEDED_MS = Long.MAX_VALUE;
@@ -114,6 +123,21 @@ public final class UserInfoEnrichmentPlanner {
     }
   }
 
+  /** Share of a channel's members whose hostmask, away state and account are all known. */
+  public record ChannelCoverage(String channel, int members, int enriched, Instant observedAt) {
+    public ChannelCoverage {
+      Objects.requireNonNull(channel, "channel");
+      Objects.requireNonNull(observedAt, "observedAt");
+      if (members < 0) members = 0;
+      if (enriched < 0) enriched = 0;
+      if (enriched > members) enriched = members;
+    }
+
+    public int percent() {
+      return members == 0 ? 100 : (int) ((enriched * 100L) / members);
+    }
+  }
+
   private final ConcurrentHashMap<String, ServerState> stateByServer = new ConcurrentHashMap<>();
 
   public void clearServer(String serverId) {
@@ -214,6 +238,73 @@ public final class UserInfoEnrichmentPlanner {
     }
   }
 
+  /** Records the latest enrichment coverage for a channel (see {@link ChannelCoverage}). */
+  public void noteChannelCoverage(String serverId, ChannelCoverage coverage) {
+    String sid = norm(serverId);
+    if (sid.isEmpty() || coverage == null || norm(coverage.channel()).isEmpty()) return;
+
+    ServerState st = stateByServer.computeIfAbsent(sid, k -> new ServerState());
+    synchronized (st) {
+      st.coverageByChannelLower.put(coverage.channel().toLowerCase(Locale.ROOT), coverage);
+    }
+  }
+
+  public Optional<ChannelCoverage> channelCoverage(String serverId, String channel) {
+    String sid = norm(serverId);
+    String ch = norm(channel);
+    if (sid.isEmpty() || ch.isEmpty()) return Optional.empty();
+    ServerState st = stateByServer.get(sid);
+    if (st == null) return Optional.empty();
+    synchronized (st) {
+      return Optional.ofNullable(st.coverageByChannelLower.get(ch.toLowerCase(Locale.ROOT)));
+    }
+  }
+
+  /**
+   * True when a WHOX scan of {@code channel} is worth queueing: it was never scanned, or its last
+   * scan is older than the rescan window (shorter while coverage is below 90%).
+   */
+  public boolean isWhoxScanDue(String serverId, String channel, Instant now) {
+    String sid = norm(serverId);
+    String ch = norm(channel);
+    if (sid.isEmpty() || ch.isEmpty() || now == null) return false;
+    ServerState st = stateByServer.get(sid);
+    if (st == null) return true;
+
+    String key = ch.toLowerCase(Locale.ROOT);
+    synchronized (st) {
+      if (st.whoChannel.queue.stream().anyMatch(q -> q.equalsIgnoreCase(ch))) return false;
+      long lastEpochMs = st.whoChannel.lastNickRequestAt.getEpochMillis(key);
+      if (lastEpochMs == MISSING_EPOCH_MILLIS) return true;
+
+      ChannelCoverage coverage = st.coverageByChannelLower.get(key);
+      Duration rescanAfter =
+          coverage != null && coverage.percent() < WHOX_LOW_COVERAGE_PERCENT
+              ? WHOX_RESCAN_AFTER_LOW_COVERAGE
+              : WHOX_RESCAN_AFTER;
+      return !isStillCoolingDown(now.toEpochMilli(), lastEpochMs, rescanAfter);
+    }
+  }
+
+  /**
+   * True once a WHOX scan of {@code channel} has been sent and its replies have had time to land,
+   * so members that are still incomplete are stragglers rather than pending scan results.
+   */
+  public boolean isWhoxScanSettled(String serverId, String channel, Instant now) {
+    String sid = norm(serverId);
+    String ch = norm(channel);
+    if (sid.isEmpty() || ch.isEmpty() || now == null) return false;
+    ServerState st = stateByServer.get(sid);
+    if (st == null) return false;
+
+    String key = ch.toLowerCase(Locale.ROOT);
+    synchronized (st) {
+      long lastEpochMs = st.whoChannel.lastNickRequestAt.getEpochMillis(key);
+      if (lastEpochMs == MISSING_EPOCH_MILLIS) return false;
+      return !isStillCoolingDown(now.toEpochMilli(), lastEpochMs, WHOX_STRAGGLER_GRACE);
+    }
+  }
+
   /**
    * Records completion of a WHOIS probe, allowing the planner to apply staleness/backoff.
    *
@@ -603,6 +694,7 @@ public final class UserInfoEnrichmentPlanner {
     final ProbeState userhost = new ProbeState();
     final ProbeState whois = new ProbeState();
     final RosterCursor roster = new RosterCursor();
+    final Map<String, ChannelCoverage> coverageByChannelLower = new LinkedHashMap<>();
     Instant nextPeriodicAt;
 
     ProbeState state(ProbeKind kind) {
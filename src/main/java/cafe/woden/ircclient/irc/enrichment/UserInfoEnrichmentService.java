@@ -5,6 +5,7 @@ import cafe.woden.ircclient.irc.IrcClientService;
 import cafe.woden.ircclient.irc.IrcEvent;
 import cafe.woden.ircclient.irc.ServerIrcEvent;
 import cafe.woden.ircclient.irc.backend.IrcBackendAvailabilityPort;
+import cafe.woden.ircclient.irc.pircbotx.support.PircbotxUtil;
 import cafe.woden.ircclient.irc.runtime.IrcRuntimeSettings;
 import cafe.woden.ircclient.irc.runtime.IrcRuntimeSettingsProvider;
 import io.reactivex.rxjava3.core.Completable;
@@ -14,6 +15,7 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 import jakarta.annotation.PreDestroy;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -54,6 +56,7 @@ public class UserInfoEnrichmentService {
   private static final String IRCafe_WHOX_TOKEN = "1";
   private static final String IRCafe_WHOX_FIELDS = "%tcuhnaf," + IRCafe_WHOX_TOKEN;
   private static final long NO_WAKE_NEEDED_MS = Long.MAX_VALUE;
+  private static final int MAX_WHOX_STRAGGLERS = 20;
 
   private final IrcClientService irc;
   private final IrcBackendAvailabilityPort backendAvailability;
@@ -233,6 +236,81 @@ public class UserInfoEnrichmentService {
     requestTick(0);
   }
 
+  /**
+   * WHOX-mode enrichment for one channel, driven by a full roster snapshot.
+   *
+   * <p>One {@code WHO <channel> %tcuhnaf} reply fills in hostmask, away state and account for every
+   * member at once, so instead of probing nicks individually this records the channel's coverage
+   * and, when the channel is focused and its last scan is stale, queues a prioritized scan. Once a
+   * scan has settled, members it still left without a hostmask or away state are USERHOSTed as
+   * stragglers.
+   */
+  public void enrichChannelWithWhox(
+      String serverId, String channel, List<IrcEvent.NickInfo> roster, boolean focused) {
+    String sid = norm(serverId);
+    String ch = norm(channel);
+    if (sid.isEmpty() || ch.isEmpty() || roster == null) return;
+    if (!shouldUseWhoxForChannelScan(sid)) return;
+    knownServers.add(sid);
+
+    String self = irc.currentNick(sid).orElse("");
+    int members = 0;
+    int enriched = 0;
+    List<String> stragglers = new ArrayList<>();
+    for (IrcEvent.NickInfo ni : roster) {
+      if (ni == null) continue;
+      String nick = norm(ni.nick());
+      if (nick.isEmpty() || nick.equalsIgnoreCase(self)) continue;
+      members++;
+      boolean hostmaskKnown = PircbotxUtil.isUsefulHostmask(ni.hostmask());
+      boolean awayKnown = ni.awayState() != null && ni.awayState() != IrcEvent.AwayState.UNKNOWN;
+      boolean accountKnown =
+          ni.accountState() != null && ni.accountState() != IrcEvent.AccountState.UNKNOWN;
+      if (hostmaskKnown && awayKnown && accountKnown) {
+        enriched++;
+      } else if ((!hostmaskKnown || !awayKnown) && stragglers.size() < MAX_WHOX_STRAGGLERS) {
+        stragglers.add(nick);
+      }
+    }
+
+    Instant now = Instant.now();
+    UserInfoEnrichmentPlanner.ChannelCoverage coverage =
+        new UserInfoEnrichmentPlanner.ChannelCoverage(ch, members, enriched, now);
+    Optional<UserInfoEnrichmentPlanner.ChannelCoverage> previous = planner.channelCoverage(sid, ch);
+    planner.noteChannelCoverage(sid, coverage);
+    if (previous.isEmpty() || previous.get().percent() != coverage.percent()) {
+      log.debug(
+          "[{}] WHOX coverage {}: {}% ({}/{})", sid, ch, coverage.percent(), enriched, members);
+    }
+
+    if (focused && planner.isWhoxScanDue(sid, ch, now)) {
+      planner.enqueueWhoChannelPrioritized(sid, ch);
+      requestTick(0);
+    } else {
+      enqueueWhoxStragglers(sid, ch, stragglers);
+    }
+  }
+
+  /**
+   * WHOX mode: USERHOSTs {@code nicks} only once the channel's last WHOX scan has settled. Before
+   * that, the pending (or next focus-driven) scan covers them.
+   */
+  public void enqueueWhoxStragglers(String serverId, String channel, Collection<String> nicks) {
+    String sid = norm(serverId);
+    String ch = norm(channel);
+    if (sid.isEmpty() || ch.isEmpty() || nicks == null || nicks.isEmpty()) return;
+    if (!planner.isWhoxScanSettled(sid, ch, Instant.now())) return;
+    knownServers.add(sid);
+    planner.enqueueUserhost(sid, nicks);
+    requestTick(0);
+  }
+
+  /** Last recorded WHOX-mode enrichment coverage for a channel, if any. */
+  public Optional<UserInfoEnrichmentPlanner.ChannelCoverage> channelCoverage(
+      String serverId, String channel) {
+    return planner.channelCoverage(norm(serverId), norm(channel));
+  }
+
   /**
    * Record that we saw a user do something (e.g., speak), so WHOIS fallback can prioritize them.
    */
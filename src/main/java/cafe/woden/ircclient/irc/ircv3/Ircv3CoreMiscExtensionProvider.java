@@ -39,6 +39,16 @@ public final class Ircv3CoreMiscExtensionProvider implements Ircv3ExtensionDefin
             Ircv3ExtensionRegistry.UiGroup.CORE,
             150,
             "May provide richer host/user identity details during names lists."),
+        Ircv3ExtensionProviderSupport.capability(
+            "no-implicit-names",
+            Ircv3ExtensionRegistry.SpecStatus.DRAFT,
+            "draft/no-implicit-names",
+            "no-implicit-names",
+            "Deferred NAMES (draft)",
+            Ircv3ExtensionRegistry.UiGroup.CORE,
+            152,
+            "Skips the NAMES list on join; a channel's user list loads when it is first viewed.",
+            "draft/no-implicit-names"),
         Ircv3ExtensionProviderSupport.nonRequestableCapability(
             "sts",
             Ircv3ExtensionRegistry.SpecStatus.STABLE,
@@ -0,0 +1,180 @@
+package cafe.woden.ircclient.irc.ircv3;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only tag map backed directly by the raw {@code @k=v;...} section of an IRC line.
+ *
+ * <p>Parsing only records key/value offsets. Key lookups compare against the raw text in place, and
+ * a value is only unescaped (and allocated) when it is read. Most inbound lines are asked for two
+ * or three tags ({@code time}, {@code msgid}, {@code batch}) out of many, so the rest are never
+ * turned into strings.
+ *
+ * <p>Semantics match the eager parser: keys are case-insensitive with any leading {@code +}
+ * ignored, iteration yields lower-cased keys in first-seen order, and a repeated key keeps its
+ * first position but its last value.
+ */
+final class Ircv3LazyTagMap extends AbstractMap<String, String> {
+
+  private final String raw;
+  // Per tag: keyStart, keyEnd, valueStart, valueEnd (valueStart == valueEnd for a bare key).
+  private final int[] spans;
+  private final int count;
+
+  private final String[] values;
+  private Set<Entry<String, String>> entrySet;
+
+  private Ircv3LazyTagMap(String raw, int[] spans, int count) {
+    this.raw = raw;
+    this.spans = spans;
+    this.count = count;
+    this.values = new String[count];
+  }
+
+  /**
+   * Index the tag section {@code line[from, to)} (without the leading {@code @}); returns {@code
+   * null} when it holds no usable tags.
+   *
+   * <p>Only the tag section is kept, not the whole line: events that carry the map can sit in a
+   * buffer for a while, and the prefix, command and message text are already held elsewhere.
+   */
+  static Ircv3LazyTagMap parse(String line, int from, int to) {
+    String raw = line.substring(from, to);
+    int end = raw.length();
+    int[] spans = new int[16];
+    int count = 0;
+    int idx = 0;
+    while (idx < end) {
+      int next = raw.indexOf(';', idx);
+      if (next < 0) next = end;
+      int keyStart = idx;
+      idx = next + 1;
+
+      int eq = keyStart;
+      while (eq < next && raw.charAt(eq) != '=') eq++;
+      int keyEnd = eq;
+      if (keyStart < keyEnd && raw.charAt(keyStart) == '+') keyStart++;
+      if (keyStart >= keyEnd) continue;
+
+      int valueStart = eq < next ? eq + 1 : next;
+      int dup = indexOfKey(raw, spans, count, keyStart, keyEnd);
+      if (dup >= 0) {
+        // Later duplicates win, but keep the first position for iteration order.
+        spans[dup * 4 + 2] = valueStart;
+        spans[dup * 4 + 3] = next;
+        continue;
+      }
+      if (count * 4 + 4 > spans.length) spans = Arrays.copyOf(spans, spans.length * 2);
+      spans[count * 4] = keyStart;
+      spans[count * 4 + 1] = keyEnd;
+      spans[count * 4 + 2] = valueStart;
+      spans[count * 4 + 3] = next;
+      count++;
+    }
+    if (count == 0) return null;
+    return new Ircv3LazyTagMap(raw, Arrays.copyOf(spans, count * 4), count);
+  }
+
+  @Override
+  public String get(Object key) {
+    int i = indexOf(key);
+    return i < 0 ? null : valueAt(i);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return count;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  @Override
+  public Set<Entry<String, String>> entrySet() {
+    Set<Entry<String, String>> es = entrySet;
+    if (es == null) {
+      es = new EntrySet();
+      entrySet = es;
+    }
+    return es;
+  }
+
+  private int indexOf(Object key) {
+    if (!(key instanceof String s)) return -1;
+    int start = 0;
+    int end = s.length();
+    if (start < end && s.charAt(0) == '+') start++;
+    int len = end - start;
+    if (len <= 0) return -1;
+    for (int i = 0; i < count; i++) {
+      int ks = spans[i * 4];
+      int ke = spans[i * 4 + 1];
+      if (ke - ks == len && raw.regionMatches(true, ks, s, start, len)) return i;
+    }
+    return -1;
+  }
+
+  private static int indexOfKey(String raw, int[] spans, int count, int keyStart, int keyEnd) {
+    int len = keyEnd - keyStart;
+    for (int i = 0; i < count; i++) {
+      int ks = spans[i * 4];
+      int ke = spans[i * 4 + 1];
+      if (ke - ks == len && raw.regionMatches(true, ks, raw, keyStart, len)) return i;
+    }
+    return -1;
+  }
+
+  private String keyAt(int i) {
+    return Ircv3Tags.canonicalTagKey(
+        raw.substring(spans[i * 4], spans[i * 4 + 1]).toLowerCase(Locale.ROOT));
+  }
+
+  private String valueAt(int i) {
+    String v = values[i];
+    if (v == null) {
+      v = Ircv3Tags.unescapeTagValue(raw.substring(spans[i * 4 + 2], spans[i * 4 + 3]));
+      values[i] = v;
+    }
+    return v;
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<String, String>> {
+    @Override
+    public int size() {
+      return count;
+    }
+
+    @Override
+    public Iterator<Entry<String, String>> iterator() {
+      return new Iterator<>() {
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+          return next < count;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+          if (next >= count) throw new NoSuchElementException();
+          int i = next++;
+          return new SimpleImmutableEntry<>(keyAt(i), valueAt(i));
+        }
+      };
+    }
+  }
+}
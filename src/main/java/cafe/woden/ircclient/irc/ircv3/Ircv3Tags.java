@@ -1,9 +1,12 @@
 package cafe.woden.ircclient.irc.ircv3;
 
+import cafe.woden.ircclient.util.BoundedInterner;
+import cafe.woden.ircclient.util.NoArgAccessors;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -11,57 +14,66 @@ import lombok.NoArgsConstructor;
  * Shared IRCv3 message-tag parsing helpers.
  *
  * <p>Parses tag maps from either PircBotX events ({@code getTags()}) or raw IRC lines
- * ({@code @k=v;... :prefix COMMAND ...}), normalizing keys and preserving insertion order.
+ * ({@code @k=v;... :prefix COMMAND ...}), normalizing keys and preserving insertion order. Event
+ * accessors are resolved once per event class through {@link NoArgAccessors}.
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class Ircv3Tags {
 
+  private static final int MAX_POOLED_TAG_KEY_LENGTH = 64;
+  private static final int MAX_SHARED_TAG_SET_SIZE = 4;
+
+  /** Tags whose values differ on (almost) every message; maps holding them are never shared. */
+  private static final Set<String> PER_MESSAGE_TAG_KEYS =
+      Set.of("time", "msgid", "draft/msgid", "label", "batch", "draft/reply", "reply");
+
+  private static final BoundedInterner<String> TAG_KEYS = new BoundedInterner<>(1_024);
+  private static final BoundedInterner<Map<String, String>> SHARED_TAG_SETS =
+      new BoundedInterner<>(1_024);
+
   public static Map<String, String> fromEvent(Object pircbotxEvent) {
     if (pircbotxEvent == null) return Map.of();
 
-    Object tags = reflectCall(pircbotxEvent, "getTags");
+    Object tags = NoArgAccessors.call(pircbotxEvent, "getTags");
     if (tags instanceof Map<?, ?> map && !map.isEmpty()) {
       Map<String, String> parsed = normalizeTagMap(map, false);
       if (!parsed.isEmpty()) return parsed;
     }
 
-    Object raw = reflectCall(pircbotxEvent, "getRawLine");
-    if (raw == null) raw = reflectCall(pircbotxEvent, "getLine");
-    if (raw == null) raw = reflectCall(pircbotxEvent, "getRaw");
+    Object raw = NoArgAccessors.call(pircbotxEvent, "getRawLine");
+    if (raw == null) raw = NoArgAccessors.call(pircbotxEvent, "getLine");
+    if (raw == null) raw = NoArgAccessors.call(pircbotxEvent, "getRaw");
     return fromRawLine(raw == null ? null : String.valueOf(raw));
   }
 
+  /**
+   * Tags of a raw IRC line as a lazy, read-only view: values are only unescaped when read (see
+   * {@link Ircv3LazyTagMap}).
+   */
   public static Map<String, String> fromRawLine(String rawLine) {
-    if (rawLine == null) return Map.of();
-    String s = rawLine.trim();
-    if (s.isEmpty() || s.charAt(0) != '@') return Map.of();
+    if (rawLine == null || rawLine.isEmpty()) return Map.of();
 
-    int sp = s.indexOf(' ');
-    if (sp <= 1) return Map.of();
+    int start = 0;
+    int len = rawLine.length();
+    while (start < len && rawLine.charAt(start) <= ' ') start++;
+    if (start >= len || rawLine.charAt(start) != '@') return Map.of();
 
-    String tagSection = s.substring(1, sp);
-    if (tagSection.isEmpty()) return Map.of();
+    int sp = rawLine.indexOf(' ', start);
+    if (sp <= start + 1) return Map.of();
 
-    LinkedHashMap<String, String> out = new LinkedHashMap<>();
-    int idx = 0;
-    while (idx < tagSection.length()) {
-      int next = tagSection.indexOf(';', idx);
-      if (next < 0) next = tagSection.length();
-      String part = tagSection.substring(idx, next);
-      idx = next + 1;
-
-      if (part.isEmpty()) continue;
-      int eq = part.indexOf('=');
-      String key = (eq >= 0) ? part.substring(0, eq) : part;
-      String normalizedKey = normalizeTagKey(key);
-      if (normalizedKey.isEmpty()) continue;
-
-      String value = (eq >= 0) ? part.substring(eq + 1) : "";
-      out.put(normalizedKey, unescapeTagValue(value));
-    }
+    Ircv3LazyTagMap tags = Ircv3LazyTagMap.parse(rawLine, start + 1, sp);
+    return tags == null ? Map.of() : tags;
+  }
 
-    if (out.isEmpty()) return Map.of();
-    return Collections.unmodifiableMap(out);
+  /**
+   * Canonical form of a tag map handed to an event record. Lazy raw-line views are kept as they
+   * are; any other map is normalized once, which hands repeated tag sets back as their shared
+   * instance.
+   */
+  public static Map<String, String> normalizeTags(Map<String, String> tags) {
+    if (tags == null || tags.isEmpty()) return Map.of();
+    if (tags instanceof Ircv3LazyTagMap) return tags;
+    return normalizeTagMap(tags, false);
   }
 
   public static String firstTagValue(Map<String, String> tags, String... keys) {
@@ -70,6 +82,11 @@ public final class Ircv3Tags {
       String want = normalizeTagKey(key);
       if (want.isEmpty()) continue;
 
+      // Parsed maps are keyed by normalized names, so a direct lookup almost always hits.
+      String direct = tags.get(want);
+      if (direct != null && !direct.isBlank()) return direct.trim();
+      if (tags instanceof Ircv3LazyTagMap) continue;
+
       for (Map.Entry<String, String> e : tags.entrySet()) {
         String got = normalizeTagKey(e.getKey());
         if (!want.equals(got)) continue;
@@ -85,6 +102,7 @@ public final class Ircv3Tags {
     if (raw == null || raw.isEmpty()) return Map.of();
 
     LinkedHashMap<String, String> out = new LinkedHashMap<>();
+    boolean shareable = true;
     for (Map.Entry<?, ?> e : raw.entrySet()) {
       String key = normalizeTagKey(e.getKey());
       if (key.isEmpty()) continue;
@@ -92,10 +110,17 @@ public final class Ircv3Tags {
       String value = (e.getValue() == null) ? "" : String.valueOf(e.getValue());
       if (unescapeValues) value = unescapeTagValue(value);
       out.put(key, value);
+      if (PER_MESSAGE_TAG_KEYS.contains(key)) shareable = false;
     }
 
     if (out.isEmpty()) return Map.of();
-    return Collections.unmodifiableMap(out);
+    Map<String, String> tags =
+        out.size() == 1
+            ? Map.of(out.firstEntry().getKey(), out.firstEntry().getValue())
+            : Collections.unmodifiableMap(out);
+    // Tag sets without per-message values (typing, account, bot, ...) repeat across many events,
+    // so buffered events share one immutable copy of each.
+    return shareable && out.size() <= MAX_SHARED_TAG_SET_SIZE ? SHARED_TAG_SETS.intern(tags) : tags;
   }
 
   private static String normalizeTagKey(Object rawKey) {
@@ -103,10 +128,18 @@ public final class Ircv3Tags {
     if (k.startsWith("@")) k = k.substring(1).trim();
     if (k.startsWith("+")) k = k.substring(1).trim();
     if (k.isEmpty()) return "";
-    return k.toLowerCase(Locale.ROOT);
+    return canonicalTagKey(k.toLowerCase(Locale.ROOT));
+  }
+
+  /** Pooled instance of a normalized tag key, so each buffered tag map does not own its keys. */
+  static String canonicalTagKey(String normalizedKey) {
+    if (normalizedKey == null || normalizedKey.length() > MAX_POOLED_TAG_KEY_LENGTH) {
+      return normalizedKey;
+    }
+    return TAG_KEYS.intern(normalizedKey);
   }
 
-  private static String unescapeTagValue(String raw) {
+  static String unescapeTagValue(String raw) {
     if (raw == null || raw.isEmpty() || raw.indexOf('\\') < 0) return raw == null ? "" : raw;
     StringBuilder sb = new StringBuilder(raw.length());
     for (int i = 0; i < raw.length(); i++) {
@@ -128,14 +161,4 @@ public final class Ircv3Tags {
     }
     return sb.toString();
   }
-
-  private static Object reflectCall(Object target, String method) {
-    if (target == null || method == null) return null;
-    try {
-      java.lang.reflect.Method m = target.getClass().getMethod(method);
-      return m.invoke(target);
-    } catch (Exception ignored) {
-      return null;
-    }
-  }
 }
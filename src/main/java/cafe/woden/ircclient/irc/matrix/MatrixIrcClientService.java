@@ -90,6 +90,7 @@ public class MatrixIrcClientService implements IrcBackendClientService {
   private final MatrixHistoryCursorCoordinator historyCursorCoordinator;
   private final MatrixLocalEchoEmitter localEchoEmitter;
   private final MatrixSyncClient syncClient;
+  private final MatrixStateStore stateStore;
   private final Map<String, String> availabilityReasonByServer = new ConcurrentHashMap<>();
   private final Map<String, MatrixSession> sessionsByServer = new ConcurrentHashMap<>();
   private final AtomicLong transactionSequence = new AtomicLong();
@@ -111,7 +112,8 @@ public class MatrixIrcClientService implements IrcBackendClientService {
       MatrixDirectRoomResolver directRoomResolver,
       MatrixMediaUploadClient mediaUploadClient,
       MatrixRoomMessageSender roomMessageSender,
-      MatrixSyncClient syncClient) {
+      MatrixSyncClient syncClient,
+      MatrixStateStore stateStore) {
     this.serverCatalog = Objects.requireNonNull(serverCatalog, "serverCatalog");
     this.homeserverProbe = Objects.requireNonNull(homeserverProbe, "homeserverProbe");
     this.loginClient = Objects.requireNonNull(loginClient, "loginClient");
@@ -150,6 +152,7 @@ public class MatrixIrcClientService implements IrcBackendClientService {
     this.rawLookupCommandHandler =
         new MatrixRawLookupCommandHandler(this::whois, this::requestNames, this::whowas);
     this.syncClient = Objects.requireNonNull(syncClient, "syncClient");
+    this.stateStore = Objects.requireNonNull(stateStore, "stateStore");
     this.syncTimelineEventProjector = new MatrixSyncTimelineEventProjector(bus::onNext);
     this.syncSignalEventProjector = new MatrixSyncSignalEventProjector(bus::onNext);
     this.syncMutationEventProjector = new MatrixSyncMutationEventProjector(bus::onNext);
@@ -268,10 +271,13 @@ public class MatrixIrcClientService implements IrcBackendClientService {
               }
 
               availabilityReasonByServer.remove(sid);
+              MatrixStateStore.RestoredState restored = stateStore.restore(sid, userId);
+              restoreSessionState(nextSession, restored);
               bus.onNext(
                   new ServerIrcEvent(
                       sid, new IrcEvent.Connected(Instant.now(), host, port, userId)));
               bus.onNext(new ServerIrcEvent(sid, new IrcEvent.ConnectionReady(Instant.now())));
+              emitRestoredReadMarkers(sid, nextSession, restored);
               startSyncPolling(sid, server, nextSession);
             })
         .subscribeOn(RxVirtualSchedulers.io());
@@ -407,14 +413,20 @@ public class MatrixIrcClientService implements IrcBackendClientService {
 
               IrcProperties.Server server = serverCatalog.require(sid);
               String roomId = resolveAliasOrRoomId(sid, channel, server, session);
-              MatrixRoomRosterClient.RosterResult result =
-                  roomRosterClient.fetchJoinedMembers(sid, server, session.accessToken, roomId);
-              if (!result.success()) {
-                throw new IllegalStateException(
-                    "Matrix names failed at " + result.endpoint() + ": " + result.detail());
+              List<MatrixRoomRosterClient.JoinedMember> members =
+                  stateStore.joinedMembers(sid, session.userId, roomId).orElse(null);
+              if (members == null) {
+                MatrixRoomRosterClient.RosterResult result =
+                    roomRosterClient.fetchJoinedMembers(sid, server, session.accessToken, roomId);
+                if (!result.success()) {
+                  throw new IllegalStateException(
+                      "Matrix names failed at " + result.endpoint() + ": " + result.detail());
+                }
+                members = result.members();
+                stateStore.rememberJoinedMembers(sid, session.userId, roomId, members);
               }
 
-              List<IrcEvent.NickInfo> nicks = toNickInfos(result.members());
+              List<IrcEvent.NickInfo> nicks = toNickInfos(members);
               String target = normalize(session.targetForRoom(roomId));
               if (target.isEmpty()) {
                 target = roomId;
@@ -461,6 +473,7 @@ public class MatrixIrcClientService implements IrcBackendClientService {
               String joinedTarget = roomId;
               if (looksLikeMatrixRoomAlias(roomIdOrAlias)) {
                 session.rememberJoinedAlias(roomIdOrAlias, roomId);
+                stateStore.rememberAlias(sid, session.userId, roomIdOrAlias, roomId);
                 String preferredTarget = normalize(session.targetForRoom(roomId));
                 if (!preferredTarget.isEmpty()) {
                   joinedTarget = preferredTarget;
@@ -500,9 +513,22 @@ public class MatrixIrcClientService implements IrcBackendClientService {
               IrcProperties.Server server = serverCatalog.require(sid);
               MatrixUserProfileClient.ProfileResult result =
                   userProfileClient.fetchProfile(sid, server, session.accessToken, userId);
-              if (!result.success()) {
-                throw new IllegalStateException(
-                    "Matrix whois failed at " + result.endpoint() + ": " + result.detail());
+              if (result.success()) {
+                stateStore.rememberProfile(sid, session.userId, result);
+              } else {
+                MatrixStateRepository.ProfileRow stored =
+                    stateStore.profile(sid, session.userId, userId).orElse(null);
+                if (stored == null) {
+                  throw new IllegalStateException(
+                      "Matrix whois failed at " + result.endpoint() + ": " + result.detail());
+                }
+                // Homeserver unreachable or erroring: answer from the last known profile.
+                result =
+                    MatrixUserProfileClient.ProfileResult.success(
+                        result.endpoint(),
+                        stored.userId(),
+                        stored.displayName(),
+                        stored.avatarUrl());
               }
 
               bus.onNext(
@@ -553,6 +579,7 @@ public class MatrixIrcClientService implements IrcBackendClientService {
                 target = roomId;
               }
               session.forgetJoinedRoom(roomId);
+              stateStore.forgetRoom(sid, session.userId, roomId);
 
               bus.onNext(
                   new ServerIrcEvent(
@@ -2834,6 +2861,7 @@ public class MatrixIrcClientService implements IrcBackendClientService {
       throw new IllegalStateException("Matrix room alias lookup returned invalid room id");
     }
     session.rememberJoinedAlias(target, roomId);
+    stateStore.rememberAlias(serverId, session.userId, target, roomId);
     return roomId;
   }
 
@@ -3007,6 +3035,7 @@ public class MatrixIrcClientService implements IrcBackendClientService {
       throw new IllegalStateException("Matrix direct room resolution returned invalid room id");
     }
     session.rememberDirectRoom(peer, roomId);
+    stateStore.rememberDirectRoom(serverId, session.userId, peer, roomId);
     return roomId;
   }
 
@@ -3038,6 +3067,7 @@ public class MatrixIrcClientService implements IrcBackendClientService {
     }
     session.rememberDirectRooms(result.directPeerByRoom());
     session.rememberJoinedAliasesByRoom(result.roomAliasByRoom());
+    stateStore.applySync(serverId, session.userId, result, normalize(since).isEmpty());
     emitSyncTimelineEvents(serverId, session, result.events());
     emitSyncMembershipEvents(serverId, session, result.membershipEvents());
     emitSyncMutationEvents(
@@ -3049,6 +3079,30 @@ public class MatrixIrcClientService implements IrcBackendClientService {
     emitSyncSignalEvents(serverId, session, result.typingEvents(), result.readReceipts());
   }
 
+  private static void restoreSessionState(
+      MatrixSession session, MatrixStateStore.RestoredState restored) {
+    if (session == null || restored == null) return;
+    session.rememberDirectRooms(restored.directPeerByRoom());
+    session.rememberJoinedAliasesByRoom(restored.aliasByRoom());
+  }
+
+  private void emitRestoredReadMarkers(
+      String serverId, MatrixSession session, MatrixStateStore.RestoredState restored) {
+    if (session == null || restored == null) return;
+    for (Map.Entry<String, Long> entry : restored.readMarkerTsByRoom().entrySet()) {
+      String roomId = entry.getKey();
+      long ts = entry.getValue();
+      // Seeds the session so the first sync does not re-announce the same markers.
+      if (!session.shouldEmitReadMarker(roomId, ts)) continue;
+      Instant markerAt = Instant.ofEpochMilli(ts);
+      String target = session.targetForRoom(roomId);
+      String marker = "timestamp=" + markerAt;
+      bus.onNext(
+          new ServerIrcEvent(
+              serverId, new IrcEvent.ReadMarkerObserved(markerAt, session.userId, target, marker)));
+    }
+  }
+
   private boolean isActiveSession(String serverId, MatrixSession session) {
     if (session == null || session.closed.get()) return false;
     String sid = normalize(serverId);
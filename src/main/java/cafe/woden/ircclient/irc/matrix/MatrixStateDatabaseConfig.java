@@ -0,0 +1,164 @@
+package cafe.woden.ircclient.irc.matrix;
+
+import cafe.woden.ircclient.config.api.RuntimeConfigPathPort;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.jmolecules.architecture.layered.InfrastructureLayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * On-disk HSQLDB holding per-account Matrix room state; see {@link MatrixStateStore}.
+ *
+ * <p>Every bean here is {@link Lazy}: the pool, the Flyway migration and the repository are created
+ * when {@link MatrixStateStore} first asks for the repository, so users without a Matrix server
+ * never open the file or run its migrations.
+ */
+@Configuration
+@InfrastructureLayer
+public class MatrixStateDatabaseConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(MatrixStateDatabaseConfig.class);
+  private static final String DEFAULT_DB_BASE_NAME = "ircafe-matrix-state";
+
+  @Bean(name = "matrixStateDataSource", destroyMethod = "close")
+  @Lazy
+  public DataSource matrixStateDataSource(RuntimeConfigPathPort runtimeConfigPathPort) {
+    Path basePath = resolveDbBasePath(runtimeConfigPathPort);
+    Path lockPath = lockFilePath(basePath);
+    String url = "jdbc:hsqldb:file:" + basePath.toAbsolutePath() + ";hsqldb.tx=mvcc";
+    try {
+      return new HikariDataSource(buildDataSourceConfig(url));
+    } catch (RuntimeException e) {
+      if (!isRecoverableLockFailure(e) || !tryRecoverStaleLockFile(lockPath)) {
+        log.error("[ircafe] Matrix state DB lock could not be recovered at '{}'", lockPath, e);
+        throw e;
+      }
+      log.warn("[ircafe] removed stale Matrix state lock file '{}' and retrying once", lockPath);
+      return new HikariDataSource(buildDataSourceConfig(url));
+    }
+  }
+
+  @Bean(initMethod = "migrate", name = "matrixStateFlyway")
+  @Lazy
+  public Flyway matrixStateFlyway(
+      @Qualifier("matrixStateDataSource") DataSource matrixStateDataSource) {
+    return Flyway.configure()
+        .dataSource(matrixStateDataSource)
+        .locations("classpath:db/migration/matrixstate")
+        .load();
+  }
+
+  @Bean(name = "matrixStateJdbcTemplate")
+  @Lazy
+  public JdbcTemplate matrixStateJdbcTemplate(
+      @Qualifier("matrixStateDataSource") DataSource ds,
+      @Qualifier("matrixStateFlyway") Flyway flyway) {
+    if (flyway == null) {
+      throw new IllegalStateException(
+          "matrixStateFlyway bean missing (migrations must run before Matrix state store)");
+    }
+    return new JdbcTemplate(ds);
+  }
+
+  @Bean
+  @Lazy
+  MatrixStateRepository matrixStateRepository(
+      @Qualifier("matrixStateJdbcTemplate") JdbcTemplate jdbc) {
+    return new MatrixStateRepository(jdbc);
+  }
+
+  private static Path resolveDbBasePath(RuntimeConfigPathPort runtimeConfigPathPort) {
+    Path runtimeCfg = runtimeConfigPathPort.runtimeConfigPath();
+    Path parent = runtimeCfg != null ? runtimeCfg.getParent() : null;
+    Path dir = (parent != null) ? parent : defaultIrcafeDir();
+    try {
+      Files.createDirectories(dir);
+    } catch (Exception e) {
+      log.warn(
+          "[ircafe] could not create Matrix state DB dir '{}' (using current directory)", dir, e);
+      dir = Paths.get(".").toAbsolutePath();
+    }
+    Path basePath = dir.resolve(DEFAULT_DB_BASE_NAME);
+    log.info("[ircafe] Matrix state DB enabled (HSQLDB file: {})", basePath.toAbsolutePath());
+    return basePath;
+  }
+
+  private static Path defaultIrcafeDir() {
+    return Paths.get(System.getProperty("user.home"), ".config", "ircafe");
+  }
+
+  private static Path lockFilePath(Path basePath) {
+    return Paths.get(basePath.toAbsolutePath() + ".lck");
+  }
+
+  private static HikariConfig buildDataSourceConfig(String url) {
+    HikariConfig cfg = new HikariConfig();
+    cfg.setPoolName("ircafe-matrix-state");
+    cfg.setDriverClassName("org.hsqldb.jdbc.JDBCDriver");
+    cfg.setJdbcUrl(url);
+    cfg.setUsername("SA");
+    cfg.setPassword("");
+    cfg.setMaximumPoolSize(2);
+    cfg.setMinimumIdle(1);
+    cfg.setConnectionTimeout(5_000);
+    cfg.setValidationTimeout(5_000);
+    cfg.setIdleTimeout(60_000);
+    return cfg;
+  }
+
+  static boolean isRecoverableLockFailure(Throwable throwable) {
+    boolean sawLockFailure = false;
+    boolean sawLockHeld = false;
+    Throwable current = throwable;
+    while (current != null) {
+      String message = current.getMessage();
+      if (message != null) {
+        sawLockFailure |= message.contains("Database lock acquisition failure");
+        sawLockHeld |= message.contains("LockHeldExternallyException");
+      }
+      sawLockHeld |= current.getClass().getName().contains("LockHeldExternallyException");
+      current = current.getCause();
+    }
+    return sawLockFailure && sawLockHeld;
+  }
+
+  static boolean tryRecoverStaleLockFile(Path lockPath) {
+    if (lockPath == null || !Files.exists(lockPath)) {
+      return false;
+    }
+
+    try (FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.WRITE)) {
+      FileLock lock;
+      try {
+        lock = channel.tryLock();
+      } catch (OverlappingFileLockException ignored) {
+        return false;
+      }
+      if (lock == null) return false;
+      lock.close();
+    } catch (Exception e) {
+      return false;
+    }
+
+    try {
+      return Files.deleteIfExists(lockPath);
+    } catch (Exception e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,439 @@
+package cafe.woden.ircclient.irc.matrix;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/** JDBC access to the per-account Matrix state tables. Rows are keyed by (server, account). */
+final class MatrixStateRepository {
+
+  private static final int ROOM_ID_MAX = 256;
+  private static final int USER_ID_MAX = 256;
+  private static final int DISPLAY_NAME_MAX = 512;
+  private static final int AVATAR_URL_MAX = 1024;
+
+  private static final String SELECT_ROOMS_SQL =
+      """
+      SELECT room_id, canonical_alias, direct_peer, read_marker_ts_epoch_ms, members_complete
+        FROM matrix_room
+       WHERE server_id = ?
+         AND account_id = ?
+      """;
+
+  private static final String SELECT_ROOM_SQL =
+      """
+      SELECT room_id, canonical_alias, direct_peer, read_marker_ts_epoch_ms, members_complete
+        FROM matrix_room
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+      """;
+
+  private static final String TOUCH_ROOM_SQL =
+      """
+      UPDATE matrix_room
+         SET updated_at_epoch_ms = ?
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+      """;
+
+  private static final String INSERT_ROOM_SQL =
+      """
+      INSERT INTO matrix_room(server_id, account_id, room_id, members_complete, updated_at_epoch_ms)
+      VALUES (?,?,?,FALSE,?)
+      """;
+
+  private static final String UPDATE_ALIAS_SQL =
+      """
+      UPDATE matrix_room
+         SET canonical_alias = ?
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+      """;
+
+  private static final String CLEAR_ALIAS_ELSEWHERE_SQL =
+      """
+      UPDATE matrix_room
+         SET canonical_alias = NULL
+       WHERE server_id = ?
+         AND account_id = ?
+         AND canonical_alias = ?
+         AND room_id <> ?
+      """;
+
+  private static final String UPDATE_DIRECT_PEER_SQL =
+      """
+      UPDATE matrix_room
+         SET direct_peer = ?
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+      """;
+
+  private static final String CLEAR_DIRECT_PEER_ELSEWHERE_SQL =
+      """
+      UPDATE matrix_room
+         SET direct_peer = NULL
+       WHERE server_id = ?
+         AND account_id = ?
+         AND direct_peer = ?
+         AND room_id <> ?
+      """;
+
+  private static final String RAISE_READ_MARKER_SQL =
+      """
+      UPDATE matrix_room
+         SET read_marker_ts_epoch_ms = ?
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+         AND (read_marker_ts_epoch_ms IS NULL OR read_marker_ts_epoch_ms < ?)
+      """;
+
+  private static final String UPDATE_MEMBERS_COMPLETE_SQL =
+      """
+      UPDATE matrix_room
+         SET members_complete = ?
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+      """;
+
+  private static final String CLEAR_ALL_MEMBERS_COMPLETE_SQL =
+      """
+      UPDATE matrix_room
+         SET members_complete = FALSE
+       WHERE server_id = ?
+         AND account_id = ?
+      """;
+
+  private static final String DELETE_ROOM_SQL =
+      """
+      DELETE FROM matrix_room
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+      """;
+
+  private static final String DELETE_ROOM_MEMBERS_SQL =
+      """
+      DELETE FROM matrix_room_member
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+      """;
+
+  private static final String SELECT_MEMBERS_SQL =
+      """
+      SELECT user_id, display_name
+        FROM matrix_room_member
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+       ORDER BY user_id
+      """;
+
+  private static final String UPDATE_MEMBER_SQL =
+      """
+      UPDATE matrix_room_member
+         SET display_name = ?,
+             updated_at_epoch_ms = ?
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+         AND user_id = ?
+      """;
+
+  private static final String INSERT_MEMBER_SQL =
+      """
+      INSERT INTO matrix_room_member(
+        server_id,
+        account_id,
+        room_id,
+        user_id,
+        display_name,
+        updated_at_epoch_ms
+      )
+      VALUES (?,?,?,?,?,?)
+      """;
+
+  private static final String DELETE_MEMBER_SQL =
+      """
+      DELETE FROM matrix_room_member
+       WHERE server_id = ?
+         AND account_id = ?
+         AND room_id = ?
+         AND user_id = ?
+      """;
+
+  private static final String SELECT_PROFILE_SQL =
+      """
+      SELECT user_id, display_name, avatar_url
+        FROM matrix_profile
+       WHERE server_id = ?
+         AND account_id = ?
+         AND user_id = ?
+      """;
+
+  private static final String UPDATE_PROFILE_SQL =
+      """
+      UPDATE matrix_profile
+         SET display_name = ?,
+             avatar_url = ?,
+             updated_at_epoch_ms = ?
+       WHERE server_id = ?
+         AND account_id = ?
+         AND user_id = ?
+      """;
+
+  private static final String INSERT_PROFILE_SQL =
+      """
+      INSERT INTO matrix_profile(
+        server_id,
+        account_id,
+        user_id,
+        display_name,
+        avatar_url,
+        updated_at_epoch_ms
+      )
+      VALUES (?,?,?,?,?,?)
+      """;
+
+  private static final String UPDATE_PROFILE_DISPLAY_NAME_SQL =
+      """
+      UPDATE matrix_profile
+         SET display_name = ?,
+             updated_at_epoch_ms = ?
+       WHERE server_id = ?
+         AND account_id = ?
+         AND user_id = ?
+      """;
+
+  private static final RowMapper<RoomRow> ROOM_ROW_MAPPER =
+      (rs, rowNum) ->
+          new RoomRow(
+              rs.getString("room_id"),
+              rs.getString("canonical_alias"),
+              rs.getString("direct_peer"),
+              rs.getObject("read_marker_ts_epoch_ms") != null
+                  ? rs.getLong("read_marker_ts_epoch_ms")
+                  : 0L,
+              rs.getBoolean("members_complete"));
+
+  private static final RowMapper<MatrixRoomRosterClient.JoinedMember> MEMBER_ROW_MAPPER =
+      (rs, rowNum) ->
+          new MatrixRoomRosterClient.JoinedMember(
+              rs.getString("user_id"), rs.getString("display_name"));
+
+  private static final RowMapper<ProfileRow> PROFILE_ROW_MAPPER =
+      (rs, rowNum) ->
+          new ProfileRow(
+              rs.getString("user_id"), rs.getString("display_name"), rs.getString("avatar_url"));
+
+  private final JdbcTemplate jdbc;
+
+  record RoomRow(
+      String roomId,
+      String canonicalAlias,
+      String directPeer,
+      long readMarkerTsEpochMs,
+      boolean membersComplete) {
+    RoomRow {
+      roomId = normalize(roomId);
+      canonicalAlias = normalize(canonicalAlias);
+      directPeer = normalize(directPeer);
+      readMarkerTsEpochMs = Math.max(0L, readMarkerTsEpochMs);
+    }
+  }
+
+  record ProfileRow(String userId, String displayName, String avatarUrl) {
+    ProfileRow {
+      userId = normalize(userId);
+      displayName = normalize(displayName);
+      avatarUrl = normalize(avatarUrl);
+    }
+  }
+
+  MatrixStateRepository(JdbcTemplate jdbc) {
+    this.jdbc = Objects.requireNonNull(jdbc, "jdbc");
+  }
+
+  List<RoomRow> findRooms(String serverId, String accountId) {
+    List<RoomRow> rows = jdbc.query(SELECT_ROOMS_SQL, ROOM_ROW_MAPPER, serverId, accountId);
+    if (rows == null || rows.isEmpty()) return List.of();
+    return List.copyOf(rows);
+  }
+
+  Optional<RoomRow> findRoom(String serverId, String accountId, String roomId) {
+    List<RoomRow> rows =
+        jdbc.query(SELECT_ROOM_SQL, ROOM_ROW_MAPPER, serverId, accountId, normalize(roomId));
+    if (rows == null || rows.isEmpty()) return Optional.empty();
+    return Optional.ofNullable(rows.getFirst());
+  }
+
+  /** Creates the room row if it does not exist yet. */
+  void ensureRoom(String serverId, String accountId, String roomId, long nowMs) {
+    String rid = truncate(normalize(roomId), ROOM_ID_MAX);
+    if (jdbc.update(TOUCH_ROOM_SQL, nowMs, serverId, accountId, rid) > 0) return;
+    try {
+      jdbc.update(INSERT_ROOM_SQL, serverId, accountId, rid, nowMs);
+    } catch (DataAccessException ex) {
+      if (!isDuplicateKey(ex)) throw ex;
+    }
+  }
+
+  void updateAlias(String serverId, String accountId, String roomId, String alias) {
+    jdbc.update(CLEAR_ALIAS_ELSEWHERE_SQL, serverId, accountId, alias, roomId);
+    jdbc.update(UPDATE_ALIAS_SQL, alias, serverId, accountId, roomId);
+  }
+
+  void updateDirectPeer(String serverId, String accountId, String roomId, String peerUserId) {
+    jdbc.update(CLEAR_DIRECT_PEER_ELSEWHERE_SQL, serverId, accountId, peerUserId, roomId);
+    jdbc.update(UPDATE_DIRECT_PEER_SQL, peerUserId, serverId, accountId, roomId);
+  }
+
+  /** Moves the room's read marker forward; older markers are ignored. */
+  void raiseReadMarker(String serverId, String accountId, String roomId, long markerTsMs) {
+    jdbc.update(RAISE_READ_MARKER_SQL, markerTsMs, serverId, accountId, roomId, markerTsMs);
+  }
+
+  void setMembersComplete(String serverId, String accountId, String roomId, boolean complete) {
+    jdbc.update(UPDATE_MEMBERS_COMPLETE_SQL, complete, serverId, accountId, roomId);
+  }
+
+  void clearMembersComplete(String serverId, String accountId) {
+    jdbc.update(CLEAR_ALL_MEMBERS_COMPLETE_SQL, serverId, accountId);
+  }
+
+  void deleteRoom(String serverId, String accountId, String roomId) {
+    jdbc.update(DELETE_ROOM_MEMBERS_SQL, serverId, accountId, roomId);
+    jdbc.update(DELETE_ROOM_SQL, serverId, accountId, roomId);
+  }
+
+  List<MatrixRoomRosterClient.JoinedMember> findMembers(
+      String serverId, String accountId, String roomId) {
+    List<MatrixRoomRosterClient.JoinedMember> rows =
+        jdbc.query(SELECT_MEMBERS_SQL, MEMBER_ROW_MAPPER, serverId, accountId, roomId);
+    if (rows == null || rows.isEmpty()) return List.of();
+    return List.copyOf(rows);
+  }
+
+  void insertMembers(
+      String serverId,
+      String accountId,
+      String roomId,
+      Collection<MatrixRoomRosterClient.JoinedMember> members,
+      long nowMs) {
+    if (members == null || members.isEmpty()) return;
+    List<Object[]> batch = new ArrayList<>(members.size());
+    for (MatrixRoomRosterClient.JoinedMember member : members) {
+      batch.add(
+          new Object[] {
+            serverId,
+            accountId,
+            roomId,
+            truncate(member.userId(), USER_ID_MAX),
+            displayNameOrNull(member.displayName()),
+            nowMs
+          });
+    }
+    jdbc.batchUpdate(INSERT_MEMBER_SQL, batch);
+  }
+
+  void upsertMember(
+      String serverId,
+      String accountId,
+      String roomId,
+      String userId,
+      String displayName,
+      long nowMs) {
+    String uid = truncate(normalize(userId), USER_ID_MAX);
+    String name = displayNameOrNull(displayName);
+    if (jdbc.update(UPDATE_MEMBER_SQL, name, nowMs, serverId, accountId, roomId, uid) > 0) return;
+    try {
+      jdbc.update(INSERT_MEMBER_SQL, serverId, accountId, roomId, uid, name, nowMs);
+    } catch (DataAccessException ex) {
+      if (!isDuplicateKey(ex)) throw ex;
+      jdbc.update(UPDATE_MEMBER_SQL, name, nowMs, serverId, accountId, roomId, uid);
+    }
+  }
+
+  void deleteMembers(String serverId, String accountId, String roomId, Collection<String> userIds) {
+    if (userIds == null || userIds.isEmpty()) return;
+    List<Object[]> batch = new ArrayList<>(userIds.size());
+    for (String userId : userIds) {
+      batch.add(new Object[] {serverId, accountId, roomId, userId});
+    }
+    jdbc.batchUpdate(DELETE_MEMBER_SQL, batch);
+  }
+
+  Optional<ProfileRow> findProfile(String serverId, String accountId, String userId) {
+    List<ProfileRow> rows =
+        jdbc.query(SELECT_PROFILE_SQL, PROFILE_ROW_MAPPER, serverId, accountId, userId);
+    if (rows == null || rows.isEmpty()) return Optional.empty();
+    return Optional.ofNullable(rows.getFirst());
+  }
+
+  void upsertProfile(String serverId, String accountId, ProfileRow profile, long nowMs) {
+    String uid = truncate(profile.userId(), USER_ID_MAX);
+    String name = displayNameOrNull(profile.displayName());
+    String avatar = truncate(trimToNull(profile.avatarUrl()), AVATAR_URL_MAX);
+    if (jdbc.update(UPDATE_PROFILE_SQL, name, avatar, nowMs, serverId, accountId, uid) > 0) return;
+    try {
+      jdbc.update(INSERT_PROFILE_SQL, serverId, accountId, uid, name, avatar, nowMs);
+    } catch (DataAccessException ex) {
+      if (!isDuplicateKey(ex)) throw ex;
+      jdbc.update(UPDATE_PROFILE_SQL, name, avatar, nowMs, serverId, accountId, uid);
+    }
+  }
+
+  /** Refreshes the display name of an already-stored profile; unknown users are not added. */
+  void updateProfileDisplayName(
+      String serverId, String accountId, String userId, String displayName, long nowMs) {
+    jdbc.update(
+        UPDATE_PROFILE_DISPLAY_NAME_SQL,
+        displayNameOrNull(displayName),
+        nowMs,
+        serverId,
+        accountId,
+        userId);
+  }
+
+  private static String displayNameOrNull(String displayName) {
+    return truncate(trimToNull(displayName), DISPLAY_NAME_MAX);
+  }
+
+  private static String normalize(String value) {
+    return Objects.toString(value, "").trim();
+  }
+
+  private static String trimToNull(String value) {
+    String trimmed = normalize(value);
+    return trimmed.isEmpty() ? null : trimmed;
+  }
+
+  private static String truncate(String value, int maxChars) {
+    if (value == null || maxChars <= 0 || value.length() <= maxChars) return value;
+    return value.substring(0, maxChars);
+  }
+
+  private static boolean isDuplicateKey(DataAccessException ex) {
+    if (ex == null) return false;
+    if (ex instanceof DuplicateKeyException) return true;
+    Throwable cause = ex.getCause();
+    while (cause != null) {
+      String msg = String.valueOf(cause.getMessage());
+      if (msg.contains("constraint") && msg.contains("PRIMARY")) return true;
+      cause = cause.getCause();
+    }
+    return false;
+  }
+}
@@ -0,0 +1,362 @@
+package cafe.woden.ircclient.irc.matrix;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.jmolecules.architecture.layered.InfrastructureLayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local copy of per-account Matrix state: room aliases, direct-room peers, read markers, joined
+ * member lists and fetched profiles.
+ *
+ * <p>A room's member list is served only while it is marked complete: after a full {@code
+ * joined_members} fetch, or after an initial (tokenless) sync, whose state snapshot carries every
+ * member. Incremental syncs then patch it from membership deltas. Restoring a session marks all
+ * lists stale until the first sync reconciles them, so nothing that changed while offline leaks
+ * through.
+ *
+ * <p>Storage failures are logged and treated as cache misses; callers fall back to the network.
+ */
+@Component
+@InfrastructureLayer
+final class MatrixStateStore {
+
+  private static final Logger log = LoggerFactory.getLogger(MatrixStateStore.class);
+
+  /**
+   * Resolved on first use: the state database (and its Flyway migration) is only opened once a
+   * Matrix session actually needs it, not at startup for every user.
+   */
+  private final Supplier<MatrixStateRepository> repository;
+
+  @Autowired
+  MatrixStateStore(ObjectProvider<MatrixStateRepository> repository) {
+    this.repository = Objects.requireNonNull(repository, "repository")::getObject;
+  }
+
+  MatrixStateStore(MatrixStateRepository repository) {
+    Objects.requireNonNull(repository, "repository");
+    this.repository = () -> repository;
+  }
+
+  record RestoredState(
+      Map<String, String> directPeerByRoom,
+      Map<String, String> aliasByRoom,
+      Map<String, Long> readMarkerTsByRoom) {
+    static final RestoredState EMPTY = new RestoredState(Map.of(), Map.of(), Map.of());
+
+    RestoredState {
+      directPeerByRoom = directPeerByRoom == null ? Map.of() : Map.copyOf(directPeerByRoom);
+      aliasByRoom = aliasByRoom == null ? Map.of() : Map.copyOf(aliasByRoom);
+      readMarkerTsByRoom = readMarkerTsByRoom == null ? Map.of() : Map.copyOf(readMarkerTsByRoom);
+    }
+  }
+
+  /** Loads what a new session can start from and marks stored member lists for re-validation. */
+  synchronized RestoredState restore(String serverId, String accountId) {
+    String sid = normalize(serverId);
+    String account = normalize(accountId);
+    if (sid.isEmpty() || account.isEmpty()) return RestoredState.EMPTY;
+    try {
+      Map<String, String> directs = new LinkedHashMap<>();
+      Map<String, String> aliases = new LinkedHashMap<>();
+      Map<String, Long> markers = new LinkedHashMap<>();
+      for (MatrixStateRepository.RoomRow row : repository.get().findRooms(sid, account)) {
+        if (row.roomId().isEmpty()) continue;
+        if (!row.directPeer().isEmpty()) directs.put(row.roomId(), row.directPeer());
+        if (!row.canonicalAlias().isEmpty()) aliases.put(row.roomId(), row.canonicalAlias());
+        if (row.readMarkerTsEpochMs() > 0L) markers.put(row.roomId(), row.readMarkerTsEpochMs());
+      }
+      repository.get().clearMembersComplete(sid, account);
+      return new RestoredState(directs, aliases, markers);
+    } catch (RuntimeException ex) {
+      log.warn("[ircafe] could not restore Matrix state for {} on {}", account, sid, ex);
+      return RestoredState.EMPTY;
+    }
+  }
+
+  /** Stored member list for the room, or empty when the store cannot vouch for it. */
+  synchronized Optional<List<MatrixRoomRosterClient.JoinedMember>> joinedMembers(
+      String serverId, String accountId, String roomId) {
+    String sid = normalize(serverId);
+    String account = normalize(accountId);
+    String rid = normalize(roomId);
+    if (sid.isEmpty() || account.isEmpty() || rid.isEmpty()) return Optional.empty();
+    try {
+      Optional<MatrixStateRepository.RoomRow> room = repository.get().findRoom(sid, account, rid);
+      if (room.isEmpty() || !room.get().membersComplete()) return Optional.empty();
+      return Optional.of(repository.get().findMembers(sid, account, rid));
+    } catch (RuntimeException ex) {
+      log.warn("[ircafe] could not read Matrix members for {} on {}", rid, sid, ex);
+      return Optional.empty();
+    }
+  }
+
+  /** Replaces the room's member list with a complete one fetched from the homeserver. */
+  synchronized void rememberJoinedMembers(
+      String serverId,
+      String accountId,
+      String roomId,
+      List<MatrixRoomRosterClient.JoinedMember> members) {
+    String sid = normalize(serverId);
+    String account = normalize(accountId);
+    String rid = normalize(roomId);
+    if (sid.isEmpty() || account.isEmpty() || rid.isEmpty()) return;
+    try {
+      long now = System.currentTimeMillis();
+      repository.get().ensureRoom(sid, account, rid, now);
+      replaceMembers(sid, account, rid, members, now);
+    } catch (RuntimeException ex) {
+      log.warn("[ircafe] could not store Matrix members for {} on {}", rid, sid, ex);
+    }
+  }
+
+  /**
+   * Applies one /sync response. {@code initialSync} marks a tokenless sync, whose room state is a
+   * full snapshot rather than a delta.
+   */
+  synchronized void applySync(
+      String serverId, String accountId, MatrixSyncClient.SyncResult sync, boolean initialSync) {
+    String sid = normalize(serverId);
+    String account = normalize(accountId);
+    if (sid.isEmpty() || account.isEmpty() || sync == null || !sync.success()) return;
+    try {
+      long now = System.currentTimeMillis();
+      for (Map.Entry<String, String> entry : sync.directPeerByRoom().entrySet()) {
+        storeDirectRoom(sid, account, entry.getValue(), entry.getKey(), now);
+      }
+      for (Map.Entry<String, String> entry : sync.roomAliasByRoom().entrySet()) {
+        storeAlias(sid, account, entry.getValue(), entry.getKey(), now);
+      }
+      for (MatrixSyncClient.ReadReceiptEvent receipt : sync.readReceipts()) {
+        if (receipt == null || !account.equals(receipt.userId())) continue;
+        if (receipt.roomId().isEmpty() || receipt.timestampMs() <= 0L) continue;
+        repository.get().ensureRoom(sid, account, receipt.roomId(), now);
+        repository.get().raiseReadMarker(sid, account, receipt.roomId(), receipt.timestampMs());
+      }
+      applyMembership(sid, account, sync.membershipEvents(), initialSync, now);
+    } catch (RuntimeException ex) {
+      log.warn("[ircafe] could not apply Matrix sync state for {} on {}", account, sid, ex);
+    }
+  }
+
+  synchronized void rememberAlias(
+      String serverId, String accountId, String roomAlias, String roomId) {
+    String sid = normalize(serverId);
+    String account = normalize(accountId);
+    if (sid.isEmpty() || account.isEmpty()) return;
+    try {
+      storeAlias(sid, account, roomAlias, roomId, System.currentTimeMillis());
+    } catch (RuntimeException ex) {
+      log.warn("[ircafe] could not store Matrix alias {} on {}", roomAlias, sid, ex);
+    }
+  }
+
+  synchronized void rememberDirectRoom(
+      String serverId, String accountId, String peerUserId, String roomId) {
+    String sid = normalize(serverId);
+    String account = normalize(accountId);
+    if (sid.isEmpty() || account.isEmpty()) return;
+    try {
+      storeDirectRoom(sid, account, peerUserId, roomId, System.currentTimeMillis());
+    } catch (RuntimeException ex) {
+      log.warn("[ircafe] could not store Matrix direct room for {} on {}", peerUserId, sid, ex);
+    }
+  }
+
+  synchronized void forgetRoom(String serverId, String accountId, String roomId) {
+    String sid = normalize(serverId);
+    String account = normalize(accountId);
+    String rid = normalize(roomId);
+    if (sid.isEmpty() || account.isEmpty() || rid.isEmpty()) return;
+    try {
+      repository.get().deleteRoom(sid, account, rid);
+    } catch (RuntimeException ex) {
+      log.warn("[ircafe] could not forget Matrix room {} on {}", rid, sid, ex);
+    }
+  }
+
+  synchronized Optional<MatrixStateRepository.ProfileRow> profile(
+      String serverId, String accountId, String userId) {
+    String sid = normalize(serverId);
+    String account = normalize(accountId);
+    String uid = normalize(userId);
+    if (sid.isEmpty() || account.isEmpty() || uid.isEmpty()) return Optional.empty();
+    try {
+      return repository.get().findProfile(sid, account, uid);
+    } catch (RuntimeException ex) {
+      log.warn("[ircafe] could not read Matrix profile for {} on {}", uid, sid, ex);
+      return Optional.empty();
+    }
+  }
+
+  synchronized void rememberProfile(
+      String serverId, String accountId, MatrixUserProfileClient.ProfileResult profile) {
+    String sid = normalize(serverId);
+    String account = normalize(accountId);
+    if (sid.isEmpty() || account.isEmpty() || profile == null || !profile.success()) return;
+    if (normalize(profile.userId()).isEmpty()) return;
+    try {
+      repository.get().upsertProfile(
+          sid,
+          account,
+          new MatrixStateRepository.ProfileRow(
+              profile.userId(), profile.displayName(), profile.avatarUrl()),
+          System.currentTimeMillis());
+    } catch (RuntimeException ex) {
+      log.warn("[ircafe] could not store Matrix profile for {} on {}", profile.userId(), sid, ex);
+    }
+  }
+
+  private void storeAlias(String sid, String account, String roomAlias, String roomId, long now) {
+    String alias = normalize(roomAlias);
+    String rid = normalize(roomId);
+    if (alias.isEmpty() || rid.isEmpty()) return;
+    repository.get().ensureRoom(sid, account, rid, now);
+    repository.get().updateAlias(sid, account, rid, alias);
+  }
+
+  private void storeDirectRoom(
+      String sid, String account, String peerUserId, String roomId, long now) {
+    String peer = normalize(peerUserId);
+    String rid = normalize(roomId);
+    if (peer.isEmpty() || rid.isEmpty()) return;
+    repository.get().ensureRoom(sid, account, rid, now);
+    repository.get().updateDirectPeer(sid, account, rid, peer);
+  }
+
+  private void applyMembership(
+      String sid,
+      String account,
+      List<MatrixSyncClient.RoomMembershipEvent> events,
+      boolean initialSync,
+      long now) {
+    if (events == null || events.isEmpty()) return;
+
+    // Sync lists timeline events ahead of the (older) state snapshot; keep each user's newest.
+    Map<String, Map<String, MatrixSyncClient.RoomMembershipEvent>> latestByUserByRoom =
+        new LinkedHashMap<>();
+    for (MatrixSyncClient.RoomMembershipEvent event : events) {
+      if (event == null) continue;
+      String rid = normalize(event.roomId());
+      String uid = normalize(event.userId());
+      if (rid.isEmpty() || uid.isEmpty()) continue;
+      Map<String, MatrixSyncClient.RoomMembershipEvent> latestByUser =
+          latestByUserByRoom.computeIfAbsent(rid, ignored -> new LinkedHashMap<>());
+      MatrixSyncClient.RoomMembershipEvent prior = latestByUser.get(uid);
+      if (prior == null || event.originServerTs() > prior.originServerTs()) {
+        latestByUser.put(uid, event);
+      }
+    }
+
+    Set<String> completeRooms = new LinkedHashSet<>();
+    if (!initialSync) {
+      for (MatrixStateRepository.RoomRow row : repository.get().findRooms(sid, account)) {
+        if (row.membersComplete()) completeRooms.add(row.roomId());
+      }
+    }
+
+    for (Map.Entry<String, Map<String, MatrixSyncClient.RoomMembershipEvent>> room :
+        latestByUserByRoom.entrySet()) {
+      String rid = room.getKey();
+      Map<String, MatrixSyncClient.RoomMembershipEvent> latestByUser = room.getValue();
+      MatrixSyncClient.RoomMembershipEvent self = latestByUser.get(account);
+      if (self != null && isDeparture(self.membership())) {
+        repository.get().deleteRoom(sid, account, rid);
+        continue;
+      }
+
+      if (initialSync) {
+        List<MatrixRoomRosterClient.JoinedMember> joined = new ArrayList<>();
+        for (MatrixSyncClient.RoomMembershipEvent event : latestByUser.values()) {
+          if (isJoin(event.membership())) {
+            joined.add(
+                new MatrixRoomRosterClient.JoinedMember(event.userId(), event.displayName()));
+          }
+        }
+        repository.get().ensureRoom(sid, account, rid, now);
+        replaceMembers(sid, account, rid, joined, now);
+      } else if (completeRooms.contains(rid)) {
+        List<String> departed = new ArrayList<>();
+        for (MatrixSyncClient.RoomMembershipEvent event : latestByUser.values()) {
+          if (isJoin(event.membership())) {
+            repository
+                .get()
+                .upsertMember(sid, account, rid, event.userId(), event.displayName(), now);
+          } else {
+            departed.add(normalize(event.userId()));
+          }
+        }
+        repository.get().deleteMembers(sid, account, rid, departed);
+      }
+
+      for (MatrixSyncClient.RoomMembershipEvent event : latestByUser.values()) {
+        String displayName = normalize(event.displayName());
+        if (!isJoin(event.membership()) || displayName.isEmpty()) continue;
+        if (displayName.equals(normalize(event.prevDisplayName()))) continue;
+        repository.get().updateProfileDisplayName(sid, account, event.userId(), displayName, now);
+      }
+    }
+  }
+
+  /** Diffs {@code members} against the stored list, writes only the changes, marks complete. */
+  private void replaceMembers(
+      String sid,
+      String account,
+      String rid,
+      List<MatrixRoomRosterClient.JoinedMember> members,
+      long now) {
+    Map<String, String> storedNameByUser = new HashMap<>();
+    for (MatrixRoomRosterClient.JoinedMember member :
+        repository.get().findMembers(sid, account, rid)) {
+      storedNameByUser.put(member.userId(), member.displayName());
+    }
+
+    List<MatrixRoomRosterClient.JoinedMember> added = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    if (members != null) {
+      for (MatrixRoomRosterClient.JoinedMember member : members) {
+        if (member == null || member.userId().isEmpty()) continue;
+        if (!seen.add(member.userId())) continue;
+        String stored = storedNameByUser.remove(member.userId());
+        if (stored == null) {
+          added.add(member);
+        } else if (!stored.equals(member.displayName())) {
+          repository
+              .get()
+              .upsertMember(sid, account, rid, member.userId(), member.displayName(), now);
+        }
+      }
+    }
+    repository.get().deleteMembers(sid, account, rid, storedNameByUser.keySet());
+    repository.get().insertMembers(sid, account, rid, added, now);
+    repository.get().setMembersComplete(sid, account, rid, true);
+  }
+
+  private static boolean isJoin(String membership) {
+    return "join".equals(normalize(membership).toLowerCase(Locale.ROOT));
+  }
+
+  private static boolean isDeparture(String membership) {
+    String value = normalize(membership).toLowerCase(Locale.ROOT);
+    return "leave".equals(value) || "ban".equals(value);
+  }
+
+  private static String normalize(String value) {
+    return Objects.toString(value, "").trim();
+  }
+}
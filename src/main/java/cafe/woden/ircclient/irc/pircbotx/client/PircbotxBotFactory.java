@@ -127,10 +127,13 @@ public class PircbotxBotFactory {
     if (s.serverPassword() != null && !s.serverPassword().isBlank()) {
       builder.setServerPassword(s.serverPassword());
     }
-    for (String chan : s.autoJoin()) {
-      String ch = chan == null ? "" : chan.trim();
-      if (AutoJoinEntryCodec.isPrivateMessageEntry(ch)) continue;
-      if (!ch.isEmpty()) builder.addAutoJoinChannel(ch);
+    if (delaysJoinUntilIdentified(s)) {
+      // PircBotX holds these back until NickServ confirms identification.
+      for (String chan : s.autoJoin()) {
+        String ch = chan == null ? "" : chan.trim();
+        if (AutoJoinEntryCodec.isPrivateMessageEntry(ch)) continue;
+        if (!ch.isEmpty()) builder.addAutoJoinChannel(ch);
+      }
     }
     boolean saslEnabled = s.sasl() != null && s.sasl().enabled();
     boolean nickservEnabled = s.nickserv() != null && s.nickserv().enabled();
@@ -189,6 +192,21 @@ public class PircbotxBotFactory {
     return new PircbotxLagAwareBot(builder.buildConfiguration());
   }
 
+  /**
+   * Channel entries the connection joins itself after registration, packed into as few JOIN lines
+   * as ISUPPORT allows. Empty when NickServ delayed join is on; PircBotX autojoins those instead.
+   */
+  public static List<String> packedAutoJoinEntries(IrcProperties.Server s) {
+    if (s == null || delaysJoinUntilIdentified(s)) return List.of();
+    return AutoJoinEntryCodec.channelEntries(s.autoJoin());
+  }
+
+  private static boolean delaysJoinUntilIdentified(IrcProperties.Server s) {
+    if (s.nickserv() == null || !s.nickserv().enabled()) return false;
+    return s.nickserv().delayJoinUntilIdentified() == null
+        || s.nickserv().delayJoinUntilIdentified();
+  }
+
   private static ThreadedListenerManager createOrderedListenerManager(String serverId) {
     String id = (serverId == null || serverId.isBlank()) ? "server" : serverId.trim();
     String namePrefix = "ircafe-listener-" + id + "-" + LISTENER_THREAD_SEQ.incrementAndGet();
@@ -67,6 +67,7 @@ final class PircbotxConnectSessionSupport {
       lagAwareBot.setLagProbeObserver(connection::beginLagProbe);
     }
     connection.setBot(bot);
+    connection.setPendingAutoJoin(PircbotxBotFactory.packedAutoJoinEntries(server));
     inputParserHookInstaller.installIrcv3Hook(bot, serverId, connection, bus::onNext);
     timers.startHeartbeat(connection);
     return bot;
@@ -19,7 +19,7 @@ import org.pircbotx.hooks.events.OwnerEvent;
 import org.pircbotx.hooks.events.SuperOpEvent;
 import org.pircbotx.hooks.events.VoiceEvent;
 
-/** Emits live channel-mode observations and refreshes roster snapshots on privilege changes. */
+/** Emits live channel-mode observations and roster deltas for privilege changes. */
 @RequiredArgsConstructor(access = AccessLevel.PUBLIC)
 public final class PircbotxChannelModeEventEmitter {
   @NonNull private final String serverId;
@@ -31,12 +31,15 @@ public final class PircbotxChannelModeEventEmitter {
   public void onMode(ModeEvent event) {
     if (event == null || event.getChannel() == null) return;
 
-    rosterEmitter.emitRoster(event.getChannel());
-
     String channel = event.getChannel().getName();
     String by = nickFromEvent.apply(event);
     String details = modeDetailsFromEvent.apply(event, channel);
 
+    // The per-user op/voice/... events below carry the usual status changes as deltas.
+    if (rosterEmitter.modeChangeNeedsSnapshot(details)) {
+      rosterEmitter.emitRoster(event.getChannel());
+    }
+
     if (details != null && !details.isBlank()) {
       emit.accept(
           new ServerIrcEvent(
@@ -46,22 +49,22 @@ public final class PircbotxChannelModeEventEmitter {
   }
 
   public void onOp(OpEvent event) {
-    rosterEmitter.emitRoster(event.getChannel());
+    rosterEmitter.emitPrefixChanged(event.getChannel(), event.getRecipient(), 'o');
   }
 
   public void onVoice(VoiceEvent event) {
-    rosterEmitter.emitRoster(event.getChannel());
+    rosterEmitter.emitPrefixChanged(event.getChannel(), event.getRecipient(), 'v');
   }
 
   public void onHalfOp(HalfOpEvent event) {
-    rosterEmitter.emitRoster(event.getChannel());
+    rosterEmitter.emitPrefixChanged(event.getChannel(), event.getRecipient(), 'h');
   }
 
   public void onOwner(OwnerEvent event) {
-    rosterEmitter.emitRoster(event.getChannel());
+    rosterEmitter.emitPrefixChanged(event.getChannel(), event.getRecipient(), 'q');
   }
 
   public void onSuperOp(SuperOpEvent event) {
-    rosterEmitter.emitRoster(event.getChannel());
+    rosterEmitter.emitPrefixChanged(event.getChannel(), event.getRecipient(), 'a');
   }
 }
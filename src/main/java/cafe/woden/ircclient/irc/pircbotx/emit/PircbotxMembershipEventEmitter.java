@@ -6,6 +6,7 @@ import cafe.woden.ircclient.irc.ircv3.*;
 import cafe.woden.ircclient.irc.pircbotx.state.PircbotxConnectionState;
 import cafe.woden.ircclient.irc.pircbotx.support.PircbotxUtil;
 import cafe.woden.ircclient.irc.playback.*;
+import cafe.woden.ircclient.util.NoArgAccessors;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.function.BiPredicate;
@@ -27,7 +28,12 @@ import org.pircbotx.snapshot.UserSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Emits membership and nick-change events for a single IRC connection. */
+/**
+ * Emits membership and nick-change events for a single IRC connection.
+ *
+ * <p>Roster changes for other users go out as {@link IrcEvent.RosterDelta}s; full snapshots are
+ * only sent for self-joins and when a quit cannot be attributed to specific channels.
+ */
 @RequiredArgsConstructor(access = AccessLevel.PUBLIC)
 public final class PircbotxMembershipEventEmitter {
   private static final Logger log = LoggerFactory.getLogger(PircbotxMembershipEventEmitter.class);
@@ -63,26 +69,30 @@ public final class PircbotxMembershipEventEmitter {
     }
 
     if (selfJoin) {
+      // With no-implicit-names the roster is fetched on demand; a snapshot now would hold only us.
+      boolean rosterDeferred = conn.isNoImplicitNamesCapAcked();
       emit.accept(
           new ServerIrcEvent(
-              serverId, new IrcEvent.JoinedChannel(Instant.now(), channel.getName())));
+              serverId,
+              new IrcEvent.JoinedChannel(Instant.now(), channel.getName(), rosterDeferred)));
+      if (!rosterDeferred) rosterEmitter.emitRoster(channel);
     } else {
       emit.accept(
           new ServerIrcEvent(
               serverId, new IrcEvent.UserJoinedChannel(Instant.now(), channel.getName(), nick)));
+      rosterEmitter.emitAdded(channel, event.getUser());
     }
-
-    rosterEmitter.emitRoster(channel);
   }
 
   public void onPart(PartEvent event) {
     boolean selfPart = false;
+    String nick = null;
     try {
       rosterEmitter.maybeEmitHostmaskObserved(event.getChannelName(), event.getUser());
     } catch (Exception ignored) {
     }
     try {
-      String nick = event.getUser() == null ? null : event.getUser().getNick();
+      nick = event.getUser() == null ? null : event.getUser().getNick();
       if (isSelfNick.test(event.getBot(), nick)) {
         selfPart = true;
         emit.accept(
@@ -100,7 +110,7 @@ public final class PircbotxMembershipEventEmitter {
     } catch (Exception ignored) {
     }
     if (!selfPart) {
-      rosterEmitter.refreshRosterByName(event.getBot(), event.getChannelName());
+      rosterEmitter.emitRemoved(event.getChannelName(), nick);
     }
   }
 
@@ -138,7 +148,7 @@ public final class PircbotxMembershipEventEmitter {
                         Instant.now(), channelSnapshot.getName(), nick, reason)));
           } catch (Exception ignored) {
           }
-          rosterEmitter.refreshRosterByName(bot, channelSnapshot.getName());
+          rosterEmitter.emitRemoved(channelSnapshot.getName(), nick);
           refreshedSome = true;
         }
       }
@@ -222,7 +232,9 @@ public final class PircbotxMembershipEventEmitter {
 
     if (selfKick) return;
 
-    if (ch != null) {
+    if (!channel.isBlank() && !kickedNick.isBlank()) {
+      rosterEmitter.emitRemoved(channel, kickedNick);
+    } else if (ch != null) {
       rosterEmitter.emitRoster(ch);
     } else if (!channel.isBlank()) {
       rosterEmitter.refreshRosterByName(event.getBot(), channel);
@@ -255,19 +267,13 @@ public final class PircbotxMembershipEventEmitter {
                       Instant.now(), channel.getName(), oldNick, newNick)));
         } catch (Exception ignored) {
         }
-        rosterEmitter.emitRoster(channel);
+        rosterEmitter.emitRenamed(channel, oldNick, event.getUser());
       }
     } catch (Exception ignored) {
     }
   }
 
   private static Object reflectCall(Object target, String method) {
-    if (target == null || method == null) return null;
-    try {
-      java.lang.reflect.Method accessor = target.getClass().getMethod(method);
-      return accessor.invoke(target);
-    } catch (Exception ignored) {
-      return null;
-    }
+    return NoArgAccessors.call(target, method);
   }
 }
@@ -8,6 +8,7 @@ import cafe.woden.ircclient.irc.pircbotx.support.PircbotxUtil;
 import cafe.woden.ircclient.irc.playback.*;
 import cafe.woden.ircclient.state.api.ModeVocabulary;
 import cafe.woden.ircclient.state.api.ServerIsupportStatePort;
+import cafe.woden.ircclient.util.NoArgAccessors;
 import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
@@ -22,9 +23,19 @@ import org.pircbotx.Channel;
 import org.pircbotx.PircBotX;
 import org.pircbotx.User;
 
-/** Emits roster snapshots and opportunistic hostmask observations for a single connection. */
+/**
+ * Emits roster snapshots, incremental roster deltas and opportunistic hostmask observations for a
+ * single connection.
+ *
+ * <p>Snapshots ({@link IrcEvent.NickListUpdated}) walk and sort the whole channel, so they are kept
+ * for NAMES completion, self-join and resync. Membership and status-mode traffic goes out as {@link
+ * IrcEvent.RosterDelta}s that only look at the one user involved.
+ */
 @RequiredArgsConstructor(access = AccessLevel.PUBLIC)
 public final class PircbotxRosterEmitter {
+  /** Status modes PircBotX reports through dedicated events (owner, superop, op, halfop, voice). */
+  private static final String DEDICATED_STATUS_EVENT_MODES = "qaohv";
+
   @NonNull private final String serverId;
   @NonNull private final PircbotxConnectionState conn;
   @NonNull private final ServerIsupportStatePort serverIsupportState;
@@ -93,6 +104,98 @@ public final class PircbotxRosterEmitter {
                 Instant.now(), channelName, nicks, totalUsers, operatorCount)));
   }
 
+  /** {@code user} joined {@code channel}. */
+  public void emitAdded(Channel channel, User user) {
+    emitDelta(channel, IrcEvent.RosterChange.ADDED, user == null ? null : user.getNick(), user);
+  }
+
+  /** {@code nick} left {@code channelName} (part, kick or quit). */
+  public void emitRemoved(String channelName, String nick) {
+    if (channelName == null || channelName.isBlank() || nick == null || nick.isBlank()) return;
+    emit.accept(
+        new ServerIrcEvent(
+            serverId,
+            new IrcEvent.RosterDelta(
+                Instant.now(),
+                channelName,
+                IrcEvent.RosterChange.REMOVED,
+                nick,
+                null,
+                vocabulary().statusPrefixOrder())));
+  }
+
+  /** {@code oldNick} is now known as {@code user} in {@code channel}. */
+  public void emitRenamed(Channel channel, String oldNick, User user) {
+    emitDelta(channel, IrcEvent.RosterChange.RENAMED, oldNick, user);
+  }
+
+  /**
+   * Status mode {@code mode} of {@code user} in {@code channel} changed. Ignored when the server
+   * does not treat {@code mode} as a status mode (e.g. {@code +q} quiets); falls back to a snapshot
+   * when the user is unknown.
+   */
+  public void emitPrefixChanged(Channel channel, User user, char mode) {
+    if (channel == null || !vocabulary().isStatusMode(mode)) return;
+    if (user == null) {
+      emitRoster(channel);
+      return;
+    }
+    emitDelta(channel, IrcEvent.RosterChange.PREFIX_CHANGED, user.getNick(), user);
+  }
+
+  /**
+   * True if a live MODE change touches a status mode that PircBotX does not raise its own
+   * op/voice/halfop/owner/superop event for (e.g. a network-specific {@code +Y}), so only a full
+   * snapshot can pick it up. Unparseable details count as yes.
+   */
+  public boolean modeChangeNeedsSnapshot(String modeDetails) {
+    String details = Objects.toString(modeDetails, "").trim();
+    if (details.isEmpty()) return true;
+    int end = details.indexOf(' ');
+    String modes = end < 0 ? details : details.substring(0, end);
+    if (modes.isEmpty() || (modes.charAt(0) != '+' && modes.charAt(0) != '-')) return true;
+
+    ModeVocabulary vocabulary = vocabulary();
+    for (int i = 0; i < modes.length(); i++) {
+      char mode = modes.charAt(i);
+      if (mode == '+' || mode == '-') continue;
+      if (vocabulary.isStatusMode(mode) && DEDICATED_STATUS_EVENT_MODES.indexOf(mode) < 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void emitDelta(Channel channel, IrcEvent.RosterChange change, String nick, User user) {
+    if (channel == null || user == null || nick == null || nick.isBlank()) return;
+    String channelName = channel.getName();
+    if (channelName == null || channelName.isBlank()) return;
+
+    ModeVocabulary vocabulary = vocabulary();
+    IrcEvent.NickInfo info =
+        new IrcEvent.NickInfo(
+            user.getNick(),
+            prefixForUser(vocabulary, channel, user),
+            PircbotxUtil.hostmaskFromUser(user));
+    emit.accept(
+        new ServerIrcEvent(
+            serverId,
+            new IrcEvent.RosterDelta(
+                Instant.now(), channelName, change, nick, info, vocabulary.statusPrefixOrder())));
+  }
+
+  private static String prefixForUser(ModeVocabulary vocabulary, Channel channel, User user) {
+    try {
+      if (channel.isOwner(user)) return String.valueOf(prefixForMode(vocabulary, 'q', '~'));
+      if (channel.isSuperOp(user)) return String.valueOf(prefixForMode(vocabulary, 'a', '&'));
+      if (channel.isOp(user)) return String.valueOf(prefixForMode(vocabulary, 'o', '@'));
+      if (channel.isHalfOp(user)) return String.valueOf(prefixForMode(vocabulary, 'h', '%'));
+      if (channel.hasVoice(user)) return String.valueOf(prefixForMode(vocabulary, 'v', '+'));
+    } catch (RuntimeException ignored) {
+    }
+    return "";
+  }
+
   private ModeVocabulary vocabulary() {
     ModeVocabulary vocabulary = serverIsupportState.vocabularyForServer(serverId);
     return vocabulary == null ? ModeVocabulary.fallback() : vocabulary;
@@ -100,13 +203,8 @@ public final class PircbotxRosterEmitter {
 
   private static Set<?> setOrEmpty(Channel channel, String method) {
     if (channel == null || method == null) return Set.of();
-    try {
-      java.lang.reflect.Method accessor = channel.getClass().getMethod(method);
-      Object value = accessor.invoke(channel);
-      if (value instanceof Set<?> set) return set;
-    } catch (Exception ignored) {
-    }
-    return Set.of();
+    Object value = NoArgAccessors.call(channel, method);
+    return value instanceof Set<?> set ? set : Set.of();
   }
 
   private static String prefixForUser(
@@ -0,0 +1,152 @@
+package cafe.woden.ircclient.irc.pircbotx.listener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Packs autojoin entries into as few comma-separated {@code JOIN} lines as the server allows.
+ *
+ * <p>Each line stays within the 512-byte message limit and the {@code TARGMAX} JOIN target count.
+ * Channels beyond the {@code CHANLIMIT} for their prefix are left out, since the server would
+ * refuse them anyway. Keyed channels lead each line so their keys line up positionally.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class PircbotxAutoJoinPacker {
+
+  /** 512 bytes minus the trailing CRLF. */
+  static final int MAX_LINE_BYTES = 510;
+
+  private static final String JOIN = "JOIN ";
+
+  record Packed(List<String> lines, List<String> skipped) {}
+
+  private record Entry(String channel, String key) {}
+
+  /**
+   * @param entries autojoin entries, {@code "#chan"} or {@code "#chan key"}
+   * @param targmax raw {@code TARGMAX} ISUPPORT value, or null
+   * @param chanlimit raw {@code CHANLIMIT} ISUPPORT value, or null
+   */
+  static Packed pack(List<String> entries, String targmax, String chanlimit) {
+    int maxTargets = parseTargmax(targmax, "JOIN");
+    Map<String, Integer> remainingByPrefixes = new HashMap<>(parseChanlimit(chanlimit));
+
+    List<Entry> keyed = new ArrayList<>();
+    List<Entry> plain = new ArrayList<>();
+    List<String> skipped = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    for (String raw : entries == null ? List.<String>of() : entries) {
+      Entry e = parseEntry(raw);
+      if (e == null || !seen.add(e.channel().toLowerCase(Locale.ROOT))) continue;
+      String prefixes = limitGroupFor(remainingByPrefixes, e.channel().charAt(0));
+      if (prefixes != null) {
+        int remaining = remainingByPrefixes.get(prefixes);
+        if (remaining <= 0) {
+          skipped.add(e.channel());
+          continue;
+        }
+        remainingByPrefixes.put(prefixes, remaining - 1);
+      }
+      (e.key().isEmpty() ? plain : keyed).add(e);
+    }
+
+    List<String> lines = new ArrayList<>();
+    List<Entry> line = new ArrayList<>();
+    for (List<Entry> group : List.of(keyed, plain)) {
+      for (Entry e : group) {
+        line.add(e);
+        if (line.size() > 1
+            && (line.size() > maxTargets || utf8Length(render(line)) > MAX_LINE_BYTES)) {
+          line.removeLast();
+          lines.add(render(line));
+          line.clear();
+          line.add(e);
+        }
+      }
+    }
+    if (!line.isEmpty()) lines.add(render(line));
+    return new Packed(List.copyOf(lines), List.copyOf(skipped));
+  }
+
+  private static String render(List<Entry> line) {
+    StringBuilder channels = new StringBuilder(JOIN);
+    StringBuilder keys = new StringBuilder();
+    for (int i = 0; i < line.size(); i++) {
+      Entry e = line.get(i);
+      if (i > 0) channels.append(',');
+      channels.append(e.channel());
+      if (!e.key().isEmpty()) {
+        if (!keys.isEmpty()) keys.append(',');
+        keys.append(e.key());
+      }
+    }
+    if (!keys.isEmpty()) channels.append(' ').append(keys);
+    return channels.toString();
+  }
+
+  private static Entry parseEntry(String raw) {
+    String s = Objects.toString(raw, "").trim();
+    if (s.isEmpty()) return null;
+    String[] parts = s.split("\\s+", 3);
+    String channel = parts[0];
+    if (channel.indexOf(',') >= 0) return null;
+    String key = parts.length > 1 ? parts[1] : "";
+    if (key.indexOf(',') >= 0) key = "";
+    return new Entry(channel, key);
+  }
+
+  /** Max targets for {@code command}, or {@link Integer#MAX_VALUE} when unadvertised/unlimited. */
+  static int parseTargmax(String targmax, String command) {
+    for (String part : Objects.toString(targmax, "").split(",")) {
+      int colon = part.indexOf(':');
+      if (colon <= 0 || !part.substring(0, colon).trim().equalsIgnoreCase(command)) continue;
+      return positiveOrUnlimited(part.substring(colon + 1));
+    }
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Channel limits keyed by prefix group, e.g. {@code "#&:100,+:10"}; prefixes in one group share
+   * the limit. Unlimited groups are omitted.
+   */
+  static Map<String, Integer> parseChanlimit(String chanlimit) {
+    Map<String, Integer> out = new HashMap<>();
+    for (String part : Objects.toString(chanlimit, "").split(",")) {
+      int colon = part.indexOf(':');
+      if (colon <= 0) continue;
+      int limit = positiveOrUnlimited(part.substring(colon + 1));
+      String prefixes = part.substring(0, colon).trim();
+      if (limit != Integer.MAX_VALUE && !prefixes.isEmpty()) out.put(prefixes, limit);
+    }
+    return out;
+  }
+
+  private static String limitGroupFor(Map<String, Integer> limits, char prefix) {
+    for (String prefixes : limits.keySet()) {
+      if (prefixes.indexOf(prefix) >= 0) return prefixes;
+    }
+    return null;
+  }
+
+  private static int positiveOrUnlimited(String value) {
+    try {
+      int n = Integer.parseInt(Objects.toString(value, "").trim());
+      return n > 0 ? n : Integer.MAX_VALUE;
+    } catch (NumberFormatException e) {
+      return Integer.MAX_VALUE;
+    }
+  }
+
+  private static int utf8Length(String s) {
+    return s.getBytes(StandardCharsets.UTF_8).length;
+  }
+}
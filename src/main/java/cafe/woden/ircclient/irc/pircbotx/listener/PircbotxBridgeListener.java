@@ -127,7 +127,13 @@ final class PircbotxBridgeListener extends ListenerAdapter {
         new PircbotxSaslFailureHandler(serverId, conn, bus::onNext, disconnectOnSaslFailure);
     this.registrationLifecycle =
         new PircbotxRegistrationLifecycleHandler(
-            serverId, conn, cursorProvider, bouncerDiscovery, serverResponses, bus::onNext);
+            serverId,
+            conn,
+            cursorProvider,
+            bouncerDiscovery,
+            serverResponses,
+            isupportState,
+            bus::onNext);
     this.rosterEmitter = new PircbotxRosterEmitter(serverId, conn, isupportState, bus::onNext);
     this.membershipEvents =
         new PircbotxMembershipEventEmitter(
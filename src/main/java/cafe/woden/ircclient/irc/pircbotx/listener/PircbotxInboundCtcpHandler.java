@@ -5,6 +5,7 @@ import cafe.woden.ircclient.irc.backend.*;
 import cafe.woden.ircclient.irc.ircv3.*;
 import cafe.woden.ircclient.irc.pircbotx.parse.*;
 import cafe.woden.ircclient.irc.playback.*;
+import cafe.woden.ircclient.util.NoArgAccessors;
 import java.time.Instant;
 import java.util.Locale;
 import java.util.Objects;
@@ -235,13 +236,8 @@ final class PircbotxInboundCtcpHandler {
 
   private static String deriveArgument(GenericCTCPEvent event) {
     if (event == null) return null;
-    try {
-      java.lang.reflect.Method m = event.getClass().getMethod("getPingValue");
-      Object v = m.invoke(event);
-      if (v != null) return v.toString();
-    } catch (Exception ignored) {
-    }
-    return null;
+    Object v = NoArgAccessors.call(event, "getPingValue");
+    return v != null ? v.toString() : null;
   }
 
   private static String deriveCommand(GenericCTCPEvent event) {
@@ -8,7 +8,9 @@ import cafe.woden.ircclient.irc.pircbotx.emit.PircbotxServerResponseEmitter;
 import cafe.woden.ircclient.irc.pircbotx.parse.*;
 import cafe.woden.ircclient.irc.pircbotx.state.PircbotxConnectionState;
 import cafe.woden.ircclient.irc.playback.*;
+import cafe.woden.ircclient.state.api.ServerIsupportStatePort;
 import java.time.Instant;
+import java.util.List;
 import java.util.OptionalLong;
 import java.util.function.Consumer;
 import lombok.AccessLevel;
@@ -29,6 +31,7 @@ final class PircbotxRegistrationLifecycleHandler {
   @NonNull private final PlaybackCursorProvider playbackCursorProvider;
   @NonNull private final PircbotxBouncerDiscoveryCoordinator bouncerDiscovery;
   @NonNull private final PircbotxServerResponseEmitter serverResponses;
+  @NonNull private final ServerIsupportStatePort serverIsupportState;
   @NonNull private final Consumer<ServerIrcEvent> emit;
 
   boolean maybeHandle(int code, PircBotX bot, String line) {
@@ -64,11 +67,39 @@ final class PircbotxRegistrationLifecycleHandler {
         new ServerIrcEvent(
             serverId, new IrcEvent.ConnectionFeaturesUpdated(now, "post-registration")));
     logNegotiatedCaps();
+    sendPendingAutoJoin(bot);
     bouncerDiscovery.maybeRequestZncNetworks(bot);
     maybeRequestZncPlayback(bot);
     bouncerDiscovery.maybeRequestSojuNetworks(bot);
   }
 
+  /** Joins the configured channels in packed JOIN lines now that ISUPPORT limits are known. */
+  private void sendPendingAutoJoin(PircBotX bot) {
+    List<String> entries = conn.takePendingAutoJoin();
+    if (bot == null || entries.isEmpty()) return;
+
+    PircbotxAutoJoinPacker.Packed packed =
+        PircbotxAutoJoinPacker.pack(
+            entries,
+            serverIsupportState.isupportToken(serverId, "TARGMAX"),
+            serverIsupportState.isupportToken(serverId, "CHANLIMIT"));
+    if (!packed.skipped().isEmpty()) {
+      log.warn("[{}] CHANLIMIT reached; not auto-joining {}", serverId, packed.skipped());
+    }
+    try {
+      for (String joinLine : packed.lines()) {
+        bot.sendRaw().rawLine(joinLine);
+      }
+      log.debug(
+          "[{}] auto-joining {} channel(s) in {} JOIN line(s)",
+          serverId,
+          entries.size() - packed.skipped().size(),
+          packed.lines().size());
+    } catch (Exception ex) {
+      log.warn("[{}] failed to send autojoin", serverId, ex);
+    }
+  }
+
   private void handleChannelMode(PircBotX bot, String line) {
     PircbotxChannelModeParsers.ParsedRpl324 parsed = PircbotxChannelModeParsers.parseRpl324(line);
     if (parsed != null) {
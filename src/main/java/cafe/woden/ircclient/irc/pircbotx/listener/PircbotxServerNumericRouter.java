@@ -8,6 +8,7 @@ import cafe.woden.ircclient.irc.pircbotx.emit.PircbotxServerResponseEmitter;
 import cafe.woden.ircclient.irc.pircbotx.emit.PircbotxWhoEventEmitter;
 import cafe.woden.ircclient.irc.pircbotx.parse.*;
 import cafe.woden.ircclient.irc.playback.*;
+import cafe.woden.ircclient.util.NoArgAccessors;
 import java.time.Instant;
 import java.util.function.Consumer;
 import lombok.AccessLevel;
@@ -174,12 +175,6 @@ final class PircbotxServerNumericRouter {
   }
 
   private static Object reflectCall(Object target, String method) {
-    if (target == null || method == null) return null;
-    try {
-      java.lang.reflect.Method m = target.getClass().getMethod(method);
-      return m.invoke(target);
-    } catch (Exception ignored) {
-      return null;
-    }
+    return NoArgAccessors.call(target, method);
   }
 }
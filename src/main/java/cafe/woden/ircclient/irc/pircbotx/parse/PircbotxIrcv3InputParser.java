@@ -7,6 +7,7 @@ import cafe.woden.ircclient.irc.mode.*;
 import cafe.woden.ircclient.irc.pircbotx.state.PircbotxConnectionState;
 import cafe.woden.ircclient.irc.pircbotx.support.PircbotxUtil;
 import cafe.woden.ircclient.irc.playback.*;
+import cafe.woden.ircclient.util.PipelineJfrEvents;
 import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
 import java.time.Instant;
@@ -18,6 +19,7 @@ import org.pircbotx.InputParser;
 import org.pircbotx.PircBotX;
 import org.pircbotx.UserHostmask;
 import org.pircbotx.exception.DaoException;
+import org.pircbotx.exception.IrcException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,6 +73,19 @@ final class PircbotxIrcv3InputParser extends InputParser {
     this.tagSignalSupport = new PircbotxTagSignalSupport(this.serverId, this.sink);
   }
 
+  @Override
+  public void handleLine(String line) throws IOException, IrcException {
+    PipelineJfrEvents.InboundParse jfr = new PipelineJfrEvents.InboundParse();
+    jfr.begin();
+    try {
+      super.handleLine(line);
+    } finally {
+      boolean recorded = jfr.isEnabled();
+      if (recorded) jfr.command = rawToken(line, 0);
+      jfr.commit(serverId, recorded ? rawToken(line, 1) : "");
+    }
+  }
+
   @Override
   public void processCommand(
       String target,
@@ -422,4 +437,23 @@ final class PircbotxIrcv3InputParser extends InputParser {
     if (idx < 0 || idx + 2 >= line.length()) return "";
     return line.substring(idx + 2).trim();
   }
+
+  /** Returns the {@code n}th word after the tags and prefix (0 = command), or empty. */
+  private static String rawToken(String rawLine, int n) {
+    String line = Objects.toString(rawLine, "").trim();
+    int pos = 0;
+    if (line.startsWith("@")) pos = nextWord(line, pos);
+    if (pos < line.length() && line.charAt(pos) == ':') pos = nextWord(line, pos);
+    for (int i = 0; i < n && pos < line.length(); i++) pos = nextWord(line, pos);
+    if (pos >= line.length() || line.charAt(pos) == ':') return "";
+    int end = line.indexOf(' ', pos);
+    return end < 0 ? line.substring(pos) : line.substring(pos, end);
+  }
+
+  private static int nextWord(String line, int pos) {
+    int space = line.indexOf(' ', pos);
+    if (space < 0) return line.length();
+    while (space < line.length() && line.charAt(space) == ' ') space++;
+    return space;
+  }
 }
@@ -7,6 +7,7 @@ import cafe.woden.ircclient.irc.ircv3.*;
 import cafe.woden.ircclient.irc.playback.*;
 import io.reactivex.rxjava3.disposables.Disposable;
 import java.time.Instant;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
@@ -117,6 +118,7 @@ public final class PircbotxConnectionState {
   final AtomicBoolean batchFallbackReqSent = new AtomicBoolean(false);
   final AtomicBoolean chatHistoryFallbackReqSent = new AtomicBoolean(false);
   final AtomicBoolean readMarkerCapAcked = new AtomicBoolean(false);
+  final AtomicBoolean noImplicitNamesCapAcked = new AtomicBoolean(false);
   final AtomicBoolean monitorCapAcked = new AtomicBoolean(false);
   final AtomicBoolean extendedMonitorCapAcked = new AtomicBoolean(false);
 
@@ -141,6 +143,8 @@ public final class PircbotxConnectionState {
   final AtomicReference<String> connectedHost = new AtomicReference<>("");
   final AtomicBoolean connectedWithTls = new AtomicBoolean(false);
   final AtomicBoolean registrationComplete = new AtomicBoolean(false);
+  // Channels we join ourselves (packed) once ISUPPORT is known, instead of PircBotX autojoin.
+  private final AtomicReference<List<String>> pendingAutoJoin = new AtomicReference<>(List.of());
 
   // Best-effort bridge between InputParser command metadata and PrivateMessageEvent objects.
   private final PircbotxPrivateTargetHintStore privateTargetHints =
@@ -279,6 +283,19 @@ public final class PircbotxConnectionState {
     return registrationComplete.get();
   }
 
+  public void setPendingAutoJoin(List<String> entries) {
+    pendingAutoJoin.set(entries == null ? List.of() : List.copyOf(entries));
+  }
+
+  /** Returns the pending autojoin entries once; later calls see an empty list. */
+  public List<String> takePendingAutoJoin() {
+    return pendingAutoJoin.getAndSet(List.of());
+  }
+
+  public boolean isNoImplicitNamesCapAcked() {
+    return noImplicitNamesCapAcked.get();
+  }
+
   public void recordInboundActivity(long observedAtMs) {
     lastInboundMs.set(observedAtMs);
     localTimeoutEmitted.set(false);
@@ -737,6 +754,8 @@ public final class PircbotxConnectionState {
       case "message-tags" -> updateTrackedCapability(messageTagsCapAcked, enabled);
       case "draft/read-marker", "read-marker" ->
           updateTrackedCapability(readMarkerCapAcked, enabled);
+      case "draft/no-implicit-names", "no-implicit-names" ->
+          updateTrackedCapability(noImplicitNamesCapAcked, enabled);
       case "monitor" -> updateTrackedCapability(monitorCapAcked, enabled);
       case "extended-monitor", "draft/extended-monitor" ->
           updateTrackedCapability(extendedMonitorCapAcked, enabled);
@@ -827,6 +846,7 @@ public final class PircbotxConnectionState {
     batchFallbackReqSent.set(false);
     chatHistoryFallbackReqSent.set(false);
     readMarkerCapAcked.set(false);
+    noImplicitNamesCapAcked.set(false);
     monitorCapAcked.set(false);
     extendedMonitorCapAcked.set(false);
     sojuBouncerNetworksCapAcked.set(false);
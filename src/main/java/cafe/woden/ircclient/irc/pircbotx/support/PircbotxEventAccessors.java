@@ -5,6 +5,7 @@ import cafe.woden.ircclient.irc.backend.*;
 import cafe.woden.ircclient.irc.ircv3.*;
 import cafe.woden.ircclient.irc.pircbotx.parse.*;
 import cafe.woden.ircclient.irc.playback.*;
+import cafe.woden.ircclient.util.NoArgAccessors;
 import java.util.Objects;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -139,24 +140,9 @@ public final class PircbotxEventAccessors {
     return (reduced != null) ? reduced : s;
   }
 
+  /** Zero-arg accessor call through the cached {@link NoArgAccessors} handles. */
   public static Object reflectCall(Object target, String method) {
-    if (target == null || method == null) return null;
-    try {
-      java.lang.reflect.Method m = target.getClass().getMethod(method);
-      return m.invoke(target);
-    } catch (Exception ignored) {
-      Class<?> type = target.getClass();
-      while (type != null) {
-        try {
-          java.lang.reflect.Method m = type.getDeclaredMethod(method);
-          m.setAccessible(true);
-          return m.invoke(target);
-        } catch (Exception ignoredDeclared) {
-          type = type.getSuperclass();
-        }
-      }
-      return null;
-    }
+    return NoArgAccessors.callIncludingDeclared(target, method);
   }
 
   private static String nickFromRawLine(Object event) {
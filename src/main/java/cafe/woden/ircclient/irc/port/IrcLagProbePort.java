@@ -1,6 +1,7 @@
 package cafe.woden.ircclient.irc.port;
 
 import cafe.woden.ircclient.irc.IrcClientService;
+import cafe.woden.ircclient.irc.ServerEventBuffer;
 import io.reactivex.rxjava3.core.Completable;
 import java.util.Objects;
 import java.util.Optional;
@@ -33,6 +34,10 @@ public interface IrcLagProbePort {
     return OptionalLong.empty();
   }
 
+  default Optional<ServerEventBuffer.Backlog> eventBacklog(String serverId) {
+    return Optional.empty();
+  }
+
   static IrcLagProbePort from(IrcClientService irc) {
     if (irc instanceof IrcLagProbePort port) {
       return port;
@@ -67,6 +72,11 @@ public interface IrcLagProbePort {
       public OptionalLong lastMeasuredLagMs(String serverId) {
         return irc.lastMeasuredLagMs(serverId);
       }
+
+      @Override
+      public Optional<ServerEventBuffer.Backlog> eventBacklog(String serverId) {
+        return irc.eventBacklog(serverId);
+      }
     };
   }
 }
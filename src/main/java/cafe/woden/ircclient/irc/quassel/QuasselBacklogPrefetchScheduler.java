@@ -0,0 +1,149 @@
+package cafe.woden.ircclient.irc.quassel;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.Disposable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-session backlog prefetch queue with a bounded in-flight window.
+ *
+ * <p>Buffers are requested in the order given to {@link #start}; at most {@code maxInFlight}
+ * requests are outstanding, and each reply (see {@link #onBacklogReceived}) frees a slot for the
+ * next buffer. Requests that get no reply within the timeout are dropped from the window so a
+ * silent core cannot stall the queue.
+ */
+final class QuasselBacklogPrefetchScheduler {
+  private static final Logger log = LoggerFactory.getLogger(QuasselBacklogPrefetchScheduler.class);
+
+  /** Sends one backlog request for a buffer; throwing cancels the remaining prefetch. */
+  @FunctionalInterface
+  interface Sender {
+    void request(int bufferId) throws Exception;
+  }
+
+  private final String serverId;
+  private final int maxInFlight;
+  private final long requestTimeoutMs;
+  private final Sender sender;
+  private final Scheduler timer;
+
+  private final ArrayDeque<Integer> pending = new ArrayDeque<>();
+  private final Map<Integer, Long> inFlightSinceMs = new LinkedHashMap<>();
+  private Disposable timeoutCheck;
+  private boolean cancelled;
+  private int completed;
+
+  QuasselBacklogPrefetchScheduler(
+      String serverId, int maxInFlight, long requestTimeoutMs, Sender sender, Scheduler timer) {
+    this.serverId = Objects.toString(serverId, "");
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.requestTimeoutMs = Math.max(1L, requestTimeoutMs);
+    this.sender = Objects.requireNonNull(sender, "sender");
+    this.timer = Objects.requireNonNull(timer, "timer");
+  }
+
+  /** Queues {@code bufferIds} (highest priority first) and fills the in-flight window. */
+  void start(Collection<Integer> bufferIds) {
+    synchronized (this) {
+      if (cancelled || bufferIds == null) return;
+      for (Integer bufferId : bufferIds) {
+        if (bufferId == null || bufferId < 0) continue;
+        if (inFlightSinceMs.containsKey(bufferId) || pending.contains(bufferId)) continue;
+        pending.addLast(bufferId);
+      }
+    }
+    pump();
+  }
+
+  /**
+   * Marks a backlog reply for {@code bufferId}; unrelated (user-requested) replies are ignored.
+   *
+   * @return whether the reply answered one of our prefetch requests
+   */
+  boolean onBacklogReceived(int bufferId) {
+    synchronized (this) {
+      if (inFlightSinceMs.remove(bufferId) == null) return false;
+      completed++;
+    }
+    pump();
+    return true;
+  }
+
+  void cancel() {
+    Disposable check;
+    synchronized (this) {
+      cancelled = true;
+      pending.clear();
+      inFlightSinceMs.clear();
+      check = timeoutCheck;
+      timeoutCheck = null;
+    }
+    if (check != null) check.dispose();
+  }
+
+  synchronized int pendingCount() {
+    return pending.size();
+  }
+
+  synchronized int inFlightCount() {
+    return inFlightSinceMs.size();
+  }
+
+  synchronized boolean isIdle() {
+    return pending.isEmpty() && inFlightSinceMs.isEmpty();
+  }
+
+  private void pump() {
+    List<Integer> toSend = new ArrayList<>();
+    synchronized (this) {
+      if (cancelled) return;
+      long now = timer.now(TimeUnit.MILLISECONDS);
+      inFlightSinceMs.values().removeIf(since -> now - since >= requestTimeoutMs);
+      while (inFlightSinceMs.size() < maxInFlight && !pending.isEmpty()) {
+        Integer bufferId = pending.pollFirst();
+        inFlightSinceMs.put(bufferId, now);
+        toSend.add(bufferId);
+      }
+      scheduleTimeoutCheckLocked(now);
+      if (toSend.isEmpty() && isIdle()) {
+        log.debug("[{}] Quassel backlog prefetch finished ({} replies)", serverId, completed);
+      }
+    }
+
+    for (Integer bufferId : toSend) {
+      try {
+        sender.request(bufferId);
+      } catch (Exception e) {
+        log.debug("[{}] Quassel backlog prefetch stopped at buffer {}", serverId, bufferId, e);
+        cancel();
+        return;
+      }
+    }
+  }
+
+  private void scheduleTimeoutCheckLocked(long now) {
+    if (timeoutCheck != null && !timeoutCheck.isDisposed()) return;
+    if (inFlightSinceMs.isEmpty()) return;
+    long oldest = inFlightSinceMs.values().iterator().next();
+    long delayMs = Math.max(1L, oldest + requestTimeoutMs - now);
+    timeoutCheck =
+        timer.scheduleDirect(
+            () -> {
+              synchronized (this) {
+                timeoutCheck = null;
+              }
+              pump();
+            },
+            delayMs,
+            TimeUnit.MILLISECONDS);
+  }
+}
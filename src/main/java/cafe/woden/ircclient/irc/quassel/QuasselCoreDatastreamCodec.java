@@ -3,6 +3,7 @@ package cafe.woden.ircclient.irc.quassel;
 import cafe.woden.ircclient.irc.*;
 import cafe.woden.ircclient.irc.backend.*;
 import cafe.woden.ircclient.irc.ircv3.*;
+import cafe.woden.ircclient.util.BoundedInterner;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
@@ -43,6 +44,10 @@ public class QuasselCoreDatastreamCodec {
   private static final Charset QT_CSTRING_CHARSET = StandardCharsets.ISO_8859_1;
   private static final long MILLIS_PER_DAY = 86_400_000L;
   private static final long JULIAN_DAY_UNIX_EPOCH = 2_440_588L;
+  // Buffer names and sender hostmasks repeat on every message of a backlog reply; decoded messages
+  // share one instance of each instead of holding thousands of equal copies.
+  private static final int MAX_POOLED_NAME_LENGTH = 256;
+  private static final BoundedInterner<String> NAMES = new BoundedInterner<>(8_192);
 
   private static final int QT_LONG_LONG = 4;
   private static final int QT_ULONG_LONG = 5;
@@ -624,7 +629,7 @@ public class QuasselCoreDatastreamCodec {
     int networkId = in.getInt();
     int typeBits = Short.toUnsignedInt(in.getShort());
     int groupId = in.getInt();
-    String bufferName = readUtf8String(in);
+    String bufferName = internName(readUtf8String(in));
     return new BufferInfoValue(bufferId, networkId, typeBits, groupId, bufferName);
   }
 
@@ -635,7 +640,7 @@ public class QuasselCoreDatastreamCodec {
     int typeBits = in.getInt();
     int flags = Byte.toUnsignedInt(in.get());
     BufferInfoValue bufferInfo = readBufferInfo(in);
-    String sender = readUtf8String(in);
+    String sender = internName(readUtf8String(in));
     String content = readUtf8String(in);
     return new MessageValue(
         messageId, timestampEpochSeconds, typeBits, flags, bufferInfo, sender, content);
@@ -704,6 +709,11 @@ public class QuasselCoreDatastreamCodec {
     return new String(bytes, StandardCharsets.UTF_16BE);
   }
 
+  private static String internName(String value) {
+    if (value == null || value.isEmpty() || value.length() > MAX_POOLED_NAME_LENGTH) return value;
+    return NAMES.intern(value);
+  }
+
   private static String readUtf8String(ByteBuffer in) throws IOException {
     ensureRemaining(in, 4, "UTF-8 string length");
     int len = in.getInt();
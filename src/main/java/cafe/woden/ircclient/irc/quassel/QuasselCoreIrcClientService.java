@@ -2,6 +2,7 @@ package cafe.woden.ircclient.irc.quassel;
 
 import cafe.woden.ircclient.config.BackendDescriptorCatalog;
 import cafe.woden.ircclient.config.IrcProperties;
+import cafe.woden.ircclient.config.QuasselProperties;
 import cafe.woden.ircclient.config.ServerCatalog;
 import cafe.woden.ircclient.irc.*;
 import cafe.woden.ircclient.irc.backend.*;
@@ -50,6 +51,7 @@ import java.util.function.BooleanSupplier;
 import org.jmolecules.architecture.layered.InfrastructureLayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -161,15 +163,40 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
   private final QuasselCoreAuthHandshake authHandshake;
   private final QuasselCoreDatastreamCodec datastreamCodec;
   private final IrcProperties.Reconnect reconnectPolicy;
+  private final QuasselProperties.BacklogPrefetch backlogPrefetchSettings;
 
-  @Autowired
   public QuasselCoreIrcClientService(
       ServerCatalog serverCatalog,
       QuasselCoreSocketConnector socketConnector,
       QuasselCoreProtocolProbe protocolProbe,
       QuasselCoreAuthHandshake authHandshake,
       QuasselCoreDatastreamCodec datastreamCodec) {
-    this(serverCatalog, socketConnector, protocolProbe, authHandshake, datastreamCodec, null);
+    this(
+        serverCatalog,
+        socketConnector,
+        protocolProbe,
+        authHandshake,
+        datastreamCodec,
+        (IrcProperties) null,
+        QuasselProperties.defaults());
+  }
+
+  @Autowired
+  public QuasselCoreIrcClientService(
+      ServerCatalog serverCatalog,
+      QuasselCoreSocketConnector socketConnector,
+      QuasselCoreProtocolProbe protocolProbe,
+      QuasselCoreAuthHandshake authHandshake,
+      QuasselCoreDatastreamCodec datastreamCodec,
+      ObjectProvider<QuasselProperties> quasselProps) {
+    this(
+        serverCatalog,
+        socketConnector,
+        protocolProbe,
+        authHandshake,
+        datastreamCodec,
+        (IrcProperties) null,
+        quasselProps.getIfAvailable(QuasselProperties::defaults));
   }
 
   public QuasselCoreIrcClientService(
@@ -179,6 +206,24 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
       QuasselCoreAuthHandshake authHandshake,
       QuasselCoreDatastreamCodec datastreamCodec,
       IrcProperties props) {
+    this(
+        serverCatalog,
+        socketConnector,
+        protocolProbe,
+        authHandshake,
+        datastreamCodec,
+        props,
+        QuasselProperties.defaults());
+  }
+
+  QuasselCoreIrcClientService(
+      ServerCatalog serverCatalog,
+      QuasselCoreSocketConnector socketConnector,
+      QuasselCoreProtocolProbe protocolProbe,
+      QuasselCoreAuthHandshake authHandshake,
+      QuasselCoreDatastreamCodec datastreamCodec,
+      IrcProperties props,
+      QuasselProperties quasselProps) {
     this.serverCatalog = Objects.requireNonNull(serverCatalog, "serverCatalog");
     this.socketConnector = Objects.requireNonNull(socketConnector, "socketConnector");
     this.protocolProbe = Objects.requireNonNull(protocolProbe, "protocolProbe");
@@ -186,6 +231,8 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
     this.datastreamCodec = Objects.requireNonNull(datastreamCodec, "datastreamCodec");
     IrcProperties.Client client = props == null ? null : props.client();
     this.reconnectPolicy = client == null ? null : client.reconnect();
+    this.backlogPrefetchSettings =
+        (quasselProps == null ? QuasselProperties.defaults() : quasselProps).backlogPrefetch();
   }
 
   @PreDestroy
@@ -1217,6 +1264,66 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
     }
   }
 
+  /**
+   * Requests recent backlog for every channel/query buffer through a bounded in-flight window, so a
+   * core with hundreds of buffers fills scrollback in parallel rather than one reply at a time.
+   * Channels we are joined to go first, then queries, then parted channels.
+   */
+  private void startBacklogPrefetch(QuasselSession session) {
+    QuasselProperties.BacklogPrefetch cfg = backlogPrefetchSettings;
+    if (session == null || !cfg.enabled()) return;
+
+    ArrayList<QuasselCoreDatastreamCodec.BufferInfoValue> joined = new ArrayList<>();
+    ArrayList<QuasselCoreDatastreamCodec.BufferInfoValue> queries = new ArrayList<>();
+    ArrayList<QuasselCoreDatastreamCodec.BufferInfoValue> parted = new ArrayList<>();
+    for (QuasselCoreDatastreamCodec.BufferInfoValue info : session.bufferInfosById.values()) {
+      if (info == null || info.bufferId() < 0) continue;
+      if (session.removedNetworkIds.contains(info.networkId())) continue;
+      if (isQueryBuffer(info)) {
+        queries.add(info);
+      } else if (isChannelBuffer(info)) {
+        String key = normalizeMembershipKey(normalizedBufferName(info), info.networkId());
+        (session.joinedChannelMembershipKeys.contains(key) ? joined : parted).add(info);
+      }
+    }
+    ArrayList<Integer> order = new ArrayList<>(joined.size() + queries.size() + parted.size());
+    for (var group : List.of(joined, queries, parted)) {
+      group.stream()
+          .sorted((a, b) -> Integer.compare(a.bufferId(), b.bufferId()))
+          .forEach(info -> order.add(info.bufferId()));
+    }
+    if (order.isEmpty()) return;
+
+    QuasselBacklogPrefetchScheduler prefetch =
+        new QuasselBacklogPrefetchScheduler(
+            session.serverId,
+            cfg.maxInFlight(),
+            cfg.requestTimeoutMs(),
+            bufferId -> {
+              QuasselCoreDatastreamCodec.BufferInfoValue info =
+                  session.bufferInfosById.get(bufferId);
+              if (info == null) return;
+              sendBacklogRequest(
+                  session, info, UNKNOWN_MSG_ID, UNKNOWN_MSG_ID, cfg.messagesPerBuffer());
+            },
+            RxVirtualSchedulers.io());
+    QuasselBacklogPrefetchScheduler previous = session.backlogPrefetch.getAndSet(prefetch);
+    if (previous != null) previous.cancel();
+    log.debug(
+        "[{}] Quassel backlog prefetch: {} buffers ({} joined channels first), {} in flight",
+        session.serverId,
+        order.size(),
+        joined.size(),
+        cfg.maxInFlight());
+    prefetch.start(order);
+  }
+
+  private static void cancelBacklogPrefetch(QuasselSession session) {
+    if (session == null) return;
+    QuasselBacklogPrefetchScheduler prefetch = session.backlogPrefetch.getAndSet(null);
+    if (prefetch != null) prefetch.cancel();
+  }
+
   private static HistorySelector parseHistorySelector(String selector, boolean wildcardAllowed) {
     String raw = Objects.toString(selector, "").trim();
     if (wildcardAllowed && "*".equals(raw)) {
@@ -1709,6 +1816,7 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
         scheduleReconnectIfEligible(session, reason);
       }
     } finally {
+      cancelBacklogPrefetch(session);
       Disposable readinessTask = session.readinessFallbackTask.getAndSet(null);
       if (readinessTask != null && !readinessTask.isDisposed()) {
         try {
@@ -3171,16 +3279,23 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
     if (values == null || values.isEmpty()) return;
 
     QuasselCoreDatastreamCodec.BufferInfoValue bufferInfo = null;
+    int replyBufferId = -1;
     ArrayList<QuasselCoreDatastreamCodec.MessageValue> messages = new ArrayList<>();
     for (Object value : values) {
       if (bufferInfo == null && value instanceof QuasselCoreDatastreamCodec.BufferInfoValue info) {
         bufferInfo = resolveBufferInfo(session, info);
+        if (replyBufferId < 0) replyBufferId = info.bufferId();
       } else if (bufferInfo == null && value instanceof Number n) {
+        if (replyBufferId < 0) replyBufferId = n.intValue();
         QuasselCoreDatastreamCodec.BufferInfoValue byId = session.bufferInfosById.get(n.intValue());
         if (byId != null) bufferInfo = byId;
       }
       collectMessages(value, messages);
     }
+    // Free the prefetch slot even for an empty reply, so the window keeps moving.
+    QuasselBacklogPrefetchScheduler prefetch = session.backlogPrefetch.get();
+    boolean prefetched =
+        prefetch != null && replyBufferId >= 0 && prefetch.onBacklogReceived(replyBufferId);
     if (messages.isEmpty()) return;
 
     QuasselCoreDatastreamCodec.MessageValue first = messages.get(0);
@@ -3190,22 +3305,31 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
     if (target.isEmpty()) return;
     noteTargetNetworkHint(session, target, resolvedBuffer.networkId(), true);
 
-    ArrayList<ChatHistoryEntry> entries = new ArrayList<>(messages.size());
+    // One batch per target: a per-buffer reply yields a single batch, while a multi-buffer reply
+    // (requestBacklogAll) is split by each message's own buffer (see toHistoryEntry) so every
+    // target is ingested and rendered in bulk.
+    LinkedHashMap<String, ArrayList<ChatHistoryEntry>> entriesByTarget = new LinkedHashMap<>();
     for (QuasselCoreDatastreamCodec.MessageValue msg : messages) {
       ChatHistoryEntry entry = toHistoryEntry(session, msg, target);
       if (entry != null) {
         noteHistoryObservation(session, entry.target(), msg.messageId(), entry.at());
-        entries.add(entry);
+        entriesByTarget.computeIfAbsent(entry.target(), k -> new ArrayList<>()).add(entry);
       }
     }
-    if (entries.isEmpty()) return;
+    if (entriesByTarget.isEmpty()) return;
 
-    String batchId = "quassel-backlog-sync-" + session.backlogBatchSeq.incrementAndGet();
-    bus.onNext(
-        new ServerIrcEvent(
-            session.serverId,
-            new IrcEvent.ChatHistoryBatchReceived(
-                Instant.now(), target, batchId, List.copyOf(entries))));
+    Instant now = Instant.now();
+    for (Map.Entry<String, ArrayList<ChatHistoryEntry>> group : entriesByTarget.entrySet()) {
+      String batchId =
+          (prefetched ? IrcEvent.ChatHistoryBatchReceived.PREFETCH_BATCH_ID_PREFIX : "")
+              + "quassel-backlog-sync-"
+              + session.backlogBatchSeq.incrementAndGet();
+      bus.onNext(
+          new ServerIrcEvent(
+              session.serverId,
+              new IrcEvent.ChatHistoryBatchReceived(
+                  now, group.getKey(), batchId, List.copyOf(group.getValue()))));
+    }
   }
 
   private static void collectMessages(
@@ -4082,7 +4206,13 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
             : Instant.now();
     String from = extractNick(message.sender());
     String text = Objects.toString(message.content(), "");
-    String target = historyTargetForBuffer(session, message.bufferInfo(), from);
+    // Messages carry their own buffer (often only its id), so fill it in from the session's known
+    // buffers before falling back to the buffer the reply was requested for.
+    QuasselCoreDatastreamCodec.BufferInfoValue buffer = message.bufferInfo();
+    if (buffer != null && buffer.bufferId() >= 0) {
+      buffer = mergeBufferInfo(session.bufferInfosById.get(buffer.bufferId()), buffer);
+    }
+    String target = historyTargetForBuffer(session, buffer, from);
     if (target.isEmpty()) {
       target = Objects.toString(targetFromBuffer, "").trim();
     }
@@ -5430,12 +5560,14 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
 
     bus.onNext(new ServerIrcEvent(session.serverId, new IrcEvent.ConnectionReady(Instant.now())));
     emitConnectionPhase(session, PHASE_SYNC_READY, "quassel-sync");
+    startBacklogPrefetch(session);
   }
 
   private void closeSession(QuasselSession session, String reason, boolean emitDisconnected) {
     if (session == null) return;
     session.closeRequested.set(true);
     session.closeReason.set(normalizeDisconnectReason(reason));
+    cancelBacklogPrefetch(session);
 
     Disposable readinessTask = session.readinessFallbackTask.getAndSet(null);
     if (readinessTask != null && !readinessTask.isDisposed()) {
@@ -7089,6 +7221,8 @@ public class QuasselCoreIrcClientService implements IrcBackendClientService {
     private final AtomicBoolean connectionReadyEmitted = new AtomicBoolean(false);
     private final AtomicBoolean reconnectScheduled = new AtomicBoolean(false);
     private final AtomicLong backlogBatchSeq = new AtomicLong(0L);
+    private final AtomicReference<QuasselBacklogPrefetchScheduler> backlogPrefetch =
+        new AtomicReference<>();
     private final AtomicReference<QuasselSessionPhase> phase =
         new AtomicReference<>(QuasselSessionPhase.TRANSPORT_CONNECTING);
     private final AtomicReference<String> closeReason =
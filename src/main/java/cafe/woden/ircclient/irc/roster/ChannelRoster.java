@@ -0,0 +1,185 @@
+package cafe.woden.ircclient.irc.roster;
+
+import cafe.woden.ircclient.irc.IrcEvent.NickInfo;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * One channel's cached roster for {@link UserListStore}: rows in display order (status prefix rank,
+ * then nick case-insensitively), a lower-cased nick index and running operator / voice counts.
+ *
+ * <p>Roster deltas patch the rows in place: the index finds the old row in O(1), a binary search
+ * finds its position, and the counters move by the one row that changed. The immutable list handed
+ * to callers is built lazily and reused until the next change, so a join flood in a channel nobody
+ * is looking at never copies the roster.
+ */
+final class ChannelRoster {
+
+  /** Used to locate rows before any delta told us the server's real PREFIX order. */
+  private static final String DEFAULT_PREFIX_ORDER = "~&@%+";
+
+  private final ArrayList<NickInfo> rows;
+  private final Map<String, NickInfo> byNick;
+  private String prefixOrder = DEFAULT_PREFIX_ORDER;
+  private int operators;
+  private int voiced;
+  private long version;
+  private List<NickInfo> snapshot;
+
+  ChannelRoster(List<NickInfo> sortedRows) {
+    this.rows = new ArrayList<>(sortedRows);
+    this.byNick = HashMap.newHashMap(rows.size());
+    for (NickInfo ni : rows) {
+      if (ni == null) continue;
+      String key = key(ni.nick());
+      if (!key.isEmpty()) byNick.putIfAbsent(key, ni);
+      count(ni, 1);
+    }
+    this.snapshot = List.copyOf(sortedRows);
+  }
+
+  /** Immutable view of the current rows; rebuilt only after a change. */
+  synchronized List<NickInfo> snapshot() {
+    if (snapshot == null) snapshot = List.copyOf(rows);
+    return snapshot;
+  }
+
+  synchronized int size() {
+    return rows.size();
+  }
+
+  synchronized int operatorCount() {
+    return operators;
+  }
+
+  synchronized int voicedCount() {
+    return voiced;
+  }
+
+  /** Bumped on every change; lets a patch tell whether its indexes still describe the rows. */
+  synchronized long version() {
+    return version;
+  }
+
+  synchronized NickInfo find(String nickLower) {
+    return byNick.get(nickLower);
+  }
+
+  /** Removes the row listed under {@code nickLower}; returns its former index or -1. */
+  synchronized int remove(String nickLower) {
+    NickInfo row = byNick.remove(nickLower);
+    if (row == null) return -1;
+    int index = indexOf(row);
+    rows.remove(index);
+    count(row, -1);
+    changed();
+    return index;
+  }
+
+  /** Inserts {@code row} at its sorted position; returns that index. */
+  synchronized int insert(NickInfo row, String serverPrefixOrder) {
+    if (serverPrefixOrder != null && !serverPrefixOrder.isEmpty()) {
+      prefixOrder = serverPrefixOrder;
+    }
+    int index = insertionIndex(row);
+    rows.add(index, row);
+    String key = key(row.nick());
+    if (!key.isEmpty()) byNick.put(key, row);
+    count(row, 1);
+    changed();
+    return index;
+  }
+
+  /**
+   * Replaces the row listed under {@code nickLower} with {@code update}'s result when it differs.
+   * The update must keep nick and prefix, so the row keeps its position.
+   */
+  synchronized boolean update(String nickLower, UnaryOperator<NickInfo> update) {
+    NickInfo row = byNick.get(nickLower);
+    if (row == null) return false;
+    NickInfo next = update.apply(row);
+    if (next == null || next == row) return false;
+    rows.set(indexOf(row), next);
+    byNick.put(nickLower, next);
+    changed();
+    return true;
+  }
+
+  private void changed() {
+    version++;
+    snapshot = null;
+  }
+
+  private void count(NickInfo row, int delta) {
+    String prefix = Objects.toString(row.prefix(), "");
+    if (isOperatorPrefix(prefix)) {
+      operators += delta;
+    } else if (prefix.indexOf('+') >= 0) {
+      voiced += delta;
+    }
+  }
+
+  /** Binary search by sort key; falls back to a scan when the cached order drifted. */
+  private int indexOf(NickInfo row) {
+    int guess = insertionIndex(row);
+    for (int i = Math.max(0, guess - 1); i < Math.min(rows.size(), guess + 2); i++) {
+      if (rows.get(i) == row) return i;
+    }
+    for (int i = 0; i < rows.size(); i++) {
+      if (rows.get(i) == row) return i;
+    }
+    throw new IllegalStateException("roster index out of sync for " + row.nick());
+  }
+
+  private int insertionIndex(NickInfo entry) {
+    int entryRank = prefixRank(entry.prefix());
+    String entryNick = Objects.toString(entry.nick(), "");
+    int lo = 0;
+    int hi = rows.size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      NickInfo probe = rows.get(mid);
+      int cmp;
+      if (probe == null) {
+        cmp = 1;
+      } else {
+        cmp = Integer.compare(prefixRank(probe.prefix()), entryRank);
+        if (cmp == 0) {
+          cmp =
+              String.CASE_INSENSITIVE_ORDER.compare(Objects.toString(probe.nick(), ""), entryNick);
+        }
+      }
+      if (cmp < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private int prefixRank(String prefix) {
+    int best = 99;
+    if (prefix == null) return best;
+    for (int i = 0; i < prefix.length(); i++) {
+      int idx = prefixOrder.indexOf(prefix.charAt(i));
+      if (idx >= 0 && idx < best) best = idx;
+    }
+    return best;
+  }
+
+  static boolean isOperatorPrefix(String prefix) {
+    return prefix != null
+        && (prefix.indexOf('@') >= 0 || prefix.indexOf('&') >= 0 || prefix.indexOf('~') >= 0);
+  }
+
+  private static String key(String nick) {
+    String n = Objects.toString(nick, "").trim();
+    return n.isEmpty() ? "" : n.toLowerCase(Locale.ROOT);
+  }
+}
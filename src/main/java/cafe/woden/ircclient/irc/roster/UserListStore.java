@@ -3,6 +3,9 @@ package cafe.woden.ircclient.irc.roster;
 import cafe.woden.ircclient.irc.IrcEvent.AccountState;
 import cafe.woden.ircclient.irc.IrcEvent.AwayState;
 import cafe.woden.ircclient.irc.IrcEvent.NickInfo;
+import cafe.woden.ircclient.irc.IrcEvent.RosterChange;
+import cafe.woden.ircclient.irc.IrcEvent.RosterDelta;
+import cafe.woden.ircclient.util.PipelineJfrEvents;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -10,6 +13,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 import org.jmolecules.architecture.layered.ApplicationLayer;
 import org.springframework.stereotype.Component;
 
@@ -19,7 +23,7 @@ public class UserListStore {
 
   private static final int MAX_LEARNED_NICKS_PER_SERVER = 20_000;
 
-  private final Map<String, Map<String, List<NickInfo>>> usersByServerAndChannel =
+  private final Map<String, Map<String, ChannelRoster>> rostersByServerAndChannel =
       new ConcurrentHashMap<>();
   private final Map<String, Map<String, Set<String>>> lowerNickSetByServerAndChannel =
       new ConcurrentHashMap<>();
@@ -93,6 +97,15 @@ public class UserListStore {
   private void pruneLearnedNickCaches(String serverId) {
     String sid = norm(serverId);
     if (sid.isEmpty()) return;
+    // The active-nick union below is O(server roster); only build it when a cache is over the cap.
+    if (!overCap(hostmaskByServerAndNickLower.get(sid))
+        && !overCap(awayStateByServerAndNickLower.get(sid))
+        && !overCap(awayMessageByServerAndNickLower.get(sid))
+        && !overCap(accountStateByServerAndNickLower.get(sid))
+        && !overCap(accountNameByServerAndNickLower.get(sid))
+        && !overCap(realNameByServerAndNickLower.get(sid))) {
+      return;
+    }
     Set<String> activeLowerNicks = activeLowerNicksOnServer(sid);
     pruneServerNickMap(hostmaskByServerAndNickLower.get(sid), activeLowerNicks);
     pruneServerNickMap(awayStateByServerAndNickLower.get(sid), activeLowerNicks);
@@ -102,6 +115,10 @@ public class UserListStore {
     pruneServerNickMap(realNameByServerAndNickLower.get(sid), activeLowerNicks);
   }
 
+  private static boolean overCap(Map<String, ?> byNick) {
+    return byNick != null && byNick.size() > MAX_LEARNED_NICKS_PER_SERVER;
+  }
+
   private Set<String> activeLowerNicksOnServer(String serverId) {
     Map<String, Set<String>> byChannel = lowerNickSetByServerAndChannel.get(serverId);
     if (byChannel == null || byChannel.isEmpty()) return Set.of();
@@ -167,20 +184,17 @@ public class UserListStore {
   }
 
   private String findRealNameInActiveRosters(String serverId, String nickLower) {
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(serverId);
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(serverId);
     if (byChannel == null || byChannel.isEmpty()) return null;
     String want = norm(nickLower);
     if (want.isEmpty()) return null;
 
-    for (List<NickInfo> roster : byChannel.values()) {
-      if (roster == null || roster.isEmpty()) continue;
-      for (NickInfo ni : roster) {
-        if (ni == null) continue;
-        if (!want.equals(nickKey(ni.nick()))) continue;
-        String rn = normalizeRealName(ni.realName());
-        if (rn != null && !rn.isBlank()) {
-          return rn;
-        }
+    for (ChannelRoster roster : byChannel.values()) {
+      NickInfo ni = roster.find(want);
+      if (ni == null) continue;
+      String rn = normalizeRealName(ni.realName());
+      if (rn != null && !rn.isBlank()) {
+        return rn;
       }
     }
     return null;
@@ -197,9 +211,9 @@ public class UserListStore {
     String ch = channelKey(channel);
     if (sid.isEmpty() || ch.isEmpty()) return Collections.emptyList();
 
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(sid);
-    if (byChannel == null) return Collections.emptyList();
-    return byChannel.getOrDefault(ch, Collections.emptyList());
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
+    ChannelRoster roster = byChannel == null ? null : byChannel.get(ch);
+    return roster == null ? Collections.emptyList() : roster.snapshot();
   }
 
   /**
@@ -212,13 +226,12 @@ public class UserListStore {
     String sid = norm(serverId);
     if (sid.isEmpty()) return Collections.emptySet();
 
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(sid);
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
     if (byChannel == null || byChannel.isEmpty()) return Collections.emptySet();
 
     java.util.LinkedHashMap<String, String> firstCasedByLower = new java.util.LinkedHashMap<>();
-    for (List<NickInfo> roster : byChannel.values()) {
-      if (roster == null || roster.isEmpty()) continue;
-      for (NickInfo ni : roster) {
+    for (ChannelRoster roster : byChannel.values()) {
+      for (NickInfo ni : roster.snapshot()) {
         if (ni == null) continue;
         String nick = norm(ni.nick());
         if (nick.isEmpty()) continue;
@@ -275,146 +288,173 @@ public class UserListStore {
 
     Map<String, Set<String>> byChannel = lowerNickSetByServerAndChannel.get(sid);
     if (byChannel == null) return Collections.emptySet();
-    return byChannel.getOrDefault(ch, Collections.emptySet());
+    Set<String> lower = byChannel.get(ch);
+    return lower == null ? Collections.emptySet() : Collections.unmodifiableSet(lower);
+  }
+
+  /** Learned per-nick metadata for one server, merged into roster entries that lack it. */
+  private record Learned(
+      Map<String, String> hostmasks,
+      Map<String, AwayState> awayStates,
+      Map<String, String> awayMessages,
+      Map<String, AccountState> accountStates,
+      Map<String, String> accountNames,
+      Map<String, String> realNames) {
+    boolean isEmpty() {
+      return hostmasks.isEmpty()
+          && awayStates.isEmpty()
+          && awayMessages.isEmpty()
+          && accountStates.isEmpty()
+          && accountNames.isEmpty()
+          && realNames.isEmpty();
+    }
+  }
+
+  private Learned learned(String sid) {
+    return new Learned(
+        hostmaskByServerAndNickLower.getOrDefault(sid, Map.of()),
+        awayStateByServerAndNickLower.getOrDefault(sid, Map.of()),
+        awayMessageByServerAndNickLower.getOrDefault(sid, Map.of()),
+        accountStateByServerAndNickLower.getOrDefault(sid, Map.of()),
+        accountNameByServerAndNickLower.getOrDefault(sid, Map.of()),
+        realNameByServerAndNickLower.getOrDefault(sid, Map.of()));
+  }
+
+  /**
+   * Fills in learned hostmask / away / account / real-name state the entry lacks, without
+   * overwriting a useful value provided by the server.
+   */
+  private static NickInfo mergeLearned(NickInfo ni, Learned known) {
+    String nk = nickKey(ni.nick());
+
+    boolean changed = false;
+
+    // Hostmask merge
+    String hm = norm(ni.hostmask());
+    String hmNext = hm;
+    if ((hm.isEmpty() || !isUsefulHostmask(hm)) && !nk.isEmpty()) {
+      String learned = known.hostmasks().get(nk);
+      if (isUsefulHostmask(learned)) {
+        hmNext = learned;
+        changed = true;
+      }
+    }
+
+    // Away state merge
+    AwayState as = ni.awayState();
+    AwayState asNext = (as == null) ? AwayState.UNKNOWN : as;
+    if (!isKnownAway(asNext) && !nk.isEmpty()) {
+      AwayState learned = known.awayStates().get(nk);
+      if (isKnownAway(learned)) {
+        asNext = learned;
+        changed = true;
+      }
+    }
+
+    // Away message merge (only meaningful for AWAY)
+    String am = ni.awayMessage();
+    String amNext = normalizeAwayMessage(asNext, am);
+    if (asNext == AwayState.AWAY && amNext == null && !nk.isEmpty()) {
+      String learnedMsg = known.awayMessages().get(nk);
+      learnedMsg = normalizeAwayMessage(asNext, learnedMsg);
+      if (learnedMsg != null) {
+        amNext = learnedMsg;
+        changed = true;
+      }
+    }
+    if (asNext != AwayState.AWAY && amNext != null) {
+      amNext = null;
+      changed = true;
+    }
+
+    // Account state merge
+    AccountState acc = ni.accountState();
+    AccountState accNext = (acc == null) ? AccountState.UNKNOWN : acc;
+    if (!isKnownAccount(accNext) && !nk.isEmpty()) {
+      AccountState learned = known.accountStates().get(nk);
+      if (isKnownAccount(learned)) {
+        accNext = learned;
+        changed = true;
+      }
+    }
+
+    // Account name merge (only meaningful for LOGGED_IN)
+    String an = ni.accountName();
+    String anNext = normalizeAccountName(accNext, an);
+    if (accNext == AccountState.LOGGED_IN && anNext == null && !nk.isEmpty()) {
+      String learnedName = known.accountNames().get(nk);
+      learnedName = normalizeAccountName(accNext, learnedName);
+      if (learnedName != null) {
+        anNext = learnedName;
+        changed = true;
+      }
+    }
+    if (accNext != AccountState.LOGGED_IN && anNext != null) {
+      anNext = null;
+      changed = true;
+    }
+
+    // Real name merge (best-effort from setname/extended-join observations).
+    String rn = normalizeRealName(ni.realName());
+    String rnNext = rn;
+    if (rnNext == null && !nk.isEmpty()) {
+      String learnedRealName = normalizeRealName(known.realNames().get(nk));
+      if (learnedRealName != null) {
+        rnNext = learnedRealName;
+        changed = true;
+      }
+    }
+
+    if (!changed) return ni;
+    return new NickInfo(ni.nick(), ni.prefix(), hmNext, asNext, amNext, accNext, anNext, rnNext);
   }
 
   public void put(String serverId, String channel, List<NickInfo> nicks) {
+    PipelineJfrEvents.RosterUpdate jfr = new PipelineJfrEvents.RosterUpdate();
+    jfr.begin();
+    try {
+      putSnapshot(serverId, channel, nicks);
+    } finally {
+      jfr.change = "SNAPSHOT";
+      jfr.commit(serverId, channel);
+    }
+  }
+
+  private void putSnapshot(String serverId, String channel, List<NickInfo> nicks) {
     String sid = norm(serverId);
     String ch = channelKey(channel);
     if (sid.isEmpty() || ch.isEmpty()) return;
 
     // Merge any learned hostmasks / away-state into the roster, but do not overwrite a useful value
     // provided by the server.
-    Map<String, String> knownHostmasks = hostmaskByServerAndNickLower.getOrDefault(sid, Map.of());
-    Map<String, AwayState> knownAway = awayStateByServerAndNickLower.getOrDefault(sid, Map.of());
-    Map<String, String> knownAwayMsg = awayMessageByServerAndNickLower.getOrDefault(sid, Map.of());
-    Map<String, AccountState> knownAccount =
-        accountStateByServerAndNickLower.getOrDefault(sid, Map.of());
-    Map<String, String> knownAccountName =
-        accountNameByServerAndNickLower.getOrDefault(sid, Map.of());
-    Map<String, String> knownRealName = realNameByServerAndNickLower.getOrDefault(sid, Map.of());
+    Learned learned = learned(sid);
     List<NickInfo> safe;
-    if (nicks == null
-        || nicks.isEmpty()
-        || (knownHostmasks.isEmpty()
-            && knownAway.isEmpty()
-            && knownAwayMsg.isEmpty()
-            && knownAccount.isEmpty()
-            && knownAccountName.isEmpty()
-            && knownRealName.isEmpty())) {
+    if (nicks == null || nicks.isEmpty() || learned.isEmpty()) {
       safe = nicks == null ? List.of() : List.copyOf(nicks);
     } else {
       java.util.ArrayList<NickInfo> merged = new java.util.ArrayList<>(nicks.size());
       for (NickInfo ni : nicks) {
-        if (ni == null) {
-          merged.add(null);
-          continue;
-        }
-        String nk = nickKey(ni.nick());
-
-        boolean changed = false;
-
-        // Hostmask merge
-        String hm = norm(ni.hostmask());
-        String hmNext = hm;
-        if ((hm.isEmpty() || !isUsefulHostmask(hm)) && !nk.isEmpty()) {
-          String learned = knownHostmasks.get(nk);
-          if (isUsefulHostmask(learned)) {
-            hmNext = learned;
-            changed = true;
-          }
-        }
-
-        // Away state merge
-        AwayState as = ni.awayState();
-        AwayState asNext = (as == null) ? AwayState.UNKNOWN : as;
-        if (!isKnownAway(asNext) && !nk.isEmpty()) {
-          AwayState learned = knownAway.get(nk);
-          if (isKnownAway(learned)) {
-            asNext = learned;
-            changed = true;
-          }
-        }
-
-        // Away message merge (only meaningful for AWAY)
-        String am = ni.awayMessage();
-        String amNext = normalizeAwayMessage(asNext, am);
-        if (asNext == AwayState.AWAY && amNext == null && !nk.isEmpty()) {
-          String learnedMsg = knownAwayMsg.get(nk);
-          learnedMsg = normalizeAwayMessage(asNext, learnedMsg);
-          if (learnedMsg != null) {
-            amNext = learnedMsg;
-            changed = true;
-          }
-        }
-        if (asNext != AwayState.AWAY && amNext != null) {
-          amNext = null;
-          changed = true;
-        }
-
-        // Account state merge
-        AccountState acc = ni.accountState();
-        AccountState accNext = (acc == null) ? AccountState.UNKNOWN : acc;
-        if (!isKnownAccount(accNext) && !nk.isEmpty()) {
-          AccountState learned = knownAccount.get(nk);
-          if (isKnownAccount(learned)) {
-            accNext = learned;
-            changed = true;
-          }
-        }
-
-        // Account name merge (only meaningful for LOGGED_IN)
-        String an = ni.accountName();
-        String anNext = normalizeAccountName(accNext, an);
-        if (accNext == AccountState.LOGGED_IN && anNext == null && !nk.isEmpty()) {
-          String learnedName = knownAccountName.get(nk);
-          learnedName = normalizeAccountName(accNext, learnedName);
-          if (learnedName != null) {
-            anNext = learnedName;
-            changed = true;
-          }
-        }
-        if (accNext != AccountState.LOGGED_IN && anNext != null) {
-          anNext = null;
-          changed = true;
-        }
-
-        // Real name merge (best-effort from setname/extended-join observations).
-        String rn = normalizeRealName(ni.realName());
-        String rnNext = rn;
-        if (rnNext == null && !nk.isEmpty()) {
-          String learnedRealName = normalizeRealName(knownRealName.get(nk));
-          if (learnedRealName != null) {
-            rnNext = learnedRealName;
-            changed = true;
-          }
-        }
-
-        if (changed) {
-          merged.add(
-              new NickInfo(
-                  ni.nick(), ni.prefix(), hmNext, asNext, amNext, accNext, anNext, rnNext));
-        } else {
-          merged.add(ni);
-        }
+        merged.add(ni == null ? null : mergeLearned(ni, learned));
       }
       safe = List.copyOf(merged);
     }
 
-    usersByServerAndChannel.computeIfAbsent(sid, k -> new ConcurrentHashMap<>()).put(ch, safe);
+    rostersByServerAndChannel
+        .computeIfAbsent(sid, k -> new ConcurrentHashMap<>())
+        .put(ch, new ChannelRoster(safe));
 
-    // Precompute lowercased nick set for fast mention checking.
+    // Precompute lowercased nick set for fast mention checking. It is a concurrent set so roster
+    // deltas can patch it in place.
     // Note: this can run on the EDT (IRC events are observed on SwingEdt), so keep it lean.
-    java.util.HashSet<String> lowerTmp = new java.util.HashSet<>(Math.max(16, safe.size() * 2));
+    Set<String> lower = ConcurrentHashMap.newKeySet(Math.max(16, safe.size()));
     for (NickInfo ni : safe) {
       if (ni == null) continue;
       String nick = ni.nick();
       if (nick == null) continue;
       String s = nick.trim();
       if (s.isEmpty()) continue;
-      lowerTmp.add(s.toLowerCase(Locale.ROOT));
+      lower.add(s.toLowerCase(Locale.ROOT));
     }
-    Set<String> lower = java.util.Collections.unmodifiableSet(lowerTmp);
 
     lowerNickSetByServerAndChannel
         .computeIfAbsent(sid, k -> new ConcurrentHashMap<>())
@@ -438,12 +478,219 @@ public class UserListStore {
     pruneLearnedNickCaches(sid);
   }
 
+  /**
+   * Result of {@link #applyDelta}: the row that left ({@code removedIndex}, in the old list) and
+   * the row that arrived ({@code insertedIndex}, counted after the removal). Either index is {@code
+   * -1} when there was none. {@link #isReload()} means more than one row moved (or the roster
+   * changed again since) and a list view should reload {@link #nicks()} instead of patching.
+   *
+   * <p>Size and status counts come from the roster's running counters and the changed rows are
+   * carried as {@link #removed()} / {@link #inserted()}; {@link #nicks()} builds the immutable list
+   * on first call, so views that can patch their rows never copy the roster.
+   */
+  public static final class RosterPatch {
+    static final RosterPatch UNCHANGED =
+        new RosterPatch(null, -1L, -1, null, -1, null, false, false);
+
+    private final ChannelRoster roster;
+    private final long version;
+    private final int removedIndex;
+    private final NickInfo removed;
+    private final int insertedIndex;
+    private final NickInfo inserted;
+    private final boolean changed;
+    private final boolean reload;
+    private final int size;
+    private final int operatorCount;
+    private final int voicedCount;
+
+    private RosterPatch(
+        ChannelRoster roster,
+        long version,
+        int removedIndex,
+        NickInfo removed,
+        int insertedIndex,
+        NickInfo inserted,
+        boolean changed,
+        boolean reload) {
+      this.roster = roster;
+      this.version = version;
+      this.removedIndex = removedIndex;
+      this.removed = removed;
+      this.insertedIndex = insertedIndex;
+      this.inserted = inserted;
+      this.changed = changed;
+      this.reload = reload;
+      this.size = roster == null ? 0 : roster.size();
+      this.operatorCount = roster == null ? 0 : roster.operatorCount();
+      this.voicedCount = roster == null ? 0 : roster.voicedCount();
+    }
+
+    public List<NickInfo> nicks() {
+      return roster == null ? List.of() : roster.snapshot();
+    }
+
+    public int removedIndex() {
+      return removedIndex;
+    }
+
+    /** The row that left, or null. */
+    public NickInfo removed() {
+      return removed;
+    }
+
+    public int insertedIndex() {
+      return insertedIndex;
+    }
+
+    public NickInfo inserted() {
+      return inserted;
+    }
+
+    public boolean changed() {
+      return changed;
+    }
+
+    /** Roster size right after this change. */
+    public int size() {
+      return size;
+    }
+
+    /** Rows with an operator-like prefix ({@code ~ & @}) right after this change. */
+    public int operatorCount() {
+      return operatorCount;
+    }
+
+    /** Voiced rows without an operator-like prefix right after this change. */
+    public int voicedCount() {
+      return voicedCount;
+    }
+
+    public boolean isReload() {
+      if (!changed) return false;
+      if (reload || (removedIndex < 0 && insertedIndex < 0)) return true;
+      return roster != null && roster.version() != version;
+    }
+  }
+
+  /**
+   * Applies one incremental roster change to the cached roster of its channel.
+   *
+   * <p>The old row is found through the roster's nick index and located by binary search, the new
+   * one is inserted at its sorted position, and the status counters move by that one row; nothing
+   * is copied or re-sorted. Channels without a cached roster are left alone; the snapshot sent on
+   * self-join and NAMES completion fills them.
+   */
+  public RosterPatch applyDelta(String serverId, RosterDelta delta) {
+    PipelineJfrEvents.RosterUpdate jfr = new PipelineJfrEvents.RosterUpdate();
+    jfr.begin();
+    try {
+      return applyDeltaToRoster(serverId, delta);
+    } finally {
+      boolean recorded = jfr.isEnabled() && delta != null;
+      if (recorded) jfr.change = String.valueOf(delta.change());
+      jfr.commit(serverId, recorded ? delta.channel() : "");
+    }
+  }
+
+  private RosterPatch applyDeltaToRoster(String serverId, RosterDelta delta) {
+    if (delta == null || delta.change() == null) return RosterPatch.UNCHANGED;
+    String sid = norm(serverId);
+    String ch = channelKey(delta.channel());
+    if (sid.isEmpty() || ch.isEmpty()) return RosterPatch.UNCHANGED;
+
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
+    ChannelRoster roster = byChannel == null ? null : byChannel.get(ch);
+    if (roster == null) return RosterPatch.UNCHANGED;
+
+    Set<String> lower =
+        lowerNickSetByServerAndChannel
+            .computeIfAbsent(sid, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(ch, k -> ConcurrentHashMap.newKeySet());
+
+    synchronized (roster) {
+      String oldKey = nickKey(delta.nick());
+      NickInfo previous = oldKey.isEmpty() ? null : roster.find(oldKey);
+
+      // Renames and prefix changes only touch rows we already list; unknown nicks wait for a
+      // resync.
+      boolean inserts =
+          delta.change() == RosterChange.ADDED
+              || (delta.change() != RosterChange.REMOVED && previous != null);
+      NickInfo inserted = null;
+      String newKey = "";
+      if (inserts && delta.info() != null) {
+        NickInfo info = delta.info();
+        if (previous != null) info = withFallback(info, previous);
+        Learned learned = learned(sid);
+        inserted = learned.isEmpty() ? info : mergeLearned(info, learned);
+        newKey = nickKey(inserted.nick());
+        if (newKey.isEmpty()) inserted = null;
+      }
+      if (previous == null && inserted == null) return RosterPatch.UNCHANGED;
+
+      int removed = previous == null ? -1 : roster.remove(oldKey);
+
+      // A rename onto a nick we already list means the cache drifted; drop the stale row as well
+      // and let the view reload.
+      boolean reload = false;
+      if (inserted != null && !newKey.equals(oldKey) && roster.remove(newKey) >= 0) {
+        reload = true;
+      }
+
+      int insertedIndex = inserted == null ? -1 : roster.insert(inserted, delta.prefixOrder());
+
+      if (removed >= 0) lower.remove(oldKey);
+      if (inserted != null) {
+        lower.add(newKey);
+        String rn = normalizeRealName(inserted.realName());
+        if (rn != null) {
+          realNameByServerAndNickLower
+              .computeIfAbsent(sid, k -> new ConcurrentHashMap<>())
+              .put(newKey, rn);
+          pruneLearnedNickCaches(sid);
+        }
+      }
+
+      return new RosterPatch(
+          roster,
+          roster.version(),
+          removed,
+          removed >= 0 ? previous : null,
+          insertedIndex,
+          inserted,
+          true,
+          reload);
+    }
+  }
+
+  /** Keeps metadata from the previous row for anything the delta does not know. */
+  private static NickInfo withFallback(NickInfo next, NickInfo previous) {
+    if (previous == null) return next;
+    String hostmask = isUsefulHostmask(next.hostmask()) ? next.hostmask() : previous.hostmask();
+    AwayState away = next.awayState();
+    String awayMessage = next.awayMessage();
+    if (!isKnownAway(away)) {
+      away = previous.awayState();
+      awayMessage = previous.awayMessage();
+    }
+    AccountState account = next.accountState();
+    String accountName = next.accountName();
+    if (!isKnownAccount(account)) {
+      account = previous.accountState();
+      accountName = previous.accountName();
+    }
+    String realName = next.realName() != null ? next.realName() : previous.realName();
+    return new NickInfo(
+        next.nick(), next.prefix(), hostmask, away, awayMessage, account, accountName, realName);
+  }
+
   public void clear(String serverId, String channel) {
     String sid = Objects.toString(serverId, "").trim();
     String ch = channelKey(channel);
     if (sid.isEmpty() || ch.isEmpty()) return;
 
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(sid);
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
     if (byChannel != null) byChannel.remove(ch);
 
     Map<String, Set<String>> byChannelSet = lowerNickSetByServerAndChannel.get(sid);
@@ -454,7 +701,7 @@ public class UserListStore {
   public void clearServer(String serverId) {
     String sid = norm(serverId);
     if (sid.isEmpty()) return;
-    usersByServerAndChannel.remove(sid);
+    rostersByServerAndChannel.remove(sid);
     lowerNickSetByServerAndChannel.remove(sid);
     hostmaskByServerAndNickLower.remove(sid);
     awayStateByServerAndNickLower.remove(sid);
@@ -480,48 +727,10 @@ public class UserListStore {
       pruneLearnedNickCaches(sid);
     }
 
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(sid);
-    if (byChannel == null) return false;
-
-    List<NickInfo> cur = byChannel.get(ch);
-    if (cur == null || cur.isEmpty()) return false;
-
-    boolean changed = false;
-    java.util.ArrayList<NickInfo> next = new java.util.ArrayList<>(cur.size());
-
-    for (NickInfo ni : cur) {
-      if (ni == null) {
-        next.add(null);
-        continue;
-      }
-
-      String niNick = Objects.toString(ni.nick(), "");
-      if (!niNick.isBlank() && niNick.equalsIgnoreCase(n)) {
-        String existing = Objects.toString(ni.hostmask(), "").trim();
-        if (!Objects.equals(existing, hm)) {
-          next.add(
-              new NickInfo(
-                  ni.nick(),
-                  ni.prefix(),
-                  hm,
-                  ni.awayState(),
-                  ni.awayMessage(),
-                  ni.accountState(),
-                  ni.accountName(),
-                  ni.realName()));
-          changed = true;
-          continue;
-        }
-      }
-
-      next.add(ni);
-    }
-
-    if (!changed) return false;
-
-    // Store a new immutable list instance so downstream UI can re-render.
-    byChannel.put(ch, List.copyOf(next));
-    return true;
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
+    ChannelRoster roster = byChannel == null ? null : byChannel.get(ch);
+    if (roster == null) return false;
+    return roster.update(nickKey(n), ni -> withHostmask(ni, hm));
   }
 
   public Set<String> updateHostmaskAcrossChannels(String serverId, String nick, String hostmask) {
@@ -537,52 +746,9 @@ public class UserListStore {
     byNick.put(nickKey(n), hm);
     pruneLearnedNickCaches(sid);
 
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(sid);
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
     if (byChannel == null || byChannel.isEmpty()) return Set.of();
-
-    java.util.Set<String> changedChannels = new java.util.HashSet<>();
-
-    for (Map.Entry<String, List<NickInfo>> e : byChannel.entrySet()) {
-      String ch = e.getKey();
-      List<NickInfo> cur = e.getValue();
-      if (cur == null || cur.isEmpty()) continue;
-
-      boolean changed = false;
-      java.util.ArrayList<NickInfo> next = new java.util.ArrayList<>(cur.size());
-
-      for (NickInfo ni : cur) {
-        if (ni == null) {
-          next.add(null);
-          continue;
-        }
-        String niNick = norm(ni.nick());
-        if (!niNick.isEmpty() && niNick.equalsIgnoreCase(n)) {
-          String existing = norm(ni.hostmask());
-          if (!Objects.equals(existing, hm)) {
-            next.add(
-                new NickInfo(
-                    ni.nick(),
-                    ni.prefix(),
-                    hm,
-                    ni.awayState(),
-                    ni.awayMessage(),
-                    ni.accountState(),
-                    ni.accountName(),
-                    ni.realName()));
-            changed = true;
-            continue;
-          }
-        }
-        next.add(ni);
-      }
-
-      if (changed) {
-        byChannel.put(ch, List.copyOf(next));
-        changedChannels.add(ch);
-      }
-    }
-
-    return java.util.Set.copyOf(changedChannels);
+    return updateAcrossChannels(byChannel, nickKey(n), ni -> withHostmask(ni, hm));
   }
 
   public boolean updateAwayState(
@@ -618,48 +784,10 @@ public class UserListStore {
     }
     pruneLearnedNickCaches(sid);
 
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(sid);
-    if (byChannel == null) return false;
-
-    List<NickInfo> cur = byChannel.get(ch);
-    if (cur == null || cur.isEmpty()) return false;
-
-    boolean changed = false;
-    java.util.ArrayList<NickInfo> next = new java.util.ArrayList<>(cur.size());
-
-    for (NickInfo ni : cur) {
-      if (ni == null) {
-        next.add(null);
-        continue;
-      }
-      String niNick = Objects.toString(ni.nick(), "");
-      if (!niNick.isBlank() && niNick.equalsIgnoreCase(n)) {
-        AwayState existing = (ni.awayState() == null) ? AwayState.UNKNOWN : ni.awayState();
-        String existingMsg = normalizeAwayMessage(existing, ni.awayMessage());
-        // If we learn "AWAY" without a reason (e.g. USERHOST +/-), don't erase an existing reason.
-        String nextMsg = (as == AwayState.AWAY) ? ((msg != null) ? msg : existingMsg) : null;
-        if (!Objects.equals(existing, as) || !Objects.equals(existingMsg, nextMsg)) {
-          next.add(
-              new NickInfo(
-                  ni.nick(),
-                  ni.prefix(),
-                  ni.hostmask(),
-                  as,
-                  nextMsg,
-                  ni.accountState(),
-                  ni.accountName(),
-                  ni.realName()));
-          changed = true;
-          continue;
-        }
-      }
-      next.add(ni);
-    }
-
-    if (!changed) return false;
-
-    byChannel.put(ch, List.copyOf(next));
-    return true;
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
+    ChannelRoster roster = byChannel == null ? null : byChannel.get(ch);
+    if (roster == null) return false;
+    return roster.update(nickKey(n), ni -> withAwayState(ni, as, msg));
   }
 
   public Set<String> updateAwayStateAcrossChannels(
@@ -694,56 +822,9 @@ public class UserListStore {
     }
     pruneLearnedNickCaches(sid);
 
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(sid);
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
     if (byChannel == null || byChannel.isEmpty()) return Set.of();
-
-    java.util.Set<String> changedChannels = new java.util.HashSet<>();
-
-    for (Map.Entry<String, List<NickInfo>> e : byChannel.entrySet()) {
-      String ch = e.getKey();
-      List<NickInfo> cur = e.getValue();
-      if (cur == null || cur.isEmpty()) continue;
-
-      boolean changed = false;
-      java.util.ArrayList<NickInfo> next = new java.util.ArrayList<>(cur.size());
-
-      for (NickInfo ni : cur) {
-        if (ni == null) {
-          next.add(null);
-          continue;
-        }
-        String niNick = norm(ni.nick());
-        if (!niNick.isEmpty() && niNick.equalsIgnoreCase(n)) {
-          AwayState existing = (ni.awayState() == null) ? AwayState.UNKNOWN : ni.awayState();
-          String existingMsg = normalizeAwayMessage(existing, ni.awayMessage());
-          // If we learn "AWAY" without a reason (e.g. USERHOST +/-), don't erase an existing
-          // reason.
-          String nextMsg = (as == AwayState.AWAY) ? ((msg != null) ? msg : existingMsg) : null;
-          if (!Objects.equals(existing, as) || !Objects.equals(existingMsg, nextMsg)) {
-            next.add(
-                new NickInfo(
-                    ni.nick(),
-                    ni.prefix(),
-                    ni.hostmask(),
-                    as,
-                    nextMsg,
-                    ni.accountState(),
-                    ni.accountName(),
-                    ni.realName()));
-            changed = true;
-            continue;
-          }
-        }
-        next.add(ni);
-      }
-
-      if (changed) {
-        byChannel.put(ch, List.copyOf(next));
-        changedChannels.add(ch);
-      }
-    }
-
-    return java.util.Set.copyOf(changedChannels);
+    return updateAcrossChannels(byChannel, nickKey(n), ni -> withAwayState(ni, as, msg));
   }
 
   public Set<String> updateAccountAcrossChannels(
@@ -773,60 +854,9 @@ public class UserListStore {
     }
     pruneLearnedNickCaches(sid);
 
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(sid);
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
     if (byChannel == null || byChannel.isEmpty()) return Set.of();
-
-    java.util.Set<String> changedChannels = new java.util.HashSet<>();
-
-    for (Map.Entry<String, List<NickInfo>> e : byChannel.entrySet()) {
-      String ch = e.getKey();
-      List<NickInfo> cur = e.getValue();
-      if (cur == null || cur.isEmpty()) continue;
-
-      boolean changed = false;
-      java.util.ArrayList<NickInfo> next = new java.util.ArrayList<>(cur.size());
-
-      for (NickInfo ni : cur) {
-        if (ni == null) {
-          next.add(null);
-          continue;
-        }
-        String niNick = norm(ni.nick());
-        if (!niNick.isEmpty() && niNick.equalsIgnoreCase(n)) {
-          AccountState existing =
-              (ni.accountState() == null) ? AccountState.UNKNOWN : ni.accountState();
-          String existingName = normalizeAccountName(existing, ni.accountName());
-
-          // If we learn LOGGED_IN without a name, don't erase an existing name.
-          String nextName =
-              (st == AccountState.LOGGED_IN) ? ((name != null) ? name : existingName) : null;
-
-          if (!java.util.Objects.equals(existing, st)
-              || !java.util.Objects.equals(existingName, nextName)) {
-            next.add(
-                new NickInfo(
-                    ni.nick(),
-                    ni.prefix(),
-                    ni.hostmask(),
-                    ni.awayState(),
-                    ni.awayMessage(),
-                    st,
-                    nextName,
-                    ni.realName()));
-            changed = true;
-            continue;
-          }
-        }
-        next.add(ni);
-      }
-
-      if (changed) {
-        byChannel.put(ch, List.copyOf(next));
-        changedChannels.add(ch);
-      }
-    }
-
-    return java.util.Set.copyOf(changedChannels);
+    return updateAcrossChannels(byChannel, nickKey(n), ni -> withAccount(ni, st, name));
   }
 
   public Set<String> updateRealNameAcrossChannels(String serverId, String nick, String realName) {
@@ -846,51 +876,78 @@ public class UserListStore {
     }
     pruneLearnedNickCaches(sid);
 
-    Map<String, List<NickInfo>> byChannel = usersByServerAndChannel.get(sid);
+    Map<String, ChannelRoster> byChannel = rostersByServerAndChannel.get(sid);
     if (byChannel == null || byChannel.isEmpty()) return Set.of();
+    return updateAcrossChannels(byChannel, nickKey(n), ni -> withRealName(ni, rn));
+  }
 
+  private static Set<String> updateAcrossChannels(
+      Map<String, ChannelRoster> byChannel, String nickLower, UnaryOperator<NickInfo> update) {
     java.util.Set<String> changedChannels = new java.util.HashSet<>();
+    for (Map.Entry<String, ChannelRoster> e : byChannel.entrySet()) {
+      if (e.getValue().update(nickLower, update)) changedChannels.add(e.getKey());
+    }
+    return java.util.Set.copyOf(changedChannels);
+  }
 
-    for (Map.Entry<String, List<NickInfo>> e : byChannel.entrySet()) {
-      String ch = e.getKey();
-      List<NickInfo> cur = e.getValue();
-      if (cur == null || cur.isEmpty()) continue;
-
-      boolean changed = false;
-      java.util.ArrayList<NickInfo> next = new java.util.ArrayList<>(cur.size());
+  private static NickInfo withHostmask(NickInfo ni, String hm) {
+    if (Objects.equals(norm(ni.hostmask()), hm)) return ni;
+    return new NickInfo(
+        ni.nick(),
+        ni.prefix(),
+        hm,
+        ni.awayState(),
+        ni.awayMessage(),
+        ni.accountState(),
+        ni.accountName(),
+        ni.realName());
+  }
 
-      for (NickInfo ni : cur) {
-        if (ni == null) {
-          next.add(null);
-          continue;
-        }
-        String niNick = norm(ni.nick());
-        if (!niNick.isEmpty() && niNick.equalsIgnoreCase(n)) {
-          String existing = normalizeRealName(ni.realName());
-          if (!Objects.equals(existing, rn)) {
-            next.add(
-                new NickInfo(
-                    ni.nick(),
-                    ni.prefix(),
-                    ni.hostmask(),
-                    ni.awayState(),
-                    ni.awayMessage(),
-                    ni.accountState(),
-                    ni.accountName(),
-                    rn));
-            changed = true;
-            continue;
-          }
-        }
-        next.add(ni);
-      }
+  private static NickInfo withAwayState(NickInfo ni, AwayState as, String msg) {
+    AwayState existing = (ni.awayState() == null) ? AwayState.UNKNOWN : ni.awayState();
+    String existingMsg = normalizeAwayMessage(existing, ni.awayMessage());
+    // If we learn "AWAY" without a reason (e.g. USERHOST +/-), don't erase an existing reason.
+    String nextMsg = (as == AwayState.AWAY) ? ((msg != null) ? msg : existingMsg) : null;
+    if (Objects.equals(existing, as) && Objects.equals(existingMsg, nextMsg)) return ni;
+    return new NickInfo(
+        ni.nick(),
+        ni.prefix(),
+        ni.hostmask(),
+        as,
+        nextMsg,
+        ni.accountState(),
+        ni.accountName(),
+        ni.realName());
+  }
 
-      if (changed) {
-        byChannel.put(ch, List.copyOf(next));
-        changedChannels.add(ch);
-      }
-    }
+  private static NickInfo withAccount(NickInfo ni, AccountState st, String name) {
+    AccountState existing = (ni.accountState() == null) ? AccountState.UNKNOWN : ni.accountState();
+    String existingName = normalizeAccountName(existing, ni.accountName());
+    // If we learn LOGGED_IN without a name, don't erase an existing name.
+    String nextName =
+        (st == AccountState.LOGGED_IN) ? ((name != null) ? name : existingName) : null;
+    if (Objects.equals(existing, st) && Objects.equals(existingName, nextName)) return ni;
+    return new NickInfo(
+        ni.nick(),
+        ni.prefix(),
+        ni.hostmask(),
+        ni.awayState(),
+        ni.awayMessage(),
+        st,
+        nextName,
+        ni.realName());
+  }
 
-    return java.util.Set.copyOf(changedChannels);
+  private static NickInfo withRealName(NickInfo ni, String rn) {
+    if (Objects.equals(normalizeRealName(ni.realName()), rn)) return ni;
+    return new NickInfo(
+        ni.nick(),
+        ni.prefix(),
+        ni.hostmask(),
+        ni.awayState(),
+        ni.awayMessage(),
+        ni.accountState(),
+        ni.accountName(),
+        rn);
   }
 }
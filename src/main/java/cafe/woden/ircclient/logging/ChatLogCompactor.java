@@ -0,0 +1,145 @@
+package cafe.woden.ircclient.logging;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Periodically compacts the HSQLDB {@code .data} file backing the CACHED {@code chat_log} table.
+ *
+ * <p>HSQLDB never shrinks the data file on its own: space freed by retention pruning, target
+ * clears and legacy repair stays allocated until a {@code CHECKPOINT DEFRAG}. Defrag blocks the
+ * whole database while it rewrites the file, so it only runs when the lost space is both large in
+ * absolute terms and a meaningful fraction of the file.
+ *
+ * <p>Runs on the chat-log retention scheduler, so it never overlaps a prune pass. Results are
+ * published as {@link CompactionResult} application events for the runtime diagnostics feed.
+ */
+public final class ChatLogCompactor implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(ChatLogCompactor.class);
+
+  private static final long STARTUP_DELAY_MINUTES = 15;
+  private static final long RUN_EVERY_HOURS = 6;
+
+  static final double DEFAULT_FRAGMENTATION_THRESHOLD = 0.25d;
+  static final long DEFAULT_MIN_LOST_BYTES = 32L * 1024L * 1024L;
+
+  /** Diagnostics payload published after each compaction attempt that actually ran. */
+  public record CompactionResult(
+      long lostBytesBefore,
+      long fileBytesBefore,
+      long fileBytesAfter,
+      long reclaimedBytes,
+      double fragmentationBefore,
+      long tookMs) {}
+
+  private final ChatLogRepository repo;
+  private final ChatLogService writer;
+  private final ApplicationEventPublisher events;
+  private final double fragmentationThreshold;
+  private final long minLostBytes;
+
+  private final ScheduledFuture<?> startupTask;
+  private final ScheduledFuture<?> recurringTask;
+
+  public ChatLogCompactor(
+      ChatLogRepository repo,
+      ChatLogService writer,
+      ApplicationEventPublisher events,
+      ScheduledExecutorService exec) {
+    this(repo, writer, events, exec, DEFAULT_FRAGMENTATION_THRESHOLD, DEFAULT_MIN_LOST_BYTES);
+  }
+
+  ChatLogCompactor(
+      ChatLogRepository repo,
+      ChatLogService writer,
+      ApplicationEventPublisher events,
+      ScheduledExecutorService exec,
+      double fragmentationThreshold,
+      long minLostBytes) {
+    this.repo = Objects.requireNonNull(repo, "repo");
+    this.writer = writer;
+    this.events = events;
+    this.fragmentationThreshold = Math.max(0d, Math.min(1d, fragmentationThreshold));
+    this.minLostBytes = Math.max(0L, minLostBytes);
+
+    Objects.requireNonNull(exec, "exec");
+    this.startupTask = exec.schedule(this::compactSafely, STARTUP_DELAY_MINUTES, TimeUnit.MINUTES);
+    this.recurringTask =
+        exec.scheduleWithFixedDelay(
+            this::compactSafely, RUN_EVERY_HOURS, RUN_EVERY_HOURS, TimeUnit.HOURS);
+  }
+
+  private void compactSafely() {
+    try {
+      compactIfFragmented();
+    } catch (Throwable t) {
+      log.warn("[ircafe] Chat log compaction failed", t);
+    }
+  }
+
+  /** Runs a defrag if the data file crossed the threshold; returns what happened (if it ran). */
+  Optional<CompactionResult> compactIfFragmented() {
+    Optional<ChatLogRepository.CacheFileStats> beforeOpt = repo.cacheFileStats();
+    if (beforeOpt.isEmpty()) return Optional.empty();
+    ChatLogRepository.CacheFileStats before = beforeOpt.get();
+    double ratio = before.fragmentationRatio();
+    if (before.lostBytes() < minLostBytes || ratio < fragmentationThreshold) {
+      log.debug(
+          "[ircafe] Chat log compaction skipped (lostBytes={}, fileBytes={}, fragmentation={})",
+          before.lostBytes(),
+          before.fileFreePos(),
+          String.format(Locale.ROOT, "%.3f", ratio));
+      return Optional.empty();
+    }
+
+    // Defrag rewrites the file under an exclusive lock; get queued lines out of the way first.
+    try {
+      if (writer != null) writer.flushNow();
+    } catch (Exception ignored) {
+    }
+
+    long startedNanos = System.nanoTime();
+    repo.checkpointDefrag();
+    long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+
+    long after =
+        repo.cacheFileStats().map(ChatLogRepository.CacheFileStats::fileFreePos).orElse(0L);
+    long reclaimed = Math.max(0L, before.fileFreePos() - after);
+    CompactionResult result =
+        new CompactionResult(
+            before.lostBytes(), before.fileFreePos(), after, reclaimed, ratio, tookMs);
+
+    log.info(
+        "[ircafe] Compacted chat log DB (reclaimedBytes={}, fileBytes {} -> {}, tookMs={})",
+        reclaimed,
+        before.fileFreePos(),
+        after,
+        tookMs);
+    if (events != null) {
+      try {
+        events.publishEvent(result);
+      } catch (Exception ignored) {
+      }
+    }
+    return Optional.of(result);
+  }
+
+  @Override
+  public void close() {
+    try {
+      startupTask.cancel(false);
+    } catch (Exception ignored) {
+    }
+    try {
+      recurringTask.cancel(false);
+    } catch (Exception ignored) {
+    }
+  }
+}
@@ -6,6 +6,8 @@ import cafe.woden.ircclient.config.LogProperties;
 import cafe.woden.ircclient.config.api.RuntimeConfigPathPort;
 import cafe.woden.ircclient.irc.IrcClientService;
 import cafe.woden.ircclient.irc.playback.IrcBouncerPlaybackPort;
+import cafe.woden.ircclient.logging.archive.ChatLogArchiver;
+import cafe.woden.ircclient.logging.archive.SegmentedChatLogArchive;
 import cafe.woden.ircclient.logging.history.ChatHistoryIngestBus;
 import cafe.woden.ircclient.logging.history.ChatHistoryService;
 import cafe.woden.ircclient.logging.history.ChatHistoryTranscriptPort;
@@ -32,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -43,7 +46,8 @@ import org.springframework.transaction.support.TransactionTemplate;
  * Embedded chat log DB wiring.
  *
  * <p>Only activates when {@code ircafe.logging.enabled=true}. Uses a file-based HSQLDB stored next
- * to the runtime config YAML by default. Flyway migrations are run on startup.
+ * to the runtime config YAML by default. Flyway migrations are run on a background thread at
+ * startup; {@code chatLogMigratedDataSource} holds connections back until they have finished.
  */
 @Configuration
 @ConditionalOnProperty(prefix = "ircafe.logging", name = "enabled", havingValue = "true")
@@ -80,7 +84,7 @@ public class ChatLogDatabaseConfig {
     }
   }
 
-  @Bean(initMethod = "migrate", name = "chatLogFlyway")
+  @Bean(name = "chatLogFlyway")
   public Flyway chatLogFlyway(@Qualifier("chatLogDataSource") DataSource chatLogDataSource) {
     return Flyway.configure()
         .dataSource(chatLogDataSource)
@@ -88,14 +92,27 @@ public class ChatLogDatabaseConfig {
         .load();
   }
 
+  @Bean(initMethod = "start", name = "chatLogMigrations")
+  ChatLogMigrations chatLogMigrations(@Qualifier("chatLogFlyway") Flyway flyway) {
+    return new ChatLogMigrations(flyway);
+  }
+
+  /** The pool as seen by everything but Flyway: connections wait for migrations to finish. */
+  @Bean(name = "chatLogMigratedDataSource", destroyMethod = "")
+  public DataSource chatLogMigratedDataSource(
+      @Qualifier("chatLogDataSource") DataSource chatLogDataSource,
+      @Qualifier("chatLogMigrations") ChatLogMigrations migrations) {
+    return migrations.gate(chatLogDataSource);
+  }
+
   @Bean(name = "chatLogJdbcTemplate")
-  public JdbcTemplate chatLogJdbcTemplate(@Qualifier("chatLogDataSource") DataSource ds) {
+  public JdbcTemplate chatLogJdbcTemplate(@Qualifier("chatLogMigratedDataSource") DataSource ds) {
     return new JdbcTemplate(ds);
   }
 
   @Bean(name = "chatLogTxManager")
   public PlatformTransactionManager chatLogTxManager(
-      @Qualifier("chatLogDataSource") DataSource ds) {
+      @Qualifier("chatLogMigratedDataSource") DataSource ds) {
     return new DataSourceTransactionManager(ds);
   }
 
@@ -123,8 +140,20 @@ public class ChatLogDatabaseConfig {
   }
 
   @Bean
-  public ChatLogViewerService chatLogViewerService(ChatLogRepository repo) {
-    return new DbChatLogViewerService(repo);
+  public ChatLogViewerService chatLogViewerService(
+      ChatLogRepository repo, SegmentedChatLogArchive archive) {
+    return new DbChatLogViewerService(repo, archive);
+  }
+
+  @Bean
+  public SegmentedChatLogArchive chatLogArchive(
+      LogProperties props, RuntimeConfigPathPort runtimeConfigPathPort) {
+    Path basePath = resolveDbBasePath(props, runtimeConfigPathPort);
+    Path dir = basePath.toAbsolutePath().getParent();
+    if (dir == null) dir = Paths.get(".").toAbsolutePath();
+    LogProperties.Archive archive = props.archive();
+    return new SegmentedChatLogArchive(
+        dir.resolve(archive.directoryName()), Boolean.TRUE.equals(archive.enabled()));
   }
 
   @Bean(destroyMethod = "close")
@@ -133,7 +162,7 @@ public class ChatLogDatabaseConfig {
       @Qualifier("chatLogTx") TransactionTemplate tx,
       LogProperties props,
       @Qualifier("chatLogFlyway") Flyway flyway) {
-    // touch flyway to ensure init/migrate ran
+    // Writes go through the gated data source, so the writer waits for migrations by itself.
     if (flyway == null) {
       throw new IllegalStateException(
           "chatLogFlyway bean missing (migrations must run before logging)");
@@ -147,21 +176,43 @@ public class ChatLogDatabaseConfig {
       ChatRedactionAuditRepository redactionAuditRepository,
       @Qualifier("chatLogTx") TransactionTemplate tx,
       LogProperties props,
-      @Qualifier("chatLogFlyway") Flyway flyway,
+      ChatLogService writer,
+      ApplicationEventPublisher events,
       @Qualifier(ExecutorConfig.CHAT_LOG_RETENTION_SCHEDULER)
           ScheduledExecutorService retentionScheduler) {
     return new ChatLogRetentionPruner(
-        repo, redactionAuditRepository, tx, props, flyway, retentionScheduler);
+        repo, redactionAuditRepository, tx, props, writer, events, retentionScheduler);
+  }
+
+  @Bean(destroyMethod = "close")
+  public ChatLogCompactor chatLogCompactor(
+      ChatLogRepository repo,
+      ChatLogService writer,
+      ApplicationEventPublisher events,
+      @Qualifier(ExecutorConfig.CHAT_LOG_RETENTION_SCHEDULER)
+          ScheduledExecutorService retentionScheduler) {
+    return new ChatLogCompactor(repo, writer, events, retentionScheduler);
+  }
+
+  @Bean(destroyMethod = "close")
+  public ChatLogArchiver chatLogArchiver(
+      ChatLogRepository repo,
+      @Qualifier("chatLogTx") TransactionTemplate tx,
+      LogProperties props,
+      SegmentedChatLogArchive archive,
+      ApplicationEventPublisher events,
+      @Qualifier(ExecutorConfig.CHAT_LOG_RETENTION_SCHEDULER)
+          ScheduledExecutorService retentionScheduler) {
+    return new ChatLogArchiver(repo, tx, props, archive, events, retentionScheduler);
   }
 
   @Bean(destroyMethod = "close")
   public ChatLogLegacyMessageIdRepair chatLogLegacyMessageIdRepair(
       ChatLogRepository repo,
       @Qualifier("chatLogTx") TransactionTemplate tx,
-      @Qualifier("chatLogFlyway") Flyway flyway,
       @Qualifier(ExecutorConfig.CHAT_LOG_RETENTION_SCHEDULER)
           ScheduledExecutorService retentionScheduler) {
-    return new ChatLogLegacyMessageIdRepair(repo, tx, flyway, retentionScheduler);
+    return new ChatLogLegacyMessageIdRepair(repo, tx, retentionScheduler);
   }
 
   private static Path resolveDbBasePath(
@@ -261,6 +312,7 @@ public class ChatLogDatabaseConfig {
   @Bean
   public ChatHistoryService chatHistoryService(
       ChatLogRepository repo,
+      SegmentedChatLogArchive archive,
       LogProperties props,
       ChatHistoryTranscriptPort transcripts,
       IrcClientService irc,
@@ -270,6 +322,7 @@ public class ChatLogDatabaseConfig {
       @Qualifier(ExecutorConfig.DB_CHAT_HISTORY_EXECUTOR) ExecutorService chatHistoryExecutor) {
     return new DbChatHistoryService(
         repo,
+        archive,
         props,
         transcripts,
         irc,
@@ -283,7 +336,8 @@ public class ChatLogDatabaseConfig {
   public ChatLogMaintenance chatLogMaintenance(
       ChatLogRepository repo,
       @Qualifier("chatLogTx") TransactionTemplate tx,
-      ChatLogService writer) {
+      ChatLogService writer,
+      SegmentedChatLogArchive archive) {
     return new ChatLogMaintenance() {
       @Override
       public boolean enabled() {
@@ -299,10 +353,13 @@ public class ChatLogDatabaseConfig {
         } catch (Exception ignored) {
         }
 
+        // Every row of the target is at or below the current max id; the archive hides those too.
+        long throughRowId = repo.maxRowId().orElse(0L);
         tx.executeWithoutResult(
             status -> {
               repo.deleteTarget(target.serverId(), target.target());
             });
+        archive.clearTarget(target.serverId(), target.target(), throughRowId);
       }
     };
   }
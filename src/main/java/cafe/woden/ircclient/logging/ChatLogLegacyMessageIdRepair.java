@@ -7,7 +7,6 @@ import java.util.OptionalLong;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import org.flywaydb.core.Flyway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -26,17 +25,14 @@ public final class ChatLogLegacyMessageIdRepair implements AutoCloseable {
 
   private final ChatLogRepository repo;
   private final TransactionTemplate tx;
-  private final Flyway flyway;
   private final ScheduledFuture<?> startupTask;
 
   public ChatLogLegacyMessageIdRepair(
       ChatLogRepository repo,
       TransactionTemplate tx,
-      Flyway flyway,
       ScheduledExecutorService scheduler) {
     this.repo = Objects.requireNonNull(repo, "repo");
     this.tx = Objects.requireNonNull(tx, "tx");
-    this.flyway = Objects.requireNonNull(flyway, "flyway");
     Objects.requireNonNull(scheduler, "scheduler");
     this.startupTask =
         scheduler.schedule(this::repairSafely, STARTUP_DELAY_SECONDS, TimeUnit.SECONDS);
@@ -51,9 +47,6 @@ public final class ChatLogLegacyMessageIdRepair implements AutoCloseable {
   }
 
   private void repairOnce() {
-    // Ensure migrations are visible before touching message_id columns.
-    flyway.info();
-
     OptionalLong maxRowIdOpt = repo.maxRowId();
     long maxRowId = maxRowIdOpt.isPresent() ? maxRowIdOpt.getAsLong() : -1L;
     if (maxRowId < 0L) return;
@@ -0,0 +1,90 @@
+package cafe.woden.ircclient.logging;
+
+import cafe.woden.ircclient.util.StartupTimeline;
+import cafe.woden.ircclient.util.VirtualThreads;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Runs the chat log Flyway migrations on a background thread so the main window does not wait for
+ * them.
+ *
+ * <p>Everything except Flyway itself talks to the database through {@link #gate(DataSource)}, whose
+ * connections are only handed out once migration has finished. Callers are already off the EDT
+ * (writer thread, history and viewer executors), so they simply wait a little longer on a cold
+ * start. A failed migration surfaces as an {@link SQLException} on every later connection attempt.
+ */
+final class ChatLogMigrations {
+
+  private static final Logger log = LoggerFactory.getLogger(ChatLogMigrations.class);
+
+  private final Flyway flyway;
+  private final CompletableFuture<Void> migrated = new CompletableFuture<>();
+  private final AtomicBoolean started = new AtomicBoolean(false);
+
+  ChatLogMigrations(Flyway flyway) {
+    this.flyway = Objects.requireNonNull(flyway, "flyway");
+  }
+
+  void start() {
+    if (!started.compareAndSet(false, true)) return;
+    VirtualThreads.start("ircafe-chatlog-migrate", this::migrate);
+  }
+
+  boolean isMigrated() {
+    return migrated.isDone() && !migrated.isCompletedExceptionally();
+  }
+
+  DataSource gate(DataSource delegate) {
+    return new DelegatingDataSource(delegate) {
+      @Override
+      public Connection getConnection() throws SQLException {
+        awaitMigrated();
+        return super.getConnection();
+      }
+
+      @Override
+      public Connection getConnection(String username, String password) throws SQLException {
+        awaitMigrated();
+        return super.getConnection(username, password);
+      }
+    };
+  }
+
+  void awaitMigrated() throws SQLException {
+    if (migrated.isDone() && !migrated.isCompletedExceptionally()) return;
+    start();
+    try {
+      migrated.get();
+    } catch (ExecutionException e) {
+      throw new SQLException("Chat log migrations failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for chat log migrations", e);
+    }
+  }
+
+  private void migrate() {
+    long startedAt = System.nanoTime();
+    try {
+      flyway.migrate();
+      StartupTimeline.mark(StartupTimeline.CHAT_LOG_MIGRATED);
+      log.info(
+          "[ircafe] Chat log migrations finished in {} ms",
+          (System.nanoTime() - startedAt) / 1_000_000L);
+      migrated.complete(null);
+    } catch (Throwable t) {
+      log.error("[ircafe] Chat log migrations failed; chat logging is unavailable", t);
+      migrated.completeExceptionally(t);
+    }
+  }
+}
@@ -97,6 +97,51 @@ public class ChatLogRepository {
        WHERE ts_epoch_ms < ?
       """;
 
+  private static final String SELECT_ID_RANGE_OLDER_THAN_SQL =
+      """
+      SELECT MIN(id), MAX(id)
+        FROM chat_log
+       WHERE ts_epoch_ms < ?
+      """;
+
+  private static final String DELETE_OLDER_THAN_IN_ID_RANGE_SQL =
+      """
+      DELETE FROM chat_log
+       WHERE id >= ?
+         AND id <= ?
+         AND ts_epoch_ms < ?
+      """;
+
+  private static final String SELECT_ROWS_OLDER_THAN_IN_ID_RANGE_SQL =
+      """
+      SELECT id, server_id, target, ts_epoch_ms, direction, kind, from_nick, text,
+             outgoing_local_echo, soft_ignored, meta
+        FROM chat_log
+       WHERE id >= ?
+         AND id <= ?
+         AND ts_epoch_ms < ?
+    ORDER BY id ASC
+      """;
+
+  private static final String DELETE_ARCHIVED_RANGE_SQL =
+      """
+      DELETE FROM chat_log
+       WHERE server_id = ?
+         AND id >= ?
+         AND id <= ?
+         AND ts_epoch_ms >= ?
+         AND ts_epoch_ms < ?
+      """;
+
+  // HSQLDB-specific: one row per CACHED table backing file (the .data file).
+  private static final String SELECT_CACHE_FILE_STATS_SQL =
+      """
+      SELECT FILE_LOST_BYTES, FILE_FREE_POS
+        FROM INFORMATION_SCHEMA.SYSTEM_CACHEINFO
+      """;
+
+  private static final String CHECKPOINT_DEFRAG_SQL = "CHECKPOINT DEFRAG";
+
   private static final String SELECT_LEGACY_ROWS_WITHOUT_MESSAGE_ID_AFTER_SQL =
       """
       SELECT id, server_id, target, direction, kind, meta
@@ -260,6 +305,22 @@ public class ChatLogRepository {
   public record LegacyMessageIdRow(
       long id, String serverId, String target, String direction, String kind, String metaJson) {}
 
+  /** Inclusive identity-id bounds of a set of rows. */
+  public record RowIdRange(long minId, long maxId) {}
+
+  /**
+   * Snapshot of the CACHED table backing file.
+   *
+   * <p>{@code lostBytes} is space held by deleted rows that HSQLDB has not reused yet; {@code
+   * fileFreePos} is the logical end of the data file.
+   */
+  public record CacheFileStats(long lostBytes, long fileFreePos) {
+    public double fragmentationRatio() {
+      if (fileFreePos <= 0L) return 0d;
+      return Math.max(0d, Math.min(1d, (double) lostBytes / (double) fileFreePos));
+    }
+  }
+
   public enum LegacyMessageIdRepairOutcome {
     UPDATED,
     DELETED_DUPLICATE,
@@ -445,6 +506,16 @@ public class ChatLogRepository {
    * additional filtering (glob/regex/metadata) in-memory.
    */
   public List<LogRow> searchRows(String serverId, Long fromEpochMs, Long toEpochMs, int limit) {
+    return searchRowsBefore(serverId, fromEpochMs, toEpochMs, null, 0L, limit);
+  }
+
+  /**
+   * Keyset variant of {@link #searchRows}: only rows strictly older than {@code (beforeTs,
+   * beforeId)} in {@code (ts_epoch_ms, id)} order, or from the newest row when {@code beforeTs} is
+   * null.
+   */
+  public List<LogRow> searchRowsBefore(
+      String serverId, Long fromEpochMs, Long toEpochMs, Long beforeTs, long beforeId, int limit) {
     String sid = (serverId == null) ? "" : serverId.trim();
     if (sid.isEmpty() || limit <= 0) return List.of();
 
@@ -467,6 +538,12 @@ public class ChatLogRepository {
       sql.append(" AND ts_epoch_ms <= ?");
       args.add(toEpochMs);
     }
+    if (beforeTs != null) {
+      sql.append(" AND (ts_epoch_ms < ? OR (ts_epoch_ms = ? AND id < ?))");
+      args.add(beforeTs);
+      args.add(beforeTs);
+      args.add(beforeId);
+    }
 
     sql.append(" ORDER BY ts_epoch_ms DESC, id DESC LIMIT ?");
     args.add(limit);
@@ -492,6 +569,106 @@ public class ChatLogRepository {
     return jdbc.update(DELETE_OLDER_THAN_SQL, cutoffEpochMs);
   }
 
+  /** Identity-id bounds of rows older than {@code cutoffEpochMs} (empty when there are none). */
+  public Optional<RowIdRange> idRangeOlderThan(long cutoffEpochMs) {
+    List<RowIdRange> rows =
+        jdbc.query(
+            SELECT_ID_RANGE_OLDER_THAN_SQL,
+            (rs, rowNum) -> {
+              long min = rs.getLong(1);
+              if (rs.wasNull()) return null;
+              long max = rs.getLong(2);
+              return new RowIdRange(min, max);
+            },
+            cutoffEpochMs);
+    if (rows == null || rows.isEmpty() || rows.getFirst() == null) return Optional.empty();
+    return Optional.of(rows.getFirst());
+  }
+
+  /**
+   * Delete rows older than {@code cutoffEpochMs} whose identity id lies within {@code
+   * [fromIdInclusive, toIdInclusive]}.
+   *
+   * <p>The id bound keeps each statement (and its lock footprint) small on large tables.
+   */
+  public int deleteOlderThanInIdRange(
+      long cutoffEpochMs, long fromIdInclusive, long toIdInclusive) {
+    if (toIdInclusive < fromIdInclusive) return 0;
+    return jdbc.update(
+        DELETE_OLDER_THAN_IN_ID_RANGE_SQL, fromIdInclusive, toIdInclusive, cutoffEpochMs);
+  }
+
+  /**
+   * Fetch every row older than {@code cutoffEpochMs} whose identity id lies within {@code
+   * [fromIdInclusive, toIdInclusive]} (ascending by id).
+   *
+   * <p>Used by the cold archive, which moves rows out of the table in bounded id windows.
+   */
+  public List<LogRow> fetchRowsOlderThanInIdRange(
+      long cutoffEpochMs, long fromIdInclusive, long toIdInclusive) {
+    if (toIdInclusive < fromIdInclusive) return List.of();
+    return jdbc.query(
+        SELECT_ROWS_OLDER_THAN_IN_ID_RANGE_SQL,
+        ROW_WITH_ID_MAPPER,
+        fromIdInclusive,
+        toIdInclusive,
+        cutoffEpochMs);
+  }
+
+  /**
+   * Delete the rows covered by an archive segment: one server, an identity-id window and a
+   * half-open timestamp window.
+   *
+   * <p>Identity ids only grow, so re-running this for an already-archived segment is idempotent.
+   */
+  public int deleteArchivedRange(
+      String serverId,
+      long fromIdInclusive,
+      long toIdInclusive,
+      long fromTsInclusive,
+      long toTsExclusive) {
+    String sid = Objects.toString(serverId, "").trim();
+    if (sid.isEmpty() || toIdInclusive < fromIdInclusive) return 0;
+    return jdbc.update(
+        DELETE_ARCHIVED_RANGE_SQL,
+        sid,
+        fromIdInclusive,
+        toIdInclusive,
+        fromTsInclusive,
+        toTsExclusive);
+  }
+
+  /**
+   * Backing-file statistics for CACHED tables (empty if unavailable, e.g. for in-memory DBs).
+   */
+  public Optional<CacheFileStats> cacheFileStats() {
+    try {
+      List<CacheFileStats> rows =
+          jdbc.query(
+              SELECT_CACHE_FILE_STATS_SQL,
+              (rs, rowNum) -> new CacheFileStats(rs.getLong(1), rs.getLong(2)));
+      if (rows == null || rows.isEmpty()) return Optional.empty();
+      long lost = 0L;
+      long freePos = 0L;
+      for (CacheFileStats row : rows) {
+        lost += Math.max(0L, row.lostBytes());
+        freePos += Math.max(0L, row.fileFreePos());
+      }
+      return Optional.of(new CacheFileStats(lost, freePos));
+    } catch (DataAccessException ex) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Rewrite the CACHED table backing file without the space held by deleted rows.
+   *
+   * <p>This blocks all other statements while it runs; callers should schedule it off-peak.
+   */
+  public void checkpointDefrag() {
+    jdbc.execute(CHECKPOINT_DEFRAG_SQL);
+  }
+
   /**
    * Fetch legacy rows that still have {@code message_id} missing but contain metadata.
    *
@@ -623,7 +800,7 @@ public class ChatLogRepository {
     return false;
   }
 
-  static String extractMessageId(String metaJson) {
+  public static String extractMessageId(String metaJson) {
     String meta = Objects.toString(metaJson, "").trim();
     if (meta.isEmpty()) return "";
     String key = "\"messageId\"";
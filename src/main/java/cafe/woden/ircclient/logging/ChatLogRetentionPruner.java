@@ -5,12 +5,13 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import org.flywaydb.core.Flyway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.support.TransactionTemplate;
 
 /**
@@ -29,21 +30,46 @@ import org.springframework.transaction.support.TransactionTemplate;
  * <ul>
  *   <li>runs once shortly after startup
  *   <li>then runs on a fixed schedule (every 12 hours)
+ *   <li>deletes in bounded identity-id chunks, each in its own transaction, pausing between chunks
+ *       (and while the {@link ChatLogService} writer has a backlog) so live logging is never
+ *       locked out for long
  * </ul>
+ *
+ * <p>Progress is published as {@link PruneProgress} application events so it shows up in the
+ * Spring runtime diagnostics feed.
  */
 public final class ChatLogRetentionPruner implements AutoCloseable {
   private static final Logger log = LoggerFactory.getLogger(ChatLogRetentionPruner.class);
 
   private static final long RUN_EVERY_HOURS = 12;
 
+  static final long DEFAULT_CHUNK_ID_SPAN = 5_000L;
+  static final long DEFAULT_CHUNK_PAUSE_MS = 25L;
+  private static final long MAX_WRITER_YIELD_MS = 2_000L;
+  private static final int PROGRESS_EVERY_CHUNKS = 50;
+
   private static final DateTimeFormatter TS_FMT =
       DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
 
+  /** Diagnostics payload published while (and after) a retention prune runs. */
+  public record PruneProgress(
+      String phase,
+      long cutoffEpochMs,
+      long chunksDone,
+      long chunksTotal,
+      long rowsDeleted,
+      long tookMs) {}
+
   private final ChatLogRepository repo;
   private final ChatRedactionAuditRepository redactionAuditRepository;
   private final TransactionTemplate tx;
   private final LogProperties props;
-  private final Flyway flyway;
+  private final ChatLogService writer;
+  private final ApplicationEventPublisher events;
+  private final long chunkIdSpan;
+  private final long chunkPauseMs;
+
+  private volatile boolean closed;
 
   private final ScheduledFuture<?> startupTask;
   private final ScheduledFuture<?> recurringTask;
@@ -53,14 +79,40 @@ public final class ChatLogRetentionPruner implements AutoCloseable {
       ChatRedactionAuditRepository redactionAuditRepository,
       TransactionTemplate tx,
       LogProperties props,
-      Flyway flyway,
+      ChatLogService writer,
+      ApplicationEventPublisher events,
       ScheduledExecutorService exec) {
+    this(
+        repo,
+        redactionAuditRepository,
+        tx,
+        props,
+        writer,
+        events,
+        exec,
+        DEFAULT_CHUNK_ID_SPAN,
+        DEFAULT_CHUNK_PAUSE_MS);
+  }
+
+  ChatLogRetentionPruner(
+      ChatLogRepository repo,
+      ChatRedactionAuditRepository redactionAuditRepository,
+      TransactionTemplate tx,
+      LogProperties props,
+      ChatLogService writer,
+      ApplicationEventPublisher events,
+      ScheduledExecutorService exec,
+      long chunkIdSpan,
+      long chunkPauseMs) {
     this.repo = Objects.requireNonNull(repo, "repo");
     this.redactionAuditRepository =
         Objects.requireNonNull(redactionAuditRepository, "redactionAuditRepository");
     this.tx = Objects.requireNonNull(tx, "tx");
     this.props = Objects.requireNonNull(props, "props");
-    this.flyway = Objects.requireNonNull(flyway, "flyway");
+    this.writer = writer;
+    this.events = events;
+    this.chunkIdSpan = Math.max(1L, chunkIdSpan);
+    this.chunkPauseMs = Math.max(0L, chunkPauseMs);
 
     // Run once shortly after startup, then periodically.
     this.startupTask = exec.schedule(this::pruneSafely, 10, TimeUnit.SECONDS);
@@ -79,42 +131,106 @@ public final class ChatLogRetentionPruner implements AutoCloseable {
   private void pruneSafely() {
     try {
       pruneOnce();
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
     } catch (Throwable t) {
       log.warn("[ircafe] Chat log retention prune failed", t);
     }
   }
 
-  private void pruneOnce() {
-    if (!retentionEnabled()) return;
-
-    // Ensure migrations have run before we touch the DB.
-    flyway.info();
+  /** Runs one prune pass; returns the number of deleted rows (chat log + redaction audit). */
+  long pruneOnce() throws InterruptedException {
+    if (!retentionEnabled()) return 0L;
 
     int days = Math.max(0, Objects.requireNonNullElse(props.retentionDays(), 0));
     long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+    long startedNanos = System.nanoTime();
+
+    long n = pruneChatLogInChunks(cutoff, startedNanos);
 
-    Integer deleted =
-        tx.execute(
-            status ->
-                repo.deleteOlderThan(cutoff) + redactionAuditRepository.deleteOlderThan(cutoff));
-    int n = deleted == null ? 0 : deleted;
+    // The audit table is small and MEMORY-backed; one statement is fine.
+    Integer auditDeleted = tx.execute(status -> redactionAuditRepository.deleteOlderThan(cutoff));
+    n += auditDeleted == null ? 0 : Math.max(0, auditDeleted);
 
+    long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
     if (n > 0) {
       log.info(
-          "[ircafe] Pruned {} chat log rows older than {} (retentionDays={})",
+          "[ircafe] Pruned {} chat log rows older than {} (retentionDays={}, tookMs={})",
           n,
           TS_FMT.format(Instant.ofEpochMilli(cutoff)),
-          days);
+          days,
+          tookMs);
     } else {
       log.debug(
           "[ircafe] Chat log retention prune: nothing to delete (retentionDays={}, cutoff={})",
           days,
           TS_FMT.format(Instant.ofEpochMilli(cutoff)));
     }
+    return n;
+  }
+
+  private long pruneChatLogInChunks(long cutoff, long startedNanos) throws InterruptedException {
+    Optional<ChatLogRepository.RowIdRange> range = repo.idRangeOlderThan(cutoff);
+    if (range.isEmpty()) return 0L;
+
+    long minId = range.get().minId();
+    long maxId = range.get().maxId();
+    long chunksTotal = ((maxId - minId) / chunkIdSpan) + 1L;
+    long chunksDone = 0L;
+    long deleted = 0L;
+
+    publish("started", cutoff, chunksDone, chunksTotal, deleted, startedNanos);
+    for (long from = minId; from <= maxId && !closed; from += chunkIdSpan) {
+      long fromId = from;
+      long toId = Math.min(maxId, from + chunkIdSpan - 1L);
+      Integer n = tx.execute(status -> repo.deleteOlderThanInIdRange(cutoff, fromId, toId));
+      int chunkDeleted = n == null ? 0 : Math.max(0, n);
+      deleted += chunkDeleted;
+      chunksDone++;
+
+      if (chunksDone % PROGRESS_EVERY_CHUNKS == 0) {
+        publish("running", cutoff, chunksDone, chunksTotal, deleted, startedNanos);
+      }
+      // Sparse chunks held no locks worth yielding; only back off after real deletes.
+      if (chunkDeleted > 0) {
+        yieldToWriter();
+      }
+    }
+    String phase = closed ? "cancelled" : "finished";
+    publish(phase, cutoff, chunksDone, chunksTotal, deleted, startedNanos);
+    return deleted;
+  }
+
+  private void yieldToWriter() throws InterruptedException {
+    if (chunkPauseMs > 0L) {
+      Thread.sleep(chunkPauseMs);
+    }
+    if (writer == null) return;
+    long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_WRITER_YIELD_MS);
+    while (!closed && writer.pendingLineCount() > 0 && System.nanoTime() < deadlineNanos) {
+      Thread.sleep(Math.max(1L, chunkPauseMs));
+    }
+  }
+
+  private void publish(
+      String phase,
+      long cutoff,
+      long chunksDone,
+      long chunksTotal,
+      long rowsDeleted,
+      long startedNanos) {
+    if (events == null) return;
+    long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    try {
+      events.publishEvent(
+          new PruneProgress(phase, cutoff, chunksDone, chunksTotal, rowsDeleted, tookMs));
+    } catch (Exception ignored) {
+    }
   }
 
   @Override
   public void close() {
+    closed = true;
     try {
       startupTask.cancel(false);
     } catch (Exception ignored) {
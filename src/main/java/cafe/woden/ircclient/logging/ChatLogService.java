@@ -1,6 +1,8 @@
 package cafe.woden.ircclient.logging;
 
 import cafe.woden.ircclient.config.LogProperties;
+import cafe.woden.ircclient.util.ExecutorTelemetry;
+import cafe.woden.ircclient.util.PipelineJfrEvents;
 import cafe.woden.ircclient.util.VirtualThreads;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +29,7 @@ public class ChatLogService implements ChatLogWriter, AutoCloseable {
   private static final int MAX_BATCH_SIZE = 10_000;
   private static final long WRITER_POLL_TIMEOUT_MS = 250;
   private static final long WRITER_STOP_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(15);
+  private static final String WRITER_NAME = "ircafe-chatlog-writer";
 
   private final int maxQueue;
   private final int batchSize;
@@ -35,6 +38,7 @@ public class ChatLogService implements ChatLogWriter, AutoCloseable {
   private final ChatLogRepository repo;
   private final TransactionTemplate tx;
   private final LogProperties props;
+  private final ExecutorTelemetry.Lane telemetry;
 
   private final AtomicBoolean closed = new AtomicBoolean(false);
   private final AtomicLong dropped = new AtomicLong(0);
@@ -60,8 +64,10 @@ public class ChatLogService implements ChatLogWriter, AutoCloseable {
             MAX_BATCH_SIZE,
             "ircafe.logging.writerBatchSize");
     this.queue = new LinkedBlockingQueue<>(maxQueue);
+    this.telemetry = ExecutorTelemetry.lane(WRITER_NAME);
+    this.telemetry.queueDepthProbe(queue::size);
 
-    this.writerThread = VirtualThreads.unstarted("ircafe-chatlog-writer", this::writerLoop);
+    this.writerThread = VirtualThreads.unstarted(WRITER_NAME, this::writerLoop);
     this.writerThread.start();
   }
 
@@ -73,7 +79,9 @@ public class ChatLogService implements ChatLogWriter, AutoCloseable {
     // Respect master toggle defensively (even though this service is only wired when enabled).
     if (!Boolean.TRUE.equals(props.enabled())) return;
 
+    telemetry.submitted();
     if (!queue.offer(line)) {
+      telemetry.rejected();
       long d = dropped.incrementAndGet();
       // Don't spam logs; warn occasionally.
       if (d == 1 || d % 1000 == 0) {
@@ -138,7 +146,18 @@ public class ChatLogService implements ChatLogWriter, AutoCloseable {
       }
 
       List<LogLine> toWrite = batch;
-      tx.executeWithoutResult(status -> repo.insertBatch(toWrite));
+      PipelineJfrEvents.ChatLogFlush jfr = new PipelineJfrEvents.ChatLogFlush();
+      jfr.begin();
+      long startedAt = System.nanoTime();
+      boolean ok = false;
+      try {
+        tx.executeWithoutResult(status -> repo.insertBatch(toWrite));
+        ok = true;
+      } finally {
+        telemetry.ran(System.nanoTime() - startedAt, toWrite.size(), ok);
+        jfr.lines = toWrite.size();
+        jfr.commit("", "");
+      }
 
       if (queue.isEmpty()) {
         return;
@@ -147,6 +166,11 @@ public class ChatLogService implements ChatLogWriter, AutoCloseable {
     }
   }
 
+  /** Number of lines queued but not yet written (maintenance jobs use this to back off). */
+  public int pendingLineCount() {
+    return queue.size();
+  }
+
   /** Flush anything remaining and stop the background thread. */
   @Override
   public void close() {
@@ -3,6 +3,7 @@ package cafe.woden.ircclient.logging;
 import cafe.woden.ircclient.app.api.UiPort;
 import cafe.woden.ircclient.app.api.UiTranscriptPort;
 import cafe.woden.ircclient.config.LogProperties;
+import cafe.woden.ircclient.logging.archive.SegmentedChatLogArchive;
 import cafe.woden.ircclient.logging.viewer.ChatRedactionAuditService;
 import org.jmolecules.architecture.layered.InfrastructureLayer;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -24,11 +25,12 @@ public class LoggingUiPortConfig {
       @Qualifier("swingUiPort") UiTranscriptPort swingUiTranscriptPort,
       ChatLogWriter writer,
       ChatLogRepository repo,
+      SegmentedChatLogArchive archive,
       ChatRedactionAuditService chatRedactionAuditService,
       LogLineFactory factory,
       LogProperties props) {
     return new LoggingUiPortDecorator(
-        swingUiTranscriptPort, writer, repo, chatRedactionAuditService, factory, props);
+        swingUiTranscriptPort, writer, repo, archive, chatRedactionAuditService, factory, props);
   }
 
   /** Primary {@link UiPort} when logging is enabled. */
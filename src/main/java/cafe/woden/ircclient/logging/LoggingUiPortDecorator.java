@@ -4,6 +4,7 @@ import cafe.woden.ircclient.app.api.PresenceEvent;
 import cafe.woden.ircclient.app.api.UiTranscriptPort;
 import cafe.woden.ircclient.app.api.UiTranscriptPortDecorator;
 import cafe.woden.ircclient.config.LogProperties;
+import cafe.woden.ircclient.logging.archive.ChatLogArchive;
 import cafe.woden.ircclient.logging.viewer.ChatRedactionAuditRecord;
 import cafe.woden.ircclient.logging.viewer.ChatRedactionAuditService;
 import cafe.woden.ircclient.model.LogDirection;
@@ -31,6 +32,7 @@ public final class LoggingUiPortDecorator extends UiTranscriptPortDecorator {
 
   private final ChatLogWriter writer;
   private final ChatLogRepository repo;
+  private final ChatLogArchive archive;
   private final ChatRedactionAuditService redactionAuditService;
   private final LogLineFactory factory;
   private final LogProperties props;
@@ -52,9 +54,21 @@ public final class LoggingUiPortDecorator extends UiTranscriptPortDecorator {
       ChatRedactionAuditService redactionAuditService,
       LogLineFactory factory,
       LogProperties props) {
+    this(delegate, writer, repo, ChatLogArchive.disabled(), redactionAuditService, factory, props);
+  }
+
+  public LoggingUiPortDecorator(
+      UiTranscriptPort delegate,
+      ChatLogWriter writer,
+      ChatLogRepository repo,
+      ChatLogArchive archive,
+      ChatRedactionAuditService redactionAuditService,
+      LogLineFactory factory,
+      LogProperties props) {
     super(delegate);
     this.writer = Objects.requireNonNull(writer, "writer");
     this.repo = Objects.requireNonNull(repo, "repo");
+    this.archive = Objects.requireNonNull(archive, "archive");
     this.redactionAuditService =
         Objects.requireNonNull(redactionAuditService, "redactionAuditService");
     this.factory = Objects.requireNonNull(factory, "factory");
@@ -331,11 +345,7 @@ public final class LoggingUiPortDecorator extends UiTranscriptPortDecorator {
     long ts = (at != null) ? at.toEpochMilli() : System.currentTimeMillis();
     String renderedEditedText = renderEditedText(editedText);
     updateMessageSnapshot(target, msgId, renderedEditedText, ts);
-    tryMutatePersistedLog(
-        target,
-        () ->
-            repo.updateTextByMessageId(
-                target.serverId(), target.target(), msgId, renderedEditedText));
+    tryMutatePersistedLog(target, () -> replacePersistedText(target, msgId, renderedEditedText));
     return true;
   }
 
@@ -359,10 +369,7 @@ public final class LoggingUiPortDecorator extends UiTranscriptPortDecorator {
     persistRedactionAudit(target, msgId, fromNick, redactedAtEpochMs);
     removeMessageSnapshot(target, msgId);
     tryMutatePersistedLog(
-        target,
-        () ->
-            repo.updateTextByMessageId(
-                target.serverId(), target.target(), msgId, REDACTED_MESSAGE_PLACEHOLDER));
+        target, () -> replacePersistedText(target, msgId, REDACTED_MESSAGE_PLACEHOLDER));
     return true;
   }
 
@@ -471,6 +478,12 @@ public final class LoggingUiPortDecorator extends UiTranscriptPortDecorator {
     }
   }
 
+  private void replacePersistedText(TargetRef target, String messageId, String text) {
+    int updated = repo.updateTextByMessageId(target.serverId(), target.target(), messageId, text);
+    // No hot row: the message may already sit in an archived segment.
+    if (updated == 0) archive.replaceText(target.serverId(), target.target(), messageId, text);
+  }
+
   private void tryLog(TargetRef target, Supplier<LogLine> supplier) {
     // Defensive: this decorator should only be wired when enabled.
     if (!Boolean.TRUE.equals(props.enabled())) return;
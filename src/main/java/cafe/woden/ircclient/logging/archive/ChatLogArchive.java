@@ -0,0 +1,52 @@
+package cafe.woden.ircclient.logging.archive;
+
+import cafe.woden.ircclient.logging.LogRow;
+import java.util.List;
+
+/**
+ * Read side of the cold chat-log archive.
+ *
+ * <p>Archived rows keep their original identity ids, so callers can continue a {@code (ts, id)}
+ * cursor from the hot {@code chat_log} table straight into the archive. All methods return rows
+ * newest-first, matching {@link cafe.woden.ircclient.logging.ChatLogRepository}.
+ */
+public interface ChatLogArchive {
+
+  boolean enabled();
+
+  /**
+   * Archived rows strictly older than {@code (beforeTs, beforeId)} for a server+target.
+   *
+   * <p>Target matching is case-insensitive.
+   */
+  List<LogRow> fetchOlderRows(
+      String serverId, String target, long beforeTs, long beforeId, int limit);
+
+  boolean hasOlderRows(String serverId, String target, long beforeTs, long beforeId);
+
+  /**
+   * Archived rows for a server within an optional inclusive timestamp range. A blank {@code
+   * serverId} searches every server.
+   */
+  List<LogRow> searchRows(String serverId, Long fromEpochMs, Long toEpochMs, int limit);
+
+  /**
+   * Keyset variant of {@link #searchRows}: only rows strictly older than {@code (beforeTs,
+   * beforeId)}, or from the newest archived row when {@code beforeTs} is null.
+   */
+  List<LogRow> searchRowsBefore(
+      String serverId, Long fromEpochMs, Long toEpochMs, Long beforeTs, long beforeId, int limit);
+
+  /**
+   * Hides archived rows of a target with ids up to {@code throughRowId}, after the target was
+   * cleared from the hot table.
+   */
+  void clearTarget(String serverId, String target, long throughRowId);
+
+  /** Replaces the text of archived rows carrying {@code messageId} (redactions and edits). */
+  void replaceText(String serverId, String target, String messageId, String text);
+
+  static ChatLogArchive disabled() {
+    return NoOpChatLogArchive.INSTANCE;
+  }
+}
@@ -0,0 +1,590 @@
+package cafe.woden.ircclient.logging.archive;
+
+import cafe.woden.ircclient.logging.LogLine;
+import cafe.woden.ircclient.logging.LogRow;
+import cafe.woden.ircclient.model.LogDirection;
+import cafe.woden.ircclient.model.LogKind;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable, compressed archive segment file.
+ *
+ * <p>A segment holds the rows of a single server within one identity-id window and one half-open
+ * timestamp window (at most one calendar month). Rows are grouped by case-folded target, sorted by
+ * {@code (ts, id)} and cut into small blocks. Each block is stored column-by-column (ids and
+ * timestamps as deltas, targets/nicks/kinds as per-block dictionaries) and then deflated, which
+ * compresses IRC traffic far better than row-wise storage.
+ *
+ * <p>The header carries a sparse {@code (target, minTs, maxTs)} index over the blocks, so readers
+ * only inflate the blocks that can contain matching rows. Files are memory-mapped read-only.
+ *
+ * <p>Layout (big-endian):
+ *
+ * <pre>
+ *   int magic, int version
+ *   str serverId
+ *   long minId, long maxId, long fromTs (inclusive), long toTs (exclusive)
+ *   int rowCount, int blockCount
+ *   blockCount x { str targetKey, long minTs, long maxTs, int rows,
+ *                  long offset, int compressedLength, int rawLength }
+ *   block data...
+ * </pre>
+ */
+final class ChatLogArchiveSegment {
+
+  static final String FILE_SUFFIX = ".seg";
+  static final int MAX_BLOCK_ROWS = 512;
+
+  private static final int MAGIC = 0x49435347; // "ICSG"
+  private static final int VERSION = 1;
+
+  private static final Comparator<LogRow> OLDEST_FIRST =
+      Comparator.comparingLong((LogRow r) -> r.line().tsEpochMs()).thenComparingLong(LogRow::id);
+
+  record BlockRef(
+      String targetKey,
+      long minTs,
+      long maxTs,
+      int rows,
+      long offset,
+      int compressedLength,
+      int rawLength) {}
+
+  private final Path file;
+  private final String serverId;
+  private final long minId;
+  private final long maxId;
+  private final long fromTs;
+  private final long toTs;
+  private final int rowCount;
+  private final List<BlockRef> blocks;
+  private final Map<String, List<BlockRef>> blocksByTarget;
+  private final ByteBuffer data;
+
+  private ChatLogArchiveSegment(
+      Path file,
+      String serverId,
+      long minId,
+      long maxId,
+      long fromTs,
+      long toTs,
+      int rowCount,
+      List<BlockRef> blocks,
+      ByteBuffer data) {
+    this.file = file;
+    this.serverId = serverId;
+    this.minId = minId;
+    this.maxId = maxId;
+    this.fromTs = fromTs;
+    this.toTs = toTs;
+    this.rowCount = rowCount;
+    this.blocks = List.copyOf(blocks);
+    HashMap<String, List<BlockRef>> byTarget = new HashMap<>();
+    for (BlockRef b : this.blocks) {
+      byTarget.computeIfAbsent(b.targetKey(), k -> new ArrayList<>()).add(b);
+    }
+    this.blocksByTarget = byTarget;
+    this.data = data;
+  }
+
+  Path file() {
+    return file;
+  }
+
+  String serverId() {
+    return serverId;
+  }
+
+  long minId() {
+    return minId;
+  }
+
+  long maxId() {
+    return maxId;
+  }
+
+  long fromTs() {
+    return fromTs;
+  }
+
+  long toTs() {
+    return toTs;
+  }
+
+  int rowCount() {
+    return rowCount;
+  }
+
+  List<BlockRef> blocks() {
+    return blocks;
+  }
+
+  static String targetKey(String target) {
+    return Objects.toString(target, "").trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Rows for {@code targetKey} strictly older than {@code (beforeTs, beforeId)}, newest-first, at
+   * most {@code limit}.
+   */
+  List<LogRow> olderRows(String targetKey, long beforeTs, long beforeId, int limit) {
+    List<BlockRef> targetBlocks = blocksByTarget.get(targetKey);
+    if (targetBlocks == null || limit <= 0) return List.of();
+
+    ArrayList<LogRow> out = new ArrayList<>(Math.min(limit, MAX_BLOCK_ROWS));
+    // Blocks of one target are written in ascending (ts, id) order; walk them newest-first.
+    for (int i = targetBlocks.size() - 1; i >= 0 && out.size() < limit; i--) {
+      BlockRef block = targetBlocks.get(i);
+      if (block.minTs() > beforeTs) continue;
+      List<LogRow> rows = decode(block);
+      for (int r = rows.size() - 1; r >= 0 && out.size() < limit; r--) {
+        LogRow row = rows.get(r);
+        if (isOlder(row, beforeTs, beforeId)) out.add(row);
+      }
+    }
+    return out;
+  }
+
+  boolean hasOlderRows(String targetKey, long beforeTs, long beforeId) {
+    List<BlockRef> targetBlocks = blocksByTarget.get(targetKey);
+    if (targetBlocks == null) return false;
+    for (BlockRef block : targetBlocks) {
+      if (block.minTs() < beforeTs) return true;
+      if (block.minTs() == beforeTs) {
+        for (LogRow row : decode(block)) {
+          if (isOlder(row, beforeTs, beforeId)) return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The {@code limit} newest rows whose timestamp falls within the optional inclusive range and,
+   * when {@code beforeTs} is set, that are strictly older than {@code (beforeTs, beforeId)};
+   * newest-first. Each row is passed through {@code visible} first, and rows it maps to {@code
+   * null} are skipped.
+   *
+   * <p>Blocks are visited newest-first and inflating stops as soon as no remaining block can hold a
+   * row newer than the page's oldest, so paging deep into a segment costs one page of blocks rather
+   * than everything in front of the cursor.
+   */
+  List<LogRow> newestRowsInRange(
+      Long fromEpochMs,
+      Long toEpochMs,
+      Long beforeTs,
+      long beforeId,
+      int limit,
+      UnaryOperator<LogRow> visible) {
+    if (limit <= 0) return List.of();
+    long lo = fromEpochMs == null ? Long.MIN_VALUE : fromEpochMs;
+    long hi = toEpochMs == null ? Long.MAX_VALUE : toEpochMs;
+    if (beforeTs != null) hi = Math.min(hi, beforeTs);
+    ArrayList<BlockRef> candidates = new ArrayList<>();
+    for (BlockRef block : blocks) {
+      if (block.maxTs() >= lo && block.minTs() <= hi) candidates.add(block);
+    }
+    candidates.sort(Comparator.comparingLong(BlockRef::maxTs).reversed());
+
+    ArrayList<LogRow> out = new ArrayList<>();
+    for (BlockRef block : candidates) {
+      if (out.size() >= limit) {
+        out.sort(SegmentedChatLogArchive.NEWEST_FIRST);
+        out.subList(limit, out.size()).clear();
+        if (block.maxTs() < out.get(limit - 1).line().tsEpochMs()) break;
+      }
+      for (LogRow row : decode(block)) {
+        long ts = row.line().tsEpochMs();
+        if (ts < lo || ts > hi) continue;
+        if (beforeTs != null && !isOlder(row, beforeTs, beforeId)) continue;
+        LogRow shown = visible.apply(row);
+        if (shown != null) out.add(shown);
+      }
+    }
+    out.sort(SegmentedChatLogArchive.NEWEST_FIRST);
+    return out.size() > limit ? List.copyOf(out.subList(0, limit)) : out;
+  }
+
+  static boolean isOlder(LogRow row, long beforeTs, long beforeId) {
+    long ts = row.line().tsEpochMs();
+    return ts < beforeTs || (ts == beforeTs && row.id() < beforeId);
+  }
+
+  /**
+   * Write a segment atomically (temp file + move) and return it opened.
+   *
+   * <p>{@code rows} must all belong to {@code serverId}.
+   */
+  static ChatLogArchiveSegment write(
+      Path file, String serverId, long fromTs, long toTs, List<LogRow> rows) throws IOException {
+    Objects.requireNonNull(file, "file");
+    String sid = Objects.toString(serverId, "").trim();
+    if (sid.isEmpty()) throw new IllegalArgumentException("serverId must not be blank");
+    if (rows == null || rows.isEmpty()) throw new IllegalArgumentException("rows must not be empty");
+
+    TreeMap<String, List<LogRow>> byTarget = new TreeMap<>();
+    long minId = Long.MAX_VALUE;
+    long maxId = Long.MIN_VALUE;
+    for (LogRow row : rows) {
+      if (row == null || row.line() == null) continue;
+      byTarget.computeIfAbsent(targetKey(row.line().target()), k -> new ArrayList<>()).add(row);
+      minId = Math.min(minId, row.id());
+      maxId = Math.max(maxId, row.id());
+    }
+    if (byTarget.isEmpty()) throw new IllegalArgumentException("rows must not be empty");
+
+    ArrayList<BlockRef> refs = new ArrayList<>();
+    ByteArrayOutputStream blockData = new ByteArrayOutputStream();
+    int rowCount = 0;
+    for (Map.Entry<String, List<LogRow>> e : byTarget.entrySet()) {
+      List<LogRow> targetRows = e.getValue();
+      targetRows.sort(OLDEST_FIRST);
+      for (int start = 0; start < targetRows.size(); start += MAX_BLOCK_ROWS) {
+        List<LogRow> chunk =
+            targetRows.subList(start, Math.min(targetRows.size(), start + MAX_BLOCK_ROWS));
+        byte[] raw = encodeBlock(chunk);
+        byte[] compressed = deflate(raw);
+        refs.add(
+            new BlockRef(
+                e.getKey(),
+                chunk.getFirst().line().tsEpochMs(),
+                chunk.getLast().line().tsEpochMs(),
+                chunk.size(),
+                blockData.size(),
+                compressed.length,
+                raw.length));
+        blockData.write(compressed);
+        rowCount += chunk.size();
+      }
+    }
+
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream os = Files.newOutputStream(tmp);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      writeString(out, sid);
+      out.writeLong(minId);
+      out.writeLong(maxId);
+      out.writeLong(fromTs);
+      out.writeLong(toTs);
+      out.writeInt(rowCount);
+      out.writeInt(refs.size());
+      for (BlockRef ref : refs) {
+        writeString(out, ref.targetKey());
+        out.writeLong(ref.minTs());
+        out.writeLong(ref.maxTs());
+        out.writeInt(ref.rows());
+        out.writeLong(ref.offset());
+        out.writeInt(ref.compressedLength());
+        out.writeInt(ref.rawLength());
+      }
+      blockData.writeTo(out);
+    }
+    try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+      ch.force(true);
+    }
+    try {
+      Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return open(file);
+  }
+
+  private static byte[] encodeBlock(List<LogRow> rows) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 96);
+    DataOutputStream out = new DataOutputStream(bytes);
+    int n = rows.size();
+    out.writeInt(n);
+
+    Dictionary targets = new Dictionary();
+    Dictionary directions = new Dictionary();
+    Dictionary kinds = new Dictionary();
+    Dictionary nicks = new Dictionary();
+    int[] targetIdx = new int[n];
+    int[] directionIdx = new int[n];
+    int[] kindIdx = new int[n];
+    int[] nickIdx = new int[n];
+    for (int i = 0; i < n; i++) {
+      LogLine line = rows.get(i).line();
+      targetIdx[i] = targets.indexOf(line.target());
+      directionIdx[i] = directions.indexOf(line.direction().name());
+      kindIdx[i] = kinds.indexOf(line.kind().name());
+      nickIdx[i] = nicks.indexOf(line.fromNick());
+    }
+    targets.writeTo(out);
+    directions.writeTo(out);
+    kinds.writeTo(out);
+    nicks.writeTo(out);
+
+    long prevId = 0L;
+    for (LogRow row : rows) {
+      out.writeLong(row.id() - prevId);
+      prevId = row.id();
+    }
+    long prevTs = 0L;
+    for (LogRow row : rows) {
+      long ts = row.line().tsEpochMs();
+      out.writeLong(ts - prevTs);
+      prevTs = ts;
+    }
+    for (int i = 0; i < n; i++) out.writeInt(targetIdx[i]);
+    for (int i = 0; i < n; i++) out.writeByte(directionIdx[i]);
+    for (int i = 0; i < n; i++) out.writeByte(kindIdx[i]);
+    for (int i = 0; i < n; i++) out.writeInt(nickIdx[i]);
+    for (LogRow row : rows) {
+      LogLine line = row.line();
+      out.writeByte((line.outgoingLocalEcho() ? 1 : 0) | (line.softIgnored() ? 2 : 0));
+    }
+    for (LogRow row : rows) writeString(out, row.line().text());
+    for (LogRow row : rows) writeNullableString(out, row.line().metaJson());
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static byte[] deflate(byte[] raw) {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    try {
+      deflater.setInput(raw);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+      byte[] buf = new byte[8192];
+      while (!deflater.finished()) {
+        int n = deflater.deflate(buf);
+        out.write(buf, 0, n);
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  static ChatLogArchiveSegment open(Path file) throws IOException {
+    MappedByteBuffer mapped;
+    try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+      mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+    }
+    ByteBuffer buf = mapped.duplicate();
+    if (buf.remaining() < 8 || buf.getInt() != MAGIC) {
+      throw new IOException("Not an archive segment: " + file);
+    }
+    int version = buf.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported archive segment version " + version + ": " + file);
+    }
+    String serverId = readString(buf);
+    long minId = buf.getLong();
+    long maxId = buf.getLong();
+    long fromTs = buf.getLong();
+    long toTs = buf.getLong();
+    int rowCount = buf.getInt();
+    int blockCount = buf.getInt();
+    ArrayList<BlockRef> refs = new ArrayList<>(Math.max(0, blockCount));
+    for (int i = 0; i < blockCount; i++) {
+      refs.add(
+          new BlockRef(
+              readString(buf),
+              buf.getLong(),
+              buf.getLong(),
+              buf.getInt(),
+              buf.getLong(),
+              buf.getInt(),
+              buf.getInt()));
+    }
+    ByteBuffer data = buf.slice();
+    return new ChatLogArchiveSegment(
+        file, serverId, minId, maxId, fromTs, toTs, rowCount, refs, data);
+  }
+
+  List<LogRow> decode(BlockRef block) {
+    try {
+      byte[] raw = inflate(block);
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+      int n = in.readInt();
+      List<String> targets = Dictionary.readFrom(in);
+      List<String> directions = Dictionary.readFrom(in);
+      List<String> kinds = Dictionary.readFrom(in);
+      List<String> nicks = Dictionary.readFrom(in);
+
+      long[] ids = new long[n];
+      long[] ts = new long[n];
+      long prevId = 0L;
+      for (int i = 0; i < n; i++) {
+        prevId += in.readLong();
+        ids[i] = prevId;
+      }
+      long prevTs = 0L;
+      for (int i = 0; i < n; i++) {
+        prevTs += in.readLong();
+        ts[i] = prevTs;
+      }
+      int[] targetIdx = new int[n];
+      int[] directionIdx = new int[n];
+      int[] kindIdx = new int[n];
+      int[] nickIdx = new int[n];
+      byte[] flags = new byte[n];
+      String[] texts = new String[n];
+      for (int i = 0; i < n; i++) targetIdx[i] = in.readInt();
+      for (int i = 0; i < n; i++) directionIdx[i] = in.readUnsignedByte();
+      for (int i = 0; i < n; i++) kindIdx[i] = in.readUnsignedByte();
+      for (int i = 0; i < n; i++) nickIdx[i] = in.readInt();
+      for (int i = 0; i < n; i++) flags[i] = in.readByte();
+      for (int i = 0; i < n; i++) texts[i] = readString(in);
+
+      ArrayList<LogRow> rows = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+        String meta = readNullableString(in);
+        rows.add(
+            new LogRow(
+                ids[i],
+                new LogLine(
+                    serverId,
+                    targets.get(targetIdx[i]),
+                    ts[i],
+                    parseDirection(directions.get(directionIdx[i])),
+                    parseKind(kinds.get(kindIdx[i])),
+                    nickIdx[i] < 0 ? null : nicks.get(nickIdx[i]),
+                    texts[i],
+                    (flags[i] & 1) != 0,
+                    (flags[i] & 2) != 0,
+                    meta)));
+      }
+      return rows;
+    } catch (IOException | DataFormatException e) {
+      throw new IllegalStateException("Corrupt archive segment block in " + file, e);
+    }
+  }
+
+  private byte[] inflate(BlockRef block) throws DataFormatException {
+    ByteBuffer slice =
+        data.duplicate()
+            .position(Math.toIntExact(block.offset()))
+            .limit(Math.toIntExact(block.offset() + block.compressedLength()))
+            .slice();
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(slice);
+      byte[] raw = new byte[block.rawLength()];
+      int off = 0;
+      while (off < raw.length && !inflater.finished()) {
+        int n = inflater.inflate(raw, off, raw.length - off);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new DataFormatException("truncated block");
+        }
+        off += n;
+      }
+      return raw;
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static LogDirection parseDirection(String s) {
+    try {
+      return LogDirection.valueOf(s);
+    } catch (Exception ignored) {
+      return LogDirection.SYSTEM;
+    }
+  }
+
+  private static LogKind parseKind(String s) {
+    try {
+      return LogKind.valueOf(s);
+    } catch (Exception ignored) {
+      return LogKind.STATUS;
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] b = Objects.toString(s, "").getBytes(StandardCharsets.UTF_8);
+    out.writeInt(b.length);
+    out.write(b);
+  }
+
+  private static void writeNullableString(DataOutputStream out, String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+      return;
+    }
+    writeString(out, s);
+  }
+
+  private static String readString(ByteBuffer buf) {
+    int len = buf.getInt();
+    byte[] b = new byte[len];
+    buf.get(b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int len = in.readInt();
+    byte[] b = new byte[len];
+    in.readFully(b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  private static String readNullableString(DataInputStream in) throws IOException {
+    int len = in.readInt();
+    if (len < 0) return null;
+    byte[] b = new byte[len];
+    in.readFully(b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  /** Per-block string dictionary; {@code null} maps to index {@code -1}. */
+  private static final class Dictionary {
+    private final HashMap<String, Integer> index = new HashMap<>();
+    private final ArrayList<String> values = new ArrayList<>();
+
+    int indexOf(String value) {
+      if (value == null) return -1;
+      Integer existing = index.get(value);
+      if (existing != null) return existing;
+      int next = values.size();
+      values.add(value);
+      index.put(value, next);
+      return next;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+      out.writeInt(values.size());
+      for (String v : values) writeString(out, v);
+    }
+
+    static List<String> readFrom(DataInputStream in) throws IOException {
+      int n = in.readInt();
+      ArrayList<String> out = new ArrayList<>(Math.max(0, n));
+      for (int i = 0; i < n; i++) out.add(readString(in));
+      return out;
+    }
+  }
+}
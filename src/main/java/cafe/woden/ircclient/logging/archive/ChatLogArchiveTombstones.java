@@ -0,0 +1,176 @@
+package cafe.woden.ircclient.logging.archive;
+
+import cafe.woden.ircclient.logging.ChatLogRepository;
+import cafe.woden.ircclient.logging.LogLine;
+import cafe.woden.ircclient.logging.LogRow;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-server changes to rows that already sit in immutable archive segments.
+ *
+ * <p>Segments are never rewritten (they are memory-mapped, and replacing a mapped file fails on
+ * some platforms), so clearing a target or redacting/editing an archived message is recorded here
+ * instead and applied by readers. The file is an append-only log of records:
+ *
+ * <pre>
+ *   byte 1, str targetKey, long throughRowId            (target cleared)
+ *   byte 2, str targetKey, str messageId, str text      (message text replaced)
+ * </pre>
+ *
+ * A truncated tail (crash mid-append) is ignored on load.
+ */
+final class ChatLogArchiveTombstones {
+
+  static final String FILE_NAME = "tombstones.bin";
+
+  private static final int CLEAR_TARGET = 1;
+  private static final int REPLACE_TEXT = 2;
+
+  private final Path file;
+  private final Map<String, Long> clearedThroughId = new HashMap<>();
+  private final Map<String, Map<String, String>> textByMessageId = new HashMap<>();
+
+  private ChatLogArchiveTombstones(Path file) {
+    this.file = file;
+  }
+
+  static ChatLogArchiveTombstones load(Path file) throws IOException {
+    ChatLogArchiveTombstones out = new ChatLogArchiveTombstones(file);
+    if (!Files.isRegularFile(file)) return out;
+    try (InputStream is = Files.newInputStream(file);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+      while (true) {
+        int kind;
+        try {
+          kind = in.readUnsignedByte();
+        } catch (EOFException eof) {
+          break;
+        }
+        try {
+          String targetKey = readString(in);
+          if (kind == CLEAR_TARGET) {
+            out.applyClear(targetKey, in.readLong());
+          } else if (kind == REPLACE_TEXT) {
+            out.applyReplace(targetKey, readString(in), readString(in));
+          } else {
+            break;
+          }
+        } catch (EOFException truncated) {
+          break;
+        }
+      }
+    }
+    return out;
+  }
+
+  /** Hides every row of {@code targetKey} whose id is at most {@code throughRowId}. */
+  synchronized void clearTarget(String targetKey, long throughRowId) throws IOException {
+    append(
+        out -> {
+          out.writeByte(CLEAR_TARGET);
+          writeString(out, targetKey);
+          out.writeLong(throughRowId);
+        });
+    applyClear(targetKey, throughRowId);
+  }
+
+  /** Shows {@code text} instead of the archived text of rows carrying {@code messageId}. */
+  synchronized void replaceText(String targetKey, String messageId, String text)
+      throws IOException {
+    append(
+        out -> {
+          out.writeByte(REPLACE_TEXT);
+          writeString(out, targetKey);
+          writeString(out, messageId);
+          writeString(out, text);
+        });
+    applyReplace(targetKey, messageId, text);
+  }
+
+  /** Highest cleared row id for {@code targetKey}, or {@link Long#MIN_VALUE} if never cleared. */
+  synchronized long clearedThroughId(String targetKey) {
+    return clearedThroughId.getOrDefault(targetKey, Long.MIN_VALUE);
+  }
+
+  /** {@code row} as readers should see it, or {@code null} when it was cleared. */
+  synchronized LogRow apply(LogRow row) {
+    if (row == null || row.line() == null) return row;
+    String key = ChatLogArchiveSegment.targetKey(row.line().target());
+    if (row.id() <= clearedThroughId.getOrDefault(key, Long.MIN_VALUE)) return null;
+    Map<String, String> texts = textByMessageId.get(key);
+    if (texts == null) return row;
+    String msgId = ChatLogRepository.extractMessageId(row.line().metaJson()).trim();
+    String text = msgId.isEmpty() ? null : texts.get(msgId);
+    if (text == null) return row;
+    LogLine l = row.line();
+    return new LogRow(
+        row.id(),
+        new LogLine(
+            l.serverId(),
+            l.target(),
+            l.tsEpochMs(),
+            l.direction(),
+            l.kind(),
+            l.fromNick(),
+            text,
+            l.outgoingLocalEcho(),
+            l.softIgnored(),
+            l.metaJson()));
+  }
+
+  private void applyClear(String targetKey, long throughRowId) {
+    clearedThroughId.merge(targetKey, throughRowId, Math::max);
+  }
+
+  private void applyReplace(String targetKey, String messageId, String text) {
+    textByMessageId
+        .computeIfAbsent(targetKey, k -> new HashMap<>())
+        .put(Objects.toString(messageId, "").trim(), Objects.toString(text, ""));
+  }
+
+  private void append(RecordWriter writer) throws IOException {
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    try (DataOutputStream out =
+        new DataOutputStream(
+            new BufferedOutputStream(
+                Files.newOutputStream(
+                    file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND,
+                    StandardOpenOption.WRITE)))) {
+      writer.write(out);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] b = Objects.toString(s, "").getBytes(StandardCharsets.UTF_8);
+    out.writeInt(b.length);
+    out.write(b);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int len = in.readInt();
+    if (len < 0) throw new EOFException("negative string length");
+    byte[] b = new byte[len];
+    in.readFully(b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  @FunctionalInterface
+  private interface RecordWriter {
+    void write(DataOutputStream out) throws IOException;
+  }
+}
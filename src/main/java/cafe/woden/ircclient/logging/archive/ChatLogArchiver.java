@@ -0,0 +1,235 @@
+package cafe.woden.ircclient.logging.archive;
+
+import cafe.woden.ircclient.config.LogProperties;
+import cafe.woden.ircclient.logging.ChatLogRepository;
+import cafe.woden.ircclient.logging.LogRow;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves rows older than {@code ircafe.logging.archive.afterDays} out of the hot {@code chat_log}
+ * table into {@link SegmentedChatLogArchive} segments.
+ *
+ * <p>Rows are read in bounded identity-id windows. Each window is split per server and per UTC
+ * month, written as one immutable segment, and only then deleted from the table using the exact
+ * predicate the segment was built from. A crash between the two steps leaves rows in both places;
+ * the first pass after startup replays the delete for every existing segment, which is idempotent
+ * because identity ids never move backwards.
+ *
+ * <p>When retention is active, whole archived months past the retention cutoff are deleted too.
+ * Runs on the chat-log retention scheduler, so it never overlaps pruning or compaction.
+ */
+public final class ChatLogArchiver implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(ChatLogArchiver.class);
+
+  private static final long STARTUP_DELAY_MINUTES = 5;
+  private static final long RUN_EVERY_HOURS = 12;
+
+  static final long DEFAULT_WINDOW_ID_SPAN = 50_000L;
+  static final long DEFAULT_WINDOW_PAUSE_MS = 50L;
+
+  /** Diagnostics payload published after each archive pass that moved or expired something. */
+  public record ArchivePassResult(
+      long cutoffEpochMs,
+      long rowsArchived,
+      int segmentsWritten,
+      long expiredBytesFreed,
+      long tookMs) {}
+
+  private final ChatLogRepository repo;
+  private final TransactionTemplate tx;
+  private final LogProperties props;
+  private final SegmentedChatLogArchive archive;
+  private final ApplicationEventPublisher events;
+  private final long windowIdSpan;
+  private final long windowPauseMs;
+
+  private volatile boolean closed;
+  private boolean reconciled;
+
+  private final ScheduledFuture<?> startupTask;
+  private final ScheduledFuture<?> recurringTask;
+
+  public ChatLogArchiver(
+      ChatLogRepository repo,
+      TransactionTemplate tx,
+      LogProperties props,
+      SegmentedChatLogArchive archive,
+      ApplicationEventPublisher events,
+      ScheduledExecutorService exec) {
+    this(
+        repo,
+        tx,
+        props,
+        archive,
+        events,
+        exec,
+        DEFAULT_WINDOW_ID_SPAN,
+        DEFAULT_WINDOW_PAUSE_MS);
+  }
+
+  ChatLogArchiver(
+      ChatLogRepository repo,
+      TransactionTemplate tx,
+      LogProperties props,
+      SegmentedChatLogArchive archive,
+      ApplicationEventPublisher events,
+      ScheduledExecutorService exec,
+      long windowIdSpan,
+      long windowPauseMs) {
+    this.repo = Objects.requireNonNull(repo, "repo");
+    this.tx = Objects.requireNonNull(tx, "tx");
+    this.props = Objects.requireNonNull(props, "props");
+    this.archive = Objects.requireNonNull(archive, "archive");
+    this.events = events;
+    this.windowIdSpan = Math.max(1L, windowIdSpan);
+    this.windowPauseMs = Math.max(0L, windowPauseMs);
+
+    this.startupTask = exec.schedule(this::archiveSafely, STARTUP_DELAY_MINUTES, TimeUnit.MINUTES);
+    this.recurringTask =
+        exec.scheduleWithFixedDelay(
+            this::archiveSafely, RUN_EVERY_HOURS, RUN_EVERY_HOURS, TimeUnit.HOURS);
+  }
+
+  private void archiveSafely() {
+    try {
+      archiveOnce();
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    } catch (Throwable t) {
+      log.warn("[ircafe] Chat log archive pass failed", t);
+    }
+  }
+
+  /** Runs one archive pass; returns the number of rows moved into the archive. */
+  long archiveOnce() throws InterruptedException, IOException {
+    if (!archive.enabled() || !Boolean.TRUE.equals(props.enabled())) return 0L;
+
+    if (!reconciled) {
+      reconcileHotTable();
+      reconciled = true;
+    }
+
+    int days = props.archive().afterDays();
+    long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+    long startedNanos = System.nanoTime();
+
+    long archived = 0L;
+    int segments = 0;
+    Optional<ChatLogRepository.RowIdRange> range = repo.idRangeOlderThan(cutoff);
+    if (range.isPresent()) {
+      long maxId = range.get().maxId();
+      for (long from = range.get().minId(); from <= maxId && !closed; from += windowIdSpan) {
+        long to = Math.min(maxId, from + windowIdSpan - 1L);
+        List<LogRow> rows = repo.fetchRowsOlderThanInIdRange(cutoff, from, to);
+        if (rows == null || rows.isEmpty()) continue;
+
+        for (Map.Entry<GroupKey, List<LogRow>> e : groupByServerAndMonth(rows).entrySet()) {
+          GroupKey key = e.getKey();
+          long fromTs = SegmentedChatLogArchive.monthStartMs(key.month());
+          long nextMonth = SegmentedChatLogArchive.monthStartMs(key.month().plusMonths(1));
+          long toTs = Math.min(nextMonth, cutoff);
+          ChatLogArchiveSegment seg =
+              archive.writeSegment(key.serverId(), fromTs, toTs, e.getValue());
+          deleteArchivedRows(seg);
+          archived += seg.rowCount();
+          segments++;
+        }
+        if (windowPauseMs > 0L) Thread.sleep(windowPauseMs);
+      }
+    }
+
+    long expiredBytes = 0L;
+    if (retentionEnabled()) {
+      long retentionCutoff =
+          System.currentTimeMillis() - TimeUnit.DAYS.toMillis(props.retentionDays());
+      expiredBytes = archive.deleteMonthsEndingBefore(retentionCutoff);
+    }
+
+    long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    if (archived > 0 || expiredBytes > 0) {
+      log.info(
+          "[ircafe] Archived {} chat log rows into {} segment(s) "
+              + "(afterDays={}, expiredBytes={}, tookMs={})",
+          archived,
+          segments,
+          days,
+          expiredBytes,
+          tookMs);
+      if (events != null) {
+        try {
+          events.publishEvent(
+              new ArchivePassResult(cutoff, archived, segments, expiredBytes, tookMs));
+        } catch (Exception ignored) {
+        }
+      }
+    }
+    return archived;
+  }
+
+  private void reconcileHotTable() {
+    int removed = 0;
+    for (ChatLogArchiveSegment seg : archive.allSegments()) {
+      if (closed) return;
+      removed += deleteArchivedRows(seg);
+    }
+    if (removed > 0) {
+      log.info("[ircafe] Removed {} chat log rows already present in the archive", removed);
+    }
+  }
+
+  private int deleteArchivedRows(ChatLogArchiveSegment seg) {
+    Integer n =
+        tx.execute(
+            status ->
+                repo.deleteArchivedRange(
+                    seg.serverId(), seg.minId(), seg.maxId(), seg.fromTs(), seg.toTs()));
+    return n == null ? 0 : Math.max(0, n);
+  }
+
+  private boolean retentionEnabled() {
+    if (Boolean.TRUE.equals(props.keepForever())) return false;
+    Integer days = props.retentionDays();
+    return days != null && days > 0;
+  }
+
+  private static Map<GroupKey, List<LogRow>> groupByServerAndMonth(List<LogRow> rows) {
+    LinkedHashMap<GroupKey, List<LogRow>> out = new LinkedHashMap<>();
+    for (LogRow row : rows) {
+      if (row == null || row.line() == null) continue;
+      GroupKey key =
+          new GroupKey(
+              row.line().serverId(), SegmentedChatLogArchive.monthOf(row.line().tsEpochMs()));
+      out.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+    }
+    return out;
+  }
+
+  private record GroupKey(String serverId, YearMonth month) {}
+
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      startupTask.cancel(false);
+    } catch (Exception ignored) {
+    }
+    try {
+      recurringTask.cancel(false);
+    } catch (Exception ignored) {
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package cafe.woden.ircclient.logging.archive;
+
+import cafe.woden.ircclient.logging.LogRow;
+import java.util.List;
+
+/** Archive used when the cold tier is disabled: always empty. */
+final class NoOpChatLogArchive implements ChatLogArchive {
+  static final NoOpChatLogArchive INSTANCE = new NoOpChatLogArchive();
+
+  private NoOpChatLogArchive() {}
+
+  @Override
+  public boolean enabled() {
+    return false;
+  }
+
+  @Override
+  public List<LogRow> fetchOlderRows(
+      String serverId, String target, long beforeTs, long beforeId, int limit) {
+    return List.of();
+  }
+
+  @Override
+  public boolean hasOlderRows(String serverId, String target, long beforeTs, long beforeId) {
+    return false;
+  }
+
+  @Override
+  public List<LogRow> searchRows(String serverId, Long fromEpochMs, Long toEpochMs, int limit) {
+    return List.of();
+  }
+
+  @Override
+  public List<LogRow> searchRowsBefore(
+      String serverId, Long fromEpochMs, Long toEpochMs, Long beforeTs, long beforeId, int limit) {
+    return List.of();
+  }
+
+  @Override
+  public void clearTarget(String serverId, String target, long throughRowId) {}
+
+  @Override
+  public void replaceText(String serverId, String target, String messageId, String text) {}
+}
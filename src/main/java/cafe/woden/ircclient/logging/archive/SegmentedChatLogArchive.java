@@ -0,0 +1,386 @@
+package cafe.woden.ircclient.logging.archive;
+
+import cafe.woden.ircclient.logging.LogRow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * File-backed cold archive: immutable segments laid out as {@code <root>/<server>/<yyyy-MM>/}.
+ *
+ * <p>Months are UTC calendar months and never overlap, so readers walk them newest-first and can
+ * stop as soon as a page is filled. Segments within a month may overlap in time (each covers its
+ * own identity-id window), so every segment of a month contributes its newest candidates for the
+ * page and those are merged before rows are handed back.
+ *
+ * <p>Opened segments are memory-mapped and kept in a small bounded cache. Clearing a target or
+ * editing an archived message never rewrites a segment; it is recorded in the server's {@link
+ * ChatLogArchiveTombstones} and applied to every row read back.
+ */
+public final class SegmentedChatLogArchive implements ChatLogArchive {
+  private static final Logger log = LoggerFactory.getLogger(SegmentedChatLogArchive.class);
+
+  private static final int OPEN_SEGMENT_CACHE_SIZE = 64;
+
+  static final Comparator<LogRow> NEWEST_FIRST =
+      Comparator.comparingLong((LogRow r) -> r.line().tsEpochMs())
+          .thenComparingLong(LogRow::id)
+          .reversed();
+
+  private final Path root;
+  private final boolean enabled;
+  private final Cache<Path, ChatLogArchiveSegment> openSegments =
+      Caffeine.newBuilder().maximumSize(OPEN_SEGMENT_CACHE_SIZE).build();
+  private final ConcurrentHashMap<String, ChatLogArchiveTombstones> tombstonesByServer =
+      new ConcurrentHashMap<>();
+  private final Object writeLock = new Object();
+
+  public SegmentedChatLogArchive(Path root, boolean enabled) {
+    this.root = Objects.requireNonNull(root, "root").toAbsolutePath();
+    this.enabled = enabled;
+  }
+
+  public Path root() {
+    return root;
+  }
+
+  @Override
+  public boolean enabled() {
+    return enabled;
+  }
+
+  @Override
+  public List<LogRow> fetchOlderRows(
+      String serverId, String target, long beforeTs, long beforeId, int limit) {
+    if (!enabled || limit <= 0) return List.of();
+    String key = ChatLogArchiveSegment.targetKey(target);
+    if (key.isEmpty() || normalizeServerId(serverId).isEmpty()) return List.of();
+    ChatLogArchiveTombstones tombstones = tombstones(serverId);
+    long clearedThrough = tombstones.clearedThroughId(key);
+    // Cleared rows are filtered after decoding, so a cleared target reads its segments unbounded.
+    int segmentLimit = clearedThrough == Long.MIN_VALUE ? limit : Integer.MAX_VALUE;
+
+    ArrayList<LogRow> out = new ArrayList<>();
+    for (YearMonth month : monthsNewestFirst(serverId)) {
+      if (monthStartMs(month) > beforeTs) continue;
+      ArrayList<LogRow> monthRows = new ArrayList<>();
+      for (ChatLogArchiveSegment seg : segments(serverId, month)) {
+        if (seg.maxId() <= clearedThrough) continue;
+        visibleRows(seg.olderRows(key, beforeTs, beforeId, segmentLimit), tombstones, monthRows);
+      }
+      monthRows.sort(NEWEST_FIRST);
+      for (LogRow row : monthRows) {
+        out.add(row);
+        if (out.size() >= limit) return out;
+      }
+    }
+    return out;
+  }
+
+  @Override
+  public boolean hasOlderRows(String serverId, String target, long beforeTs, long beforeId) {
+    if (!enabled) return false;
+    String key = ChatLogArchiveSegment.targetKey(target);
+    if (key.isEmpty() || normalizeServerId(serverId).isEmpty()) return false;
+    if (tombstones(serverId).clearedThroughId(key) != Long.MIN_VALUE) {
+      return !fetchOlderRows(serverId, target, beforeTs, beforeId, 1).isEmpty();
+    }
+    for (YearMonth month : monthsNewestFirst(serverId)) {
+      if (monthStartMs(month) > beforeTs) continue;
+      for (ChatLogArchiveSegment seg : segments(serverId, month)) {
+        if (seg.hasOlderRows(key, beforeTs, beforeId)) return true;
+      }
+    }
+    return false;
+  }
+
+  /** {@inheritDoc} A blank {@code serverId} searches every archived server. */
+  @Override
+  public List<LogRow> searchRows(String serverId, Long fromEpochMs, Long toEpochMs, int limit) {
+    return searchRowsBefore(serverId, fromEpochMs, toEpochMs, null, 0L, limit);
+  }
+
+  /** {@inheritDoc} A blank {@code serverId} searches every archived server. */
+  @Override
+  public List<LogRow> searchRowsBefore(
+      String serverId, Long fromEpochMs, Long toEpochMs, Long beforeTs, long beforeId, int limit) {
+    if (!enabled || limit <= 0) return List.of();
+    Long upper = toEpochMs;
+    if (beforeTs != null && (upper == null || beforeTs < upper)) upper = beforeTs;
+    ArrayList<LogRow> out = new ArrayList<>();
+    for (YearMonth month : monthsNewestFirst(serverId)) {
+      long start = monthStartMs(month);
+      long end = monthStartMs(month.plusMonths(1));
+      if (upper != null && start > upper) continue;
+      if (fromEpochMs != null && end <= fromEpochMs) break;
+      // Each segment seeks to the cursor and yields at most the rows still needed for this page.
+      int need = limit - out.size();
+      ArrayList<LogRow> monthRows = new ArrayList<>();
+      for (ChatLogArchiveSegment seg : segments(serverId, month)) {
+        ChatLogArchiveTombstones tombstones = tombstones(seg.serverId());
+        monthRows.addAll(
+            seg.newestRowsInRange(fromEpochMs, upper, beforeTs, beforeId, need, tombstones::apply));
+      }
+      monthRows.sort(NEWEST_FIRST);
+      for (LogRow row : monthRows) {
+        out.add(row);
+        if (out.size() >= limit) return out;
+      }
+    }
+    return out;
+  }
+
+  @Override
+  public void clearTarget(String serverId, String target, long throughRowId) {
+    String key = ChatLogArchiveSegment.targetKey(target);
+    if (!enabled || key.isEmpty() || normalizeServerId(serverId).isEmpty()) return;
+    try {
+      tombstones(serverId).clearTarget(key, throughRowId);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not record cleared archive target " + target, e);
+    }
+  }
+
+  @Override
+  public void replaceText(String serverId, String target, String messageId, String text) {
+    String key = ChatLogArchiveSegment.targetKey(target);
+    String msgId = Objects.toString(messageId, "").trim();
+    if (!enabled || key.isEmpty() || msgId.isEmpty()) return;
+    if (normalizeServerId(serverId).isEmpty()) return;
+    try {
+      tombstones(serverId).replaceText(key, msgId, text);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not record archived message change " + msgId, e);
+    }
+  }
+
+  /**
+   * Publish a new immutable segment holding {@code rows} of one server and one month.
+   *
+   * <p>{@code fromTs}/{@code toTs} describe the half-open timestamp window the rows were selected
+   * from; the archiver replays it to delete the rows from the hot table.
+   */
+  ChatLogArchiveSegment writeSegment(String serverId, long fromTs, long toTs, List<LogRow> rows)
+      throws IOException {
+    YearMonth month = monthOf(fromTs);
+    long minId = Long.MAX_VALUE;
+    long maxId = Long.MIN_VALUE;
+    for (LogRow row : rows) {
+      minId = Math.min(minId, row.id());
+      maxId = Math.max(maxId, row.id());
+    }
+    Path file =
+        monthDir(serverId, month).resolve(minId + "-" + maxId + ChatLogArchiveSegment.FILE_SUFFIX);
+    synchronized (writeLock) {
+      ChatLogArchiveSegment seg = ChatLogArchiveSegment.write(file, serverId, fromTs, toTs, rows);
+      openSegments.put(file, seg);
+      return seg;
+    }
+  }
+
+  /** Every readable segment in the archive (used to reconcile the hot table after a crash). */
+  List<ChatLogArchiveSegment> allSegments() {
+    ArrayList<ChatLogArchiveSegment> out = new ArrayList<>();
+    for (Path serverDir : children(root)) {
+      if (!Files.isDirectory(serverDir)) continue;
+      for (Path monthDir : children(serverDir)) {
+        for (Path file : segmentFiles(monthDir)) {
+          ChatLogArchiveSegment seg = openSegment(file);
+          if (seg != null) out.add(seg);
+        }
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Delete whole months whose end is at or before {@code cutoffEpochMs}.
+   *
+   * @return bytes freed on disk
+   */
+  long deleteMonthsEndingBefore(long cutoffEpochMs) {
+    long freed = 0L;
+    synchronized (writeLock) {
+      for (Path serverDir : children(root)) {
+        if (!Files.isDirectory(serverDir)) continue;
+        for (Path monthDir : children(serverDir)) {
+          YearMonth month = parseMonth(monthDir);
+          if (month == null || monthStartMs(month.plusMonths(1)) > cutoffEpochMs) continue;
+          for (Path file : segmentFiles(monthDir)) {
+            openSegments.invalidate(file);
+            try {
+              long size = Files.size(file);
+              if (Files.deleteIfExists(file)) freed += size;
+            } catch (IOException e) {
+              log.warn("[ircafe] Could not delete expired archive segment {}", file, e);
+            }
+          }
+          try {
+            Files.deleteIfExists(monthDir);
+          } catch (IOException ignored) {
+            // Leftover temp files; retried on the next pass.
+          }
+        }
+      }
+    }
+    return freed;
+  }
+
+  static YearMonth monthOf(long epochMs) {
+    return YearMonth.from(Instant.ofEpochMilli(epochMs).atOffset(ZoneOffset.UTC));
+  }
+
+  static long monthStartMs(YearMonth month) {
+    return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+
+  private List<YearMonth> monthsNewestFirst(String serverId) {
+    ArrayList<YearMonth> months = new ArrayList<>();
+    for (Path serverDir : serverDirs(serverId)) {
+      for (Path dir : children(serverDir)) {
+        YearMonth month = parseMonth(dir);
+        if (month != null && !months.contains(month)) months.add(month);
+      }
+    }
+    months.sort(Comparator.reverseOrder());
+    return months;
+  }
+
+  private List<ChatLogArchiveSegment> segments(String serverId, YearMonth month) {
+    String sid = normalizeServerId(serverId);
+    ArrayList<ChatLogArchiveSegment> out = new ArrayList<>();
+    for (Path serverDir : serverDirs(serverId)) {
+      for (Path file : segmentFiles(serverDir.resolve(month.toString()))) {
+        ChatLogArchiveSegment seg = openSegment(file);
+        if (seg != null && (sid.isEmpty() || seg.serverId().equals(sid))) out.add(seg);
+      }
+    }
+    return out;
+  }
+
+  /** The server's directory, or every server directory when {@code serverId} is blank. */
+  private List<Path> serverDirs(String serverId) {
+    if (normalizeServerId(serverId).isEmpty()) {
+      return children(root).stream().filter(Files::isDirectory).toList();
+    }
+    Path dir = serverDir(serverId);
+    return dir != null && Files.isDirectory(dir) ? List.of(dir) : List.of();
+  }
+
+  private ChatLogArchiveTombstones tombstones(String serverId) {
+    String sid = normalizeServerId(serverId);
+    return tombstonesByServer.computeIfAbsent(
+        sid,
+        k -> {
+          try {
+            return ChatLogArchiveTombstones.load(
+                serverDir(k).resolve(ChatLogArchiveTombstones.FILE_NAME));
+          } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive tombstones for " + k, e);
+          }
+        });
+  }
+
+  private static void visibleRows(
+      List<LogRow> rows, ChatLogArchiveTombstones tombstones, List<LogRow> out) {
+    for (LogRow row : rows) {
+      LogRow visible = tombstones.apply(row);
+      if (visible != null) out.add(visible);
+    }
+  }
+
+  private ChatLogArchiveSegment openSegment(Path file) {
+    ChatLogArchiveSegment cached = openSegments.getIfPresent(file);
+    if (cached != null) return cached;
+    try {
+      ChatLogArchiveSegment seg = ChatLogArchiveSegment.open(file);
+      openSegments.put(file, seg);
+      return seg;
+    } catch (IOException | RuntimeException e) {
+      log.warn("[ircafe] Skipping unreadable archive segment {}", file, e);
+      return null;
+    }
+  }
+
+  private Path serverDir(String serverId) {
+    String sid = normalizeServerId(serverId);
+    if (sid.isEmpty()) return null;
+    return root.resolve(fileSafe(sid));
+  }
+
+  private Path monthDir(String serverId, YearMonth month) {
+    Path serverDir = serverDir(serverId);
+    return serverDir == null ? null : serverDir.resolve(month.toString());
+  }
+
+  private static String normalizeServerId(String serverId) {
+    return Objects.toString(serverId, "").trim();
+  }
+
+  /** Reversible, filesystem-safe name: anything outside {@code [A-Za-z0-9.-]} is hex-escaped. */
+  static String fileSafe(String s) {
+    StringBuilder sb = new StringBuilder(s.length() + 8);
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if ((c >= 'a' && c <= 'z')
+          || (c >= 'A' && c <= 'Z')
+          || (c >= '0' && c <= '9')
+          || c == '.'
+          || c == '-') {
+        sb.append(c);
+      } else {
+        sb.append('_').append(String.format(Locale.ROOT, "%04x", (int) c));
+      }
+    }
+    return sb.toString();
+  }
+
+  private static YearMonth parseMonth(Path dir) {
+    if (!Files.isDirectory(dir)) return null;
+    try {
+      return YearMonth.parse(dir.getFileName().toString());
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private static List<Path> segmentFiles(Path dir) {
+    if (dir == null || !Files.isDirectory(dir)) return List.of();
+    ArrayList<Path> out = new ArrayList<>();
+    try (DirectoryStream<Path> ds =
+        Files.newDirectoryStream(dir, "*" + ChatLogArchiveSegment.FILE_SUFFIX)) {
+      for (Path p : ds) out.add(p);
+    } catch (IOException e) {
+      log.debug("[ircafe] Could not list archive directory {}", dir, e);
+    }
+    out.sort(Comparator.naturalOrder());
+    return out;
+  }
+
+  private static List<Path> children(Path dir) {
+    if (dir == null || !Files.isDirectory(dir)) return List.of();
+    ArrayList<Path> out = new ArrayList<>();
+    try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+      for (Path p : ds) out.add(p);
+    } catch (IOException e) {
+      log.debug("[ircafe] Could not list archive directory {}", dir, e);
+    }
+    return out;
+  }
+}
@@ -7,9 +7,12 @@ import cafe.woden.ircclient.irc.playback.IrcBouncerPlaybackPort;
 import cafe.woden.ircclient.logging.ChatLogRepository;
 import cafe.woden.ircclient.logging.LogLine;
 import cafe.woden.ircclient.logging.LogRow;
+import cafe.woden.ircclient.logging.archive.ChatLogArchive;
 import cafe.woden.ircclient.model.LogDirection;
 import cafe.woden.ircclient.model.LogKind;
 import cafe.woden.ircclient.model.TargetRef;
+import cafe.woden.ircclient.util.PipelineJfrEvents;
+import cafe.woden.ircclient.util.StartupTimeline;
 import java.awt.Component;
 import java.awt.Point;
 import java.awt.Rectangle;
@@ -61,6 +64,8 @@ public final class DbChatHistoryService implements ChatHistoryService {
       DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM);
 
   private final ChatLogRepository repo;
+  // Cold segments for rows that aged out of the hot table; paging continues into it seamlessly.
+  private final ChatLogArchive archive;
   private final LogProperties props;
   private final ChatHistoryTranscriptPort transcripts;
 
@@ -171,7 +176,7 @@ public final class DbChatHistoryService implements ChatHistoryService {
         () -> {
           try {
             ArrayList<LogRow> rows = new ArrayList<>();
-            List<LogRow> first = repo.fetchOlderRows(serverId, tgt, beforeTs, beforeId, limitFinal);
+            List<LogRow> first = fetchOlderLocal(serverId, tgt, beforeTs, beforeId, limitFinal);
             if (first != null && !first.isEmpty()) rows.addAll(first);
 
             // If nothing local, try a remote fill once, then re-query local.
@@ -180,7 +185,7 @@ public final class DbChatHistoryService implements ChatHistoryService {
                   requestRemoteHistoryAndWait(serverId, tgt, safeInstant(beforeTs), limitFinal);
               if (requested) {
                 List<LogRow> after =
-                    repo.fetchOlderRows(serverId, tgt, beforeTs, beforeId, limitFinal);
+                    fetchOlderLocal(serverId, tgt, beforeTs, beforeId, limitFinal);
                 if (after != null && !after.isEmpty()) rows.addAll(after);
               }
             }
@@ -252,9 +257,37 @@ public final class DbChatHistoryService implements ChatHistoryService {
         });
   }
 
+  /** Hot-table rows first; when the table runs dry mid-page, continue into the cold archive. */
+  private List<LogRow> fetchOlderLocal(
+      String serverId, String tgt, long beforeTs, long beforeId, int limit) {
+    List<LogRow> hot = repo.fetchOlderRows(serverId, tgt, beforeTs, beforeId, limit);
+    if (!archive.enabled() || (hot != null && hot.size() >= limit)) return hot;
+
+    ArrayList<LogRow> out = new ArrayList<>(limit);
+    long ts = beforeTs;
+    long id = beforeId;
+    if (hot != null && !hot.isEmpty()) {
+      out.addAll(hot);
+      LogRow oldest = hot.get(hot.size() - 1);
+      ts = oldest.line().tsEpochMs();
+      id = oldest.id();
+    }
+    try {
+      out.addAll(archive.fetchOlderRows(serverId, tgt, ts, id, limit - out.size()));
+    } catch (Exception e) {
+      log.debug("Archived-history fetch failed for {} / {}", serverId, tgt, e);
+    }
+    return out;
+  }
+
+  private boolean hasOlderLocal(String serverId, String tgt, long beforeTs, long beforeId) {
+    return repo.hasOlderRows(serverId, tgt, beforeTs, beforeId)
+        || archive.hasOlderRows(serverId, tgt, beforeTs, beforeId);
+  }
+
   private boolean safeHasMore(String serverId, String tgt, LogCursor cursor) {
     try {
-      return repo.hasOlderRows(serverId, tgt, cursor.tsEpochMs(), cursor.id());
+      return hasOlderLocal(serverId, tgt, cursor.tsEpochMs(), cursor.id());
     } catch (Exception e) {
       log.debug("Older-history hasMore check failed for {} / {}", serverId, tgt, e);
       return true;
@@ -500,7 +533,7 @@ public final class DbChatHistoryService implements ChatHistoryService {
 
           try {
             hasMore =
-                repo.hasOlderRows(serverId, tgt, cursorCandidate.tsEpochMs(), cursorCandidate.id());
+                hasOlderLocal(serverId, tgt, cursorCandidate.tsEpochMs(), cursorCandidate.id());
           } catch (Exception e) {
             log.debug("Initial-history hasMore check failed for {} / {}", serverId, tgt, e);
             hasMore = true;
@@ -668,6 +701,8 @@ public final class DbChatHistoryService implements ChatHistoryService {
       int inserted = Math.max(0, insertedSoFar);
       long newestTs = newestHistoryTs;
       int insertedThisChunk = 0;
+      PipelineJfrEvents.HistoryChunkRender jfr = new PipelineJfrEvents.HistoryChunkRender();
+      jfr.begin();
 
       while (nextIndex < lines.size() && insertedThisChunk < maxLines) {
         LogLine line = lines.get(nextIndex);
@@ -678,6 +713,8 @@ public final class DbChatHistoryService implements ChatHistoryService {
         newestTs = line != null ? line.tsEpochMs() : newestTs;
         if (insertedThisChunk >= minLinesBeforeBudget && System.nanoTime() >= deadlineNs) break;
       }
+      jfr.lines = insertedThisChunk;
+      jfr.commit(target.serverId(), target.target());
 
       long chunkEndNs = System.nanoTime();
       long elapsedNs = Math.max(0L, chunkEndNs - chunkStartNs);
@@ -763,6 +800,7 @@ public final class DbChatHistoryService implements ChatHistoryService {
       String mode,
       int chunks,
       long startedNs) {
+    StartupTimeline.mark(StartupTimeline.FIRST_HISTORY_LOADED);
     if (inserted > 0) {
       try {
         String label = historyDividerLabel(newestHistoryTs);
@@ -933,6 +971,8 @@ public final class DbChatHistoryService implements ChatHistoryService {
       int safeInsertAt = Math.max(0, insertAt);
       int nextIndex = nextIndexInclusive;
       int insertedThisChunk = 0;
+      PipelineJfrEvents.HistoryChunkRender jfr = new PipelineJfrEvents.HistoryChunkRender();
+      jfr.begin();
       // Insert newest-to-oldest at a fixed prepend offset so users see lines nearest the current
       // transcript first, while final transcript order stays chronological.
       while (nextIndex >= 0 && insertedThisChunk < maxLines) {
@@ -945,6 +985,8 @@ public final class DbChatHistoryService implements ChatHistoryService {
         insertedThisChunk++;
         if (insertedThisChunk >= minLinesBeforeBudget && System.nanoTime() >= deadlineNs) break;
       }
+      jfr.lines = insertedThisChunk;
+      jfr.commit(target.serverId(), target.target());
       long elapsedNs = Math.max(0L, System.nanoTime() - chunkStartNs);
       int nextDelayMs = HistoryChunking.effectiveInterChunkDelayMs(chunkDelayMs, elapsedNs);
 
@@ -0,0 +1,12 @@
+package cafe.woden.ircclient.logging.viewer;
+
+import org.jmolecules.ddd.annotation.ValueObject;
+
+/**
+ * Keyset position in newest-first log order.
+ *
+ * <p>The next page holds rows strictly older than {@code (tsEpochMs, id)}, so paging stays stable
+ * while new rows are being written.
+ */
+@ValueObject
+public record ChatLogViewerCursor(long tsEpochMs, long id) {}
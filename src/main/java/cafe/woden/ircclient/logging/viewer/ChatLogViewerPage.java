@@ -0,0 +1,27 @@
+package cafe.woden.ircclient.logging.viewer;
+
+import java.util.List;
+import org.jmolecules.ddd.annotation.ValueObject;
+
+/**
+ * One keyset page of log viewer rows.
+ *
+ * <p>{@code next} continues the scan and is null once the log is exhausted. A page can be short,
+ * or even empty, while {@code next} is still set: filters may reject most of a scan window.
+ */
+@ValueObject
+public record ChatLogViewerPage(
+    List<ChatLogViewerRow> rows, ChatLogViewerCursor next, int scannedRows) {
+  public ChatLogViewerPage {
+    rows = rows == null ? List.of() : List.copyOf(rows);
+    scannedRows = Math.max(0, scannedRows);
+  }
+
+  public static ChatLogViewerPage empty() {
+    return new ChatLogViewerPage(List.of(), null, 0);
+  }
+
+  public boolean hasMore() {
+    return next != null;
+  }
+}
@@ -1,6 +1,7 @@
 package cafe.woden.ircclient.logging.viewer;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Backend service used by the Swing log viewer.
@@ -13,6 +14,39 @@ public interface ChatLogViewerService {
 
   ChatLogViewerResult search(ChatLogViewerQuery query);
 
+  /**
+   * Returns up to {@code query.limit()} matching rows strictly older than {@code after}
+   * (newest-first), or starting from the newest row when {@code after} is null.
+   *
+   * <p>Keep paging while {@link ChatLogViewerPage#hasMore()}; a short page does not mean the end.
+   */
+  default ChatLogViewerPage searchPage(ChatLogViewerQuery query, ChatLogViewerCursor after) {
+    if (after != null) return ChatLogViewerPage.empty();
+    ChatLogViewerResult result = search(query);
+    return new ChatLogViewerPage(result.rows(), null, result.scannedRows());
+  }
+
+  /**
+   * Hands every matching row to {@code sink}, newest-first, without collecting the result.
+   *
+   * <p>Stops early when the sink returns {@code false} or the calling thread is interrupted.
+   *
+   * @return number of rows handed to the sink
+   */
+  default long stream(ChatLogViewerQuery query, Predicate<ChatLogViewerRow> sink) {
+    long delivered = 0;
+    ChatLogViewerCursor after = null;
+    do {
+      ChatLogViewerPage page = searchPage(query, after);
+      for (ChatLogViewerRow row : page.rows()) {
+        delivered++;
+        if (!sink.test(row)) return delivered;
+      }
+      after = page.next();
+    } while (after != null && !Thread.currentThread().isInterrupted());
+    return delivered;
+  }
+
   /**
    * Returns unique known channel names for a server (best effort), for channel-filter picker UX.
    */
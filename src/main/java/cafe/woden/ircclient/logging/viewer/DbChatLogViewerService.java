@@ -3,10 +3,12 @@ package cafe.woden.ircclient.logging.viewer;
 import cafe.woden.ircclient.logging.ChatLogRepository;
 import cafe.woden.ircclient.logging.LogLine;
 import cafe.woden.ircclient.logging.LogRow;
+import cafe.woden.ircclient.logging.archive.ChatLogArchive;
 import cafe.woden.ircclient.model.LogKind;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -14,22 +16,26 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
-import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /** DB-backed log viewer service. */
-@RequiredArgsConstructor
 public final class DbChatLogViewerService implements ChatLogViewerService {
 
   private static final int DEFAULT_LIMIT = 500;
   private static final int MAX_LIMIT = 10_000;
   private static final int MAX_SCAN_LIMIT = 50_000;
   private static final int FILTER_SCAN_MULTIPLIER = 25;
+  private static final int SCAN_WINDOW = 2_000;
 
   private static final ObjectMapper JSON = new ObjectMapper();
 
+  private static final Comparator<LogRow> NEWEST_FIRST =
+      Comparator.comparingLong((LogRow r) -> r.line().tsEpochMs())
+          .thenComparingLong(LogRow::id)
+          .reversed();
+
   private static final TextMatcher MATCH_ALL = value -> true;
   private static final Meta EMPTY_META = new Meta("", "", Map.of());
   private static final Pattern NUMERIC_REPLY_PREFIX = Pattern.compile("^\\s*\\[(\\d{3,4})]");
@@ -66,7 +72,17 @@ public final class DbChatLogViewerService implements ChatLogViewerService {
     "end of motd"
   };
 
-  @NonNull private final ChatLogRepository repo;
+  private final ChatLogRepository repo;
+  private final ChatLogArchive archive;
+
+  public DbChatLogViewerService(ChatLogRepository repo) {
+    this(repo, ChatLogArchive.disabled());
+  }
+
+  public DbChatLogViewerService(ChatLogRepository repo, ChatLogArchive archive) {
+    this.repo = Objects.requireNonNull(repo, "repo");
+    this.archive = archive != null ? archive : ChatLogArchive.disabled();
+  }
 
   @Override
   public boolean enabled() {
@@ -81,75 +97,97 @@ public final class DbChatLogViewerService implements ChatLogViewerService {
     if (serverId.isEmpty()) return new ChatLogViewerResult(List.of(), 0, false, false);
 
     int wanted = clampLimit(query.limit());
-    TextMatcher nickMatcher = compileMatcher(query.nickPattern(), query.nickMode(), "nick");
-    TextMatcher messageMatcher =
-        compileMatcher(query.messagePattern(), query.messageMode(), "message");
-    TextMatcher hostmaskMatcher =
-        compileMatcher(query.hostmaskPattern(), query.hostmaskMode(), "hostmask");
-    TextMatcher channelMatcher =
-        compileMatcher(query.channelPattern(), query.channelMode(), "channel");
-    boolean includeServerEvents = query.includeServerEvents();
-    boolean includeProtocolDetails = query.includeProtocolDetails();
-
-    boolean hasPostFilters =
-        nickMatcher != MATCH_ALL
-            || messageMatcher != MATCH_ALL
-            || hostmaskMatcher != MATCH_ALL
-            || channelMatcher != MATCH_ALL
-            || !includeServerEvents
-            || !includeProtocolDetails;
+    RowFilter filter = RowFilter.compile(query);
     int scanLimit = wanted;
-    if (hasPostFilters) {
+    if (filter.hasPostFilters()) {
       long expanded = (long) wanted * FILTER_SCAN_MULTIPLIER;
       scanLimit = (int) Math.max(wanted, Math.min(MAX_SCAN_LIMIT, expanded));
     }
 
     List<LogRow> candidates =
-        repo.searchRows(serverId, query.fromEpochMs(), query.toEpochMs(), scanLimit);
+        searchHotThenArchive(serverId, query.fromEpochMs(), query.toEpochMs(), null, scanLimit);
     if (candidates == null || candidates.isEmpty()) {
       return new ChatLogViewerResult(List.of(), 0, false, false);
     }
 
     ArrayList<ChatLogViewerRow> out = new ArrayList<>(Math.min(wanted, candidates.size()));
     for (LogRow row : candidates) {
-      if (row == null) continue;
-      LogLine line = row.line();
-      if (line == null) continue;
-
-      Meta meta = parseMeta(line.metaJson());
-      String fromNick = Objects.toString(line.fromNick(), "").trim();
-      String target = Objects.toString(line.target(), "").trim();
-      String text = Objects.toString(line.text(), "").trim();
-      if (!nickMatcher.matches(fromNick)) continue;
-      if (!messageMatcher.matches(text)) continue;
-      if (!hostmaskMatcher.matches(meta.hostmask())) continue;
-      if (!channelMatcher.matches(target)) continue;
-      if (!includeServerEvents && isServerEventLine(line)) continue;
-      if (!includeProtocolDetails && isProtocolDebugLine(line)) continue;
-
-      out.add(
-          new ChatLogViewerRow(
-              row.id(),
-              line.serverId(),
-              target,
-              line.tsEpochMs(),
-              line.direction(),
-              line.kind(),
-              fromNick,
-              meta.hostmask(),
-              line.text(),
-              meta.messageId(),
-              meta.tags(),
-              line.metaJson()));
+      ChatLogViewerRow match = filter.apply(row);
+      if (match == null) continue;
+      out.add(match);
       if (out.size() >= wanted) break;
     }
 
-    boolean reachedScanLimit = hasPostFilters && candidates.size() >= scanLimit;
+    boolean reachedScanLimit = filter.hasPostFilters() && candidates.size() >= scanLimit;
     boolean scanCapped = reachedScanLimit && scanLimit >= MAX_SCAN_LIMIT;
     boolean truncated = out.size() >= wanted || reachedScanLimit;
     return new ChatLogViewerResult(List.copyOf(out), candidates.size(), truncated, scanCapped);
   }
 
+  /**
+   * Scans keyset windows until the page is full or {@link #MAX_SCAN_LIMIT} rows were looked at. The
+   * returned cursor points at the last row scanned, not the last row matched, so a page cut short
+   * by the scan cap resumes exactly where it stopped.
+   */
+  @Override
+  public ChatLogViewerPage searchPage(ChatLogViewerQuery query, ChatLogViewerCursor after) {
+    if (query == null) return ChatLogViewerPage.empty();
+    String serverId = Objects.toString(query.serverId(), "").trim();
+    if (serverId.isEmpty()) return ChatLogViewerPage.empty();
+
+    int wanted = clampLimit(query.limit());
+    RowFilter filter = RowFilter.compile(query);
+    int window = filter.hasPostFilters() ? Math.max(wanted, SCAN_WINDOW) : wanted;
+    ArrayList<ChatLogViewerRow> out = new ArrayList<>(wanted);
+    ChatLogViewerCursor cursor = after;
+    int scanned = 0;
+    while (true) {
+      List<LogRow> rows =
+          searchHotThenArchive(serverId, query.fromEpochMs(), query.toEpochMs(), cursor, window);
+      if (rows == null || rows.isEmpty()) return new ChatLogViewerPage(out, null, scanned);
+      for (LogRow row : rows) {
+        scanned++;
+        if (row == null || row.line() == null) continue;
+        cursor = new ChatLogViewerCursor(row.line().tsEpochMs(), row.id());
+        ChatLogViewerRow match = filter.apply(row);
+        if (match == null) continue;
+        out.add(match);
+        if (out.size() >= wanted) return new ChatLogViewerPage(out, cursor, scanned);
+      }
+      if (rows.size() < window) return new ChatLogViewerPage(out, null, scanned);
+      if (scanned >= MAX_SCAN_LIMIT) return new ChatLogViewerPage(out, cursor, scanned);
+    }
+  }
+
+  /** Walks the whole range in bounded keyset windows; only one window is held at a time. */
+  @Override
+  public long stream(ChatLogViewerQuery query, Predicate<ChatLogViewerRow> sink) {
+    if (query == null || sink == null) return 0;
+    String serverId = Objects.toString(query.serverId(), "").trim();
+    if (serverId.isEmpty()) return 0;
+
+    RowFilter filter = RowFilter.compile(query);
+    ChatLogViewerCursor cursor = null;
+    long delivered = 0;
+    while (!Thread.currentThread().isInterrupted()) {
+      List<LogRow> rows =
+          searchHotThenArchive(
+              serverId, query.fromEpochMs(), query.toEpochMs(), cursor, SCAN_WINDOW);
+      if (rows == null || rows.isEmpty()) break;
+      ChatLogViewerCursor previous = cursor;
+      for (LogRow row : rows) {
+        if (row == null || row.line() == null) continue;
+        cursor = new ChatLogViewerCursor(row.line().tsEpochMs(), row.id());
+        ChatLogViewerRow match = filter.apply(row);
+        if (match == null) continue;
+        delivered++;
+        if (!sink.test(match)) return delivered;
+      }
+      if (rows.size() < SCAN_WINDOW || Objects.equals(previous, cursor)) break;
+    }
+    return delivered;
+  }
+
   @Override
   public List<String> listUniqueChannels(String serverId, int limit) {
     String sid = Objects.toString(serverId, "").trim();
@@ -174,6 +212,38 @@ public final class DbChatLogViewerService implements ChatLogViewerService {
     return List.copyOf(out);
   }
 
+  /**
+   * Searches the hot table and, when it cannot fill the scan window, tops up from the cold archive.
+   * The two stores never hold the same row, so merging is a plain newest-first sort. A non-null
+   * {@code before} cursor restricts both stores to rows strictly older than it.
+   */
+  private List<LogRow> searchHotThenArchive(
+      String serverId,
+      Long fromEpochMs,
+      Long toEpochMs,
+      ChatLogViewerCursor before,
+      int scanLimit) {
+    Long beforeTs = before == null ? null : before.tsEpochMs();
+    long beforeId = before == null ? 0L : before.id();
+    List<LogRow> hot =
+        before == null
+            ? repo.searchRows(serverId, fromEpochMs, toEpochMs, scanLimit)
+            : repo.searchRowsBefore(
+                serverId, fromEpochMs, toEpochMs, beforeTs, beforeId, scanLimit);
+    int have = hot == null ? 0 : hot.size();
+    if (!archive.enabled() || have >= scanLimit) return hot;
+
+    List<LogRow> cold =
+        archive.searchRowsBefore(
+            serverId, fromEpochMs, toEpochMs, beforeTs, beforeId, scanLimit - have);
+    if (cold.isEmpty()) return hot;
+    ArrayList<LogRow> merged = new ArrayList<>(have + cold.size());
+    if (hot != null) merged.addAll(hot);
+    merged.addAll(cold);
+    merged.sort(NEWEST_FIRST);
+    return merged;
+  }
+
   private static int clampLimit(int limit) {
     if (limit <= 0) return DEFAULT_LIMIT;
     return Math.min(limit, MAX_LIMIT);
@@ -368,6 +438,67 @@ public final class DbChatLogViewerService implements ChatLogViewerService {
     return from;
   }
 
+  /** Compiled post-filters and projection for one query. */
+  private record RowFilter(
+      TextMatcher nick,
+      TextMatcher message,
+      TextMatcher hostmask,
+      TextMatcher channel,
+      boolean includeServerEvents,
+      boolean includeProtocolDetails) {
+
+    static RowFilter compile(ChatLogViewerQuery query) {
+      return new RowFilter(
+          compileMatcher(query.nickPattern(), query.nickMode(), "nick"),
+          compileMatcher(query.messagePattern(), query.messageMode(), "message"),
+          compileMatcher(query.hostmaskPattern(), query.hostmaskMode(), "hostmask"),
+          compileMatcher(query.channelPattern(), query.channelMode(), "channel"),
+          query.includeServerEvents(),
+          query.includeProtocolDetails());
+    }
+
+    boolean hasPostFilters() {
+      return nick != MATCH_ALL
+          || message != MATCH_ALL
+          || hostmask != MATCH_ALL
+          || channel != MATCH_ALL
+          || !includeServerEvents
+          || !includeProtocolDetails;
+    }
+
+    /** The viewer row for {@code row}, or null when it does not pass the filters. */
+    ChatLogViewerRow apply(LogRow row) {
+      if (row == null) return null;
+      LogLine line = row.line();
+      if (line == null) return null;
+
+      Meta meta = parseMeta(line.metaJson());
+      String fromNick = Objects.toString(line.fromNick(), "").trim();
+      String target = Objects.toString(line.target(), "").trim();
+      String text = Objects.toString(line.text(), "").trim();
+      if (!nick.matches(fromNick)) return null;
+      if (!message.matches(text)) return null;
+      if (!hostmask.matches(meta.hostmask())) return null;
+      if (!channel.matches(target)) return null;
+      if (!includeServerEvents && isServerEventLine(line)) return null;
+      if (!includeProtocolDetails && isProtocolDebugLine(line)) return null;
+
+      return new ChatLogViewerRow(
+          row.id(),
+          line.serverId(),
+          target,
+          line.tsEpochMs(),
+          line.direction(),
+          line.kind(),
+          fromNick,
+          meta.hostmask(),
+          line.text(),
+          meta.messageId(),
+          meta.tags(),
+          line.metaJson());
+    }
+  }
+
   private interface TextMatcher {
     boolean matches(String value);
   }
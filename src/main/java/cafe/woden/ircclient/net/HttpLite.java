@@ -1,19 +1,17 @@
 package cafe.woden.ircclient.net;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URI;
-import java.net.URL;
-import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.zip.GZIPInputStream;
@@ -21,10 +19,15 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 /**
- * Very small HTTP helper for GET requests that works with SOCKS proxies.
+ * Very small HTTP/1.1 helper that works with SOCKS and HTTP proxies.
  *
- * <p>We intentionally use {@link HttpURLConnection} here (instead of {@code
- * java.net.http.HttpClient}) because the JDK HttpClient does not support SOCKS proxies.
+ * <p>We intentionally speak HTTP over our own sockets here (instead of {@code
+ * java.net.http.HttpClient}) because the JDK HttpClient does not support SOCKS proxies. Connections
+ * are kept alive and pooled per origin and proxy (see {@link HttpLiteConnectionPool}), so repeated
+ * calls to the same homeserver or preview host skip the TCP and TLS handshakes.
+ *
+ * <p>HTTP proxies that require authentication are answered with {@code Basic} credentials from the
+ * default {@link java.net.Authenticator}; other proxy authentication schemes are not supported.
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class HttpLite {
@@ -70,6 +73,14 @@ public final class HttpLite {
 
   public record Response<T>(int statusCode, Headers headers, T body) {}
 
+  /** Connection pool counters: sockets opened, requests served on a kept-alive socket, idle now. */
+  public record PoolStats(long connectionsOpened, long connectionsReused, int idleConnections) {}
+
+  /** Returns the shared connection pool's reuse counters. */
+  public static PoolStats poolStats() {
+    return HttpLiteConnectionPool.SHARED.stats();
+  }
+
   public static Response<InputStream> getStream(
       URI uri,
       Map<String, String> requestHeaders,
@@ -81,6 +92,10 @@ public final class HttpLite {
         uri, requestHeaders, proxy, connectTimeoutMs, readTimeoutMs, DEFAULT_MAX_REDIRECTS);
   }
 
+  /**
+   * GET with redirects followed. The body streams straight off the socket; closing it (or reading
+   * it to the end) hands the connection back to the pool.
+   */
   public static Response<InputStream> getStream(
       URI uri,
       Map<String, String> requestHeaders,
@@ -91,41 +106,22 @@ public final class HttpLite {
       throws IOException {
     URI current = uri;
     for (int i = 0; i <= maxRedirects; i++) {
-      HttpURLConnection conn = open(current, proxy, connectTimeoutMs, readTimeoutMs);
-      conn.setInstanceFollowRedirects(false);
-      conn.setRequestMethod("GET");
-
-      if (requestHeaders != null) {
-        for (Map.Entry<String, String> e : requestHeaders.entrySet()) {
-          if (e.getKey() != null && e.getValue() != null) {
-            conn.setRequestProperty(e.getKey(), e.getValue());
-          }
-        }
-      }
-
-      int code = conn.getResponseCode();
+      Response<InputStream> r =
+          exchange(
+              "GET", current, requestHeaders, null, null, proxy, connectTimeoutMs, readTimeoutMs);
+      int code = r.statusCode();
 
       if (isRedirect(code)) {
-        String loc = conn.getHeaderField("Location");
-        // Ensure we don't leak the connection.
-        closeQuietly(conn);
+        String loc = r.headers().firstValue("Location").orElse(null);
+        // Finish the redirect body so the connection can be reused.
+        r.body().close();
         if (loc == null || loc.isBlank()) {
-          return new Response<>(
-              code, new Headers(conn.getHeaderFields()), InputStream.nullInputStream());
+          return new Response<>(code, r.headers(), InputStream.nullInputStream());
         }
         current = current.resolve(loc);
         continue;
       }
-
-      InputStream body = (code >= 400) ? conn.getErrorStream() : conn.getInputStream();
-      if (body == null) body = InputStream.nullInputStream();
-
-      String encoding = conn.getHeaderField("Content-Encoding");
-      if (encoding != null && encoding.toLowerCase(Locale.ROOT).contains("gzip")) {
-        body = new GZIPInputStream(body);
-      }
-
-      return new Response<>(code, new Headers(conn.getHeaderFields()), body);
+      return r;
     }
 
     throw new IOException("Too many redirects for " + uri);
@@ -138,14 +134,7 @@ public final class HttpLite {
       int connectTimeoutMs,
       int readTimeoutMs)
       throws IOException {
-    Response<InputStream> r =
-        getStream(uri, requestHeaders, proxy, connectTimeoutMs, readTimeoutMs);
-    byte[] bytes;
-    try (InputStream in = r.body()) {
-      bytes = in.readAllBytes();
-    }
-    Charset charset = charsetFromContentType(r.headers().firstValue("Content-Type").orElse(null));
-    return new Response<>(r.statusCode(), r.headers(), new String(bytes, charset));
+    return readString(getStream(uri, requestHeaders, proxy, connectTimeoutMs, readTimeoutMs));
   }
 
   public static Response<String> postString(
@@ -156,45 +145,17 @@ public final class HttpLite {
       int connectTimeoutMs,
       int readTimeoutMs)
       throws IOException {
-    HttpURLConnection conn = open(uri, proxy, connectTimeoutMs, readTimeoutMs);
-    conn.setInstanceFollowRedirects(false);
-    conn.setRequestMethod("POST");
-    conn.setDoOutput(true);
-
-    if (requestHeaders != null) {
-      for (Map.Entry<String, String> e : requestHeaders.entrySet()) {
-        if (e.getKey() != null && e.getValue() != null) {
-          conn.setRequestProperty(e.getKey(), e.getValue());
-        }
-      }
-    }
-
     byte[] payload = Objects.toString(requestBody, "").getBytes(StandardCharsets.UTF_8);
-    if (conn.getRequestProperty("Content-Type") == null) {
-      conn.setRequestProperty("Content-Type", "text/plain; charset=UTF-8");
-    }
-    conn.setRequestProperty("Content-Length", Integer.toString(payload.length));
-
-    try (OutputStream out = conn.getOutputStream()) {
-      out.write(payload);
-    }
-
-    int code = conn.getResponseCode();
-    InputStream body = (code >= 400) ? conn.getErrorStream() : conn.getInputStream();
-    if (body == null) body = InputStream.nullInputStream();
-
-    String encoding = conn.getHeaderField("Content-Encoding");
-    if (encoding != null && encoding.toLowerCase(Locale.ROOT).contains("gzip")) {
-      body = new GZIPInputStream(body);
-    }
-
-    byte[] bytes;
-    try (InputStream in = body) {
-      bytes = in.readAllBytes();
-    }
-    Headers headers = new Headers(conn.getHeaderFields());
-    Charset charset = charsetFromContentType(headers.firstValue("Content-Type").orElse(null));
-    return new Response<>(code, headers, new String(bytes, charset));
+    return readString(
+        exchange(
+            "POST",
+            uri,
+            requestHeaders,
+            payload,
+            "text/plain; charset=UTF-8",
+            proxy,
+            connectTimeoutMs,
+            readTimeoutMs));
   }
 
   public static Response<String> postBytes(
@@ -205,94 +166,134 @@ public final class HttpLite {
       int connectTimeoutMs,
       int readTimeoutMs)
       throws IOException {
-    HttpURLConnection conn = open(uri, proxy, connectTimeoutMs, readTimeoutMs);
-    conn.setInstanceFollowRedirects(false);
-    conn.setRequestMethod("POST");
-    conn.setDoOutput(true);
-
-    if (requestHeaders != null) {
-      for (Map.Entry<String, String> e : requestHeaders.entrySet()) {
-        if (e.getKey() != null && e.getValue() != null) {
-          conn.setRequestProperty(e.getKey(), e.getValue());
-        }
-      }
-    }
-
     byte[] payload = requestBody == null ? new byte[0] : requestBody;
-    if (conn.getRequestProperty("Content-Type") == null) {
-      conn.setRequestProperty("Content-Type", "application/octet-stream");
-    }
-    conn.setRequestProperty("Content-Length", Integer.toString(payload.length));
-
-    try (OutputStream out = conn.getOutputStream()) {
-      out.write(payload);
-    }
-
-    int code = conn.getResponseCode();
-    InputStream body = (code >= 400) ? conn.getErrorStream() : conn.getInputStream();
-    if (body == null) body = InputStream.nullInputStream();
+    return readString(
+        exchange(
+            "POST",
+            uri,
+            requestHeaders,
+            payload,
+            "application/octet-stream",
+            proxy,
+            connectTimeoutMs,
+            readTimeoutMs));
+  }
 
-    String encoding = conn.getHeaderField("Content-Encoding");
-    if (encoding != null && encoding.toLowerCase(Locale.ROOT).contains("gzip")) {
-      body = new GZIPInputStream(body);
-    }
+  public static Response<String> putString(
+      URI uri,
+      Map<String, String> requestHeaders,
+      String requestBody,
+      Proxy proxy,
+      int connectTimeoutMs,
+      int readTimeoutMs)
+      throws IOException {
+    byte[] payload = Objects.toString(requestBody, "").getBytes(StandardCharsets.UTF_8);
+    return readString(
+        exchange(
+            "PUT",
+            uri,
+            requestHeaders,
+            payload,
+            "text/plain; charset=UTF-8",
+            proxy,
+            connectTimeoutMs,
+            readTimeoutMs));
+  }
 
+  private static Response<String> readString(Response<InputStream> r) throws IOException {
     byte[] bytes;
-    try (InputStream in = body) {
+    try (InputStream in = r.body()) {
       bytes = in.readAllBytes();
     }
-    Headers headers = new Headers(conn.getHeaderFields());
-    Charset charset = charsetFromContentType(headers.firstValue("Content-Type").orElse(null));
-    return new Response<>(code, headers, new String(bytes, charset));
+    Charset charset = charsetFromContentType(r.headers().firstValue("Content-Type").orElse(null));
+    return new Response<>(r.statusCode(), r.headers(), new String(bytes, charset));
   }
 
-  public static Response<String> putString(
+  /**
+   * Sends one request on a pooled connection. A kept-alive socket the server has meanwhile closed
+   * fails before any response arrives; that case is retried once on a fresh connection. A {@code
+   * 407} from an HTTP proxy is retried once with Basic credentials when the default authenticator
+   * supplies some.
+   */
+  private static Response<InputStream> exchange(
+      String method,
       URI uri,
       Map<String, String> requestHeaders,
-      String requestBody,
+      byte[] payload,
+      String defaultContentType,
       Proxy proxy,
       int connectTimeoutMs,
       int readTimeoutMs)
       throws IOException {
-    HttpURLConnection conn = open(uri, proxy, connectTimeoutMs, readTimeoutMs);
-    conn.setInstanceFollowRedirects(false);
-    conn.setRequestMethod("PUT");
-    conn.setDoOutput(true);
-
-    if (requestHeaders != null) {
-      for (Map.Entry<String, String> e : requestHeaders.entrySet()) {
-        if (e.getKey() != null && e.getValue() != null) {
-          conn.setRequestProperty(e.getKey(), e.getValue());
+    HttpLiteConnectionPool pool = HttpLiteConnectionPool.SHARED;
+    HttpLiteConnectionPool.Route route = HttpLiteConnectionPool.route(uri, proxy);
+    boolean fresh = false;
+    boolean proxyAuthTried = false;
+    while (true) {
+      // CONNECT tunnels authenticate in the pool; plain requests carry the proxy header themselves.
+      String proxyAuth = route.https() ? null : HttpLiteConnectionPool.proxyAuthorization(route);
+      Map<String, String> headers = requestHeaders;
+      if (proxyAuth != null) {
+        headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (requestHeaders != null) headers.putAll(requestHeaders);
+        headers.put("Proxy-Authorization", proxyAuth);
+      }
+      HttpLiteConnectionPool.Connection conn =
+          pool.acquire(route, connectTimeoutMs, readTimeoutMs, fresh);
+      try {
+        HttpLiteWire.writeRequest(conn, method, uri, headers, payload, defaultContentType);
+      } catch (IOException e) {
+        pool.discard(conn);
+        if (conn.reused && !fresh) {
+          fresh = true;
+          continue;
         }
+        throw e;
+      } catch (RuntimeException e) {
+        pool.discard(conn);
+        throw e;
+      }
+      HttpLiteWire.ResponseHead head;
+      try {
+        head = HttpLiteWire.readResponseHead(conn.in);
+      } catch (HttpLiteWire.NoResponseException e) {
+        pool.discard(conn);
+        if (conn.reused && !fresh) {
+          fresh = true;
+          continue;
+        }
+        throw e;
+      } catch (IOException | RuntimeException e) {
+        pool.discard(conn);
+        throw e;
       }
-    }
-
-    byte[] payload = Objects.toString(requestBody, "").getBytes(StandardCharsets.UTF_8);
-    if (conn.getRequestProperty("Content-Type") == null) {
-      conn.setRequestProperty("Content-Type", "text/plain; charset=UTF-8");
-    }
-    conn.setRequestProperty("Content-Length", Integer.toString(payload.length));
-
-    try (OutputStream out = conn.getOutputStream()) {
-      out.write(payload);
-    }
-
-    int code = conn.getResponseCode();
-    InputStream body = (code >= 400) ? conn.getErrorStream() : conn.getInputStream();
-    if (body == null) body = InputStream.nullInputStream();
-
-    String encoding = conn.getHeaderField("Content-Encoding");
-    if (encoding != null && encoding.toLowerCase(Locale.ROOT).contains("gzip")) {
-      body = new GZIPInputStream(body);
-    }
 
-    byte[] bytes;
-    try (InputStream in = body) {
-      bytes = in.readAllBytes();
+      InputStream body = HttpLiteWire.body(pool, conn, method, head);
+      if (head.statusCode() == 407
+          && !route.https()
+          && !proxyAuthTried
+          && HttpLiteConnectionPool.answerProxyChallenge(route, head.headers(), uri, proxyAuth)) {
+        proxyAuthTried = true;
+        body.close();
+        continue;
+      }
+      String encoding = head.headers().firstValue("Content-Encoding").orElse(null);
+      if (encoding != null
+          && encoding.toLowerCase(Locale.ROOT).contains("gzip")
+          && !HttpLiteWire.isBodyless(method, head)) {
+        InputStream raw = body;
+        try {
+          body = new GZIPInputStream(raw);
+        } catch (EOFException emptyBody) {
+          raw.close();
+          body = InputStream.nullInputStream();
+        } catch (IOException e) {
+          raw.close();
+          throw e;
+        }
+      }
+      return new Response<>(head.statusCode(), head.headers(), body);
     }
-    Headers headers = new Headers(conn.getHeaderFields());
-    Charset charset = charsetFromContentType(headers.firstValue("Content-Type").orElse(null));
-    return new Response<>(code, headers, new String(bytes, charset));
   }
 
   private static Charset charsetFromContentType(String contentType) {
@@ -315,41 +316,4 @@ public final class HttpLite {
   private static boolean isRedirect(int code) {
     return code == 301 || code == 302 || code == 303 || code == 307 || code == 308;
   }
-
-  private static HttpURLConnection open(
-      URI uri, Proxy proxy, int connectTimeoutMs, int readTimeoutMs) throws IOException {
-    URL url = uri.toURL();
-    URLConnection uc =
-        (proxy == null || proxy == Proxy.NO_PROXY)
-            ? url.openConnection()
-            : url.openConnection(proxy);
-    // If the user has enabled \"trust all certificates\", apply the relaxed TLS settings
-    // for HTTPS connections (used by link previews, image embeds, etc).
-    if (NetTlsContext.trustAllCertificates()
-        && uc instanceof javax.net.ssl.HttpsURLConnection https) {
-      https.setSSLSocketFactory(NetTlsContext.sslSocketFactory());
-      https.setHostnameVerifier(NetTlsContext.hostnameVerifier());
-    }
-    if (!(uc instanceof HttpURLConnection conn)) {
-      throw new IOException("Not an HTTP URL: " + uri);
-    }
-    conn.setConnectTimeout(connectTimeoutMs);
-    conn.setReadTimeout(readTimeoutMs);
-    return conn;
-  }
-
-  private static void closeQuietly(HttpURLConnection conn) {
-    try {
-      InputStream in = conn.getInputStream();
-      if (in != null) in.close();
-    } catch (IOException ignored) {
-      try {
-        InputStream in = conn.getErrorStream();
-        if (in != null) in.close();
-      } catch (IOException ignored2) {
-        // ignore
-      }
-    }
-    conn.disconnect();
-  }
 }
@@ -0,0 +1,447 @@
+package cafe.woden.ircclient.net;
+
+import cafe.woden.ircclient.config.IrcProperties;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.PasswordAuthentication;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+
+/**
+ * Keep-alive HTTP/1.1 connections for {@link HttpLite}, pooled per route (origin + proxy + TLS
+ * trust mode).
+ *
+ * <p>Sockets are opened through {@link SocksProxySocketFactory} / {@link SslOverSocksSocketFactory}
+ * so proxied traffic follows the same SOCKS path as IRC connections. HTTP proxies (e.g. from the
+ * system {@link ProxySelector}) are spoken to directly: {@code https} routes are tunnelled with
+ * {@code CONNECT}, plain {@code http} requests are sent to the proxy in absolute form. Idle
+ * connections are reused most-recently-released first and closed once they exceed the server's
+ * keep-alive window.
+ *
+ * <p>An HTTP proxy answering {@code 407} with a {@code Basic} challenge gets credentials from the
+ * default {@link Authenticator} (requestor type {@code PROXY}); the resulting {@code
+ * Proxy-Authorization} is remembered per proxy and sent preemptively afterwards. Other schemes
+ * (Digest, NTLM, Negotiate) are not supported: CONNECT fails and plain requests return the 407.
+ */
+final class HttpLiteConnectionPool {
+
+  static final int DEFAULT_MAX_IDLE_PER_ROUTE = 4;
+  static final long DEFAULT_KEEP_ALIVE_MS = 30_000L;
+
+  static final HttpLiteConnectionPool SHARED =
+      new HttpLiteConnectionPool(DEFAULT_MAX_IDLE_PER_ROUTE, DEFAULT_KEEP_ALIVE_MS);
+
+  /** {@code Proxy-Authorization} values that HTTP proxies accepted, by proxy address. */
+  private static final Map<InetSocketAddress, String> PROXY_AUTHORIZATION =
+      new ConcurrentHashMap<>();
+
+  /** Connection identity: requests may share a socket only when all of these match. */
+  record Route(String scheme, String host, int port, Proxy proxy, boolean trustAll) {
+    boolean https() {
+      return "https".equals(scheme);
+    }
+
+    /** {@code Host} header value (port omitted when it is the scheme default). */
+    String authority() {
+      String h = host.indexOf(':') >= 0 ? "[" + host + "]" : host;
+      int defaultPort = https() ? 443 : 80;
+      return port == defaultPort ? h : h + ":" + port;
+    }
+
+    /** True when the socket goes to an HTTP proxy rather than the origin (or a SOCKS relay). */
+    boolean viaHttpProxy() {
+      return proxy.type() == Proxy.Type.HTTP;
+    }
+  }
+
+  /** A socket plus its buffered streams; owned by one exchange at a time. */
+  static final class Connection {
+    final Route route;
+    final Socket socket;
+    final InputStream in;
+    final OutputStream out;
+    final boolean reused;
+    private long expiresAtNanos;
+
+    private Connection(Route route, Socket socket, boolean reused) throws IOException {
+      this.route = route;
+      this.socket = socket;
+      this.in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+      this.out = new BufferedOutputStream(socket.getOutputStream(), 8 * 1024);
+      this.reused = reused;
+    }
+
+    private Connection(Connection idle) {
+      this.route = idle.route;
+      this.socket = idle.socket;
+      this.in = idle.in;
+      this.out = idle.out;
+      this.reused = true;
+    }
+  }
+
+  private final int maxIdlePerRoute;
+  private final long defaultKeepAliveMs;
+  private final Map<Route, ArrayDeque<Connection>> idleByRoute = new ConcurrentHashMap<>();
+  private final LongAdder opened = new LongAdder();
+  private final LongAdder reusedCount = new LongAdder();
+
+  HttpLiteConnectionPool(int maxIdlePerRoute, long defaultKeepAliveMs) {
+    this.maxIdlePerRoute = Math.max(0, maxIdlePerRoute);
+    this.defaultKeepAliveMs = Math.max(0L, defaultKeepAliveMs);
+  }
+
+  static Route route(URI uri, Proxy proxy) throws IOException {
+    String scheme = Objects.toString(uri.getScheme(), "").toLowerCase(Locale.ROOT);
+    if (!scheme.equals("http") && !scheme.equals("https")) {
+      throw new IOException("Not an HTTP URL: " + uri);
+    }
+    String host = Objects.toString(uri.getHost(), "").trim();
+    if (host.isEmpty()) throw new IOException("Missing host in URL: " + uri);
+    if (host.startsWith("[") && host.endsWith("]")) host = host.substring(1, host.length() - 1);
+    int port = uri.getPort() > 0 ? uri.getPort() : (scheme.equals("https") ? 443 : 80);
+    boolean trustAll = scheme.equals("https") && NetTlsContext.trustAllCertificates();
+    return new Route(
+        scheme, host.toLowerCase(Locale.ROOT), port, effectiveProxy(uri, proxy), trustAll);
+  }
+
+  /**
+   * Returns a connection for {@code route}: an idle pooled one when available (unless {@code
+   * fresh}), otherwise a newly opened one.
+   */
+  Connection acquire(Route route, int connectTimeoutMs, int readTimeoutMs, boolean fresh)
+      throws IOException {
+    if (!fresh) {
+      Connection idle = pollIdle(route);
+      if (idle != null) {
+        idle.socket.setSoTimeout(Math.max(0, readTimeoutMs));
+        reusedCount.increment();
+        return new Connection(idle);
+      }
+    }
+    Socket socket = open(route, connectTimeoutMs, readTimeoutMs);
+    opened.increment();
+    try {
+      return new Connection(route, socket, false);
+    } catch (IOException e) {
+      closeQuietly(socket);
+      throw e;
+    }
+  }
+
+  /** Returns a connection whose response was fully read, keeping it for up to keepAliveMs. */
+  void release(Connection conn, long keepAliveMs) {
+    long ttlMs = keepAliveMs >= 0 ? Math.min(keepAliveMs, defaultKeepAliveMs) : defaultKeepAliveMs;
+    if (ttlMs <= 0 || maxIdlePerRoute == 0 || conn.socket.isClosed()) {
+      discard(conn);
+      return;
+    }
+    conn.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    ArrayDeque<Connection> idle =
+        idleByRoute.computeIfAbsent(conn.route, r -> new ArrayDeque<>());
+    Connection evicted = null;
+    synchronized (idle) {
+      idle.addFirst(conn);
+      if (idle.size() > maxIdlePerRoute) evicted = idle.pollLast();
+    }
+    if (evicted != null) discard(evicted);
+  }
+
+  void discard(Connection conn) {
+    closeQuietly(conn.socket);
+  }
+
+  HttpLite.PoolStats stats() {
+    int idleCount = 0;
+    long now = System.nanoTime();
+    for (ArrayDeque<Connection> idle : idleByRoute.values()) {
+      synchronized (idle) {
+        for (Connection c : idle) {
+          if (c.expiresAtNanos - now > 0) idleCount++;
+        }
+      }
+    }
+    return new HttpLite.PoolStats(opened.sum(), reusedCount.sum(), idleCount);
+  }
+
+  /** The {@code Proxy-Authorization} value to send through {@code route}'s HTTP proxy, or null. */
+  static String proxyAuthorization(Route route) {
+    if (!route.viaHttpProxy() || !(route.proxy().address() instanceof InetSocketAddress addr)) {
+      return null;
+    }
+    return PROXY_AUTHORIZATION.get(addr);
+  }
+
+  /**
+   * Answers a {@code 407} from {@code route}'s HTTP proxy by asking the default {@link
+   * Authenticator} for Basic credentials.
+   *
+   * @param rejected the {@code Proxy-Authorization} the proxy just refused, or null
+   * @return true when there are new credentials to retry with
+   */
+  static boolean answerProxyChallenge(
+      Route route, HttpLite.Headers headers, URI uri, String rejected) {
+    if (!route.viaHttpProxy() || !(route.proxy().address() instanceof InetSocketAddress addr)) {
+      return false;
+    }
+    if (rejected != null) PROXY_AUTHORIZATION.remove(addr, rejected);
+    String realm = basicRealm(headers);
+    if (realm == null) return false;
+    PasswordAuthentication auth =
+        Authenticator.requestPasswordAuthentication(
+            addr.getHostString(),
+            addr.isUnresolved() ? null : addr.getAddress(),
+            addr.getPort(),
+            "http",
+            realm,
+            "Basic",
+            toUrlOrNull(uri),
+            Authenticator.RequestorType.PROXY);
+    if (auth == null) return false;
+    String credentials = auth.getUserName() + ":" + new String(auth.getPassword());
+    String value =
+        "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    if (value.equals(rejected)) return false;
+    PROXY_AUTHORIZATION.put(addr, value);
+    return true;
+  }
+
+  private static URL toUrlOrNull(URI uri) {
+    try {
+      return uri.toURL();
+    } catch (MalformedURLException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /** Realm of the first {@code Basic} proxy challenge ({@code ""} without one), or null. */
+  private static String basicRealm(HttpLite.Headers headers) {
+    for (Map.Entry<String, List<String>> e : headers.raw().entrySet()) {
+      if (e.getKey() == null || !e.getKey().equalsIgnoreCase("Proxy-Authenticate")) continue;
+      for (String challenge : e.getValue()) {
+        String c = Objects.toString(challenge, "").trim();
+        if (!c.regionMatches(true, 0, "Basic", 0, 5)) continue;
+        if (c.length() > 5 && c.charAt(5) != ' ') continue;
+        int at = c.toLowerCase(Locale.ROOT).indexOf("realm=");
+        if (at < 0) return "";
+        String realm = c.substring(at + "realm=".length()).trim();
+        if (realm.startsWith("\"")) {
+          int end = realm.indexOf('"', 1);
+          return end > 0 ? realm.substring(1, end) : realm.substring(1);
+        }
+        int comma = realm.indexOf(',');
+        return comma >= 0 ? realm.substring(0, comma).trim() : realm;
+      }
+    }
+    return null;
+  }
+
+  private Connection pollIdle(Route route) {
+    ArrayDeque<Connection> idle = idleByRoute.get(route);
+    if (idle == null) return null;
+    long now = System.nanoTime();
+    Connection found = null;
+    List<Connection> expired = new ArrayList<>();
+    synchronized (idle) {
+      for (Iterator<Connection> it = idle.iterator(); it.hasNext(); ) {
+        Connection c = it.next();
+        if (found == null && c.expiresAtNanos - now > 0 && isUsable(c.socket)) {
+          it.remove();
+          found = c;
+        } else if (c.expiresAtNanos - now <= 0 || c.socket.isClosed()) {
+          it.remove();
+          expired.add(c);
+        }
+      }
+    }
+    expired.forEach(this::discard);
+    return found;
+  }
+
+  private static boolean isUsable(Socket socket) {
+    return !socket.isClosed()
+        && socket.isConnected()
+        && !socket.isInputShutdown()
+        && !socket.isOutputShutdown();
+  }
+
+  private static Socket open(Route route, int connectTimeoutMs, int readTimeoutMs)
+      throws IOException {
+    if (route.viaHttpProxy()) return openViaHttpProxy(route, connectTimeoutMs, readTimeoutMs);
+    IrcProperties.Proxy cfg = socksConfig(route.proxy(), connectTimeoutMs, readTimeoutMs);
+    if (route.https()) {
+      Socket socket =
+          new SslOverSocksSocketFactory(cfg, NetTlsContext.sslSocketFactory())
+              .createSocket(route.host(), route.port());
+      return handshake(route, socket);
+    }
+    if (cfg.enabled()) {
+      return new SocksProxySocketFactory(cfg).createSocket(route.host(), route.port());
+    }
+    return connectPlain(
+        new InetSocketAddress(route.host(), route.port()), connectTimeoutMs, readTimeoutMs);
+  }
+
+  private static Socket openViaHttpProxy(Route route, int connectTimeoutMs, int readTimeoutMs)
+      throws IOException {
+    if (!(route.proxy().address() instanceof InetSocketAddress addr)) {
+      throw new IOException("HTTP proxy without a socket address: " + route.proxy());
+    }
+    // Selector-supplied addresses are often unresolved; connect() needs a resolved one.
+    InetSocketAddress target =
+        addr.isUnresolved() ? new InetSocketAddress(addr.getHostString(), addr.getPort()) : addr;
+    Socket socket = connectPlain(target, connectTimeoutMs, readTimeoutMs);
+    if (!route.https()) return socket;
+    try {
+      String sent = proxyAuthorization(route);
+      HttpLiteWire.ResponseHead head = tunnel(socket, route, sent);
+      if (head.statusCode() == 407
+          && answerProxyChallenge(route, head.headers(), tunnelUri(route), sent)) {
+        // The 407 may carry a body or close the connection; a new socket is simpler than both.
+        closeQuietly(socket);
+        socket = connectPlain(target, connectTimeoutMs, readTimeoutMs);
+        head = tunnel(socket, route, proxyAuthorization(route));
+      }
+      if (head.statusCode() < 200 || head.statusCode() >= 300) {
+        throw new IOException(
+            "HTTP proxy refused CONNECT to "
+                + route.authority()
+                + ": "
+                + head.statusCode()
+                + (head.statusCode() == 407 ? " (proxy authentication required)" : ""));
+      }
+    } catch (IOException e) {
+      closeQuietly(socket);
+      throw e;
+    }
+    Socket tls;
+    try {
+      tls = NetTlsContext.sslSocketFactory().createSocket(socket, route.host(), route.port(), true);
+    } catch (IOException e) {
+      closeQuietly(socket);
+      throw e;
+    }
+    return handshake(route, tls);
+  }
+
+  /** Asks the HTTP proxy for a raw TCP tunnel to the origin ({@code CONNECT host:port}). */
+  private static HttpLiteWire.ResponseHead tunnel(
+      Socket socket, Route route, String proxyAuthorization) throws IOException {
+    String hostPort =
+        (route.host().indexOf(':') >= 0 ? "[" + route.host() + "]" : route.host())
+            + ":"
+            + route.port();
+    StringBuilder request = new StringBuilder("CONNECT ").append(hostPort);
+    request.append(" HTTP/1.1\r\nHost: ").append(hostPort);
+    if (proxyAuthorization != null) {
+      request.append("\r\nProxy-Authorization: ").append(proxyAuthorization);
+    }
+    request.append("\r\n\r\n");
+    OutputStream out = socket.getOutputStream();
+    out.write(request.toString().getBytes(StandardCharsets.ISO_8859_1));
+    out.flush();
+    // Unbuffered on purpose: the TLS handshake must start right after the proxy's response head.
+    return HttpLiteWire.readResponseHead(socket.getInputStream());
+  }
+
+  private static URI tunnelUri(Route route) {
+    return URI.create("https://" + route.authority() + "/");
+  }
+
+  private static Socket handshake(Route route, Socket socket) throws IOException {
+    if (!(socket instanceof SSLSocket ssl)) {
+      closeQuietly(socket);
+      throw new IOException("TLS socket factory returned a plain socket");
+    }
+    try {
+      if (!route.trustAll()) {
+        // HttpsURLConnection verified hostnames for us; a raw SSLSocket only does if asked.
+        SSLParameters params = ssl.getSSLParameters();
+        params.setEndpointIdentificationAlgorithm("HTTPS");
+        ssl.setSSLParameters(params);
+      }
+      ssl.startHandshake();
+    } catch (IOException e) {
+      closeQuietly(ssl);
+      throw e;
+    }
+    return ssl;
+  }
+
+  private static Socket connectPlain(
+      InetSocketAddress address, int connectTimeoutMs, int readTimeoutMs) throws IOException {
+    Socket socket = new Socket();
+    try {
+      socket.connect(address, Math.max(0, connectTimeoutMs));
+      socket.setSoTimeout(Math.max(0, readTimeoutMs));
+    } catch (IOException e) {
+      closeQuietly(socket);
+      throw e;
+    }
+    return socket;
+  }
+
+  /**
+   * Proxy settings for the socket factories. Credentials were already registered by {@link
+   * ProxyPlan}; hostnames are resolved locally, as {@code HttpURLConnection} did.
+   */
+  private static IrcProperties.Proxy socksConfig(
+      Proxy proxy, int connectTimeoutMs, int readTimeoutMs) {
+    if (proxy != null
+        && proxy.type() == Proxy.Type.SOCKS
+        && proxy.address() instanceof InetSocketAddress addr) {
+      return new IrcProperties.Proxy(
+          true,
+          addr.getHostString(),
+          addr.getPort(),
+          "",
+          "",
+          false,
+          connectTimeoutMs,
+          readTimeoutMs);
+    }
+    return new IrcProperties.Proxy(false, "", 0, "", "", false, connectTimeoutMs, readTimeoutMs);
+  }
+
+  private static Proxy effectiveProxy(URI uri, Proxy proxy) throws IOException {
+    Proxy p = proxy;
+    if (p == null) {
+      // Same default HttpURLConnection used when no proxy was given.
+      ProxySelector selector = ProxySelector.getDefault();
+      List<Proxy> selected = selector == null ? List.of() : selector.select(uri);
+      p = (selected == null || selected.isEmpty()) ? Proxy.NO_PROXY : selected.getFirst();
+    }
+    if (p == null || p.type() == Proxy.Type.DIRECT) return Proxy.NO_PROXY;
+    return p;
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException ignored) {
+    }
+  }
+}
@@ -0,0 +1,423 @@
+package cafe.woden.ircclient.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * HTTP/1.1 framing for {@link HttpLite}: request serialization, response head parsing and body
+ * streams (fixed-length, chunked, read-to-close) that hand their connection back to the pool once
+ * the message has been consumed.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class HttpLiteWire {
+
+  private static final int MAX_LINE_BYTES = 64 * 1024;
+  private static final int MAX_HEADER_LINES = 256;
+
+  /** Bytes we are willing to read on close() to finish a message so its socket can be reused. */
+  private static final long DRAIN_LIMIT_BYTES = 64 * 1024;
+
+  private static final int DRAIN_TIMEOUT_MS = 100;
+
+  private static final String DEFAULT_USER_AGENT = "Java/" + System.getProperty("java.version");
+
+  /** The connection ended before a single byte of the response arrived. */
+  static final class NoResponseException extends IOException {
+    NoResponseException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+
+  record ResponseHead(
+      int statusCode,
+      HttpLite.Headers headers,
+      boolean keepAlive,
+      long keepAliveMs,
+      long contentLength,
+      boolean chunked) {}
+
+  static void writeRequest(
+      HttpLiteConnectionPool.Connection conn,
+      String method,
+      URI uri,
+      Map<String, String> requestHeaders,
+      byte[] payload,
+      String defaultContentType)
+      throws IOException {
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    if (requestHeaders != null) {
+      for (Map.Entry<String, String> e : requestHeaders.entrySet()) {
+        if (e.getKey() != null && e.getValue() != null) {
+          headers.put(checkHeader(e.getKey()), checkHeader(e.getValue()));
+        }
+      }
+    }
+    // Framing and connection management are ours to decide.
+    headers.remove("Content-Length");
+    headers.remove("Transfer-Encoding");
+    headers.remove("Connection");
+
+    StringBuilder sb = new StringBuilder(256);
+    sb.append(method).append(' ').append(requestTarget(conn.route, uri)).append(" HTTP/1.1\r\n");
+    appendHeader(sb, "Host", headers.getOrDefault("Host", conn.route.authority()));
+    headers.remove("Host");
+    for (Map.Entry<String, String> e : headers.entrySet()) {
+      appendHeader(sb, e.getKey(), e.getValue());
+    }
+    if (!headers.containsKey("User-Agent")) appendHeader(sb, "User-Agent", DEFAULT_USER_AGENT);
+    if (!headers.containsKey("Accept")) appendHeader(sb, "Accept", "*/*");
+    appendHeader(sb, "Connection", "keep-alive");
+    if (payload != null) {
+      if (!headers.containsKey("Content-Type") && defaultContentType != null) {
+        appendHeader(sb, "Content-Type", defaultContentType);
+      }
+      appendHeader(sb, "Content-Length", Integer.toString(payload.length));
+    }
+    sb.append("\r\n");
+
+    OutputStream out = conn.out;
+    out.write(sb.toString().getBytes(StandardCharsets.ISO_8859_1));
+    if (payload != null) out.write(payload);
+    out.flush();
+  }
+
+  static ResponseHead readResponseHead(InputStream in) throws IOException {
+    while (true) {
+      String statusLine = readStatusLine(in);
+      int code = parseStatusCode(statusLine);
+      Map<String, List<String>> raw = readHeaderFields(in);
+      if (code >= 100 && code < 200 && code != 101) {
+        // Interim response (100 Continue, 103 Early Hints); the real one follows.
+        continue;
+      }
+
+      HttpLite.Headers headers = new HttpLite.Headers(Collections.unmodifiableMap(raw));
+      String connection =
+          headers.firstValue("Connection").orElse("").toLowerCase(Locale.ROOT).trim();
+      boolean http11 = statusLine.startsWith("HTTP/1.1");
+      boolean keepAlive =
+          http11 ? !connection.contains("close") : connection.contains("keep-alive");
+      boolean chunked =
+          headers
+              .firstValue("Transfer-Encoding")
+              .orElse("")
+              .toLowerCase(Locale.ROOT)
+              .contains("chunked");
+      long contentLength = chunked ? -1L : headers.firstValueAsLong("Content-Length").orElse(-1L);
+      return new ResponseHead(
+          code, headers, keepAlive, keepAliveTimeoutMs(headers), contentLength, chunked);
+    }
+  }
+
+  static boolean isBodyless(String method, ResponseHead head) {
+    int code = head.statusCode();
+    return "HEAD".equals(method) || (code >= 100 && code < 200) || code == 204 || code == 304;
+  }
+
+  /**
+   * Body stream for {@code head}. Messages without a body release the connection right away;
+   * otherwise the connection goes back to the pool when the stream reaches the end of the message.
+   */
+  static InputStream body(
+      HttpLiteConnectionPool pool,
+      HttpLiteConnectionPool.Connection conn,
+      String method,
+      ResponseHead head) {
+    if (isBodyless(method, head) || (!head.chunked() && head.contentLength() == 0)) {
+      if (head.keepAlive()) {
+        pool.release(conn, head.keepAliveMs());
+      } else {
+        pool.discard(conn);
+      }
+      return InputStream.nullInputStream();
+    }
+    if (head.chunked()) return new ChunkedBody(pool, conn, head);
+    if (head.contentLength() > 0) return new FixedLengthBody(pool, conn, head);
+    return new UntilCloseBody(pool, conn, head);
+  }
+
+  private abstract static class PooledBody extends InputStream {
+    final HttpLiteConnectionPool pool;
+    final HttpLiteConnectionPool.Connection conn;
+    final InputStream in;
+    private final boolean keepAlive;
+    private final long keepAliveMs;
+    private boolean done;
+
+    PooledBody(
+        HttpLiteConnectionPool pool,
+        HttpLiteConnectionPool.Connection conn,
+        ResponseHead head,
+        boolean reusable) {
+      this.pool = pool;
+      this.conn = conn;
+      this.in = conn.in;
+      this.keepAlive = reusable && head.keepAlive();
+      this.keepAliveMs = head.keepAliveMs();
+    }
+
+    /** Reads message body bytes; -1 once the whole message has been consumed. */
+    abstract int readBody(byte[] b, int off, int len) throws IOException;
+
+    @Override
+    public int read() throws IOException {
+      byte[] one = new byte[1];
+      int n = read(one, 0, 1);
+      return n < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      Objects.checkFromIndexSize(off, len, b.length);
+      if (done) return -1;
+      if (len == 0) return 0;
+      int n;
+      try {
+        n = readBody(b, off, len);
+      } catch (IOException | RuntimeException e) {
+        finish(false);
+        throw e;
+      }
+      if (n < 0) finish(keepAlive);
+      return n;
+    }
+
+    @Override
+    public void close() {
+      if (done) return;
+      // A small unread remainder (gzip trailer, last chunk) is cheaper to drain than a new socket.
+      boolean drained = false;
+      if (keepAlive) {
+        try {
+          conn.socket.setSoTimeout(DRAIN_TIMEOUT_MS);
+          byte[] buf = new byte[8192];
+          long budget = DRAIN_LIMIT_BYTES;
+          while (budget > 0) {
+            int n = readBody(buf, 0, (int) Math.min(buf.length, budget));
+            if (n < 0) {
+              drained = true;
+              break;
+            }
+            budget -= n;
+          }
+        } catch (IOException | RuntimeException ignored) {
+          drained = false;
+        }
+      }
+      finish(drained);
+    }
+
+    private void finish(boolean reuse) {
+      if (done) return;
+      done = true;
+      if (reuse) {
+        pool.release(conn, keepAliveMs);
+      } else {
+        pool.discard(conn);
+      }
+    }
+  }
+
+  private static final class FixedLengthBody extends PooledBody {
+    private long remaining;
+
+    FixedLengthBody(
+        HttpLiteConnectionPool pool, HttpLiteConnectionPool.Connection conn, ResponseHead head) {
+      super(pool, conn, head, true);
+      this.remaining = head.contentLength();
+    }
+
+    @Override
+    int readBody(byte[] b, int off, int len) throws IOException {
+      if (remaining <= 0) return -1;
+      int n = in.read(b, off, (int) Math.min(len, remaining));
+      if (n < 0) throw new EOFException("Connection closed with " + remaining + " bytes unread");
+      remaining -= n;
+      return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (int) Math.min(remaining, in.available());
+    }
+  }
+
+  private static final class ChunkedBody extends PooledBody {
+    private long chunkRemaining;
+    private boolean firstChunk = true;
+    private boolean finished;
+
+    ChunkedBody(
+        HttpLiteConnectionPool pool, HttpLiteConnectionPool.Connection conn, ResponseHead head) {
+      super(pool, conn, head, true);
+    }
+
+    @Override
+    int readBody(byte[] b, int off, int len) throws IOException {
+      if (finished) return -1;
+      if (chunkRemaining == 0) {
+        if (!firstChunk) {
+          String crlf = readLine(in);
+          if (crlf == null || !crlf.isEmpty()) throw new IOException("Malformed chunk terminator");
+        }
+        firstChunk = false;
+        chunkRemaining = parseChunkSize(readLine(in));
+        if (chunkRemaining == 0) {
+          // Skip trailer fields up to the blank line that ends the message.
+          String trailer;
+          do {
+            trailer = readLine(in);
+            if (trailer == null) throw new EOFException("Connection closed in chunk trailer");
+          } while (!trailer.isEmpty());
+          finished = true;
+          return -1;
+        }
+      }
+      int n = in.read(b, off, (int) Math.min(len, chunkRemaining));
+      if (n < 0) throw new EOFException("Connection closed inside a chunk");
+      chunkRemaining -= n;
+      return n;
+    }
+
+    private static long parseChunkSize(String line) throws IOException {
+      if (line == null) throw new EOFException("Connection closed before chunk size");
+      int ext = line.indexOf(';');
+      String hex = (ext >= 0 ? line.substring(0, ext) : line).trim();
+      try {
+        long size = Long.parseLong(hex, 16);
+        if (size < 0) throw new NumberFormatException(hex);
+        return size;
+      } catch (NumberFormatException e) {
+        throw new IOException("Malformed chunk size: " + line, e);
+      }
+    }
+  }
+
+  /** No length and not chunked: the body runs until the server closes the socket. */
+  private static final class UntilCloseBody extends PooledBody {
+    UntilCloseBody(
+        HttpLiteConnectionPool pool, HttpLiteConnectionPool.Connection conn, ResponseHead head) {
+      super(pool, conn, head, false);
+    }
+
+    @Override
+    int readBody(byte[] b, int off, int len) throws IOException {
+      return in.read(b, off, len);
+    }
+  }
+
+  private static String readStatusLine(InputStream in) throws IOException {
+    int first;
+    try {
+      first = in.read();
+    } catch (SocketTimeoutException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new NoResponseException("Connection failed before response: " + e.getMessage(), e);
+    }
+    if (first < 0) throw new NoResponseException("Connection closed before response", null);
+    String rest = readLine(in);
+    if (first == '\n') return Objects.toString(rest, "");
+    return ((char) first) + Objects.toString(rest, "");
+  }
+
+  private static int parseStatusCode(String statusLine) throws IOException {
+    // HTTP/1.1 200 OK
+    if (!statusLine.startsWith("HTTP/")) {
+      throw new IOException("Malformed HTTP status line: " + statusLine);
+    }
+    int sp = statusLine.indexOf(' ');
+    if (sp < 0 || statusLine.length() < sp + 4) {
+      throw new IOException("Malformed HTTP status line: " + statusLine);
+    }
+    try {
+      return Integer.parseInt(statusLine.substring(sp + 1, sp + 4));
+    } catch (NumberFormatException e) {
+      throw new IOException("Malformed HTTP status line: " + statusLine, e);
+    }
+  }
+
+  private static Map<String, List<String>> readHeaderFields(InputStream in) throws IOException {
+    Map<String, List<String>> fields = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (int i = 0; ; i++) {
+      String line = readLine(in);
+      if (line == null) throw new EOFException("Connection closed inside response headers");
+      if (line.isEmpty()) return fields;
+      if (i >= MAX_HEADER_LINES) throw new IOException("Too many response header lines");
+      int colon = line.indexOf(':');
+      if (colon <= 0) continue;
+      String name = line.substring(0, colon).trim();
+      String value = line.substring(colon + 1).trim();
+      fields.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+    }
+  }
+
+  private static long keepAliveTimeoutMs(HttpLite.Headers headers) {
+    // Keep-Alive: timeout=5, max=100
+    String value = headers.firstValue("Keep-Alive").orElse("");
+    for (String part : value.split(",")) {
+      String p = part.trim().toLowerCase(Locale.ROOT);
+      if (!p.startsWith("timeout=")) continue;
+      try {
+        return Math.max(0L, Long.parseLong(p.substring("timeout=".length()).trim()) * 1000L);
+      } catch (NumberFormatException ignored) {
+        return -1L;
+      }
+    }
+    return -1L;
+  }
+
+  /** Reads one CRLF- (or LF-) terminated ISO-8859-1 line; null on EOF before any byte. */
+  private static String readLine(InputStream in) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+    int c;
+    while ((c = in.read()) >= 0) {
+      if (c == '\n') break;
+      if (line.size() >= MAX_LINE_BYTES) throw new IOException("HTTP line too long");
+      line.write(c);
+    }
+    if (c < 0 && line.size() == 0) return null;
+    byte[] bytes = line.toByteArray();
+    int len = bytes.length;
+    if (len > 0 && bytes[len - 1] == '\r') len--;
+    return new String(bytes, 0, len, StandardCharsets.ISO_8859_1);
+  }
+
+  private static String requestTarget(HttpLiteConnectionPool.Route route, URI uri) {
+    String path = uri.getRawPath();
+    if (path == null || path.isEmpty()) path = "/";
+    String query = uri.getRawQuery();
+    String target = query == null ? path : path + "?" + query;
+    // A plain-http request through an HTTP proxy names the origin in the request line.
+    if (route.viaHttpProxy() && !route.https()) {
+      return route.scheme() + "://" + route.authority() + target;
+    }
+    return target;
+  }
+
+  private static void appendHeader(StringBuilder sb, String name, String value) {
+    sb.append(name).append(": ").append(value).append("\r\n");
+  }
+
+  private static String checkHeader(String s) {
+    if (s.indexOf('\r') >= 0 || s.indexOf('\n') >= 0) {
+      throw new IllegalArgumentException("Illegal line break in HTTP header: " + s);
+    }
+    return s;
+  }
+}
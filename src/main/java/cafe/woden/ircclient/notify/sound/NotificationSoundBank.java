@@ -0,0 +1,127 @@
+package cafe.woden.ircclient.notify.sound;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Decodes notification sounds once into PCM in the mixer's format and keeps them in a bounded
+ * cache.
+ *
+ * <p>Bundled sounds are keyed by resource path. Custom files are keyed by path, size and mtime, so
+ * replacing a file on disk is picked up on the next play without a restart.
+ */
+final class NotificationSoundBank {
+
+  static final long MAX_CACHED_BYTES = 24L * 1024L * 1024L;
+
+  /** Decoded sound in {@link NotificationSoundMixer#MIX_FORMAT}. */
+  record PcmSound(String key, byte[] frames) {
+    int frameCount() {
+      return frames.length / NotificationSoundMixer.MIX_FORMAT.getFrameSize();
+    }
+  }
+
+  private final Cache<String, PcmSound> sounds =
+      Caffeine.newBuilder()
+          .maximumWeight(MAX_CACHED_BYTES)
+          .weigher((String key, PcmSound sound) -> sound.frames().length)
+          .build();
+
+  PcmSound resource(String resourcePath) throws IOException, UnsupportedAudioFileException {
+    String key = "res:" + resourcePath;
+    PcmSound cached = sounds.getIfPresent(key);
+    if (cached != null) return cached;
+
+    URL resource = getClass().getClassLoader().getResource(resourcePath);
+    if (resource == null) return null;
+    try (InputStream in = new BufferedInputStream(resource.openStream());
+        AudioInputStream stream = AudioSystem.getAudioInputStream(in)) {
+      return remember(key, stream);
+    }
+  }
+
+  PcmSound file(Path path) throws IOException, UnsupportedAudioFileException {
+    if (path == null || !Files.isRegularFile(path)) return null;
+    Path abs = path.toAbsolutePath().normalize();
+    String key = "file:" + abs + ":" + Files.size(abs) + ":" + Files.getLastModifiedTime(abs);
+    PcmSound cached = sounds.getIfPresent(key);
+    if (cached != null) return cached;
+
+    try (AudioInputStream stream = AudioSystem.getAudioInputStream(abs.toFile())) {
+      return remember(key, stream);
+    }
+  }
+
+  private PcmSound remember(String key, AudioInputStream stream) throws IOException {
+    PcmSound sound = new PcmSound(key, toMixFormat(stream));
+    sounds.put(key, sound);
+    return sound;
+  }
+
+  /** Decode (MP3 and friends) to 16-bit PCM, then up/down-mix and resample to the mix format. */
+  static byte[] toMixFormat(AudioInputStream original) throws IOException {
+    AudioFormat base = original.getFormat();
+    int channels = Math.max(1, base.getChannels());
+    float rate = base.getSampleRate();
+
+    boolean needsDecode =
+        base.getEncoding() != AudioFormat.Encoding.PCM_SIGNED
+            || base.getSampleSizeInBits() != 16
+            || base.isBigEndian();
+    byte[] pcm16;
+    if (needsDecode) {
+      AudioFormat decoded =
+          new AudioFormat(
+              AudioFormat.Encoding.PCM_SIGNED, rate, 16, channels, channels * 2, rate, false);
+      try (AudioInputStream in = AudioSystem.getAudioInputStream(decoded, original)) {
+        pcm16 = in.readAllBytes();
+      }
+    } else {
+      pcm16 = original.readAllBytes();
+    }
+    return convert(pcm16, channels, rate);
+  }
+
+  /** Little-endian 16-bit PCM with any channel count/rate to the stereo 44.1 kHz mix format. */
+  static byte[] convert(byte[] pcm16, int channels, float sampleRate) {
+    int inFrames = pcm16.length / (2 * channels);
+    float outRate = NotificationSoundMixer.MIX_FORMAT.getSampleRate();
+    if (inFrames == 0 || sampleRate <= 0f) return new byte[0];
+    if (channels == 2 && sampleRate == outRate) return pcm16;
+
+    double step = sampleRate / outRate;
+    int outFrames = (int) Math.max(1L, (long) Math.floor((inFrames - 1) / step) + 1L);
+    byte[] out = new byte[outFrames * 4];
+    for (int f = 0; f < outFrames; f++) {
+      double src = f * step;
+      int i0 = (int) src;
+      int i1 = Math.min(inFrames - 1, i0 + 1);
+      double t = src - i0;
+      for (int c = 0; c < 2; c++) {
+        int srcChannel = Math.min(c, channels - 1);
+        int a = sample(pcm16, i0, srcChannel, channels);
+        int b = sample(pcm16, i1, srcChannel, channels);
+        int v = (int) Math.round(a + (b - a) * t);
+        int o = f * 4 + c * 2;
+        out[o] = (byte) v;
+        out[o + 1] = (byte) (v >> 8);
+      }
+    }
+    return out;
+  }
+
+  private static int sample(byte[] pcm16, int frame, int channel, int channels) {
+    int o = (frame * channels + channel) * 2;
+    return (short) ((pcm16[o] & 0xff) | (pcm16[o + 1] << 8));
+  }
+}
@@ -0,0 +1,258 @@
+package cafe.woden.ircclient.notify.sound;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Software mixer that plays notification sounds through one long-lived {@link SourceDataLine}.
+ *
+ * <p>Voices are summed into 20 ms chunks on a render thread that only runs while something is
+ * playing. The line stays open between bursts and is closed after {@link #LINE_IDLE_CLOSE_MS} of
+ * silence so the audio device is not held forever.
+ *
+ * <p>Admission policy for regular notifications:
+ *
+ * <ul>
+ *   <li>the same sound started less than {@link #COALESCE_WINDOW_MS} ago is dropped (a highlight
+ *       burst becomes one chime);
+ *   <li>at most {@link #MAX_STARTS_PER_SECOND} sounds start in any rolling second;
+ *   <li>at most {@link #MAX_VOICES} play at once; the oldest voice yields to a new one.
+ * </ul>
+ *
+ * Previews bypass the policy but replace any preview that is still playing.
+ */
+final class NotificationSoundMixer implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(NotificationSoundMixer.class);
+
+  static final AudioFormat MIX_FORMAT = new AudioFormat(44_100f, 16, 2, true, false);
+
+  static final long COALESCE_WINDOW_MS = 500L;
+  static final int MAX_STARTS_PER_SECOND = 4;
+  static final int MAX_VOICES = 4;
+  static final long LINE_IDLE_CLOSE_MS = 30_000L;
+
+  private static final int CHUNK_FRAMES = 882; // 20 ms
+  private static final int LINE_BUFFER_FRAMES = CHUNK_FRAMES * 4;
+
+  interface LineFactory {
+    SourceDataLine open() throws LineUnavailableException;
+  }
+
+  private static final class Voice {
+    final String key;
+    final byte[] frames;
+    final boolean preview;
+    final long startedMs;
+    int pos;
+
+    Voice(String key, byte[] frames, boolean preview, long startedMs) {
+      this.key = key;
+      this.frames = frames;
+      this.preview = preview;
+      this.startedMs = startedMs;
+    }
+  }
+
+  private final LineFactory lineFactory;
+  private final ThreadFactory threads;
+  private final LongSupplier clock;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition voicesAvailable = lock.newCondition();
+  private final ArrayList<Voice> voices = new ArrayList<>();
+  private final ArrayDeque<Long> recentStarts = new ArrayDeque<>();
+  private final int[] accumulator = new int[CHUNK_FRAMES * 2];
+  private boolean rendering;
+  private boolean closed;
+
+  NotificationSoundMixer(ThreadFactory threads) {
+    this(NotificationSoundMixer::openDefaultLine, threads, System::currentTimeMillis);
+  }
+
+  NotificationSoundMixer(LineFactory lineFactory, ThreadFactory threads, LongSupplier clock) {
+    this.lineFactory = Objects.requireNonNull(lineFactory, "lineFactory");
+    this.threads = Objects.requireNonNull(threads, "threads");
+    this.clock = Objects.requireNonNull(clock, "clock");
+  }
+
+  /**
+   * Queue {@code sound} for playback.
+   *
+   * @return false if the admission policy dropped it
+   */
+  boolean play(NotificationSoundBank.PcmSound sound, boolean preview) {
+    if (sound == null || sound.frames().length == 0) return false;
+    lock.lock();
+    try {
+      if (closed) return false;
+      long now = clock.getAsLong();
+      if (preview) {
+        voices.removeIf(v -> v.preview);
+      } else if (!admit(sound.key(), now)) {
+        return false;
+      }
+      if (voices.size() >= MAX_VOICES) {
+        voices.removeFirst();
+      }
+      voices.add(new Voice(sound.key(), sound.frames(), preview, now));
+      voicesAvailable.signalAll();
+      if (!rendering) {
+        rendering = true;
+        threads.newThread(this::renderLoop).start();
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean admit(String key, long now) {
+    for (Voice v : voices) {
+      if (!v.preview && v.key.equals(key) && now - v.startedMs < COALESCE_WINDOW_MS) {
+        return false;
+      }
+    }
+    while (!recentStarts.isEmpty() && now - recentStarts.peekFirst() >= 1_000L) {
+      recentStarts.pollFirst();
+    }
+    if (recentStarts.size() >= MAX_STARTS_PER_SECOND) return false;
+    recentStarts.addLast(now);
+    return true;
+  }
+
+  int activeVoices() {
+    lock.lock();
+    try {
+      return voices.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Mix the next chunk of all active voices into {@code out} (16-bit LE stereo) and retire
+   * finished voices.
+   *
+   * @return bytes written, or 0 if nothing is playing
+   */
+  int mixChunk(byte[] out) {
+    lock.lock();
+    try {
+      if (voices.isEmpty()) return 0;
+      int frames = Math.min(CHUNK_FRAMES, out.length / 4);
+      int samples = frames * 2;
+      Arrays.fill(accumulator, 0, samples, 0);
+      for (Iterator<Voice> it = voices.iterator(); it.hasNext(); ) {
+        Voice v = it.next();
+        int n = Math.min(samples, (v.frames.length - v.pos) / 2);
+        for (int i = 0; i < n; i++) {
+          int o = v.pos + i * 2;
+          accumulator[i] += (short) ((v.frames[o] & 0xff) | (v.frames[o + 1] << 8));
+        }
+        v.pos += n * 2;
+        if (v.pos >= v.frames.length) it.remove();
+      }
+      for (int i = 0; i < samples; i++) {
+        int s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, accumulator[i]));
+        out[i * 2] = (byte) s;
+        out[i * 2 + 1] = (byte) (s >> 8);
+      }
+      return samples * 2;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void renderLoop() {
+    SourceDataLine line = null;
+    byte[] chunk = new byte[CHUNK_FRAMES * 4];
+    try {
+      while (true) {
+        if (!awaitVoices()) break;
+        if (line == null) {
+          line = lineFactory.open();
+          line.start();
+        }
+        int n = mixChunk(chunk);
+        if (n > 0) line.write(chunk, 0, n);
+      }
+      if (line != null) line.drain();
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.debug("Notification sound mixer failed", e);
+      lock.lock();
+      try {
+        voices.clear();
+      } finally {
+        lock.unlock();
+      }
+    } finally {
+      if (line != null) {
+        try {
+          line.stop();
+          line.close();
+        } catch (Exception ignored) {
+        }
+      }
+      lock.lock();
+      try {
+        rendering = false;
+        // A voice may have slipped in while the line was closing.
+        if (!voices.isEmpty() && !closed) {
+          rendering = true;
+          threads.newThread(this::renderLoop).start();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Wait for voices; false once the line has been idle long enough (or the mixer closed). */
+  private boolean awaitVoices() throws InterruptedException {
+    lock.lock();
+    try {
+      long remainingNanos = TimeUnit.MILLISECONDS.toNanos(LINE_IDLE_CLOSE_MS);
+      while (voices.isEmpty() && !closed) {
+        if (remainingNanos <= 0L) return false;
+        remainingNanos = voicesAvailable.awaitNanos(remainingNanos);
+      }
+      return !closed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static SourceDataLine openDefaultLine() throws LineUnavailableException {
+    SourceDataLine line = AudioSystem.getSourceDataLine(MIX_FORMAT);
+    line.open(MIX_FORMAT, LINE_BUFFER_FRAMES * MIX_FORMAT.getFrameSize());
+    return line;
+  }
+
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      voices.clear();
+      voicesAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
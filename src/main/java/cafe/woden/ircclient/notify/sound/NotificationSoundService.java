@@ -5,42 +5,37 @@ import cafe.woden.ircclient.config.api.RuntimeConfigPathPort;
 import cafe.woden.ircclient.model.BuiltInSound;
 import jakarta.annotation.PreDestroy;
 import java.beans.PropertyChangeListener;
-import java.io.BufferedInputStream;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.Duration;
-import java.time.Instant;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
-import javax.sound.sampled.*;
 import org.jmolecules.architecture.layered.ApplicationLayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+/**
+ * Plays notification sounds.
+ *
+ * <p>Sounds are decoded once into {@link NotificationSoundBank} and played through the shared
+ * {@link NotificationSoundMixer} line, which also applies burst coalescing and the per-second cap.
+ */
 @Service
 @ApplicationLayer
 public class NotificationSoundService {
 
   private static final Logger log = LoggerFactory.getLogger(NotificationSoundService.class);
 
-  private static final Duration MIN_INTERVAL = Duration.ofMillis(500);
-  private static final long CLIP_FINISH_GRACE_MS = 1_500L;
-  private static final long CLIP_WAIT_MIN_MS = 2_000L;
-  private static final long CLIP_WAIT_MAX_MS = 30_000L;
-
   private final ExecutorService executor;
+  private final NotificationSoundBank bank = new NotificationSoundBank();
+  private final NotificationSoundMixer mixer =
+      new NotificationSoundMixer(Thread.ofVirtual().name("notification-sound-mixer-", 1).factory());
 
   private final NotificationSoundSettingsBus settingsBus;
   private final RuntimeConfigPathPort runtimeConfig;
   private final PropertyChangeListener settingsListener;
 
-  private final AtomicReference<Instant> lastPlayed = new AtomicReference<>(Instant.EPOCH);
   private final AtomicLong previewRequestSeq = new AtomicLong(0L);
 
   /** Global sound enable toggle (Phase 2: defaults to enabled, UI/persistence later). */
@@ -172,34 +167,22 @@ public class NotificationSoundService {
     }
   }
 
-  private void playResource(String resourcePath, boolean bypassLimiter, long previewSeq) {
+  private void playResource(String resourcePath, boolean preview, long previewSeq) {
     executor.submit(
         () -> {
           if (isStalePreview(previewSeq)) {
             return;
           }
-          if (!bypassLimiter && !canPlay()) {
-            return;
-          }
-
           try {
-            URL resource = getClass().getClassLoader().getResource(resourcePath);
-
-            if (resource == null) {
+            NotificationSoundBank.PcmSound sound = bank.resource(resourcePath);
+            if (sound == null) {
               log.debug("Sound resource not found: {}", resourcePath);
               return;
             }
-
-            try (AudioInputStream originalStream =
-                AudioSystem.getAudioInputStream(new BufferedInputStream(resource.openStream()))) {
-
-              if (isStalePreview(previewSeq)) {
-                return;
-              }
-              playDecoded(originalStream);
-              lastPlayed.set(Instant.now());
+            if (isStalePreview(previewSeq)) {
+              return;
             }
-
+            mixer.play(sound, preview);
           } catch (Exception e) {
             // Don't let audio failures crash or spam logs; debug is enough.
             log.debug("Failed to play notification sound: {}", resourcePath, e);
@@ -207,28 +190,18 @@ public class NotificationSoundService {
         });
   }
 
-  private void playFile(Path path, boolean bypassLimiter, long previewSeq) {
+  private void playFile(Path path, boolean preview, long previewSeq) {
     executor.submit(
         () -> {
           if (isStalePreview(previewSeq)) {
             return;
           }
-          if (!bypassLimiter && !canPlay()) {
-            return;
-          }
-
-          if (path == null || !Files.exists(path)) {
-            return;
-          }
-
-          try (AudioInputStream originalStream = AudioSystem.getAudioInputStream(path.toFile())) {
-
-            if (isStalePreview(previewSeq)) {
+          try {
+            NotificationSoundBank.PcmSound sound = bank.file(path);
+            if (sound == null || isStalePreview(previewSeq)) {
               return;
             }
-            playDecoded(originalStream);
-            lastPlayed.set(Instant.now());
-
+            mixer.play(sound, preview);
           } catch (Exception e) {
             log.debug("Failed to play custom notification sound: {}", path, e);
           }
@@ -239,80 +212,9 @@ public class NotificationSoundService {
     return previewSeq > 0L && previewSeq != previewRequestSeq.get();
   }
 
-  private void playDecoded(AudioInputStream originalStream) throws Exception {
-    AudioFormat baseFormat = originalStream.getFormat();
-
-    boolean needsDecode =
-        baseFormat.getEncoding() != AudioFormat.Encoding.PCM_SIGNED
-            || baseFormat.getSampleSizeInBits() != 16;
-
-    AudioInputStream decodedStream = originalStream;
-
-    if (needsDecode) {
-      AudioFormat decodedFormat =
-          new AudioFormat(
-              AudioFormat.Encoding.PCM_SIGNED,
-              baseFormat.getSampleRate(),
-              16,
-              baseFormat.getChannels(),
-              baseFormat.getChannels() * 2,
-              baseFormat.getSampleRate(),
-              false);
-      decodedStream = AudioSystem.getAudioInputStream(decodedFormat, originalStream);
-    }
-
-    try (AudioInputStream toPlay = decodedStream) {
-      Clip clip = AudioSystem.getClip();
-      CountDownLatch finished = new CountDownLatch(1);
-      LineListener listener =
-          event -> {
-            if (event == null) return;
-            LineEvent.Type t = event.getType();
-            if (t == LineEvent.Type.STOP || t == LineEvent.Type.CLOSE) {
-              finished.countDown();
-            }
-          };
-
-      try {
-        clip.addLineListener(listener);
-        clip.open(toPlay);
-        clip.setFramePosition(0);
-        clip.start();
-
-        long durationMs = TimeUnit.MICROSECONDS.toMillis(Math.max(0L, clip.getMicrosecondLength()));
-        long waitMs =
-            Math.max(
-                CLIP_WAIT_MIN_MS, Math.min(CLIP_WAIT_MAX_MS, durationMs + CLIP_FINISH_GRACE_MS));
-        try {
-          finished.await(waitMs, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException ie) {
-          Thread.currentThread().interrupt();
-        }
-      } finally {
-        try {
-          clip.removeLineListener(listener);
-        } catch (Exception ignored) {
-        }
-        try {
-          if (clip.isRunning()) clip.stop();
-        } catch (Exception ignored) {
-        }
-        try {
-          if (clip.isOpen()) clip.close();
-        } catch (Exception ignored) {
-        }
-      }
-    }
-  }
-
-  private boolean canPlay() {
-    Instant now = Instant.now();
-    Instant last = lastPlayed.get();
-    return Duration.between(last, now).compareTo(MIN_INTERVAL) > 0;
-  }
-
   @PreDestroy
   public void shutdown() {
+    mixer.close();
     try {
       if (settingsBus != null && settingsListener != null) {
         settingsBus.removeListener(settingsListener);
@@ -39,6 +39,15 @@ public class ServerIsupportState implements ServerIsupportStatePort {
     return entry == null ? ModeVocabulary.fallback() : entry.vocabulary;
   }
 
+  @Override
+  public String isupportToken(String serverId, String tokenName) {
+    String sid = normalizeServer(serverId);
+    String key = normalizeTokenName(tokenName);
+    if (sid.isEmpty() || key.isEmpty()) return null;
+    ServerEntry entry = entriesByServer.get(sid);
+    return entry == null ? null : entry.tokens.get(key);
+  }
+
   @Override
   public void clearServer(String serverId) {
     String sid = normalizeServer(serverId);
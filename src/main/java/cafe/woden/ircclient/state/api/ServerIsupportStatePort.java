@@ -10,5 +10,10 @@ public interface ServerIsupportStatePort {
 
   ModeVocabulary vocabularyForServer(String serverId);
 
+  /** Raw value of an advertised token ({@code ""} for valueless tokens), or null if absent. */
+  default String isupportToken(String serverId, String tokenName) {
+    return null;
+  }
+
   void clearServer(String serverId);
 }
@@ -36,6 +36,7 @@ import cafe.woden.ircclient.ui.backend.BackendUiProfileProvider;
 import cafe.woden.ircclient.ui.bus.ActiveInputRouter;
 import cafe.woden.ircclient.ui.bus.OutboundLineBus;
 import cafe.woden.ircclient.ui.bus.TargetActivationBus;
+import cafe.woden.ircclient.ui.channellist.ChannelDirectorySnapshotStore;
 import cafe.woden.ircclient.ui.channellist.ChannelListPanel;
 import cafe.woden.ircclient.ui.chat.ChatTranscriptStore;
 import cafe.woden.ircclient.ui.chat.MessageReactionToggleSupport;
@@ -231,7 +232,7 @@ public class ChatDockable extends ChatViewPanel implements Dockable {
       ChatLogViewerService chatLogViewerService,
       ChatRedactionAuditService redactionAuditService,
       InterceptorStore interceptorStore,
-      DccTransferStore dccTransferStore,
+      @Lazy DccTransferStore dccTransferStore,
       TerminalDockable terminalDockable,
       @Lazy ApplicationDiagnosticsService applicationDiagnosticsService,
       JfrRuntimeEventsService jfrRuntimeEventsService,
@@ -369,6 +370,11 @@ public class ChatDockable extends ChatViewPanel implements Dockable {
     super.setExternalBrowserLauncher(externalBrowserLauncher);
   }
 
+  @Autowired
+  void wireChannelDirectorySnapshots(ChannelDirectorySnapshotStore snapshotStore) {
+    channelListPanel.setDirectorySnapshotStore(snapshotStore);
+  }
+
   @Override
   public void updateUI() {
     super.updateUI();
@@ -1243,6 +1249,17 @@ public class ChatDockable extends ChatViewPanel implements Dockable {
     inputPanel.setNickCompletions(nicks);
   }
 
+  /** Patch the embedded input bar's nick completions with one roster row change. */
+  public void applyNickCompletionDelta(String removedNick, String addedNick) {
+    inputPanel.applyNickCompletionDelta(removedNick, addedNick);
+  }
+
+  /** Rank {@code nick} higher in nick completion when they spoke in the active target. */
+  public void noteNickActivity(TargetRef target, String nick) {
+    if (target == null || !target.equals(activeTarget)) return;
+    inputPanel.noteNickActivity(nick);
+  }
+
   public void setTopic(TargetRef target, String topic) {
     topicCoordinator.setTopic(target, topic, activeTarget);
   }
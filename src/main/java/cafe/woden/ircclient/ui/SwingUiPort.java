@@ -9,6 +9,7 @@ import cafe.woden.ircclient.app.api.UiTranscriptPort;
 import cafe.woden.ircclient.app.api.UiViewStatePort;
 import cafe.woden.ircclient.irc.IrcEvent.NickInfo;
 import cafe.woden.ircclient.irc.quassel.control.QuasselCoreControlPort;
+import cafe.woden.ircclient.irc.roster.UserListStore;
 import cafe.woden.ircclient.model.TargetRef;
 import cafe.woden.ircclient.notifications.NotificationStore;
 import cafe.woden.ircclient.ui.bus.ActiveInputRouter;
@@ -217,6 +218,11 @@ public class SwingUiPort implements UiPort {
     viewStatePort.setUsersNicks(nicks);
   }
 
+  @Override
+  public void applyUsersNickDelta(UserListStore.RosterPatch patch) {
+    viewStatePort.applyUsersNickDelta(patch);
+  }
+
   @Override
   public void syncQuasselNetworks(
       String serverId, List<QuasselCoreControlPort.QuasselCoreNetworkSummary> networks) {
@@ -276,6 +282,11 @@ public class SwingUiPort implements UiPort {
     viewStatePort.setStatusBarCounts(users, ops);
   }
 
+  @Override
+  public void setStatusBarUserInfoCoverage(int enriched, int members) {
+    viewStatePort.setStatusBarUserInfoCoverage(enriched, members);
+  }
+
   @Override
   public void setStatusBarServer(String serverText) {
     viewStatePort.setStatusBarServer(serverText);
@@ -47,19 +47,31 @@ final class SwingUiTranscriptPort implements UiTranscriptPort {
 
   @Override
   public void appendChat(TargetRef target, String from, String text) {
-    edt.run(() -> transcripts.appendChat(target, from, text, false));
+    edt.run(
+        () -> {
+          transcripts.appendChat(target, from, text, false);
+          noteSpeaker(target, from, false);
+        });
   }
 
   @Override
   public void appendChat(TargetRef target, String from, String text, boolean outgoingLocalEcho) {
-    edt.run(() -> transcripts.appendChat(target, from, text, outgoingLocalEcho));
+    edt.run(
+        () -> {
+          transcripts.appendChat(target, from, text, outgoingLocalEcho);
+          noteSpeaker(target, from, outgoingLocalEcho);
+        });
   }
 
   @Override
   public void appendChatAt(
       TargetRef target, Instant at, String from, String text, boolean outgoingLocalEcho) {
     long ts = (at != null) ? at.toEpochMilli() : System.currentTimeMillis();
-    edt.run(() -> transcripts.appendChatAt(target, from, text, outgoingLocalEcho, ts));
+    edt.run(
+        () -> {
+          transcripts.appendChatAt(target, from, text, outgoingLocalEcho, ts);
+          noteSpeaker(target, from, outgoingLocalEcho);
+        });
   }
 
   @Override
@@ -73,9 +85,10 @@ final class SwingUiTranscriptPort implements UiTranscriptPort {
       Map<String, String> ircv3Tags) {
     long ts = (at != null) ? at.toEpochMilli() : System.currentTimeMillis();
     edt.run(
-        () ->
-            transcripts.appendChatAt(
-                target, from, text, outgoingLocalEcho, ts, messageId, ircv3Tags));
+        () -> {
+          transcripts.appendChatAt(target, from, text, outgoingLocalEcho, ts, messageId, ircv3Tags);
+          noteSpeaker(target, from, outgoingLocalEcho);
+        });
   }
 
   @Override
@@ -90,16 +103,24 @@ final class SwingUiTranscriptPort implements UiTranscriptPort {
       String notificationRuleHighlightColor) {
     long ts = (at != null) ? at.toEpochMilli() : System.currentTimeMillis();
     edt.run(
-        () ->
-            transcripts.appendChatAt(
-                target,
-                from,
-                text,
-                outgoingLocalEcho,
-                ts,
-                messageId,
-                ircv3Tags,
-                notificationRuleHighlightColor));
+        () -> {
+          transcripts.appendChatAt(
+              target,
+              from,
+              text,
+              outgoingLocalEcho,
+              ts,
+              messageId,
+              ircv3Tags,
+              notificationRuleHighlightColor);
+          noteSpeaker(target, from, outgoingLocalEcho);
+        });
+  }
+
+  private void noteSpeaker(TargetRef target, String from, boolean outgoingLocalEcho) {
+    if (outgoingLocalEcho || target == null || !target.isChannel()) return;
+    if (chat != null) chat.noteNickActivity(target, from);
+    if (chatDockManager != null) chatDockManager.noteNickActivity(target, from);
   }
 
   @Override
@@ -4,6 +4,7 @@ import cafe.woden.ircclient.app.api.ConnectionState;
 import cafe.woden.ircclient.app.api.UiViewStatePort;
 import cafe.woden.ircclient.irc.IrcEvent.NickInfo;
 import cafe.woden.ircclient.irc.quassel.control.QuasselCoreControlPort;
+import cafe.woden.ircclient.irc.roster.UserListStore;
 import cafe.woden.ircclient.model.TargetRef;
 import cafe.woden.ircclient.notifications.NotificationStore;
 import cafe.woden.ircclient.ui.bus.ActiveInputRouter;
@@ -194,55 +195,93 @@ final class SwingUiViewStatePort implements UiViewStatePort {
     edt.run(
         () -> {
           users.setNicks(nicks);
+          refreshNickCompletions(nicks);
+        });
+  }
 
-          List<String> names;
-          int hash = 1;
-          int size = 0;
-          boolean refreshMatrixTranscriptNames = false;
-          if (nicks == null || nicks.isEmpty()) {
-            names = List.of();
-          } else {
-            java.util.ArrayList<String> tmp = new java.util.ArrayList<>(nicks.size());
-            for (NickInfo ni : nicks) {
-              if (ni == null) continue;
-              String nick = ni.nick();
-              if (nick == null) continue;
-              tmp.add(nick);
-              String lower = nick.toLowerCase(Locale.ROOT);
-              hash = 31 * hash + lower.hashCode();
-              size++;
-
-              if (!refreshMatrixTranscriptNames && looksLikeMatrixUserId(nick)) {
-                String realName = Objects.toString(ni.realName(), "").trim();
-                if (!realName.isEmpty() && !realName.equalsIgnoreCase(nick)) {
-                  refreshMatrixTranscriptNames = true;
-                }
-              }
-            }
-            names = List.copyOf(tmp);
+  @Override
+  public void applyUsersNickDelta(UserListStore.RosterPatch patch) {
+    edt.run(
+        () -> {
+          if (!users.applyNickDelta(patch)) {
+            List<NickInfo> nicks = patch.nicks();
+            users.setNicks(nicks);
+            refreshNickCompletions(nicks);
+            return;
           }
+          applyNickCompletionDelta(patch.removed(), patch.inserted());
+        });
+  }
 
-          TargetRef usersTarget = users.activeTarget();
-          boolean emptyUserList = nicks == null || nicks.isEmpty();
-          if ((refreshMatrixTranscriptNames || emptyUserList)
-              && usersTarget != null
-              && usersTarget.isChannel()) {
-            transcripts.refreshMatrixDisplayNames(usersTarget);
-          }
+  /** Patches completions with one changed row instead of re-reading the whole roster. */
+  private void applyNickCompletionDelta(NickInfo removed, NickInfo inserted) {
+    String removedNick = removed == null ? null : removed.nick();
+    String addedNick = inserted == null ? null : inserted.nick();
+    if (removedNick == null && addedNick == null) return;
+    // Mode or away changes re-insert the same nick; only a changed nick set touches completions.
+    if (removedNick != null && removedNick.equals(addedNick)) return;
+    // The size/hash shortcut describes the last full roster, which this delta has moved past.
+    lastNickCompletionSize = -1;
+
+    TargetRef usersTarget = users.activeTarget();
+    if (inserted != null
+        && hasMatrixDisplayName(inserted)
+        && usersTarget != null
+        && usersTarget.isChannel()) {
+      transcripts.refreshMatrixDisplayNames(usersTarget);
+    }
 
-          boolean sameNickSet =
-              (size == lastNickCompletionSize) && (hash == lastNickCompletionHash);
-          if (!sameNickSet) {
-            lastNickCompletionSize = size;
-            lastNickCompletionHash = hash;
-
-            if (activeInputRouter != null && activeInputRouter.active() != null) {
-              activeInputRouter.setNickCompletionsForActive(names);
-            } else {
-              chat.setNickCompletions(names);
-            }
-          }
-        });
+    if (activeInputRouter != null && activeInputRouter.active() != null) {
+      activeInputRouter.applyNickCompletionDeltaForActive(removedNick, addedNick);
+    } else {
+      chat.applyNickCompletionDelta(removedNick, addedNick);
+    }
+  }
+
+  private void refreshNickCompletions(List<NickInfo> nicks) {
+    List<String> names;
+    int hash = 1;
+    int size = 0;
+    boolean refreshMatrixTranscriptNames = false;
+    if (nicks == null || nicks.isEmpty()) {
+      names = List.of();
+    } else {
+      java.util.ArrayList<String> tmp = new java.util.ArrayList<>(nicks.size());
+      for (NickInfo ni : nicks) {
+        if (ni == null) continue;
+        String nick = ni.nick();
+        if (nick == null) continue;
+        tmp.add(nick);
+        String lower = nick.toLowerCase(Locale.ROOT);
+        hash = 31 * hash + lower.hashCode();
+        size++;
+
+        if (!refreshMatrixTranscriptNames && hasMatrixDisplayName(ni)) {
+          refreshMatrixTranscriptNames = true;
+        }
+      }
+      names = List.copyOf(tmp);
+    }
+
+    TargetRef usersTarget = users.activeTarget();
+    boolean emptyUserList = nicks == null || nicks.isEmpty();
+    if ((refreshMatrixTranscriptNames || emptyUserList)
+        && usersTarget != null
+        && usersTarget.isChannel()) {
+      transcripts.refreshMatrixDisplayNames(usersTarget);
+    }
+
+    boolean sameNickSet = (size == lastNickCompletionSize) && (hash == lastNickCompletionHash);
+    if (!sameNickSet) {
+      lastNickCompletionSize = size;
+      lastNickCompletionHash = hash;
+
+      if (activeInputRouter != null && activeInputRouter.active() != null) {
+        activeInputRouter.setNickCompletionsForActive(names);
+      } else {
+        chat.setNickCompletions(names);
+      }
+    }
   }
 
   @Override
@@ -269,6 +308,11 @@ final class SwingUiViewStatePort implements UiViewStatePort {
     edt.run(() -> statusBar.setCounts(users, ops));
   }
 
+  @Override
+  public void setStatusBarUserInfoCoverage(int enriched, int members) {
+    edt.run(() -> statusBar.setUserInfoCoverage(enriched, members));
+  }
+
   @Override
   public void setStatusBarServer(String serverText) {
     edt.run(() -> statusBar.setServer(serverText));
@@ -384,6 +428,13 @@ final class SwingUiViewStatePort implements UiViewStatePort {
         });
   }
 
+  private static boolean hasMatrixDisplayName(NickInfo ni) {
+    String nick = ni.nick();
+    if (!looksLikeMatrixUserId(nick)) return false;
+    String realName = Objects.toString(ni.realName(), "").trim();
+    return !realName.isEmpty() && !realName.equalsIgnoreCase(nick);
+  }
+
   private static boolean looksLikeMatrixUserId(String token) {
     String value = Objects.toString(token, "").trim();
     if (!value.startsWith("@")) return false;
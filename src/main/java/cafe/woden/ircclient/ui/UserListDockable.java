@@ -5,6 +5,7 @@ import cafe.woden.ircclient.app.api.UserActionRequest;
 import cafe.woden.ircclient.ignore.IgnoreListService;
 import cafe.woden.ircclient.ignore.IgnoreStatusService;
 import cafe.woden.ircclient.irc.IrcEvent.NickInfo;
+import cafe.woden.ircclient.irc.roster.UserListStore;
 import cafe.woden.ircclient.model.TargetRef;
 import cafe.woden.ircclient.ui.bus.OutboundLineBus;
 import cafe.woden.ircclient.ui.bus.TargetActivationBus;
@@ -93,6 +94,7 @@ public class UserListDockable extends JPanel implements Dockable, Scrollable {
   private final UserListTypingIndicators typingIndicators = new UserListTypingIndicators();
   private final Set<String> nickKeys = new HashSet<>();
   private final Map<String, Integer> nickIndexByKey = new HashMap<>();
+  private boolean nickIndexStale;
   private final Timer typingIndicatorTimer =
       new Timer(TYPING_TICK_MS, e -> onTypingIndicatorTick());
 
@@ -318,6 +320,7 @@ public class UserListDockable extends JPanel implements Dockable, Scrollable {
   public void setNicks(List<NickInfo> nicks) {
     nickKeys.clear();
     nickIndexByKey.clear();
+    nickIndexStale = false;
     model.clear();
     if (nicks == null || nicks.isEmpty()) {
       clearTypingIndicators();
@@ -336,9 +339,45 @@ public class UserListDockable extends JPanel implements Dockable, Scrollable {
     pruneTypingIndicatorsToKnownNicks();
   }
 
+  /**
+   * Patch the list with one roster change instead of reloading it: drop row {@code
+   * patch.removedIndex()}, then insert {@code patch.inserted()} at {@code patch.insertedIndex()}
+   * (either index may be {@code -1}).
+   *
+   * @return false if the current rows do not line up with the patch (e.g. a placeholder is showing,
+   *     or a reload already included it); the caller should reload with {@link #setNicks} instead
+   */
+  public boolean applyNickDelta(UserListStore.RosterPatch patch) {
+    if (patch == null) return false;
+    int removedIndex = patch.removedIndex();
+    int insertedIndex = patch.insertedIndex();
+    int sizeAfterRemoval = model.size() - (removedIndex >= 0 ? 1 : 0);
+    if (sizeAfterRemoval + (insertedIndex >= 0 ? 1 : 0) != patch.size()) return false;
+    if (removedIndex >= model.size() || insertedIndex > sizeAfterRemoval) return false;
+    if (removedIndex >= 0 && !sameNick(model.get(removedIndex), patch.removed())) return false;
+
+    if (removedIndex >= 0) {
+      NickInfo gone = model.remove(removedIndex);
+      String key = foldNick(gone == null ? "" : gone.nick());
+      if (key != null) nickKeys.remove(key);
+    }
+    if (insertedIndex >= 0) {
+      NickInfo ni = patch.inserted();
+      model.add(insertedIndex, ni);
+      String key = foldNick(ni == null ? "" : ni.nick());
+      if (key != null) nickKeys.add(key);
+    }
+    // Row indexes shifted; rebuild the typing-row index lazily, it is rarely needed.
+    nickIndexByKey.clear();
+    nickIndexStale = true;
+    pruneTypingIndicatorsToKnownNicks();
+    return true;
+  }
+
   public void setPlaceholder(String... nicks) {
     nickKeys.clear();
     nickIndexByKey.clear();
+    nickIndexStale = false;
     model.clear();
     if (nicks == null) return;
     for (String n : nicks) {
@@ -452,6 +491,7 @@ public class UserListDockable extends JPanel implements Dockable, Scrollable {
 
     Rectangle visible = list.getVisibleRect();
     if (visible == null || visible.isEmpty()) return;
+    rebuildNickIndexIfStale();
     for (String key : typingIndicators.activeKeysSnapshot()) {
       Integer idx = nickIndexByKey.get(key);
       if (idx == null) continue;
@@ -464,6 +504,17 @@ public class UserListDockable extends JPanel implements Dockable, Scrollable {
     }
   }
 
+  private void rebuildNickIndexIfStale() {
+    if (!nickIndexStale) return;
+    nickIndexStale = false;
+    nickIndexByKey.clear();
+    for (int i = 0; i < model.size(); i++) {
+      NickInfo ni = model.getElementAt(i);
+      String key = foldNick(ni == null ? "" : ni.nick());
+      if (key != null) nickIndexByKey.putIfAbsent(key, i);
+    }
+  }
+
   private float typingAlphaForNick(String nick) {
     String key = foldNick(nick);
     if (key == null) return 0f;
@@ -487,6 +538,11 @@ public class UserListDockable extends JPanel implements Dockable, Scrollable {
     return UserListTypingIndicators.foldNick(nick);
   }
 
+  private static boolean sameNick(NickInfo a, NickInfo b) {
+    String key = foldNick(a == null ? "" : a.nick());
+    return key != null && key.equals(foldNick(b == null ? "" : b.nick()));
+  }
+
   private void enforceNoHorizontalScrollBar(JScrollPane scroll) {
     if (scroll == null) return;
 
@@ -1,8 +1,11 @@
 package cafe.woden.ircclient.ui.application;
 
 import cafe.woden.ircclient.diagnostics.JfrRuntimeEventsService;
+import cafe.woden.ircclient.diagnostics.PipelineStageStats;
 import cafe.woden.ircclient.diagnostics.RuntimeDiagnosticEvent;
+import cafe.woden.ircclient.net.HttpLite;
 import cafe.woden.ircclient.ui.icons.SvgIcons;
+import cafe.woden.ircclient.util.ExecutorTelemetry;
 import cafe.woden.ircclient.util.VirtualThreads;
 import java.awt.BasicStroke;
 import java.awt.BorderLayout;
@@ -45,13 +48,17 @@ import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
 import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
 import net.miginfocom.swing.MigLayout;
 
 /**
  * Dedicated diagnostics UI for the Application -> JFR node.
  *
- * <p>Layout is split into a {@code Status} tab (gauges) and a {@code JFR Events} tab (event table +
- * row actions).
+ * <p>Layout is split into a {@code Status} tab (gauges), a {@code Pipeline} tab (per-stage latency
+ * histograms from the custom pipeline JFR events), an {@code Executors} tab (queue depth and task
+ * latency per background lane, plus HTTP connection reuse) and a {@code JFR Events} tab (event
+ * table + row actions).
  */
 public final class JfrDiagnosticsPanel extends JPanel {
   private static final DateTimeFormatter TIME_FMT =
@@ -72,10 +79,36 @@ public final class JfrDiagnosticsPanel extends JPanel {
   private static final int COL_TYPE = 2;
   private static final int COL_SUMMARY = 3;
 
+  private static final int PIPE_COL_STAGE = 0;
+  private static final int PIPE_COL_COUNT = 1;
+  private static final int PIPE_COL_P50 = 2;
+  private static final int PIPE_COL_P99 = 3;
+  private static final int PIPE_COL_MAX = 4;
+  private static final int PIPE_COL_HISTOGRAM = 5;
+
+  private static final int EXEC_COL_LANE = 0;
+  private static final int EXEC_COL_QUEUE = 1;
+  private static final int EXEC_COL_RUNNING = 2;
+  private static final int EXEC_COL_SUBMITTED = 3;
+  private static final int EXEC_COL_COMPLETED = 4;
+  private static final int EXEC_COL_FAILED = 5;
+  private static final int EXEC_COL_REJECTED = 6;
+  private static final int EXEC_COL_WAIT_P50 = 7;
+  private static final int EXEC_COL_WAIT_P99 = 8;
+  private static final int EXEC_COL_RUN_P50 = 9;
+  private static final int EXEC_COL_RUN_P99 = 10;
+
   private final JfrRuntimeEventsService service;
   private final PropertyChangeListener stateListener = __ -> refreshOnEdt();
   private final RuntimeEventsTableModel model = new RuntimeEventsTableModel();
   private final JTable table = new JTable(model);
+  private final PipelineStagesTableModel pipelineModel = new PipelineStagesTableModel();
+  private final JTable pipelineTable = new JTable(pipelineModel);
+  private final JButton resetPipelineButton = new JButton("Reset");
+  private final ExecutorLanesTableModel executorModel = new ExecutorLanesTableModel();
+  private final JTable executorTable = new JTable(executorModel);
+  private final JButton resetExecutorsButton = new JButton("Reset");
+  private final JLabel httpPoolLabel = new JLabel(" ");
   private final JCheckBox enabledCheck = new JCheckBox("Enable JFR diagnostics");
   private final JCheckBox pauseRowsCheck = new JCheckBox("Pause event table logging");
   private final JTextField streamValue = newSummaryField();
@@ -112,7 +145,8 @@ public final class JfrDiagnosticsPanel extends JPanel {
     title.setBorder(BorderFactory.createEmptyBorder(8, 10, 2, 10));
     title.setFont(title.getFont().deriveFont(Font.BOLD));
     JLabel subtitle =
-        new JLabel("Status gauges (CPU / heap / GC rate) + runtime JFR event table controls.");
+        new JLabel(
+            "Status gauges (CPU / heap / GC rate), pipeline and executor latency + JFR events.");
     subtitle.setBorder(BorderFactory.createEmptyBorder(0, 10, 8, 10));
     JPanel header = new JPanel(new BorderLayout());
     header.add(title, BorderLayout.NORTH);
@@ -121,6 +155,8 @@ public final class JfrDiagnosticsPanel extends JPanel {
 
     JTabbedPane tabs = new JTabbedPane();
     tabs.addTab("Status", buildStatusTab());
+    tabs.addTab("Pipeline", buildPipelineTab());
+    tabs.addTab("Executors", buildExecutorsTab());
     tabs.addTab("JFR Events", buildEventsTab());
     add(tabs, BorderLayout.CENTER);
 
@@ -134,6 +170,8 @@ public final class JfrDiagnosticsPanel extends JPanel {
 
   public void refreshNow() {
     syncStatus();
+    syncPipeline();
+    syncExecutors();
     syncRows();
   }
 
@@ -177,6 +215,76 @@ public final class JfrDiagnosticsPanel extends JPanel {
     return root;
   }
 
+  private JPanel buildPipelineTab() {
+    JPanel root = new JPanel(new BorderLayout(8, 8));
+    root.setBorder(BorderFactory.createEmptyBorder(6, 8, 8, 8));
+
+    pipelineTable.setFillsViewportHeight(true);
+    pipelineTable.setRowSelectionAllowed(false);
+    pipelineTable.setShowVerticalLines(false);
+    pipelineTable.setRowHeight(Math.max(pipelineTable.getRowHeight(), 26));
+    pipelineTable.getTableHeader().setReorderingAllowed(false);
+    pipelineTable.getColumnModel().getColumn(PIPE_COL_STAGE).setPreferredWidth(160);
+    pipelineTable.getColumnModel().getColumn(PIPE_COL_HISTOGRAM).setPreferredWidth(420);
+    pipelineTable
+        .getColumnModel()
+        .getColumn(PIPE_COL_HISTOGRAM)
+        .setCellRenderer(new HistogramCellRenderer());
+
+    JLabel hint = new JLabel("Stage latency while JFR is enabled; bars run from <50 µs to >1 s.");
+    JPanel controls = new JPanel(new MigLayout("insets 0, fillx", "[]push[]", "[]"));
+    controls.add(hint);
+    controls.add(resetPipelineButton);
+    resetPipelineButton.setToolTipText("Clear the per-stage histograms");
+
+    JScrollPane scroll = new JScrollPane(pipelineTable);
+    scroll.setBorder(null);
+
+    root.add(controls, BorderLayout.NORTH);
+    root.add(scroll, BorderLayout.CENTER);
+    return root;
+  }
+
+  private JPanel buildExecutorsTab() {
+    JPanel root = new JPanel(new BorderLayout(8, 8));
+    root.setBorder(BorderFactory.createEmptyBorder(6, 8, 8, 8));
+
+    executorTable.setFillsViewportHeight(true);
+    executorTable.setRowSelectionAllowed(false);
+    executorTable.setShowVerticalLines(false);
+    executorTable.setAutoCreateRowSorter(true);
+    executorTable.getTableHeader().setReorderingAllowed(false);
+    executorTable.getColumnModel().getColumn(EXEC_COL_LANE).setPreferredWidth(240);
+    DefaultTableCellRenderer micros =
+        new DefaultTableCellRenderer() {
+          @Override
+          protected void setValue(Object value) {
+            setText(value instanceof Long l && l > 0L ? formatMicros(l) : "");
+          }
+        };
+    micros.setHorizontalAlignment(DefaultTableCellRenderer.RIGHT);
+    for (int col = EXEC_COL_WAIT_P50; col <= EXEC_COL_RUN_P99; col++) {
+      executorTable.getColumnModel().getColumn(col).setCellRenderer(micros);
+    }
+
+    JLabel hint = new JLabel("Per background lane. Queue = tasks due but not yet started.");
+    JPanel controls = new JPanel(new MigLayout("insets 0, fillx", "[]push[]", "[]"));
+    controls.add(hint);
+    controls.add(resetExecutorsButton);
+    resetExecutorsButton.setToolTipText("Clear executor counters and latency histograms");
+
+    JScrollPane scroll = new JScrollPane(executorTable);
+    scroll.setBorder(null);
+
+    httpPoolLabel.setToolTipText(
+        "Keep-alive HTTP connections shared by link previews, image embeds and other fetches");
+
+    root.add(controls, BorderLayout.NORTH);
+    root.add(scroll, BorderLayout.CENTER);
+    root.add(httpPoolLabel, BorderLayout.SOUTH);
+    return root;
+  }
+
   private JPanel buildEventsTab() {
     JPanel root = new JPanel(new BorderLayout(8, 8));
     root.setBorder(BorderFactory.createEmptyBorder(6, 8, 8, 8));
@@ -322,6 +430,18 @@ public final class JfrDiagnosticsPanel extends JPanel {
           refreshNow();
         });
     clearSelectedRowButton.addActionListener(e -> removeSelectedRow());
+    resetPipelineButton.addActionListener(
+        e -> {
+          if (service == null) return;
+          service.clearPipelineStageStats();
+          refreshNow();
+        });
+    resetExecutorsButton.addActionListener(
+        e -> {
+          if (service == null) return;
+          service.clearExecutorLaneStats();
+          refreshNow();
+        });
     exportMemoryBundleButton.addActionListener(e -> exportMemoryDiagnosticsBundle());
   }
 
@@ -454,6 +574,25 @@ public final class JfrDiagnosticsPanel extends JPanel {
     gcLastValue.setText(formatInstant(s.lastGcEventAt()));
   }
 
+  private void syncPipeline() {
+    List<PipelineStageStats> stages = service != null ? service.pipelineStageStats() : null;
+    pipelineModel.setRows(stages);
+  }
+
+  private void syncExecutors() {
+    executorModel.setRows(service != null ? service.executorLaneStats() : null);
+    httpPoolLabel.setText(formatHttpPool(HttpLite.poolStats()));
+  }
+
+  static String formatHttpPool(HttpLite.PoolStats stats) {
+    return String.format(
+        Locale.ROOT,
+        "HTTP connections: %,d opened, %,d reused, %d idle",
+        stats.connectionsOpened(),
+        stats.connectionsReused(),
+        stats.idleConnections());
+  }
+
   private void syncRows() {
     RuntimeDiagnosticEvent selected = selectedEvent();
     List<RuntimeDiagnosticEvent> rows = service != null ? service.recentEvents(800) : List.of();
@@ -475,6 +614,8 @@ public final class JfrDiagnosticsPanel extends JPanel {
     pauseRowsCheck.setEnabled(available);
     clearAllRowsButton.setEnabled(available);
     refreshButton.setEnabled(available);
+    resetPipelineButton.setEnabled(available);
+    resetExecutorsButton.setEnabled(available);
     exportMemoryBundleButton.setEnabled(available && !exportInProgress);
   }
 
@@ -786,6 +927,182 @@ public final class JfrDiagnosticsPanel extends JPanel {
     }
   }
 
+  private static String formatMicros(long micros) {
+    if (micros < 1_000L) return micros + " µs";
+    if (micros < 1_000_000L) return String.format(Locale.ROOT, "%.1f ms", micros / 1_000.0d);
+    return String.format(Locale.ROOT, "%.2f s", micros / 1_000_000.0d);
+  }
+
+  private static final class PipelineStagesTableModel extends AbstractTableModel {
+    private final List<PipelineStageStats> rows = new ArrayList<>();
+
+    @Override
+    public int getRowCount() {
+      return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+      return 6;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return switch (column) {
+        case PIPE_COL_STAGE -> "Stage";
+        case PIPE_COL_COUNT -> "Count";
+        case PIPE_COL_P50 -> "p50";
+        case PIPE_COL_P99 -> "p99";
+        case PIPE_COL_MAX -> "Max";
+        case PIPE_COL_HISTOGRAM -> "Distribution";
+        default -> "";
+      };
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+      if (rowIndex < 0 || rowIndex >= rows.size()) return "";
+      PipelineStageStats row = rows.get(rowIndex);
+      boolean empty = row.count() == 0L;
+      return switch (columnIndex) {
+        case PIPE_COL_STAGE -> row.stage();
+        case PIPE_COL_COUNT -> Long.toString(row.count());
+        case PIPE_COL_P50 -> empty ? "" : formatMicros(row.p50Micros());
+        case PIPE_COL_P99 -> empty ? "" : formatMicros(row.p99Micros());
+        case PIPE_COL_MAX -> empty ? "" : formatMicros(row.maxMicros());
+        case PIPE_COL_HISTOGRAM -> row;
+        default -> "";
+      };
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+      return columnIndex == PIPE_COL_HISTOGRAM ? PipelineStageStats.class : String.class;
+    }
+
+    void setRows(List<PipelineStageStats> nextRows) {
+      rows.clear();
+      if (nextRows != null) rows.addAll(nextRows);
+      fireTableDataChanged();
+    }
+  }
+
+  private static final class ExecutorLanesTableModel extends AbstractTableModel {
+    private final List<ExecutorTelemetry.LaneStats> rows = new ArrayList<>();
+
+    @Override
+    public int getRowCount() {
+      return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+      return 11;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return switch (column) {
+        case EXEC_COL_LANE -> "Lane";
+        case EXEC_COL_QUEUE -> "Queue";
+        case EXEC_COL_RUNNING -> "Running";
+        case EXEC_COL_SUBMITTED -> "Submitted";
+        case EXEC_COL_COMPLETED -> "Completed";
+        case EXEC_COL_FAILED -> "Failed";
+        case EXEC_COL_REJECTED -> "Rejected";
+        case EXEC_COL_WAIT_P50 -> "Wait p50";
+        case EXEC_COL_WAIT_P99 -> "Wait p99";
+        case EXEC_COL_RUN_P50 -> "Run p50";
+        case EXEC_COL_RUN_P99 -> "Run p99";
+        default -> "";
+      };
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+      if (rowIndex < 0 || rowIndex >= rows.size()) return "";
+      ExecutorTelemetry.LaneStats row = rows.get(rowIndex);
+      return switch (columnIndex) {
+        case EXEC_COL_LANE -> row.name();
+        case EXEC_COL_QUEUE -> row.queueDepth();
+        case EXEC_COL_RUNNING -> row.running();
+        case EXEC_COL_SUBMITTED -> row.submitted();
+        case EXEC_COL_COMPLETED -> row.completed();
+        case EXEC_COL_FAILED -> row.failed();
+        case EXEC_COL_REJECTED -> row.rejected();
+        case EXEC_COL_WAIT_P50 -> row.waitP50Micros();
+        case EXEC_COL_WAIT_P99 -> row.waitP99Micros();
+        case EXEC_COL_RUN_P50 -> row.runP50Micros();
+        case EXEC_COL_RUN_P99 -> row.runP99Micros();
+        default -> "";
+      };
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+      return switch (columnIndex) {
+        case EXEC_COL_LANE -> String.class;
+        case EXEC_COL_QUEUE, EXEC_COL_RUNNING -> Integer.class;
+        default -> Long.class;
+      };
+    }
+
+    void setRows(List<ExecutorTelemetry.LaneStats> nextRows) {
+      rows.clear();
+      if (nextRows != null) rows.addAll(nextRows);
+      fireTableDataChanged();
+    }
+  }
+
+  /** Paints one bar per latency bucket, scaled to the fullest bucket of the row. */
+  private static final class HistogramCellRenderer extends JComponent
+      implements TableCellRenderer {
+    private List<Long> buckets = List.of();
+
+    @Override
+    public java.awt.Component getTableCellRendererComponent(
+        JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+      buckets = value instanceof PipelineStageStats stats ? stats.bucketCounts() : List.of();
+      setToolTipText(value instanceof PipelineStageStats stats ? tooltip(stats) : null);
+      return this;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+      if (buckets.isEmpty()) return;
+      long peak = 0L;
+      for (long b : buckets) peak = Math.max(peak, b);
+      if (peak <= 0L) return;
+      int n = buckets.size();
+      int h = getHeight() - 4;
+      double slot = (getWidth() - 4) / (double) n;
+      g.setColor(CircularGauge.uiColor("Component.accentColor", new Color(0x3B82F6)));
+      for (int i = 0; i < n; i++) {
+        long count = buckets.get(i);
+        if (count <= 0L) continue;
+        // Square-root scale keeps the tail buckets visible next to a tall mode.
+        int barH = Math.max(1, (int) Math.round(h * Math.sqrt(count / (double) peak)));
+        int x = 2 + (int) Math.round(i * slot);
+        int w = Math.max(1, (int) Math.round(slot) - 2);
+        g.fillRect(x, 2 + h - barH, w, barH);
+      }
+    }
+
+    private static String tooltip(PipelineStageStats stats) {
+      StringBuilder sb = new StringBuilder("<html>");
+      List<Long> bounds = PipelineStageStats.bucketUpperMicros();
+      for (int i = 0; i < stats.bucketCounts().size() && i < bounds.size(); i++) {
+        long upper = bounds.get(i);
+        String label =
+            upper == Long.MAX_VALUE
+                ? "&gt; " + formatMicros(bounds.get(i - 1))
+                : "&le; " + formatMicros(upper);
+        sb.append(label).append(": ").append(stats.bucketCounts().get(i)).append("<br>");
+      }
+      return sb.append("</html>").toString();
+    }
+  }
+
   private static final class CircularGauge extends JComponent {
     private final String title;
     private String valueLabel = "n/a";
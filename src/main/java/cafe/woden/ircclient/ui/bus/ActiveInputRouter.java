@@ -34,4 +34,10 @@ public class ActiveInputRouter {
     if (p == null) return;
     p.setNickCompletions(nicks);
   }
+
+  public void applyNickCompletionDeltaForActive(String removedNick, String addedNick) {
+    MessageInputPanel p = active.get();
+    if (p == null) return;
+    p.applyNickCompletionDelta(removedNick, addedNick);
+  }
 }
@@ -0,0 +1,250 @@
+package cafe.woden.ircclient.ui.channellist;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Columnar store for one server's /LIST results, with an n-gram index for filtering and cached sort
+ * orders.
+ *
+ * <p>Rows are appended by a single writer (the EDT) and never change afterwards, so a reader that
+ * has seen {@link #size()} can read every row below it without locking. The n-gram index and sort
+ * orders belong to the directory worker thread: {@link #query(String, SortKey, boolean)} catches
+ * them up to the current size before answering, so ingesting a batch never pays for indexing.
+ */
+final class ChannelDirectory {
+
+  static final int GRAM = 3;
+
+  enum SortKey {
+    NONE,
+    CHANNEL,
+    USERS,
+    TOPIC
+  }
+
+  private record Columns(String[] channels, int[] users, String[] topics) {
+    int capacity() {
+      return channels.length;
+    }
+  }
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private volatile Columns columns =
+      new Columns(
+          new String[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], new String[INITIAL_CAPACITY]);
+  private volatile int size;
+
+  // Writer (EDT) state.
+  private final Map<String, Integer> firstRowByChannel = new HashMap<>();
+
+  // Worker state.
+  private String[] haystacks = new String[0];
+  private String[] lowerChannels = new String[0];
+  private String[] lowerTopics = new String[0];
+  private int indexed;
+  private final Map<Long, Postings> postingsByGram = new HashMap<>();
+  private final EnumMap<SortKey, int[]> orders = new EnumMap<>(SortKey.class);
+
+  /** Rows currently stored; every row below this index is safe to read from any thread. */
+  int size() {
+    return size;
+  }
+
+  /** Appends a batch. Writer thread only. */
+  void append(List<ChannelListPanel.ListEntryRow> entries) {
+    if (entries == null || entries.isEmpty()) return;
+    Columns cols = columns;
+    int n = size;
+    for (ChannelListPanel.ListEntryRow entry : entries) {
+      if (entry == null) continue;
+      String channel = Objects.toString(entry.channel(), "").trim();
+      if (channel.isEmpty()) continue;
+      if (n == cols.capacity()) {
+        int grown = cols.capacity() * 2;
+        cols =
+            new Columns(
+                Arrays.copyOf(cols.channels(), grown),
+                Arrays.copyOf(cols.users(), grown),
+                Arrays.copyOf(cols.topics(), grown));
+      }
+      cols.channels()[n] = channel;
+      cols.users()[n] = Math.max(0, entry.visibleUsers());
+      cols.topics()[n] = Objects.toString(entry.topic(), "").trim();
+      firstRowByChannel.putIfAbsent(channel.toLowerCase(Locale.ROOT), n);
+      n++;
+    }
+    columns = cols;
+    size = n;
+  }
+
+  String channel(int row) {
+    return columns.channels()[row];
+  }
+
+  int users(int row) {
+    return columns.users()[row];
+  }
+
+  String topic(int row) {
+    return columns.topics()[row];
+  }
+
+  /** First row for {@code channel} (case-insensitive), or -1. Writer thread only. */
+  int rowOf(String channel) {
+    String key = Objects.toString(channel, "").trim().toLowerCase(Locale.ROOT);
+    if (key.isEmpty()) return -1;
+    Integer row = firstRowByChannel.get(key);
+    return row == null ? -1 : row;
+  }
+
+  /** Rows readable by any thread, in insertion order. */
+  List<ChannelListPanel.ListEntryRow> entries() {
+    int n = size;
+    Columns cols = columns;
+    ChannelListPanel.ListEntryRow[] out = new ChannelListPanel.ListEntryRow[n];
+    for (int i = 0; i < n; i++) {
+      out[i] =
+          new ChannelListPanel.ListEntryRow(cols.channels()[i], cols.users()[i], cols.topics()[i]);
+    }
+    return List.of(out);
+  }
+
+  /**
+   * Rows matching every whitespace-separated term of {@code filter} (against channel, user count or
+   * topic, case-insensitive), in the requested order. Worker thread only.
+   */
+  int[] query(String filter, SortKey sortKey, boolean ascending) {
+    int n = catchUp();
+    BitSet matches = null;
+    for (String term : terms(filter)) {
+      BitSet candidates = candidates(term, n);
+      if (matches == null) {
+        matches = candidates;
+      } else {
+        matches.and(candidates);
+      }
+      if (matches.isEmpty()) return new int[0];
+    }
+
+    int[] order = order(sortKey == null ? SortKey.NONE : sortKey, n);
+    int[] out = new int[matches == null ? n : matches.cardinality()];
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+      int pos = ascending ? i : n - 1 - i;
+      int row = order == null ? pos : order[pos];
+      if (matches == null || matches.get(row)) out[count++] = row;
+    }
+    return out;
+  }
+
+  private int catchUp() {
+    int n = size;
+    if (indexed >= n) return n;
+    Columns cols = columns;
+    if (haystacks.length < n) {
+      int capacity = Math.max(n, haystacks.length * 2);
+      haystacks = Arrays.copyOf(haystacks, capacity);
+      lowerChannels = Arrays.copyOf(lowerChannels, capacity);
+      lowerTopics = Arrays.copyOf(lowerTopics, capacity);
+    }
+    for (int row = indexed; row < n; row++) {
+      String channel = cols.channels()[row].toLowerCase(Locale.ROOT);
+      String topic = cols.topics()[row].toLowerCase(Locale.ROOT);
+      String haystack = channel + '\0' + cols.users()[row] + '\0' + topic;
+      lowerChannels[row] = channel;
+      lowerTopics[row] = topic;
+      haystacks[row] = haystack;
+      for (int i = 0; i + GRAM <= haystack.length(); i++) {
+        postingsByGram.computeIfAbsent(gramAt(haystack, i), __ -> new Postings()).add(row);
+      }
+    }
+    indexed = n;
+    return n;
+  }
+
+  private BitSet candidates(String term, int n) {
+    BitSet out = new BitSet(n);
+    if (term.length() < GRAM) {
+      for (int row = 0; row < n; row++) {
+        if (haystacks[row].contains(term)) out.set(row);
+      }
+      return out;
+    }
+
+    // Every match contains every gram of the term, so the rarest gram bounds the scan.
+    Postings rarest = null;
+    for (int i = 0; i + GRAM <= term.length(); i++) {
+      Postings p = postingsByGram.get(gramAt(term, i));
+      if (p == null) return out;
+      if (rarest == null || p.size < rarest.size) rarest = p;
+    }
+    for (int i = 0; i < rarest.size; i++) {
+      int row = rarest.rows[i];
+      if (row < n && haystacks[row].contains(term)) out.set(row);
+    }
+    return out;
+  }
+
+  private int[] order(SortKey key, int n) {
+    if (key == SortKey.NONE) return null;
+    int[] cached = orders.get(key);
+    if (cached != null && cached.length == n) return cached;
+
+    int[] order;
+    if (key == SortKey.USERS) {
+      Columns cols = columns;
+      long[] packed = new long[n];
+      for (int row = 0; row < n; row++) {
+        packed[row] = ((long) cols.users()[row] << 32) | row;
+      }
+      Arrays.sort(packed);
+      order = new int[n];
+      for (int i = 0; i < n; i++) {
+        order[i] = (int) packed[i];
+      }
+    } else {
+      String[] keys = key == SortKey.CHANNEL ? lowerChannels : lowerTopics;
+      Integer[] boxed = new Integer[n];
+      for (int row = 0; row < n; row++) {
+        boxed[row] = row;
+      }
+      Arrays.sort(boxed, (a, b) -> keys[a].compareTo(keys[b]));
+      order = new int[n];
+      for (int i = 0; i < n; i++) {
+        order[i] = boxed[i];
+      }
+    }
+    orders.put(key, order);
+    return order;
+  }
+
+  static String[] terms(String filter) {
+    String f = Objects.toString(filter, "").trim().toLowerCase(Locale.ROOT);
+    return f.isEmpty() ? new String[0] : f.split("\\s+");
+  }
+
+  private static long gramAt(String s, int index) {
+    return ((long) s.charAt(index) << 32)
+        | ((long) s.charAt(index + 1) << 16)
+        | (long) s.charAt(index + 2);
+  }
+
+  private static final class Postings {
+    private int[] rows = new int[4];
+    private int size;
+
+    void add(int row) {
+      if (size > 0 && rows[size - 1] == row) return;
+      if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+      rows[size++] = row;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package cafe.woden.ircclient.ui.channellist;
+
+import cafe.woden.ircclient.config.api.RuntimeConfigPathPort;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.jmolecules.architecture.layered.InterfaceLayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Persists the last full /LIST per server next to the runtime config, so the channel directory is
+ * usable straight away on the next connect.
+ *
+ * <p>Snapshots are small gzip files under {@code channel-directory/}; all methods do blocking IO
+ * and must be called off the EDT.
+ */
+@Component
+@InterfaceLayer
+public class ChannelDirectorySnapshotStore {
+
+  private static final Logger log = LoggerFactory.getLogger(ChannelDirectorySnapshotStore.class);
+  private static final int MAGIC = 0x49434c44; // "ICLD"
+  private static final int VERSION = 1;
+  static final String DIRECTORY_NAME = "channel-directory";
+
+  record Snapshot(Instant savedAt, List<ChannelListPanel.ListEntryRow> entries) {}
+
+  private final Path directory;
+
+  public ChannelDirectorySnapshotStore(RuntimeConfigPathPort runtimeConfigPathPort) {
+    this(resolveDirectory(runtimeConfigPathPort));
+  }
+
+  ChannelDirectorySnapshotStore(Path directory) {
+    this.directory = directory;
+  }
+
+  Optional<Snapshot> load(String serverId) {
+    Path file = fileFor(serverId);
+    if (file == null || !Files.isRegularFile(file)) return Optional.empty();
+    try (DataInputStream in =
+        new DataInputStream(
+            new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        log.debug("[ircafe] Ignoring channel directory snapshot with unknown format: {}", file);
+        return Optional.empty();
+      }
+      Instant savedAt = Instant.ofEpochMilli(in.readLong());
+      int count = in.readInt();
+      ArrayList<ChannelListPanel.ListEntryRow> entries = new ArrayList<>(Math.max(0, count));
+      for (int i = 0; i < count; i++) {
+        String channel = in.readUTF();
+        int users = in.readInt();
+        String topic = in.readUTF();
+        entries.add(new ChannelListPanel.ListEntryRow(channel, users, topic));
+      }
+      return Optional.of(new Snapshot(savedAt, List.copyOf(entries)));
+    } catch (IOException | RuntimeException e) {
+      log.warn("[ircafe] Could not read channel directory snapshot '{}'", file, e);
+      return Optional.empty();
+    }
+  }
+
+  void save(String serverId, List<ChannelListPanel.ListEntryRow> entries) {
+    Path file = fileFor(serverId);
+    if (file == null || entries == null || entries.isEmpty()) return;
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(file.getParent());
+      try (DataOutputStream out =
+          new DataOutputStream(
+              new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(entries.size());
+        for (ChannelListPanel.ListEntryRow entry : entries) {
+          out.writeUTF(Objects.toString(entry.channel(), ""));
+          out.writeInt(entry.visibleUsers());
+          out.writeUTF(Objects.toString(entry.topic(), ""));
+        }
+      }
+      try {
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("[ircafe] Could not write channel directory snapshot '{}'", file, e);
+      try {
+        Files.deleteIfExists(tmp);
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  void delete(String serverId) {
+    Path file = fileFor(serverId);
+    if (file == null) return;
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("[ircafe] Could not delete channel directory snapshot '{}'", file, e);
+    }
+  }
+
+  Path fileFor(String serverId) {
+    String sid = Objects.toString(serverId, "").trim();
+    if (directory == null || sid.isEmpty()) return null;
+    String safe = sid.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9._-]", "_");
+    return directory.resolve(safe + ".bin.gz");
+  }
+
+  private static Path resolveDirectory(RuntimeConfigPathPort runtimeConfigPathPort) {
+    Path config = runtimeConfigPathPort == null ? null : runtimeConfigPathPort.runtimeConfigPath();
+    if (config == null || config.toString().isBlank()) return null;
+    Path parent = config.toAbsolutePath().getParent();
+    return parent == null ? null : parent.resolve(DIRECTORY_NAME);
+  }
+}
@@ -5,6 +5,7 @@ import cafe.woden.ircclient.state.api.NegotiatedModeSemantics;
 import cafe.woden.ircclient.ui.backend.BackendUiContext;
 import cafe.woden.ircclient.ui.backend.BackendUiProfile;
 import cafe.woden.ircclient.ui.icons.SvgIcons;
+import cafe.woden.ircclient.util.VirtualThreads;
 import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.BorderLayout;
@@ -24,14 +25,20 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
@@ -54,14 +61,12 @@ import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
-import javax.swing.RowFilter;
 import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import javax.swing.TransferHandler;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.table.AbstractTableModel;
-import javax.swing.table.TableRowSorter;
 import net.miginfocom.swing.MigLayout;
 
 /** Swing panel for server /LIST results and managed channel state/actions. */
@@ -214,6 +219,12 @@ public final class ChannelListPanel extends JPanel {
   private static final int ACTION_ICON_SIZE = 16;
   private static final Dimension ACTION_BUTTON_SIZE = new Dimension(28, 28);
 
+  // Filtering, sorting and snapshot IO for every panel run here, one task at a time.
+  private static final ExecutorService DIRECTORY_EXECUTOR =
+      VirtualThreads.newSingleThreadExecutor("ircafe-channel-directory");
+  private static final DateTimeFormatter SNAPSHOT_TIME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
   private final ChannelListUxMode ircListUxMode = new IrcChannelListUxMode();
   private final ChannelListUxMode matrixListUxMode = new MatrixChannelListUxMode();
   private final ChannelListUxMode.Context listUxContext = new ChannelListUxModeContext();
@@ -221,7 +232,6 @@ public final class ChannelListPanel extends JPanel {
   private final JTable listTable = new JTable(listModel);
   private final JTextArea listSubtitle = createSubtitleArea(ircListUxMode.defaultHint());
   private final JTextField filterField = new JTextField();
-  private final TableRowSorter<ChannelListTableModel> listSorter = new TableRowSorter<>(listModel);
   private final JButton runListButton = new JButton();
   private final JButton runAlisButton = new JButton();
   private final JButton runMatrixNextButton = new JButton();
@@ -243,7 +253,12 @@ public final class ChannelListPanel extends JPanel {
       new JComboBox<>(ManagedSortMode.values());
   private final JLabel managedSubtitle = new JLabel(MANAGED_HINT);
 
-  private final Map<String, ArrayList<Row>> rowsByServer = new HashMap<>();
+  private final Map<String, ChannelDirectory> directoriesByServer = new HashMap<>();
+  private final Set<String> snapshotLoadAttempted = new HashSet<>();
+  private final AtomicLong listQueryGeneration = new AtomicLong();
+  private ChannelDirectory.SortKey listSortKey = ChannelDirectory.SortKey.NONE;
+  private boolean listSortAscending = true;
+  private volatile ChannelDirectorySnapshotStore snapshotStore;
   private final Map<String, String> statusByServer = new HashMap<>();
   private final Map<String, Boolean> loadingByServer = new HashMap<>();
   private final Map<String, ChannelListRequestType> requestTypeByServer = new HashMap<>();
@@ -359,9 +374,19 @@ public final class ChannelListPanel extends JPanel {
     listTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
     listTable.setShowHorizontalLines(false);
     listTable.setShowVerticalLines(false);
-    listTable.setRowSorter(listSorter);
-    listSorter.setSortsOnUpdates(false);
     listTable.getTableHeader().setReorderingAllowed(false);
+    listTable
+        .getTableHeader()
+        .addMouseListener(
+            new MouseAdapter() {
+              @Override
+              public void mouseClicked(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e)) return;
+                int viewColumn = listTable.getTableHeader().columnAtPoint(e.getPoint());
+                if (viewColumn < 0) return;
+                toggleListSort(listTable.convertColumnIndexToModel(viewColumn));
+              }
+            });
     listTable.getColumnModel().getColumn(LIST_COL_CHANNEL).setPreferredWidth(220);
     listTable.getColumnModel().getColumn(LIST_COL_USERS).setPreferredWidth(90);
     listTable.getColumnModel().getColumn(LIST_COL_TOPIC).setPreferredWidth(880);
@@ -649,6 +674,10 @@ public final class ChannelListPanel extends JPanel {
     return serverId;
   }
 
+  public void setDirectorySnapshotStore(ChannelDirectorySnapshotStore snapshotStore) {
+    this.snapshotStore = snapshotStore;
+  }
+
   public void setOnJoinChannel(Consumer<String> onJoinChannel) {
     this.onJoinChannel = onJoinChannel;
   }
@@ -827,7 +856,8 @@ public final class ChannelListPanel extends JPanel {
 
     uxModeForServer(sid).onBeginList(sid, banner);
 
-    rowsByServer.put(sid, new ArrayList<>());
+    directoriesByServer.put(sid, new ChannelDirectory());
+    snapshotLoadAttempted.add(sid);
     statusByServer.put(sid, normalizeBanner(banner));
     loadingByServer.put(sid, Boolean.TRUE);
     if (requestTypeByServer.getOrDefault(sid, ChannelListRequestType.UNKNOWN)
@@ -848,24 +878,20 @@ public final class ChannelListPanel extends JPanel {
     String sid = normalizeServerId(serverId);
     if (sid.isEmpty() || entries == null || entries.isEmpty()) return;
 
-    ArrayList<Row> toAppend = new ArrayList<>(entries.size());
-    for (ListEntryRow entry : entries) {
-      if (entry == null) continue;
-      String ch = Objects.toString(entry.channel(), "").trim();
-      if (ch.isEmpty()) continue;
-      toAppend.add(
-          new Row(
-              ch, Math.max(0, entry.visibleUsers()), Objects.toString(entry.topic(), "").trim()));
-    }
-    if (toAppend.isEmpty()) return;
-
-    ArrayList<Row> rows = rowsByServer.computeIfAbsent(sid, __ -> new ArrayList<>());
-    rows.addAll(toAppend);
+    ChannelDirectory directory =
+        directoriesByServer.computeIfAbsent(sid, __ -> new ChannelDirectory());
+    int before = directory.size();
+    directory.append(entries);
+    if (directory.size() == before) return;
 
     if (sid.equals(this.serverId)) {
-      listModel.addRows(toAppend);
-      updateListHeader();
-      updateListButtons();
+      if (isListViewUnfiltered()) {
+        listModel.showAppended(directory);
+        updateListHeader();
+        updateListButtons();
+      } else {
+        requestListQuery();
+      }
     }
     refreshOpenDetailsDialog();
   }
@@ -876,6 +902,8 @@ public final class ChannelListPanel extends JPanel {
 
     String base = Objects.toString(summary, "").trim();
     if (base.isEmpty()) base = "End of /LIST";
+    ChannelListRequestType requestType =
+        requestTypeByServer.getOrDefault(sid, ChannelListRequestType.UNKNOWN);
     uxModeForServer(sid).onEndList(sid, base);
     statusByServer.put(sid, base);
     loadingByServer.put(sid, Boolean.FALSE);
@@ -883,6 +911,7 @@ public final class ChannelListPanel extends JPanel {
       updateListHeader();
       updateListButtons();
     }
+    saveDirectorySnapshot(sid, requestType);
     refreshOpenDetailsDialog();
   }
 
@@ -931,11 +960,149 @@ public final class ChannelListPanel extends JPanel {
 
   private void refreshListRows() {
     String sid = this.serverId;
-    List<Row> rows =
-        sid.isEmpty() ? List.of() : List.copyOf(rowsByServer.getOrDefault(sid, new ArrayList<>()));
-    listModel.setRows(rows);
-    updateListHeader();
-    updateListButtons();
+    if (!sid.isEmpty() && !directoriesByServer.containsKey(sid)) {
+      loadDirectorySnapshot(sid);
+    }
+    requestListQuery();
+  }
+
+  private boolean isListViewUnfiltered() {
+    return listSortKey == ChannelDirectory.SortKey.NONE
+        && Objects.toString(filterField.getText(), "").isBlank();
+  }
+
+  /**
+   * Re-applies the filter and sort to the current server's directory. The unfiltered, unsorted view
+   * is shown straight away; anything else is computed on the directory worker and only applied if
+   * no newer request has been made in the meantime.
+   */
+  private void requestListQuery() {
+    String sid = this.serverId;
+    ChannelDirectory directory = sid.isEmpty() ? null : directoriesByServer.get(sid);
+    long generation = listQueryGeneration.incrementAndGet();
+    if (directory == null || isListViewUnfiltered()) {
+      String selected = selectedServerListChannel();
+      listModel.showAll(directory);
+      restoreListSelection(selected);
+      updateListHeader();
+      updateListButtons();
+      return;
+    }
+
+    String filter = Objects.toString(filterField.getText(), "").trim();
+    ChannelDirectory.SortKey sortKey = listSortKey;
+    boolean ascending = listSortAscending;
+    DIRECTORY_EXECUTOR.execute(
+        () -> {
+          if (listQueryGeneration.get() != generation) return;
+          int[] rows = directory.query(filter, sortKey, ascending);
+          SwingUtilities.invokeLater(
+              () -> {
+                if (listQueryGeneration.get() != generation) return;
+                String selected = selectedServerListChannel();
+                listModel.showView(directory, rows);
+                restoreListSelection(selected);
+                updateListHeader();
+                updateListButtons();
+              });
+        });
+  }
+
+  private String selectedServerListChannel() {
+    Row selected = selectedServerListRow();
+    return selected == null ? "" : selected.channel();
+  }
+
+  private void restoreListSelection(String channel) {
+    if (channel == null || channel.isEmpty()) return;
+    int viewRow = listModel.indexOfChannel(channel);
+    if (viewRow >= 0) {
+      listTable.getSelectionModel().setSelectionInterval(viewRow, viewRow);
+    }
+  }
+
+  private void toggleListSort(int column) {
+    ChannelDirectory.SortKey key =
+        switch (column) {
+          case LIST_COL_CHANNEL -> ChannelDirectory.SortKey.CHANNEL;
+          case LIST_COL_USERS -> ChannelDirectory.SortKey.USERS;
+          case LIST_COL_TOPIC -> ChannelDirectory.SortKey.TOPIC;
+          default -> ChannelDirectory.SortKey.NONE;
+        };
+    if (key == ChannelDirectory.SortKey.NONE) return;
+    if (listSortKey == key) {
+      listSortAscending = !listSortAscending;
+    } else {
+      listSortKey = key;
+      // Busiest channels first is the useful default for user counts.
+      listSortAscending = key != ChannelDirectory.SortKey.USERS;
+    }
+    updateListSortHeaders();
+    requestListQuery();
+  }
+
+  private void updateListSortHeaders() {
+    for (int col = 0; col < listModel.getColumnCount(); col++) {
+      String name = listModel.getColumnName(col);
+      if (sortKeyColumn(listSortKey) == col) {
+        name += listSortAscending ? " \u25B2" : " \u25BC";
+      }
+      listTable.getColumnModel().getColumn(col).setHeaderValue(name);
+    }
+    listTable.getTableHeader().repaint();
+  }
+
+  private static int sortKeyColumn(ChannelDirectory.SortKey key) {
+    return switch (key) {
+      case CHANNEL -> LIST_COL_CHANNEL;
+      case USERS -> LIST_COL_USERS;
+      case TOPIC -> LIST_COL_TOPIC;
+      case NONE -> -1;
+    };
+  }
+
+  private void loadDirectorySnapshot(String sid) {
+    ChannelDirectorySnapshotStore store = snapshotStore;
+    if (store == null || isMatrixServer(sid) || !snapshotLoadAttempted.add(sid)) return;
+    DIRECTORY_EXECUTOR.execute(
+        () ->
+            store
+                .load(sid)
+                .ifPresent(
+                    snapshot ->
+                        SwingUtilities.invokeLater(
+                            () -> installDirectorySnapshot(sid, snapshot))));
+  }
+
+  private void installDirectorySnapshot(
+      String sid, ChannelDirectorySnapshotStore.Snapshot snapshot) {
+    // A live /LIST (or a clear) since the load was queued wins over the cached copy.
+    if (directoriesByServer.containsKey(sid) || snapshot.entries().isEmpty()) return;
+    ChannelDirectory directory = new ChannelDirectory();
+    directory.append(snapshot.entries());
+    directoriesByServer.put(sid, directory);
+    if (Objects.toString(statusByServer.get(sid), "").isBlank()) {
+      statusByServer.put(
+          sid,
+          "Cached /LIST from "
+              + SNAPSHOT_TIME_FORMAT.format(snapshot.savedAt())
+              + "; run /list to refresh");
+    }
+    if (sid.equals(this.serverId)) {
+      requestListQuery();
+    }
+    refreshOpenDetailsDialog();
+  }
+
+  private void saveDirectorySnapshot(String sid, ChannelListRequestType requestType) {
+    ChannelDirectorySnapshotStore store = snapshotStore;
+    if (store == null || isMatrixServer(sid)) return;
+    // ALIS and Matrix results are searches, not the whole network.
+    if (requestType == ChannelListRequestType.ALIS
+        || requestType == ChannelListRequestType.MATRIX_LIST) return;
+    ChannelDirectory directory = directoriesByServer.get(sid);
+    if (directory == null || directory.size() == 0) return;
+    DIRECTORY_EXECUTOR.execute(() -> store.save(sid, directory.entries()));
   }
 
   private void refreshManagedRows() {
@@ -1009,8 +1176,9 @@ public final class ChannelListPanel extends JPanel {
       return;
     }
 
-    int totalCount = listModel.getRowCount();
-    int visibleCount = listTable.getRowCount();
+    ChannelDirectory directory = directoriesByServer.get(sid);
+    int totalCount = directory == null ? 0 : directory.size();
+    int visibleCount = listModel.getRowCount();
     String filter = Objects.toString(filterField.getText(), "").trim();
     boolean filtered = !filter.isEmpty();
     String status = Objects.toString(statusByServer.get(sid), "").trim();
@@ -1057,34 +1225,7 @@ public final class ChannelListPanel extends JPanel {
   }
 
   private void applyListFilter() {
-    String filter = Objects.toString(filterField.getText(), "").trim();
-    if (filter.isEmpty()) {
-      listSorter.setRowFilter(null);
-      updateListHeader();
-      return;
-    }
-
-    String[] terms = filter.toLowerCase(Locale.ROOT).split("\\s+");
-    listSorter.setRowFilter(
-        new RowFilter<>() {
-          @Override
-          public boolean include(Entry<? extends ChannelListTableModel, ? extends Integer> entry) {
-            String channel =
-                Objects.toString(entry.getStringValue(LIST_COL_CHANNEL), "")
-                    .toLowerCase(Locale.ROOT);
-            String users =
-                Objects.toString(entry.getStringValue(LIST_COL_USERS), "").toLowerCase(Locale.ROOT);
-            String topic =
-                Objects.toString(entry.getStringValue(LIST_COL_TOPIC), "").toLowerCase(Locale.ROOT);
-            for (String term : terms) {
-              if (term == null || term.isBlank()) continue;
-              if (channel.contains(term) || users.contains(term) || topic.contains(term)) continue;
-              return false;
-            }
-            return true;
-          }
-        });
-    updateListHeader();
+    requestListQuery();
   }
 
   private void runListRequested() {
@@ -1127,7 +1268,12 @@ public final class ChannelListPanel extends JPanel {
   private void clearCurrentServerListData() {
     String sid = normalizeServerId(this.serverId);
     if (sid.isEmpty()) return;
-    rowsByServer.remove(sid);
+    directoriesByServer.remove(sid);
+    snapshotLoadAttempted.add(sid);
+    ChannelDirectorySnapshotStore store = snapshotStore;
+    if (store != null) {
+      DIRECTORY_EXECUTOR.execute(() -> store.delete(sid));
+    }
     statusByServer.remove(sid);
     loadingByServer.remove(sid);
     requestTypeByServer.remove(sid);
@@ -1619,12 +1765,10 @@ public final class ChannelListPanel extends JPanel {
   private Row findListRowByChannel(String sid, String channel) {
     String needle = normalizeChannel(channel);
     if (needle.isEmpty()) return null;
-    List<Row> rows = rowsByServer.getOrDefault(sid, new ArrayList<>());
-    for (Row row : rows) {
-      if (row == null) continue;
-      if (needle.equalsIgnoreCase(normalizeChannel(row.channel()))) return row;
-    }
-    return null;
+    ChannelDirectory directory = directoriesByServer.get(sid);
+    int row = directory == null ? -1 : directory.rowOf(needle);
+    if (row < 0) return null;
+    return new Row(directory.channel(row), directory.users(row), directory.topic(row));
   }
 
   public void refreshOpenChannelDetails(String serverId, String channel) {
@@ -2103,7 +2247,8 @@ public final class ChannelListPanel extends JPanel {
   private boolean hasClearableListData(String serverId) {
     String sid = normalizeServerId(serverId);
     if (sid.isEmpty()) return false;
-    if (!rowsByServer.getOrDefault(sid, new ArrayList<>()).isEmpty()) return true;
+    ChannelDirectory directory = directoriesByServer.get(sid);
+    if (directory != null && directory.size() > 0) return true;
     return !Objects.toString(statusByServer.get(sid), "").trim().isEmpty();
   }
 
@@ -2464,51 +2609,65 @@ public final class ChannelListPanel extends JPanel {
     }
   }
 
+  /** Exposes the visible slice of a {@link ChannelDirectory}: all rows, or a filtered view. */
   private static final class ChannelListTableModel extends AbstractTableModel {
 
     private static final String[] COLS = {"Channel", "Users", "Topic"};
-    private final ArrayList<Row> rows = new ArrayList<>();
-
-    void setRows(List<Row> rows) {
-      this.rows.clear();
-      if (rows != null && !rows.isEmpty()) this.rows.addAll(rows);
+    private ChannelDirectory directory;
+    private int[] view; // null: every directory row in arrival order
+    private int rowCount;
+
+    void showAll(ChannelDirectory directory) {
+      this.directory = directory;
+      this.view = null;
+      this.rowCount = directory == null ? 0 : directory.size();
       fireTableDataChanged();
     }
 
-    void addRow(Row row) {
-      if (row == null) return;
-      int idx = rows.size();
-      rows.add(row);
-      fireTableRowsInserted(idx, idx);
+    void showAppended(ChannelDirectory directory) {
+      if (this.directory != directory || view != null) {
+        showAll(directory);
+        return;
+      }
+      int from = rowCount;
+      rowCount = directory.size();
+      if (rowCount > from) {
+        fireTableRowsInserted(from, rowCount - 1);
+      }
     }
 
-    void addRows(List<Row> rows) {
-      if (rows == null || rows.isEmpty()) return;
-      int from = this.rows.size();
-      for (Row row : rows) {
-        if (row == null) continue;
-        this.rows.add(row);
-      }
-      int to = this.rows.size() - 1;
-      if (to >= from) {
-        fireTableRowsInserted(from, to);
+    void showView(ChannelDirectory directory, int[] rows) {
+      this.directory = directory;
+      this.view = rows == null ? new int[0] : rows;
+      this.rowCount = view.length;
+      fireTableDataChanged();
+    }
+
+    int indexOfChannel(String channel) {
+      for (int i = 0; i < rowCount; i++) {
+        if (directory.channel(directoryRow(i)).equalsIgnoreCase(channel)) return i;
       }
+      return -1;
     }
 
     String channelAt(int row) {
-      if (row < 0 || row >= rows.size()) return "";
-      Row r = rows.get(row);
-      return r == null ? "" : r.channel();
+      if (row < 0 || row >= rowCount) return "";
+      return directory.channel(directoryRow(row));
     }
 
     Row rowAt(int row) {
-      if (row < 0 || row >= rows.size()) return null;
-      return rows.get(row);
+      if (row < 0 || row >= rowCount) return null;
+      int r = directoryRow(row);
+      return new Row(directory.channel(r), directory.users(r), directory.topic(r));
+    }
+
+    private int directoryRow(int row) {
+      return view == null ? row : view[row];
     }
 
     @Override
     public int getRowCount() {
-      return rows.size();
+      return rowCount;
     }
 
     @Override
@@ -2528,13 +2687,12 @@ public final class ChannelListPanel extends JPanel {
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-      if (rowIndex < 0 || rowIndex >= rows.size()) return "";
-      Row row = rows.get(rowIndex);
-      if (row == null) return "";
+      if (rowIndex < 0 || rowIndex >= rowCount) return "";
+      int row = directoryRow(rowIndex);
       return switch (columnIndex) {
-        case LIST_COL_CHANNEL -> row.channel();
-        case LIST_COL_USERS -> row.visibleUsers();
-        case LIST_COL_TOPIC -> row.topic();
+        case LIST_COL_CHANNEL -> directory.channel(row);
+        case LIST_COL_USERS -> directory.users(row);
+        case LIST_COL_TOPIC -> directory.topic(row);
         default -> "";
       };
     }
@@ -194,6 +194,13 @@ public class ChatDockManager {
     }
   }
 
+  public void noteNickActivity(TargetRef target, String nick) {
+    if (target == null || nick == null || nick.isBlank()) return;
+    PinnedChatDockable dock = openPinned.get(target);
+    if (dock == null) return;
+    dock.noteNickActivity(nick);
+  }
+
   public void normalizeIrcv3CapabilityUiState(String serverId, String capability) {
     String sid = java.util.Objects.toString(serverId, "").trim();
     String cap =
@@ -19,9 +19,18 @@ final class ChatTranscriptMatrixDisplayNameSupport {
   record Context(
       UiSettingsBus uiSettings,
       UserListStore userListStore,
-      Function<TargetRef, StyledDocument> documentForTarget) {
+      Function<TargetRef, StyledDocument> documentForTarget,
+      Function<TargetRef, ChatTranscriptSenderIndex> senderIndexForTarget) {
     Context {
       Objects.requireNonNull(documentForTarget, "documentForTarget");
+      if (senderIndexForTarget == null) senderIndexForTarget = target -> null;
+    }
+
+    Context(
+        UiSettingsBus uiSettings,
+        UserListStore userListStore,
+        Function<TargetRef, StyledDocument> documentForTarget) {
+      this(uiSettings, userListStore, documentForTarget, null);
     }
   }
 
@@ -88,55 +97,32 @@ final class ChatTranscriptMatrixDisplayNameSupport {
     if (len <= 0) return 0;
 
     ArrayList<FromRunReplacement> replacements = new ArrayList<>();
-    int off = 0;
-    while (off < len) {
-      Element el = doc.getCharacterElement(off);
-      if (el == null) break;
-
-      int start = Math.max(0, Math.min(el.getStartOffset(), len));
-      int end = Math.max(start, Math.min(el.getEndOffset(), len));
-      if (end <= start) {
-        off++;
-        continue;
-      }
-
-      AttributeSet attrs = el.getAttributes();
-      String styleId = Objects.toString(attrs.getAttribute(ChatStyles.ATTR_STYLE), "").trim();
-      if (!isMatrixTranscriptFromStyle(styleId)) {
-        off = end;
-        continue;
-      }
-
-      String rawFrom = Objects.toString(attrs.getAttribute(ChatStyles.ATTR_META_FROM), "").trim();
-      if (!looksLikeMatrixUserId(rawFrom)) {
-        off = end;
-        continue;
+    ChatTranscriptSenderIndex index =
+        userIdFilter.isEmpty() ? null : context.senderIndexForTarget().apply(ref);
+    if (index != null) {
+      // Only this user's sender labels, in document order.
+      for (int runStart : index.runStarts(userIdFilter)) {
+        Element el = doc.getCharacterElement(runStart);
+        if (el == null) continue;
+        FromRunReplacement rep = replacementFor(context, ref, doc, el, userIdFilter);
+        if (rep != null) replacements.add(rep);
       }
-      if (!userIdFilter.isEmpty() && !rawFrom.equalsIgnoreCase(userIdFilter)) {
+    } else {
+      int off = 0;
+      while (off < len) {
+        Element el = doc.getCharacterElement(off);
+        if (el == null) break;
+
+        int start = Math.max(0, Math.min(el.getStartOffset(), len));
+        int end = Math.max(start, Math.min(el.getEndOffset(), len));
+        if (end <= start) {
+          off++;
+          continue;
+        }
+        FromRunReplacement rep = replacementFor(context, ref, doc, el, userIdFilter);
+        if (rep != null) replacements.add(rep);
         off = end;
-        continue;
       }
-
-      String renderedFrom = renderTranscriptFrom(context, ref, rawFrom);
-      if (renderedFrom.isBlank() || renderedFrom.equalsIgnoreCase(rawFrom)) {
-        off = end;
-        continue;
-      }
-
-      String existing;
-      try {
-        existing = doc.getText(start, end - start);
-      } catch (Exception ignored) {
-        off = end;
-        continue;
-      }
-
-      String replacement = renderedFrom + matrixFromSuffix(styleId, existing);
-      if (!existing.equals(replacement)) {
-        replacements.add(
-            new FromRunReplacement(start, end, replacement, new SimpleAttributeSet(attrs)));
-      }
-      off = end;
     }
 
     for (int i = replacements.size() - 1; i >= 0; i--) {
@@ -151,10 +137,38 @@ final class ChatTranscriptMatrixDisplayNameSupport {
     return replacements.size();
   }
 
+  private static FromRunReplacement replacementFor(
+      Context context, TargetRef ref, StyledDocument doc, Element el, String userIdFilter) {
+    int len = doc.getLength();
+    int start = Math.max(0, Math.min(el.getStartOffset(), len));
+    int end = Math.max(start, Math.min(el.getEndOffset(), len));
+    if (end <= start) return null;
+
+    AttributeSet attrs = el.getAttributes();
+    String styleId = Objects.toString(attrs.getAttribute(ChatStyles.ATTR_STYLE), "").trim();
+    if (!isMatrixTranscriptFromStyle(styleId)) return null;
+
+    String rawFrom = Objects.toString(attrs.getAttribute(ChatStyles.ATTR_META_FROM), "").trim();
+    if (!looksLikeMatrixUserId(rawFrom)) return null;
+    if (!userIdFilter.isEmpty() && !rawFrom.equalsIgnoreCase(userIdFilter)) return null;
+
+    String renderedFrom = renderTranscriptFrom(context, ref, rawFrom);
+    if (renderedFrom.isBlank() || renderedFrom.equalsIgnoreCase(rawFrom)) return null;
+
+    String existing;
+    try {
+      existing = doc.getText(start, end - start);
+    } catch (Exception ignored) {
+      return null;
+    }
+
+    String replacement = renderedFrom + matrixFromSuffix(styleId, existing);
+    if (existing.equals(replacement)) return null;
+    return new FromRunReplacement(start, end, replacement, new SimpleAttributeSet(attrs));
+  }
+
   static boolean isMatrixTranscriptFromStyle(String styleId) {
-    return ChatStyles.STYLE_FROM.equals(styleId)
-        || ChatStyles.STYLE_NOTICE_FROM.equals(styleId)
-        || ChatStyles.STYLE_ACTION_FROM.equals(styleId);
+    return ChatTranscriptSenderIndex.isSenderLabelStyle(styleId);
   }
 
   static String matrixFromSuffix(String styleId, String existingText) {
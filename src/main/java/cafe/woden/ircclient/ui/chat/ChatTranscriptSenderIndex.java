@@ -0,0 +1,200 @@
+package cafe.woden.ircclient.ui.chat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.Position;
+import javax.swing.text.StyledDocument;
+
+/**
+ * Per-transcript index from sender to the sender-label runs they wrote, so per-user rewrites visit
+ * only that user's lines instead of scanning the whole document.
+ *
+ * <p>The index listens to its document and picks up every inserted sender-label run, whichever
+ * append/insert path produced it. Each run is remembered as a {@link Position} one character past
+ * its start: Swing keeps offset-0 marks pinned on insert, and a mark inside the run is unaffected
+ * by text inserted in front of it. Removed runs are not tracked eagerly; lookups re-validate and
+ * drop stale marks, and head trims prune the marks that collapsed onto offset 0.
+ *
+ * <p>Confined to the thread that mutates the document (transcript mutations are serialized by
+ * {@link ChatTranscriptStore}).
+ */
+final class ChatTranscriptSenderIndex implements DocumentListener {
+
+  private final StyledDocument doc;
+  /** All live marks in document order; Swing positions never reorder, so this stays sorted. */
+  private final ArrayList<Mark> ordered = new ArrayList<>();
+
+  private final Map<String, ArrayList<Mark>> marksBySender = new HashMap<>();
+
+  private static final class Mark {
+    final String senderKey;
+    final Position pos;
+    boolean dead;
+
+    Mark(String senderKey, Position pos) {
+      this.senderKey = senderKey;
+      this.pos = pos;
+    }
+
+    int offset() {
+      return pos.getOffset();
+    }
+  }
+
+  private ChatTranscriptSenderIndex(StyledDocument doc) {
+    this.doc = doc;
+  }
+
+  /** Creates an index for {@code doc}, covering its current contents and all later inserts. */
+  static ChatTranscriptSenderIndex attach(StyledDocument doc) {
+    ChatTranscriptSenderIndex index = new ChatTranscriptSenderIndex(Objects.requireNonNull(doc));
+    index.indexRange(0, doc.getLength());
+    doc.addDocumentListener(index);
+    return index;
+  }
+
+  static boolean isSenderLabelStyle(String styleId) {
+    return ChatStyles.STYLE_FROM.equals(styleId)
+        || ChatStyles.STYLE_NOTICE_FROM.equals(styleId)
+        || ChatStyles.STYLE_ACTION_FROM.equals(styleId);
+  }
+
+  /** Start offsets of {@code sender}'s sender-label runs, ascending (case-insensitive). */
+  List<Integer> runStarts(String sender) {
+    String key = key(sender);
+    if (key.isEmpty()) return List.of();
+    ArrayList<Mark> marks = marksBySender.get(key);
+    if (marks == null || marks.isEmpty()) return List.of();
+
+    ArrayList<Integer> starts = new ArrayList<>(marks.size());
+    int write = 0;
+    int lastStart = -1;
+    for (int read = 0; read < marks.size(); read++) {
+      Mark mark = marks.get(read);
+      int start = mark.dead ? -1 : validRunStart(mark);
+      if (start < 0 || start == lastStart) {
+        mark.dead = true;
+        continue;
+      }
+      lastStart = start;
+      starts.add(start);
+      marks.set(write++, mark);
+    }
+    marks.subList(write, marks.size()).clear();
+    if (marks.isEmpty()) marksBySender.remove(key);
+    return starts;
+  }
+
+  /** Drops marks whose runs were cut away by a head trim (or a full clear). */
+  void pruneHead() {
+    int cut = 0;
+    while (cut < ordered.size() && (ordered.get(cut).dead || ordered.get(cut).offset() == 0)) {
+      Mark mark = ordered.get(cut++);
+      if (mark.dead) continue;
+      mark.dead = true;
+      ArrayList<Mark> marks = marksBySender.get(mark.senderKey);
+      if (marks == null) continue;
+      marks.remove(mark);
+      if (marks.isEmpty()) marksBySender.remove(mark.senderKey);
+    }
+    if (cut > 0) ordered.subList(0, cut).clear();
+  }
+
+  int size() {
+    return ordered.size();
+  }
+
+  @Override
+  public void insertUpdate(DocumentEvent e) {
+    indexRange(e.getOffset(), e.getLength());
+  }
+
+  @Override
+  public void removeUpdate(DocumentEvent e) {}
+
+  @Override
+  public void changedUpdate(DocumentEvent e) {}
+
+  private void indexRange(int offset, int length) {
+    int end = Math.min(doc.getLength(), offset + length);
+    int off = Math.max(0, offset);
+    while (off < end) {
+      Element el = doc.getCharacterElement(off);
+      if (el == null) break;
+      int start = el.getStartOffset();
+      AttributeSet attrs = el.getAttributes();
+      String styleId = Objects.toString(attrs.getAttribute(ChatStyles.ATTR_STYLE), "");
+      if (isSenderLabelStyle(styleId) && el.getEndOffset() > start) {
+        String senderKey = senderKey(attrs);
+        if (!senderKey.isEmpty()) add(senderKey, start);
+      }
+      off = Math.max(el.getEndOffset(), off + 1);
+    }
+  }
+
+  private void add(String senderKey, int runStart) {
+    int markOffset = runStart + 1;
+    int at = lowerBound(ordered, markOffset);
+    // A run that grew (or was re-announced by an adjacent insert) is already indexed.
+    for (int i = at; i < ordered.size() && ordered.get(i).offset() == markOffset; i++) {
+      Mark existing = ordered.get(i);
+      if (!existing.dead && existing.senderKey.equals(senderKey)) return;
+    }
+
+    Position pos;
+    try {
+      pos = doc.createPosition(markOffset);
+    } catch (BadLocationException e) {
+      return;
+    }
+    Mark mark = new Mark(senderKey, pos);
+    ordered.add(at, mark);
+    ArrayList<Mark> marks = marksBySender.computeIfAbsent(senderKey, k -> new ArrayList<>());
+    marks.add(lowerBound(marks, markOffset), mark);
+  }
+
+  /** Run start the mark still points at, or -1 when the run is gone or belongs to someone else. */
+  private int validRunStart(Mark mark) {
+    int markOffset = mark.offset();
+    if (markOffset <= 0 || markOffset > doc.getLength()) return -1;
+    Element el = doc.getCharacterElement(markOffset - 1);
+    if (el == null) return -1;
+    AttributeSet attrs = el.getAttributes();
+    String styleId = Objects.toString(attrs.getAttribute(ChatStyles.ATTR_STYLE), "");
+    if (!isSenderLabelStyle(styleId)) return -1;
+    if (!senderKey(attrs).equals(mark.senderKey)) return -1;
+    // The mark sits one past the run start; anything else is a stale mark that drifted.
+    return el.getStartOffset() == markOffset - 1 ? el.getStartOffset() : -1;
+  }
+
+  private static int lowerBound(List<Mark> marks, int offset) {
+    int lo = 0;
+    int hi = marks.size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (marks.get(mid).offset() < offset) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private static String senderKey(AttributeSet attrs) {
+    return key(Objects.toString(attrs.getAttribute(ChatStyles.ATTR_META_FROM), ""));
+  }
+
+  private static String key(String sender) {
+    return Objects.toString(sender, "").trim().toLowerCase(Locale.ROOT);
+  }
+}
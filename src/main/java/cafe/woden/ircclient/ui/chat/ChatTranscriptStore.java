@@ -31,6 +31,7 @@ import cafe.woden.ircclient.ui.filter.FilterEngine;
 import cafe.woden.ircclient.ui.settings.UiSettings;
 import cafe.woden.ircclient.ui.settings.UiSettingsBus;
 import cafe.woden.ircclient.ui.util.EmojiFontSupport;
+import cafe.woden.ircclient.util.PipelineJfrEvents;
 import jakarta.annotation.PreDestroy;
 import java.awt.Color;
 import java.awt.Font;
@@ -105,7 +106,14 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
 
   private final Map<TargetRef, StyledDocument> docs = new HashMap<>();
   private final Map<TargetRef, TranscriptState> stateByTarget = new HashMap<>();
-  private List<StyledDocument> restylePassDocs = List.of();
+  private final Map<TargetRef, ChatTranscriptSenderIndex> senderIndexByTarget = new HashMap<>();
+  // Bumped on every theme/nick-color/settings restyle; each TranscriptState records the generation
+  // its document was last styled with, so off-screen transcripts restyle on their next activation.
+  private long styleGeneration = 0;
+  private long restylePassGeneration = 0;
+  private TargetRef displayedTarget;
+  private final Set<TargetRef> pinnedTargets = new LinkedHashSet<>();
+  private List<TargetRef> restylePassTargets = List.of();
   private int restylePassDocIndex = 0;
   private int restylePassDocOffset = 0;
   private boolean restylePassRunning = false;
@@ -125,8 +133,8 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
       ChatTimestampFormatter ts,
       NickColorService nickColors,
       NickColorSettingsBus nickColorSettings,
-      ChatImageEmbedder imageEmbeds,
-      ChatLinkPreviewEmbedder linkPreviews,
+      @Lazy ChatImageEmbedder imageEmbeds,
+      @Lazy ChatLinkPreviewEmbedder linkPreviews,
       UiSettingsBus uiSettings,
       FilterEngine filterEngine,
       UserListStore userListStore) {
@@ -143,7 +151,8 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
     this.filteredRunSupportContext =
         new ChatTranscriptFilteredRunSupport.Context(styles, this::withLineMeta);
     this.matrixDisplayNameContext =
-        new ChatTranscriptMatrixDisplayNameSupport.Context(uiSettings, userListStore, docs::get);
+        new ChatTranscriptMatrixDisplayNameSupport.Context(
+            uiSettings, userListStore, docs::get, senderIndexByTarget::get);
     this.messageStateSupportContext =
         new ChatTranscriptMessageStateSupport.Context(
             REPLY_PREVIEW_TEXT_MAX_CHARS, REDACTED_MESSAGE_PLACEHOLDER, System::currentTimeMillis);
@@ -370,8 +379,15 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
   }
 
   public synchronized void ensureTargetExists(TargetRef ref) {
-    docs.computeIfAbsent(ref, r -> new DefaultStyledDocument());
-    stateByTarget.computeIfAbsent(ref, r -> new TranscriptState());
+    StyledDocument doc = docs.computeIfAbsent(ref, r -> new DefaultStyledDocument());
+    senderIndexByTarget.computeIfAbsent(ref, r -> ChatTranscriptSenderIndex.attach(doc));
+    stateByTarget.computeIfAbsent(ref, r -> newTranscriptState());
+  }
+
+  private TranscriptState newTranscriptState() {
+    TranscriptState st = new TranscriptState();
+    st.styleGeneration = styleGeneration;
+    return st;
   }
 
   private void noteEpochMs(TargetRef ref, Long epochMs) {
@@ -1493,8 +1509,12 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
 
   public synchronized void closeTarget(TargetRef ref) {
     if (ref == null) return;
-    docs.remove(ref);
+    StyledDocument doc = docs.remove(ref);
+    ChatTranscriptSenderIndex senderIndex = senderIndexByTarget.remove(ref);
+    if (doc != null && senderIndex != null) doc.removeDocumentListener(senderIndex);
     stateByTarget.remove(ref);
+    pinnedTargets.remove(ref);
+    if (Objects.equals(displayedTarget, ref)) displayedTarget = null;
   }
 
   public synchronized void clearTarget(TargetRef ref) {
@@ -1508,7 +1528,9 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
       doc.remove(0, doc.getLength());
     } catch (Exception ignored) {
     }
-    stateByTarget.put(ref, new TranscriptState());
+    ChatTranscriptSenderIndex senderIndex = senderIndexByTarget.get(ref);
+    if (senderIndex != null) senderIndex.pruneHead();
+    stateByTarget.put(ref, newTranscriptState());
   }
 
   public synchronized void appendPresence(TargetRef ref, PresenceEvent event) {
@@ -1651,6 +1673,26 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
       LineMeta meta,
       java.awt.Component tailComponent,
       AttributeSet tailAttrs) {
+    PipelineJfrEvents.TranscriptAppend jfr = new PipelineJfrEvents.TranscriptAppend();
+    jfr.begin();
+    try {
+      appendLineToDocument(
+          ref, from, text, fromStyle, msgStyle, allowEmbeds, meta, tailComponent, tailAttrs);
+    } finally {
+      jfr.commit(ref != null ? ref.serverId() : "", ref != null ? ref.target() : "");
+    }
+  }
+
+  private void appendLineToDocument(
+      TargetRef ref,
+      String from,
+      String text,
+      AttributeSet fromStyle,
+      AttributeSet msgStyle,
+      boolean allowEmbeds,
+      LineMeta meta,
+      java.awt.Component tailComponent,
+      AttributeSet tailAttrs) {
     ensureTargetExists(ref);
     StyledDocument doc = docs.get(ref);
 
@@ -4097,6 +4139,9 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
   }
 
   private void resetStateAfterHeadTrim(TargetRef ref) {
+    ChatTranscriptSenderIndex senderIndex = senderIndexByTarget.get(ref);
+    if (senderIndex != null) senderIndex.pruneHead();
+
     TranscriptState st = stateByTarget.get(ref);
     if (st == null) return;
 
@@ -4170,6 +4215,7 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
   }
 
   private static final class TranscriptState {
+    long styleGeneration;
     Long earliestEpochMsSeen;
     PresenceBlock currentPresenceBlock;
     FilteredRun currentFilteredRun;
@@ -4360,14 +4406,22 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
   }
 
   public synchronized void restyleAllDocuments() {
-    for (StyledDocument doc : docs.values()) {
-      restyle(doc);
+    for (Map.Entry<TargetRef, StyledDocument> e : docs.entrySet()) {
+      restyle(e.getValue());
+      TranscriptState st = stateByTarget.get(e.getKey());
+      if (st != null) st.styleGeneration = styleGeneration;
     }
   }
 
+  /**
+   * Marks every transcript's styling stale and restyles, in EDT time slices, only the ones on
+   * screen: the active buffer and pinned docks. The rest catch up when they are next shown (see
+   * {@link #noteTargetDisplayed(TargetRef)}).
+   */
   public void restyleAllDocumentsCoalesced() {
     boolean schedule = false;
     synchronized (this) {
+      styleGeneration++;
       if (restylePassRunning) {
         restylePassRestartRequested = true;
       } else {
@@ -4381,8 +4435,71 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
     }
   }
 
+  /** Records {@code ref} as the main chat's buffer and restyles it first if its style is stale. */
+  public void noteTargetDisplayed(TargetRef ref) {
+    if (ref == null) return;
+    boolean schedule;
+    synchronized (this) {
+      displayedTarget = ref;
+      schedule = queueStaleRestyleLocked(ref);
+    }
+    if (schedule) {
+      SwingUtilities.invokeLater(this::runRestylePassSliceSafely);
+    }
+  }
+
+  /** Pinned docks stay on screen, so their transcripts are restyled eagerly with the active one. */
+  public void setTargetPinned(TargetRef ref, boolean pinned) {
+    if (ref == null) return;
+    boolean schedule = false;
+    synchronized (this) {
+      if (!pinned) {
+        pinnedTargets.remove(ref);
+        return;
+      }
+      pinnedTargets.add(ref);
+      schedule = queueStaleRestyleLocked(ref);
+    }
+    if (schedule) {
+      SwingUtilities.invokeLater(this::runRestylePassSliceSafely);
+    }
+  }
+
+  /**
+   * Puts a stale transcript next in line for restyling.
+   *
+   * @return true when a new pass was started and its first slice must be scheduled
+   */
+  private boolean queueStaleRestyleLocked(TargetRef ref) {
+    if (!isStyleStaleLocked(ref)) return false;
+    if (restylePassRunning) {
+      if (restylePassTargets.indexOf(ref) < restylePassDocIndex) {
+        int next = restylePassDocOffset > 0 ? restylePassDocIndex + 1 : restylePassDocIndex;
+        restylePassTargets.add(Math.min(next, restylePassTargets.size()), ref);
+      }
+      return false;
+    }
+    restylePassRunning = true;
+    restylePassGeneration = styleGeneration;
+    restylePassTargets = new ArrayList<>(List.of(ref));
+    restylePassDocIndex = 0;
+    restylePassDocOffset = 0;
+    return true;
+  }
+
+  private boolean isStyleStaleLocked(TargetRef ref) {
+    TranscriptState st = ref == null ? null : stateByTarget.get(ref);
+    return st != null && docs.containsKey(ref) && st.styleGeneration < styleGeneration;
+  }
+
   private void resetRestylePassLocked() {
-    restylePassDocs = new ArrayList<>(docs.values());
+    restylePassGeneration = styleGeneration;
+    ArrayList<TargetRef> targets = new ArrayList<>(1 + pinnedTargets.size());
+    if (isStyleStaleLocked(displayedTarget)) targets.add(displayedTarget);
+    for (TargetRef pinned : pinnedTargets) {
+      if (!targets.contains(pinned) && isStyleStaleLocked(pinned)) targets.add(pinned);
+    }
+    restylePassTargets = targets;
     restylePassDocIndex = 0;
     restylePassDocOffset = 0;
   }
@@ -4390,7 +4507,7 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
   private void clearRestylePassLocked() {
     restylePassRunning = false;
     restylePassRestartRequested = false;
-    restylePassDocs = List.of();
+    restylePassTargets = List.of();
     restylePassDocIndex = 0;
     restylePassDocOffset = 0;
   }
@@ -4425,12 +4542,15 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
       }
 
       int budget = RESTYLE_ELEMENTS_PER_SLICE;
-      while (budget > 0 && restylePassDocIndex < restylePassDocs.size()) {
-        StyledDocument doc = restylePassDocs.get(restylePassDocIndex);
+      while (budget > 0 && restylePassDocIndex < restylePassTargets.size()) {
+        TargetRef target = restylePassTargets.get(restylePassDocIndex);
+        StyledDocument doc = docs.get(target);
         int currentOffset = restylePassDocOffset;
         RestyleSliceOutcome outcome =
             restyleDocumentSlice(doc, currentOffset, budget, outgoingColorEnabled, outgoingColor);
         if (outcome.done() || outcome.nextOffset() <= currentOffset) {
+          TranscriptState st = stateByTarget.get(target);
+          if (st != null) st.styleGeneration = Math.max(st.styleGeneration, restylePassGeneration);
           restylePassDocIndex++;
           restylePassDocOffset = 0;
         } else {
@@ -4439,7 +4559,7 @@ public class ChatTranscriptStore implements ChatTranscriptHistoryPort {
         budget -= Math.max(1, outcome.processedElements());
       }
 
-      if (restylePassDocIndex >= restylePassDocs.size()) {
+      if (restylePassDocIndex >= restylePassTargets.size()) {
         if (restylePassRestartRequested) {
           restylePassRestartRequested = false;
           resetRestylePassLocked();
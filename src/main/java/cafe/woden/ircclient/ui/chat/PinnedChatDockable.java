@@ -131,6 +131,7 @@ public class PinnedChatDockable extends ChatViewPanel implements Dockable, AutoC
 
     setName(getTabText());
     setDocument(transcripts.document(target));
+    transcripts.setTargetPinned(target, true);
     remove(scroll);
     topicSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, topicPanel, scroll);
     topicSplit.setResizeWeight(0.0);
@@ -261,6 +262,11 @@ public class PinnedChatDockable extends ChatViewPanel implements Dockable, AutoC
     inputPanel.setNickCompletions(nicks);
   }
 
+  /** Rank {@code nick} higher in nick completion after they spoke here. */
+  public void noteNickActivity(String nick) {
+    inputPanel.noteNickActivity(nick);
+  }
+
   /** Restore draft text for this pinned dock (e.g., when reopening). */
   public void setDraftText(String text) {
     inputPanel.setDraftText(text);
@@ -630,6 +636,10 @@ public class PinnedChatDockable extends ChatViewPanel implements Dockable, AutoC
       disposables.dispose();
     } catch (Exception ignored) {
     }
+    try {
+      transcripts.setTargetPinned(target, false);
+    } catch (Exception ignored) {
+    }
     try {
       if (onClosed != null) {
         onClosed.accept(target, inputPanel.getDraftText());
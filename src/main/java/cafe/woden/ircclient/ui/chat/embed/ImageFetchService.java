@@ -130,7 +130,7 @@ public class ImageFetchService {
       throw new IOException("Unsupported URL scheme for image embed: " + scheme);
     }
 
-    // Use HttpURLConnection (via HttpLite) so SOCKS proxies work.
+    // Use HttpLite so SOCKS proxies work.
     // java.net.http.HttpClient does not support SOCKS proxies.
     Map<String, String> headers = new HashMap<>();
     headers.put(
@@ -2,6 +2,7 @@ package cafe.woden.ircclient.ui.chat.embed;
 
 import cafe.woden.ircclient.net.ServerProxyResolver;
 import cafe.woden.ircclient.ui.chat.render.ChatRichTextRenderer;
+import cafe.woden.ircclient.util.PipelineJfrEvents;
 import cafe.woden.ircclient.util.RxVirtualSchedulers;
 import io.reactivex.rxjava3.core.Single;
 import java.net.URI;
@@ -63,7 +64,7 @@ public class LinkPreviewFetchService {
     return inflight.computeIfAbsent(
         key,
         k ->
-            Single.fromCallable(() -> load(sid, normalized))
+            Single.fromCallable(() -> timedLoad(sid, normalized))
                 .subscribeOn(RxVirtualSchedulers.io())
                 .doOnSuccess(
                     p -> {
@@ -98,6 +99,16 @@ public class LinkPreviewFetchService {
     }
   }
 
+  private LinkPreview timedLoad(String serverId, String url) throws Exception {
+    PipelineJfrEvents.PreviewFetch jfr = new PipelineJfrEvents.PreviewFetch();
+    jfr.begin();
+    try {
+      return load(serverId, url);
+    } finally {
+      jfr.commit(serverId, url);
+    }
+  }
+
   private LinkPreview load(String serverId, String url) throws Exception {
     URI uri = URI.create(url);
     String scheme = String.valueOf(uri.getScheme()).toLowerCase(Locale.ROOT);
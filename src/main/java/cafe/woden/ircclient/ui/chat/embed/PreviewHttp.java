@@ -15,8 +15,8 @@ import java.util.Optional;
 /**
  * HTTP helper used by link preview resolvers.
  *
- * <p>Uses {@link java.net.HttpURLConnection} via {@link HttpLite} so that SOCKS proxies can be
- * applied (the JDK {@code java.net.http.HttpClient} does not support SOCKS).
+ * <p>Uses {@link HttpLite} so that SOCKS proxies can be applied (the JDK {@code
+ * java.net.http.HttpClient} does not support SOCKS) and connections to a host are kept alive.
  */
 final class PreviewHttp {
 
@@ -116,6 +116,7 @@ public final class ChatActiveTargetCoordinator {
 
     transcripts.ensureTargetExists(target);
     transcriptDocumentSetter.accept(transcripts.document(target));
+    transcripts.noteTargetDisplayed(target);
     int unreadJumpOffset = transcripts.readMarkerJumpOffset(target);
 
     // Restore any saved draft for this target.
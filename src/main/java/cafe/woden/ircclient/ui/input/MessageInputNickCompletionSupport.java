@@ -12,7 +12,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
-import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -48,6 +47,8 @@ final class MessageInputNickCompletionSupport {
   private static final int RELEVANCE_SLASH = 280;
   private static final int RELEVANCE_WORD_PREFIX = 220;
   private static final int MAX_WORD_SUGGESTIONS = 8;
+  // Nick completions are built per lookup, only for what the popup can reasonably show.
+  private static final int MAX_NICK_COMPLETIONS = 50;
 
   private final JComponent owner;
   private final JTextComponent input;
@@ -76,7 +77,7 @@ final class MessageInputNickCompletionSupport {
   private volatile int pendingNickAddressBeforeCaret = 0;
   private volatile long pendingNickAddressSetAtMs = 0L;
 
-  private volatile List<String> nickSnapshot = List.of();
+  private final NickCompletionIndex nickIndex = new NickCompletionIndex();
 
   private boolean installed;
   private boolean pendingSuffixListenerInstalled;
@@ -116,10 +117,11 @@ final class MessageInputNickCompletionSupport {
     this.undoSupport = undoSupport;
     this.wordSuggestionProvider = wordSuggestionProvider;
     this.slashCommands = mergeSlashCommands(slashCommandDescriptors);
-    this.completionProvider = new FastCompletionProvider(this::dynamicWordCompletions);
+    this.completionProvider =
+        new FastCompletionProvider(this::nickCompletions, this::dynamicWordCompletions);
     this.autoCompletion = new AutoCompletion(completionProvider);
     this.slashCommandCompletions = buildSlashCommandCompletions();
-    rebuildCompletionModel(List.of());
+    completionProvider.replaceCompletions(slashCommandCompletions);
   }
 
   AutoCompletion getAutoCompletion() {
@@ -160,23 +162,7 @@ final class MessageInputNickCompletionSupport {
 
   String firstNickStartingWith(String token) {
     if (token == null || token.isBlank()) return null;
-    List<String> nicks = nickSnapshot;
-    if (nicks == null || nicks.isEmpty()) return null;
-    String t = token.trim();
-    if (t.isEmpty()) return null;
-    String tLower = t.toLowerCase(Locale.ROOT);
-    String best = null;
-    NickMatchRank bestRank = null;
-    for (String n : nicks) {
-      if (n == null) continue;
-      NickMatchRank rank = NickMatchRank.forCandidate(n, t, tLower);
-      if (!rank.isMatch()) continue;
-      if (bestRank == null || rank.compareTo(bestRank) < 0) {
-        bestRank = rank;
-        best = n;
-      }
-    }
-    return best;
+    return nickIndex.best(token);
   }
 
   String firstCompletionHint(String token) {
@@ -184,27 +170,46 @@ final class MessageInputNickCompletionSupport {
   }
 
   void setNickCompletions(List<String> nicks) {
-    List<String> cleaned = cleanNickList(nicks);
-    nickSnapshot = cleaned;
-    rebuildCompletionModel(cleaned);
+    nickIndex.update(nicks);
+    markUiDirty();
   }
 
-  void shutdown() {
-    removeLafRefreshListeners();
+  /** Applies one roster row change; a removal plus an addition is a nick change. */
+  void applyNickCompletionDelta(String removedNick, String addedNick) {
+    if (removedNick != null && addedNick != null) {
+      nickIndex.rename(removedNick, addedNick);
+    } else if (removedNick != null) {
+      nickIndex.remove(removedNick);
+    } else if (addedNick != null) {
+      nickIndex.add(addedNick);
+    }
+    markUiDirty();
   }
 
-  private void rebuildCompletionModel(List<String> nicks) {
-    List<String> cleaned = (nicks == null) ? List.of() : nicks;
-    ArrayList<Completion> completions =
-        new ArrayList<>(slashCommandCompletions.size() + cleaned.size());
-    completions.addAll(slashCommandCompletions);
-    for (String nick : cleaned) {
-      BasicCompletion completion = new BasicCompletion(completionProvider, nick, "IRC nick");
-      completion.setRelevance(RELEVANCE_NICK);
-      completions.add(completion);
+  /** Ranks {@code nick} ahead of idle nicks in future completions (they spoke or were named). */
+  void noteNickActivity(String nick) {
+    nickIndex.noteActivity(nick);
+  }
+
+  /** Treats every roster nick mentioned in a line the user sent as recently active. */
+  void noteOutboundLine(String line) {
+    if (line == null || line.isBlank() || startsWithSlashCommand(line)) return;
+    int start = -1;
+    for (int i = 0; i <= line.length(); i++) {
+      boolean boundary = i == line.length() || isMentionBoundary(line.charAt(i));
+      if (!boundary) {
+        if (start < 0) start = i;
+        continue;
+      }
+      if (start < 0) continue;
+      String word = line.substring(start, i);
+      start = -1;
+      if (nickIndex.contains(word)) nickIndex.noteActivity(word);
     }
-    completionProvider.replaceCompletions(completions);
-    markUiDirty();
+  }
+
+  void shutdown() {
+    removeLafRefreshListeners();
   }
 
   private List<Completion> buildSlashCommandCompletions() {
@@ -218,27 +223,6 @@ final class MessageInputNickCompletionSupport {
     return List.copyOf(completions);
   }
 
-  private static List<String> cleanNickList(List<String> nicks) {
-    if (nicks == null || nicks.isEmpty()) return List.of();
-    ArrayList<String> out = new ArrayList<>(nicks.size());
-    for (String n : nicks) {
-      if (n == null) continue;
-      String s = n.trim();
-      if (s.isEmpty()) continue;
-      out.add(s);
-    }
-    out.sort(String.CASE_INSENSITIVE_ORDER);
-    ArrayList<String> deduped = new ArrayList<>(out.size());
-    String last = null;
-    for (String s : out) {
-      if (last == null || !s.equalsIgnoreCase(last)) {
-        deduped.add(s);
-        last = s;
-      }
-    }
-    return Collections.unmodifiableList(deduped);
-  }
-
   private static List<SlashCommand> mergeSlashCommands(
       List<SlashCommandDescriptor> slashCommandDescriptors) {
     LinkedHashMap<String, SlashCommand> merged = new LinkedHashMap<>();
@@ -252,6 +236,19 @@ final class MessageInputNickCompletionSupport {
     return List.copyOf(merged.values());
   }
 
+  private List<Completion> nickCompletions(JTextComponent component, String token) {
+    if (component == null || startsWithSlashCommand(component.getText())) return List.of();
+    List<String> nicks = nickIndex.matches(token, MAX_NICK_COMPLETIONS);
+    if (nicks.isEmpty()) return List.of();
+    ArrayList<Completion> out = new ArrayList<>(nicks.size());
+    for (String nick : nicks) {
+      BasicCompletion completion = new BasicCompletion(completionProvider, nick, "IRC nick");
+      completion.setRelevance(RELEVANCE_NICK);
+      out.add(completion);
+    }
+    return out;
+  }
+
   private List<Completion> dynamicWordCompletions(JTextComponent component, String token) {
     if (wordSuggestionProvider == null) return List.of();
     if (component == null) return List.of();
@@ -551,11 +548,7 @@ final class MessageInputNickCompletionSupport {
   }
 
   private boolean isKnownNick(String candidate) {
-    if (candidate == null) return false;
-    for (String n : nickSnapshot) {
-      if (n != null && n.equalsIgnoreCase(candidate)) return true;
-    }
-    return false;
+    return candidate != null && nickIndex.contains(candidate);
   }
 
   private static boolean isEligibleForNickAddressSuffix(String beforeText, int beforeCaret) {
@@ -580,15 +573,7 @@ final class MessageInputNickCompletionSupport {
   }
 
   private boolean hasNickPrefixMatch(String prefix) {
-    if (prefix == null) return false;
-    String p = prefix.strip();
-    if (p.isEmpty()) return false;
-    String pLower = p.toLowerCase(Locale.ROOT);
-    for (String n : nickSnapshot) {
-      if (n == null) continue;
-      if (n.toLowerCase(Locale.ROOT).startsWith(pLower)) return true;
-    }
-    return false;
+    return prefix != null && nickIndex.hasPrefix(prefix);
   }
 
   private boolean shouldArmPendingNickAddressSuffix(
@@ -629,6 +614,10 @@ final class MessageInputNickCompletionSupport {
     return false;
   }
 
+  private static boolean isMentionBoundary(char c) {
+    return Character.isWhitespace(c) || ":,@.!?;()".indexOf(c) >= 0;
+  }
+
   private static int wordEnd(String s, int start) {
     if (s == null || start < 0) return 0;
     int i = start;
@@ -636,75 +625,6 @@ final class MessageInputNickCompletionSupport {
     return i;
   }
 
-  /**
-   * Lightweight nick-likelihood rank used to prioritize the most probable nick when the completion
-   * popup opens.
-   */
-  private static final class NickMatchRank implements Comparable<NickMatchRank> {
-    private static final int BUCKET_NON_MATCH = 4;
-
-    private final int bucket;
-    private final int sharedPrefixLength;
-    private final int lengthDelta;
-    private final String lower;
-    private final String original;
-
-    private NickMatchRank(
-        int bucket, int sharedPrefixLength, int lengthDelta, String lower, String original) {
-      this.bucket = bucket;
-      this.sharedPrefixLength = sharedPrefixLength;
-      this.lengthDelta = lengthDelta;
-      this.lower = lower;
-      this.original = original;
-    }
-
-    static NickMatchRank forCandidate(String candidate, String token, String tokenLower) {
-      String text = Objects.toString(candidate, "").trim();
-      String lower = text.toLowerCase(Locale.ROOT);
-      int bucket = bucketFor(text, lower, token, tokenLower);
-      int sharedPrefixLength = sharedPrefixLength(lower, tokenLower);
-      int lengthDelta = Math.abs(text.length() - token.length());
-      return new NickMatchRank(bucket, sharedPrefixLength, lengthDelta, lower, text);
-    }
-
-    boolean isMatch() {
-      return bucket < BUCKET_NON_MATCH;
-    }
-
-    @Override
-    public int compareTo(NickMatchRank other) {
-      int byBucket = Integer.compare(this.bucket, other.bucket);
-      if (byBucket != 0) return byBucket;
-
-      int bySharedPrefix = Integer.compare(other.sharedPrefixLength, this.sharedPrefixLength);
-      if (bySharedPrefix != 0) return bySharedPrefix;
-
-      int byLengthDelta = Integer.compare(this.lengthDelta, other.lengthDelta);
-      if (byLengthDelta != 0) return byLengthDelta;
-
-      int byLower = this.lower.compareTo(other.lower);
-      if (byLower != 0) return byLower;
-      return this.original.compareTo(other.original);
-    }
-
-    private static int bucketFor(String text, String lower, String token, String tokenLower) {
-      if (text.equals(token)) return 0;
-      if (text.equalsIgnoreCase(token)) return 1;
-      if (text.startsWith(token)) return 2;
-      if (lower.startsWith(tokenLower)) return 3;
-      return BUCKET_NON_MATCH;
-    }
-
-    private static int sharedPrefixLength(String leftLower, String rightLower) {
-      int limit = Math.min(leftLower.length(), rightLower.length());
-      int i = 0;
-      while (i < limit && leftLower.charAt(i) == rightLower.charAt(i)) {
-        i++;
-      }
-      return i;
-    }
-  }
-
   private record SlashCommand(String command, String summary) {}
 
   private void installAutoCompletionUiRefreshOnLafChange() {
@@ -810,16 +730,18 @@ final class MessageInputNickCompletionSupport {
    * shot and sort once.
    */
   private static final class FastCompletionProvider extends DefaultCompletionProvider {
+    // Stable sort: within one relevance band, keep each source's own order.
     private static final Comparator<Completion> RELEVANCE_SORT =
-        (a, b) -> {
-          int r = Integer.compare(b.getRelevance(), a.getRelevance());
-          return (r != 0) ? r : a.compareTo(b);
-        };
+        (a, b) -> Integer.compare(b.getRelevance(), a.getRelevance());
 
+    private final DynamicCompletionSource nickCompletionSource;
     private final DynamicCompletionSource dynamicCompletionSource;
     private static final Field COMPLETIONS_FIELD = findCompletionsField();
 
-    FastCompletionProvider(DynamicCompletionSource dynamicCompletionSource) {
+    FastCompletionProvider(
+        DynamicCompletionSource nickCompletionSource,
+        DynamicCompletionSource dynamicCompletionSource) {
+      this.nickCompletionSource = nickCompletionSource;
       this.dynamicCompletionSource = dynamicCompletionSource;
     }
 
@@ -908,90 +830,35 @@ final class MessageInputNickCompletionSupport {
     public List<Completion> getCompletions(JTextComponent comp) {
       List<Completion> base = super.getCompletions(comp);
       String token = getAlreadyEnteredText(comp);
-      if (dynamicCompletionSource == null) {
-        if (base.size() < 2) return base;
-        ArrayList<Completion> ranked = new ArrayList<>(base);
-        sortByRelevanceAndNickLikelihood(ranked, token);
-        return ranked;
-      }
-
-      List<Completion> dynamic = dynamicCompletionSource.lookup(comp, token);
-      if (dynamic == null || dynamic.isEmpty()) {
-        if (base.size() < 2) return base;
-        ArrayList<Completion> ranked = new ArrayList<>(base);
-        sortByRelevanceAndNickLikelihood(ranked, token);
-        return ranked;
-      }
-
-      ArrayList<Completion> merged = new ArrayList<>(base.size() + dynamic.size());
-      merged.addAll(base);
+      List<Completion> nicks = lookup(nickCompletionSource, comp, token);
+      List<Completion> dynamic = lookup(dynamicCompletionSource, comp, token);
+      if (nicks.isEmpty() && dynamic.isEmpty()) return base;
 
+      ArrayList<Completion> merged = new ArrayList<>(base.size() + nicks.size() + dynamic.size());
       Set<String> seen = new HashSet<>();
-      for (Completion c : base) {
-        if (c == null) continue;
-        String key = c.getReplacementText();
-        if (key == null) continue;
-        seen.add(key.toLowerCase(Locale.ROOT));
-      }
-
-      for (Completion c : dynamic) {
-        if (c == null) continue;
-        String key = c.getReplacementText();
-        if (key == null || key.isBlank()) continue;
-        String lower = key.toLowerCase(Locale.ROOT);
-        if (!seen.add(lower)) continue;
-        merged.add(c);
-      }
-
-      sortByRelevanceAndNickLikelihood(merged, token);
+      addUnseen(merged, seen, base);
+      addUnseen(merged, seen, nicks);
+      addUnseen(merged, seen, dynamic);
+      merged.sort(RELEVANCE_SORT);
       return merged;
     }
 
-    private static void sortByRelevanceAndNickLikelihood(
-        List<Completion> completions, String token) {
-      if (completions == null || completions.size() < 2) return;
-
-      String normalizedToken = token == null ? "" : token.trim();
-      if (!normalizedToken.isEmpty()) {
-        filterNickCompletionsToPrefix(completions, normalizedToken);
-        if (completions.size() < 2) return;
-      }
-      String tokenLower = normalizedToken.toLowerCase(Locale.ROOT);
-      IdentityHashMap<Completion, NickMatchRank> nickRanks = new IdentityHashMap<>();
-      if (!normalizedToken.isEmpty()) {
-        for (Completion completion : completions) {
-          if (completion == null || completion.getRelevance() != RELEVANCE_NICK) continue;
-          String text = completion.getReplacementText();
-          if (text == null || text.isBlank()) continue;
-          nickRanks.put(completion, NickMatchRank.forCandidate(text, normalizedToken, tokenLower));
-        }
-      }
-
-      completions.sort(
-          (left, right) -> {
-            int relevance = Integer.compare(right.getRelevance(), left.getRelevance());
-            if (relevance != 0) return relevance;
-
-            NickMatchRank leftRank = nickRanks.get(left);
-            NickMatchRank rightRank = nickRanks.get(right);
-            if (leftRank != null && rightRank != null) {
-              int rank = leftRank.compareTo(rightRank);
-              if (rank != 0) return rank;
-            }
-
-            return RELEVANCE_SORT.compare(left, right);
-          });
+    private static List<Completion> lookup(
+        DynamicCompletionSource source, JTextComponent comp, String token) {
+      if (source == null) return List.of();
+      List<Completion> found = source.lookup(comp, token);
+      return found == null ? List.of() : found;
     }
 
-    private static void filterNickCompletionsToPrefix(List<Completion> completions, String token) {
-      String tokenLower = token.toLowerCase(Locale.ROOT);
-      completions.removeIf(
-          completion -> {
-            if (completion == null || completion.getRelevance() != RELEVANCE_NICK) return false;
-            String text = completion.getReplacementText();
-            if (text == null || text.isBlank()) return true;
-            return !text.toLowerCase(Locale.ROOT).startsWith(tokenLower);
-          });
+    private static void addUnseen(
+        List<Completion> out, Set<String> seen, List<Completion> completions) {
+      for (Completion c : completions) {
+        if (c == null) continue;
+        String key = c.getReplacementText();
+        if (key == null || key.isBlank()) continue;
+        if (!seen.add(key.toLowerCase(Locale.ROOT))) continue;
+        out.add(c);
+      }
     }
 
     @Override
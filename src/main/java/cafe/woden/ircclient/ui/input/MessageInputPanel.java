@@ -149,6 +149,7 @@ public class MessageInputPanel extends JPanel {
           @Override
           public void sendOutbound(String line) {
             if (line == null || line.isBlank()) return;
+            nickCompletionSupport.noteOutboundLine(line);
             outbound.onNext(line);
           }
         };
@@ -621,6 +622,18 @@ public class MessageInputPanel extends JPanel {
     hintPopupSupport.updateHint();
   }
 
+  /** Patches nick completion with one roster row change; either side may be null. */
+  public void applyNickCompletionDelta(String removedNick, String addedNick) {
+    spellcheckSupport.applyNickWhitelistDelta(removedNick, addedNick);
+    nickCompletionSupport.applyNickCompletionDelta(removedNick, addedNick);
+    hintPopupSupport.updateHint();
+  }
+
+  /** Lifts {@code nick} in nick completion ranking; call when they speak in this input's target. */
+  public void noteNickActivity(String nick) {
+    nickCompletionSupport.noteNickActivity(nick);
+  }
+
   private void onDraftDocumentChanged() {
     queueInputEmojiRestyle();
     hintPopupSupport.updateHint();
@@ -12,13 +12,13 @@ import io.reactivex.rxjava3.subjects.PublishSubject;
 import io.reactivex.rxjava3.subjects.Subject;
 import java.awt.Color;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -72,8 +72,8 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
   private static ExecutorService spellcheckExecutor;
   private static io.reactivex.rxjava3.core.Scheduler spellcheckScheduler;
 
-  private static final ThreadLocal<Map<String, JLanguageTool>> CHECKERS_BY_THREAD =
-      ThreadLocal.withInitial(HashMap::new);
+  private static final ConcurrentHashMap<String, SharedChecker> CHECKERS_BY_LANG =
+      new ConcurrentHashMap<>();
   private static final ConcurrentHashMap<String, List<String>> PREFIX_PRIORITY_BY_LANG =
       new ConcurrentHashMap<>();
   private static final ConcurrentHashMap<String, List<String>> PREFIX_LEXICON_BY_LANG =
@@ -93,7 +93,8 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
   private volatile MisspellingSnapshot misspellingSnapshot = MisspellingSnapshot.empty();
 
   private volatile SpellcheckSettings settings;
-  private volatile Map<String, String> knownNicksByLower = Map.of();
+  // Patched in place by roster deltas; each spellcheck request takes its own copy.
+  private volatile Map<String, String> knownNicksByLower = new ConcurrentHashMap<>();
   private volatile Set<String> customDictionaryByLower = Set.of();
   private final ConcurrentHashMap<String, Integer> localWordFrequency = new ConcurrentHashMap<>();
 
@@ -111,8 +112,7 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
                     CompletableFuture.supplyAsync(() -> computeSuggestions(key), executor));
 
     // Warm up dictionaries once to avoid first-use jank on the EDT.
-    ensureSpellcheckExecutor()
-        .execute(() -> checkerForCurrentThreadOrNull(this.settings.languageTag()));
+    ensureSpellcheckExecutor().execute(() -> warmUp(this.settings.languageTag()));
     this.spellcheckRequests = PublishSubject.<SpellcheckRequest>create().toSerialized();
     this.spellcheckSubscription =
         spellcheckRequests
@@ -159,18 +159,26 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
   }
 
   void setNickWhitelist(List<String> nicks) {
+    ConcurrentHashMap<String, String> out = new ConcurrentHashMap<>();
     if (nicks == null || nicks.isEmpty()) {
-      knownNicksByLower = Map.of();
+      knownNicksByLower = out;
       return;
     }
-    ConcurrentHashMap<String, String> out = new ConcurrentHashMap<>();
     for (String nick : nicks) {
       if (nick == null) continue;
       String s = nick.trim();
       if (s.isEmpty()) continue;
       out.put(s.toLowerCase(Locale.ROOT), s);
     }
-    knownNicksByLower = Map.copyOf(out);
+    knownNicksByLower = out;
+  }
+
+  void applyNickWhitelistDelta(String removedNick, String addedNick) {
+    Map<String, String> known = knownNicksByLower;
+    String removed = Objects.toString(removedNick, "").trim();
+    if (!removed.isEmpty()) known.remove(removed.toLowerCase(Locale.ROOT));
+    String added = Objects.toString(addedNick, "").trim();
+    if (!added.isEmpty()) known.put(added.toLowerCase(Locale.ROOT), added);
   }
 
   void onRemoveNotify() {
@@ -183,7 +191,7 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
     clearMisspellingHighlights();
     suggestionCache.synchronous().invalidateAll();
     localWordFrequency.clear();
-    knownNicksByLower = Map.of();
+    knownNicksByLower = new ConcurrentHashMap<>();
     customDictionaryByLower = Set.of();
     try {
       spellcheckRequests.onComplete();
@@ -374,9 +382,8 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
     SpellcheckSettings.CompletionProfile profile = key.completionProfile();
     try {
       List<RuleMatch> matches = List.of();
-      JLanguageTool checker = checkerForCurrentThreadOrNull(languageTag);
-      if (checker != null) {
-        List<RuleMatch> checked = checker.check(token);
+      if (!knownWords(languageTag).isKnown(token)) {
+        List<RuleMatch> checked = sharedChecker(languageTag).check(token);
         if (checked != null) {
           matches = checked;
         }
@@ -495,7 +502,8 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
       } catch (Exception ignored) {
       }
     }
-    CHECKERS_BY_THREAD.remove();
+    CHECKERS_BY_LANG.clear();
+    SpellcheckKnownWords.clear();
     PREFIX_PRIORITY_BY_LANG.clear();
     PREFIX_LEXICON_BY_LANG.clear();
   }
@@ -560,9 +568,9 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
       SpellcheckSettings.CompletionProfile completionProfile) {
     if (text == null || text.isBlank()) return List.of();
     try {
-      JLanguageTool checker = checkerForCurrentThreadOrNull(languageTag);
-      if (checker == null) return List.of();
-      List<RuleMatch> matches = checker.check(text);
+      // Most drafts are all dictionary words, nicks or custom words; those never reach LT.
+      if (!hasUnknownWords(text, nickSnapshot, languageTag)) return List.of();
+      List<RuleMatch> matches = sharedChecker(languageTag).check(text);
       if (matches == null || matches.isEmpty()) return List.of();
 
       ArrayList<MisspellingRange> out = new ArrayList<>();
@@ -685,6 +693,26 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
     return nickSnapshot.containsKey(lower);
   }
 
+  private boolean hasUnknownWords(
+      String text, Map<String, String> nickSnapshot, String languageTag) {
+    SpellcheckKnownWords known = knownWords(languageTag);
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      if (i < text.length() && isWordChar(text.charAt(i))) {
+        if (start < 0) start = i;
+        continue;
+      }
+      if (start < 0) continue;
+
+      int tokenStart = start;
+      start = -1;
+      String token = text.substring(tokenStart, i);
+      if (shouldIgnoreMisspellingToken(text, tokenStart, token, nickSnapshot)) continue;
+      if (!known.isKnown(normalizeToken(token))) return true;
+    }
+    return false;
+  }
+
   private boolean isKnownNick(String token) {
     if (token == null || token.isBlank()) return false;
     return knownNicksByLower.containsKey(token.toLowerCase(Locale.ROOT));
@@ -1134,7 +1162,10 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
 
   private static boolean isSpellingRule(RuleMatch match) {
     if (match == null) return false;
-    Rule rule = match.getRule();
+    return isSpellingRule(match.getRule());
+  }
+
+  private static boolean isSpellingRule(Rule rule) {
     if (rule instanceof SpellingCheckRule) return true;
     String id = rule != null ? rule.getId() : "";
     return id != null && id.toLowerCase(Locale.ROOT).contains("spell");
@@ -1150,21 +1181,19 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
     return false;
   }
 
-  private static JLanguageTool checkerForCurrentThread(String languageTag) {
-    Map<String, JLanguageTool> byLang = CHECKERS_BY_THREAD.get();
-    String normalized = SpellcheckSettings.normalizeLanguageTag(languageTag);
-    return byLang.computeIfAbsent(normalized, MessageInputSpellcheckSupport::createChecker);
+  private static void warmUp(String languageTag) {
+    knownWords(languageTag);
+    sharedChecker(languageTag).checkerOrNull();
+  }
+
+  private static SpellcheckKnownWords knownWords(String languageTag) {
+    return SpellcheckKnownWords.forLanguage(SpellcheckSettings.normalizeLanguageTag(languageTag));
   }
 
-  private static JLanguageTool checkerForCurrentThreadOrNull(String languageTag) {
+  private static SharedChecker sharedChecker(String languageTag) {
     String normalized = SpellcheckSettings.normalizeLanguageTag(languageTag);
     String shortCode = "en-GB".equalsIgnoreCase(normalized) ? "en-GB" : "en-US";
-    try {
-      return checkerForCurrentThread(normalized);
-    } catch (Throwable t) {
-      maybeLogCheckerFailure(shortCode, t);
-      return null;
-    }
+    return CHECKERS_BY_LANG.computeIfAbsent(shortCode, SharedChecker::new);
   }
 
   private static void maybeLogCheckerFailure(String shortCode, Throwable t) {
@@ -1189,7 +1218,14 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
     if (lang == null) {
       throw new IllegalStateException("LanguageTool language unavailable for " + shortCode);
     }
-    return createCheckerWithInterruptGuard(lang);
+    JLanguageTool checker = createCheckerWithInterruptGuard(lang);
+    // Only spelling matches are ever used; skipping the grammar/style rules makes each check cheap.
+    for (Rule rule : checker.getAllActiveRules()) {
+      if (!isSpellingRule(rule)) {
+        checker.disableRule(rule.getId());
+      }
+    }
+    return checker;
   }
 
   private static JLanguageTool createCheckerWithInterruptGuard(Language lang) {
@@ -1205,6 +1241,34 @@ final class MessageInputSpellcheckSupport implements MessageInputWordSuggestionP
     }
   }
 
+  /**
+   * One LanguageTool instance per language, shared by every caller. {@link JLanguageTool} is not
+   * thread-safe, so checks serialize on the holder; spellchecking already runs on a single worker.
+   */
+  private static final class SharedChecker {
+    private final String shortCode;
+    private JLanguageTool checker;
+
+    private SharedChecker(String shortCode) {
+      this.shortCode = shortCode;
+    }
+
+    synchronized List<RuleMatch> check(String text) throws IOException {
+      JLanguageTool lt = checkerOrNull();
+      return lt == null ? List.of() : lt.check(text);
+    }
+
+    synchronized JLanguageTool checkerOrNull() {
+      if (checker != null) return checker;
+      try {
+        checker = createChecker(shortCode);
+      } catch (Throwable t) {
+        maybeLogCheckerFailure(shortCode, t);
+      }
+      return checker;
+    }
+  }
+
   static record MisspelledWord(int start, int end, String token, List<String> suggestions) {
     MisspelledWord {
       token = token == null ? "" : token;
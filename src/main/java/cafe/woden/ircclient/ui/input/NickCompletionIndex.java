@@ -0,0 +1,266 @@
+package cafe.woden.ircclient.ui.input;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Case-folded, sorted nick roster for one input, answering prefix queries by binary search.
+ *
+ * <p>Single-row roster changes (a join, a part, a nick change) arrive through {@link #add}, {@link
+ * #remove} and {@link #rename} and are patched in place. Full roster refreshes are diffed against
+ * the current contents, and only wholesale changes (switching channels) re-sort. Matches
+ * rank exact/prefix quality first, then nicks that recently spoke or were mentioned, then closeness
+ * to the typed token. Recency outlives roster changes so it follows a nick across re-syncs.
+ *
+ * <p>EDT only.
+ */
+final class NickCompletionIndex {
+
+  private static final int MAX_TRACKED_ACTIVITY = 512;
+  private static final int MIN_PATCH_THRESHOLD = 32;
+
+  private String[] lowerKeys = new String[0];
+  private String[] nicks = new String[0];
+  private int size;
+
+  private long activitySeq;
+  private final LinkedHashMap<String, Long> lastActivityByLower =
+      new LinkedHashMap<>(64) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+          return size() > MAX_TRACKED_ACTIVITY;
+        }
+      };
+
+  int size() {
+    return size;
+  }
+
+  /** Brings the index in line with {@code roster}, patching in place when the delta is small. */
+  void update(List<String> roster) {
+    LinkedHashMap<String, String> incoming = new LinkedHashMap<>();
+    if (roster != null) {
+      for (String raw : roster) {
+        if (raw == null) continue;
+        String nick = raw.trim();
+        if (nick.isEmpty()) continue;
+        incoming.putIfAbsent(nick.toLowerCase(Locale.ROOT), nick);
+      }
+    }
+
+    BitSet removed = new BitSet(size);
+    for (int i = 0; i < size; i++) {
+      String nick = incoming.remove(lowerKeys[i]);
+      if (nick == null) {
+        removed.set(i);
+      } else {
+        // Same nick, possibly new casing; what remains in `incoming` afterwards is new.
+        nicks[i] = nick;
+      }
+    }
+
+    int delta = removed.cardinality() + incoming.size();
+    if (delta == 0) return;
+    if (delta > Math.max(MIN_PATCH_THRESHOLD, size / 4)) {
+      rebuild(removed, incoming);
+      return;
+    }
+    compact(removed);
+    for (Map.Entry<String, String> e : incoming.entrySet()) {
+      insert(e.getKey(), e.getValue());
+    }
+  }
+
+  /** Adds {@code nick}, or updates its casing when it is already listed. */
+  void add(String nick) {
+    String n = Objects.toString(nick, "").trim();
+    if (n.isEmpty()) return;
+    String key = n.toLowerCase(Locale.ROOT);
+    int at = lowerBound(key);
+    if (at < size && lowerKeys[at].equals(key)) {
+      nicks[at] = n;
+      return;
+    }
+    insert(key, n);
+  }
+
+  void remove(String nick) {
+    String key = key(nick);
+    if (key.isEmpty()) return;
+    int at = Arrays.binarySearch(lowerKeys, 0, size, key);
+    if (at < 0) return;
+    System.arraycopy(lowerKeys, at + 1, lowerKeys, at, size - at - 1);
+    System.arraycopy(nicks, at + 1, nicks, at, size - at - 1);
+    size--;
+    lowerKeys[size] = null;
+    nicks[size] = null;
+  }
+
+  /** Replaces {@code oldNick} with {@code newNick}, keeping its recent activity. */
+  void rename(String oldNick, String newNick) {
+    String oldKey = key(oldNick);
+    Long lastActivity = oldKey.isEmpty() ? null : lastActivityByLower.remove(oldKey);
+    remove(oldNick);
+    add(newNick);
+    String newKey = key(newNick);
+    if (lastActivity != null && !newKey.isEmpty()) lastActivityByLower.put(newKey, lastActivity);
+  }
+
+  boolean contains(String nick) {
+    String key = key(nick);
+    return !key.isEmpty() && Arrays.binarySearch(lowerKeys, 0, size, key) >= 0;
+  }
+
+  boolean hasPrefix(String token) {
+    String prefix = key(token);
+    if (prefix.isEmpty()) return false;
+    int from = lowerBound(prefix);
+    return from < size && lowerKeys[from].startsWith(prefix);
+  }
+
+  /** Records that {@code nick} spoke or was mentioned, lifting it in future rankings. */
+  void noteActivity(String nick) {
+    String key = key(nick);
+    if (key.isEmpty()) return;
+    // Insertion-ordered so ranking reads never reorder it; re-adding moves the nick to the end.
+    lastActivityByLower.remove(key);
+    lastActivityByLower.put(key, ++activitySeq);
+  }
+
+  /** Best-ranked nick starting with {@code token} (case-insensitive), or null. */
+  String best(String token) {
+    List<String> best = matches(token, 1);
+    return best.isEmpty() ? null : best.getFirst();
+  }
+
+  /** Up to {@code limit} nicks starting with {@code token} (case-insensitive), best first. */
+  List<String> matches(String token, int limit) {
+    if (limit <= 0 || size == 0) return List.of();
+    String t = Objects.toString(token, "").trim();
+    String prefix = t.toLowerCase(Locale.ROOT);
+    int from = prefix.isEmpty() ? 0 : lowerBound(prefix);
+    int to = prefix.isEmpty() ? size : lowerBound(prefix + Character.MAX_VALUE);
+    if (from >= to) return List.of();
+
+    Comparator<Candidate> order = Candidate.ORDER;
+    PriorityQueue<Candidate> worstFirst =
+        new PriorityQueue<>(Math.min(limit, to - from) + 1, order.reversed());
+    for (int i = from; i < to; i++) {
+      Candidate c = candidate(i, t, prefix);
+      if (worstFirst.size() < limit) {
+        worstFirst.add(c);
+      } else if (order.compare(c, worstFirst.peek()) < 0) {
+        worstFirst.poll();
+        worstFirst.add(c);
+      }
+    }
+    ArrayList<Candidate> ranked = new ArrayList<>(worstFirst);
+    ranked.sort(order);
+    ArrayList<String> out = new ArrayList<>(ranked.size());
+    for (Candidate c : ranked) {
+      out.add(c.nick());
+    }
+    return List.copyOf(out);
+  }
+
+  private Candidate candidate(int row, String token, String tokenLower) {
+    String nick = nicks[row];
+    String lower = lowerKeys[row];
+    Long lastActivity = lastActivityByLower.get(lower);
+    return new Candidate(
+        nick,
+        lower,
+        bucketFor(nick, lower, token, tokenLower),
+        lastActivity == null ? 0L : lastActivity,
+        Math.abs(nick.length() - token.length()));
+  }
+
+  private void rebuild(BitSet removed, Map<String, String> added) {
+    HashMap<String, String> all = new HashMap<>(size + added.size());
+    for (int i = 0; i < size; i++) {
+      if (!removed.get(i)) all.put(lowerKeys[i], nicks[i]);
+    }
+    all.putAll(added);
+    String[] keys = all.keySet().toArray(String[]::new);
+    Arrays.sort(keys);
+    String[] values = new String[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      values[i] = all.get(keys[i]);
+    }
+    lowerKeys = keys;
+    nicks = values;
+    size = keys.length;
+  }
+
+  private void compact(BitSet removed) {
+    if (removed.isEmpty()) return;
+    int write = 0;
+    for (int read = 0; read < size; read++) {
+      if (removed.get(read)) continue;
+      lowerKeys[write] = lowerKeys[read];
+      nicks[write] = nicks[read];
+      write++;
+    }
+    Arrays.fill(lowerKeys, write, size, null);
+    Arrays.fill(nicks, write, size, null);
+    size = write;
+  }
+
+  private void insert(String key, String nick) {
+    int at = lowerBound(key);
+    if (size == lowerKeys.length) {
+      int grown = Math.max(16, size * 2);
+      lowerKeys = Arrays.copyOf(lowerKeys, grown);
+      nicks = Arrays.copyOf(nicks, grown);
+    }
+    System.arraycopy(lowerKeys, at, lowerKeys, at + 1, size - at);
+    System.arraycopy(nicks, at, nicks, at + 1, size - at);
+    lowerKeys[at] = key;
+    nicks[at] = nick;
+    size++;
+  }
+
+  private int lowerBound(String key) {
+    int lo = 0;
+    int hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (lowerKeys[mid].compareTo(key) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private static String key(String nick) {
+    return Objects.toString(nick, "").trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static int bucketFor(String text, String lower, String token, String tokenLower) {
+    if (text.equals(token)) return 0;
+    if (lower.equals(tokenLower)) return 1;
+    if (text.startsWith(token)) return 2;
+    return 3;
+  }
+
+  private record Candidate(
+      String nick, String lower, int bucket, long lastActivity, int lengthDelta) {
+    static final Comparator<Candidate> ORDER =
+        Comparator.comparingInt(Candidate::bucket)
+            .thenComparing(Comparator.comparingLong(Candidate::lastActivity).reversed())
+            .thenComparingInt(Candidate::lengthDelta)
+            .thenComparing(Candidate::lower)
+            .thenComparing(Candidate::nick);
+  }
+}
@@ -0,0 +1,123 @@
+package cafe.woden.ircclient.ui.input;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.languagetool.rules.spelling.morfologik.MorfologikSpeller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cheap "is this a dictionary word?" test that runs ahead of LanguageTool.
+ *
+ * <p>Backed by the morfologik FSA that LanguageTool's English speller rule loads (LanguageTool
+ * caches the dictionary per resource, so this does not hold a second copy) plus the plain-text
+ * {@code spelling*.txt} additions as a sorted array. A draft whose every word is known never
+ * reaches LanguageTool at all.
+ *
+ * <p>This only answers "known"; a token it rejects still goes through LanguageTool, which makes the
+ * final call and produces suggestions.
+ */
+final class SpellcheckKnownWords {
+
+  private static final Logger log = LoggerFactory.getLogger(SpellcheckKnownWords.class);
+
+  private static final String EN_US_DICT = "/en/hunspell/en_US.dict";
+  private static final String EN_GB_DICT = "/en/hunspell/en_GB.dict";
+  private static final String SPELLING_RESOURCE_DIR = "/org/languagetool/resource/en/hunspell/";
+  private static final Set<String> CONTRACTION_SUFFIXES =
+      Set.of("s", "t", "d", "m", "re", "ve", "ll", "nt");
+
+  private static final ConcurrentHashMap<String, SpellcheckKnownWords> BY_LANG =
+      new ConcurrentHashMap<>();
+
+  private final MorfologikSpeller speller;
+  private final String[] additions;
+
+  SpellcheckKnownWords(MorfologikSpeller speller, String[] additions) {
+    this.speller = speller;
+    this.additions = additions != null ? additions : new String[0];
+  }
+
+  static SpellcheckKnownWords forLanguage(String normalizedLanguageTag) {
+    String shortCode = "en-GB".equalsIgnoreCase(normalizedLanguageTag) ? "en-GB" : "en-US";
+    return BY_LANG.computeIfAbsent(shortCode, SpellcheckKnownWords::load);
+  }
+
+  static void clear() {
+    BY_LANG.clear();
+  }
+
+  /**
+   * True when {@code token} (a word-character run, possibly with apostrophes or hyphens) is known
+   * to the dictionary. Capitalized words also match their lower-case form.
+   */
+  boolean isKnown(String token) {
+    if (token == null || token.isEmpty()) return false;
+    if (isKnownWord(token)) return true;
+
+    // LanguageTool tokenizes contractions and hyphenated compounds into parts; mirror that.
+    if (token.indexOf('\'') < 0 && token.indexOf('-') < 0) return false;
+    boolean sawPart = false;
+    for (String part : token.split("['-]")) {
+      if (part.isEmpty()) continue;
+      sawPart = true;
+      if (CONTRACTION_SUFFIXES.contains(part.toLowerCase(Locale.ROOT))) continue;
+      if (!isKnownWord(part)) return false;
+    }
+    return sawPart;
+  }
+
+  private boolean isKnownWord(String word) {
+    String lower = word.toLowerCase(Locale.ROOT);
+    if (Arrays.binarySearch(additions, lower) >= 0) return true;
+    if (speller == null) return false;
+    // morfologik's Speller keeps per-instance scratch buffers.
+    synchronized (speller) {
+      if (!speller.isMisspelled(word)) return true;
+      return !lower.equals(word) && !speller.isMisspelled(lower);
+    }
+  }
+
+  private static SpellcheckKnownWords load(String shortCode) {
+    boolean british = "en-GB".equals(shortCode);
+    MorfologikSpeller speller = null;
+    try {
+      speller = new MorfologikSpeller(british ? EN_GB_DICT : EN_US_DICT);
+    } catch (Throwable t) {
+      log.debug("[SpellcheckKnownWords] morfologik dictionary unavailable for '{}'", shortCode, t);
+    }
+
+    TreeSet<String> additions = new TreeSet<>();
+    addSpellingWords(additions, SPELLING_RESOURCE_DIR + "spelling.txt");
+    addSpellingWords(
+        additions,
+        SPELLING_RESOURCE_DIR + (british ? "spelling_en-GB.txt" : "spelling_en-US.txt"));
+    return new SpellcheckKnownWords(speller, additions.toArray(String[]::new));
+  }
+
+  private static void addSpellingWords(Set<String> out, String resourcePath) {
+    try (InputStream in = SpellcheckKnownWords.class.getResourceAsStream(resourcePath)) {
+      if (in == null) return;
+      try (BufferedReader reader =
+          new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          int comment = line.indexOf('#');
+          String cleaned = (comment >= 0 ? line.substring(0, comment) : line).trim();
+          int flags = cleaned.indexOf('/');
+          if (flags >= 0) cleaned = cleaned.substring(0, flags);
+          if (cleaned.isEmpty() || cleaned.indexOf(' ') >= 0) continue;
+          out.add(cleaned.toLowerCase(Locale.ROOT));
+        }
+      }
+    } catch (Exception ignored) {
+    }
+  }
+}
@@ -1,13 +1,15 @@
 package cafe.woden.ircclient.ui.logviewer;
 
+import cafe.woden.ircclient.logging.viewer.ChatLogViewerCursor;
 import cafe.woden.ircclient.logging.viewer.ChatLogViewerMatchMode;
+import cafe.woden.ircclient.logging.viewer.ChatLogViewerPage;
 import cafe.woden.ircclient.logging.viewer.ChatLogViewerQuery;
-import cafe.woden.ircclient.logging.viewer.ChatLogViewerResult;
 import cafe.woden.ircclient.logging.viewer.ChatLogViewerRow;
 import cafe.woden.ircclient.logging.viewer.ChatLogViewerService;
 import cafe.woden.ircclient.ui.icons.SvgIcons;
 import cafe.woden.ircclient.ui.util.PopupMenuThemeSupport;
 import cafe.woden.ircclient.util.VirtualThreads;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Cursor;
@@ -18,10 +20,15 @@ import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
 import java.time.ZoneId;
@@ -38,6 +45,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.swing.AbstractAction;
 import javax.swing.ActionMap;
@@ -70,6 +78,7 @@ import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingUtilities;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
@@ -81,12 +90,17 @@ import org.slf4j.LoggerFactory;
 /**
  * Per-server log viewer panel backed by the chat log database.
  *
- * <p>Searches and exports are performed off the EDT.
+ * <p>Searches and exports are performed off the EDT. Results are paged by a {@code (ts, id)} keyset
+ * cursor: the table fills one page at a time as it is scrolled, and exports stream every matching
+ * row straight to disk.
  */
 public final class LogViewerPanel extends JPanel implements AutoCloseable {
 
   private static final Logger log = LoggerFactory.getLogger(LogViewerPanel.class);
   private static final int CHANNEL_PICKER_LIMIT = 3000;
+  private static final int EXPORT_PROGRESS_EVERY = 2_000;
+  private static final String EXPORT_TOOLTIP = "Export all matching rows (CSV, text or JSON lines)";
+  private static final ObjectMapper JSON = new ObjectMapper();
   private static final ChatLogViewerMatchMode[] TEXT_MATCH_MODES = {
     ChatLogViewerMatchMode.CONTAINS, ChatLogViewerMatchMode.GLOB, ChatLogViewerMatchMode.REGEX
   };
@@ -120,9 +134,20 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
   private final java.util.function.Function<String, List<String>> openChannelsProvider;
   private final ExecutorService exec;
   private final boolean ownsExecutor;
+  // Exports page through the whole log, so they get their own threads and never hold up searches.
+  private final ExecutorService exportExec =
+      VirtualThreads.newThreadPerTaskExecutor("ircafe-log-viewer-export");
   private final AtomicLong requestSeq = new AtomicLong(0);
 
   private Future<?> runningTask;
+  private Future<?> exportTask;
+  private final AtomicBoolean exportCancelled = new AtomicBoolean();
+
+  // Paging state (EDT only).
+  private ChatLogViewerQuery pageQuery;
+  private ChatLogViewerCursor nextCursor;
+  private boolean pageLoading;
+  private long scannedRows;
 
   private final JLabel title = new JLabel("Log Viewer");
   private final JLabel subtitle = new JLabel("Select filters and click Search.");
@@ -165,6 +190,7 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
   private final LogViewerTableModel model = new LogViewerTableModel();
   private final JTable table = new JTable(model);
   private final TableRowSorter<LogViewerTableModel> sorter = new TableRowSorter<>(model);
+  private final JScrollPane tableScroll = new JScrollPane(table);
   private final LinkedHashMap<Integer, TableColumn> allColumnByModelIndex = new LinkedHashMap<>();
   private final LinkedHashSet<String> channelPickerSelectedKeys = new LinkedHashSet<>();
 
@@ -237,7 +263,7 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
     this.serverId = sid;
     hideChannelPickerPopup();
     updateHeader();
-    model.setRows(List.of());
+    resetPaging();
     updateButtons(false);
     if (!sid.isEmpty() && service.enabled()) {
       runSearch(true);
@@ -247,8 +273,9 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
   @Override
   public void close() {
     requestSeq.incrementAndGet();
-    Future<?> f = runningTask;
-    if (f != null) {
+    exportCancelled.set(true);
+    for (Future<?> f : new Future<?>[] {runningTask, exportTask}) {
+      if (f == null) continue;
       try {
         f.cancel(true);
       } catch (Exception ignored) {
@@ -257,6 +284,7 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
     if (ownsExecutor) {
       exec.shutdownNow();
     }
+    exportExec.shutdownNow();
     SwingUtilities.invokeLater(
         () -> {
           if (channelPickerPopup != null) {
@@ -277,7 +305,7 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
                 "[grow,fill][right][pref!][pref!][pref!][pref!][pref!]",
                 "[]2[]"));
     header.add(title, "growx");
-    header.add(new JLabel("Max rows:"), "");
+    header.add(new JLabel("Page rows:"), "");
     header.add(limitSpinner, "w 84!");
     header.add(searchButton, "sg viewer-btn");
     header.add(resetButton, "sg viewer-btn");
@@ -397,9 +425,9 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
     }
     applyPreferredWidths();
 
-    JScrollPane scroll = new JScrollPane(table);
-    scroll.setBorder(null);
-    add(scroll, BorderLayout.CENTER);
+    tableScroll.setBorder(null);
+    tableScroll.getVerticalScrollBar().getModel().addChangeListener(e -> maybeLoadNextPage());
+    add(tableScroll, BorderLayout.CENTER);
   }
 
   private void buildStatusBar() {
@@ -413,7 +441,7 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
     datePreset.addActionListener(e -> updateDatePresetUi());
     searchButton.addActionListener(e -> runSearch(false));
     resetButton.addActionListener(e -> resetFiltersAndSearch());
-    exportButton.addActionListener(e -> exportVisibleRows());
+    exportButton.addActionListener(e -> exportOrCancel());
     columnsButton.addActionListener(e -> showColumnsMenu(columnsButton));
     channelListButton.addActionListener(e -> showChannelListPickerDialog());
     includeServerEvents.addActionListener(e -> runSearch(false));
@@ -516,7 +544,7 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
       subtitle.setText("Chat logging is disabled.");
       status.setText("Enable ircafe.logging.enabled=true to use this view.");
       setControlsEnabled(false);
-      model.setRows(List.of());
+      resetPaging();
       return;
     }
     setControlsEnabled(true);
@@ -593,15 +621,24 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
       }
     }
 
+    resetPaging();
+    pageQuery = query;
     setBusy(true, auto ? "Loading logs..." : "Searching logs...");
+    loadPage(req, query, null);
+  }
+
+  /** Fetches the page after {@code cursor} (or the first page) and appends it on the EDT. */
+  private void loadPage(long req, ChatLogViewerQuery query, ChatLogViewerCursor cursor) {
+    pageLoading = true;
     runningTask =
         exec.submit(
             () -> {
               long startedNs = System.nanoTime();
               try {
-                ChatLogViewerResult result = service.search(query);
+                ChatLogViewerPage page = service.searchPage(query, cursor);
                 long elapsedMs = Duration.ofNanos(System.nanoTime() - startedNs).toMillis();
-                SwingUtilities.invokeLater(() -> applySearchResult(req, query, result, elapsedMs));
+                SwingUtilities.invokeLater(
+                    () -> applyPage(req, query, cursor == null, page, elapsedMs));
               } catch (IllegalArgumentException ex) {
                 SwingUtilities.invokeLater(() -> applySearchError(req, ex.getMessage()));
               } catch (Exception ex) {
@@ -612,6 +649,24 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
             });
   }
 
+  /** Loads the next page when the table is scrolled near its end or does not fill the viewport. */
+  private void maybeLoadNextPage() {
+    if (pageLoading || pageQuery == null || nextCursor == null) return;
+    javax.swing.BoundedRangeModel bar = tableScroll.getVerticalScrollBar().getModel();
+    int remaining = bar.getMaximum() - (bar.getValue() + bar.getExtent());
+    if (remaining > Math.max(bar.getExtent(), table.getRowHeight() * 20)) return;
+    status.setText("Loading more rows...");
+    loadPage(requestSeq.get(), pageQuery, nextCursor);
+  }
+
+  private void resetPaging() {
+    pageQuery = null;
+    nextCursor = null;
+    pageLoading = false;
+    scannedRows = 0;
+    model.setRows(List.of());
+  }
+
   private ChatLogViewerQuery buildQuery(String sid) {
     Long fromMs = null;
     Long toMs = null;
@@ -651,39 +706,43 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
         limit);
   }
 
-  private void applySearchResult(
-      long req, ChatLogViewerQuery query, ChatLogViewerResult result, long elapsedMs) {
+  private void applyPage(
+      long req,
+      ChatLogViewerQuery query,
+      boolean first,
+      ChatLogViewerPage page,
+      long elapsedMs) {
     if (req != requestSeq.get()) return;
 
-    model.setRows(result.rows());
-    sorter.sort();
-    updateButtons(false);
+    pageLoading = false;
+    if (first) {
+      model.setRows(page.rows());
+      sorter.sort();
+    } else {
+      model.appendRows(page.rows());
+    }
+    nextCursor = page.next();
+    scannedRows += page.scannedRows();
 
-    int shown = result.rows().size();
-    int limit = query.limit();
+    int shown = model.getRowCount();
     StringBuilder sb = new StringBuilder(96);
     sb.append("Showing ").append(shown).append(" row(s)");
-    if (result.scannedRows() > 0) {
-      sb.append(" (scanned ").append(result.scannedRows()).append(")");
+    if (scannedRows > 0) {
+      sb.append(" (scanned ").append(scannedRows).append(")");
     }
-    if (result.truncated()) {
-      sb.append(" - limited");
-      if (result.scanCapped()) {
-        sb.append(" by scan cap");
-      }
-      sb.append(".");
-    } else {
-      sb.append(".");
-    }
-    sb.append(" Search took ").append(elapsedMs).append(" ms.");
+    sb.append(page.hasMore() ? " - scroll for more." : " - end of log.");
+    sb.append(" Last page took ").append(elapsedMs).append(" ms.");
     status.setText(sb.toString());
 
-    subtitle.setText("Rows: " + shown + " (max " + limit + ")");
+    subtitle.setText("Rows: " + shown + " (pages of " + query.limit() + ")");
     setBusy(false, "");
+    if (page.hasMore()) SwingUtilities.invokeLater(this::maybeLoadNextPage);
   }
 
   private void applySearchError(long req, String message) {
     if (req != requestSeq.get()) return;
+    pageLoading = false;
+    nextCursor = null;
     setBusy(false, "");
     status.setText(Objects.toString(message, "Search failed."));
   }
@@ -695,7 +754,7 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
     searchButton.setEnabled(!busy && service.enabled() && !serverId.isEmpty());
     resetButton.setEnabled(!busy && service.enabled());
     columnsButton.setEnabled(!busy && service.enabled());
-    exportButton.setEnabled(!busy && service.enabled() && model.getRowCount() > 0);
+    exportButton.setEnabled(exportTask != null || (!busy && canExport()));
     if (statusText != null && !statusText.isBlank()) {
       status.setText(statusText);
     }
@@ -705,15 +764,19 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
     searchButton.setEnabled(!busy && service.enabled() && !serverId.isEmpty());
     resetButton.setEnabled(!busy && service.enabled());
     columnsButton.setEnabled(!busy && service.enabled());
-    exportButton.setEnabled(!busy && service.enabled() && model.getRowCount() > 0);
+    exportButton.setEnabled(exportTask != null || (!busy && canExport()));
+  }
+
+  private boolean canExport() {
+    return service.enabled() && pageQuery != null && model.getRowCount() > 0;
   }
 
   private void configureTopActionButtons() {
-    limitSpinner.setToolTipText("Maximum rows returned per search.");
+    limitSpinner.setToolTipText("Rows fetched per page; more are loaded as you scroll.");
     configureTopButton(searchButton, "hourglass", "Search logs");
     configureTopButton(resetButton, "reset", "Reset all filters");
     configureTopButton(columnsButton, "settings", "Choose visible columns");
-    configureTopButton(exportButton, "copy", "Export visible rows to CSV");
+    configureTopButton(exportButton, "copy", EXPORT_TOOLTIP);
   }
 
   private static void configureTopButton(JButton button, String iconName, String tooltip) {
@@ -736,51 +799,61 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
     button.setFocusable(false);
   }
 
-  private void exportVisibleRows() {
-    if (model.getRowCount() <= 0) {
+  private void exportOrCancel() {
+    if (exportTask != null) {
+      exportCancelled.set(true);
+      status.setText("Cancelling export...");
+      return;
+    }
+    exportAllRows();
+  }
+
+  private void exportAllRows() {
+    ChatLogViewerQuery query = pageQuery;
+    if (query == null || model.getRowCount() <= 0) {
       status.setText("No rows to export.");
       return;
     }
 
     JFileChooser chooser = new JFileChooser();
     chooser.setDialogTitle("Export Logs");
+    for (ExportFormat format : ExportFormat.values()) {
+      chooser.addChoosableFileFilter(format.filter);
+    }
+    chooser.setAcceptAllFileFilterUsed(false);
+    chooser.setFileFilter(ExportFormat.CSV.filter);
     chooser.setSelectedFile(new java.io.File(defaultExportFileName()));
     int result = chooser.showSaveDialog(this);
     if (result != JFileChooser.APPROVE_OPTION) return;
 
-    Path path = chooser.getSelectedFile().toPath();
-    if (!path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
-      path = path.resolveSibling(path.getFileName().toString() + ".csv");
-    }
-
-    ExportSnapshot snapshot = captureExportSnapshot();
-    if (snapshot.rows().isEmpty()) {
-      status.setText("No visible rows to export.");
-      return;
-    }
+    ExportFormat format = ExportFormat.of(chooser.getFileFilter());
+    Path path = format.withExtension(chooser.getSelectedFile().toPath());
+    List<Integer> columns = visibleModelColumns();
 
-    setBusy(true, "Exporting " + snapshot.rows().size() + " row(s)...");
+    exportCancelled.set(false);
+    configureTopButton(exportButton, "close", "Cancel export");
+    status.setText("Exporting...");
     final Path outPath = path;
-    runningTask =
-        exec.submit(
+    exportTask =
+        exportExec.submit(
             () -> {
               try {
-                writeCsv(outPath, snapshot);
+                long written = writeExport(outPath, format, query, columns);
+                boolean cancelled = exportCancelled.get() || Thread.currentThread().isInterrupted();
                 SwingUtilities.invokeLater(
-                    () -> {
-                      setBusy(false, "");
-                      status.setText(
-                          "Exported "
-                              + snapshot.rows().size()
-                              + " row(s) to "
-                              + outPath.toAbsolutePath());
-                    });
+                    () ->
+                        finishExport(
+                            cancelled
+                                ? "Export cancelled after " + written + " row(s)."
+                                : "Exported "
+                                    + written
+                                    + " row(s) to "
+                                    + outPath.toAbsolutePath()));
               } catch (Exception ex) {
                 log.warn("[ircafe] log viewer export failed", ex);
                 SwingUtilities.invokeLater(
                     () -> {
-                      setBusy(false, "");
-                      status.setText("Export failed: " + ex.getMessage());
+                      finishExport("Export failed: " + ex.getMessage());
                       JOptionPane.showMessageDialog(
                           LogViewerPanel.this,
                           "Export failed:\n" + ex.getMessage(),
@@ -789,52 +862,85 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
                     });
               }
             });
+    updateButtons(false);
   }
 
-  private ExportSnapshot captureExportSnapshot() {
+  private void finishExport(String message) {
+    exportTask = null;
+    configureTopButton(exportButton, "copy", EXPORT_TOOLTIP);
+    updateButtons(pageLoading);
+    status.setText(message);
+  }
+
+  private List<Integer> visibleModelColumns() {
     TableColumnModel cm = table.getColumnModel();
-    ArrayList<Integer> modelCols = new ArrayList<>();
-    ArrayList<String> headers = new ArrayList<>();
+    ArrayList<Integer> modelCols = new ArrayList<>(cm.getColumnCount());
     for (int i = 0; i < cm.getColumnCount(); i++) {
-      TableColumn tc = cm.getColumn(i);
-      int mi = tc.getModelIndex();
-      modelCols.add(mi);
-      headers.add(model.getColumnName(mi));
-    }
-
-    ArrayList<List<String>> rows = new ArrayList<>();
-    for (int viewRow = 0; viewRow < table.getRowCount(); viewRow++) {
-      int modelRow = table.convertRowIndexToModel(viewRow);
-      ArrayList<String> row = new ArrayList<>(modelCols.size());
-      for (int mi : modelCols) {
-        row.add(Objects.toString(model.getValueAt(modelRow, mi), ""));
-      }
-      rows.add(List.copyOf(row));
+      modelCols.add(cm.getColumn(i).getModelIndex());
     }
-    return new ExportSnapshot(List.copyOf(headers), List.copyOf(rows));
+    return List.copyOf(modelCols);
   }
 
-  private static void writeCsv(Path path, ExportSnapshot snapshot) throws Exception {
-    if (path == null) throw new IllegalArgumentException("Output path is required.");
-    if (snapshot == null) throw new IllegalArgumentException("Export snapshot is required.");
+  /**
+   * Streams every row matching {@code query} into {@code path}, newest-first. Rows are written as
+   * they arrive from the service, so memory stays flat however large the export is. The file is
+   * written next to the target and moved into place only when the export completes.
+   *
+   * @return rows written
+   */
+  private long writeExport(
+      Path path, ExportFormat format, ChatLogViewerQuery query, List<Integer> columns)
+      throws IOException {
     if (path.getParent() != null) {
       Files.createDirectories(path.getParent());
     }
-
-    try (var out =
-        Files.newBufferedWriter(
-            path,
-            StandardCharsets.UTF_8,
-            StandardOpenOption.CREATE,
-            StandardOpenOption.TRUNCATE_EXISTING,
-            StandardOpenOption.WRITE)) {
-      out.write(joinCsv(snapshot.headers()));
-      out.newLine();
-      for (List<String> row : snapshot.rows()) {
-        out.write(joinCsv(row));
+    Path tmp = path.resolveSibling(path.getFileName() + ".part");
+    long[] written = {0};
+    try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+      if (format == ExportFormat.CSV) {
+        ArrayList<String> headers = new ArrayList<>(columns.size());
+        for (int col : columns) headers.add(model.getColumnName(col));
+        out.write(joinCsv(headers));
         out.newLine();
       }
+      try {
+        service.stream(
+            query,
+            row -> {
+              if (exportCancelled.get()) return false;
+              try {
+                out.write(format.line(row, columns));
+                out.newLine();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+              long n = ++written[0];
+              if (n % EXPORT_PROGRESS_EVERY == 0) {
+                SwingUtilities.invokeLater(
+                    () -> {
+                      if (exportTask != null) status.setText("Exporting... " + n + " row(s)");
+                    });
+              }
+              return true;
+            });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+
+    if (exportCancelled.get() || Thread.currentThread().isInterrupted()) {
+      Files.deleteIfExists(tmp);
+      return written[0];
     }
+    try {
+      Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return written[0];
   }
 
   private static String joinCsv(List<String> cols) {
@@ -858,7 +964,7 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
   private String defaultExportFileName() {
     String sid = serverId.isBlank() ? "server" : serverId.replaceAll("[^A-Za-z0-9._-]+", "_");
     String ts = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date());
-    return "ircafe-logs-" + sid + "-" + ts + ".csv";
+    return "ircafe-logs-" + sid + "-" + ts;
   }
 
   private void showColumnsMenu(Component invoker) {
@@ -1571,13 +1677,20 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
       "Meta"
     };
 
-    private List<ChatLogViewerRow> rows = List.of();
+    private ArrayList<ChatLogViewerRow> rows = new ArrayList<>();
 
     void setRows(List<ChatLogViewerRow> rows) {
-      this.rows = (rows == null) ? List.of() : List.copyOf(rows);
+      this.rows = (rows == null) ? new ArrayList<>() : new ArrayList<>(rows);
       fireTableDataChanged();
     }
 
+    void appendRows(List<ChatLogViewerRow> more) {
+      if (more == null || more.isEmpty()) return;
+      int first = rows.size();
+      rows.addAll(more);
+      fireTableRowsInserted(first, rows.size() - 1);
+    }
+
     ChatLogViewerRow rowAt(int rowIndex) {
       if (rowIndex < 0 || rowIndex >= rows.size()) return null;
       return rows.get(rowIndex);
@@ -1601,9 +1714,11 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
       if (rowIndex < 0 || rowIndex >= rows.size()) return "";
-      ChatLogViewerRow row = rows.get(rowIndex);
-      if (row == null) return "";
+      return cellValue(rows.get(rowIndex), columnIndex);
+    }
 
+    static String cellValue(ChatLogViewerRow row, int columnIndex) {
+      if (row == null) return "";
       return switch (columnIndex) {
         case COL_TIME -> formatEpochMs(row.tsEpochMs());
         case COL_NICK -> row.fromNick();
@@ -1622,5 +1737,65 @@ public final class LogViewerPanel extends JPanel implements AutoCloseable {
 
   private record ChannelOption(String name, boolean open, boolean fromLog) {}
 
-  private record ExportSnapshot(List<String> headers, List<List<String>> rows) {}
+  private enum ExportFormat {
+    CSV("CSV (*.csv)", "csv"),
+    TEXT("Plain text (*.txt)", "txt"),
+    JSON_LINES("JSON lines (*.jsonl)", "jsonl");
+
+    private final FileNameExtensionFilter filter;
+    private final String extension;
+
+    ExportFormat(String description, String extension) {
+      this.filter = new FileNameExtensionFilter(description, extension);
+      this.extension = extension;
+    }
+
+    static ExportFormat of(javax.swing.filechooser.FileFilter filter) {
+      for (ExportFormat format : values()) {
+        if (format.filter == filter) return format;
+      }
+      return CSV;
+    }
+
+    Path withExtension(Path path) {
+      String name = path.getFileName().toString();
+      if (name.toLowerCase(Locale.ROOT).endsWith("." + extension)) return path;
+      return path.resolveSibling(name + "." + extension);
+    }
+
+    String line(ChatLogViewerRow row, List<Integer> columns) throws IOException {
+      return switch (this) {
+        case CSV -> {
+          ArrayList<String> cells = new ArrayList<>(columns.size());
+          for (int col : columns) cells.add(LogViewerTableModel.cellValue(row, col));
+          yield joinCsv(cells);
+        }
+        case TEXT -> {
+          String nick = Objects.toString(row.fromNick(), "");
+          String text = Objects.toString(row.text(), "").replace("\r", "").replace('\n', ' ');
+          yield formatEpochMs(row.tsEpochMs())
+              + "  "
+              + Objects.toString(row.target(), "")
+              + (nick.isEmpty() ? "  " : "  <" + nick + "> ")
+              + text;
+        }
+        case JSON_LINES -> {
+          LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+          json.put("id", row.id());
+          json.put("serverId", row.serverId());
+          json.put("target", row.target());
+          json.put("tsEpochMs", row.tsEpochMs());
+          json.put("time", Instant.ofEpochMilli(row.tsEpochMs()).toString());
+          json.put("direction", row.direction() == null ? null : row.direction().name());
+          json.put("kind", row.kind() == null ? null : row.kind().name());
+          json.put("fromNick", row.fromNick());
+          json.put("hostmask", row.hostmask());
+          json.put("text", row.text());
+          json.put("messageId", row.messageId());
+          json.put("ircv3Tags", row.ircv3Tags());
+          yield JSON.writeValueAsString(json);
+        }
+      };
+    }
+  }
 }
@@ -1162,8 +1162,8 @@ public class ServerTreeDockable extends JPanel implements Dockable, Scrollable {
                 serverId ->
                     serverNodeResolver.serverNodesForServer(serverNodeResolverContext, serverId),
                 this::isChannelMuted,
-                channelStateCoordinator::noteChannelActivity,
-                channelStateCoordinator::onChannelUnreadCountsChanged,
+                channelStateCoordinator::noteChannelActivityBatch,
+                channelStateCoordinator::onChannelUnreadCountsChangedBatch,
                 channelQueryService,
                 channelQueryServiceContext,
                 channelTargetOperations,
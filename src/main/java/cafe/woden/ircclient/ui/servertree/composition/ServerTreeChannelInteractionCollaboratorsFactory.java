@@ -10,6 +10,7 @@ import cafe.woden.ircclient.ui.servertree.coordinator.ServerTreeUnreadStateCoord
 import cafe.woden.ircclient.ui.servertree.model.ServerNodes;
 import cafe.woden.ircclient.ui.servertree.policy.ServerTreeTypingTargetPolicy;
 import cafe.woden.ircclient.ui.servertree.query.ServerTreeChannelQueryService;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -129,8 +130,8 @@ public final class ServerTreeChannelInteractionCollaboratorsFactory {
       Function<String, DefaultMutableTreeNode> interceptorsNodeForServer,
       Function<String, ServerNodes> serverNodesForServer,
       Predicate<TargetRef> isChannelMuted,
-      Consumer<TargetRef> noteChannelActivity,
-      Consumer<TargetRef> onChannelUnreadCountsChanged,
+      Consumer<Collection<TargetRef>> noteChannelActivity,
+      Consumer<Collection<TargetRef>> onChannelUnreadCountsChanged,
       ServerTreeChannelQueryService channelQueryService,
       ServerTreeChannelQueryService.Context channelQueryServiceContext,
       ServerTreeChannelTargetOperations channelTargetOperations,
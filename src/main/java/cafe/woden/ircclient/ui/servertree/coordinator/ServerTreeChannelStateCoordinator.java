@@ -10,7 +10,9 @@ import cafe.woden.ircclient.ui.servertree.ServerTreeDockable;
 import cafe.woden.ircclient.ui.servertree.model.ServerTreeNodeData;
 import cafe.woden.ircclient.ui.servertree.state.ServerTreeChannelStateStore;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -561,30 +563,59 @@ public final class ServerTreeChannelStateCoordinator {
   }
 
   public void noteChannelActivity(TargetRef ref) {
-    if (ref == null || !ref.isChannel()) return;
-    String sid = context.normalizeServerId(ref.serverId());
-    String channel = Objects.toString(ref.target(), "").trim();
-    String key = foldChannelKey(channel);
-    if (sid.isEmpty() || key.isEmpty()) return;
-
-    Map<String, Long> byChannel =
-        channelActivityRankByServer.computeIfAbsent(sid, __ -> new HashMap<>());
-    byChannel.put(key, ++channelActivityRankCounter);
-
-    if (channelSortModeByServer.getOrDefault(sid, ServerTreeDockable.ChannelSortMode.CUSTOM)
-        == ServerTreeDockable.ChannelSortMode.MOST_RECENT_ACTIVITY) {
+    if (ref == null) return;
+    noteChannelActivityBatch(List.of(ref));
+  }
+
+  /**
+   * Records activity for channels in arrival order, then re-sorts each affected server at most
+   * once.
+   */
+  public void noteChannelActivityBatch(Collection<TargetRef> refs) {
+    if (refs == null || refs.isEmpty()) return;
+    LinkedHashSet<String> resort = new LinkedHashSet<>();
+    for (TargetRef ref : refs) {
+      if (ref == null || !ref.isChannel()) continue;
+      String sid = context.normalizeServerId(ref.serverId());
+      String channel = Objects.toString(ref.target(), "").trim();
+      String key = foldChannelKey(channel);
+      if (sid.isEmpty() || key.isEmpty()) continue;
+
+      Map<String, Long> byChannel =
+          channelActivityRankByServer.computeIfAbsent(sid, __ -> new HashMap<>());
+      byChannel.put(key, ++channelActivityRankCounter);
+
+      if (channelSortModeByServer.getOrDefault(sid, ServerTreeDockable.ChannelSortMode.CUSTOM)
+          == ServerTreeDockable.ChannelSortMode.MOST_RECENT_ACTIVITY) {
+        resort.add(sid);
+      }
+    }
+    for (String sid : resort) {
       sortChannelsUnderChannelList(sid);
     }
   }
 
   public void onChannelUnreadCountsChanged(TargetRef ref) {
-    if (ref == null || !ref.isChannel()) return;
-    String sid = context.normalizeServerId(ref.serverId());
-    if (sid.isEmpty()) return;
-    ServerTreeDockable.ChannelSortMode mode =
-        channelSortModeByServer.getOrDefault(sid, ServerTreeDockable.ChannelSortMode.CUSTOM);
-    if (mode == ServerTreeDockable.ChannelSortMode.MOST_UNREAD_MESSAGES
-        || mode == ServerTreeDockable.ChannelSortMode.MOST_UNREAD_NOTIFICATIONS) {
+    if (ref == null) return;
+    onChannelUnreadCountsChangedBatch(List.of(ref));
+  }
+
+  /** Re-sorts each server whose sort mode depends on unread counts at most once for the batch. */
+  public void onChannelUnreadCountsChangedBatch(Collection<TargetRef> refs) {
+    if (refs == null || refs.isEmpty()) return;
+    LinkedHashSet<String> resort = new LinkedHashSet<>();
+    for (TargetRef ref : refs) {
+      if (ref == null || !ref.isChannel()) continue;
+      String sid = context.normalizeServerId(ref.serverId());
+      if (sid.isEmpty()) continue;
+      ServerTreeDockable.ChannelSortMode mode =
+          channelSortModeByServer.getOrDefault(sid, ServerTreeDockable.ChannelSortMode.CUSTOM);
+      if (mode == ServerTreeDockable.ChannelSortMode.MOST_UNREAD_MESSAGES
+          || mode == ServerTreeDockable.ChannelSortMode.MOST_UNREAD_NOTIFICATIONS) {
+        resort.add(sid);
+      }
+    }
+    for (String sid : resort) {
       sortChannelsUnderChannelList(sid);
     }
   }
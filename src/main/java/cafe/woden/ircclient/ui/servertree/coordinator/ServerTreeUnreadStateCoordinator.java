@@ -3,29 +3,53 @@ package cafe.woden.ircclient.ui.servertree.coordinator;
 import cafe.woden.ircclient.model.TargetRef;
 import cafe.woden.ircclient.ui.servertree.ServerTreeConventions;
 import cafe.woden.ircclient.ui.servertree.model.ServerTreeNodeData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import javax.swing.Timer;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeNode;
 
-/** Coordinates unread/highlight counters and notifications for server tree channel nodes. */
+/**
+ * Coordinates unread/highlight counters and notifications for server tree channel nodes.
+ *
+ * <p>Counters are bumped immediately, but the expensive follow-ups (node repaint, activity/unread
+ * re-sorts, managed-channel events) are collected in a dirty set and flushed at most once per
+ * frame. A busy server with hundreds of active channels then costs one {@code nodesChanged} per
+ * parent, one re-sort per server and one managed-channels event per server per flush.
+ */
 public final class ServerTreeUnreadStateCoordinator {
 
+  static final int FLUSH_FRAME_MS = 16;
+
   private final Map<TargetRef, DefaultMutableTreeNode> leaves;
   private final DefaultTreeModel model;
   private final Predicate<TargetRef> isChannelMuted;
-  private final Consumer<TargetRef> noteChannelActivity;
-  private final Consumer<TargetRef> onChannelUnreadCountsChanged;
+  private final Consumer<Collection<TargetRef>> noteChannelActivity;
+  private final Consumer<Collection<TargetRef>> onChannelUnreadCountsChanged;
   private final Consumer<String> emitManagedChannelsChanged;
 
+  // Dirty sets; all access happens on the EDT.
+  private final LinkedHashSet<DefaultMutableTreeNode> dirtyNodes = new LinkedHashSet<>();
+  private final LinkedHashSet<TargetRef> dirtyActivity = new LinkedHashSet<>();
+  private final LinkedHashSet<TargetRef> dirtyUnreadCounts = new LinkedHashSet<>();
+  private final LinkedHashSet<String> dirtyManagedServers = new LinkedHashSet<>();
+  private final Timer flushTimer;
+
   public ServerTreeUnreadStateCoordinator(
       Map<TargetRef, DefaultMutableTreeNode> leaves,
       DefaultTreeModel model,
       Predicate<TargetRef> isChannelMuted,
-      Consumer<TargetRef> noteChannelActivity,
-      Consumer<TargetRef> onChannelUnreadCountsChanged,
+      Consumer<Collection<TargetRef>> noteChannelActivity,
+      Consumer<Collection<TargetRef>> onChannelUnreadCountsChanged,
       Consumer<String> emitManagedChannelsChanged) {
     this.leaves = Objects.requireNonNull(leaves, "leaves");
     this.model = Objects.requireNonNull(model, "model");
@@ -35,6 +59,9 @@ public final class ServerTreeUnreadStateCoordinator {
         Objects.requireNonNull(onChannelUnreadCountsChanged, "onChannelUnreadCountsChanged");
     this.emitManagedChannelsChanged =
         Objects.requireNonNull(emitManagedChannelsChanged, "emitManagedChannelsChanged");
+    this.flushTimer = new Timer(FLUSH_FRAME_MS, e -> flushPendingChanges());
+    this.flushTimer.setRepeats(false);
+    this.flushTimer.setCoalesce(true);
   }
 
   public void markUnread(TargetRef ref) {
@@ -52,9 +79,9 @@ public final class ServerTreeUnreadStateCoordinator {
     if (nodeData.unread == 0 && nodeData.highlightUnread == 0) return;
     nodeData.unread = 0;
     nodeData.highlightUnread = 0;
-    model.nodeChanged(node);
-    onChannelUnreadCountsChanged.accept(ref);
-    emitManagedChannelsChangedIfChannel(ref);
+    // Selection-driven: apply right away together with anything already queued.
+    markDirty(node, ref, false);
+    flushPendingChanges();
   }
 
   public void onChannelMutedStateChanged(TargetRef ref, boolean muted) {
@@ -69,6 +96,29 @@ public final class ServerTreeUnreadStateCoordinator {
     }
   }
 
+  /** Applies all queued repaints, re-sorts and managed-channel events now. */
+  public void flushPendingChanges() {
+    flushTimer.stop();
+    if (dirtyNodes.isEmpty() && dirtyActivity.isEmpty() && dirtyUnreadCounts.isEmpty()) return;
+
+    List<TargetRef> activity = List.copyOf(dirtyActivity);
+    List<TargetRef> unreadCounts = List.copyOf(dirtyUnreadCounts);
+    List<DefaultMutableTreeNode> nodes = List.copyOf(dirtyNodes);
+    List<String> managedServers = List.copyOf(dirtyManagedServers);
+    dirtyActivity.clear();
+    dirtyUnreadCounts.clear();
+    dirtyNodes.clear();
+    dirtyManagedServers.clear();
+
+    // Re-sorts first so the repaint batch below uses the final child indices.
+    if (!activity.isEmpty()) noteChannelActivity.accept(activity);
+    if (!unreadCounts.isEmpty()) onChannelUnreadCountsChanged.accept(unreadCounts);
+    nodesChangedBatch(nodes);
+    for (String serverId : managedServers) {
+      emitManagedChannelsChanged.accept(serverId);
+    }
+  }
+
   private void bumpUnreadCounter(TargetRef ref, boolean highlight) {
     if (ServerTreeConventions.isChannelTarget(ref) && isChannelMuted.test(ref)) return;
     DefaultMutableTreeNode node = leaves.get(ref);
@@ -79,10 +129,10 @@ public final class ServerTreeUnreadStateCoordinator {
     } else {
       nodeData.unread++;
     }
-    noteChannelActivity.accept(ref);
-    model.nodeChanged(node);
-    onChannelUnreadCountsChanged.accept(ref);
-    emitManagedChannelsChangedIfChannel(ref);
+    markDirty(node, ref, true);
+    if (!flushTimer.isRunning()) {
+      flushTimer.start();
+    }
   }
 
   private void clearUnreadForMutedChannel(TargetRef ref) {
@@ -96,15 +146,43 @@ public final class ServerTreeUnreadStateCoordinator {
     }
     nodeData.unread = 0;
     nodeData.highlightUnread = 0;
-    model.nodeChanged(node);
-    onChannelUnreadCountsChanged.accept(ref);
-    emitManagedChannelsChangedIfChannel(ref);
+    markDirty(node, ref, false);
+    flushPendingChanges();
   }
 
-  private void emitManagedChannelsChangedIfChannel(TargetRef ref) {
+  private void markDirty(DefaultMutableTreeNode node, TargetRef ref, boolean activity) {
+    dirtyNodes.add(node);
+    if (activity) {
+      // Re-insert so the flush replays activity in most-recent-last order.
+      dirtyActivity.remove(ref);
+      dirtyActivity.add(ref);
+    }
+    dirtyUnreadCounts.add(ref);
     if (!ServerTreeConventions.isChannelTarget(ref)) return;
     String serverId = Objects.toString(ref.serverId(), "").trim();
     if (serverId.isEmpty()) return;
-    emitManagedChannelsChanged.accept(serverId);
+    dirtyManagedServers.add(serverId);
+  }
+
+  /** One {@code nodesChanged} per parent instead of one {@code nodeChanged} per message. */
+  private void nodesChangedBatch(List<DefaultMutableTreeNode> nodes) {
+    if (nodes.isEmpty()) return;
+    LinkedHashMap<TreeNode, List<Integer>> indicesByParent = new LinkedHashMap<>();
+    for (DefaultMutableTreeNode node : nodes) {
+      TreeNode parent = node.getParent();
+      if (parent == null) {
+        // Root or detached node; the model handles both through nodeChanged.
+        model.nodeChanged(node);
+        continue;
+      }
+      int index = parent.getIndex(node);
+      if (index < 0) continue;
+      indicesByParent.computeIfAbsent(parent, __ -> new ArrayList<>()).add(index);
+    }
+    for (Map.Entry<TreeNode, List<Integer>> e : indicesByParent.entrySet()) {
+      int[] indices = e.getValue().stream().mapToInt(Integer::intValue).toArray();
+      Arrays.sort(indices);
+      model.nodesChanged(e.getKey(), indices);
+    }
   }
 }
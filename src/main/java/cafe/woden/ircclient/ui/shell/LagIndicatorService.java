@@ -4,13 +4,16 @@ import static com.google.common.base.Verify.verify;
 
 import cafe.woden.ircclient.app.api.ActiveTargetPort;
 import cafe.woden.ircclient.config.api.UiShellRuntimeConfigPort;
+import cafe.woden.ircclient.irc.ServerEventBuffer;
 import cafe.woden.ircclient.irc.port.IrcLagProbePort;
 import cafe.woden.ircclient.model.TargetRef;
 import cafe.woden.ircclient.util.VirtualThreads;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,6 +42,9 @@ public class LagIndicatorService {
       TimeUnit.SECONDS.toMillis(PASSIVE_FALLBACK_PROBE_INTERVAL_SECONDS);
   private static final long PROBE_RESULT_WAIT_MS = 750L;
   private static final long PROBE_RESULT_POLL_MS = 50L;
+  private static final long BACKLOG_CHECK_INTERVAL_MS = 1_000L;
+  // Events queued longer than this mean the UI is visibly behind the server.
+  private static final long CATCHING_UP_AFTER_MS = 1_500L;
 
   private final UiShellRuntimeConfigPort runtimeConfig;
   private final StatusBar statusBar;
@@ -48,6 +54,8 @@ public class LagIndicatorService {
 
   private final AtomicBoolean enabled = new AtomicBoolean(true);
   private final AtomicReference<ScheduledFuture<?>> periodicCheckTask = new AtomicReference<>();
+  private final AtomicReference<ScheduledFuture<?>> backlogCheckTask = new AtomicReference<>();
+  private final AtomicBoolean catchingUpShown = new AtomicBoolean(false);
   private final AtomicReference<String> lastDiagnosticState = new AtomicReference<>("");
   private final Set<String> serversWithLagSample = ConcurrentHashMap.newKeySet();
   private final Map<String, Long> lastFallbackProbeAtMsByServer = new ConcurrentHashMap<>();
@@ -69,11 +77,18 @@ public class LagIndicatorService {
     boolean initialEnabled = runtimeConfig.readLagIndicatorEnabled(true);
     log.debug("[lag] startup: enabled={}", initialEnabled);
     applyEnabled(initialEnabled, false);
+    backlogCheckTask.set(
+        scheduler.scheduleWithFixedDelay(
+            this::checkEventBacklogSafely,
+            BACKLOG_CHECK_INTERVAL_MS,
+            BACKLOG_CHECK_INTERVAL_MS,
+            TimeUnit.MILLISECONDS));
   }
 
   @PreDestroy
   void shutdown() {
     cancelTask(periodicCheckTask);
+    cancelTask(backlogCheckTask);
     scheduler.shutdownNow();
   }
 
@@ -233,6 +248,47 @@ public class LagIndicatorService {
     }
   }
 
+  /** Shows the "catching up" indicator while the active server's events queue up behind the UI. */
+  private void checkEventBacklogSafely() {
+    try {
+      String serverId = resolveActiveServerContext().serverId();
+      Optional<ServerEventBuffer.Backlog> backlog =
+          serverId.isBlank() ? Optional.empty() : lagProbePort.eventBacklog(serverId);
+      if (backlog.isEmpty() || backlog.get().oldestQueuedMs() < CATCHING_UP_AFTER_MS) {
+        if (catchingUpShown.getAndSet(false)) {
+          statusBar.setCatchingUpIndicator(0, null);
+        }
+        return;
+      }
+      ServerEventBuffer.Backlog b = backlog.get();
+      catchingUpShown.set(true);
+      statusBar.setCatchingUpIndicator(b.queuedEvents(), catchingUpTooltip(b));
+    } catch (Exception e) {
+      log.debug("[lag] event backlog check failed", e);
+    }
+  }
+
+  static String catchingUpTooltip(ServerEventBuffer.Backlog backlog) {
+    String tip =
+        String.format(
+            Locale.ROOT,
+            "Processing a backlog from '%s': %,d events (%,d KiB) queued, oldest %.1f s ago.",
+            backlog.serverId(),
+            backlog.queuedEvents(),
+            backlog.queuedBytes() / 1024L,
+            backlog.oldestQueuedMs() / 1000.0d);
+    if (backlog.shedEvents() > 0L) {
+      tip +=
+          String.format(
+              Locale.ROOT, " %,d typing/read-marker updates dropped.", backlog.shedEvents());
+    }
+    if (backlog.spilledEvents() > 0) {
+      tip +=
+          String.format(Locale.ROOT, " %,d chat lines waiting on disk.", backlog.spilledEvents());
+    }
+    return tip;
+  }
+
   private ResolvedServerContext resolveActiveServerContext() {
     TargetRef active = null;
     try {
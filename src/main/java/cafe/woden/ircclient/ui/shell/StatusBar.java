@@ -12,6 +12,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import javax.swing.*;
 import javax.swing.border.BevelBorder;
@@ -50,6 +51,7 @@ public class StatusBar extends JPanel {
   private final JLabel opsLabel = new JLabel("Ops: 0");
   private final JLabel serverLabel = new JLabel(SERVER_DISCONNECTED_TEXT);
   private final JLabel lagLabel = new JLabel("Lag: --");
+  private final JLabel catchingUpLabel = new JLabel();
   private final JLabel noticeLabel = new JLabel();
   private final JButton historyButton = new JButton("Notices");
   private final JButton updateNotifierButton = new JButton();
@@ -104,12 +106,14 @@ public class StatusBar extends JPanel {
 
     JPanel right = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 3));
     right.add(serverLabel);
+    right.add(catchingUpLabel);
     right.add(lagLabel);
     right.add(updateNotifierButton);
 
     JPanel center = new JPanel(new BorderLayout(10, 0));
     center.setOpaque(false);
     center.setBorder(new EmptyBorder(3, 0, 3, 0));
+    catchingUpLabel.setVisible(false);
     noticeLabel.setText("");
     noticeLabel.setToolTipText(null);
     noticeLabel.setVisible(false);
@@ -252,6 +256,18 @@ public class StatusBar extends JPanel {
     }
   }
 
+  /**
+   * Show that the active server's event stream is behind, with {@code queuedEvents} still waiting
+   * to be processed; zero or less hides the indicator.
+   */
+  public void setCatchingUpIndicator(int queuedEvents, String tooltip) {
+    if (SwingUtilities.isEventDispatchThread()) {
+      setCatchingUpIndicatorOnEdt(queuedEvents, tooltip);
+    } else {
+      SwingUtilities.invokeLater(() -> setCatchingUpIndicatorOnEdt(queuedEvents, tooltip));
+    }
+  }
+
   public void setChannel(String channel) {
     channelLabel.setText("Channel: " + (channel == null ? "-" : channel));
   }
@@ -261,6 +277,23 @@ public class StatusBar extends JPanel {
     opsLabel.setText("Ops: " + ops);
   }
 
+  /** Tooltip on the user count: WHOX enrichment coverage, or none when {@code members < 0}. */
+  public void setUserInfoCoverage(int enriched, int members) {
+    usersLabel.setToolTipText(userInfoCoverageTooltip(enriched, members));
+  }
+
+  static String userInfoCoverageTooltip(int enriched, int members) {
+    if (members < 0) return null;
+    int known = Math.min(Math.max(0, enriched), members);
+    int percent = members == 0 ? 100 : (int) ((known * 100L) / members);
+    return String.format(
+        Locale.ROOT,
+        "User info coverage: %d%% (%,d of %,d users with hostmask, away state and account known)",
+        percent,
+        known,
+        members);
+  }
+
   public void setServer(String serverText) {
     ServerLabelDisplay display = serverLabelDisplay(serverText);
     serverLabel.setText(display.label());
@@ -707,6 +740,7 @@ public class StatusBar extends JPanel {
     opsLabel.setFont(base);
     serverLabel.setFont(base);
     lagLabel.setFont(base);
+    catchingUpLabel.setFont(base);
     noticeLabel.setFont(base);
     historyButton.setFont(buttonFont);
     updateNotifierButton.setFont(buttonFont);
@@ -781,6 +815,21 @@ public class StatusBar extends JPanel {
     }
   }
 
+  private void setCatchingUpIndicatorOnEdt(int queuedEvents, String tooltip) {
+    if (queuedEvents <= 0) {
+      catchingUpLabel.setVisible(false);
+      catchingUpLabel.setText("");
+      catchingUpLabel.setToolTipText(null);
+      return;
+    }
+    catchingUpLabel.setForeground(statusTextForeground());
+    catchingUpLabel.setText(
+        String.format(java.util.Locale.ROOT, "Catching up (%,d)", queuedEvents));
+    String tip = Objects.toString(tooltip, "").trim();
+    catchingUpLabel.setToolTipText(tip.isEmpty() ? null : tip);
+    catchingUpLabel.setVisible(true);
+  }
+
   private static String formatLag(long lagMs) {
     if (lagMs < 1000L) {
       return lagMs + " ms";
@@ -0,0 +1,38 @@
+package cafe.woden.ircclient.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonicalizes frequently repeated values (nicks, channel names, tag keys, whole tag maps) so
+ * buffered events share one instance instead of each holding its own decoded copy.
+ *
+ * <p>Unlike {@link String#intern()} the pool is bounded: once it holds {@code maxEntries} values it
+ * is cleared and refills with whatever is current, so a long session with many transient names
+ * cannot grow it without limit.
+ *
+ * @param <T> pooled value type; must have value-based {@code equals}/{@code hashCode}
+ */
+public final class BoundedInterner<T> {
+
+  private final int maxEntries;
+  private final ConcurrentHashMap<T, T> pool;
+
+  public BoundedInterner(int maxEntries) {
+    this.maxEntries = Math.max(1, maxEntries);
+    this.pool = new ConcurrentHashMap<>(Math.min(this.maxEntries, 1024));
+  }
+
+  /** Returns the pooled instance equal to {@code value}, pooling {@code value} if there is none. */
+  public T intern(T value) {
+    if (value == null) return null;
+    T existing = pool.get(value);
+    if (existing != null) return existing;
+    if (pool.size() >= maxEntries) pool.clear();
+    existing = pool.putIfAbsent(value, value);
+    return existing != null ? existing : value;
+  }
+
+  public int size() {
+    return pool.size();
+  }
+}
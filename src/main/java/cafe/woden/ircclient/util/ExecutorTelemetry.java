@@ -0,0 +1,229 @@
+package cafe.woden.ircclient.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jmolecules.ddd.annotation.ValueObject;
+
+/**
+ * Process-wide counters and latency histograms for app-owned background lanes.
+ *
+ * <p>A lane is keyed by executor base name, so every executor created through {@link
+ * VirtualThreads} with the same name reports into one row. Queues that are not executors (the chat
+ * log writer, for example) can report into a lane directly. All updates are lock-free; snapshots
+ * are best-effort and may be slightly torn under load.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ExecutorTelemetry {
+  private static final ConcurrentMap<String, Lane> LANES = new ConcurrentHashMap<>();
+
+  /** Returns the lane for {@code name}, creating it on first use. */
+  public static Lane lane(String name) {
+    String key = Objects.toString(name, "").trim();
+    if (key.isEmpty()) key = "ircafe-vthread";
+    return LANES.computeIfAbsent(key, Lane::new);
+  }
+
+  /** Current stats of every lane, sorted by name. */
+  public static List<LaneStats> snapshot() {
+    List<LaneStats> out = new ArrayList<>(LANES.size());
+    for (Lane lane : LANES.values()) out.add(lane.snapshot());
+    out.sort(Comparator.comparing(LaneStats::name));
+    return List.copyOf(out);
+  }
+
+  /** Zeroes counters and histograms of every lane; live queue depth is unaffected. */
+  public static void reset() {
+    for (Lane lane : LANES.values()) lane.reset();
+  }
+
+  /** Counters for one lane. Timestamps are {@link System#nanoTime()} values. */
+  public static final class Lane {
+    private final String name;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LatencyHistogram waitMicros = new LatencyHistogram();
+    private final LatencyHistogram runMicros = new LatencyHistogram();
+    private volatile IntSupplier queueDepthProbe;
+
+    private Lane(String name) {
+      this.name = name;
+    }
+
+    public String name() {
+      return name;
+    }
+
+    /**
+     * Uses {@code probe} for queue depth instead of counting submitted-but-unstarted tasks. Lanes
+     * whose tasks can be cancelled or dropped without running should supply one.
+     */
+    public void queueDepthProbe(IntSupplier probe) {
+      this.queueDepthProbe = probe;
+    }
+
+    /** Records one submission and returns its timestamp, to be passed to {@link #started}. */
+    public long submitted() {
+      submitted.increment();
+      pending.incrementAndGet();
+      return System.nanoTime();
+    }
+
+    /** Records a submission the lane refused or dropped. */
+    public void rejected() {
+      rejected.increment();
+      pending.decrementAndGet();
+    }
+
+    /**
+     * Records a task start and returns the start timestamp, to be passed to {@link #finished}.
+     *
+     * @param dueAtNanos when the task was submitted or became due; non-positive skips wait timing
+     */
+    public long started(long dueAtNanos) {
+      long now = System.nanoTime();
+      pending.decrementAndGet();
+      running.incrementAndGet();
+      if (dueAtNanos > 0L) waitMicros.record(Math.max(0L, now - dueAtNanos) / 1_000L);
+      return now;
+    }
+
+    /** Records a task end and returns the end timestamp. */
+    public long finished(long startedAtNanos, boolean ok) {
+      long now = System.nanoTime();
+      running.decrementAndGet();
+      (ok ? completed : failed).increment();
+      runMicros.record(Math.max(0L, now - startedAtNanos) / 1_000L);
+      return now;
+    }
+
+    /** Records a batch of {@code units} submissions handled in one run timed by the caller. */
+    public void ran(long runNanos, int units, boolean ok) {
+      (ok ? completed : failed).add(Math.max(0, units));
+      runMicros.record(Math.max(0L, runNanos) / 1_000L);
+    }
+
+    int queueDepth() {
+      IntSupplier probe = queueDepthProbe;
+      if (probe != null) {
+        try {
+          return Math.max(0, probe.getAsInt());
+        } catch (RuntimeException ignored) {
+          return 0;
+        }
+      }
+      return Math.max(0, pending.get());
+    }
+
+    LaneStats snapshot() {
+      return new LaneStats(
+          name,
+          submitted.sum(),
+          completed.sum(),
+          failed.sum(),
+          rejected.sum(),
+          queueDepth(),
+          Math.max(0, running.get()),
+          waitMicros.percentile(0.50d),
+          waitMicros.percentile(0.99d),
+          waitMicros.max(),
+          runMicros.percentile(0.50d),
+          runMicros.percentile(0.99d),
+          runMicros.max());
+    }
+
+    void reset() {
+      submitted.reset();
+      completed.reset();
+      failed.reset();
+      rejected.reset();
+      waitMicros.reset();
+      runMicros.reset();
+    }
+  }
+
+  /**
+   * Point-in-time stats of one lane. Percentiles are the upper bound of the power-of-two
+   * microsecond bucket they fall into, capped at the observed max.
+   */
+  @ValueObject
+  public record LaneStats(
+      String name,
+      long submitted,
+      long completed,
+      long failed,
+      long rejected,
+      int queueDepth,
+      int running,
+      long waitP50Micros,
+      long waitP99Micros,
+      long waitMaxMicros,
+      long runP50Micros,
+      long runP99Micros,
+      long runMaxMicros) {}
+
+  /** Lock-free histogram over power-of-two microsecond buckets (1us .. ~17s, then open-ended). */
+  static final class LatencyHistogram {
+    static final int BUCKETS = 26;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    void record(long micros) {
+      long v = Math.max(0L, micros);
+      counts.incrementAndGet(bucketOf(v));
+      max.accumulate(v);
+    }
+
+    long max() {
+      return max.get();
+    }
+
+    long percentile(double q) {
+      long[] snap = new long[BUCKETS];
+      long total = 0L;
+      for (int i = 0; i < BUCKETS; i++) {
+        snap[i] = counts.get(i);
+        total += snap[i];
+      }
+      if (total == 0L) return 0L;
+      long observedMax = max.get();
+      long rank = Math.max(1L, (long) Math.ceil(q * total));
+      long seen = 0L;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += snap[i];
+        if (seen >= rank) return Math.min(upperMicros(i), observedMax);
+      }
+      return observedMax;
+    }
+
+    void reset() {
+      for (int i = 0; i < BUCKETS; i++) counts.set(i, 0L);
+      max.reset();
+    }
+
+    static int bucketOf(long micros) {
+      if (micros <= 1L) return 0;
+      int bucket = 64 - Long.numberOfLeadingZeros(micros - 1L);
+      return Math.min(bucket, BUCKETS - 1);
+    }
+
+    static long upperMicros(int bucket) {
+      return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package cafe.woden.ircclient.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executor decorator that reports submissions, rejections, wait time and run time of every task to
+ * an {@link ExecutorTelemetry.Lane}.
+ */
+class InstrumentedExecutorService implements ExecutorService {
+  private final ExecutorService delegate;
+  protected final ExecutorTelemetry.Lane lane;
+
+  InstrumentedExecutorService(ExecutorService delegate, ExecutorTelemetry.Lane lane) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate");
+    this.lane = Objects.requireNonNull(lane, "lane");
+  }
+
+  protected final Runnable wrap(Runnable task) {
+    Objects.requireNonNull(task, "task");
+    long submittedAt = lane.submitted();
+    return () -> {
+      long startedAt = lane.started(submittedAt);
+      boolean ok = false;
+      try {
+        task.run();
+        ok = true;
+      } finally {
+        lane.finished(startedAt, ok);
+      }
+    };
+  }
+
+  protected final <T> Callable<T> wrap(Callable<T> task) {
+    Objects.requireNonNull(task, "task");
+    long submittedAt = lane.submitted();
+    return () -> {
+      long startedAt = lane.started(submittedAt);
+      boolean ok = false;
+      try {
+        T result = task.call();
+        ok = true;
+        return result;
+      } finally {
+        lane.finished(startedAt, ok);
+      }
+    };
+  }
+
+  protected final <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+    List<Callable<T>> out = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) out.add(wrap(task));
+    return out;
+  }
+
+  protected final RejectedExecutionException rejected(
+      RejectedExecutionException e, int submissions) {
+    for (int i = 0; i < submissions; i++) lane.rejected();
+    return e;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    Runnable wrapped = wrap(command);
+    try {
+      delegate.execute(wrapped);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, 1);
+    }
+  }
+
+  @Override
+  public Future<?> submit(Runnable task) {
+    Runnable wrapped = wrap(task);
+    try {
+      return delegate.submit(wrapped);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, 1);
+    }
+  }
+
+  @Override
+  public <T> Future<T> submit(Runnable task, T result) {
+    Runnable wrapped = wrap(task);
+    try {
+      return delegate.submit(wrapped, result);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, 1);
+    }
+  }
+
+  @Override
+  public <T> Future<T> submit(Callable<T> task) {
+    Callable<T> wrapped = wrap(task);
+    try {
+      return delegate.submit(wrapped);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, 1);
+    }
+  }
+
+  @Override
+  public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+      throws InterruptedException {
+    List<Callable<T>> wrapped = wrapAll(tasks);
+    try {
+      return delegate.invokeAll(wrapped);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, wrapped.size());
+    }
+  }
+
+  @Override
+  public <T> List<Future<T>> invokeAll(
+      Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    List<Callable<T>> wrapped = wrapAll(tasks);
+    try {
+      return delegate.invokeAll(wrapped, timeout, unit);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, wrapped.size());
+    }
+  }
+
+  @Override
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+      throws InterruptedException, ExecutionException {
+    List<Callable<T>> wrapped = wrapAll(tasks);
+    try {
+      return delegate.invokeAny(wrapped);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, wrapped.size());
+    }
+  }
+
+  @Override
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    List<Callable<T>> wrapped = wrapAll(tasks);
+    try {
+      return delegate.invokeAny(wrapped, timeout, unit);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, wrapped.size());
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return delegate.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public String toString() {
+    return "Instrumented[" + lane.name() + "]" + delegate;
+  }
+}
@@ -0,0 +1,108 @@
+package cafe.woden.ircclient.util;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduled variant of {@link InstrumentedExecutorService}. Wait time of delayed and periodic tasks
+ * is measured from when each run became due, so it reports lateness rather than the delay itself.
+ */
+final class InstrumentedScheduledExecutorService extends InstrumentedExecutorService
+    implements ScheduledExecutorService {
+  private final ScheduledExecutorService delegate;
+
+  InstrumentedScheduledExecutorService(
+      ScheduledExecutorService delegate, ExecutorTelemetry.Lane lane) {
+    super(delegate, lane);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    Objects.requireNonNull(command, "command");
+    long dueAt = lane.submitted() + unit.toNanos(Math.max(0L, delay));
+    Runnable wrapped =
+        () -> {
+          long startedAt = lane.started(dueAt);
+          boolean ok = false;
+          try {
+            command.run();
+            ok = true;
+          } finally {
+            lane.finished(startedAt, ok);
+          }
+        };
+    try {
+      return delegate.schedule(wrapped, delay, unit);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, 1);
+    }
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    Objects.requireNonNull(callable, "callable");
+    long dueAt = lane.submitted() + unit.toNanos(Math.max(0L, delay));
+    Callable<V> wrapped =
+        () -> {
+          long startedAt = lane.started(dueAt);
+          boolean ok = false;
+          try {
+            V result = callable.call();
+            ok = true;
+            return result;
+          } finally {
+            lane.finished(startedAt, ok);
+          }
+        };
+    try {
+      return delegate.schedule(wrapped, delay, unit);
+    } catch (RejectedExecutionException e) {
+      throw rejected(e, 1);
+    }
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(
+      Runnable command, long initialDelay, long period, TimeUnit unit) {
+    Runnable wrapped = periodic(command, unit.toNanos(initialDelay), unit.toNanos(period), true);
+    return delegate.scheduleAtFixedRate(wrapped, initialDelay, period, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(
+      Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    Runnable wrapped = periodic(command, unit.toNanos(initialDelay), unit.toNanos(delay), false);
+    return delegate.scheduleWithFixedDelay(wrapped, initialDelay, delay, unit);
+  }
+
+  /**
+   * Each run counts as one submission. Runs of one periodic task never overlap, so the next due
+   * time can live in a plain field of the wrapper.
+   */
+  private Runnable periodic(
+      Runnable command, long initialDelayNanos, long periodNanos, boolean fixedRate) {
+    Objects.requireNonNull(command, "command");
+    return new Runnable() {
+      private long dueAt = System.nanoTime() + Math.max(0L, initialDelayNanos);
+
+      @Override
+      public void run() {
+        lane.submitted();
+        long startedAt = lane.started(dueAt);
+        boolean ok = false;
+        try {
+          command.run();
+          ok = true;
+        } finally {
+          long endedAt = lane.finished(startedAt, ok);
+          dueAt = fixedRate ? dueAt + periodNanos : endedAt + periodNanos;
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,106 @@
+package cafe.woden.ircclient.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cached, reflection-free calls of zero-arg accessors ({@code getTags()}, {@code getRawLine()}
+ * and friends) on objects whose concrete type is only known at runtime, such as PircBotX events.
+ *
+ * <p>Each {@code (class, method)} pair is resolved once into a {@link MethodHandle} (or a cached
+ * miss) and kept in a {@link ClassValue}, so the per-event cost is a map lookup plus a direct
+ * handle invocation instead of {@code getMethod} + {@code Method.invoke}. Failures of the accessor
+ * itself are swallowed and reported as {@code null}, matching the ad-hoc helpers this replaces.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class NoArgAccessors {
+
+  private static final MethodType OBJECT_TO_OBJECT =
+      MethodType.methodType(Object.class, Object.class);
+
+  /** Sentinel for "no such accessor"; never invoked. */
+  private static final MethodHandle MISSING =
+      MethodHandles.constant(Object.class, null).asType(MethodType.methodType(Object.class));
+
+  private static final ClassValue<ConcurrentHashMap<String, MethodHandle>> PUBLIC_ONLY =
+      new ClassValue<>() {
+        @Override
+        protected ConcurrentHashMap<String, MethodHandle> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private static final ClassValue<ConcurrentHashMap<String, MethodHandle>> WITH_DECLARED =
+      new ClassValue<>() {
+        @Override
+        protected ConcurrentHashMap<String, MethodHandle> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  /** Calls the public zero-arg method {@code method} on {@code target}, or returns null. */
+  public static Object call(Object target, String method) {
+    if (target == null || method == null) return null;
+    Class<?> type = target.getClass();
+    MethodHandle handle =
+        PUBLIC_ONLY.get(type).computeIfAbsent(method, name -> resolve(type, name, false));
+    return invoke(handle, target);
+  }
+
+  /**
+   * Like {@link #call}, but also finds non-public methods declared anywhere in the superclass
+   * chain.
+   */
+  public static Object callIncludingDeclared(Object target, String method) {
+    if (target == null || method == null) return null;
+    Class<?> type = target.getClass();
+    MethodHandle handle =
+        WITH_DECLARED.get(type).computeIfAbsent(method, name -> resolve(type, name, true));
+    return invoke(handle, target);
+  }
+
+  private static Object invoke(MethodHandle handle, Object target) {
+    if (handle == MISSING) return null;
+    try {
+      return (Object) handle.invokeExact(target);
+    } catch (Throwable ignored) {
+      return null;
+    }
+  }
+
+  private static MethodHandle resolve(Class<?> type, String name, boolean includeDeclared) {
+    try {
+      MethodHandle handle = unreflect(type.getMethod(name));
+      if (handle != null) return handle;
+    } catch (NoSuchMethodException | SecurityException ignored) {
+    }
+    if (!includeDeclared) return MISSING;
+
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      try {
+        MethodHandle handle = unreflect(c.getDeclaredMethod(name));
+        if (handle != null) return handle;
+      } catch (NoSuchMethodException | SecurityException ignored) {
+      }
+    }
+    return MISSING;
+  }
+
+  private static MethodHandle unreflect(Method m) {
+    if (Modifier.isStatic(m.getModifiers()) || m.getReturnType() == void.class) return null;
+    try {
+      // Public methods on non-public classes (private event subclasses, anonymous types) still
+      // need the accessibility override, same as Method.invoke did.
+      m.trySetAccessible();
+      return MethodHandles.lookup().unreflect(m).asType(OBJECT_TO_OBJECT);
+    } catch (IllegalAccessException | RuntimeException e) {
+      return null;
+    }
+  }
+}
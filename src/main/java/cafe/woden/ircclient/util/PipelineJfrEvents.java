@@ -0,0 +1,115 @@
+package cafe.woden.ircclient.util;
+
+import java.util.List;
+import java.util.Objects;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Custom JFR events for the stages a line passes through between the socket and the screen.
+ *
+ * <p>Usage follows the usual JFR pattern: construct, {@code begin()}, do the work, then {@link
+ * StageEvent#commit(String, String)}. While no recording enables these types, begin/end are no-ops
+ * and the event object is scalar-replaced, so instrumented paths pay close to nothing.
+ */
+public final class PipelineJfrEvents {
+
+  public static final String CATEGORY = "IRCafe";
+
+  /** Every stage event type, in pipeline order. */
+  public static final List<Class<? extends StageEvent>> ALL =
+      List.of(
+          InboundParse.class,
+          EventPrep.class,
+          EdtDispatch.class,
+          TranscriptAppend.class,
+          ChatLogFlush.class,
+          HistoryChunkRender.class,
+          PreviewFetch.class,
+          RosterUpdate.class);
+
+  private PipelineJfrEvents() {}
+
+  /** Common fields for all stage events. */
+  @Category({CATEGORY, "Pipeline"})
+  @StackTrace(false)
+  public abstract static class StageEvent extends Event {
+
+    @Label("Server")
+    public String server;
+
+    @Label("Target")
+    public String target;
+
+    /** Ends timing and commits with the given labels, but only if a recording wants the event. */
+    public final void commit(String server, String target) {
+      end();
+      if (!shouldCommit()) return;
+      this.server = Objects.toString(server, "");
+      this.target = Objects.toString(target, "");
+      commit();
+    }
+  }
+
+  @Name("cafe.woden.ircclient.InboundParse")
+  @Label("Inbound Parse")
+  @Description("Parsing and listener dispatch of one raw server line.")
+  public static final class InboundParse extends StageEvent {
+    @Label("Command")
+    public String command;
+  }
+
+  @Name("cafe.woden.ircclient.EventPrep")
+  @Label("Event Prep")
+  @Description("Off-EDT preparation (highlight/ignore/filter matching) of one inbound event.")
+  public static final class EventPrep extends StageEvent {
+    @Label("Event Type")
+    public String eventType;
+  }
+
+  @Name("cafe.woden.ircclient.EdtDispatch")
+  @Label("EDT Dispatch")
+  @Description("Handling of one prepared inbound event on the Swing event dispatch thread.")
+  public static final class EdtDispatch extends StageEvent {
+    @Label("Event Type")
+    public String eventType;
+  }
+
+  @Name("cafe.woden.ircclient.TranscriptAppend")
+  @Label("Transcript Append")
+  @Description("Styling and inserting one line into a transcript document.")
+  public static final class TranscriptAppend extends StageEvent {}
+
+  @Name("cafe.woden.ircclient.ChatLogFlush")
+  @Label("Chat Log Flush")
+  @Description("One batched insert of queued chat log lines; server/target are left empty.")
+  public static final class ChatLogFlush extends StageEvent {
+    @Label("Lines")
+    public int lines;
+  }
+
+  @Name("cafe.woden.ircclient.HistoryChunkRender")
+  @Label("History Chunk Render")
+  @Description("One EDT slice of history lines inserted into a transcript.")
+  public static final class HistoryChunkRender extends StageEvent {
+    @Label("Lines")
+    public int lines;
+  }
+
+  @Name("cafe.woden.ircclient.PreviewFetch")
+  @Label("Preview Fetch")
+  @Description("Fetching and resolving one link preview; target is the URL.")
+  public static final class PreviewFetch extends StageEvent {}
+
+  @Name("cafe.woden.ircclient.RosterUpdate")
+  @Label("Roster Update")
+  @Description("Applying one roster snapshot or delta to the user list store.")
+  public static final class RosterUpdate extends StageEvent {
+    @Label("Change")
+    public String change;
+  }
+}
@@ -0,0 +1,100 @@
+package cafe.woden.ircclient.util;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jmolecules.ddd.annotation.ValueObject;
+
+/**
+ * Process-wide record of startup milestones, measured from JVM start.
+ *
+ * <p>Milestones are marked once each, in whatever order the subsystems reach them; marking the
+ * same name again is ignored. Listeners are replayed the milestones seen so far when they
+ * register, so diagnostics that start late still see the whole timeline. Listeners run on the
+ * marking thread and must not block.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class StartupTimeline {
+
+  public static final String MAIN_ENTERED = "main() entered";
+  public static final String CONTEXT_READY = "Spring context ready";
+  public static final String LOOK_AND_FEEL = "Look and feel installed";
+  public static final String MAIN_WINDOW_VISIBLE = "Main window visible";
+  public static final String CHAT_LOG_MIGRATED = "Chat log migrations finished";
+  public static final String TRAY_INSTALLED = "Tray installed";
+  public static final String FIRST_HISTORY_LOADED = "First history preload finished";
+
+  private static final List<Phase> PHASES = new ArrayList<>();
+  private static final List<Consumer<Phase>> LISTENERS = new CopyOnWriteArrayList<>();
+
+  /** Records {@code name} unless it was already marked. */
+  public static void mark(String name) {
+    String key = Objects.toString(name, "").trim();
+    if (key.isEmpty()) return;
+    synchronized (PHASES) {
+      for (Phase p : PHASES) {
+        if (p.name().equals(key)) return;
+      }
+      Phase phase = new Phase(key, Instant.now(), uptimeMillis());
+      PHASES.add(phase);
+      for (Consumer<Phase> listener : LISTENERS) {
+        deliver(listener, phase);
+      }
+    }
+  }
+
+  /** Milestones marked so far, in the order they were reached. */
+  public static List<Phase> phases() {
+    synchronized (PHASES) {
+      return List.copyOf(PHASES);
+    }
+  }
+
+  /** Milliseconds from JVM start to {@code name}, or -1 when it has not been marked. */
+  public static long millisTo(String name) {
+    for (Phase p : phases()) {
+      if (p.name().equals(name)) return p.sinceJvmStartMillis();
+    }
+    return -1L;
+  }
+
+  public static void addListener(Consumer<Phase> listener) {
+    if (listener == null) return;
+    synchronized (PHASES) {
+      LISTENERS.add(listener);
+      for (Phase p : PHASES) {
+        deliver(listener, p);
+      }
+    }
+  }
+
+  public static void removeListener(Consumer<Phase> listener) {
+    if (listener == null) return;
+    LISTENERS.remove(listener);
+  }
+
+  private static void deliver(Consumer<Phase> listener, Phase phase) {
+    try {
+      listener.accept(phase);
+    } catch (RuntimeException ignored) {
+    }
+  }
+
+  private static long uptimeMillis() {
+    try {
+      return ManagementFactory.getRuntimeMXBean().getUptime();
+    } catch (RuntimeException | LinkageError e) {
+      return -1L;
+    }
+  }
+
+  /** One reached milestone. */
+  @ValueObject
+  public record Phase(String name, Instant at, long sinceJvmStartMillis) {}
+}
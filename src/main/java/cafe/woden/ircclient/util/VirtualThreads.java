@@ -4,13 +4,23 @@ import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableScheduledFuture;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
-/** Shared helpers for creating app-owned executors/threads on virtual threads. */
+/**
+ * Shared helpers for creating app-owned executors/threads on virtual threads.
+ *
+ * <p>Every executor returned here reports into the {@link ExecutorTelemetry} lane named after its
+ * base name.
+ */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class VirtualThreads {
   private static final java.util.Set<ExecutorService> TRACKED_EXECUTORS =
@@ -23,20 +33,29 @@ public final class VirtualThreads {
   }
 
   public static ExecutorService newSingleThreadExecutor(String baseName) {
-    return track(Executors.newSingleThreadExecutor(namedFactory(baseName)));
+    ThreadPoolExecutor exec =
+        new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), namedFactory(baseName));
+    return track(instrument(baseName, exec, exec.getQueue()::size));
   }
 
   public static ScheduledExecutorService newSingleThreadScheduledExecutor(String baseName) {
-    return track(Executors.newSingleThreadScheduledExecutor(namedFactory(baseName)));
+    return newScheduledThreadPool(1, baseName);
   }
 
   public static ExecutorService newThreadPerTaskExecutor(String baseName) {
-    return track(Executors.newThreadPerTaskExecutor(namedFactory(baseName)));
+    // Every task gets its own thread at once, so there is never a queue to report.
+    return track(
+        instrument(baseName, Executors.newThreadPerTaskExecutor(namedFactory(baseName)), () -> 0));
   }
 
   public static ScheduledExecutorService newScheduledThreadPool(int poolSize, String baseName) {
     int size = Math.max(1, poolSize);
-    return track(Executors.newScheduledThreadPool(size, namedFactory(baseName)));
+    ScheduledThreadPoolExecutor exec =
+        new ScheduledThreadPoolExecutor(size, namedFactory(baseName));
+    ExecutorTelemetry.Lane lane = ExecutorTelemetry.lane(normalize(baseName));
+    lane.queueDepthProbe(() -> dueTaskCount(exec));
+    return track(new InstrumentedScheduledExecutorService(exec, lane));
   }
 
   public static Thread start(String name, Runnable task) {
@@ -88,6 +107,26 @@ public final class VirtualThreads {
     }
   }
 
+  private static ExecutorService instrument(
+      String baseName, ExecutorService exec, IntSupplier queueDepth) {
+    ExecutorTelemetry.Lane lane = ExecutorTelemetry.lane(normalize(baseName));
+    lane.queueDepthProbe(queueDepth);
+    return new InstrumentedExecutorService(exec, lane);
+  }
+
+  /** Tasks that are due but not yet picked up; tasks still waiting on their delay don't count. */
+  private static int dueTaskCount(ScheduledThreadPoolExecutor exec) {
+    int due = 0;
+    for (Runnable r : exec.getQueue()) {
+      if (r instanceof RunnableScheduledFuture<?> f
+          && !f.isCancelled()
+          && f.getDelay(TimeUnit.NANOSECONDS) <= 0L) {
+        due++;
+      }
+    }
+    return due;
+  }
+
   private static <E extends ExecutorService> E track(E exec) {
     pruneTrackedExecutors();
     TRACKED_EXECUTORS.add(exec);
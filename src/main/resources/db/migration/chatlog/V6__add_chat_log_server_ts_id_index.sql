@@ -0,0 +1,3 @@
+-- Keyset paging for the server-wide log viewer and streaming export walks (ts_epoch_ms, id).
+
+CREATE INDEX idx_chat_log_server_ts_id ON chat_log(server_id, ts_epoch_ms, id);
@@ -0,0 +1,33 @@
+-- Persisted per-account Matrix room state, rosters and profiles, kept current from /sync deltas.
+
+CREATE TABLE matrix_room (
+  server_id VARCHAR(128) NOT NULL,
+  account_id VARCHAR(256) NOT NULL,
+  room_id VARCHAR(256) NOT NULL,
+  canonical_alias VARCHAR(256),
+  direct_peer VARCHAR(256),
+  read_marker_ts_epoch_ms BIGINT,
+  members_complete BOOLEAN DEFAULT FALSE NOT NULL,
+  updated_at_epoch_ms BIGINT NOT NULL,
+  PRIMARY KEY (server_id, account_id, room_id)
+);
+
+CREATE TABLE matrix_room_member (
+  server_id VARCHAR(128) NOT NULL,
+  account_id VARCHAR(256) NOT NULL,
+  room_id VARCHAR(256) NOT NULL,
+  user_id VARCHAR(256) NOT NULL,
+  display_name VARCHAR(512),
+  updated_at_epoch_ms BIGINT NOT NULL,
+  PRIMARY KEY (server_id, account_id, room_id, user_id)
+);
+
+CREATE TABLE matrix_profile (
+  server_id VARCHAR(128) NOT NULL,
+  account_id VARCHAR(256) NOT NULL,
+  user_id VARCHAR(256) NOT NULL,
+  display_name VARCHAR(512),
+  avatar_url VARCHAR(1024),
+  updated_at_epoch_ms BIGINT NOT NULL,
+  PRIMARY KEY (server_id, account_id, user_id)
+);
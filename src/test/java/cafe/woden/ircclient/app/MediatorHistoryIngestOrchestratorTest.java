@@ -178,6 +178,55 @@ class MediatorHistoryIngestOrchestratorTest {
     verify(ui, atLeastOnce()).appendStatus(eq(chan), eq("(history)"), contains("Persisted"));
   }
 
+  @Test
+  void prefetchedBatchPersistsWithoutCreatingTargetOrPostingStatus() {
+    TargetRef chan = new TargetRef("libera", "#ircafe");
+    when(ui.hasTarget(chan)).thenReturn(false);
+    ChatHistoryEntry chat =
+        new ChatHistoryEntry(
+            Instant.parse("2026-02-16T00:00:01Z"),
+            ChatHistoryEntry.Kind.PRIVMSG,
+            "#ircafe",
+            "alice",
+            "hello");
+    String batchId = IrcEvent.ChatHistoryBatchReceived.PREFETCH_BATCH_ID_PREFIX + "quassel-1";
+    IrcEvent.ChatHistoryBatchReceived ev =
+        new IrcEvent.ChatHistoryBatchReceived(Instant.now(), "#ircafe", batchId, List.of(chat));
+
+    orchestrator.onChatHistoryBatchReceived("libera", ev);
+
+    verify(ingestionPort).ingestAsync(eq("libera"), eq("#ircafe"), eq(batchId), any(), any());
+    verify(ingestEventsPort).publish(any());
+    verify(ui, never()).ensureTargetExists(any());
+    verify(ui, never()).appendStatus(any(), anyString(), anyString());
+    verify(routingState, never()).consumeIfFresh(anyString(), anyString(), any());
+    verify(transcripts, never()).beginHistoryInsertBatch(any());
+  }
+
+  @Test
+  void prefetchedBatchRendersIntoExistingTranscriptWaitingForHistory() {
+    TargetRef chan = new TargetRef("libera", "#ircafe");
+    when(ui.hasTarget(chan)).thenReturn(true);
+    when(routingState.consumeIfFresh(eq("libera"), eq("#ircafe"), any(Duration.class)))
+        .thenReturn(
+            new ChatHistoryRequestRoutingPort.PendingRequest(
+                chan, Instant.now(), 20, "*", ChatHistoryRequestRoutingPort.QueryMode.LATEST));
+    when(currentNickPort.currentNick("libera")).thenReturn(Optional.of("me"));
+    Instant t = Instant.parse("2026-02-16T04:00:01Z");
+    ChatHistoryEntry chat =
+        new ChatHistoryEntry(t, ChatHistoryEntry.Kind.PRIVMSG, "#ircafe", "alice", "hello");
+    String batchId = IrcEvent.ChatHistoryBatchReceived.PREFETCH_BATCH_ID_PREFIX + "quassel-2";
+
+    orchestrator.onChatHistoryBatchReceived(
+        "libera",
+        new IrcEvent.ChatHistoryBatchReceived(Instant.now(), "#ircafe", batchId, List.of(chat)));
+
+    verify(transcripts)
+        .appendChatFromHistory(
+            chan, "alice", "hello", false, t.toEpochMilli(), "", java.util.Map.of());
+    verify(ui, never()).appendStatus(any(), anyString(), anyString());
+  }
+
   @Test
   void zncPlaybackStatusGoesToTargetAndUsesUnifiedHistoryTag() {
     TargetRef chan = new TargetRef("libera", "#ircafe");
@@ -0,0 +1,40 @@
+package cafe.woden.ircclient.app.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cafe.woden.ircclient.util.ExecutorTelemetry;
+import org.junit.jupiter.api.Test;
+
+class InboundPreparationLaneStatsTest {
+
+  @Test
+  void namedStatsReportEachServerLaneAsAnExecutorLane() {
+    InboundPreparationLaneStats stats = new InboundPreparationLaneStats("test-inbound-prepare");
+    stats.enqueued("libera");
+    stats.enqueued("libera");
+    stats.prepared("libera", 2_000_000L, true);
+
+    ExecutorTelemetry.LaneStats lane =
+        ExecutorTelemetry.snapshot().stream()
+            .filter(l -> l.name().equals("test-inbound-prepare:libera"))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(2L, lane.submitted());
+    assertEquals(1L, lane.completed());
+    assertEquals(1, lane.queueDepth());
+    assertEquals(2_000L, lane.runMaxMicros());
+  }
+
+  @Test
+  void unnamedStatsStayOutOfExecutorTelemetry() {
+    InboundPreparationLaneStats stats = new InboundPreparationLaneStats();
+    stats.enqueued("test-unnamed-lane");
+    stats.prepared("test-unnamed-lane", 1_000L, false);
+
+    assertEquals(1L, stats.snapshot().get(0).prepared());
+    assertTrue(
+        ExecutorTelemetry.snapshot().stream()
+            .noneMatch(l -> l.name().contains("test-unnamed-lane")));
+  }
+}
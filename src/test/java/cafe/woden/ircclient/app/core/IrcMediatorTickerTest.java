@@ -1,5 +1,7 @@
 package cafe.woden.ircclient.app.core;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import io.reactivex.rxjava3.schedulers.TestScheduler;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
@@ -50,4 +52,43 @@ class IrcMediatorTickerTest {
     subscriber.assertValues("STATUS", "CHANNEL", "ACTION");
     subscriber.assertNoErrors();
   }
+
+  @Test
+  void busyServerLaneDoesNotDelayOtherServersAndKeepsItsOwnOrder() {
+    TestScheduler offloadScheduler = new TestScheduler();
+    TestScheduler observeScheduler = new TestScheduler();
+    InboundPreparationLaneStats stats = new InboundPreparationLaneStats();
+
+    var subscriber =
+        IrcMediator.offloadSelectedEventProcessing(
+                io.reactivex.rxjava3.core.Flowable.just("a:msg", "b:status", "a:status"),
+                value -> value.substring(0, 1),
+                value -> value.endsWith("msg"),
+                String::toUpperCase,
+                offloadScheduler,
+                observeScheduler,
+                stats)
+            .test();
+
+    observeScheduler.triggerActions();
+    subscriber.assertValue("B:STATUS");
+    assertEquals(2, laneDepth(stats, "a"));
+    assertEquals(0, laneDepth(stats, "b"));
+
+    offloadScheduler.triggerActions();
+    observeScheduler.triggerActions();
+
+    subscriber.assertValues("B:STATUS", "A:MSG", "A:STATUS");
+    subscriber.assertNoErrors();
+    assertEquals(0, laneDepth(stats, "a"));
+    assertEquals(2, stats.snapshot().get(0).prepared());
+  }
+
+  private static long laneDepth(InboundPreparationLaneStats stats, String lane) {
+    return stats.snapshot().stream()
+        .filter(l -> l.serverId().equals(lane))
+        .findFirst()
+        .orElseThrow()
+        .queueDepth();
+  }
 }
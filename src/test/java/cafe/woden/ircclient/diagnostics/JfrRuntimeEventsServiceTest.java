@@ -1,5 +1,6 @@
 package cafe.woden.ircclient.diagnostics;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -9,10 +10,12 @@ import static org.mockito.Mockito.when;
 
 import cafe.woden.ircclient.config.api.DiagnosticsRuntimeConfigPort;
 import cafe.woden.ircclient.config.api.InstalledPluginProblem;
+import cafe.woden.ircclient.util.ExecutorTelemetry;
 import cafe.woden.ircclient.util.InstalledPluginDescriptor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipFile;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -122,4 +125,43 @@ class JfrRuntimeEventsServiceTest {
       service.stop();
     }
   }
+
+  @Test
+  void executorLaneSummaryListsBusiestActiveLanesFirst() {
+    List<ExecutorTelemetry.LaneStats> lanes =
+        List.of(
+            lane("ircafe-idle", 10, 0, 0, 50),
+            lane("ircafe-chatlog-writer", 500, 0, 12, 300_000),
+            lane("ircafe-chat-history", 30, 4, 0, 2_000));
+
+    String line =
+        JfrRuntimeEventsService.summarizeExecutorLanes(lanes, Map.of("ircafe-idle", 10L), 5);
+
+    assertEquals(
+        "ircafe-chat-history +30 q=4 wait p99=2.0ms run p99=100us; "
+            + "ircafe-chatlog-writer +500 q=0 wait p99=300.0ms run p99=100us rejected=12",
+        line);
+    assertEquals(
+        "",
+        JfrRuntimeEventsService.summarizeExecutorLanes(
+            lanes.subList(0, 1), Map.of("ircafe-idle", 10L), 5));
+  }
+
+  private static ExecutorTelemetry.LaneStats lane(
+      String name, long submitted, int queueDepth, long rejected, long waitP99Micros) {
+    return new ExecutorTelemetry.LaneStats(
+        name,
+        submitted,
+        submitted,
+        0,
+        rejected,
+        queueDepth,
+        0,
+        10,
+        waitP99Micros,
+        100,
+        50,
+        100,
+        100);
+  }
 }
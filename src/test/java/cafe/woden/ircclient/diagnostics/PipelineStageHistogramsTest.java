@@ -0,0 +1,55 @@
+package cafe.woden.ircclient.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PipelineStageHistogramsTest {
+
+  @Test
+  void keepsStageOrderAndReportsBucketPercentiles() {
+    PipelineStageHistograms histograms = new PipelineStageHistograms(List.of("Parse", "Append"));
+    for (int i = 0; i < 98; i++) {
+      histograms.record("Parse", 40L);
+    }
+    histograms.record("Parse", 3_000L);
+    histograms.record("Parse", 400_000L);
+
+    List<PipelineStageStats> stats = histograms.snapshot();
+
+    assertEquals(
+        List.of("Parse", "Append"), stats.stream().map(PipelineStageStats::stage).toList());
+    PipelineStageStats parse = stats.get(0);
+    assertEquals(100L, parse.count());
+    assertEquals(50L, parse.p50Micros());
+    assertEquals(5_000L, parse.p99Micros());
+    assertEquals(400_000L, parse.maxMicros());
+    assertEquals(98L, parse.bucketCounts().get(0));
+    assertEquals(0L, stats.get(1).count());
+  }
+
+  @Test
+  void clearResetsCountsButKeepsStages() {
+    PipelineStageHistograms histograms = new PipelineStageHistograms(List.of("Parse"));
+    histograms.record("Parse", 10L);
+    histograms.record("Late", Long.MAX_VALUE);
+
+    histograms.clear();
+
+    List<PipelineStageStats> stats = histograms.snapshot();
+    assertEquals(2, stats.size());
+    assertEquals(0L, stats.get(0).count());
+    assertEquals(0L, stats.get(1).maxMicros());
+  }
+
+  @Test
+  void bucketsCoverTheWholeRange() {
+    assertEquals(0, PipelineStageHistograms.bucketOf(0L));
+    assertEquals(0, PipelineStageHistograms.bucketOf(50L));
+    assertEquals(1, PipelineStageHistograms.bucketOf(51L));
+    assertEquals(
+        PipelineStageStats.bucketUpperMicros().size() - 1,
+        PipelineStageHistograms.bucketOf(5_000_000L));
+  }
+}
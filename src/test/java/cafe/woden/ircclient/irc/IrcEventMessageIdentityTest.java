@@ -1,9 +1,12 @@
 package cafe.woden.ircclient.irc;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import cafe.woden.ircclient.irc.ircv3.Ircv3Tags;
 import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -39,6 +42,38 @@ class IrcEventMessageIdentityTest {
     assertThrows(UnsupportedOperationException.class, () -> ev.ircv3Tags().put("new", "value"));
   }
 
+  @Test
+  void chatLinesShareNamesAndTagMapsAndKeepMillisecondTimestamps() {
+    Map<String, String> lazyTags =
+        Ircv3Tags.fromRawLine("@msgid=m1;time=2026-02-16T00:00:00.123Z :alice PRIVMSG #ircafe :hi");
+    Map<String, String> typing = new LinkedHashMap<>();
+    typing.put("+typing", "active");
+
+    IrcEvent.ChannelMessage first =
+        new IrcEvent.ChannelMessage(
+            Instant.parse("2026-02-16T00:00:00.123456789Z"),
+            new String("#ircafe"),
+            new String("alice"),
+            "hi",
+            "m1",
+            lazyTags);
+    IrcEvent.ChannelMessage second =
+        new IrcEvent.ChannelMessage(
+            null, new String("#ircafe"), new String("alice"), "again", "", typing);
+    IrcEvent.Notice notice =
+        new IrcEvent.Notice(null, new String("alice"), new String("#ircafe"), "note", "", typing);
+    ServerIrcEvent a = new ServerIrcEvent(new String("libera"), first);
+    ServerIrcEvent b = new ServerIrcEvent(new String("libera"), second);
+
+    assertSame(lazyTags, first.ircv3Tags());
+    assertSame(second.ircv3Tags(), notice.ircv3Tags());
+    assertSame(first.channel(), second.channel());
+    assertSame(first.from(), notice.from());
+    assertSame(a.serverId(), b.serverId());
+    assertEquals(Instant.parse("2026-02-16T00:00:00.123Z"), first.at());
+    assertNull(second.at());
+  }
+
   @Test
   void serverResponseLineSupportsIdentityMetadata() {
     Map<String, String> raw = new LinkedHashMap<>();
@@ -0,0 +1,221 @@
+package cafe.woden.ircclient.irc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ServerEventBufferTest {
+  private static final Instant AT = Instant.parse("2026-10-01T12:00:00Z");
+
+  @TempDir Path tempDir;
+
+  @Test
+  void eventsPassThroughInOrderWhileTheConsumerKeepsUp() {
+    PublishProcessor<ServerIrcEvent> bus = PublishProcessor.create();
+    ServerEventBuffer buffer = new ServerEventBuffer(ServerEventBuffer.Limits.defaults());
+    TestSubscriber<ServerIrcEvent> ts = bus.compose(buffer).test();
+
+    bus.onNext(chat("libera", "one"));
+    bus.onNext(typing("libera", "bob", "active"));
+    bus.onNext(chat("libera", "two"));
+
+    assertEquals(List.of("one", "typing:active", "two"), describe(ts.values()));
+    assertTrue(buffer.backlog("libera").orElseThrow().isEmpty());
+  }
+
+  @Test
+  void stalledConsumerGetsOnlyTheLatestTypingAndPresenceStatePerUser() {
+    PublishProcessor<ServerIrcEvent> bus = PublishProcessor.create();
+    ServerEventBuffer buffer = new ServerEventBuffer(ServerEventBuffer.Limits.defaults());
+    TestSubscriber<ServerIrcEvent> ts = bus.compose(buffer).test(0L);
+
+    bus.onNext(typing("libera", "bob", "active"));
+    bus.onNext(chat("libera", "one"));
+    bus.onNext(typing("libera", "bob", "paused"));
+    bus.onNext(away("libera", "carol", IrcEvent.AwayState.AWAY));
+    bus.onNext(away("libera", "carol", IrcEvent.AwayState.HERE));
+    bus.onNext(typing("libera", "bob", "done"));
+
+    assertEquals(3, buffer.backlog("libera").orElseThrow().queuedEvents());
+    assertEquals(3L, buffer.backlog("libera").orElseThrow().coalescedEvents());
+
+    ts.request(Long.MAX_VALUE);
+    assertEquals(List.of("one", "away:carol:HERE", "typing:done"), describe(ts.values()));
+  }
+
+  @Test
+  void overloadedServerShedsTypingAndReadMarkersButKeepsEveryChatLine() {
+    PublishProcessor<ServerIrcEvent> bus = PublishProcessor.create();
+    ServerEventBuffer buffer = new ServerEventBuffer(new ServerEventBuffer.Limits(4, 1L << 20));
+    TestSubscriber<ServerIrcEvent> ts = bus.compose(buffer).test(0L);
+
+    bus.onNext(typing("libera", "bob", "active"));
+    bus.onNext(readMarker("libera", "bob"));
+    bus.onNext(chat("libera", "one"));
+    bus.onNext(chat("libera", "two"));
+    bus.onNext(chat("libera", "three"));
+    bus.onNext(typing("libera", "dave", "active"));
+    bus.onNext(chat("libera", "four"));
+    bus.onNext(chat("libera", "five"));
+    bus.onNext(chat("oftc", "elsewhere"));
+
+    ServerEventBuffer.Backlog libera = buffer.backlog("libera").orElseThrow();
+    assertEquals(5, libera.queuedEvents());
+    assertEquals(3L, libera.shedEvents());
+    assertEquals(1, buffer.backlog("oftc").orElseThrow().queuedEvents());
+
+    ts.request(Long.MAX_VALUE);
+    assertEquals(
+        List.of("one", "two", "three", "four", "five", "elsewhere"), describe(ts.values()));
+    assertTrue(buffer.backlog("libera").orElseThrow().isEmpty());
+  }
+
+  @Test
+  void chatLinesOverTheLimitWaitOnDiskAndComeBackInOrder() throws Exception {
+    PublishProcessor<ServerIrcEvent> bus = PublishProcessor.create();
+    ServerEventBuffer buffer =
+        new ServerEventBuffer(new ServerEventBuffer.Limits(3, 1L << 20), System::nanoTime, tempDir);
+    TestSubscriber<ServerIrcEvent> ts = bus.compose(buffer).test(0L);
+
+    bus.onNext(chat("libera", "one"));
+    bus.onNext(chat("libera", "two"));
+    bus.onNext(roster("libera", "#ircafe", 3));
+    bus.onNext(chat("libera", "three"));
+    bus.onNext(
+        new ServerIrcEvent(
+            "libera",
+            new IrcEvent.PrivateMessage(AT, "bob", "psst", "m-1", Map.of("msgid", "m-1"))));
+    bus.onNext(
+        new ServerIrcEvent(
+            "libera",
+            new IrcEvent.ChatHistoryBatchReceived(
+                AT,
+                "#ircafe",
+                "batch-1",
+                List.of(
+                    new ChatHistoryEntry(
+                        AT, ChatHistoryEntry.Kind.ACTION, "#ircafe", "carol", "waves")))));
+
+    ServerEventBuffer.Backlog backlog = buffer.backlog("libera").orElseThrow();
+    assertEquals(6, backlog.queuedEvents());
+    assertEquals(3, backlog.spilledEvents());
+
+    ts.request(Long.MAX_VALUE);
+    assertEquals(
+        List.of(
+            "one",
+            "two",
+            "roster:#ircafe:3",
+            "three",
+            "PrivateMessage",
+            "ChatHistoryBatchReceived"),
+        describe(ts.values()));
+    IrcEvent.PrivateMessage pm = (IrcEvent.PrivateMessage) ts.values().get(4).event();
+    assertEquals(new IrcEvent.PrivateMessage(AT, "bob", "psst", "m-1", Map.of("msgid", "m-1")), pm);
+    IrcEvent.ChatHistoryBatchReceived history =
+        (IrcEvent.ChatHistoryBatchReceived) ts.values().get(5).event();
+    assertEquals("waves", history.entries().get(0).text());
+    assertEquals(0, buffer.backlog("libera").orElseThrow().spilledEvents());
+
+    ts.cancel();
+    try (var files = Files.list(tempDir)) {
+      assertEquals(0L, files.count());
+    }
+  }
+
+  @Test
+  void rosterSnapshotReplacesQueuedSnapshotAndEarlierDeltasForItsChannel() {
+    PublishProcessor<ServerIrcEvent> bus = PublishProcessor.create();
+    ServerEventBuffer buffer = new ServerEventBuffer(ServerEventBuffer.Limits.defaults());
+    TestSubscriber<ServerIrcEvent> ts = bus.compose(buffer).test(0L);
+
+    bus.onNext(roster("libera", "#ircafe", 10));
+    bus.onNext(delta("libera", "#ircafe", "bob"));
+    bus.onNext(delta("libera", "#other", "bob"));
+    bus.onNext(roster("libera", "#IRCafe", 12));
+    bus.onNext(delta("libera", "#ircafe", "carol"));
+
+    ts.request(Long.MAX_VALUE);
+    assertEquals(
+        List.of("delta:#other:bob", "roster:#IRCafe:12", "delta:#ircafe:carol"),
+        describe(ts.values()));
+  }
+
+  @Test
+  void backlogReportsHowLongTheOldestQueuedEventHasWaited() {
+    AtomicLong nanos = new AtomicLong();
+    PublishProcessor<ServerIrcEvent> bus = PublishProcessor.create();
+    ServerEventBuffer buffer =
+        new ServerEventBuffer(ServerEventBuffer.Limits.defaults(), nanos::get, null);
+    TestSubscriber<ServerIrcEvent> ts = bus.compose(buffer).test(0L);
+
+    bus.onNext(chat("libera", "one"));
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_200L));
+    bus.onNext(chat("libera", "two"));
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(800L));
+
+    assertEquals(2_000L, buffer.backlog("libera").orElseThrow().oldestQueuedMs());
+
+    ts.request(1L);
+    assertEquals(800L, buffer.backlog("libera").orElseThrow().oldestQueuedMs());
+    assertTrue(buffer.backlog("unknown").isEmpty());
+
+    ts.cancel();
+    assertTrue(buffer.backlog("libera").isEmpty());
+  }
+
+  private static ServerIrcEvent chat(String serverId, String text) {
+    return new ServerIrcEvent(serverId, new IrcEvent.ChannelMessage(AT, "#ircafe", "alice", text));
+  }
+
+  private static ServerIrcEvent typing(String serverId, String from, String state) {
+    return new ServerIrcEvent(
+        serverId, new IrcEvent.UserTypingObserved(AT, from, "#ircafe", state));
+  }
+
+  private static ServerIrcEvent readMarker(String serverId, String from) {
+    return new ServerIrcEvent(
+        serverId, new IrcEvent.ReadMarkerObserved(AT, from, "#ircafe", "timestamp=*"));
+  }
+
+  private static ServerIrcEvent away(String serverId, String nick, IrcEvent.AwayState state) {
+    return new ServerIrcEvent(serverId, new IrcEvent.UserAwayStateObserved(AT, nick, state));
+  }
+
+  private static ServerIrcEvent roster(String serverId, String channel, int users) {
+    return new ServerIrcEvent(
+        serverId, new IrcEvent.NickListUpdated(AT, channel, List.of(), users, 0));
+  }
+
+  private static ServerIrcEvent delta(String serverId, String channel, String nick) {
+    return new ServerIrcEvent(
+        serverId,
+        new IrcEvent.RosterDelta(AT, channel, IrcEvent.RosterChange.ADDED, nick, null, "@+"));
+  }
+
+  private static List<String> describe(List<ServerIrcEvent> events) {
+    return events.stream()
+        .map(
+            e ->
+                switch (e.event()) {
+                  case IrcEvent.ChannelMessage m -> m.text();
+                  case IrcEvent.UserTypingObserved t -> "typing:" + t.state();
+                  case IrcEvent.UserAwayStateObserved a -> "away:" + a.nick() + ":" + a.awayState();
+                  case IrcEvent.NickListUpdated n -> "roster:" + n.channel() + ":" + n.totalUsers();
+                  case IrcEvent.RosterDelta d -> "delta:" + d.channel() + ":" + d.nick();
+                  default -> e.event().getClass().getSimpleName();
+                })
+        .toList();
+  }
+}
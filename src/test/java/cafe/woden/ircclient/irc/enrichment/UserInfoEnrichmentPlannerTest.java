@@ -88,6 +88,45 @@ class UserInfoEnrichmentPlannerTest {
     assertFalse(second.nicks().isEmpty());
   }
 
+  @Test
+  void whoxScanIsDueUntilSentThenAgainAfterStalenessWindowForItsCoverage() {
+    Instant now = Instant.parse("2026-02-26T00:00:00Z");
+    Settings cfg = settings(5, Duration.ofMinutes(1), false);
+
+    assertTrue(planner.isWhoxScanDue("libera", "#ircafe", now));
+    planner.enqueueWhoChannelPrioritized("libera", "#ircafe");
+    assertFalse(planner.isWhoxScanDue("libera", "#IRCafe", now), "already queued");
+    assertFalse(planner.isWhoxScanSettled("libera", "#ircafe", now));
+
+    PlannedCommand cmd = planner.pollNext("libera", now, cfg).orElseThrow();
+    assertEquals(ProbeKind.WHO_CHANNEL, cmd.kind());
+    assertFalse(planner.isWhoxScanSettled("libera", "#ircafe", now.plusSeconds(5)));
+    assertTrue(planner.isWhoxScanSettled("libera", "#ircafe", now.plusSeconds(30)));
+
+    planner.noteChannelCoverage(
+        "libera", new UserInfoEnrichmentPlanner.ChannelCoverage("#ircafe", 100, 95, now));
+    assertFalse(planner.isWhoxScanDue("libera", "#ircafe", now.plus(Duration.ofMinutes(10))));
+    assertTrue(planner.isWhoxScanDue("libera", "#ircafe", now.plus(Duration.ofMinutes(30))));
+
+    planner.noteChannelCoverage(
+        "libera", new UserInfoEnrichmentPlanner.ChannelCoverage("#ircafe", 100, 40, now));
+    assertTrue(planner.isWhoxScanDue("libera", "#ircafe", now.plus(Duration.ofMinutes(10))));
+  }
+
+  @Test
+  void channelCoverageIsTrackedPerChannelCaseInsensitively() {
+    Instant now = Instant.parse("2026-02-26T00:00:00Z");
+
+    planner.noteChannelCoverage(
+        "libera", new UserInfoEnrichmentPlanner.ChannelCoverage("#IRCafe", 3, 2, now));
+    planner.noteChannelCoverage(
+        "libera", new UserInfoEnrichmentPlanner.ChannelCoverage("#empty", 0, 0, now));
+
+    assertEquals(66, planner.channelCoverage("libera", "#ircafe").orElseThrow().percent());
+    assertEquals(100, planner.channelCoverage("libera", "#empty").orElseThrow().percent());
+    assertTrue(planner.channelCoverage("oftc", "#ircafe").isEmpty());
+  }
+
   private static Settings settings(int maxNicks, Duration nickCooldown, boolean whoisFallback) {
     return new Settings(
         true,
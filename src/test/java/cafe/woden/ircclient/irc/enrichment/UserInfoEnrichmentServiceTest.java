@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -74,6 +75,47 @@ class UserInfoEnrichmentServiceTest {
     }
   }
 
+  @Test
+  void whoxChannelEnrichmentRecordsCoverageAndScansFocusedChannelOrUserhostsStragglers() {
+    Fixture fixture = fixtureWithSettings(settings(true, false));
+    try {
+      fixture.events.onNext(
+          new ServerIrcEvent(
+              "libera",
+              new IrcEvent.WhoxSupportObserved(Instant.parse("2026-02-26T00:00:00Z"), true)));
+      List<IrcEvent.NickInfo> roster =
+          List.of(
+              new IrcEvent.NickInfo("me", "", "", null, null, null, null, null),
+              new IrcEvent.NickInfo(
+                  "alice",
+                  "@",
+                  "alice!a@host",
+                  IrcEvent.AwayState.HERE,
+                  null,
+                  IrcEvent.AccountState.LOGGED_IN,
+                  "alice",
+                  null),
+              new IrcEvent.NickInfo("bob", "", "", null, null, null, null, null));
+
+      when(fixture.planner.isWhoxScanDue(eq("libera"), eq("#ircafe"), any())).thenReturn(true);
+      fixture.service.enrichChannelWithWhox("libera", "#ircafe", roster, true);
+
+      verify(fixture.planner).enqueueWhoChannelPrioritized("libera", "#ircafe");
+      verify(fixture.planner)
+          .noteChannelCoverage(
+              eq("libera"),
+              argThat(c -> c.channel().equals("#ircafe") && c.members() == 2 && c.percent() == 50));
+      verify(fixture.planner, never()).enqueueUserhost(anyString(), any());
+
+      when(fixture.planner.isWhoxScanSettled(eq("libera"), eq("#ircafe"), any())).thenReturn(true);
+      fixture.service.enrichChannelWithWhox("libera", "#ircafe", roster, false);
+
+      verify(fixture.planner).enqueueUserhost("libera", List.of("bob"));
+    } finally {
+      fixture.service.shutdown();
+    }
+  }
+
   @Test
   void noteUserActivityStoresCaseInsensitiveTimestampsAndClearServerResetsState() {
     Fixture fixture = fixtureWithSettings(settings(true, true));
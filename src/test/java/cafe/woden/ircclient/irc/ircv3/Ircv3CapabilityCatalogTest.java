@@ -33,7 +33,8 @@ class Ircv3CapabilityCatalogTest {
             "draft/chathistory",
             "znc.in/playback",
             "account-tag",
-            "userhost-in-names"),
+            "userhost-in-names",
+            "draft/no-implicit-names"),
         Ircv3CapabilityCatalog.requestableCapabilities());
   }
 }
@@ -1,9 +1,13 @@
 package cafe.woden.ircclient.irc.ircv3;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 
@@ -21,6 +25,31 @@ class Ircv3TagsTest {
     assertEquals("", tags.get("empty"));
   }
 
+  @Test
+  void rawLineTagsBehaveLikeAnOrderedNormalizedMap() {
+    Map<String, String> tags =
+        Ircv3Tags.fromRawLine(
+            "@+Typing=active;MsgId=a;msgid=b;+draft/react=\\sok;; :n!u@h TAGMSG #c");
+
+    LinkedHashMap<String, String> expected = new LinkedHashMap<>();
+    expected.put("typing", "active");
+    expected.put("msgid", "b");
+    expected.put("draft/react", " ok");
+    assertEquals(expected, tags);
+    assertEquals(List.copyOf(expected.keySet()), List.copyOf(tags.keySet()));
+    assertEquals("active", tags.get("+TYPING"));
+    assertEquals("b", Ircv3Tags.firstTagValue(tags, "msgid"));
+    assertThrows(UnsupportedOperationException.class, () -> tags.put("x", "y"));
+  }
+
+  @Test
+  void rawLineWithoutTagsOrTrailingSpaceYieldsEmptyMap() {
+    assertTrue(Ircv3Tags.fromRawLine(":server 001 nick :hi").isEmpty());
+    assertTrue(Ircv3Tags.fromRawLine("@time=2026-01-01T00:00:00Z").isEmpty());
+    assertTrue(Ircv3Tags.fromRawLine("@+ :server PING").isEmpty());
+    assertEquals("v", Ircv3Tags.fromRawLine("  @k=v :server PING").get("k"));
+  }
+
   @Test
   void fromEventUsesGetTagsWhenAvailable() {
     Map<String, String> tags = Ircv3Tags.fromEvent(new EventWithTags());
@@ -38,6 +67,17 @@ class Ircv3TagsTest {
     assertEquals("zzz", tags.get("msgid"));
   }
 
+  @Test
+  void repeatedTagSetsWithoutPerMessageValuesAreShared() {
+    Map<String, String> first = Ircv3Tags.fromEvent(new EventWithTypingTags());
+    Map<String, String> second = Ircv3Tags.fromEvent(new EventWithTypingTags());
+    Map<String, String> withMsgId = Ircv3Tags.fromEvent(new EventWithTags());
+
+    assertEquals(Map.of("typing", "active", "account", "alice"), first);
+    assertSame(first, second);
+    assertNotSame(withMsgId, Ircv3Tags.fromEvent(new EventWithTags()));
+  }
+
   @Test
   void firstTagValueNormalizesRequestedKeys() {
     Map<String, String> tags = new LinkedHashMap<>();
@@ -60,6 +100,15 @@ class Ircv3TagsTest {
     }
   }
 
+  private static final class EventWithTypingTags {
+    public Map<String, String> getTags() {
+      LinkedHashMap<String, String> tags = new LinkedHashMap<>();
+      tags.put("+typing", "active");
+      tags.put("Account", "alice");
+      return tags;
+    }
+  }
+
   private static final class EventWithRawLine {
     public String getRawLine() {
       return "@label=raw-1;msgid=zzz :server 001 nick :hello";
@@ -50,6 +50,7 @@ class MatrixIrcClientServiceTest {
   private final MatrixMediaUploadClient mediaUploadClient = mock(MatrixMediaUploadClient.class);
   private final MatrixRoomMessageSender roomMessageSender = mock(MatrixRoomMessageSender.class);
   private final MatrixSyncClient syncClient = mock(MatrixSyncClient.class);
+  private final MatrixStateStore stateStore = mock(MatrixStateStore.class);
   private final MatrixIrcClientService service =
       new MatrixIrcClientService(
           serverCatalog,
@@ -68,7 +69,8 @@ class MatrixIrcClientServiceTest {
           directRoomResolver,
           mediaUploadClient,
           roomMessageSender,
-          syncClient);
+          syncClient,
+          stateStore);
 
   @AfterEach
   void tearDown() {
@@ -451,6 +453,40 @@ class MatrixIrcClientServiceTest {
     assertEquals("Alice", names.nicks().get(0).realName());
   }
 
+  @Test
+  void requestNamesServesStoredRosterWithoutFetching() {
+    IrcProperties.Server server =
+        server("matrix", "matrix.example.org", 8448, true, "secret-token");
+    when(serverCatalog.require("matrix")).thenReturn(server);
+    when(homeserverProbe.probe("matrix", server))
+        .thenReturn(
+            MatrixHomeserverProbe.ProbeResult.reachable(
+                URI.create("https://matrix.example.org:8448/_matrix/client/versions"), 1));
+    when(homeserverProbe.whoami("matrix", server, "secret-token"))
+        .thenReturn(
+            MatrixHomeserverProbe.WhoamiResult.authenticated(
+                URI.create("https://matrix.example.org:8448/_matrix/client/v3/account/whoami"),
+                "@alice:matrix.example.org",
+                "DEV1"));
+    when(stateStore.joinedMembers(
+            "matrix", "@alice:matrix.example.org", "!room:matrix.example.org"))
+        .thenReturn(
+            Optional.of(
+                List.of(new MatrixRoomRosterClient.JoinedMember("@bob:matrix.example.org", "Bob"))));
+
+    var events = service.events().test();
+    service.connect("matrix").blockingAwait();
+    events.awaitCount(3);
+    service.requestNames("matrix", "!room:matrix.example.org").blockingAwait();
+    events.awaitCount(4);
+
+    IrcEvent.NickListUpdated names =
+        assertInstanceOf(IrcEvent.NickListUpdated.class, events.values().get(3).event());
+    assertEquals(1, names.totalUsers());
+    assertEquals("Bob", names.nicks().get(0).realName());
+    verifyNoInteractions(roomRosterClient);
+  }
+
   @Test
   void requestNamesUsesAliasRoomLookupForShortAliasTarget() {
     IrcProperties.Server server =
@@ -0,0 +1,192 @@
+package cafe.woden.ircclient.irc.matrix;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class MatrixStateStoreTest {
+
+  private static final String SERVER = "matrix";
+  private static final String ACCOUNT = "@alice:example.org";
+  private static final String ROOM = "!room:example.org";
+  private static final URI SYNC_URI = URI.create("https://example.org/_matrix/client/v3/sync");
+
+  @TempDir Path tempDir;
+
+  @Test
+  void initialSyncRosterIsServedAndPatchedByLaterDeltas() {
+    try (Fixture fixture = openFixture(tempDir.resolve("matrix-state"))) {
+      MatrixStateStore store = fixture.store();
+
+      store.applySync(
+          SERVER,
+          ACCOUNT,
+          sync(
+              List.of(
+                  // Timeline comes first in the sync payload but is newer than the state snapshot.
+                  member("@bob:example.org", "leave", "", 300L),
+                  member(ACCOUNT, "join", "Alice", 100L),
+                  member("@bob:example.org", "join", "Bob", 100L)),
+              Map.of(),
+              Map.of(),
+              List.of()),
+          true);
+      assertEquals(
+          List.of(new MatrixRoomRosterClient.JoinedMember(ACCOUNT, "Alice")),
+          store.joinedMembers(SERVER, ACCOUNT, ROOM).orElseThrow());
+
+      store.applySync(
+          SERVER,
+          ACCOUNT,
+          sync(
+              List.of(member("@carol:example.org", "join", "Carol", 400L)),
+              Map.of(),
+              Map.of(),
+              List.of()),
+          false);
+      assertEquals(
+          List.of(
+              new MatrixRoomRosterClient.JoinedMember(ACCOUNT, "Alice"),
+              new MatrixRoomRosterClient.JoinedMember("@carol:example.org", "Carol")),
+          store.joinedMembers(SERVER, ACCOUNT, ROOM).orElseThrow());
+
+      store.restore(SERVER, ACCOUNT);
+      assertTrue(store.joinedMembers(SERVER, ACCOUNT, ROOM).isEmpty());
+    }
+  }
+
+  @Test
+  void restoreReturnsAliasesDirectRoomsAndOwnReadMarkers() {
+    try (Fixture fixture = openFixture(tempDir.resolve("matrix-state-restore"))) {
+      MatrixStateStore store = fixture.store();
+
+      store.applySync(
+          SERVER,
+          ACCOUNT,
+          sync(
+              List.of(),
+              Map.of("!dm:example.org", "@bob:example.org"),
+              Map.of(ROOM, "#ircafe:example.org"),
+              List.of(
+                  new MatrixSyncClient.ReadReceiptEvent(ROOM, "$e1", ACCOUNT, 500L),
+                  new MatrixSyncClient.ReadReceiptEvent(ROOM, "$e0", ACCOUNT, 200L),
+                  new MatrixSyncClient.ReadReceiptEvent(ROOM, "$e2", "@bob:example.org", 900L))),
+          true);
+
+      MatrixStateStore.RestoredState restored = store.restore(SERVER, ACCOUNT);
+      assertEquals(Map.of("!dm:example.org", "@bob:example.org"), restored.directPeerByRoom());
+      assertEquals(Map.of(ROOM, "#ircafe:example.org"), restored.aliasByRoom());
+      assertEquals(Map.of(ROOM, 500L), restored.readMarkerTsByRoom());
+      assertTrue(store.restore(SERVER, "@other:example.org").aliasByRoom().isEmpty());
+    }
+  }
+
+  @Test
+  void fetchedProfilesFollowDisplayNameChanges() {
+    try (Fixture fixture = openFixture(tempDir.resolve("matrix-state-profile"))) {
+      MatrixStateStore store = fixture.store();
+      store.rememberProfile(
+          SERVER,
+          ACCOUNT,
+          MatrixUserProfileClient.ProfileResult.success(
+              URI.create("https://example.org/profile"), "@bob:example.org", "Bob", "mxc://a/b"));
+
+      MatrixSyncClient.RoomMembershipEvent rename =
+          new MatrixSyncClient.RoomMembershipEvent(
+              ROOM,
+              "@bob:example.org",
+              "@bob:example.org",
+              "$rename",
+              "join",
+              "join",
+              "Robert",
+              "Bob",
+              "",
+              700L);
+      store.applySync(SERVER, ACCOUNT, sync(List.of(rename), Map.of(), Map.of(), List.of()), false);
+
+      MatrixStateRepository.ProfileRow profile =
+          store.profile(SERVER, ACCOUNT, "@bob:example.org").orElseThrow();
+      assertEquals("Robert", profile.displayName());
+      assertEquals("mxc://a/b", profile.avatarUrl());
+    }
+  }
+
+  private static MatrixSyncClient.SyncResult sync(
+      List<MatrixSyncClient.RoomMembershipEvent> membershipEvents,
+      Map<String, String> directPeerByRoom,
+      Map<String, String> roomAliasByRoom,
+      List<MatrixSyncClient.ReadReceiptEvent> readReceipts) {
+    return MatrixSyncClient.SyncResult.success(
+        SYNC_URI,
+        "s1",
+        List.of(),
+        membershipEvents,
+        List.of(),
+        List.of(),
+        List.of(),
+        directPeerByRoom,
+        roomAliasByRoom,
+        List.of(),
+        readReceipts);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void stateDatabaseIsNotOpenedUntilTheFirstLookup() {
+    ObjectProvider<MatrixStateRepository> provider = mock(ObjectProvider.class);
+    when(provider.getObject()).thenThrow(new IllegalStateException("db unavailable"));
+
+    MatrixStateStore store = new MatrixStateStore(provider);
+    verifyNoInteractions(provider);
+
+    assertEquals(MatrixStateStore.RestoredState.EMPTY, store.restore(SERVER, ACCOUNT));
+    verify(provider).getObject();
+  }
+
+  private static MatrixSyncClient.RoomMembershipEvent member(
+      String userId, String membership, String displayName, long ts) {
+    return new MatrixSyncClient.RoomMembershipEvent(
+        ROOM, userId, userId, "$" + ts + userId, membership, "", displayName, "", "", ts);
+  }
+
+  private static Fixture openFixture(Path basePath) {
+    DriverManagerDataSource ds = new DriverManagerDataSource();
+    ds.setDriverClassName("org.hsqldb.jdbc.JDBCDriver");
+    ds.setUrl("jdbc:hsqldb:file:" + basePath.toAbsolutePath() + ";hsqldb.tx=mvcc");
+    ds.setUsername("SA");
+    ds.setPassword("");
+
+    Flyway.configure()
+        .dataSource(ds)
+        .locations("classpath:db/migration/matrixstate")
+        .load()
+        .migrate();
+    JdbcTemplate jdbc = new JdbcTemplate(ds);
+    return new Fixture(jdbc, new MatrixStateStore(new MatrixStateRepository(jdbc)));
+  }
+
+  private record Fixture(JdbcTemplate jdbc, MatrixStateStore store) implements AutoCloseable {
+    @Override
+    public void close() {
+      try {
+        jdbc.execute("SHUTDOWN");
+      } catch (Exception ignored) {
+      }
+    }
+  }
+}
@@ -982,7 +982,8 @@ class MatrixSynapseContainerIntegrationTest {
         new MatrixDirectRoomResolver(proxyResolver),
         new MatrixMediaUploadClient(proxyResolver),
         new MatrixRoomMessageSender(proxyResolver),
-        new MatrixSyncClient(proxyResolver));
+        new MatrixSyncClient(proxyResolver),
+        mock(MatrixStateStore.class));
   }
 
   private static void deleteRecursively(Path root) {
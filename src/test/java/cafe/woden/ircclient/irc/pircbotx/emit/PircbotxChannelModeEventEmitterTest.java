@@ -3,6 +3,7 @@ package cafe.woden.ircclient.irc.pircbotx.emit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,7 +24,7 @@ import org.pircbotx.hooks.events.OpEvent;
 class PircbotxChannelModeEventEmitterTest {
 
   @Test
-  void onModeEmitsRosterAndLiveModeObservation() {
+  void onModeEmitsLiveModeObservationAndLeavesStatusChangesToDeltas() {
     List<ServerIrcEvent> events = new ArrayList<>();
     PircbotxRosterEmitter rosterEmitter = mock(PircbotxRosterEmitter.class);
     PircbotxChannelModeEventEmitter emitter = newEmitter(events, rosterEmitter);
@@ -35,10 +36,11 @@ class PircbotxChannelModeEventEmitterTest {
     when(event.getChannel()).thenReturn(channel);
     when(event.getUser()).thenReturn(user);
     when(event.getMode()).thenReturn("+o alice");
+    when(rosterEmitter.modeChangeNeedsSnapshot("+o alice")).thenReturn(false);
 
     emitter.onMode(event);
 
-    verify(rosterEmitter).emitRoster(channel);
+    verify(rosterEmitter, never()).emitRoster(channel);
     assertEquals(1, events.size());
     IrcEvent.ChannelModeObserved observed =
         assertInstanceOf(IrcEvent.ChannelModeObserved.class, events.getFirst().event());
@@ -49,18 +51,38 @@ class PircbotxChannelModeEventEmitterTest {
   }
 
   @Test
-  void onOpRefreshesRoster() {
+  void onModeRefreshesRosterForStatusModesWithoutDedicatedEvents() {
+    List<ServerIrcEvent> events = new ArrayList<>();
+    PircbotxRosterEmitter rosterEmitter = mock(PircbotxRosterEmitter.class);
+    PircbotxChannelModeEventEmitter emitter = newEmitter(events, rosterEmitter);
+
+    Channel channel = channel("#ircafe");
+    ModeEvent event = mock(ModeEvent.class);
+    when(event.getChannel()).thenReturn(channel);
+    when(event.getMode()).thenReturn("+Y alice");
+    when(rosterEmitter.modeChangeNeedsSnapshot("+Y alice")).thenReturn(true);
+
+    emitter.onMode(event);
+
+    verify(rosterEmitter).emitRoster(channel);
+  }
+
+  @Test
+  void onOpEmitsPrefixDelta() {
     List<ServerIrcEvent> events = new ArrayList<>();
     PircbotxRosterEmitter rosterEmitter = mock(PircbotxRosterEmitter.class);
     PircbotxChannelModeEventEmitter emitter = newEmitter(events, rosterEmitter);
 
     OpEvent event = mock(OpEvent.class);
     Channel channel = channel("#ircafe");
+    User alice = mock(User.class);
     when(event.getChannel()).thenReturn(channel);
+    when(event.getRecipient()).thenReturn(alice);
 
     emitter.onOp(event);
 
-    verify(rosterEmitter).emitRoster(channel);
+    verify(rosterEmitter).emitPrefixChanged(channel, alice, 'o');
+    verify(rosterEmitter, never()).emitRoster(channel);
     assertEquals(0, events.size());
   }
 
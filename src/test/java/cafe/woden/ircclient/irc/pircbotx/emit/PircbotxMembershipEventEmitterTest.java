@@ -2,6 +2,7 @@ package cafe.woden.ircclient.irc.pircbotx.emit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -54,7 +55,54 @@ class PircbotxMembershipEventEmitterTest {
   }
 
   @Test
-  void onPartEmitsUserPartAndRefreshesRoster() {
+  void onJoinSkipsSelfRosterSnapshotWhenNamesAreDeferred() {
+    PircbotxConnectionState conn = new PircbotxConnectionState("libera");
+    conn.updateTrackedCapability("draft/no-implicit-names", true);
+    List<ServerIrcEvent> events = new ArrayList<>();
+    PircbotxMembershipEventEmitter emitter = newEmitter(conn, events);
+
+    JoinEvent event = mock(JoinEvent.class);
+    when(event.getChannel()).thenReturn(channel("#ircafe"));
+    when(event.getUser()).thenReturn(user("me"));
+    when(event.getBot()).thenReturn(mock(PircBotX.class));
+
+    emitter.onJoin(event);
+
+    assertEquals(1, events.size());
+    IrcEvent.JoinedChannel joined =
+        assertInstanceOf(IrcEvent.JoinedChannel.class, events.get(0).event());
+    assertTrue(joined.rosterDeferred());
+  }
+
+  @Test
+  void onJoinEmitsRosterDeltaForOtherUsers() {
+    PircbotxConnectionState conn = new PircbotxConnectionState("libera");
+    List<ServerIrcEvent> events = new ArrayList<>();
+    PircbotxMembershipEventEmitter emitter = newEmitter(conn, events);
+
+    Channel channel = channel("#ircafe");
+    User user = user("alice");
+    when(user.getHostmask()).thenReturn("alice!ident@host.example");
+    when(channel.hasVoice(user)).thenReturn(true);
+    JoinEvent event = mock(JoinEvent.class);
+    when(event.getChannel()).thenReturn(channel);
+    when(event.getUser()).thenReturn(user);
+    when(event.getBot()).thenReturn(mock(PircBotX.class));
+
+    emitter.onJoin(event);
+
+    IrcEvent.RosterDelta delta =
+        assertInstanceOf(IrcEvent.RosterDelta.class, events.getLast().event());
+    assertEquals(IrcEvent.RosterChange.ADDED, delta.change());
+    assertEquals("#ircafe", delta.channel());
+    assertEquals("alice", delta.nick());
+    assertEquals("+", delta.info().prefix());
+    assertEquals("~&@%+", delta.prefixOrder());
+    assertTrue(events.stream().noneMatch(e -> e.event() instanceof IrcEvent.NickListUpdated));
+  }
+
+  @Test
+  void onPartEmitsUserPartAndRosterDelta() {
     PircbotxConnectionState conn = new PircbotxConnectionState("libera");
     List<ServerIrcEvent> events = new ArrayList<>();
     PircbotxMembershipEventEmitter emitter = newEmitter(conn, events);
@@ -81,7 +129,10 @@ class PircbotxMembershipEventEmitterTest {
         assertInstanceOf(IrcEvent.UserPartedChannel.class, events.get(0).event());
     assertEquals("#ircafe", parted.channel());
     assertEquals("alice", parted.nick());
-    assertInstanceOf(IrcEvent.NickListUpdated.class, events.get(1).event());
+    IrcEvent.RosterDelta delta =
+        assertInstanceOf(IrcEvent.RosterDelta.class, events.get(1).event());
+    assertEquals(IrcEvent.RosterChange.REMOVED, delta.change());
+    assertEquals("alice", delta.nick());
   }
 
   @Test
@@ -123,7 +174,10 @@ class PircbotxMembershipEventEmitterTest {
         assertInstanceOf(IrcEvent.UserQuitChannel.class, events.get(0).event());
     assertEquals("#ircafe", quit.channel());
     assertEquals("alice", quit.nick());
-    assertInstanceOf(IrcEvent.NickListUpdated.class, events.get(1).event());
+    IrcEvent.RosterDelta delta =
+        assertInstanceOf(IrcEvent.RosterDelta.class, events.get(1).event());
+    assertEquals(IrcEvent.RosterChange.REMOVED, delta.change());
+    assertEquals("#ircafe", delta.channel());
   }
 
   @Test
@@ -158,7 +212,11 @@ class PircbotxMembershipEventEmitterTest {
     assertEquals(3, events.size());
     assertInstanceOf(IrcEvent.NickChanged.class, events.get(0).event());
     assertInstanceOf(IrcEvent.UserNickChangedChannel.class, events.get(1).event());
-    assertInstanceOf(IrcEvent.NickListUpdated.class, events.get(2).event());
+    IrcEvent.RosterDelta delta =
+        assertInstanceOf(IrcEvent.RosterDelta.class, events.get(2).event());
+    assertEquals(IrcEvent.RosterChange.RENAMED, delta.change());
+    assertEquals("me", delta.nick());
+    assertEquals("newme", delta.info().nick());
   }
 
   private static PircbotxMembershipEventEmitter newEmitter(
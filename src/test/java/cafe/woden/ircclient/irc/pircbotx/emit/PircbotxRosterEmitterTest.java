@@ -1,7 +1,9 @@
 package cafe.woden.ircclient.irc.pircbotx.emit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -96,4 +98,45 @@ class PircbotxRosterEmitterTest {
     assertEquals("+", nickList.nicks().get(1).prefix());
     assertEquals(1, nickList.operatorCount());
   }
+
+  @Test
+  void emitPrefixChangedUsesPerUserLevelsAndIgnoresNonStatusModes() {
+    ServerIsupportState isupportState = new ServerIsupportState();
+    isupportState.applyIsupportToken("libera", "PREFIX", "(ov)@+");
+    List<ServerIrcEvent> events = new ArrayList<>();
+    PircbotxRosterEmitter emitter =
+        new PircbotxRosterEmitter(
+            "libera", new PircbotxConnectionState("libera"), isupportState, events::add);
+
+    User alice = mock(User.class);
+    when(alice.getNick()).thenReturn("alice");
+    Channel channel = mock(Channel.class);
+    when(channel.getName()).thenReturn("#ircafe");
+    when(channel.isOp(alice)).thenReturn(true);
+
+    emitter.emitPrefixChanged(channel, alice, 'q');
+    assertEquals(0, events.size());
+
+    emitter.emitPrefixChanged(channel, alice, 'o');
+    IrcEvent.RosterDelta delta =
+        assertInstanceOf(IrcEvent.RosterDelta.class, events.getFirst().event());
+    assertEquals(IrcEvent.RosterChange.PREFIX_CHANGED, delta.change());
+    assertEquals("alice", delta.nick());
+    assertEquals("@", delta.info().prefix());
+    assertEquals("@+", delta.prefixOrder());
+  }
+
+  @Test
+  void modeChangeNeedsSnapshotOnlyForStatusModesWithoutDedicatedEvents() {
+    ServerIsupportState isupportState = new ServerIsupportState();
+    isupportState.applyIsupportToken("libera", "PREFIX", "(Yov)!@+");
+    PircbotxRosterEmitter emitter =
+        new PircbotxRosterEmitter(
+            "libera", new PircbotxConnectionState("libera"), isupportState, e -> {});
+
+    assertFalse(emitter.modeChangeNeedsSnapshot("+ov alice bob"));
+    assertFalse(emitter.modeChangeNeedsSnapshot("+b *!*@spam"));
+    assertTrue(emitter.modeChangeNeedsSnapshot("+Y alice"));
+    assertTrue(emitter.modeChangeNeedsSnapshot(""));
+  }
 }
@@ -0,0 +1,57 @@
+package cafe.woden.ircclient.irc.pircbotx.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PircbotxAutoJoinPackerTest {
+
+  @Test
+  void packsChannelsUpToLineByteLimit() {
+    List<String> entries = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      entries.add("#channel-number-" + i);
+    }
+
+    PircbotxAutoJoinPacker.Packed packed = PircbotxAutoJoinPacker.pack(entries, null, null);
+
+    assertTrue(packed.lines().size() < 20, "lines=" + packed.lines().size());
+    int joined = 0;
+    for (String line : packed.lines()) {
+      assertTrue(line.length() <= PircbotxAutoJoinPacker.MAX_LINE_BYTES, line);
+      joined += line.substring("JOIN ".length()).split(",").length;
+    }
+    assertEquals(200, joined);
+    assertTrue(packed.lines().get(0).startsWith("JOIN #channel-number-0,#channel-number-1,"));
+  }
+
+  @Test
+  void respectsTargmaxAndKeepsKeysAligned() {
+    PircbotxAutoJoinPacker.Packed packed =
+        PircbotxAutoJoinPacker.pack(
+            List.of("#a", "#k1 one", "#b", "#k2 two", "#A"), "PRIVMSG:4,JOIN:2", null);
+
+    assertEquals(List.of("JOIN #k1,#k2 one,two", "JOIN #a,#b"), packed.lines());
+  }
+
+  @Test
+  void dropsChannelsBeyondChanlimitPerPrefix() {
+    PircbotxAutoJoinPacker.Packed packed =
+        PircbotxAutoJoinPacker.pack(List.of("#a", "&b", "#c", "&d", "+e"), null, "#&:3,+:");
+
+    assertEquals(List.of("JOIN #a,&b,#c,+e"), packed.lines());
+    assertEquals(List.of("&d"), packed.skipped());
+  }
+
+  @Test
+  void parsesIsupportLimits() {
+    assertEquals(4, PircbotxAutoJoinPacker.parseTargmax("PRIVMSG:3,JOIN:4", "join"));
+    assertEquals(Integer.MAX_VALUE, PircbotxAutoJoinPacker.parseTargmax("JOIN:", "JOIN"));
+    assertEquals(Integer.MAX_VALUE, PircbotxAutoJoinPacker.parseTargmax(null, "JOIN"));
+    assertEquals(Map.of("#&", 50), PircbotxAutoJoinPacker.parseChanlimit("#&:50,+:"));
+  }
+}
@@ -84,6 +84,7 @@ class PircbotxChannelMode324DedupTest {
         new NoOpPlaybackCursorProvider(),
         bouncerDiscovery,
         serverResponses,
+        new ServerIsupportState(),
         events::add);
   }
 
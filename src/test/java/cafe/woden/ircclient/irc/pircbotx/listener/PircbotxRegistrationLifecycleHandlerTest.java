@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -15,6 +16,7 @@ import cafe.woden.ircclient.irc.ircv3.*;
 import cafe.woden.ircclient.irc.pircbotx.emit.PircbotxServerResponseEmitter;
 import cafe.woden.ircclient.irc.pircbotx.state.PircbotxConnectionState;
 import cafe.woden.ircclient.irc.playback.*;
+import cafe.woden.ircclient.state.ServerIsupportState;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalLong;
@@ -60,6 +62,28 @@ class PircbotxRegistrationLifecycleHandlerTest {
     verify(outputRaw).rawLine("BOUNCER LISTNETWORKS");
   }
 
+  @Test
+  void registrationCompleteSendsPendingAutoJoinPackedOnce() {
+    PircbotxConnectionState conn = new PircbotxConnectionState("libera");
+    conn.setPendingAutoJoin(List.of("#a", "#b", "#secret key", "#c"));
+    ServerIsupportState isupport = new ServerIsupportState();
+    isupport.applyIsupportToken("libera", "TARGMAX", "PRIVMSG:4,JOIN:3");
+
+    List<ServerIrcEvent> events = new ArrayList<>();
+    PircbotxRegistrationLifecycleHandler handler =
+        newHandler(conn, events, serverId -> OptionalLong.empty(), false, false, isupport);
+
+    PircBotX bot = mock(PircBotX.class);
+    OutputRaw outputRaw = mock(OutputRaw.class);
+    when(bot.sendRaw()).thenReturn(outputRaw);
+
+    handler.maybeHandle(376, bot, ":server 376 me :End of /MOTD command.");
+    handler.maybeHandle(422, bot, ":server 422 me :MOTD File is missing");
+
+    verify(outputRaw, times(1)).rawLine("JOIN #secret,#a,#b key");
+    verify(outputRaw, times(1)).rawLine("JOIN #c");
+  }
+
   @Test
   void maybeHandleMyInfoDetectsZncAndPublishesStatusLine() {
     PircbotxConnectionState conn = new PircbotxConnectionState("libera");
@@ -97,6 +121,22 @@ class PircbotxRegistrationLifecycleHandlerTest {
       PlaybackCursorProvider playbackCursorProvider,
       boolean sojuDiscoveryEnabled,
       boolean zncDiscoveryEnabled) {
+    return newHandler(
+        conn,
+        events,
+        playbackCursorProvider,
+        sojuDiscoveryEnabled,
+        zncDiscoveryEnabled,
+        new ServerIsupportState());
+  }
+
+  private static PircbotxRegistrationLifecycleHandler newHandler(
+      PircbotxConnectionState conn,
+      List<ServerIrcEvent> events,
+      PlaybackCursorProvider playbackCursorProvider,
+      boolean sojuDiscoveryEnabled,
+      boolean zncDiscoveryEnabled,
+      ServerIsupportState isupportState) {
     PircbotxBouncerDiscoveryCoordinator bouncerDiscovery =
         new PircbotxBouncerDiscoveryCoordinator(
             "libera",
@@ -108,6 +148,12 @@ class PircbotxRegistrationLifecycleHandlerTest {
     PircbotxServerResponseEmitter serverResponses =
         new PircbotxServerResponseEmitter("libera", events::add);
     return new PircbotxRegistrationLifecycleHandler(
-        "libera", conn, playbackCursorProvider, bouncerDiscovery, serverResponses, events::add);
+        "libera",
+        conn,
+        playbackCursorProvider,
+        bouncerDiscovery,
+        serverResponses,
+        isupportState,
+        events::add);
   }
 }
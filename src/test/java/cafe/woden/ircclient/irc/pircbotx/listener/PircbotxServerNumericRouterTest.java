@@ -129,6 +129,7 @@ class PircbotxServerNumericRouterTest {
             new NoOpPlaybackCursorProvider(),
             bouncerDiscovery,
             serverResponses,
+            new ServerIsupportState(),
             events::add);
     PircbotxWhoEventEmitter whoEvents = new PircbotxWhoEventEmitter("libera", conn, events::add);
     return new PircbotxServerNumericRouter(
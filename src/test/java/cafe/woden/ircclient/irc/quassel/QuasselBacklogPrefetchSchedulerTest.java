@@ -0,0 +1,80 @@
+package cafe.woden.ircclient.irc.quassel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class QuasselBacklogPrefetchSchedulerTest {
+
+  @Test
+  void requestsStayWithinWindowAndRepliesAdmitTheNextBufferInOrder() {
+    TestScheduler timer = new TestScheduler();
+    List<Integer> sent = new ArrayList<>();
+    QuasselBacklogPrefetchScheduler prefetch =
+        new QuasselBacklogPrefetchScheduler("quassel", 2, 10_000L, sent::add, timer);
+
+    prefetch.start(List.of(7, 3, 9, 3, 5));
+
+    assertEquals(List.of(7, 3), sent);
+    assertEquals(2, prefetch.inFlightCount());
+    assertEquals(2, prefetch.pendingCount());
+
+    assertFalse(prefetch.onBacklogReceived(42));
+    assertEquals(List.of(7, 3), sent, "replies to user-requested history do not free a slot");
+
+    assertTrue(prefetch.onBacklogReceived(3));
+    prefetch.onBacklogReceived(7);
+    prefetch.onBacklogReceived(9);
+    prefetch.onBacklogReceived(5);
+
+    assertEquals(List.of(7, 3, 9, 5), sent);
+    assertTrue(prefetch.isIdle());
+  }
+
+  @Test
+  void unansweredRequestsTimeOutOfTheWindow() {
+    TestScheduler timer = new TestScheduler();
+    List<Integer> sent = new ArrayList<>();
+    QuasselBacklogPrefetchScheduler prefetch =
+        new QuasselBacklogPrefetchScheduler("quassel", 1, 5_000L, sent::add, timer);
+
+    prefetch.start(List.of(1, 2, 3));
+    timer.advanceTimeBy(4_999L, TimeUnit.MILLISECONDS);
+    assertEquals(List.of(1), sent);
+
+    timer.advanceTimeBy(1L, TimeUnit.MILLISECONDS);
+    assertEquals(List.of(1, 2), sent);
+
+    prefetch.onBacklogReceived(2);
+    assertEquals(List.of(1, 2, 3), sent);
+  }
+
+  @Test
+  void sendFailureCancelsRemainingPrefetch() {
+    TestScheduler timer = new TestScheduler();
+    List<Integer> sent = new ArrayList<>();
+    QuasselBacklogPrefetchScheduler prefetch =
+        new QuasselBacklogPrefetchScheduler(
+            "quassel",
+            4,
+            5_000L,
+            bufferId -> {
+              if (bufferId == 2) throw new IOException("socket closed");
+              sent.add(bufferId);
+            },
+            timer);
+
+    prefetch.start(List.of(1, 2, 3, 4, 5));
+    timer.advanceTimeBy(1, TimeUnit.MINUTES);
+
+    assertEquals(List.of(1), sent);
+    assertTrue(prefetch.isIdle());
+  }
+}
@@ -1,13 +1,17 @@
 package cafe.woden.ircclient.irc.roster;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import cafe.woden.ircclient.irc.IrcEvent.AccountState;
 import cafe.woden.ircclient.irc.IrcEvent.AwayState;
 import cafe.woden.ircclient.irc.IrcEvent.NickInfo;
+import cafe.woden.ircclient.irc.IrcEvent.RosterChange;
+import cafe.woden.ircclient.irc.IrcEvent.RosterDelta;
 import java.lang.reflect.Field;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -143,4 +147,108 @@ class UserListStoreTest {
     Map<String, String> byNick = byServer.get(serverId);
     assertTrue(byNick != null && byNick.size() <= 20_000);
   }
+
+  @Test
+  void applyDeltaPatchesSortedRosterInPlace() {
+    UserListStore store = new UserListStore();
+    String serverId = "libera";
+    store.put(
+        serverId,
+        "#ircafe",
+        List.of(
+            new NickInfo("Op", "@", "Op!u@h"),
+            new NickInfo("bob", "", "bob!u@h"),
+            new NickInfo("dave", "", "dave!u@h")));
+
+    UserListStore.RosterPatch added =
+        store.applyDelta(
+            serverId, delta(RosterChange.ADDED, "Carol", new NickInfo("Carol", "", "Carol!u@h")));
+    assertEquals(-1, added.removedIndex());
+    assertNull(added.removed());
+    assertEquals(2, added.insertedIndex());
+    assertEquals(List.of("Op", "bob", "Carol", "dave"), nicks(store, serverId));
+    assertTrue(store.isNickPresentOnServer(serverId, "carol"));
+
+    UserListStore.RosterPatch voiced =
+        store.applyDelta(
+            serverId,
+            delta(RosterChange.PREFIX_CHANGED, "dave", new NickInfo("dave", "+", null)));
+    assertEquals(3, voiced.removedIndex());
+    assertEquals(1, voiced.insertedIndex());
+    assertEquals("", voiced.removed().prefix());
+    assertEquals("+", voiced.inserted().prefix());
+    assertEquals("dave!u@h", store.get(serverId, "#ircafe").get(1).hostmask());
+
+    store.applyDelta(
+        serverId, delta(RosterChange.RENAMED, "bob", new NickInfo("zed", "", "zed!u@h")));
+    assertEquals(List.of("Op", "dave", "Carol", "zed"), nicks(store, serverId));
+    assertFalse(store.isNickPresentOnServer(serverId, "bob"));
+
+    store.applyDelta(serverId, delta(RosterChange.REMOVED, "OP", null));
+    assertEquals(List.of("dave", "Carol", "zed"), nicks(store, serverId));
+  }
+
+  @Test
+  void applyDeltaReportsSizeAndStatusCountsFromRunningCounters() {
+    UserListStore store = new UserListStore();
+    String serverId = "libera";
+    store.put(
+        serverId,
+        "#ircafe",
+        List.of(
+            new NickInfo("Op", "@", "Op!u@h"),
+            new NickInfo("Voice", "+", "Voice!u@h"),
+            new NickInfo("bob", "", "bob!u@h")));
+
+    UserListStore.RosterPatch opped =
+        store.applyDelta(
+            serverId, delta(RosterChange.PREFIX_CHANGED, "bob", new NickInfo("bob", "@", null)));
+    assertEquals(3, opped.size());
+    assertEquals(2, opped.operatorCount());
+    assertEquals(1, opped.voicedCount());
+    assertFalse(opped.isReload());
+
+    UserListStore.RosterPatch parted =
+        store.applyDelta(serverId, delta(RosterChange.REMOVED, "voice", null));
+    assertEquals(2, parted.size());
+    assertEquals(0, parted.voicedCount());
+    assertEquals(List.of("bob", "Op"), nicks(store, serverId));
+
+    // A later change makes the earlier patch's indexes stale.
+    store.applyDelta(
+        serverId, delta(RosterChange.ADDED, "carol", new NickInfo("carol", "", "carol!u@h")));
+    assertTrue(parted.isReload());
+
+    assertEquals(
+        Set.of("#ircafe"), store.updateHostmaskAcrossChannels(serverId, "CAROL", "carol!x@y"));
+    assertEquals("carol!x@y", store.get(serverId, "#ircafe").get(2).hostmask());
+  }
+
+  @Test
+  void applyDeltaIgnoresUnknownChannelsAndNicks() {
+    UserListStore store = new UserListStore();
+    String serverId = "libera";
+    store.put(serverId, "#ircafe", List.of(new NickInfo("bob", "", "bob!u@h")));
+
+    RosterDelta unknownChannel =
+        new RosterDelta(
+            Instant.now(), "#other", RosterChange.ADDED, "x", new NickInfo("x", "", null), "@+");
+    assertFalse(store.applyDelta(serverId, unknownChannel).changed());
+    assertFalse(store.applyDelta(serverId, delta(RosterChange.REMOVED, "nobody", null)).changed());
+    assertFalse(
+        store
+            .applyDelta(
+                serverId,
+                delta(RosterChange.PREFIX_CHANGED, "nobody", new NickInfo("nobody", "@", null)))
+            .changed());
+    assertEquals(List.of("bob"), nicks(store, serverId));
+  }
+
+  private static RosterDelta delta(RosterChange change, String nick, NickInfo info) {
+    return new RosterDelta(Instant.now(), "#ircafe", change, nick, info, "@+");
+  }
+
+  private static List<String> nicks(UserListStore store, String serverId) {
+    return store.get(serverId, "#ircafe").stream().map(NickInfo::nick).toList();
+  }
 }
@@ -0,0 +1,77 @@
+package cafe.woden.ircclient.logging;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+class ChatLogMigrationsTest {
+
+  @Test
+  void gatedConnectionsWaitForMigrationToFinish() throws Exception {
+    Flyway flyway = mock(Flyway.class);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            inv -> {
+              release.await(5, TimeUnit.SECONDS);
+              return null;
+            })
+        .when(flyway)
+        .migrate();
+    DataSource pool = mock(DataSource.class);
+    Connection connection = mock(Connection.class);
+    when(pool.getConnection()).thenReturn(connection);
+
+    ChatLogMigrations migrations = new ChatLogMigrations(flyway);
+    migrations.start();
+    DataSource gated = migrations.gate(pool);
+    CompletableFuture<Connection> pending =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return gated.getConnection();
+              } catch (SQLException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    Thread.sleep(50);
+    assertFalse(pending.isDone());
+    verify(pool, never()).getConnection();
+
+    release.countDown();
+    assertSame(connection, pending.get(5, TimeUnit.SECONDS));
+    assertTrue(migrations.isMigrated());
+  }
+
+  @Test
+  void failedMigrationSurfacesAsSqlException() throws Exception {
+    Flyway flyway = mock(Flyway.class);
+    doThrow(new IllegalStateException("bad script")).when(flyway).migrate();
+    DataSource pool = mock(DataSource.class);
+
+    ChatLogMigrations migrations = new ChatLogMigrations(flyway);
+    migrations.start();
+
+    DataSource gated = migrations.gate(pool);
+    SQLException error = assertThrows(SQLException.class, gated::getConnection);
+    assertTrue(error.getCause() instanceof IllegalStateException);
+    assertFalse(migrations.isMigrated());
+    verify(pool, never()).getConnection();
+  }
+}
@@ -1,6 +1,7 @@
 package cafe.woden.ircclient.logging;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import cafe.woden.ircclient.logging.viewer.ChatRedactionAuditRecord;
 import cafe.woden.ircclient.model.LogKind;
@@ -295,6 +296,48 @@ class ChatLogRepositoryTest {
     }
   }
 
+  @Test
+  void chunkedRetentionDeleteOnlyTouchesRowsInsideIdRange() {
+    try (Fixture fixture = openFixture(tempDir.resolve("chatlog-chunked-retention"))) {
+      TargetRef target = new TargetRef("srv", "#chan");
+      LogLineFactory factory = new LogLineFactory(fixedClock(1_700_030_000_000L));
+      fixture.repo.insertBatch(
+          List.of(
+              factory.noticeAt(target, "server", "old-1", 1_000L),
+              factory.noticeAt(target, "server", "old-2", 2_000L),
+              factory.noticeAt(target, "server", "new-1", 9_000L),
+              factory.noticeAt(target, "server", "old-3", 3_000L)));
+
+      ChatLogRepository.RowIdRange range = fixture.repo.idRangeOlderThan(5_000L).orElseThrow();
+      assertEquals(3L, range.maxId() - range.minId());
+
+      assertEquals(1, fixture.repo.deleteOlderThanInIdRange(5_000L, range.minId(), range.minId()));
+      assertEquals(3, fixture.repo.fetchRecent("srv", "#chan", 10).size());
+
+      assertEquals(2, fixture.repo.deleteOlderThanInIdRange(5_000L, range.minId(), range.maxId()));
+      List<LogLine> rows = fixture.repo.fetchRecent("srv", "#chan", 10);
+      assertEquals(1, rows.size());
+      assertEquals("new-1", rows.getFirst().text());
+      assertTrue(fixture.repo.idRangeOlderThan(5_000L).isEmpty());
+    }
+  }
+
+  @Test
+  void cacheFileStatsAreReportedForCachedChatLogAndSurviveDefrag() {
+    try (Fixture fixture = openFixture(tempDir.resolve("chatlog-cache-stats"))) {
+      TargetRef target = new TargetRef("srv", "#chan");
+      LogLineFactory factory = new LogLineFactory(fixedClock(1_700_031_000_000L));
+      fixture.repo.insert(factory.noticeAt(target, "server", "row", 1_000L));
+
+      ChatLogRepository.CacheFileStats stats = fixture.repo.cacheFileStats().orElseThrow();
+      assertTrue(stats.fileFreePos() > 0L);
+      assertTrue(stats.fragmentationRatio() >= 0d && stats.fragmentationRatio() <= 1d);
+
+      fixture.repo.checkpointDefrag();
+      assertEquals(1, fixture.repo.fetchRecent("srv", "#chan", 10).size());
+    }
+  }
+
   private static Clock fixedClock(long epochMs) {
     return Clock.fixed(Instant.ofEpochMilli(epochMs), ZoneOffset.UTC);
   }
@@ -0,0 +1,119 @@
+package cafe.woden.ircclient.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cafe.woden.ircclient.config.LogProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ChatLogRetentionPrunerTest {
+
+  @Test
+  void pruneDeletesInBoundedIdChunksAndPublishesProgress() throws Exception {
+    ChatLogRepository repo = mock(ChatLogRepository.class);
+    ChatRedactionAuditRepository auditRepo = mock(ChatRedactionAuditRepository.class);
+    when(repo.idRangeOlderThan(anyLong()))
+        .thenReturn(Optional.of(new ChatLogRepository.RowIdRange(10L, 24L)));
+    when(repo.deleteOlderThanInIdRange(anyLong(), anyLong(), anyLong())).thenReturn(4);
+    when(auditRepo.deleteOlderThan(anyLong())).thenReturn(1);
+    List<Object> published = new ArrayList<>();
+    ApplicationEventPublisher events = published::add;
+
+    ChatLogRetentionPruner pruner =
+        new ChatLogRetentionPruner(
+            repo,
+            auditRepo,
+            txTemplate(),
+            retentionProps(30),
+            null,
+            events,
+            mock(ScheduledExecutorService.class),
+            5L,
+            0L);
+
+    assertEquals(13L, pruner.pruneOnce());
+
+    verify(repo).deleteOlderThanInIdRange(anyLong(), eq(10L), eq(14L));
+    verify(repo).deleteOlderThanInIdRange(anyLong(), eq(15L), eq(19L));
+    verify(repo).deleteOlderThanInIdRange(anyLong(), eq(20L), eq(24L));
+    verify(repo, never()).deleteOlderThan(anyLong());
+
+    ChatLogRetentionPruner.PruneProgress last =
+        (ChatLogRetentionPruner.PruneProgress) published.getLast();
+    assertEquals("finished", last.phase());
+    assertEquals(3L, last.chunksDone());
+    assertEquals(3L, last.chunksTotal());
+    assertEquals(12L, last.rowsDeleted());
+    pruner.close();
+  }
+
+  @Test
+  void pruneIsNoOpWhenKeepForeverIsEnabled() throws Exception {
+    ChatLogRepository repo = mock(ChatLogRepository.class);
+    ChatLogRetentionPruner pruner =
+        new ChatLogRetentionPruner(
+            repo,
+            mock(ChatRedactionAuditRepository.class),
+            txTemplate(),
+            retentionProps(0),
+            null,
+            null,
+            mock(ScheduledExecutorService.class));
+
+    assertEquals(0L, pruner.pruneOnce());
+    verify(repo, never()).idRangeOlderThan(anyLong());
+    verify(repo, never()).deleteOlderThanInIdRange(anyLong(), anyLong(), anyLong());
+    pruner.close();
+  }
+
+  private static LogProperties retentionProps(int retentionDays) {
+    return new LogProperties(
+        Boolean.TRUE,
+        Boolean.TRUE,
+        Boolean.FALSE,
+        Boolean.TRUE,
+        Boolean.TRUE,
+        retentionDays <= 0,
+        retentionDays,
+        500,
+        64,
+        new LogProperties.Hsqldb("ircafe-chatlog-test", Boolean.TRUE));
+  }
+
+  private static TransactionTemplate txTemplate() {
+    return new TransactionTemplate(new NoOpTransactionManager());
+  }
+
+  private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) {
+      return new SimpleTransactionStatus();
+    }
+
+    @Override
+    public void commit(TransactionStatus status) {
+      // no-op
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) {
+      // no-op
+    }
+  }
+}
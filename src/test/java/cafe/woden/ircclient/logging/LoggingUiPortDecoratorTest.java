@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -13,6 +14,7 @@ import static org.mockito.Mockito.when;
 
 import cafe.woden.ircclient.app.api.UiTranscriptPort;
 import cafe.woden.ircclient.config.LogProperties;
+import cafe.woden.ircclient.logging.archive.ChatLogArchive;
 import cafe.woden.ircclient.logging.viewer.ChatRedactionAuditRecord;
 import cafe.woden.ircclient.logging.viewer.ChatRedactionAuditService;
 import cafe.woden.ircclient.model.LogDirection;
@@ -298,6 +300,35 @@ class LoggingUiPortDecoratorTest {
     verify(repo, times(0)).findLatestByMessageId(any(), any(), any());
   }
 
+  @Test
+  void redactionOfArchivedMessageIsRecordedInTheArchive() {
+    UiTranscriptPort delegate = mock(UiTranscriptPort.class);
+    ChatLogRepository repo = mock(ChatLogRepository.class);
+    ChatLogArchive archive = mock(ChatLogArchive.class);
+    LoggingUiPortDecorator d =
+        new LoggingUiPortDecorator(
+            delegate,
+            line -> {},
+            repo,
+            archive,
+            new NoOpChatRedactionAuditService(),
+            new LogLineFactory(),
+            LOGGING_ON);
+    TargetRef target = new TargetRef("srv", "#chan");
+    Instant at = Instant.ofEpochMilli(1_732_000_400_000L);
+    when(delegate.applyMessageRedaction(target, at, "alice", "old-1", "", Map.of()))
+        .thenReturn(true);
+    when(delegate.applyMessageRedaction(target, at, "alice", "hot-1", "", Map.of()))
+        .thenReturn(true);
+    when(repo.updateTextByMessageId("srv", "#chan", "hot-1", "[message redacted]")).thenReturn(1);
+
+    assertTrue(d.applyMessageRedaction(target, at, "alice", "old-1", "", Map.of()));
+    assertTrue(d.applyMessageRedaction(target, at, "alice", "hot-1", "", Map.of()));
+
+    verify(archive).replaceText("srv", "#chan", "old-1", "[message redacted]");
+    verify(archive, times(0)).replaceText(any(), any(), eq("hot-1"), any());
+  }
+
   private static LoggingUiPortDecorator newDecorator(
       UiTranscriptPort delegate, AtomicReference<LogLine> captured) {
     return newDecorator(delegate, captured, LOGGING_ON);
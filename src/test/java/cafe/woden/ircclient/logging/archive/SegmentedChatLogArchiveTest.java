@@ -0,0 +1,252 @@
+package cafe.woden.ircclient.logging.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cafe.woden.ircclient.logging.LogLine;
+import cafe.woden.ircclient.logging.LogRow;
+import cafe.woden.ircclient.model.LogDirection;
+import cafe.woden.ircclient.model.LogKind;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentedChatLogArchiveTest {
+
+  private static final long JAN = SegmentedChatLogArchive.monthStartMs(YearMonth.of(2024, 1));
+  private static final long FEB = SegmentedChatLogArchive.monthStartMs(YearMonth.of(2024, 2));
+  private static final long MAR = SegmentedChatLogArchive.monthStartMs(YearMonth.of(2024, 3));
+
+  @TempDir Path tempDir;
+
+  @Test
+  void segmentRoundTripsEveryColumn() throws Exception {
+    SegmentedChatLogArchive archive = new SegmentedChatLogArchive(tempDir, true);
+    LogRow row =
+        new LogRow(
+            7L,
+            new LogLine(
+                "srv",
+                "#Chan",
+                JAN + 1_000L,
+                LogDirection.OUT,
+                LogKind.ACTION,
+                "me",
+                "waves",
+                true,
+                true,
+                "{\"messageId\":\"m-7\"}"));
+    LogRow noMeta =
+        new LogRow(
+            8L,
+            new LogLine(
+                "srv",
+                "#chan",
+                JAN + 2_000L,
+                LogDirection.IN,
+                LogKind.CHAT,
+                "bob",
+                "hi",
+                false,
+                false,
+                null));
+
+    archive.writeSegment("srv", JAN, FEB, List.of(row, noMeta));
+
+    List<LogRow> out = archive.fetchOlderRows("srv", "#chan", Long.MAX_VALUE, Long.MAX_VALUE, 10);
+    assertEquals(List.of(noMeta, row), out);
+    assertNull(out.get(0).line().metaJson());
+  }
+
+  @Test
+  void olderRowsPageAcrossMonthsNewestFirstAndIgnoreTargetCase() throws Exception {
+    SegmentedChatLogArchive archive = new SegmentedChatLogArchive(tempDir, true);
+    archive.writeSegment("srv", JAN, FEB, rows("#Chan", 1L, JAN, 600));
+    archive.writeSegment("srv", FEB, MAR, rows("#chan", 1_001L, FEB, 10));
+    archive.writeSegment("srv", FEB, MAR, rows("#other", 2_001L, FEB, 5));
+
+    List<LogRow> page1 = archive.fetchOlderRows("srv", "#CHAN", Long.MAX_VALUE, 0L, 15);
+    assertEquals(15, page1.size());
+    assertEquals(1_010L, page1.get(0).id());
+    assertEquals(1_001L, page1.get(9).id());
+    assertEquals(600L, page1.get(10).id());
+
+    LogRow oldest = page1.get(page1.size() - 1);
+    List<LogRow> page2 =
+        archive.fetchOlderRows("srv", "#chan", oldest.line().tsEpochMs(), oldest.id(), 1_000);
+    assertEquals(595, page2.size());
+    assertEquals(595L, page2.get(0).id());
+    assertEquals(1L, page2.get(page2.size() - 1).id());
+
+    LogRow last = page2.get(page2.size() - 1);
+    assertFalse(archive.hasOlderRows("srv", "#chan", last.line().tsEpochMs(), last.id()));
+    assertTrue(archive.hasOlderRows("srv", "#other", Long.MAX_VALUE, 0L));
+    assertTrue(archive.fetchOlderRows("other-srv", "#chan", Long.MAX_VALUE, 0L, 10).isEmpty());
+  }
+
+  @Test
+  void searchRowsHonoursTimeRangeAcrossTargets() throws Exception {
+    SegmentedChatLogArchive archive = new SegmentedChatLogArchive(tempDir, true);
+    archive.writeSegment("srv", JAN, FEB, rows("#a", 1L, JAN, 10));
+    archive.writeSegment("srv", FEB, MAR, rows("#b", 100L, FEB, 10));
+
+    List<LogRow> feb = archive.searchRows("srv", FEB, null, 100);
+    assertEquals(10, feb.size());
+    assertTrue(feb.stream().allMatch(r -> r.line().target().equals("#b")));
+
+    List<LogRow> all = archive.searchRows("srv", null, null, 12);
+    assertEquals(12, all.size());
+    assertEquals(109L, all.get(0).id());
+    assertEquals(9L, all.get(11).id());
+
+    LogRow oldest = all.get(all.size() - 1);
+    List<LogRow> rest =
+        archive.searchRowsBefore("srv", null, null, oldest.line().tsEpochMs(), oldest.id(), 100);
+    assertEquals(8, rest.size());
+    assertEquals(8L, rest.get(0).id());
+    assertEquals(1L, rest.get(7).id());
+  }
+
+  @Test
+  void searchPagesThroughOverlappingSegmentsOfOneMonthInOrder() throws Exception {
+    SegmentedChatLogArchive archive = new SegmentedChatLogArchive(tempDir, true);
+    List<LogRow> a = rows("#a", 1L, JAN, 1_500);
+    List<LogRow> b = rows("#b", 5_001L, JAN + 500L, 1_100);
+    archive.writeSegment("srv", JAN, FEB, a);
+    archive.writeSegment("srv", JAN, FEB, b);
+    archive.clearTarget("srv", "#b", 5_100L);
+
+    ArrayList<LogRow> expected = new ArrayList<>(a);
+    expected.addAll(b.subList(100, b.size()));
+    expected.sort(SegmentedChatLogArchive.NEWEST_FIRST);
+
+    ArrayList<LogRow> paged = new ArrayList<>();
+    List<LogRow> page = archive.searchRows("srv", null, null, 97);
+    while (!page.isEmpty()) {
+      paged.addAll(page);
+      LogRow oldest = page.get(page.size() - 1);
+      page =
+          archive.searchRowsBefore("srv", null, null, oldest.line().tsEpochMs(), oldest.id(), 97);
+    }
+    assertEquals(
+        expected.stream().map(LogRow::id).toList(), paged.stream().map(LogRow::id).toList());
+  }
+
+  @Test
+  void clearedTargetStaysHiddenWhenPagingIntoArchivedMonths() throws Exception {
+    SegmentedChatLogArchive archive = new SegmentedChatLogArchive(tempDir, true);
+    archive.writeSegment("srv", JAN, FEB, rows("#chan", 1L, JAN, 600));
+    archive.writeSegment("srv", FEB, MAR, rows("#chan", 1_001L, FEB, 10));
+    archive.writeSegment("srv", FEB, MAR, rows("#other", 2_001L, FEB, 5));
+
+    archive.clearTarget("srv", "#Chan", 5_000L);
+
+    assertTrue(archive.fetchOlderRows("srv", "#chan", Long.MAX_VALUE, 0L, 50).isEmpty());
+    assertTrue(archive.fetchOlderRows("srv", "#chan", FEB, 1_001L, 50).isEmpty());
+    assertFalse(archive.hasOlderRows("srv", "#chan", Long.MAX_VALUE, 0L));
+    List<LogRow> search = archive.searchRows("srv", null, null, 1_000);
+    assertEquals(5, search.size());
+    assertTrue(search.stream().allMatch(r -> r.line().target().equals("#other")));
+
+    // Tombstones are persisted next to the segments.
+    SegmentedChatLogArchive reopened = new SegmentedChatLogArchive(tempDir, true);
+    assertFalse(reopened.hasOlderRows("srv", "#chan", Long.MAX_VALUE, 0L));
+    assertTrue(reopened.hasOlderRows("srv", "#other", Long.MAX_VALUE, 0L));
+  }
+
+  @Test
+  void clearOnlyHidesRowsUpToTheRecordedId() throws Exception {
+    SegmentedChatLogArchive archive = new SegmentedChatLogArchive(tempDir, true);
+    archive.writeSegment("srv", JAN, FEB, rows("#chan", 1L, JAN, 10));
+    archive.clearTarget("srv", "#chan", 10L);
+    archive.writeSegment("srv", FEB, MAR, rows("#chan", 11L, FEB, 3));
+
+    List<LogRow> out = archive.fetchOlderRows("srv", "#chan", Long.MAX_VALUE, 0L, 50);
+    assertEquals(List.of(13L, 12L, 11L), out.stream().map(LogRow::id).toList());
+    LogRow oldest = out.get(out.size() - 1);
+    assertFalse(archive.hasOlderRows("srv", "#chan", oldest.line().tsEpochMs(), oldest.id()));
+  }
+
+  @Test
+  void replacedTextIsShownForArchivedMessageIds() throws Exception {
+    SegmentedChatLogArchive archive = new SegmentedChatLogArchive(tempDir, true);
+    LogRow row =
+        new LogRow(
+            7L,
+            new LogLine(
+                "srv",
+                "#chan",
+                JAN + 1_000L,
+                LogDirection.IN,
+                LogKind.CHAT,
+                "bob",
+                "secret",
+                false,
+                false,
+                "{\"messageId\":\"m-7\"}"));
+    archive.writeSegment("srv", JAN, FEB, List.of(row));
+
+    archive.replaceText("srv", "#CHAN", "m-7", "[message redacted]");
+
+    LogRow paged = archive.fetchOlderRows("srv", "#chan", Long.MAX_VALUE, 0L, 10).get(0);
+    assertEquals("[message redacted]", paged.line().text());
+    assertEquals(7L, paged.id());
+    SegmentedChatLogArchive reopened = new SegmentedChatLogArchive(tempDir, true);
+    LogRow searched = reopened.searchRows("srv", null, null, 10).get(0);
+    assertEquals("[message redacted]", searched.line().text());
+  }
+
+  @Test
+  void blankServerSearchesEveryServer() throws Exception {
+    SegmentedChatLogArchive archive = new SegmentedChatLogArchive(tempDir, true);
+    archive.writeSegment("srv", JAN, FEB, rows("#a", 1L, JAN, 3));
+    archive.writeSegment("srv2", FEB, MAR, rows("#b", 10L, FEB, 2));
+    archive.clearTarget("srv2", "#b", 10L);
+
+    List<LogRow> all = archive.searchRows("", null, null, 100);
+    assertEquals(List.of(11L, 3L, 2L, 1L), all.stream().map(LogRow::id).toList());
+    assertTrue(archive.fetchOlderRows("", "#a", Long.MAX_VALUE, 0L, 10).isEmpty());
+  }
+
+  @Test
+  void expiredMonthsAreDeletedAndDisabledArchiveReturnsNothing() throws Exception {
+    SegmentedChatLogArchive archive = new SegmentedChatLogArchive(tempDir, true);
+    archive.writeSegment("srv", JAN, FEB, rows("#a", 1L, JAN, 3));
+    archive.writeSegment("srv", FEB, MAR, rows("#a", 10L, FEB, 3));
+    assertEquals(2, archive.allSegments().size());
+
+    assertTrue(archive.deleteMonthsEndingBefore(FEB) > 0L);
+    assertEquals(1, archive.allSegments().size());
+    assertEquals(3, archive.fetchOlderRows("srv", "#a", Long.MAX_VALUE, 0L, 10).size());
+
+    SegmentedChatLogArchive disabled = new SegmentedChatLogArchive(tempDir, false);
+    assertTrue(disabled.fetchOlderRows("srv", "#a", Long.MAX_VALUE, 0L, 10).isEmpty());
+    assertFalse(disabled.hasOlderRows("srv", "#a", Long.MAX_VALUE, 0L));
+  }
+
+  private static List<LogRow> rows(String target, long firstId, long startTs, int count) {
+    ArrayList<LogRow> out = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      out.add(
+          new LogRow(
+              firstId + i,
+              new LogLine(
+                  "srv",
+                  target,
+                  startTs + i * 1_000L,
+                  LogDirection.IN,
+                  LogKind.CHAT,
+                  "nick" + (i % 3),
+                  "line " + i,
+                  false,
+                  false,
+                  null)));
+    }
+    return out;
+  }
+}
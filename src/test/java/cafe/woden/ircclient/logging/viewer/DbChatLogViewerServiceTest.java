@@ -1,6 +1,7 @@
 package cafe.woden.ircclient.logging.viewer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
@@ -14,6 +15,7 @@ import cafe.woden.ircclient.logging.LogLine;
 import cafe.woden.ircclient.logging.LogRow;
 import cafe.woden.ircclient.model.LogDirection;
 import cafe.woden.ircclient.model.LogKind;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -365,6 +367,72 @@ class DbChatLogViewerServiceTest {
     verify(repo).distinctTargets("srv", 15);
   }
 
+  @Test
+  void searchPageContinuesFromKeysetCursorUntilExhausted() {
+    ChatLogRepository repo = mock(ChatLogRepository.class);
+    DbChatLogViewerService svc = new DbChatLogViewerService(repo);
+
+    when(repo.searchRows(eq("srv"), isNull(), isNull(), anyInt()))
+        .thenReturn(
+            List.of(
+                row(503L, LogKind.CHAT, "Alice", "one", "{}", LogDirection.IN),
+                row(502L, LogKind.CHAT, "Bob", "two", "{}", LogDirection.IN)));
+    when(repo.searchRowsBefore(
+            eq("srv"), isNull(), isNull(), eq(1_700_000_000_000L), eq(502L), anyInt()))
+        .thenReturn(List.of(row(501L, LogKind.CHAT, "Carol", "three", "{}", LogDirection.IN)));
+
+    ChatLogViewerPage first = svc.searchPage(unfiltered(2), null);
+    assertEquals(List.of(503L, 502L), first.rows().stream().map(ChatLogViewerRow::id).toList());
+    assertEquals(new ChatLogViewerCursor(1_700_000_000_000L, 502L), first.next());
+
+    ChatLogViewerPage second = svc.searchPage(unfiltered(2), first.next());
+    assertEquals(List.of(501L), second.rows().stream().map(ChatLogViewerRow::id).toList());
+    assertFalse(second.hasMore());
+  }
+
+  @Test
+  void streamStopsWhenSinkDeclinesMoreRows() {
+    ChatLogRepository repo = mock(ChatLogRepository.class);
+    DbChatLogViewerService svc = new DbChatLogViewerService(repo);
+
+    when(repo.searchRows(eq("srv"), isNull(), isNull(), anyInt()))
+        .thenReturn(
+            List.of(
+                row(603L, LogKind.CHAT, "Alice", "one", "{}", LogDirection.IN),
+                row(602L, LogKind.CHAT, "Bob", "two", "{}", LogDirection.IN),
+                row(601L, LogKind.CHAT, "Carol", "three", "{}", LogDirection.IN)));
+
+    ArrayList<Long> seen = new ArrayList<>();
+    long delivered =
+        svc.stream(
+            unfiltered(1),
+            r -> {
+              seen.add(r.id());
+              return seen.size() < 2;
+            });
+
+    assertEquals(2, delivered);
+    assertEquals(List.of(603L, 602L), seen);
+  }
+
+  private static ChatLogViewerQuery unfiltered(int limit) {
+    return new ChatLogViewerQuery(
+        "srv",
+        "",
+        ChatLogViewerMatchMode.ANY,
+        "",
+        ChatLogViewerMatchMode.ANY,
+        "",
+        ChatLogViewerMatchMode.ANY,
+        "",
+        ChatLogViewerMatchMode.ANY,
+        true,
+        true,
+        null,
+        null,
+        limit);
+  }
+
   private static LogRow row(long id, String fromNick, String metaJson) {
     return row(id, LogKind.CHAT, fromNick, "hello", metaJson, LogDirection.IN);
   }
@@ -0,0 +1,304 @@
+package cafe.woden.ircclient.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Authenticator;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+class HttpLiteTest {
+
+  @Test
+  void sequentialRequestsShareOneKeptAliveConnection() throws Exception {
+    try (FakeHttpServer server = new FakeHttpServer(false)) {
+      HttpLite.PoolStats before = HttpLite.poolStats();
+
+      HttpLite.Response<String> first = get(server.uri("/one"));
+      HttpLite.Response<String> second = get(server.uri("/two?x=1"));
+
+      assertEquals(200, first.statusCode());
+      assertEquals("GET /one", first.body());
+      assertEquals("GET /two?x=1", second.body());
+      assertEquals(1, server.connections.get());
+      assertTrue(HttpLite.poolStats().connectionsReused() > before.connectionsReused());
+    }
+  }
+
+  @Test
+  void chunkedGzipBodyIsDecodedAndPostBodyIsSent() throws Exception {
+    try (FakeHttpServer server = new FakeHttpServer(false)) {
+      HttpLite.Response<String> gz =
+          HttpLite.getString(
+              server.uri("/gzip"), Map.of("Accept-Encoding", "gzip"), Proxy.NO_PROXY, 2_000, 2_000);
+      HttpLite.Response<String> post =
+          HttpLite.postString(
+              server.uri("/post"),
+              Map.of("Content-Type", "application/json"),
+              "{\"a\":1}",
+              Proxy.NO_PROXY,
+              2_000,
+              2_000);
+
+      assertEquals("GET /gzip compressed", gz.body());
+      assertEquals("POST /post {\"a\":1}", post.body());
+      assertEquals(1, server.connections.get());
+      assertTrue(server.requestHeads.getLast().contains("Content-Length: 7"));
+    }
+  }
+
+  @Test
+  void connectionClosedByServerWhileIdleIsRetriedOnAFreshSocket() throws Exception {
+    try (FakeHttpServer server = new FakeHttpServer(true)) {
+      assertEquals("GET /a", get(server.uri("/a")).body());
+      assertEquals("GET /b", get(server.uri("/b")).body());
+      assertEquals(2, server.connections.get());
+    }
+  }
+
+  @Test
+  void selectorSuppliedHttpProxyGetsAbsoluteFormRequestsAndConnectTunnels() throws Exception {
+    ProxySelector previous = ProxySelector.getDefault();
+    try (FakeHttpServer proxy = new FakeHttpServer(false)) {
+      ProxySelector.setDefault(
+          new ProxySelector() {
+            @Override
+            public List<Proxy> select(URI uri) {
+              return List.of(new Proxy(Proxy.Type.HTTP, proxy.address()));
+            }
+
+            @Override
+            public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {}
+          });
+
+      HttpLite.Response<String> plain =
+          HttpLite.getString(
+              URI.create("http://origin.test/a?b=1"), Map.of(), null, 2_000, 2_000);
+      assertEquals("GET http://origin.test/a?b=1", plain.body());
+      assertTrue(proxy.requestHeads.getFirst().contains("Host: origin.test\r\n"));
+
+      // The fake proxy answers CONNECT but cannot speak TLS, so the handshake must fail after it.
+      assertThrows(
+          IOException.class,
+          () ->
+              HttpLite.getString(
+                  URI.create("https://origin.test:8443/x"), Map.of(), null, 2_000, 2_000));
+      assertTrue(
+          proxy.requestHeads.getLast().startsWith("CONNECT origin.test:8443 HTTP/1.1\r\n"));
+    } finally {
+      ProxySelector.setDefault(previous);
+    }
+  }
+
+  @Test
+  void httpProxyBasicChallengeIsAnsweredFromTheDefaultAuthenticator() throws Exception {
+    ProxySelector previousSelector = ProxySelector.getDefault();
+    Authenticator previousAuthenticator = Authenticator.getDefault();
+    String expected =
+        "Basic "
+            + Base64.getEncoder().encodeToString("alice:s3cret".getBytes(StandardCharsets.UTF_8));
+    try (FakeHttpServer proxy = new FakeHttpServer(false, expected)) {
+      ProxySelector.setDefault(
+          new ProxySelector() {
+            @Override
+            public List<Proxy> select(URI uri) {
+              return List.of(new Proxy(Proxy.Type.HTTP, proxy.address()));
+            }
+
+            @Override
+            public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {}
+          });
+      List<String> prompts = new CopyOnWriteArrayList<>();
+      Authenticator.setDefault(
+          new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+              prompts.add(
+                  getRequestorType() + " " + getRequestingScheme() + " " + getRequestingPrompt());
+              return new PasswordAuthentication("alice", "s3cret".toCharArray());
+            }
+          });
+
+      HttpLite.Response<String> plain =
+          HttpLite.getString(URI.create("http://origin.test/a"), Map.of(), null, 2_000, 2_000);
+      assertEquals(200, plain.statusCode());
+      assertEquals("GET http://origin.test/a", plain.body());
+      assertEquals(List.of("PROXY Basic ircafe-test"), prompts);
+
+      // Accepted credentials are sent up front on the CONNECT, so no second prompt.
+      assertThrows(
+          IOException.class,
+          () ->
+              HttpLite.getString(
+                  URI.create("https://origin.test:8443/x"), Map.of(), null, 2_000, 2_000));
+      assertTrue(proxy.requestHeads.getLast().startsWith("CONNECT origin.test:8443 HTTP/1.1\r\n"));
+      assertTrue(proxy.requestHeads.getLast().contains("Proxy-Authorization: " + expected));
+      assertEquals(1, prompts.size());
+    } finally {
+      ProxySelector.setDefault(previousSelector);
+      Authenticator.setDefault(previousAuthenticator);
+    }
+  }
+
+  private static HttpLite.Response<String> get(URI uri) throws IOException {
+    return HttpLite.getString(uri, Map.of(), Proxy.NO_PROXY, 2_000, 2_000);
+  }
+
+  /**
+   * Answers each request with "METHOD target [body]"; /gzip replies chunked and gzipped. With a
+   * required proxy authorization, requests without it get a Basic 407 challenge instead.
+   */
+  private static final class FakeHttpServer implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final boolean closeAfterEachResponse;
+    private final String requiredProxyAuthorization;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    final AtomicInteger connections = new AtomicInteger();
+    final List<String> requestHeads = new CopyOnWriteArrayList<>();
+    private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+
+    FakeHttpServer(boolean closeAfterEachResponse) throws IOException {
+      this(closeAfterEachResponse, null);
+    }
+
+    FakeHttpServer(boolean closeAfterEachResponse, String requiredProxyAuthorization)
+        throws IOException {
+      this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+      this.closeAfterEachResponse = closeAfterEachResponse;
+      this.requiredProxyAuthorization = requiredProxyAuthorization;
+      executor.submit(this::acceptLoop);
+    }
+
+    InetSocketAddress address() {
+      return new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+    }
+
+    URI uri(String pathAndQuery) {
+      return URI.create("http://127.0.0.1:" + serverSocket.getLocalPort() + pathAndQuery);
+    }
+
+    private void acceptLoop() {
+      while (!serverSocket.isClosed()) {
+        try {
+          Socket socket = serverSocket.accept();
+          accepted.add(socket);
+          connections.incrementAndGet();
+          executor.submit(() -> serve(socket));
+        } catch (IOException e) {
+          return;
+        }
+      }
+    }
+
+    private void serve(Socket socket) {
+      try (socket) {
+        InputStream in = socket.getInputStream();
+        OutputStream out = socket.getOutputStream();
+        while (true) {
+          String head = readHead(in);
+          if (head == null) return;
+          requestHeads.add(head);
+          String requestLine = head.substring(0, head.indexOf("\r\n"));
+          String[] parts = requestLine.split(" ");
+          int contentLength = 0;
+          for (String line : head.split("\r\n")) {
+            if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+              contentLength = Integer.parseInt(line.substring(15).trim());
+            }
+          }
+          String body = new String(in.readNBytes(contentLength), StandardCharsets.UTF_8);
+          String reply = parts[0] + " " + parts[1] + (body.isEmpty() ? "" : " " + body);
+
+          if (requiredProxyAuthorization != null
+              && !head.contains("Proxy-Authorization: " + requiredProxyAuthorization + "\r\n")) {
+            out.write(
+                ("HTTP/1.1 407 Proxy Authentication Required\r\n"
+                        + "Proxy-Authenticate: Basic realm=\"ircafe-test\"\r\n"
+                        + "Content-Length: 0\r\n\r\n")
+                    .getBytes(StandardCharsets.ISO_8859_1));
+          } else if (parts[1].equals("/gzip")) {
+            writeChunkedGzip(out, reply.replace("/gzip", "/gzip compressed"));
+          } else {
+            byte[] bytes = reply.getBytes(StandardCharsets.UTF_8);
+            out.write(
+                ("HTTP/1.1 200 OK\r\nContent-Type: text/plain; charset=UTF-8\r\n"
+                        + "Content-Length: "
+                        + bytes.length
+                        + "\r\n\r\n")
+                    .getBytes(StandardCharsets.ISO_8859_1));
+            out.write(bytes);
+          }
+          out.flush();
+          if (closeAfterEachResponse) return;
+        }
+      } catch (IOException ignored) {
+      }
+    }
+
+    private static void writeChunkedGzip(OutputStream out, String text) throws IOException {
+      ByteArrayOutputStream gz = new ByteArrayOutputStream();
+      try (GZIPOutputStream zip = new GZIPOutputStream(gz)) {
+        zip.write(text.getBytes(StandardCharsets.UTF_8));
+      }
+      byte[] bytes = gz.toByteArray();
+      int half = bytes.length / 2;
+      out.write(
+          "HTTP/1.1 200 OK\r\nContent-Encoding: gzip\r\nTransfer-Encoding: chunked\r\n\r\n"
+              .getBytes(StandardCharsets.ISO_8859_1));
+      writeChunk(out, bytes, 0, half);
+      writeChunk(out, bytes, half, bytes.length - half);
+      out.write("0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void writeChunk(OutputStream out, byte[] bytes, int off, int len)
+        throws IOException {
+      out.write((Integer.toHexString(len) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+      out.write(bytes, off, len);
+      out.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String readHead(InputStream in) throws IOException {
+      ByteArrayOutputStream head = new ByteArrayOutputStream();
+      int matched = 0;
+      int c;
+      while ((c = in.read()) >= 0) {
+        head.write(c);
+        matched = (c == (matched % 2 == 0 ? '\r' : '\n')) ? matched + 1 : (c == '\r' ? 1 : 0);
+        if (matched == 4) return head.toString(StandardCharsets.ISO_8859_1);
+      }
+      return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+      serverSocket.close();
+      for (Socket socket : accepted) {
+        socket.close();
+      }
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package cafe.woden.ircclient.notify.sound;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sound.sampled.SourceDataLine;
+import org.junit.jupiter.api.Test;
+
+class NotificationSoundMixerTest {
+
+  private final AtomicLong now = new AtomicLong(10_000L);
+  // Render thread is never started, so tests drive mixChunk directly.
+  private final NotificationSoundMixer mixer =
+      new NotificationSoundMixer(
+          () -> mock(SourceDataLine.class), r -> new Thread(() -> {}), now::get);
+
+  @Test
+  void sameSoundWithinCoalesceWindowIsDropped() {
+    assertTrue(mixer.play(sound("a", 4_000), false));
+    now.addAndGet(NotificationSoundMixer.COALESCE_WINDOW_MS - 1);
+    assertFalse(mixer.play(sound("a", 4_000), false));
+    assertTrue(mixer.play(sound("b", 4_000), false));
+
+    now.addAndGet(1);
+    assertTrue(mixer.play(sound("a", 4_000), false));
+    assertEquals(3, mixer.activeVoices());
+  }
+
+  @Test
+  void startsAreCappedPerRollingSecond() {
+    for (int i = 0; i < NotificationSoundMixer.MAX_STARTS_PER_SECOND; i++) {
+      assertTrue(mixer.play(sound("s" + i, 4), false));
+    }
+    assertFalse(mixer.play(sound("late", 4), false));
+
+    now.addAndGet(1_000L);
+    assertTrue(mixer.play(sound("later", 4), false));
+  }
+
+  @Test
+  void previewReplacesPreviewAndBypassesPolicy() {
+    assertTrue(mixer.play(sound("p", 4_000), true));
+    assertTrue(mixer.play(sound("p", 4_000), true));
+    assertEquals(1, mixer.activeVoices());
+
+    for (int i = 0; i < NotificationSoundMixer.MAX_STARTS_PER_SECOND; i++) {
+      mixer.play(sound("s" + i, 4_000), false);
+    }
+    assertTrue(mixer.play(sound("q", 4_000), true));
+    assertEquals(NotificationSoundMixer.MAX_VOICES, mixer.activeVoices());
+  }
+
+  @Test
+  void mixSumsVoicesWithClippingAndRetiresFinishedOnes() {
+    mixer.play(new NotificationSoundBank.PcmSound("x", frames(2, (short) 20_000)), false);
+    mixer.play(new NotificationSoundBank.PcmSound("y", frames(1, (short) 20_000)), false);
+
+    byte[] out = new byte[8];
+    assertEquals(8, mixer.mixChunk(out));
+    assertEquals(Short.MAX_VALUE, sampleAt(out, 0));
+    assertEquals(Short.MAX_VALUE, sampleAt(out, 1));
+    assertEquals(20_000, sampleAt(out, 2));
+    assertEquals(0, mixer.activeVoices());
+    assertEquals(0, mixer.mixChunk(out));
+  }
+
+  @Test
+  void closedMixerRejectsSounds() {
+    mixer.close();
+    assertFalse(mixer.play(sound("a", 4), false));
+  }
+
+  @Test
+  void monoLowRateInputIsResampledToStereoMixFormat() {
+    byte[] mono = new byte[] {0, 0, (byte) 0xe8, 0x03}; // 0, 1000
+    byte[] out = NotificationSoundBank.convert(mono, 1, 22_050f);
+
+    assertEquals(3 * 4, out.length);
+    assertEquals(0, sampleAt(out, 0));
+    assertEquals(500, sampleAt(out, 2));
+    assertEquals(sampleAt(out, 2), sampleAt(out, 3));
+    assertEquals(1000, sampleAt(out, 4));
+  }
+
+  private static NotificationSoundBank.PcmSound sound(String key, int frameCount) {
+    return new NotificationSoundBank.PcmSound(key, frames(frameCount, (short) 1));
+  }
+
+  private static byte[] frames(int frameCount, short value) {
+    byte[] b = new byte[frameCount * 4];
+    for (int i = 0; i < b.length; i += 2) {
+      b[i] = (byte) value;
+      b[i + 1] = (byte) (value >> 8);
+    }
+    return b;
+  }
+
+  private static int sampleAt(byte[] pcm, int sample) {
+    return (short) ((pcm[sample * 2] & 0xff) | (pcm[sample * 2 + 1] << 8));
+  }
+}
@@ -2,6 +2,7 @@ package cafe.woden.ircclient.ui.application;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -9,7 +10,10 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import cafe.woden.ircclient.diagnostics.JfrRuntimeEventsService;
+import cafe.woden.ircclient.diagnostics.PipelineStageStats;
 import cafe.woden.ircclient.diagnostics.RuntimeDiagnosticEvent;
+import cafe.woden.ircclient.net.HttpLite;
+import cafe.woden.ircclient.util.ExecutorTelemetry;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.lang.reflect.Field;
@@ -18,6 +22,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import javax.swing.JButton;
+import javax.swing.JLabel;
 import javax.swing.JTable;
 import javax.swing.SwingUtilities;
 import org.junit.jupiter.api.Test;
@@ -42,6 +47,23 @@ class JfrDiagnosticsPanelTest {
     verify(service, times(1)).requestImmediateRefresh();
   }
 
+  @Test
+  void executorsTabSummarizesHttpConnectionReuse() throws Exception {
+    JfrRuntimeEventsService service = mock(JfrRuntimeEventsService.class);
+    when(service.statusSnapshot()).thenReturn(snapshot());
+    when(service.recentEvents(800)).thenReturn(List.of());
+
+    assertEquals(
+        "HTTP connections: 1,200 opened, 34 reused, 2 idle",
+        JfrDiagnosticsPanel.formatHttpPool(new HttpLite.PoolStats(1_200L, 34L, 2)));
+    onEdt(
+        () -> {
+          JfrDiagnosticsPanel panel = new JfrDiagnosticsPanel(service);
+          JLabel label = field(panel, "httpPoolLabel", JLabel.class);
+          assertTrue(label.getText().startsWith("HTTP connections: "), label.getText());
+        });
+  }
+
   @Test
   void selectionIsRetainedAcrossRefreshes() throws Exception {
     JfrRuntimeEventsService service = mock(JfrRuntimeEventsService.class);
@@ -118,6 +140,61 @@ class JfrDiagnosticsPanelTest {
     verify(service, never()).requestImmediateRefresh();
   }
 
+  @Test
+  void pipelineTabShowsStageLatenciesAndResets() throws Exception {
+    JfrRuntimeEventsService service = mock(JfrRuntimeEventsService.class);
+    when(service.statusSnapshot()).thenReturn(snapshot());
+    when(service.recentEvents(800)).thenReturn(List.of());
+    when(service.pipelineStageStats())
+        .thenReturn(
+            List.of(
+                new PipelineStageStats("Inbound Parse", 3, 50, 250, 240, List.of(2L, 0L, 1L)),
+                new PipelineStageStats("Transcript Append", 0, 0, 0, 0, List.of())));
+
+    onEdt(
+        () -> {
+          JfrDiagnosticsPanel panel = new JfrDiagnosticsPanel(service);
+          JTable pipeline = field(panel, "pipelineTable", JTable.class);
+          assertEquals(2, pipeline.getRowCount());
+          assertEquals("Inbound Parse", pipeline.getValueAt(0, 0));
+          assertEquals("3", pipeline.getValueAt(0, 1));
+          assertEquals("50 µs", pipeline.getValueAt(0, 2));
+          assertEquals("240 µs", pipeline.getValueAt(0, 4));
+          assertEquals("", pipeline.getValueAt(1, 3));
+
+          field(panel, "resetPipelineButton", JButton.class).doClick();
+        });
+
+    verify(service, times(1)).clearPipelineStageStats();
+  }
+
+  @Test
+  void executorsTabListsLanesAndResets() throws Exception {
+    JfrRuntimeEventsService service = mock(JfrRuntimeEventsService.class);
+    when(service.statusSnapshot()).thenReturn(snapshot());
+    when(service.recentEvents(800)).thenReturn(List.of());
+    when(service.executorLaneStats())
+        .thenReturn(
+            List.of(
+                new ExecutorTelemetry.LaneStats(
+                    "ircafe-chatlog-writer", 40, 35, 0, 2, 3, 1, 64, 2048, 3000, 512, 4096, 5000)));
+
+    onEdt(
+        () -> {
+          JfrDiagnosticsPanel panel = new JfrDiagnosticsPanel(service);
+          JTable executors = field(panel, "executorTable", JTable.class);
+          assertEquals(1, executors.getRowCount());
+          assertEquals("ircafe-chatlog-writer", executors.getValueAt(0, 0));
+          assertEquals(3, executors.getValueAt(0, 1));
+          assertEquals(2L, executors.getValueAt(0, 6));
+          assertEquals(2048L, executors.getValueAt(0, 8));
+
+          field(panel, "resetExecutorsButton", JButton.class).doClick();
+        });
+
+    verify(service, times(1)).clearExecutorLaneStats();
+  }
+
   private static JfrRuntimeEventsService.StatusSnapshot snapshot() {
     Instant now = Instant.parse("2026-02-25T12:00:00Z");
     return new JfrRuntimeEventsService.StatusSnapshot(
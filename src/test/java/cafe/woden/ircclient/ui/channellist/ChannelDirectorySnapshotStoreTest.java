@@ -0,0 +1,45 @@
+package cafe.woden.ircclient.ui.channellist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cafe.woden.ircclient.config.api.RuntimeConfigPathPort;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChannelDirectorySnapshotStoreTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void savedSnapshotRoundTripsNextToRuntimeConfig() {
+    RuntimeConfigPathPort configPath = () -> tempDir.resolve("ircafe.yml");
+    ChannelDirectorySnapshotStore store = new ChannelDirectorySnapshotStore(configPath);
+    List<ChannelListPanel.ListEntryRow> entries =
+        List.of(
+            new ChannelListPanel.ListEntryRow("#alpha", 12, "Alpha topic"),
+            new ChannelListPanel.ListEntryRow("#beta", 0, ""));
+
+    store.save("Libera/Chat", entries);
+
+    Path file = store.fileFor("Libera/Chat");
+    assertEquals(tempDir.resolve(ChannelDirectorySnapshotStore.DIRECTORY_NAME), file.getParent());
+    assertTrue(Files.isRegularFile(file));
+    assertEquals(entries, store.load("Libera/Chat").orElseThrow().entries());
+
+    store.delete("Libera/Chat");
+    assertTrue(store.load("Libera/Chat").isEmpty());
+  }
+
+  @Test
+  void unreadableSnapshotIsIgnored() throws Exception {
+    ChannelDirectorySnapshotStore store = new ChannelDirectorySnapshotStore(tempDir);
+    Files.writeString(store.fileFor("libera"), "not a snapshot");
+
+    assertFalse(store.load("libera").isPresent());
+  }
+}
@@ -0,0 +1,62 @@
+package cafe.woden.ircclient.ui.channellist;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ChannelDirectoryTest {
+
+  @Test
+  void filterMatchesEveryTermAcrossChannelUsersAndTopic() {
+    ChannelDirectory directory = directory();
+
+    assertArrayEquals(new int[] {0, 2}, query(directory, "JAVA"));
+    assertArrayEquals(new int[] {2}, query(directory, "java more"));
+    assertArrayEquals(new int[] {1}, query(directory, "#b"));
+    assertArrayEquals(new int[] {2}, query(directory, "40"));
+    assertArrayEquals(new int[0], query(directory, "missing"));
+    assertArrayEquals(new int[] {0, 1, 2, 3}, query(directory, "  "));
+  }
+
+  @Test
+  void rowsAppendedAfterAQueryAreIndexedOnTheNextOne() {
+    ChannelDirectory directory = directory();
+    assertArrayEquals(new int[] {0, 2}, query(directory, "java"));
+
+    directory.append(List.of(new ChannelListPanel.ListEntryRow("#late", 1, "java too")));
+
+    assertArrayEquals(new int[] {0, 2, 4}, query(directory, "java"));
+    assertEquals(4, directory.rowOf("#LATE"));
+  }
+
+  @Test
+  void sortOrdersCoverUsersChannelAndTopicInBothDirections() {
+    ChannelDirectory directory = directory();
+
+    assertArrayEquals(
+        new int[] {2, 0, 3, 1}, directory.query("", ChannelDirectory.SortKey.USERS, false));
+    assertArrayEquals(
+        new int[] {1, 3, 0, 2}, directory.query("", ChannelDirectory.SortKey.USERS, true));
+    assertArrayEquals(
+        new int[] {0, 1, 3, 2}, directory.query("", ChannelDirectory.SortKey.CHANNEL, true));
+    assertArrayEquals(
+        new int[] {2, 0}, directory.query("java", ChannelDirectory.SortKey.TOPIC, false));
+  }
+
+  private static int[] query(ChannelDirectory directory, String filter) {
+    return directory.query(filter, ChannelDirectory.SortKey.NONE, true);
+  }
+
+  private static ChannelDirectory directory() {
+    ChannelDirectory directory = new ChannelDirectory();
+    directory.append(
+        List.of(
+            new ChannelListPanel.ListEntryRow("#alpha", 12, "Java help"),
+            new ChannelListPanel.ListEntryRow("#beta", 4, "Beta topic"),
+            new ChannelListPanel.ListEntryRow("#gamma", 40, "More java"),
+            new ChannelListPanel.ListEntryRow("#Delta", 7, "")));
+    return directory;
+  }
+}
@@ -235,6 +235,37 @@ class ChannelListPanelManagedOrderTest {
         });
   }
 
+  @Test
+  void listFilterRunsOffEdtAndKeepsSelectedChannel() throws Exception {
+    ChannelListPanel panel = new ChannelListPanel();
+    JTable listTable = field(panel, "listTable", JTable.class);
+    JTextField filterField = field(panel, "filterField", JTextField.class);
+    onEdt(
+        () -> {
+          panel.setServerId("libera");
+          panel.beginList("libera", "Loading channel list...");
+          panel.appendEntries(
+              "libera",
+              List.of(
+                  new ChannelListPanel.ListEntryRow("#alpha", 12, "Java help"),
+                  new ChannelListPanel.ListEntryRow("#beta", 4, "Beta topic"),
+                  new ChannelListPanel.ListEntryRow("#gamma", 40, "More java")));
+          panel.endList("libera", "End of /LIST");
+          listTable.getSelectionModel().setSelectionInterval(2, 2);
+          filterField.setText("java");
+        });
+
+    waitFor(() -> onEdtCall(listTable::getRowCount) == 2, Duration.ofSeconds(3));
+    onEdt(
+        () -> {
+          assertEquals("#alpha", listTable.getValueAt(0, 0));
+          assertEquals("#gamma", listTable.getValueAt(listTable.getSelectedRow(), 0));
+        });
+
+    onEdt(() -> filterField.setText(""));
+    onEdt(() -> assertEquals(3, listTable.getRowCount()));
+  }
+
   @Test
   void clearListButtonClearsCurrentServerRows() throws Exception {
     onEdt(
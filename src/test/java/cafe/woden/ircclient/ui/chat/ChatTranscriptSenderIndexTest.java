@@ -0,0 +1,68 @@
+package cafe.woden.ircclient.ui.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.SimpleAttributeSet;
+import org.junit.jupiter.api.Test;
+
+class ChatTranscriptSenderIndexTest {
+
+  @Test
+  void runStartsFollowAppendsAndPrependsForOneSenderOnly() throws Exception {
+    DefaultStyledDocument doc = new DefaultStyledDocument();
+    ChatTranscriptSenderIndex index = ChatTranscriptSenderIndex.attach(doc);
+
+    appendLine(doc, "@alice:example.org", "hello");
+    appendLine(doc, "@bob:example.org", "hi");
+    appendLine(doc, "@alice:example.org", "again");
+    // History lands at the top, in front of everything already indexed.
+    doc.insertString(0, "old\n", new SimpleAttributeSet());
+    doc.insertString(0, "@alice:example.org: ", from("@alice:example.org"));
+
+    List<Integer> starts = index.runStarts("@ALICE:example.org");
+
+    assertEquals(3, starts.size());
+    for (int start : starts) {
+      assertTrue(doc.getText(start, 20).startsWith("@alice:example.org: "));
+    }
+    assertEquals(1, index.runStarts("@bob:example.org").size());
+    assertEquals(List.of(), index.runStarts("@carol:example.org"));
+  }
+
+  @Test
+  void rewrittenAndTrimmedRunsAreDropped() throws Exception {
+    DefaultStyledDocument doc = new DefaultStyledDocument();
+    ChatTranscriptSenderIndex index = ChatTranscriptSenderIndex.attach(doc);
+    appendLine(doc, "@alice:example.org", "one");
+    appendLine(doc, "@alice:example.org", "two");
+    appendLine(doc, "@alice:example.org", "three");
+
+    int first = index.runStarts("@alice:example.org").getFirst();
+    doc.remove(first, "@alice:example.org: ".length());
+    doc.insertString(first, "Alice: ", from("@alice:example.org"));
+    assertEquals(3, index.runStarts("@alice:example.org").size());
+
+    int firstLineEnd = doc.getText(0, doc.getLength()).indexOf('\n') + 1;
+    doc.remove(0, firstLineEnd);
+    index.pruneHead();
+
+    assertEquals(2, index.runStarts("@alice:example.org").size());
+    assertEquals(2, index.size());
+  }
+
+  private static void appendLine(DefaultStyledDocument doc, String sender, String text)
+      throws Exception {
+    doc.insertString(doc.getLength(), sender + ": ", from(sender));
+    doc.insertString(doc.getLength(), text + "\n", new SimpleAttributeSet());
+  }
+
+  private static SimpleAttributeSet from(String sender) {
+    SimpleAttributeSet attrs = new SimpleAttributeSet();
+    attrs.addAttribute(ChatStyles.ATTR_STYLE, ChatStyles.STYLE_FROM);
+    attrs.addAttribute(ChatStyles.ATTR_META_FROM, sender);
+    return attrs;
+  }
+}
@@ -17,6 +17,7 @@ import java.awt.Color;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.text.StyleConstants;
 import javax.swing.text.StyledDocument;
@@ -137,6 +138,33 @@ class ChatTranscriptStoreContrastTest {
     assertEquals(new Color(0x55, 0x66, 0x77), fgAtToken(doc, "presence-restyle"));
   }
 
+  @Test
+  void coalescedRestyleDefersOffscreenTranscriptsUntilTheyAreShown() throws Exception {
+    configureLightTranscriptPalette();
+    ThemeFixture fixture = newThemeFixture(messageTypeOverrides(null, null, null, null, null));
+    TargetRef shown = new TargetRef("srv", "#shown");
+    TargetRef hidden = new TargetRef("srv", "#hidden");
+
+    fixture.store().appendChatAt(shown, "alice", "shown-line", false, 31_000L);
+    fixture.store().appendChatAt(hidden, "alice", "hidden-line", false, 32_000L);
+    Color original = fgAtToken(fixture.store().document(hidden), "hidden-line");
+    fixture.store().noteTargetDisplayed(shown);
+
+    fixture.chatThemeSettingsBus().set(messageTypeOverrides("#112233", null, null, null, null));
+    fixture.styles().reload();
+    fixture.store().restyleAllDocumentsCoalesced();
+    flushEdt();
+
+    Color restyled = new Color(0x11, 0x22, 0x33);
+    assertEquals(restyled, fgAtToken(fixture.store().document(shown), "shown-line"));
+    assertEquals(original, fgAtToken(fixture.store().document(hidden), "hidden-line"));
+
+    fixture.store().noteTargetDisplayed(hidden);
+    flushEdt();
+
+    assertEquals(restyled, fgAtToken(fixture.store().document(hidden), "hidden-line"));
+  }
+
   @Test
   void invalidMessageTypeOverrideFallsBackToDefaultTranscriptColor() throws Exception {
     configureLightTranscriptPalette();
@@ -240,6 +268,12 @@ class ChatTranscriptStoreContrastTest {
     return bg;
   }
 
+  private static void flushEdt() throws Exception {
+    // A restyle pass reschedules itself once per slice; two round trips drain these small docs.
+    SwingUtilities.invokeAndWait(() -> {});
+    SwingUtilities.invokeAndWait(() -> {});
+  }
+
   private static Color fgAtToken(StyledDocument doc, String token) throws Exception {
     String text = doc.getText(0, doc.getLength());
     int idx = text.indexOf(token);
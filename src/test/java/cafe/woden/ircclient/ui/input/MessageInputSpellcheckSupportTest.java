@@ -8,6 +8,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import cafe.woden.ircclient.ui.settings.SpellcheckSettings;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
 import org.junit.jupiter.api.Test;
@@ -46,25 +49,32 @@ class MessageInputSpellcheckSupportTest {
 
   @Test
   void doesNotInitializeCheckerOnEdtWhenSuggestionCacheMisses() throws Exception {
-    MessageInputSpellcheckSupport support =
-        new MessageInputSpellcheckSupport(new JTextField(), SpellcheckSettings.defaults());
-
-    SwingUtilities.invokeAndWait(
-        () -> {
-          try {
-            clearCheckerCacheForCurrentThread();
-            List<String> suggestions = support.suggestWords("teh", 1);
-            assertTrue(
-                suggestions.isEmpty(),
-                "EDT suggestion lookup should return immediately and prefetch asynchronously");
-            assertEquals(
-                0,
-                checkerCacheSizeForCurrentThread(),
-                "EDT path should not initialize LanguageTool checkers");
-          } catch (Exception ex) {
-            throw new AssertionError(ex);
-          }
-        });
+    // Hold the single spellcheck worker so its warm-up and prefetch cannot build a checker while
+    // the EDT assertions run; anything found in the cache then came from the EDT itself.
+    CountDownLatch release = new CountDownLatch(1);
+    spellcheckExecutor().execute(() -> awaitQuietly(release));
+    try {
+      checkerCacheByLanguage().clear();
+      MessageInputSpellcheckSupport support =
+          new MessageInputSpellcheckSupport(new JTextField(), SpellcheckSettings.defaults());
+
+      SwingUtilities.invokeAndWait(
+          () -> {
+            try {
+              List<String> suggestions = support.suggestWords("teh", 1);
+              assertTrue(
+                  suggestions.isEmpty(),
+                  "EDT suggestion lookup should return immediately and prefetch asynchronously");
+              assertTrue(
+                  checkerCacheByLanguage().isEmpty(),
+                  "EDT path should not initialize LanguageTool checkers");
+            } catch (Exception ex) {
+              throw new AssertionError(ex);
+            }
+          });
+    } finally {
+      release.countDown();
+    }
   }
 
   @Test
@@ -239,6 +249,27 @@ class MessageInputSpellcheckSupportTest {
     assertDoesNotThrow(support::onDraftChanged);
   }
 
+  @SuppressWarnings("unchecked")
+  private static Map<String, ?> checkerCacheByLanguage() throws Exception {
+    var field = MessageInputSpellcheckSupport.class.getDeclaredField("CHECKERS_BY_LANG");
+    field.setAccessible(true);
+    return (Map<String, ?>) field.get(null);
+  }
+
+  private static ExecutorService spellcheckExecutor() throws Exception {
+    var method = MessageInputSpellcheckSupport.class.getDeclaredMethod("ensureSpellcheckExecutor");
+    method.setAccessible(true);
+    return (ExecutorService) method.invoke(null);
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   private static void invokeCreateChecker(String languageTag) throws Exception {
     var method =
         MessageInputSpellcheckSupport.class.getDeclaredMethod("createChecker", String.class);
@@ -308,21 +339,6 @@ class MessageInputSpellcheckSupportTest {
     method.invoke(support, requestId, checkedText, ranges);
   }
 
-  @SuppressWarnings("unchecked")
-  private static ThreadLocal<Map<String, ?>> checkerCacheByThread() throws Exception {
-    var field = MessageInputSpellcheckSupport.class.getDeclaredField("CHECKERS_BY_THREAD");
-    field.setAccessible(true);
-    return (ThreadLocal<Map<String, ?>>) field.get(null);
-  }
-
-  private static void clearCheckerCacheForCurrentThread() throws Exception {
-    checkerCacheByThread().remove();
-  }
-
-  private static int checkerCacheSizeForCurrentThread() throws Exception {
-    return checkerCacheByThread().get().size();
-  }
-
   private static io.reactivex.rxjava3.disposables.Disposable spellcheckSubscription(
       MessageInputSpellcheckSupport support) throws Exception {
     var field = MessageInputSpellcheckSupport.class.getDeclaredField("spellcheckSubscription");
@@ -0,0 +1,102 @@
+package cafe.woden.ircclient.ui.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NickCompletionIndexTest {
+
+  @Test
+  void prefixMatchesAreCaseInsensitiveAndRankedByCloseness() {
+    NickCompletionIndex index = new NickCompletionIndex();
+    index.update(List.of("aardvark", "Alice", "al", "bob", "alice"));
+
+    assertEquals(4, index.size());
+    assertEquals(List.of("al", "aardvark", "Alice"), index.matches("a", 10));
+    assertEquals(List.of("Alice"), index.matches("A", 1));
+    assertTrue(index.contains("ALICE"));
+    assertTrue(index.hasPrefix("aa"));
+    assertFalse(index.hasPrefix("c"));
+    assertNull(index.best("zed"));
+  }
+
+  @Test
+  void recentSpeakersRankAheadOfIdleNicks() {
+    NickCompletionIndex index = new NickCompletionIndex();
+    index.update(List.of("al", "alice", "alina"));
+
+    assertEquals(List.of("al", "alice", "alina"), index.matches("al", 10));
+
+    index.noteActivity("ALINA");
+
+    assertEquals(List.of("al", "alina", "alice"), index.matches("al", 10));
+    assertEquals("al", index.best("al"), "an exact match still wins over recency");
+  }
+
+  @Test
+  void smallAndLargeRosterChangesBothLeaveTheIndexSorted() {
+    NickCompletionIndex index = new NickCompletionIndex();
+    ArrayList<String> roster = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      roster.add("user" + i);
+    }
+    index.update(roster);
+
+    roster.remove("user150");
+    roster.add("user1500");
+    roster.set(roster.indexOf("user9"), "User9");
+    index.update(roster);
+
+    assertEquals(200, index.size());
+    assertFalse(index.contains("user150"));
+    assertTrue(index.contains("user1500"));
+    assertEquals(List.of("user15", "user151", "user152"), index.matches("user15", 3));
+    assertEquals(List.of("User9"), index.matches("user9", 1));
+
+    index.update(List.of("carol", "dave"));
+    assertEquals(2, index.size());
+    assertEquals(List.of("carol", "dave"), index.matches("", 5).stream().sorted().toList());
+  }
+
+  @Test
+  void singleRowChangesPatchTheIndexAndCarryActivityAcrossRenames() {
+    NickCompletionIndex index = new NickCompletionIndex();
+    index.update(List.of("alice", "bob", "carol"));
+
+    index.add("Dave");
+    index.add("BOB");
+    index.remove("carol");
+    index.noteActivity("alice");
+    index.rename("alice", "alicia");
+    index.add("alix");
+
+    assertEquals(4, index.size());
+    assertFalse(index.contains("alice"));
+    assertFalse(index.contains("carol"));
+    assertEquals(List.of("BOB"), index.matches("b", 5));
+    assertEquals(List.of("Dave"), index.matches("d", 5));
+    assertEquals(List.of("alicia", "alix"), index.matches("ali", 2));
+  }
+
+  @Test
+  void rankingReadsDoNotKeepIdleNicksTrackedButNewActivityDoes() {
+    NickCompletionIndex index = new NickCompletionIndex();
+    index.update(List.of("xa", "xb", "xc"));
+    index.noteActivity("xb");
+    index.noteActivity("xc");
+    for (int i = 0; i < 510; i++) {
+      index.noteActivity("y" + i);
+    }
+    assertEquals(List.of("xc", "xb", "xa"), index.matches("x", 3));
+
+    index.noteActivity("xc");
+    index.noteActivity("y510");
+
+    assertEquals(List.of("xc", "xa", "xb"), index.matches("x", 3));
+  }
+}
@@ -0,0 +1,37 @@
+package cafe.woden.ircclient.ui.input;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SpellcheckKnownWordsTest {
+
+  @AfterEach
+  void cleanup() {
+    SpellcheckKnownWords.clear();
+  }
+
+  @Test
+  void additionsMatchCaseInsensitivelyAndSplitContractions() {
+    SpellcheckKnownWords known =
+        new SpellcheckKnownWords(null, new String[] {"don", "ircafe", "well"});
+
+    assertTrue(known.isKnown("IRCafe"));
+    assertTrue(known.isKnown("don't"));
+    assertTrue(known.isKnown("well-ircafe"));
+    assertFalse(known.isKnown("ircafe-zzq"));
+    assertFalse(known.isKnown("zzq"));
+    assertFalse(known.isKnown("'"));
+  }
+
+  @Test
+  void bundledDictionaryKnowsCommonWordsButNotTypos() {
+    SpellcheckKnownWords known = SpellcheckKnownWords.forLanguage("en-US");
+
+    assertTrue(known.isKnown("hello"));
+    assertTrue(known.isKnown("Hello"));
+    assertFalse(known.isKnown("teh"));
+  }
+}
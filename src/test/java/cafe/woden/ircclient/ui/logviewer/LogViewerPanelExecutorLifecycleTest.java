@@ -2,6 +2,7 @@ package cafe.woden.ircclient.ui.logviewer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -64,6 +65,23 @@ class LogViewerPanelExecutorLifecycleTest {
     assertTrue(exec.isShutdown());
   }
 
+  @Test
+  void exportsRunOffTheSearchExecutorAndStopOnClose() throws Exception {
+    ChatLogViewerService service = mock(ChatLogViewerService.class);
+    when(service.enabled()).thenReturn(false);
+    ExecutorService exec = mock(ExecutorService.class);
+    LogViewerPanel panel = onEdtCall(() -> new LogViewerPanel(service, sid -> List.of(), exec));
+    ExecutorService exportExec = readField(panel, "exportExec", ExecutorService.class);
+    assertNotSame(exec, exportExec);
+    assertFalse(exportExec.isShutdown());
+
+    onEdt(panel::close);
+    flushEdt();
+
+    assertTrue(exportExec.isShutdown());
+    verify(exec, never()).shutdownNow();
+  }
+
   @Test
   void rejectsShutdownExecutor() {
     ChatLogViewerService service = mock(ChatLogViewerService.class);
@@ -8,6 +8,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import org.junit.jupiter.api.Test;
@@ -23,6 +25,10 @@ class ServerTreeUnreadStateCoordinatorTest {
 
     assertEquals(1, fixture.nodeData.unread);
     assertEquals(0, fixture.nodeData.highlightUnread);
+    assertEquals(0, fixture.noteActivityCount.get());
+
+    fixture.coordinator.flushPendingChanges();
+
     assertEquals(1, fixture.noteActivityCount.get());
     assertEquals(ref, fixture.lastNotedActivity.get());
     assertEquals(1, fixture.unreadChangedCount.get());
@@ -38,6 +44,7 @@ class ServerTreeUnreadStateCoordinatorTest {
     fixture.muted = true;
 
     fixture.coordinator.markUnread(ref);
+    fixture.coordinator.flushPendingChanges();
 
     assertEquals(0, fixture.nodeData.unread);
     assertEquals(0, fixture.nodeData.highlightUnread);
@@ -64,6 +71,26 @@ class ServerTreeUnreadStateCoordinatorTest {
     assertEquals("libera", fixture.lastManagedServerId.get());
   }
 
+  @Test
+  void burstOfMessagesIsCoalescedIntoOneFlush() {
+    TargetRef ref = new TargetRef("libera", "#ircafe");
+    Fixture fixture = Fixture.withChannel(ref);
+
+    for (int i = 0; i < 50; i++) {
+      fixture.coordinator.markUnread(ref);
+    }
+    fixture.coordinator.markHighlight(ref);
+    fixture.coordinator.flushPendingChanges();
+    fixture.coordinator.flushPendingChanges();
+
+    assertEquals(50, fixture.nodeData.unread);
+    assertEquals(1, fixture.nodeData.highlightUnread);
+    assertEquals(1, fixture.noteActivityCount.get());
+    assertEquals(1, fixture.unreadChangedCount.get());
+    assertEquals(1, fixture.managedChangedCount.get());
+    assertEquals(1, fixture.nodesChangedEvents.get());
+  }
+
   private static final class Fixture {
     private final AtomicInteger noteActivityCount = new AtomicInteger();
     private final AtomicReference<TargetRef> lastNotedActivity = new AtomicReference<>();
@@ -71,6 +98,7 @@ class ServerTreeUnreadStateCoordinatorTest {
     private final AtomicReference<TargetRef> lastUnreadChanged = new AtomicReference<>();
     private final AtomicInteger managedChangedCount = new AtomicInteger();
     private final AtomicReference<String> lastManagedServerId = new AtomicReference<>();
+    private final AtomicInteger nodesChangedEvents = new AtomicInteger();
     private volatile boolean muted = false;
 
     private ServerTreeUnreadStateCoordinator coordinator;
@@ -83,6 +111,13 @@ class ServerTreeUnreadStateCoordinatorTest {
       DefaultMutableTreeNode channelNode = new DefaultMutableTreeNode(fixture.nodeData);
       root.add(channelNode);
       DefaultTreeModel model = new DefaultTreeModel(root);
+      model.addTreeModelListener(
+          new TreeModelAdapter() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+              fixture.nodesChangedEvents.incrementAndGet();
+            }
+          });
 
       Map<TargetRef, DefaultMutableTreeNode> leaves = new HashMap<>();
       leaves.put(ref, channelNode);
@@ -92,14 +127,18 @@ class ServerTreeUnreadStateCoordinatorTest {
               leaves,
               model,
               ignored -> fixture.muted,
-              target -> {
-                fixture.noteActivityCount.incrementAndGet();
-                fixture.lastNotedActivity.set(target);
-              },
-              target -> {
-                fixture.unreadChangedCount.incrementAndGet();
-                fixture.lastUnreadChanged.set(target);
-              },
+              targets ->
+                  targets.forEach(
+                      target -> {
+                        fixture.noteActivityCount.incrementAndGet();
+                        fixture.lastNotedActivity.set(target);
+                      }),
+              targets ->
+                  targets.forEach(
+                      target -> {
+                        fixture.unreadChangedCount.incrementAndGet();
+                        fixture.lastUnreadChanged.set(target);
+                      }),
               serverId -> {
                 fixture.managedChangedCount.incrementAndGet();
                 fixture.lastManagedServerId.set(serverId);
@@ -107,4 +146,18 @@ class ServerTreeUnreadStateCoordinatorTest {
       return fixture;
     }
   }
+
+  private abstract static class TreeModelAdapter implements TreeModelListener {
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {}
+
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {}
+
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {}
+
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {}
+  }
 }
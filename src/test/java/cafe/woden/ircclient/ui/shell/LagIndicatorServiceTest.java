@@ -8,6 +8,7 @@ import static org.mockito.Mockito.when;
 
 import cafe.woden.ircclient.app.api.ActiveTargetPort;
 import cafe.woden.ircclient.config.api.UiShellRuntimeConfigPort;
+import cafe.woden.ircclient.irc.ServerEventBuffer;
 import cafe.woden.ircclient.irc.port.IrcLagProbePort;
 import cafe.woden.ircclient.model.TargetRef;
 import io.reactivex.rxjava3.core.Completable;
@@ -195,9 +196,48 @@ class LagIndicatorServiceTest {
     verify(statusBar).setLagIndicatorReading(45L, "Round-trip lag to 'quassel': 45 ms.");
   }
 
+  @Test
+  void catchingUpIndicatorFollowsTheActiveServersEventBacklog() throws Exception {
+    UiShellRuntimeConfigPort runtimeConfig = mock(UiShellRuntimeConfigPort.class);
+    StatusBar statusBar = mock(StatusBar.class);
+    ActiveTargetPort activeTargetPort = mock(ActiveTargetPort.class);
+    IrcLagProbePort lagProbePort = mock(IrcLagProbePort.class);
+    when(activeTargetPort.getActiveTarget()).thenReturn(new TargetRef("libera", "#ircafe"));
+    ServerEventBuffer.Backlog behind =
+        new ServerEventBuffer.Backlog("libera", 1_234, 2_048L * 1024L, 4_200L, 56L, 10L, 900);
+    ServerEventBuffer.Backlog fresh =
+        new ServerEventBuffer.Backlog("libera", 3, 512L, 40L, 0L, 0L, 0);
+    when(lagProbePort.eventBacklog("libera"))
+        .thenReturn(Optional.of(behind), Optional.of(fresh), Optional.of(fresh));
+    LagIndicatorService service =
+        new LagIndicatorService(runtimeConfig, statusBar, activeTargetPort, lagProbePort);
+
+    try {
+      invokeCheckEventBacklogSafely(service);
+      invokeCheckEventBacklogSafely(service);
+      invokeCheckEventBacklogSafely(service);
+    } finally {
+      service.shutdown();
+    }
+
+    verify(statusBar)
+        .setCatchingUpIndicator(
+            1_234,
+            "Processing a backlog from 'libera': 1,234 events (2,048 KiB) queued, oldest 4.2 s"
+                + " ago. 56 typing/read-marker updates dropped. 900 chat lines waiting on disk.");
+    verify(statusBar, times(1)).setCatchingUpIndicator(0, null);
+  }
+
   private static void invokeCheckLagSafely(LagIndicatorService service) throws Exception {
     Method method = LagIndicatorService.class.getDeclaredMethod("checkLagSafely");
     method.setAccessible(true);
     method.invoke(service);
   }
+
+  private static void invokeCheckEventBacklogSafely(LagIndicatorService service)
+      throws Exception {
+    Method method = LagIndicatorService.class.getDeclaredMethod("checkEventBacklogSafely");
+    method.setAccessible(true);
+    method.invoke(service);
+  }
 }
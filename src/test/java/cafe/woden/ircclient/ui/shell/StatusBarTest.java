@@ -61,6 +61,21 @@ class StatusBarTest {
     assertNull(serverLabel.getToolTipText());
   }
 
+  @Test
+  void userCountTooltipShowsWhoxCoverageUntilCleared() throws Exception {
+    StatusBar statusBar = onEdt(StatusBar::new);
+
+    onEdtVoid(() -> statusBar.setUserInfoCoverage(41, 50));
+
+    JLabel usersLabel = readLabel(statusBar, "usersLabel");
+    assertEquals(
+        "User info coverage: 82% (41 of 50 users with hostmask, away state and account known)",
+        usersLabel.getToolTipText());
+
+    onEdtVoid(() -> statusBar.setUserInfoCoverage(0, -1));
+    assertNull(usersLabel.getToolTipText());
+  }
+
   @Test
   void lagIndicatorUsesSameForegroundAsStatusText() throws Exception {
     StatusBar statusBar = onEdt(StatusBar::new);
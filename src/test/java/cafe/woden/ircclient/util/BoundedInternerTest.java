@@ -0,0 +1,34 @@
+package cafe.woden.ircclient.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedInternerTest {
+
+  @Test
+  void equalValuesResolveToTheFirstPooledInstance() {
+    BoundedInterner<String> interner = new BoundedInterner<>(16);
+    String first = new String("#ircafe");
+    String second = new String("#ircafe");
+
+    assertSame(first, interner.intern(first));
+    assertSame(first, interner.intern(second));
+    assertNull(interner.intern(null));
+    assertEquals(1, interner.size());
+  }
+
+  @Test
+  void poolIsClearedOnceItReachesItsBound() {
+    BoundedInterner<String> interner = new BoundedInterner<>(2);
+    interner.intern("a");
+    interner.intern("b");
+    assertEquals(2, interner.size());
+
+    String c = new String("c");
+    assertSame(c, interner.intern(c));
+    assertEquals(1, interner.size());
+  }
+}
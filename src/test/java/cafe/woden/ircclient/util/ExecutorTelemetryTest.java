@@ -0,0 +1,116 @@
+package cafe.woden.ircclient.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ExecutorTelemetryTest {
+
+  @AfterEach
+  void cleanup() {
+    VirtualThreads.shutdownTrackedExecutorsNow();
+  }
+
+  @Test
+  void singleThreadExecutorReportsQueueDepthAndCompletions() throws Exception {
+    ExecutorService exec = VirtualThreads.newSingleThreadExecutor("test-telemetry-single");
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    exec.execute(
+        () -> {
+          started.countDown();
+          awaitQuietly(release);
+        });
+    assertTrue(started.await(1, TimeUnit.SECONDS));
+    exec.execute(() -> {});
+    exec.submit(() -> "done");
+
+    ExecutorTelemetry.LaneStats busy = stats("test-telemetry-single");
+    assertEquals(2, busy.queueDepth());
+    assertEquals(1, busy.running());
+
+    release.countDown();
+    exec.shutdown();
+    assertTrue(exec.awaitTermination(1, TimeUnit.SECONDS));
+
+    ExecutorTelemetry.LaneStats idle = stats("test-telemetry-single");
+    assertEquals(3L, idle.submitted());
+    assertEquals(3L, idle.completed());
+    assertEquals(0, idle.queueDepth());
+    assertEquals(0, idle.running());
+    assertTrue(idle.waitMaxMicros() > 0L);
+  }
+
+  @Test
+  void rejectedSubmissionsAndFailuresAreCounted() throws Exception {
+    ExecutorService exec = VirtualThreads.newSingleThreadExecutor("test-telemetry-reject");
+    Future<?> failing =
+        exec.submit(
+            () -> {
+              throw new IllegalStateException("boom");
+            });
+    assertThrows(ExecutionException.class, () -> failing.get(1, TimeUnit.SECONDS));
+    exec.shutdown();
+
+    assertThrows(RejectedExecutionException.class, () -> exec.execute(() -> {}));
+
+    ExecutorTelemetry.LaneStats s = stats("test-telemetry-reject");
+    assertEquals(2L, s.submitted());
+    assertEquals(1L, s.failed());
+    assertEquals(1L, s.rejected());
+  }
+
+  @Test
+  void scheduledExecutorOnlyCountsDueTasksAsQueued() throws Exception {
+    ScheduledExecutorService exec =
+        VirtualThreads.newSingleThreadScheduledExecutor("test-telemetry-scheduled");
+    exec.schedule(() -> {}, 1, TimeUnit.HOURS);
+    CountDownLatch ran = new CountDownLatch(3);
+    exec.scheduleAtFixedRate(ran::countDown, 0, 5, TimeUnit.MILLISECONDS);
+
+    assertTrue(ran.await(1, TimeUnit.SECONDS));
+    ExecutorTelemetry.LaneStats s = stats("test-telemetry-scheduled");
+    assertEquals(0, s.queueDepth());
+    assertTrue(s.completed() >= 3L);
+  }
+
+  @Test
+  void histogramPercentilesUseBucketUpperBoundsCappedAtMax() {
+    ExecutorTelemetry.LatencyHistogram h = new ExecutorTelemetry.LatencyHistogram();
+    for (int i = 0; i < 98; i++) h.record(3);
+    h.record(700);
+    h.record(900);
+
+    assertEquals(4L, h.percentile(0.50d));
+    assertEquals(900L, h.percentile(0.99d));
+    assertEquals(900L, h.max());
+    assertEquals(0, ExecutorTelemetry.LatencyHistogram.bucketOf(1));
+    assertEquals(10, ExecutorTelemetry.LatencyHistogram.bucketOf(1024));
+    assertEquals(11, ExecutorTelemetry.LatencyHistogram.bucketOf(1025));
+  }
+
+  private static ExecutorTelemetry.LaneStats stats(String name) {
+    return ExecutorTelemetry.snapshot().stream()
+        .filter(s -> s.name().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
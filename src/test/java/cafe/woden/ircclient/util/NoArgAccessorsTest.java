@@ -0,0 +1,60 @@
+package cafe.woden.ircclient.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class NoArgAccessorsTest {
+
+  @Test
+  void callsPublicAccessorsOnNonPublicClasses() {
+    assertEquals("raw", NoArgAccessors.call(new PrivateEvent(), "getRawLine"));
+    assertEquals(42, NoArgAccessors.call(new PrivateEvent(), "getCount"));
+    assertEquals("raw", NoArgAccessors.call(new PrivateEvent(), "getRawLine"));
+  }
+
+  @Test
+  void missingVoidStaticAndThrowingAccessorsReturnNull() {
+    assertNull(NoArgAccessors.call(new PrivateEvent(), "getMissing"));
+    assertNull(NoArgAccessors.call(new PrivateEvent(), "touch"));
+    assertNull(NoArgAccessors.call(new PrivateEvent(), "staticValue"));
+    assertNull(NoArgAccessors.call(new PrivateEvent(), "getBroken"));
+    assertNull(NoArgAccessors.call(null, "getRawLine"));
+  }
+
+  @Test
+  void declaredLookupFindsNonPublicMethodsInSuperclasses() {
+    assertNull(NoArgAccessors.call(new ChildEvent(), "hidden"));
+    assertEquals("base", NoArgAccessors.callIncludingDeclared(new ChildEvent(), "hidden"));
+  }
+
+  private static class PrivateEvent {
+    public String getRawLine() {
+      return "raw";
+    }
+
+    public int getCount() {
+      return 42;
+    }
+
+    public void touch() {}
+
+    public static String staticValue() {
+      return "static";
+    }
+
+    public String getBroken() {
+      throw new IllegalStateException("boom");
+    }
+  }
+
+  private static class BaseEvent {
+    @SuppressWarnings("unused")
+    private String hidden() {
+      return "base";
+    }
+  }
+
+  private static final class ChildEvent extends BaseEvent {}
+}
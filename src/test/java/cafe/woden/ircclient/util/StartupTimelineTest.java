@@ -0,0 +1,34 @@
+package cafe.woden.ircclient.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+class StartupTimelineTest {
+
+  @Test
+  void marksEachMilestoneOnceAndReplaysThemToLateListeners() {
+    StartupTimeline.mark("test-timeline-first");
+    StartupTimeline.mark("test-timeline-first");
+
+    List<String> seen = new ArrayList<>();
+    Consumer<StartupTimeline.Phase> listener = phase -> seen.add(phase.name());
+    StartupTimeline.addListener(listener);
+    try {
+      StartupTimeline.mark("test-timeline-second");
+    } finally {
+      StartupTimeline.removeListener(listener);
+    }
+    StartupTimeline.mark("test-timeline-third");
+
+    assertEquals(1, seen.stream().filter("test-timeline-first"::equals).count());
+    assertTrue(seen.indexOf("test-timeline-first") < seen.indexOf("test-timeline-second"));
+    assertTrue(!seen.contains("test-timeline-third"));
+    assertTrue(StartupTimeline.millisTo("test-timeline-second") >= 0L);
+    assertEquals(-1L, StartupTimeline.millisTo("test-timeline-never"));
+  }
+}